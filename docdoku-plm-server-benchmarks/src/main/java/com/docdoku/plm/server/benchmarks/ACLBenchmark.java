@@ -0,0 +1,76 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.core.security.ACL;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read and write checks of an {@link ACL}, evaluated on every entity of a listing.
+ *
+ * Direct user entries are a map lookup, group grants scan every group entry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ACLBenchmark {
+
+    @Param({"10", "1000"})
+    private int userEntries;
+
+    @Param({"5", "100"})
+    private int groupEntries;
+
+    @Param({"20"})
+    private int membersPerGroup;
+
+    private SyntheticACL syntheticACL;
+
+    @Setup
+    public void setup() {
+        syntheticACL = new SyntheticACL(userEntries, groupEntries, membersPerGroup);
+    }
+
+    @Benchmark
+    public boolean readDirectUser() {
+        return syntheticACL.getACL().hasReadAccess(syntheticACL.getDirectUser());
+    }
+
+    @Benchmark
+    public boolean readGroupMember() {
+        return syntheticACL.getACL().hasReadAccess(syntheticACL.getGroupMember());
+    }
+
+    @Benchmark
+    public boolean writeGroupMember() {
+        return syntheticACL.getACL().hasWriteAccess(syntheticACL.getGroupMember());
+    }
+
+    @Benchmark
+    public boolean readStranger() {
+        return syntheticACL.getACL().hasReadAccess(syntheticACL.getStranger());
+    }
+}
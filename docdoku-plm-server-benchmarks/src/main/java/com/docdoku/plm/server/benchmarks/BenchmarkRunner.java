@@ -0,0 +1,58 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching the given patterns, all the in-memory ones by default, with the GC profiler
+ * so that allocation rates are reported along with the timings.
+ *
+ * After an install of the module:
+ * <pre>
+ * mvn -pl docdoku-plm-server-benchmarks dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:$(cat target/cp.txt) com.docdoku.plm.server.benchmarks.BenchmarkRunner [pattern...]
+ * </pre>
+ * The benchmarks of the <code>harness</code> package need the <code>ejb-harness</code> profile when
+ * building the classpath, and must be selected explicitly, e.g. <code>harness\..*</code>.
+ */
+public class BenchmarkRunner {
+
+    private static final String IN_MEMORY_BENCHMARKS = "com\\.docdoku\\.plm\\.server\\.benchmarks\\.[A-Za-z]+Benchmark";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder().addProfiler(GCProfiler.class);
+        if (args.length == 0) {
+            options.include(IN_MEMORY_BENCHMARKS);
+        }
+        for (String pattern : args) {
+            options.include(pattern);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.document.DocumentIteration;
+import com.docdoku.plm.server.core.document.DocumentMaster;
+import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.meta.InstanceAttribute;
+import com.docdoku.plm.server.core.meta.InstanceTextAttribute;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.rest.Tools;
+import com.docdoku.plm.server.rest.dto.DocumentRevisionDTO;
+import com.docdoku.plm.server.rest.dto.PartRevisionDTO;
+import com.docdoku.plm.server.rest.mappers.DocumentDTOMapper;
+import com.docdoku.plm.server.rest.mappers.PartDTOMapper;
+import org.dozer.DozerBeanMapperSingletonWrapper;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Dozer mapping with the reflection-free mappers on the DTOs returned by list endpoints,
+ * for an assembly of <code>breadth</code> usage links and a document of <code>breadth / 10</code> iterations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DTOMapperBenchmark {
+
+    private static final Date DATE = new Date(1577836800000L);
+
+    @Param({"10", "100"})
+    private int breadth;
+
+    private Mapper mapper;
+    private PartRevision partRevision;
+    private DocumentRevision documentRevision;
+
+    @Setup
+    public void setup() {
+        mapper = DozerBeanMapperSingletonWrapper.getInstance();
+        SyntheticAssembly assembly = new SyntheticAssembly(1, breadth);
+        partRevision = assembly.getRoot().getLastRevision();
+        partRevision.setACL(new SyntheticACL(2, 1, 1).getACL());
+        documentRevision = createDocumentRevision(assembly, breadth / 10);
+    }
+
+    @Benchmark
+    public PartRevisionDTO dozerPartRevision() {
+        return mapper.map(partRevision, PartRevisionDTO.class);
+    }
+
+    @Benchmark
+    public PartRevisionDTO mapperPartRevision() {
+        return PartDTOMapper.toPartRevisionDTO(partRevision);
+    }
+
+    @Benchmark
+    public PartRevisionDTO mapperLightPartRevision() {
+        return PartDTOMapper.toLightPartRevisionDTO(partRevision);
+    }
+
+    @Benchmark
+    public DocumentRevisionDTO dozerLightDocumentRevision() {
+        return Tools.createLightDocumentRevisionDTO(mapper.map(documentRevision, DocumentRevisionDTO.class));
+    }
+
+    @Benchmark
+    public DocumentRevisionDTO mapperLightDocumentRevision() {
+        return DocumentDTOMapper.toLightDocumentRevisionDTO(documentRevision);
+    }
+
+    private static DocumentRevision createDocumentRevision(SyntheticAssembly assembly, int iterations) {
+        DocumentMaster documentMaster = new DocumentMaster(assembly.getWorkspace(), "DOC-001", assembly.getUser());
+        documentMaster.setType("specification");
+
+        DocumentRevision documentRevision = new DocumentRevision(documentMaster, "A", assembly.getUser());
+        documentRevision.setTitle("Document title");
+        documentRevision.setCreationDate(DATE);
+        documentRevision.setACL(new SyntheticACL(2, 1, 1).getACL());
+
+        for (int i = 1; i <= iterations; i++) {
+            DocumentIteration documentIteration = documentRevision.createNextIteration(assembly.getUser());
+            documentIteration.setRevisionNote("Iteration " + i);
+            documentIteration.setCreationDate(DATE);
+            documentIteration.setCheckInDate(DATE);
+            documentIteration.addFile(new BinaryResource(SyntheticAssembly.WORKSPACE_ID + "/documents/DOC-001/A/" + i + "/spec.pdf", 65536, DATE));
+            List<InstanceAttribute> attributes = new ArrayList<>();
+            attributes.add(new InstanceTextAttribute("supplier", "DocDoku", false));
+            documentIteration.setInstanceAttributes(attributes);
+        }
+        return documentRevision;
+    }
+}
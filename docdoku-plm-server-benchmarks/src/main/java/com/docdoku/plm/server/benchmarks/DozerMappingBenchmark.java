@@ -0,0 +1,83 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.core.meta.InstanceAttribute;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.rest.dto.InstanceAttributeDTO;
+import com.docdoku.plm.server.rest.dto.PartIterationDTO;
+import com.docdoku.plm.server.rest.dto.PartRevisionDTO;
+import org.dozer.DozerBeanMapperSingletonWrapper;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dozer mappings of the synthetic assemblies, the cost grows with the number of usage links.
+ *
+ * The comparison with the hand written mappers is {@link DTOMapperBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DozerMappingBenchmark {
+
+    @Param({"10", "100"})
+    private int breadth;
+
+    private Mapper mapper;
+    private PartRevision assemblyRevision;
+    private PartIteration leafIteration;
+
+    @Setup
+    public void setup() {
+        mapper = DozerBeanMapperSingletonWrapper.getInstance();
+        SyntheticAssembly assembly = new SyntheticAssembly(1, breadth);
+        assemblyRevision = assembly.getRoot().getLastRevision();
+        leafIteration = assembly.getPartMaster("LEAF").getLastRevision().getLastIteration();
+    }
+
+    @Benchmark
+    public PartRevisionDTO partRevision() {
+        return mapper.map(assemblyRevision, PartRevisionDTO.class);
+    }
+
+    @Benchmark
+    public PartIterationDTO partIteration() {
+        return mapper.map(assemblyRevision.getLastIteration(), PartIterationDTO.class);
+    }
+
+    @Benchmark
+    public List<InstanceAttributeDTO> instanceAttributes() {
+        List<InstanceAttributeDTO> attributes = new ArrayList<>();
+        for (InstanceAttribute attribute : leafIteration.getInstanceAttributes()) {
+            attributes.add(mapper.map(attribute, InstanceAttributeDTO.class));
+        }
+        return attributes;
+    }
+}
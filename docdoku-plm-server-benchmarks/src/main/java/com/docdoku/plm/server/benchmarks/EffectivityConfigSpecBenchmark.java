@@ -0,0 +1,110 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.configuration.spec.EffectivityIndex;
+import com.docdoku.plm.server.configuration.spec.SerialNumberBasedEffectivityConfigSpec;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.product.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serial number effectivity filtering of every part met by a product structure traversal, three revisions per part
+ * and a few serial number ranges per revision:
+ * <ul>
+ *     <li><code>evaluated</code>: each effectivity of each revision compared to the serial number.</li>
+ *     <li><code>indexed</code>: effective revisions stabbed once in the {@link EffectivityIndex}, then looked up.
+ *     In the application the evaluated variant also loads the effectivities of each revision from the database.</li>
+ *     <li><code>compile</code>: compiling the index, paid once per configuration item until an effectivity changes.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EffectivityConfigSpecBenchmark {
+
+    private static final int REVISIONS = 3;
+
+    @Param({"10000", "50000"})
+    private int partMasters;
+
+    private final Workspace workspace = new Workspace("workspace");
+
+    private final ConfigurationItem configurationItem = new ConfigurationItem(null, workspace, "PRODUCT", "");
+
+    private List<PartMaster> parts;
+
+    private Map<PartRevisionKey, List<Effectivity>> effectivities;
+
+    private EffectivityIndex index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        parts = new ArrayList<>(partMasters);
+        effectivities = new HashMap<>();
+        for (int i = 0; i < partMasters; i++) {
+            PartMaster partMaster = new PartMaster(workspace, String.format("PRT-%07d", i));
+            for (int r = 0; r < REVISIONS; r++) {
+                PartRevision partRevision = partMaster.createNextRevision(null);
+                partRevision.createNextIteration(null);
+                List<Effectivity> revisionEffectivities = new ArrayList<>();
+                for (int e = random.nextInt(4); e >= 0; e--) {
+                    int start = random.nextInt(10000);
+                    String end = random.nextInt(4) == 0 ? null : "SN-" + (start + random.nextInt(500));
+                    revisionEffectivities.add(new SerialNumberBasedEffectivity("effectivity", configurationItem, "SN-" + start, end));
+                }
+                partRevision.setEffectivities(new HashSet<>(revisionEffectivities));
+                effectivities.put(partRevision.getKey(), revisionEffectivities);
+            }
+            parts.add(partMaster);
+        }
+        index = new EffectivityIndex(configurationItem.getKey(), effectivities);
+    }
+
+    @Benchmark
+    public void evaluated(Blackhole blackhole) {
+        filter(new SerialNumberBasedEffectivityConfigSpec("SN-5000", configurationItem), blackhole);
+    }
+
+    @Benchmark
+    public void indexed(Blackhole blackhole) {
+        filter(new SerialNumberBasedEffectivityConfigSpec("SN-5000", configurationItem, index), blackhole);
+    }
+
+    @Benchmark
+    public EffectivityIndex compile() {
+        return new EffectivityIndex(configurationItem.getKey(), effectivities);
+    }
+
+    private void filter(SerialNumberBasedEffectivityConfigSpec spec, Blackhole blackhole) {
+        for (PartMaster partMaster : parts) {
+            blackhole.consume(spec.filterPartIteration(partMaster));
+        }
+    }
+}
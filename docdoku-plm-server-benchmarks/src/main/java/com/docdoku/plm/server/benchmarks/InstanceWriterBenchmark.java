@@ -0,0 +1,98 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.configuration.filter.LatestCheckedInPSFilter;
+import com.docdoku.plm.server.core.services.IProductManagerLocal;
+import com.docdoku.plm.server.rest.collections.VirtualInstanceCollection;
+import com.docdoku.plm.server.rest.writers.VirtualInstanceCollectionMessageBodyWriter;
+import org.openjdk.jmh.annotations.*;
+
+import javax.ws.rs.core.MediaType;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the instances of the whole synthetic structure as JSON, through the message body writer
+ * and {@link com.docdoku.plm.server.rest.util.InstanceBodyWriterTools}. One JSON object is written per
+ * leaf path, so the payload grows as <code>breadth ^ depth</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstanceWriterBenchmark {
+
+    @Param({"3", "5"})
+    private int depth;
+
+    @Param({"4", "8"})
+    private int breadth;
+
+    private VirtualInstanceCollectionMessageBodyWriter writer;
+    private VirtualInstanceCollection collection;
+
+    @Setup
+    public void setup() {
+        SyntheticAssembly assembly = new SyntheticAssembly(depth, breadth);
+        writer = Injections.inject(new VirtualInstanceCollectionMessageBodyWriter(), "productService", grantingProductService());
+        collection = new VirtualInstanceCollection(assembly.getRoot().getLastRevision(), new LatestCheckedInPSFilter(false));
+    }
+
+    @Benchmark
+    public long writeInstances() throws UnsupportedEncodingException {
+        CountingOutputStream out = new CountingOutputStream();
+        writer.writeTo(collection, VirtualInstanceCollection.class, VirtualInstanceCollection.class, null, MediaType.APPLICATION_JSON_TYPE, null, out);
+        return out.count;
+    }
+
+    /**
+     * The writer only asks the product service whether parts can be accessed
+     */
+    private static IProductManagerLocal grantingProductService() {
+        return (IProductManagerLocal) Proxy.newProxyInstance(IProductManagerLocal.class.getClassLoader(), new Class<?>[]{IProductManagerLocal.class},
+                (proxy, method, args) -> {
+                    if ("canAccess".equals(method.getName())) {
+                        return true;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
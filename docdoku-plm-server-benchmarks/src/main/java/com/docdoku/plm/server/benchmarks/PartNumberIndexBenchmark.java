@@ -0,0 +1,99 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.core.product.PartSuggestion;
+import com.docdoku.plm.server.listeners.parts.PartNumberIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Part number and name autocomplete over a workspace of synthetic part masters, as typed in the UI:
+ * <ul>
+ *     <li><code>indexLookup</code>: the trigram index of <code>PartNumberIndexes</code>.</li>
+ *     <li><code>scan</code>: an in-memory scan of every part, checking each number and name like
+ *     <code>LIKE '%q%'</code> does. It is a lower bound of the former query, which also went through the
+ *     database and loaded the part master graphs.</li>
+ * </ul>
+ * Both run in memory, the lookups against a database are timed by <code>harness.PartNumberIndexDatabaseBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PartNumberIndexBenchmark {
+
+    private static final String[] WORDS = {"wheel", "bolt", "frame", "bracket", "housing", "shaft", "gear", "spring",
+            "washer", "cover", "plate", "pin", "nut", "bearing", "seal", "clip"};
+
+    private static final int MAX_RESULTS = 8;
+
+    @Param({"1000000"})
+    private int partMasters;
+
+    /**
+     * First characters typed, a number prefix, a word, a number of a single part and a query matching nothing
+     */
+    @Param({"p", "prt-0042", "bearing", "0731337", "gearbox"})
+    private String query;
+
+    private PartNumberIndex index;
+
+    private String[] numbers;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        numbers = new String[partMasters];
+        names = new String[partMasters];
+        index = new PartNumberIndex("workspace");
+        for (int i = 0; i < partMasters; i++) {
+            numbers[i] = String.format("PRT-%07d", i);
+            names[i] = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(100);
+            index.add(numbers[i], names[i]);
+        }
+    }
+
+    @Benchmark
+    public List<PartSuggestion> indexLookup() {
+        return index.lookup(query, MAX_RESULTS);
+    }
+
+    @Benchmark
+    public List<PartSuggestion> scan() {
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        List<PartSuggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < partMasters && suggestions.size() < MAX_RESULTS; i++) {
+            if (numbers[i].toLowerCase(Locale.ROOT).contains(lowerQuery) || names[i].toLowerCase(Locale.ROOT).contains(lowerQuery)) {
+                suggestions.add(new PartSuggestion("workspace", numbers[i], names[i]));
+            }
+        }
+        return suggestions;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.meta.*;
+import com.docdoku.plm.server.core.product.InstancePartNumberAttribute;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartRevision;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows the database goes through for a query builder query holding a single text attribute rule, before and
+ * after the rework of <code>PartRevisionQueryDAO</code>. No database is involved, both plans are evaluated over
+ * an in-memory workspace and the rows one query produces are reported as the <code>rows</code> secondary result
+ * (counters add up over the measurement iterations, hence a single one):
+ * <ul>
+ *     <li><code>crossJoinPlan</code>: the former query, eleven independent roots. Only the iteration and the
+ *     text attribute roots are constrained, every other root multiplies the result by the size of its table,
+ *     then the revisions are de-duplicated in a set.</li>
+ *     <li><code>existsPlan</code>: a single revision root and a correlated <code>EXISTS</code> per rule, one row
+ *     per matching revision.</li>
+ * </ul>
+ * The row counts are a model of both plans, not timings of them: the current plan is timed on a database by
+ * <code>harness.PartQueryDatabaseBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 1, time = 10)
+@Fork(1)
+public class PartQueryBenchmark {
+
+    private static final String ATTRIBUTE_NAME = "supplier";
+    private static final String ATTRIBUTE_VALUE = "supplier-0";
+    private static final Date DATE = new Date(1577836800000L);
+
+    @Param({"100", "1000"})
+    private int revisions;
+
+    @Param({"3"})
+    private int iterations;
+
+    @Param({"20"})
+    private int tags;
+
+    private List<PartRevision> partRevisions;
+
+    /**
+     * Rows of the tables joined without any predicate by the former query: tags and the seven other attribute types
+     */
+    private double unconstrainedRows;
+
+    /**
+     * Rows produced by the last query, not a sum over the iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Rows {
+        public double rows;
+    }
+
+    @Setup
+    public void setup() {
+        Workspace workspace = new Workspace(SyntheticAssembly.WORKSPACE_ID);
+        User user = new User(workspace, new Account("bench", "bench", "bench@docdoku.com", "en", DATE, "CET"));
+        List<Tag> workspaceTags = new ArrayList<>();
+        for (int t = 0; t < tags; t++) {
+            workspaceTags.add(new Tag(workspace, "tag-" + t));
+        }
+
+        partRevisions = new ArrayList<>();
+        PartMaster referencedPart = null;
+        for (int r = 0; r < revisions; r++) {
+            PartMaster partMaster = new PartMaster(workspace, String.format("P%06d", r), user);
+            PartRevision partRevision = partMaster.createNextRevision(user);
+            partRevision.setTags(new HashSet<>(Collections.singletonList(workspaceTags.get(r % tags))));
+            for (int i = 0; i < iterations; i++) {
+                PartIteration partIteration = partRevision.createNextIteration(user);
+                partIteration.setCheckInDate(DATE);
+                partIteration.setInstanceAttributes(createInstanceAttributes(r, referencedPart));
+            }
+            referencedPart = partMaster;
+            partRevisions.add(partRevision);
+        }
+
+        // One row per iteration in each of the seven other attribute tables
+        double attributeRows = (double) revisions * iterations;
+        unconstrainedRows = tags * Math.pow(attributeRows, 7);
+    }
+
+    @Benchmark
+    public int crossJoinPlan(Rows rows) {
+        double produced = 0;
+        Set<PartRevision> result = new HashSet<>();
+        for (PartRevision partRevision : partRevisions) {
+            for (PartIteration partIteration : partRevision.getPartIterations()) {
+                for (InstanceAttribute attribute : partIteration.getInstanceAttributes()) {
+                    if (matches(attribute)) {
+                        produced += unconstrainedRows;
+                        result.add(partRevision);
+                    }
+                }
+            }
+        }
+        result.removeIf(partRevision -> partRevision.getLastCheckedInIteration() == null);
+        rows.rows = produced;
+        return result.size();
+    }
+
+    @Benchmark
+    public int existsPlan(Rows rows) {
+        List<PartRevision> result = new ArrayList<>();
+        for (PartRevision partRevision : partRevisions) {
+            if (partRevision.getLastCheckedInIteration() != null && anyAttributeMatches(partRevision)) {
+                result.add(partRevision);
+            }
+        }
+        rows.rows = result.size();
+        return result.size();
+    }
+
+    private static boolean anyAttributeMatches(PartRevision partRevision) {
+        for (PartIteration partIteration : partRevision.getPartIterations()) {
+            for (InstanceAttribute attribute : partIteration.getInstanceAttributes()) {
+                if (matches(attribute)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(InstanceAttribute attribute) {
+        return attribute instanceof InstanceTextAttribute
+                && ATTRIBUTE_NAME.equals(attribute.getName())
+                && ATTRIBUTE_VALUE.equals(((InstanceTextAttribute) attribute).getTextValue());
+    }
+
+    private static List<InstanceAttribute> createInstanceAttributes(int r, PartMaster referencedPart) {
+        List<InstanceAttribute> attributes = new ArrayList<>();
+        attributes.add(new InstanceTextAttribute(ATTRIBUTE_NAME, "supplier-" + (r % 10), false));
+        attributes.add(new InstanceNumberAttribute("weight", r, false));
+        attributes.add(new InstanceDateAttribute("released", DATE, false));
+        attributes.add(new InstanceBooleanAttribute("purchased", r % 2 == 0, false));
+        attributes.add(new InstanceURLAttribute("datasheet", "http://docdoku.com/" + r, false));
+        attributes.add(new InstanceListOfValuesAttribute("finish", r % 3, false));
+        attributes.add(new InstanceLongTextAttribute("notes", "notes " + r, false));
+        attributes.add(new InstancePartNumberAttribute("replaces", referencedPart, false));
+        return attributes;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.core.product.PartLink;
+import com.docdoku.plm.server.core.util.Tools;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * String encoding of the instance paths, computed for every leaf written by the instance endpoints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathBenchmark {
+
+    @Param({"3", "10", "30"})
+    private int depth;
+
+    private List<PartLink> path;
+    private List<Integer> instanceIds;
+
+    @Setup
+    public void setup() {
+        path = new SyntheticAssembly(depth, 2).getFirstLeafPath();
+        instanceIds = new ArrayList<>();
+        for (PartLink link : path) {
+            instanceIds.add(link.getCadInstances().get(0).getId());
+        }
+    }
+
+    @Benchmark
+    public String pathAsString() {
+        return Tools.getPathAsString(path);
+    }
+
+    @Benchmark
+    public String pathInstanceAsString() {
+        return Tools.getPathInstanceAsString(path, instanceIds);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.configuration.PSFilterVisitor;
+import com.docdoku.plm.server.configuration.PSFilterVisitorCallbacks;
+import com.docdoku.plm.server.configuration.filter.LatestCheckedInPSFilter;
+import com.docdoku.plm.server.configuration.filter.WIPPSFilter;
+import com.docdoku.plm.server.core.exceptions.EntityConstraintException;
+import com.docdoku.plm.server.core.exceptions.NotAllowedException;
+import com.docdoku.plm.server.core.exceptions.PartMasterNotFoundException;
+import com.docdoku.plm.server.core.product.Component;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartLink;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walks the whole synthetic structure with the {@link PSFilterVisitor}, as the product structure
+ * and the instance endpoints do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductStructureBenchmark {
+
+    @Param({"3", "5"})
+    private int depth;
+
+    @Param({"4", "8"})
+    private int breadth;
+
+    private SyntheticAssembly assembly;
+    private PSFilterVisitor visitor;
+
+    @Setup
+    public void setup() {
+        assembly = new SyntheticAssembly(depth, breadth);
+        visitor = Injections.inject(new PSFilterVisitor(), "partMasterDAO", assembly.createPartMasterDAO());
+    }
+
+    @Benchmark
+    public Component latestCheckedIn(Blackhole blackhole) throws EntityConstraintException, NotAllowedException, PartMasterNotFoundException {
+        return visitor.visit(SyntheticAssembly.WORKSPACE_ID, new LatestCheckedInPSFilter(false), assembly.getRoot(), -1, callbacks(blackhole));
+    }
+
+    @Benchmark
+    public Component wip(Blackhole blackhole) throws EntityConstraintException, NotAllowedException, PartMasterNotFoundException {
+        return visitor.visit(SyntheticAssembly.WORKSPACE_ID, new WIPPSFilter(assembly.getUser()), assembly.getRoot(), -1, callbacks(blackhole));
+    }
+
+    @Benchmark
+    public Component firstLevel(Blackhole blackhole) throws EntityConstraintException, NotAllowedException, PartMasterNotFoundException {
+        return visitor.visit(SyntheticAssembly.WORKSPACE_ID, new LatestCheckedInPSFilter(false), assembly.getRoot(), 1, callbacks(blackhole));
+    }
+
+    private static PSFilterVisitorCallbacks callbacks(Blackhole blackhole) {
+        return new PSFilterVisitorCallbacks() {
+            @Override
+            public void onBranchDiscovered(List<PartLink> pCurrentPath, List<PartIteration> copyPartIteration) {
+                blackhole.consume(pCurrentPath);
+            }
+        };
+    }
+}
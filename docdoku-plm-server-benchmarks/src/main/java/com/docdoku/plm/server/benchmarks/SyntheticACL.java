@@ -0,0 +1,90 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.UserGroup;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.security.ACL;
+import com.docdoku.plm.server.core.security.ACLPermission;
+
+import java.util.Date;
+
+/**
+ * Synthetic {@link ACL} with a given number of user entries and group entries.
+ *
+ * The probe users cover the three branches of the access checks: a user with a direct entry,
+ * a user only granted through a group, and a user granted nothing at all.
+ */
+public class SyntheticACL {
+
+    private static final Date DATE = new Date(1577836800000L);
+
+    private final ACL acl = new ACL();
+    private final User directUser;
+    private final User groupMember;
+    private final User stranger;
+
+    public SyntheticACL(int userEntries, int groupEntries, int membersPerGroup) {
+        Workspace workspace = new Workspace(SyntheticAssembly.WORKSPACE_ID);
+
+        User lastUser = null;
+        for (int u = 0; u < userEntries; u++) {
+            lastUser = createUser(workspace, "user" + u);
+            acl.addEntry(lastUser, u % 2 == 0 ? ACLPermission.FULL_ACCESS : ACLPermission.READ_ONLY);
+        }
+
+        User lastMember = null;
+        for (int g = 0; g < groupEntries; g++) {
+            UserGroup group = new UserGroup(workspace, "group" + g);
+            for (int m = 0; m < membersPerGroup; m++) {
+                lastMember = createUser(workspace, "member" + g + "-" + m);
+                group.addUser(lastMember);
+            }
+            acl.addEntry(group, ACLPermission.FULL_ACCESS);
+        }
+
+        directUser = lastUser;
+        groupMember = lastMember;
+        stranger = createUser(workspace, "stranger");
+    }
+
+    public ACL getACL() {
+        return acl;
+    }
+
+    public User getDirectUser() {
+        return directUser;
+    }
+
+    public User getGroupMember() {
+        return groupMember;
+    }
+
+    public User getStranger() {
+        return stranger;
+    }
+
+    private static User createUser(Workspace workspace, String login) {
+        return new User(workspace, new Account(login, login, login + "@docdoku.com", "en", DATE, "CET"));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.exceptions.PartMasterNotFoundException;
+import com.docdoku.plm.server.core.meta.InstanceAttribute;
+import com.docdoku.plm.server.core.meta.InstanceNumberAttribute;
+import com.docdoku.plm.server.core.meta.InstanceTextAttribute;
+import com.docdoku.plm.server.core.product.*;
+import com.docdoku.plm.server.dao.PartMasterDAO;
+
+import java.util.*;
+
+/**
+ * Synthetic product structure of a given depth and breadth.
+ *
+ * Every assembly of level <code>n</code> holds <code>breadth</code> usage links to the single part of
+ * level <code>n + 1</code>, so the structure only has <code>depth + 1</code> part masters but
+ * <code>breadth ^ depth</code> distinct leaf paths, which is what the visitors and the instance writers walk.
+ * Leaves carry a geometry and a few instance attributes; the CAD instances of the links alternate
+ * between angle and matrix rotations.
+ */
+public class SyntheticAssembly {
+
+    public static final String WORKSPACE_ID = "bench";
+
+    private static final Date DATE = new Date(1577836800000L);
+
+    private final Workspace workspace;
+    private final User user;
+    private final Map<String, PartMaster> partMasters = new HashMap<>();
+    private final List<PartMaster> levels = new ArrayList<>();
+    private final int depth;
+    private final int breadth;
+
+    public SyntheticAssembly(int depth, int breadth) {
+        this.depth = depth;
+        this.breadth = breadth;
+        workspace = new Workspace(WORKSPACE_ID);
+        user = new User(workspace, new Account("bench", "bench", "bench@docdoku.com", "en", DATE, "CET"));
+
+        int linkId = 1;
+        PartMaster child = createPart("LEAF", null);
+        for (int level = depth - 1; level >= 0; level--) {
+            List<PartUsageLink> links = new ArrayList<>();
+            for (int b = 0; b < breadth; b++) {
+                links.add(createUsageLink(child, linkId++));
+            }
+            child = createPart("ASM-" + level, links);
+        }
+        Collections.reverse(levels);
+    }
+
+    public Workspace getWorkspace() {
+        return workspace;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getBreadth() {
+        return breadth;
+    }
+
+    public PartMaster getRoot() {
+        return levels.get(0);
+    }
+
+    public PartMaster getPartMaster(String number) {
+        return partMasters.get(number);
+    }
+
+    /**
+     * The first path from the root down to the leaf, one usage link per level
+     */
+    public List<PartLink> getFirstLeafPath() {
+        List<PartLink> path = new ArrayList<>();
+        for (int level = 0; level < depth; level++) {
+            path.add(levels.get(level).getLastRevision().getLastIteration().getComponents().get(0));
+        }
+        return path;
+    }
+
+    /**
+     * A {@link PartMasterDAO} serving the parts of this structure from memory
+     */
+    public PartMasterDAO createPartMasterDAO() {
+        return new PartMasterDAO() {
+            @Override
+            public PartMaster loadPartM(PartMasterKey pKey) throws PartMasterNotFoundException {
+                PartMaster partMaster = partMasters.get(pKey.getNumber());
+                if (partMaster == null) {
+                    throw new PartMasterNotFoundException(pKey.getNumber());
+                }
+                return partMaster;
+            }
+
+            @Override
+            public PartMaster loadPartM(PartMasterKey pKey, String pGraphName) throws PartMasterNotFoundException {
+                return loadPartM(pKey);
+            }
+        };
+    }
+
+    private PartMaster createPart(String number, List<PartUsageLink> components) {
+        PartMaster partMaster = new PartMaster(workspace, number, user);
+        partMaster.setName(number + " name");
+        partMaster.setCreationDate(DATE);
+
+        PartRevision partRevision = partMaster.createNextRevision(user);
+        partRevision.setCreationDate(DATE);
+
+        PartIteration partIteration = partRevision.createNextIteration(user);
+        partIteration.setCreationDate(DATE);
+        partIteration.setCheckInDate(DATE);
+        if (components == null) {
+            String path = WORKSPACE_ID + "/parts/" + number + "/A/1/";
+            partIteration.setNativeCADFile(new BinaryResource(path + "nativecad/" + number + ".step", 4096, DATE));
+            partIteration.addGeometry(new Geometry(0, path + number + ".obj", 2048, DATE));
+            partIteration.setInstanceAttributes(createInstanceAttributes());
+        } else {
+            partIteration.setComponents(components);
+        }
+
+        partMasters.put(number, partMaster);
+        levels.add(partMaster);
+        return partMaster;
+    }
+
+    private static PartUsageLink createUsageLink(PartMaster component, int id) {
+        PartUsageLink usageLink = new PartUsageLink(component, 1, null, false);
+        usageLink.setId(id);
+        usageLink.setReferenceDescription("ref " + id);
+
+        CADInstance cadInstance = id % 2 == 0
+                ? new CADInstance(id, 0, 0, 0.1, 0.2, 0.3)
+                : new CADInstance(new RotationMatrix(new double[]{1, 0, 0, 0, 1, 0, 0, 0, 1}), id, 0, 0);
+        cadInstance.setId(id);
+        usageLink.setCadInstances(new ArrayList<>(Collections.singletonList(cadInstance)));
+        return usageLink;
+    }
+
+    private static List<InstanceAttribute> createInstanceAttributes() {
+        List<InstanceAttribute> attributes = new ArrayList<>();
+        attributes.add(new InstanceTextAttribute("supplier", "DocDoku", false));
+        attributes.add(new InstanceNumberAttribute("weight", 12.5f, false));
+        return attributes;
+    }
+}
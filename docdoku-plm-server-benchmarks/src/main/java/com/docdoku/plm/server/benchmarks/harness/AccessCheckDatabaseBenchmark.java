@@ -0,0 +1,260 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks.harness;
+
+import com.docdoku.plm.server.DocumentManagerBean;
+import com.docdoku.plm.server.ProductManagerBean;
+import com.docdoku.plm.server.benchmarks.Injections;
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.document.DocumentIterationKey;
+import com.docdoku.plm.server.core.document.DocumentMaster;
+import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.exceptions.DocumentRevisionNotFoundException;
+import com.docdoku.plm.server.core.exceptions.PartIterationNotFoundException;
+import com.docdoku.plm.server.core.exceptions.PartRevisionNotFoundException;
+import com.docdoku.plm.server.core.meta.Folder;
+import com.docdoku.plm.server.core.product.PartIterationKey;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.security.ACL;
+import com.docdoku.plm.server.core.security.ACLPermission;
+import com.docdoku.plm.server.core.sharing.SharedDocument;
+import com.docdoku.plm.server.core.sharing.SharedEntity;
+import com.docdoku.plm.server.dao.ACLDAO;
+import com.docdoku.plm.server.dao.DocumentRevisionDAO;
+import com.docdoku.plm.server.dao.PartRevisionDAO;
+import com.docdoku.plm.server.dao.SharedEntityDAO;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read access checks of a regular user against an in-memory Derby database, each on a fresh entity manager,
+ * before and after they were moved to projection queries:
+ * <ul>
+ *     <li><code>documentAccessByRevision</code> / <code>documentAccessByProjection</code>:
+ *     <code>DocumentManagerBean.canUserAccess</code> on an iteration, formerly loading the revision with
+ *     <code>DocumentRevisionDAO.loadDocR</code>, now through <code>DocumentRevisionDAO.findAccess</code> and
+ *     <code>ACLDAO.loadACL</code>.</li>
+ *     <li><code>partAccessByRevision</code> / <code>partAccessByProjection</code>: the same for
+ *     <code>ProductManagerBean.canUserAccess</code>, formerly on <code>PartRevisionDAO.loadPartR</code>.</li>
+ *     <li><code>sharedDocumentByEntity</code> / <code>sharedDocumentByCount</code>:
+ *     <code>SharedEntityDAO.isSharedDocument</code>, formerly an entity lookup (the former
+ *     <code>em.find</code> on the uuid alone is rejected by the composite id, the share is read by uuid instead),
+ *     now a <code>COUNT</code> query.</li>
+ * </ul>
+ * The former paths are reproduced here as they were, the current ones run the beans and DAOs themselves.
+ * With <code>countStatements</code>, the SQL statements run by the last call are reported as the
+ * <code>statements</code> counter (hence a single measurement iteration). Allocations per call are the
+ * <code>gc.alloc.rate.norm</code> of the GC profiler added by the {@link com.docdoku.plm.server.benchmarks.BenchmarkRunner},
+ * to be read on the runs without <code>countStatements</code>: the statement logging allocates on its own. <code>cold</code> empties the shared cache before each call,
+ * <code>warm</code> keeps it.
+ *
+ * Needs the <code>ejb-harness</code> profile, see {@link PersistenceUnitHarness}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 1, time = 10)
+@Fork(1)
+public class AccessCheckDatabaseBenchmark {
+
+    private static final String WORKSPACE_ID = "access";
+    private static final Date DATE = new Date(1577836800000L);
+
+    @Param({"cold", "warm"})
+    private String sharedCache;
+
+    @Param({"true", "false"})
+    private boolean countStatements;
+
+    @Param({"10"})
+    private int iterations;
+
+    @Param({"10"})
+    private int aclEntries;
+
+    private PersistenceUnitHarness harness;
+    private StatementCounter statementCounter;
+
+    private User reader;
+    private DocumentIterationKey documentIterationKey;
+    private PartIterationKey partIterationKey;
+    private String sharedDocumentUuid;
+
+    private EntityManager em;
+
+    /**
+     * Statements run by the last call, not a sum over the iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+        public int statements;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        harness = new PersistenceUnitHarness(WORKSPACE_ID,
+                Collections.singletonMap("eclipselink.logging.level.sql", countStatements ? "FINE" : "OFF"));
+        harness.inTransaction(em -> {
+            Account account = new Account("reader", "Reader", "reader@docdoku.com", "en", DATE, "CET");
+            Workspace workspace = new Workspace(WORKSPACE_ID, account, "", false);
+            User user = new User(workspace, account);
+            Folder root = Folder.createRootFolder(WORKSPACE_ID);
+            em.persist(account);
+            em.persist(workspace);
+            em.persist(user);
+            em.persist(root);
+
+            DocumentMaster documentMaster = new DocumentMaster(workspace, "DOC-001", user);
+            DocumentRevision documentRevision = documentMaster.createNextRevision(user);
+            documentRevision.setLocation(root);
+            documentRevision.setACL(createACL(em, workspace, user, "document"));
+            for (int i = 0; i < iterations; i++) {
+                documentRevision.createNextIteration(user).setCheckInDate(DATE);
+            }
+            em.persist(documentMaster);
+
+            PartMaster partMaster = new PartMaster(workspace, "PRT-001", user);
+            PartRevision partRevision = partMaster.createNextRevision(user);
+            partRevision.setACL(createACL(em, workspace, user, "part"));
+            for (int i = 0; i < iterations; i++) {
+                partRevision.createNextIteration(user).setCheckInDate(DATE);
+            }
+            em.persist(partMaster);
+
+            SharedDocument sharedDocument = new SharedDocument(workspace, user, documentRevision);
+            em.persist(sharedDocument);
+
+            reader = user;
+            documentIterationKey = new DocumentIterationKey(documentRevision.getKey(), iterations);
+            partIterationKey = new PartIterationKey(partRevision.getKey(), iterations);
+            sharedDocumentUuid = sharedDocument.getUuid();
+        });
+        statementCounter = new StatementCounter().install();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        statementCounter.uninstall();
+        harness.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void openEntityManager() {
+        if ("cold".equals(sharedCache)) {
+            harness.evictAll();
+        }
+        em = harness.createEntityManager();
+        statementCounter.reset();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeEntityManager() {
+        em.close();
+    }
+
+    @Benchmark
+    public boolean documentAccessByRevision(Statements statements) throws DocumentRevisionNotFoundException {
+        DocumentRevision docRevision = Injections.inject(new DocumentRevisionDAO(), "em", em)
+                .loadDocR(documentIterationKey.getDocumentRevision());
+        boolean canAccess = (docRevision.isPublicShared() ||
+                reader.getWorkspaceId().equals(docRevision.getWorkspaceId()) &&
+                        (reader.isAdministrator() || docRevision.getACL() == null || docRevision.getACL().hasReadAccess(reader)) &&
+                        !(docRevision.getLocation().isPrivate() && !reader.getLogin().equals(docRevision.getLocation().getOwner()))) &&
+                (docRevision.getLastIteration().getIteration() > documentIterationKey.getIteration() ||
+                        !(docRevision.isCheckedOut() && !docRevision.getCheckOutUser().equals(reader)));
+        statements.statements = statementCounter.get();
+        return canAccess;
+    }
+
+    @Benchmark
+    public boolean documentAccessByProjection(Statements statements) throws DocumentRevisionNotFoundException {
+        DocumentManagerBean documentManager = new DocumentManagerBean();
+        Injections.inject(documentManager, "documentRevisionDAO", Injections.inject(new DocumentRevisionDAO(), "em", em));
+        Injections.inject(documentManager, "aclDAO", Injections.inject(new ACLDAO(), "em", em));
+        boolean canAccess = documentManager.canUserAccess(reader, documentIterationKey);
+        statements.statements = statementCounter.get();
+        return canAccess;
+    }
+
+    @Benchmark
+    public boolean partAccessByRevision(Statements statements) {
+        PartRevision partRevision = Injections.inject(new PartRevisionDAO(), "em", em)
+                .loadPartR(partIterationKey.getPartRevision());
+        boolean checkedOutIteration = partRevision.isCheckedOut() &&
+                partIterationKey.getIteration() == partRevision.getLastIterationNumber();
+        boolean canAccess = (reader.isAdministrator() || partRevision.getACL() == null || partRevision.getACL().hasReadAccess(reader)) &&
+                (!checkedOutIteration || reader.equals(partRevision.getCheckOutUser()));
+        statements.statements = statementCounter.get();
+        return canAccess;
+    }
+
+    @Benchmark
+    public boolean partAccessByProjection(Statements statements) throws PartRevisionNotFoundException, PartIterationNotFoundException {
+        ProductManagerBean productManager = new ProductManagerBean();
+        Injections.inject(productManager, "partRevisionDAO", Injections.inject(new PartRevisionDAO(), "em", em));
+        Injections.inject(productManager, "aclDAO", Injections.inject(new ACLDAO(), "em", em));
+        boolean canAccess = productManager.canUserAccess(reader, partIterationKey);
+        statements.statements = statementCounter.get();
+        return canAccess;
+    }
+
+    @Benchmark
+    public boolean sharedDocumentByEntity(Statements statements) {
+        boolean shared = !em.createNamedQuery("SharedEntity.findSharedEntityForGivenUuid", SharedEntity.class)
+                .setParameter("pUuid", sharedDocumentUuid)
+                .getResultList().isEmpty();
+        statements.statements = statementCounter.get();
+        return shared;
+    }
+
+    @Benchmark
+    public boolean sharedDocumentByCount(Statements statements) {
+        boolean shared = Injections.inject(new SharedEntityDAO(), "em", em).isSharedDocument(sharedDocumentUuid);
+        statements.statements = statementCounter.get();
+        return shared;
+    }
+
+    /**
+     * An ACL granting read access to the reader among other users
+     */
+    private ACL createACL(EntityManager em, Workspace workspace, User readerUser, String loginPrefix) {
+        ACL acl = new ACL();
+        acl.addEntry(readerUser, ACLPermission.READ_ONLY);
+        for (int i = 1; i < aclEntries; i++) {
+            Account account = new Account(loginPrefix + i, loginPrefix + i, loginPrefix + i + "@docdoku.com", "en", DATE, "CET");
+            User user = new User(workspace, account);
+            em.persist(account);
+            em.persist(user);
+            acl.addEntry(user, ACLPermission.FULL_ACCESS);
+        }
+        Injections.inject(new ACLDAO(), "em", em).createACL(acl);
+        return acl;
+    }
+}
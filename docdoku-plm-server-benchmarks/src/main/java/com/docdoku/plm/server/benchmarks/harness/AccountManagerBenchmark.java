@@ -0,0 +1,82 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks.harness;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.exceptions.AccountAlreadyExistsException;
+import com.docdoku.plm.server.core.exceptions.AccountNotFoundException;
+import com.docdoku.plm.server.core.exceptions.CreationException;
+import com.docdoku.plm.server.core.services.IAccountManagerLocal;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of unsecured account reads through the EJB layer and an in-memory database, which gives
+ * the baseline cost of a bean call (container interceptors, transaction, entity manager) on top of
+ * which the other services are measured.
+ *
+ * Needs an embedded container, see {@link EmbeddedEJBHarness}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class AccountManagerBenchmark {
+
+    @Param({"1000"})
+    private int accounts;
+
+    private EmbeddedEJBHarness harness;
+    private IAccountManagerLocal accountManager;
+
+    @Setup(Level.Trial)
+    public void setup() throws AccountAlreadyExistsException, CreationException {
+        harness = new EmbeddedEJBHarness();
+        accountManager = harness.lookup(IAccountManagerLocal.class, "AccountManagerBean");
+        for (int i = 0; i < accounts; i++) {
+            accountManager.createAccount(login(i), "Account " + i, login(i) + "@docdoku.com", "en", "password", "CET");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        harness.close();
+    }
+
+    @Benchmark
+    public Account getAccount() throws AccountNotFoundException {
+        return accountManager.getAccount(login(ThreadLocalRandom.current().nextInt(accounts)));
+    }
+
+    @Benchmark
+    public boolean isAccountEnabled() throws AccountNotFoundException {
+        return accountManager.isAccountEnabled(login(ThreadLocalRandom.current().nextInt(accounts)));
+    }
+
+    private static String login(int i) {
+        return "bench" + i;
+    }
+}
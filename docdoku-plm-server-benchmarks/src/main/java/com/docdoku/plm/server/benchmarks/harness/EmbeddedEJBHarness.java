@@ -0,0 +1,89 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks.harness;
+
+import com.docdoku.plm.server.AccountManagerBean;
+
+import javax.ejb.embeddable.EJBContainer;
+import javax.naming.NamingException;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the EJB module in an embedded container, for the benchmarks going through the whole EJB layer
+ * (interceptors, transactions, JPA).
+ *
+ * The container is the one found on the classpath, the <code>ejb-harness</code> profile of this module
+ * brings an embedded Payara and Derby. Every <code>harness.*</code> system property is handed to the
+ * container without its prefix; the configuration file must bind <code>jdbc/docdokuPU</code> to an
+ * in-memory database, e.g. <code>jdbc:derby:memory:docdoku;create=true</code>:
+ * <pre>
+ * -Dharness.org.glassfish.ejb.embedded.glassfish.configuration.file=/path/to/domain.xml
+ * </pre>
+ */
+public class EmbeddedEJBHarness implements AutoCloseable {
+
+    private static final String PROPERTY_PREFIX = "harness.";
+
+    private final EJBContainer container;
+    private final String moduleName;
+
+    public EmbeddedEJBHarness() {
+        File module = getEJBModule();
+        moduleName = module.isDirectory() ? "classes" : module.getName().replaceFirst("\\.jar$", "");
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(EJBContainer.MODULES, module);
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(PROPERTY_PREFIX)) {
+                properties.put(name.substring(PROPERTY_PREFIX.length()), System.getProperty(name));
+            }
+        }
+        container = EJBContainer.createEJBContainer(properties);
+    }
+
+    /**
+     * Look up a bean of the module through its portable global JNDI name
+     */
+    public <T> T lookup(Class<T> businessInterface, String beanName) {
+        String jndiName = "java:global/" + moduleName + "/" + beanName + "!" + businessInterface.getName();
+        try {
+            return businessInterface.cast(container.getContext().lookup(jndiName));
+        } catch (NamingException e) {
+            throw new IllegalStateException("Cannot look up " + jndiName, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        container.close();
+    }
+
+    private static File getEJBModule() {
+        try {
+            return new File(AccountManagerBean.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
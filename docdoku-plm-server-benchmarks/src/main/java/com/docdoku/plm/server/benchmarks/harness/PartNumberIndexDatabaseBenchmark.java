@@ -0,0 +1,137 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks.harness;
+
+import com.docdoku.plm.server.benchmarks.Injections;
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartSuggestion;
+import com.docdoku.plm.server.dao.PartMasterDAO;
+import com.docdoku.plm.server.listeners.parts.PartNumberIndex;
+import com.docdoku.plm.server.listeners.parts.PartNumberIndexLoader;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Part number and name autocomplete against an in-memory Derby database:
+ * <ul>
+ *     <li><code>indexLookup</code>: the trigram index, built once from the database by
+ *     <code>PartNumberIndexLoader</code>.</li>
+ *     <li><code>databaseSearch</code>: the <code>LIKE '%q%'</code> query answering the lookups while the index
+ *     of a workspace is being built, on a fresh entity manager.</li>
+ *     <li><code>indexBuild</code>: the build itself, the cost paid in the background on a first lookup.</li>
+ * </ul>
+ * Needs the <code>ejb-harness</code> profile, see {@link PersistenceUnitHarness}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PartNumberIndexDatabaseBenchmark {
+
+    private static final String WORKSPACE_ID = "autocomplete";
+    private static final String[] WORDS = {"wheel", "bolt", "frame", "bracket", "housing", "shaft", "gear", "spring",
+            "washer", "cover", "plate", "pin", "nut", "bearing", "seal", "clip"};
+
+    private static final int MAX_RESULTS = 8;
+
+    @Param({"10000", "100000"})
+    private int partMasters;
+
+    /**
+     * First characters typed, a number prefix, a word, a number of a single part and a query matching nothing
+     */
+    @Param({"p", "prt-0042", "bearing", "0007331", "gearbox"})
+    private String query;
+
+    private PersistenceUnitHarness harness;
+    private PartNumberIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        harness = new PersistenceUnitHarness(WORKSPACE_ID);
+        harness.inTransaction(em -> {
+            Account account = new Account("bench", "bench", "bench@docdoku.com", "en", new Date(), "CET");
+            Workspace workspace = new Workspace(WORKSPACE_ID, account, "", false);
+            User user = new User(workspace, account);
+            em.persist(account);
+            em.persist(workspace);
+            em.persist(user);
+            Random random = new Random(42);
+            for (int i = 0; i < partMasters; i++) {
+                PartMaster partMaster = new PartMaster(workspace, String.format("PRT-%07d", i), user);
+                partMaster.setName(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(100));
+                em.persist(partMaster);
+                if (i % 1000 == 999) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+        index = indexBuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        harness.close();
+    }
+
+    @Benchmark
+    public List<PartSuggestion> indexLookup() {
+        return index.lookup(query, MAX_RESULTS);
+    }
+
+    @Benchmark
+    public List<PartSuggestion> databaseSearch() {
+        EntityManager em = harness.createEntityManager();
+        try {
+            return loader(em).search(WORKSPACE_ID, query, MAX_RESULTS);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PartNumberIndex indexBuild() {
+        EntityManager em = harness.createEntityManager();
+        try {
+            return loader(em).load(WORKSPACE_ID);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static PartNumberIndexLoader loader(EntityManager em) {
+        PartMasterDAO partMasterDAO = Injections.inject(new PartMasterDAO(), "em", em);
+        return Injections.inject(new PartNumberIndexLoader(), "partMasterDAO", partMasterDAO);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks.harness;
+
+import com.docdoku.plm.server.benchmarks.Injections;
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.meta.InstanceAttribute;
+import com.docdoku.plm.server.core.meta.InstanceNumberAttribute;
+import com.docdoku.plm.server.core.meta.InstanceTextAttribute;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.query.Query;
+import com.docdoku.plm.server.core.query.QueryRule;
+import com.docdoku.plm.server.dao.PartRevisionQueryDAO;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query builder queries run by <code>PartRevisionQueryDAO</code> against an in-memory Derby database, each
+ * invocation on a fresh entity manager and an empty shared cache:
+ * <ul>
+ *     <li><code>textAttributeRule</code>: a single text attribute rule, one part in ten matching.</li>
+ *     <li><code>textAttributeRuleFirstPage</code>: the first page of the same query, as the UI reads it.</li>
+ * </ul>
+ * <code>PartQueryBenchmark</code> only models the rows of the former and current plans in memory, the
+ * timings of the current plan on a database are the ones of this benchmark.
+ *
+ * Needs the <code>ejb-harness</code> profile, see {@link PersistenceUnitHarness}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PartQueryDatabaseBenchmark {
+
+    private static final String WORKSPACE_ID = "query";
+    private static final String ATTRIBUTE_NAME = "supplier";
+    private static final Date DATE = new Date(1577836800000L);
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000"})
+    private int revisions;
+
+    @Param({"3"})
+    private int iterations;
+
+    private PersistenceUnitHarness harness;
+    private Workspace workspace;
+    private Query query;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        harness = new PersistenceUnitHarness(WORKSPACE_ID);
+        harness.inTransaction(em -> {
+            Account account = new Account("bench", "bench", "bench@docdoku.com", "en", DATE, "CET");
+            workspace = new Workspace(WORKSPACE_ID, account, "", false);
+            User user = new User(workspace, account);
+            em.persist(account);
+            em.persist(workspace);
+            em.persist(user);
+            for (int r = 0; r < revisions; r++) {
+                em.persist(createPart(user, r));
+            }
+        });
+
+        QueryRule rule = new QueryRule();
+        rule.setField("attr-TEXT." + ATTRIBUTE_NAME);
+        rule.setOperator("equal");
+        rule.setType("string");
+        rule.setValues(Collections.singletonList(ATTRIBUTE_NAME + "-0"));
+        query = new Query();
+        query.setQueryRule(rule);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        harness.close();
+    }
+
+    @Benchmark
+    public int textAttributeRule() {
+        EntityManager em = open();
+        try {
+            return dao(em).runQuery("CET", workspace, query).size();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public int textAttributeRuleFirstPage() {
+        EntityManager em = open();
+        try {
+            return dao(em).runQuery("CET", workspace, query, null, PAGE_SIZE).size();
+        } finally {
+            em.close();
+        }
+    }
+
+    private EntityManager open() {
+        harness.evictAll();
+        return harness.createEntityManager();
+    }
+
+    private static PartRevisionQueryDAO dao(EntityManager em) {
+        return Injections.inject(new PartRevisionQueryDAO(), "em", em);
+    }
+
+    private PartMaster createPart(User user, int r) {
+        PartMaster partMaster = new PartMaster(user.getWorkspace(), String.format("P%06d", r), user);
+        PartRevision partRevision = partMaster.createNextRevision(user);
+        for (int i = 0; i < iterations; i++) {
+            PartIteration partIteration = partRevision.createNextIteration(user);
+            partIteration.setCheckInDate(DATE);
+            List<InstanceAttribute> attributes = new ArrayList<>();
+            attributes.add(new InstanceTextAttribute(ATTRIBUTE_NAME, ATTRIBUTE_NAME + "-" + (r % 10), false));
+            attributes.add(new InstanceNumberAttribute("weight", r, false));
+            partIteration.setInstanceAttributes(attributes);
+        }
+        return partMaster;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks.harness;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Opens the persistence unit of the EJB module on an in-memory Derby database, outside of any container,
+ * for the benchmarks and tests of the data access layer.
+ *
+ * EclipseLink and Derby come from the <code>ejb-harness</code> profile of this module, see {@link #isAvailable()}.
+ * Statements are logged through <code>java.util.logging</code>, under the <code>org.eclipse.persistence</code>
+ * loggers.
+ */
+public class PersistenceUnitHarness implements AutoCloseable {
+
+    public static final String PERSISTENCE_UNIT = "DocDoku-PU";
+
+    private static final String PROVIDER_CLASS = "org.eclipse.persistence.jpa.PersistenceProvider";
+    private static final String DRIVER_CLASS = "org.apache.derby.jdbc.EmbeddedDriver";
+
+    private final EntityManagerFactory emf;
+
+    public PersistenceUnitHarness(String databaseName) {
+        this(databaseName, new HashMap<>());
+    }
+
+    /**
+     * @param properties persistence unit properties added to, or overriding, the harness ones
+     */
+    public PersistenceUnitHarness(String databaseName, Map<String, Object> properties) {
+        Map<String, Object> unitProperties = new HashMap<>();
+        unitProperties.put("javax.persistence.transactionType", "RESOURCE_LOCAL");
+        unitProperties.put("javax.persistence.jtaDataSource", "");
+        unitProperties.put("javax.persistence.jdbc.driver", DRIVER_CLASS);
+        unitProperties.put("javax.persistence.jdbc.url", "jdbc:derby:memory:" + databaseName + ";create=true");
+        unitProperties.put("javax.persistence.schema-generation.scripts.action", "none");
+        unitProperties.put("eclipselink.logging.logger", "JavaLogger");
+        unitProperties.putAll(properties);
+        emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, unitProperties);
+    }
+
+    /**
+     * @return true if the persistence provider and the database driver are on the classpath
+     */
+    public static boolean isAvailable() {
+        try {
+            Class.forName(PROVIDER_CLASS);
+            Class.forName(DRIVER_CLASS);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public EntityManager createEntityManager() {
+        return emf.createEntityManager();
+    }
+
+    /**
+     * Run the given work in a transaction of its own entity manager, e.g. to load the data set
+     */
+    public void inTransaction(Consumer<EntityManager> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            work.accept(em);
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    /**
+     * Drop the entities held by the shared cache, so that the next reads go to the database
+     */
+    public void evictAll() {
+        emf.getCache().evictAll();
+    }
+
+    @Override
+    public void close() {
+        emf.close();
+    }
+}
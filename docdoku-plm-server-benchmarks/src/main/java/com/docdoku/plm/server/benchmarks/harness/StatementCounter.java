@@ -0,0 +1,76 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks.harness;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Counts the records of the EclipseLink <code>sql</code> logging category, one per statement.
+ *
+ * The persistence unit has to be opened with <code>eclipselink.logging.level.sql</code> at <code>FINE</code>.
+ */
+public class StatementCounter extends Handler {
+
+    private static final String LOGGER_NAME = "org.eclipse.persistence";
+
+    private final AtomicInteger statements = new AtomicInteger();
+
+    /**
+     * Starts counting the statements of every persistence unit of the JVM
+     */
+    public StatementCounter install() {
+        Logger logger = Logger.getLogger(LOGGER_NAME);
+        logger.setLevel(Level.FINE);
+        logger.addHandler(this);
+        return this;
+    }
+
+    public void uninstall() {
+        Logger.getLogger(LOGGER_NAME).removeHandler(this);
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (record.getLoggerName() != null && record.getLoggerName().endsWith(".sql")) {
+            statements.incrementAndGet();
+        }
+    }
+
+    public int get() {
+        return statements.get();
+    }
+
+    public void reset() {
+        statements.set(0);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
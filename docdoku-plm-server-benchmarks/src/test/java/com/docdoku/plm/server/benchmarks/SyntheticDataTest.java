@@ -0,0 +1,76 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks;
+
+import com.docdoku.plm.server.configuration.PSFilterVisitor;
+import com.docdoku.plm.server.configuration.PSFilterVisitorCallbacks;
+import com.docdoku.plm.server.configuration.filter.LatestCheckedInPSFilter;
+import com.docdoku.plm.server.core.product.Component;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartLink;
+import com.docdoku.plm.server.core.util.Tools;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks the synthetic data has the shape the benchmarks rely on.
+ */
+public class SyntheticDataTest {
+
+    @Test
+    public void visitorShouldWalkEveryLeafPath() throws Exception {
+        SyntheticAssembly assembly = new SyntheticAssembly(3, 4);
+        PSFilterVisitor visitor = Injections.inject(new PSFilterVisitor(), "partMasterDAO", assembly.createPartMasterDAO());
+        AtomicInteger leaves = new AtomicInteger();
+
+        Component root = visitor.visit(SyntheticAssembly.WORKSPACE_ID, new LatestCheckedInPSFilter(false), assembly.getRoot(), -1, new PSFilterVisitorCallbacks() {
+            @Override
+            public void onBranchDiscovered(List<PartLink> pCurrentPath, List<PartIteration> copyPartIteration) {
+                leaves.incrementAndGet();
+            }
+        });
+
+        Assert.assertEquals(64, leaves.get());
+        Assert.assertEquals(4, root.getComponents().size());
+        Assert.assertEquals("LEAF", root.getComponents().get(0).getComponents().get(0).getComponents().get(0).getPartMaster().getNumber());
+    }
+
+    @Test
+    public void firstLeafPathShouldHaveOneLinkPerLevel() {
+        List<PartLink> path = new SyntheticAssembly(3, 2).getFirstLeafPath();
+
+        Assert.assertEquals(3, path.size());
+        Assert.assertEquals("LEAF", path.get(2).getComponent().getNumber());
+        Assert.assertEquals("u5-u3-u1", Tools.getPathAsString(path));
+    }
+
+    @Test
+    public void aclProbesShouldCoverEveryBranch() {
+        SyntheticACL syntheticACL = new SyntheticACL(10, 5, 3);
+
+        Assert.assertTrue(syntheticACL.getACL().hasReadAccess(syntheticACL.getDirectUser()));
+        Assert.assertTrue(syntheticACL.getACL().hasWriteAccess(syntheticACL.getGroupMember()));
+        Assert.assertFalse(syntheticACL.getACL().hasReadAccess(syntheticACL.getStranger()));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks.harness;
+
+import com.docdoku.plm.server.benchmarks.Injections;
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.document.DocumentMaster;
+import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.document.DocumentRevisionKey;
+import com.docdoku.plm.server.core.meta.Folder;
+import com.docdoku.plm.server.dao.FolderDAO;
+import org.junit.*;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+
+/**
+ * Moves folder trees of different sizes with <code>FolderDAO.moveFolder</code>: apart from the insertion of the
+ * new folders, the number of statements does not depend on the number of folders nor documents.
+ *
+ * Runs on the {@link PersistenceUnitHarness}, skipped when the <code>ejb-harness</code> profile is not active.
+ */
+public class FolderMoveHarnessTest {
+
+    private static final String WORKSPACE_ID = "folders";
+    private static final int DOCUMENTS_PER_FOLDER = 3;
+
+    private static PersistenceUnitHarness harness;
+    private static final StatementCounter STATEMENTS = new StatementCounter();
+
+    @BeforeClass
+    public static void createDatabase() {
+        Assume.assumeTrue(PersistenceUnitHarness.isAvailable());
+        harness = new PersistenceUnitHarness(WORKSPACE_ID, Collections.singletonMap("eclipselink.logging.level.sql", "FINE"));
+        STATEMENTS.install();
+
+        harness.inTransaction(em -> {
+            Account account = new Account("folders", "Folders", "folders@docdoku.com", "en", new Date(), "CET");
+            Workspace workspace = new Workspace(WORKSPACE_ID, account, "", false);
+            User user = new User(workspace, account);
+            Folder root = Folder.createRootFolder(WORKSPACE_ID);
+            em.persist(account);
+            em.persist(workspace);
+            em.persist(user);
+            em.persist(root);
+            createTree(em, user, root.createSubFolder("small"), 2);
+            createTree(em, user, root.createSubFolder("large"), 8);
+            em.persist(root.createSubFolder("small-moved"));
+            em.persist(root.createSubFolder("large-moved"));
+        });
+    }
+
+    @AfterClass
+    public static void closeDatabase() {
+        if (harness != null) {
+            STATEMENTS.uninstall();
+            harness.close();
+        }
+    }
+
+    @Test
+    public void moveRunsAConstantNumberOfStatements() {
+        int smallTreeStatements = move("small", 2);
+        int largeTreeStatements = move("large", 8);
+        Assert.assertEquals(smallTreeStatements, largeTreeStatements);
+    }
+
+    /**
+     * @return the statements run by the move, apart from the insertion of the new folders
+     */
+    private int move(String name, int subFolders) {
+        String path = WORKSPACE_ID + "/" + name;
+        String newPath = path + "-moved";
+        int movedFolders = subFolders + subFolders * subFolders;
+        int documents = (1 + movedFolders) * DOCUMENTS_PER_FOLDER;
+
+        int statements;
+        harness.evictAll();
+        EntityManager em = harness.createEntityManager();
+        try {
+            FolderDAO folderDAO = Injections.inject(new FolderDAO(), "em", em);
+            em.getTransaction().begin();
+            Folder folder = em.find(Folder.class, path);
+            Folder newFolder = em.find(Folder.class, newPath);
+            STATEMENTS.reset();
+            List<DocumentRevisionKey> moved = folderDAO.moveFolder(folder, newFolder);
+            statements = STATEMENTS.get() - movedFolders;
+            em.getTransaction().commit();
+            Assert.assertEquals(documents, moved.size());
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+
+        harness.evictAll();
+        em = harness.createEntityManager();
+        try {
+            Assert.assertNull(em.find(Folder.class, path));
+            List<DocumentRevision> documentRevisions = em.createQuery("SELECT d FROM DocumentRevision d WHERE d.location.completePath LIKE :path", DocumentRevision.class)
+                    .setParameter("path", newPath + "%")
+                    .getResultList();
+            Assert.assertEquals(documents, documentRevisions.size());
+            for (DocumentRevision documentRevision : documentRevisions) {
+                // documents keep their place in the tree
+                String relativePath = documentRevision.getLocation().getCompletePath().substring(newPath.length());
+                Assert.assertTrue(documentRevision.getDocumentMasterId().startsWith(name + relativePath.replace('/', '.') + "-"));
+            }
+        } finally {
+            em.close();
+        }
+        return statements;
+    }
+
+    /**
+     * Two levels of sub folders below the given one, with a few documents in every folder
+     */
+    private static void createTree(EntityManager em, User user, Folder folder, int subFolders) {
+        em.persist(folder);
+        createDocuments(em, user, folder, folder.getShortName());
+        for (int i = 0; i < subFolders; i++) {
+            Folder child = folder.createSubFolder("f" + i);
+            em.persist(child);
+            createDocuments(em, user, child, folder.getShortName() + ".f" + i);
+            for (int j = 0; j < subFolders; j++) {
+                Folder grandChild = child.createSubFolder("f" + j);
+                em.persist(grandChild);
+                createDocuments(em, user, grandChild, folder.getShortName() + ".f" + i + ".f" + j);
+            }
+        }
+    }
+
+    private static void createDocuments(EntityManager em, User user, Folder folder, String prefix) {
+        for (int i = 0; i < DOCUMENTS_PER_FOLDER; i++) {
+            DocumentMaster documentMaster = new DocumentMaster(user.getWorkspace(), prefix + "-" + i, user);
+            DocumentRevision documentRevision = documentMaster.createNextRevision(user);
+            documentRevision.setLocation(folder);
+            em.persist(documentMaster);
+        }
+    }
+}
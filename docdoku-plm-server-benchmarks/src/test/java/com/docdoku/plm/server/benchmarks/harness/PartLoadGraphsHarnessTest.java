@@ -0,0 +1,188 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.benchmarks.harness;
+
+import com.docdoku.plm.server.benchmarks.Injections;
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.meta.Tag;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartMasterKey;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.product.PartRevisionKey;
+import com.docdoku.plm.server.core.product.PartUsageLink;
+import com.docdoku.plm.server.dao.PartMasterDAO;
+import com.docdoku.plm.server.dao.PartRevisionDAO;
+import org.junit.*;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Counts the SQL statements issued while walking what the part loaders declare in their named entity graphs:
+ * once loaded, walking the graph must not hit the database again.
+ *
+ * Runs on the {@link PersistenceUnitHarness}, skipped when the <code>ejb-harness</code> profile is not active.
+ */
+public class PartLoadGraphsHarnessTest {
+
+    private static final String WORKSPACE_ID = "graphs";
+    private static final String ASSEMBLY = "ASSEMBLY";
+    private static final int COMPONENTS = 5;
+
+    private static PersistenceUnitHarness harness;
+    private static final StatementCounter STATEMENTS = new StatementCounter();
+
+    private EntityManager em;
+    private PartMasterDAO partMasterDAO;
+    private PartRevisionDAO partRevisionDAO;
+
+    @BeforeClass
+    public static void createDatabase() {
+        Assume.assumeTrue(PersistenceUnitHarness.isAvailable());
+        harness = new PersistenceUnitHarness(WORKSPACE_ID, Collections.singletonMap("eclipselink.logging.level.sql", "FINE"));
+        STATEMENTS.install();
+
+        harness.inTransaction(PartLoadGraphsHarnessTest::createAssembly);
+    }
+
+    @AfterClass
+    public static void closeDatabase() {
+        if (harness != null) {
+            STATEMENTS.uninstall();
+            harness.close();
+        }
+    }
+
+    @Before
+    public void setup() {
+        harness.evictAll();
+        em = harness.createEntityManager();
+        partMasterDAO = Injections.inject(new PartMasterDAO(), "em", em);
+        partRevisionDAO = Injections.inject(new PartRevisionDAO(), "em", em);
+    }
+
+    @After
+    public void tearDown() {
+        em.close();
+    }
+
+    @Test
+    public void structureGraphCoversTheProductStructureWalk() throws Exception {
+        PartMaster partMaster = partMasterDAO.loadPartM(new PartMasterKey(WORKSPACE_ID, ASSEMBLY), PartMaster.GRAPH_STRUCTURE);
+
+        STATEMENTS.reset();
+        int links = 0;
+        for (PartRevision partRevision : partMaster.getPartRevisions()) {
+            for (PartIteration partIteration : partRevision.getPartIterations()) {
+                links += partIteration.getComponents().size();
+            }
+        }
+        Assert.assertEquals(COMPONENTS, links);
+        Assert.assertEquals(0, STATEMENTS.get());
+    }
+
+    @Test
+    public void detailGraphCoversThePartRevisionDetail() {
+        PartRevision partRevision = partRevisionDAO.loadPartR(new PartRevisionKey(WORKSPACE_ID, ASSEMBLY, "A"), PartRevision.GRAPH_DETAIL);
+
+        STATEMENTS.reset();
+        partRevision.getAbortedWorkflows().size();
+        partRevision.getEffectivities().size();
+        partRevision.getTags().size();
+        for (PartIteration partIteration : partRevision.getPartIterations()) {
+            partIteration.getAttachedFiles().size();
+            partIteration.getGeometries().size();
+            partIteration.getLinkedDocuments().size();
+            partIteration.getInstanceAttributes().size();
+            partIteration.getInstanceAttributeTemplates().size();
+            partIteration.getComponents().size();
+        }
+        Assert.assertEquals(0, STATEMENTS.get());
+    }
+
+    @Test
+    public void listingGraphCoversThePartRevisionList() {
+        List<PartRevision> partRevisions = partRevisionDAO.getPartRevisions(WORKSPACE_ID, 0, COMPONENTS + 1);
+
+        STATEMENTS.reset();
+        for (PartRevision partRevision : partRevisions) {
+            partRevision.getTags().size();
+            partRevision.getPartIterations().size();
+        }
+        Assert.assertEquals(COMPONENTS + 1, partRevisions.size());
+        Assert.assertEquals(0, STATEMENTS.get());
+    }
+
+    @Test
+    public void indexingGraphCoversThePartIndexing() {
+        List<PartMaster> partMasters = partMasterDAO.getPaginatedByWorkspace(WORKSPACE_ID, COMPONENTS + 1, 0);
+
+        STATEMENTS.reset();
+        for (PartMaster partMaster : partMasters) {
+            for (PartRevision partRevision : partMaster.getPartRevisions()) {
+                partRevision.getTags().size();
+                for (PartIteration partIteration : partRevision.getPartIterations()) {
+                    partIteration.getInstanceAttributes().size();
+                    partIteration.getAttachedFiles().size();
+                    partIteration.getLinkedDocuments().size();
+                }
+            }
+        }
+        Assert.assertEquals(COMPONENTS + 1, partMasters.size());
+        Assert.assertEquals(0, STATEMENTS.get());
+    }
+
+    private static void createAssembly(EntityManager em) {
+        Account account = new Account("graphs", "Graphs", "graphs@docdoku.com", "en", new Date(), "CET");
+        Workspace workspace = new Workspace(WORKSPACE_ID, account, "", false);
+        User user = new User(workspace, account);
+        Tag tag = new Tag(workspace, "graphs");
+        em.persist(account);
+        em.persist(workspace);
+        em.persist(user);
+        em.persist(tag);
+
+        List<PartUsageLink> links = new ArrayList<>();
+        for (int i = 0; i < COMPONENTS; i++) {
+            PartMaster component = createPart(em, user, tag, "PART-" + i);
+            PartUsageLink link = new PartUsageLink(component, 1, null, false);
+            em.persist(link);
+            links.add(link);
+        }
+        PartMaster assembly = createPart(em, user, tag, ASSEMBLY);
+        assembly.getLastRevision().getLastIteration().setComponents(links);
+    }
+
+    private static PartMaster createPart(EntityManager em, User user, Tag tag, String number) {
+        PartMaster partMaster = new PartMaster(user.getWorkspace(), number, user);
+        PartRevision partRevision = partMaster.createNextRevision(user);
+        partRevision.getTags().add(tag);
+        partRevision.createNextIteration(user);
+        em.persist(partMaster);
+        return partMaster;
+    }
+}
@@ -55,4 +55,24 @@ public class IndexerConfig {
         return ( property != null ) ? property : "localhost" ;
     }
 
+    /**
+     * @return true if search runs on the embedded Lucene indexes instead of the Elasticsearch cluster
+     */
+    public boolean isEmbedded() {
+        return "embedded".equals(properties.getProperty("backend"));
+    }
+
+    /**
+     * @return the directory of the embedded indexes, null to keep them in the vault
+     */
+    public String getEmbeddedIndexPath() { return properties.getProperty("embeddedIndexPath"); }
+
+    /**
+     * @return seconds between two commits of the embedded indexes
+     */
+    public int getEmbeddedCommitInterval() {
+        String property = properties.getProperty("embeddedCommitInterval");
+        return ( property != null ) ? Integer.parseInt(property) : 5 ;
+    }
+
 }
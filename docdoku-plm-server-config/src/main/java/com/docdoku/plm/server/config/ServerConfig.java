@@ -52,4 +52,73 @@ public class ServerConfig {
         return Optional.ofNullable(properties.getProperty("digestAlgorithm")).orElse("MD5");
     }
 
+    /**
+     * Time during which notification emails to the same recipient are gathered in a
+     * single digest, in seconds. Zero sends every notification on its own.
+     */
+    public int getMailDigestWindow() {
+        return Integer.parseInt(Optional.ofNullable(properties.getProperty("mailDigestWindow")).orElse("60"));
+    }
+
+    /**
+     * Whether REST requests and EJB calls are timed, see the <code>com.docdoku.plm:type=Performance</code> MBean
+     */
+    public boolean isPerformanceMetricsEnabled() {
+        return Boolean.parseBoolean(Optional.ofNullable(properties.getProperty("performanceMetrics")).orElse("true"));
+    }
+
+    /**
+     * Duration above which a request is written to the slow request log, in milliseconds
+     */
+    public long getSlowRequestThreshold() {
+        return Long.parseLong(Optional.ofNullable(properties.getProperty("slowRequestThreshold")).orElse("2000"));
+    }
+
+    /**
+     * Whether CAD conversions are queued in process (<code>local</code>) rather than sent to the Kafka cluster
+     */
+    public boolean isLocalConversionQueue() {
+        return "local".equals(properties.getProperty("conversionQueue"));
+    }
+
+    public String getConversionKafkaServers() {
+        return Optional.ofNullable(properties.getProperty("conversionKafkaServers")).orElse("kafka:9092");
+    }
+
+    /**
+     * Time given to a conversion to complete before it is failed, in seconds
+     */
+    public int getConversionLease() {
+        return Integer.parseInt(Optional.ofNullable(properties.getProperty("conversionLease")).orElse("3600"));
+    }
+
+    /**
+     * Time a conversion may wait in the in-process queue before it is failed, in seconds. It also fails the
+     * conversions left queued on a node that went down, which no other node can run.
+     */
+    public int getConversionQueueTimeout() {
+        return Integer.parseInt(Optional.ofNullable(properties.getProperty("conversionQueueTimeout")).orElse("21600"));
+    }
+
+    /**
+     * Number of conversions the in-process queue runs at the same time on this node
+     */
+    public int getConversionWorkers() {
+        return Integer.parseInt(Optional.ofNullable(properties.getProperty("conversionWorkers")).orElse("2"));
+    }
+
+    /**
+     * Number of conversions of a same workspace the in-process queue runs at the same time, all nodes together
+     */
+    public int getConversionWorkspaceConcurrency() {
+        return Integer.parseInt(Optional.ofNullable(properties.getProperty("conversionWorkspaceConcurrency")).orElse("1"));
+    }
+
+    /**
+     * Whether the in-process queue uses the stub converter instead of the installed CAD converters, for load tests
+     */
+    public boolean isConversionStub() {
+        return Boolean.parseBoolean(Optional.ofNullable(properties.getProperty("conversionStub")).orElse("false"));
+    }
+
 }
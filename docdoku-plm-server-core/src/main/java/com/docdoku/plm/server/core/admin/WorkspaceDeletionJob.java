@@ -0,0 +1,161 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.docdoku.plm.server.core.admin;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Persisted state of a background workspace deletion.
+ * <p>
+ * The workspace is purged step by step, each step in bounded chunks committed
+ * separately. The current step and its offset are saved after every chunk so that
+ * an interrupted deletion can be resumed where it stopped.
+ *
+ * @since V2.6
+ */
+@Table(name = "WORKSPACEDELETIONJOB")
+@Entity
+@NamedQueries({
+        @NamedQuery(name = "WorkspaceDeletionJob.findStalled", query = "SELECT j FROM WorkspaceDeletionJob j WHERE j.status = com.docdoku.plm.server.core.admin.WorkspaceDeletionJob.Status.RUNNING AND j.lastUpdate < :date")
+})
+public class WorkspaceDeletionJob implements Serializable {
+
+    public enum Status {
+        RUNNING, FAILED, DONE
+    }
+
+    @Id
+    private String workspaceId = "";
+
+    private String adminLogin;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private String step;
+
+    private int stepIndex;
+
+    private int stepCount;
+
+    private int stepOffset;
+
+    private long purgedEntities;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationDate;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastUpdate;
+
+    @Version
+    private int lockVersion;
+
+    public WorkspaceDeletionJob() {
+    }
+
+    public WorkspaceDeletionJob(String workspaceId, String adminLogin) {
+        this.workspaceId = workspaceId;
+        this.adminLogin = adminLogin;
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public String getAdminLogin() {
+        return adminLogin;
+    }
+
+    public void setAdminLogin(String adminLogin) {
+        this.adminLogin = adminLogin;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public int getStepIndex() {
+        return stepIndex;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public void setStepCount(int stepCount) {
+        this.stepCount = stepCount;
+    }
+
+    /**
+     * Moves to the given step, resetting the offset within the step.
+     */
+    public void setStep(String step, int stepIndex) {
+        this.step = step;
+        this.stepIndex = stepIndex;
+        this.stepOffset = 0;
+    }
+
+    public int getStepOffset() {
+        return stepOffset;
+    }
+
+    public void setStepOffset(int stepOffset) {
+        this.stepOffset = stepOffset;
+    }
+
+    public long getPurgedEntities() {
+        return purgedEntities;
+    }
+
+    public void setPurgedEntities(long purgedEntities) {
+        this.purgedEntities = purgedEntities;
+    }
+
+    public Date getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(Date creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    public Date getLastUpdate() {
+        return lastUpdate;
+    }
+
+    public void setLastUpdate(Date lastUpdate) {
+        this.lastUpdate = lastUpdate;
+    }
+
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.docdoku.plm.server.core.admin;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the counters displayed on a workspace administration dashboard.
+ * Document and part counts are revision counts.
+ *
+ * @since V2.6
+ */
+public class WorkspaceStatistics implements Serializable {
+
+    private int documents;
+    private int parts;
+    private int products;
+    private int users;
+    private int activeUsers;
+    private int userGroups;
+    private int activeUserGroups;
+
+    public WorkspaceStatistics() {
+    }
+
+    public WorkspaceStatistics(int documents, int parts, int products, int users, int activeUsers, int userGroups, int activeUserGroups) {
+        this.documents = documents;
+        this.parts = parts;
+        this.products = products;
+        this.users = users;
+        this.activeUsers = activeUsers;
+        this.userGroups = userGroups;
+        this.activeUserGroups = activeUserGroups;
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public int getParts() {
+        return parts;
+    }
+
+    public int getProducts() {
+        return products;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getActiveUsers() {
+        return activeUsers;
+    }
+
+    public int getInactiveUsers() {
+        return users - activeUsers;
+    }
+
+    public int getUserGroups() {
+        return userGroups;
+    }
+
+    public int getActiveUserGroups() {
+        return activeUserGroups;
+    }
+
+    public int getInactiveUserGroups() {
+        return userGroups - activeUserGroups;
+    }
+}
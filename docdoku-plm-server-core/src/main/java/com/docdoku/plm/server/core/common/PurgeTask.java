@@ -0,0 +1,136 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.common;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Data left behind by deleted entities: a vault file or an index entry.
+ * <p>
+ * Purge tasks are queued in the transaction which deletes the rows, so that files
+ * and index entries are only removed once that deletion is committed. Failed
+ * attempts are rescheduled with an exponential backoff.
+ *
+ * @since V2.6
+ */
+@Table(name = "PURGETASK")
+@Entity
+@NamedQueries({
+        @NamedQuery(name = "PurgeTask.findDue", query = "SELECT t FROM PurgeTask t WHERE t.nextAttempt <= :date ORDER BY t.nextAttempt, t.id"),
+        @NamedQuery(name = "PurgeTask.removeByIds", query = "DELETE FROM PurgeTask t WHERE t.id IN :ids"),
+        @NamedQuery(name = "PurgeTask.removeByWorkspace", query = "DELETE FROM PurgeTask t WHERE t.workspaceId = :workspaceId")
+})
+public class PurgeTask implements Serializable, RetryableTask {
+
+    public enum Type {
+        /**
+         * The target is the full name of a {@link BinaryResource}
+         */
+        BINARY_RESOURCE,
+        /**
+         * The target is the key of an indexed document iteration
+         */
+        DOCUMENT_ITERATION_INDEX_ENTRY
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    private String workspaceId;
+
+    @Column(length = 1024)
+    private String target;
+
+    private int attempts;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationDate;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date nextAttempt;
+
+    @Lob
+    private String lastError;
+
+    @javax.persistence.Version
+    private int lockVersion;
+
+    public PurgeTask() {
+    }
+
+    public PurgeTask(Type type, String workspaceId, String target) {
+        this.type = type;
+        this.workspaceId = workspaceId;
+        this.target = target;
+        this.creationDate = new Date();
+        this.nextAttempt = this.creationDate;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getCreationDate() {
+        return creationDate;
+    }
+
+    public Date getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public void setNextAttempt(Date nextAttempt) {
+        this.nextAttempt = nextAttempt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
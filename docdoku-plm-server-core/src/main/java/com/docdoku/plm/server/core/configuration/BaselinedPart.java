@@ -43,7 +43,8 @@ import java.util.List;
 @Entity
 @NamedQueries({
         @NamedQuery(name = "BaselinedPart.existBaselinedPart", query = "SELECT count(b) FROM BaselinedPart b WHERE b.baselinedPartKey.targetPartNumber = :partNumber AND b.baselinedPartKey.targetPartWorkspaceId = :workspaceId"),
-        @NamedQuery(name = "BaselinedPart.findByReference", query = "SELECT b FROM BaselinedPart b WHERE b.partCollection.id = :partCollection AND b.baselinedPartKey.targetPartNumber LIKE :id")
+        @NamedQuery(name = "BaselinedPart.findByReference", query = "SELECT b FROM BaselinedPart b WHERE b.partCollection.id = :partCollection AND b.baselinedPartKey.targetPartNumber LIKE :id"),
+        @NamedQuery(name = "BaselinedPart.findTargetPartKeys", query = "SELECT NEW com.docdoku.plm.server.core.product.PartIterationKey(b.baselinedPartKey.targetPartWorkspaceId, b.baselinedPartKey.targetPartNumber, b.targetPartVersion, b.targetPartIteration) FROM BaselinedPart b WHERE b.partCollection.id = :partCollection")
 })
 public class BaselinedPart implements Serializable {
 
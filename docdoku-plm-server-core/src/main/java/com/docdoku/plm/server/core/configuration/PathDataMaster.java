@@ -39,7 +39,8 @@ import java.util.List;
 @Entity
 @NamedQueries({
         @NamedQuery(name="PathDataMaster.findByPathIdAndProductInstanceIteration", query="SELECT p FROM PathDataMaster p JOIN ProductInstanceIteration l WHERE p member of l.pathDataMasterList and p.id = :pathId and l = :productInstanceIteration"),
-        @NamedQuery(name="PathDataMaster.findByPathAndProductInstanceIteration", query="SELECT p FROM PathDataMaster p JOIN ProductInstanceIteration l WHERE p member of l.pathDataMasterList and p.path = :path and l = :productInstanceIteration")
+        @NamedQuery(name="PathDataMaster.findByPathAndProductInstanceIteration", query="SELECT p FROM PathDataMaster p JOIN ProductInstanceIteration l WHERE p member of l.pathDataMasterList and p.path = :path and l = :productInstanceIteration"),
+        @NamedQuery(name="PathDataMaster.findPathsWithIterationsByProductInstanceIteration", query="SELECT DISTINCT p.path FROM PathDataMaster p JOIN ProductInstanceIteration l WHERE p member of l.pathDataMasterList and p.pathDataIterations IS NOT EMPTY and l = :productInstanceIteration")
 })
 public class PathDataMaster implements Serializable{
 
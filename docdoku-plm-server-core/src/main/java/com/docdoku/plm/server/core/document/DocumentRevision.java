@@ -50,7 +50,9 @@ import java.util.*;
         @NamedQuery(name = "DocumentRevision.findWithAssignedTasksForUser", query = "SELECT d FROM DocumentRevision d, Task t LEFT JOIN t.assignedUsers au LEFT JOIN t.assignedGroups ag LEFT JOIN ag.users agu WHERE t.activity.workflow = d.workflow AND d.workflow IS NOT NULL AND d.documentMasterWorkspaceId = :workspaceId AND ((au.login = :login AND au.workspaceId = :workspaceId) OR (agu.login = :login AND agu.workspaceId = :workspaceId))"),
         @NamedQuery(name = "DocumentRevision.findWithOpenedTasksForUser", query = "SELECT d FROM DocumentRevision d, Task t LEFT JOIN t.assignedUsers au LEFT JOIN t.assignedGroups ag LEFT JOIN ag.users agu WHERE t.activity.workflow = d.workflow AND d.workflow IS NOT NULL AND d.documentMasterWorkspaceId = :workspaceId AND ((au.login = :login AND au.workspaceId = :workspaceId) OR (agu.login = :login AND agu.workspaceId = :workspaceId)) AND t.status = com.docdoku.plm.server.core.workflow.Task.Status.IN_PROGRESS"),
         @NamedQuery(name = "DocumentRevision.findByReferenceOrTitle", query = "SELECT d FROM DocumentRevision d WHERE (d.documentMasterId LIKE :id OR d.title LIKE :title) AND d.documentMasterWorkspaceId = :workspaceId"),
+        @NamedQuery(name = "DocumentRevision.findAccess", query = "SELECT a.id, u.login, d.publicShared, l.completePath, MAX(i.iteration) FROM DocumentRevision d LEFT JOIN d.acl a LEFT JOIN d.checkOutUser u LEFT JOIN d.location l LEFT JOIN d.documentIterations i WHERE d.documentMasterWorkspaceId = :workspaceId AND d.documentMasterId = :documentMasterId AND d.version = :version GROUP BY a.id, u.login, d.publicShared, l.completePath"),
         @NamedQuery(name = "DocumentRevision.countByWorkspace", query = "SELECT COUNT(d) FROM DocumentRevision d WHERE d.documentMasterWorkspaceId = :workspaceId"),
+        @NamedQuery(name = "DocumentRevision.findCheckOutsByWorkspace", query = "SELECT d.documentMasterId, d.version, d.checkOutUser.login, d.checkOutDate FROM DocumentRevision d WHERE d.documentMasterWorkspaceId = :workspaceId AND d.checkOutUser IS NOT NULL"),
         @NamedQuery(name = "DocumentRevision.findByWorkspace", query = "SELECT dr FROM DocumentRevision dr WHERE dr.documentMasterWorkspaceId = :workspaceId AND dr.location.completePath NOT LIKE :excludedFolders ORDER BY dr.documentMasterId ASC"),
         @NamedQuery(name = "DocumentRevision.findByWorkspace.filterACLEntry", query = "SELECT distinct dr FROM DocumentRevision dr WHERE dr.documentMasterWorkspaceId = :workspaceId and (dr.acl is null or exists(SELECT au from ACLUserEntry au, ACL a1 WHERE au.principal = :user AND au.permission <> com.docdoku.plm.server.core.security.ACLPermission.FORBIDDEN AND a1 = dr.acl AND a1 = au.acl) or exists(SELECT aug from ACLUserGroupEntry aug, ACL a2 WHERE :user member of aug.principal.users AND aug.permission <> com.docdoku.plm.server.core.security.ACLPermission.FORBIDDEN AND a2 = dr.acl AND a2 = aug.acl)) AND dr.location.completePath NOT LIKE :excludedFolders ORDER BY dr.documentMasterId ASC"),
         @NamedQuery(name = "DocumentRevision.findByWorkflow", query = "SELECT d FROM DocumentRevision d WHERE d.workflow = :workflow")
@@ -0,0 +1,153 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.hooks;
+
+import com.docdoku.plm.server.core.common.RetryableTask;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A pending notification for a {@link Webhook}.
+ * Deliveries are queued in the database and removed once the receiver has
+ * accepted them, failed attempts are rescheduled with an exponential backoff.
+ *
+ * @since V2.6
+ */
+@Table(name = "WEBHOOKDELIVERY")
+@Entity
+@NamedQueries({
+        @NamedQuery(name = "WebhookDelivery.findDue", query = "SELECT d FROM WebhookDelivery d WHERE d.nextAttempt <= :date ORDER BY d.nextAttempt, d.id"),
+        @NamedQuery(name = "WebhookDelivery.findDueExcept", query = "SELECT d FROM WebhookDelivery d WHERE d.nextAttempt <= :date AND d.webhookId NOT IN :busy ORDER BY d.nextAttempt, d.id"),
+        @NamedQuery(name = "WebhookDelivery.removeByWorkspace", query = "DELETE FROM WebhookDelivery d WHERE d.workspaceId = :workspaceId")
+})
+public class WebhookDelivery implements Serializable, RetryableTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    private int webhookId;
+
+    private String workspaceId;
+
+    private String login;
+
+    private String email;
+
+    private String name;
+
+    @Lob
+    private String subject;
+
+    @Lob
+    private String content;
+
+    private int attempts;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationDate;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date nextAttempt;
+
+    @Lob
+    private String lastError;
+
+    @Version
+    private int lockVersion;
+
+    public WebhookDelivery() {
+    }
+
+    public WebhookDelivery(Webhook webhook, String login, String email, String name, String subject, String content) {
+        this.webhookId = webhook.getId();
+        this.workspaceId = webhook.getWorkspace().getId();
+        this.login = login;
+        this.email = email;
+        this.name = name;
+        this.subject = subject;
+        this.content = content;
+        this.creationDate = new Date();
+        this.nextAttempt = this.creationDate;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getWebhookId() {
+        return webhookId;
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getCreationDate() {
+        return creationDate;
+    }
+
+    public Date getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public void setNextAttempt(Date nextAttempt) {
+        this.nextAttempt = nextAttempt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
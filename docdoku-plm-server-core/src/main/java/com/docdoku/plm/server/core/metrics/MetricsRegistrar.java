@@ -0,0 +1,84 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes metrics beans on an MBean server and withdraws them.
+ *
+ * Owners register their beans on startup and call {@link #unregisterAll()} on shutdown, so that a redeployment
+ * neither fails on the names left by the previous one nor keeps its class loader reachable.
+ */
+public class MetricsRegistrar {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsRegistrar.class.getName());
+
+    private final MBeanServer server;
+    private final List<ObjectName> names = new ArrayList<>();
+
+    public MetricsRegistrar() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public MetricsRegistrar(MBeanServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Publish the bean under the given name, replacing any bean already registered with it
+     */
+    public synchronized void register(String objectName, Object mbean) {
+        try {
+            ObjectName name = new ObjectName(objectName);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+            names.add(name);
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Cannot register metrics " + objectName, e);
+        }
+    }
+
+    /**
+     * Withdraw every bean published through this registrar
+     */
+    public synchronized void unregisterAll() {
+        for (ObjectName name : names) {
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                LOGGER.log(Level.WARNING, "Cannot unregister metrics " + name, e);
+            }
+        }
+        names.clear();
+    }
+}
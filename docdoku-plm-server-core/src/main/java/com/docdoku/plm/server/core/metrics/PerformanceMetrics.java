@@ -0,0 +1,148 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the {@link PerformanceStats} fed by the REST filter and the EJB interceptor.
+ *
+ * Requests slower than the threshold are written to the <code>com.docdoku.plm.server.core.metrics.PerformanceMetrics.slow</code>
+ * logger, which can be routed to its own file.
+ */
+public class PerformanceMetrics implements PerformanceMetricsMXBean {
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceMetrics.class.getName());
+    private static final Logger SLOW_REQUEST_LOGGER = Logger.getLogger(PerformanceMetrics.class.getName() + ".slow");
+
+    public static final String OBJECT_NAME = "com.docdoku.plm:type=Performance";
+
+    public static final String REST_PREFIX = "rest:";
+    public static final String EJB_PREFIX = "ejb:";
+
+    // Workspaces beyond this count share a single entry, the identifiers come from the request path
+    private static final int MAX_WORKSPACES = 1000;
+    private static final String OTHER_WORKSPACES = "(other)";
+
+    private static final PerformanceMetrics INSTANCE = new PerformanceMetrics();
+
+    private final ConcurrentMap<String, PerformanceStats> operations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PerformanceStats> workspaces = new ConcurrentHashMap<>();
+    private final LongAdder slowRequests = new LongAdder();
+    private volatile long slowThresholdNanos = TimeUnit.SECONDS.toNanos(2);
+    private volatile boolean enabled = true;
+
+    public static PerformanceMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Account for a call of an operation, nested or not
+     */
+    public void record(String operation, long nanos, long entityManagerCalls, long rows, long bytes, boolean failed) {
+        PerformanceStats stats = operations.get(operation);
+        if (stats == null) {
+            stats = operations.computeIfAbsent(operation, o -> new PerformanceStats());
+        }
+        stats.record(nanos, entityManagerCalls, rows, bytes, failed);
+    }
+
+    /**
+     * Account for a complete request, the outermost call served on a thread, once it has been recorded
+     * as an operation: feeds the workspace statistics and the slow request log
+     *
+     * @param workspaceId the workspace of the request, may be null
+     */
+    public void requestCompleted(String operation, String workspaceId, long nanos, long entityManagerCalls, long rows, long bytes, boolean failed) {
+        if (workspaceId != null) {
+            workspace(workspaceId).record(nanos, entityManagerCalls, rows, bytes, failed);
+        }
+        if (nanos > slowThresholdNanos) {
+            slowRequests.increment();
+            SLOW_REQUEST_LOGGER.log(Level.WARNING, "Slow request {0} on workspace {1}: {2} ms, {3} entity manager calls, {4} rows, {5} bytes{6}",
+                    new Object[]{operation, workspaceId, TimeUnit.NANOSECONDS.toMillis(nanos), entityManagerCalls, rows, bytes, failed ? ", failed" : ""});
+        }
+    }
+
+    private PerformanceStats workspace(String workspaceId) {
+        PerformanceStats stats = workspaces.get(workspaceId);
+        if (stats == null) {
+            String key = workspaces.size() < MAX_WORKSPACES ? workspaceId : OTHER_WORKSPACES;
+            stats = workspaces.computeIfAbsent(key, k -> new PerformanceStats());
+        }
+        return stats;
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getOperations() {
+        return snapshots(operations);
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getWorkspaces() {
+        return snapshots(workspaces);
+    }
+
+    @Override
+    public long getSlowRequestCount() {
+        return slowRequests.sum();
+    }
+
+    @Override
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    @Override
+    public void setSlowThresholdMillis(long slowThresholdMillis) {
+        slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void reset() {
+        operations.clear();
+        workspaces.clear();
+        slowRequests.reset();
+    }
+
+    private static Map<String, Map<String, Long>> snapshots(Map<String, PerformanceStats> stats) {
+        Map<String, Map<String, Long>> snapshots = new TreeMap<>();
+        stats.forEach((key, value) -> snapshots.put(key, value.snapshot()));
+        return snapshots;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Latency, entity manager call and payload statistics of the REST resource methods and EJB business methods,
+ * published on JMX as {@value PerformanceMetrics#OBJECT_NAME}.
+ * Each entry holds the counters listed in {@link PerformanceStats#snapshot()}.
+ */
+public interface PerformanceMetricsMXBean {
+
+    /**
+     * @return the statistics keyed by operation, e.g. <code>rest:PartsResource.getPartRevisions</code>
+     * or <code>ejb:ProductManagerBean.getPartRevision</code>
+     */
+    Map<String, Map<String, Long>> getOperations();
+
+    /**
+     * @return the statistics of the REST requests keyed by workspace
+     */
+    Map<String, Map<String, Long>> getWorkspaces();
+
+    long getSlowRequestCount();
+
+    long getSlowThresholdMillis();
+
+    void setSlowThresholdMillis(long slowThresholdMillis);
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    void reset();
+}
@@ -0,0 +1,128 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one operation (a resource method, a business method) or of one workspace.
+ *
+ * Latencies go to a fixed bucket histogram, so that recording stays lock-free and allocation-free;
+ * percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public class PerformanceStats {
+
+    static final long[] BUCKET_BOUNDS_MICROS = {
+            1_000, 2_000, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000,
+            500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000, Long.MAX_VALUE
+    };
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder entityManagerCalls = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MICROS.length];
+
+    public PerformanceStats() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos, long entityManagerCallCount, long rowCount, long byteCount, boolean failed) {
+        count.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        entityManagerCalls.add(entityManagerCallCount);
+        rows.add(rowCount);
+        bytes.add(byteCount);
+        buckets[bucketOf(TimeUnit.NANOSECONDS.toMicros(nanos))].increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the latency below which the given share (between 0 and 1) of the calls completed, in microseconds
+     */
+    public long getPercentileMicros(double share) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(share * total);
+        long cumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank) {
+                return i == counts.length - 1 ? getMaxMicros() : BUCKET_BOUNDS_MICROS[i];
+            }
+        }
+        return getMaxMicros();
+    }
+
+    public long getMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+    }
+
+    /**
+     * @return the counters, mean and percentiles, keyed by name
+     */
+    public Map<String, Long> snapshot() {
+        long calls = count.sum();
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", calls);
+        snapshot.put("errors", errors.sum());
+        snapshot.put("meanMicros", calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / calls));
+        snapshot.put("p50Micros", getPercentileMicros(0.5));
+        snapshot.put("p95Micros", getPercentileMicros(0.95));
+        snapshot.put("p99Micros", getPercentileMicros(0.99));
+        snapshot.put("maxMicros", getMaxMicros());
+        snapshot.put("entityManagerCalls", entityManagerCalls.sum());
+        snapshot.put("rows", rows.sum());
+        snapshot.put("bytes", bytes.sum());
+        return snapshot;
+    }
+
+    static int bucketOf(long micros) {
+        int i = 0;
+        while (micros > BUCKET_BOUNDS_MICROS[i]) {
+            i++;
+        }
+        return i;
+    }
+}
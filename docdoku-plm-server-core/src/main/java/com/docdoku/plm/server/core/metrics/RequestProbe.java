@@ -0,0 +1,79 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.metrics;
+
+/**
+ * Counts the entity manager calls, lookups by id and query executions, made by the request being served
+ * on the current thread, and the rows they returned.
+ * Lazy loads and cascades run by the persistence provider itself are not seen here, hence not counted.
+ *
+ * The outermost layer starts the probe (REST filter, or EJB interceptor for timers and asynchronous calls),
+ * nested layers read it before and after their invocation to compute their own share.
+ */
+public final class RequestProbe {
+
+    private static final ThreadLocal<RequestProbe> CURRENT = new ThreadLocal<>();
+
+    private long entityManagerCalls;
+    private long rows;
+
+    private RequestProbe() {
+    }
+
+    /**
+     * Start probing the current thread, discarding any probe left over by a previous request
+     */
+    public static RequestProbe start() {
+        RequestProbe probe = new RequestProbe();
+        CURRENT.set(probe);
+        return probe;
+    }
+
+    /**
+     * @return the probe of the current thread, null when no request is being probed
+     */
+    public static RequestProbe current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Count an entity manager call made on the current thread, a no-op outside a probed request
+     */
+    public static void recordEntityManagerCall(long fetchedRows) {
+        RequestProbe probe = CURRENT.get();
+        if (probe != null) {
+            probe.entityManagerCalls++;
+            probe.rows += fetchedRows;
+        }
+    }
+
+    public long getEntityManagerCalls() {
+        return entityManagerCalls;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+}
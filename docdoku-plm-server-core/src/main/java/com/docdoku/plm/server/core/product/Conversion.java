@@ -49,6 +49,12 @@ public class Conversion implements Serializable {
 
     private boolean succeed;
 
+    /**
+     * SHA-256 hash of the converted native file, keying the results kept by {@link ConversionCacheEntry}
+     */
+    @Column(length = 64)
+    private String contentHash;
+
     public Conversion() {
     }
 
@@ -96,6 +102,14 @@ public class Conversion implements Serializable {
         this.partIteration = partIteration;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public Date getEndDate() {
         return endDate;
     }
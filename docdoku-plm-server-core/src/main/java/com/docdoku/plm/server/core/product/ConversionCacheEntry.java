@@ -0,0 +1,136 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.product;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Results of a successful conversion, reused for any part iteration of the workspace whose native file
+ * has the same content.
+ * <p>
+ * The geometry and material files are not copied: they are read from the part iteration which was
+ * converted, the entry becoming stale once that iteration loses them.
+ *
+ * @since V2.6
+ */
+@Table(name = "CONVERSIONCACHEENTRY", uniqueConstraints = @UniqueConstraint(columnNames = {"WORKSPACEID", "CONTENTHASH"}))
+@Entity
+@NamedQueries({
+        @NamedQuery(name = "ConversionCacheEntry.findByContentHash", query = "SELECT e FROM ConversionCacheEntry e WHERE e.workspaceId = :workspaceId AND e.contentHash = :contentHash"),
+        @NamedQuery(name = "ConversionCacheEntry.removeByWorkspace", query = "DELETE FROM ConversionCacheEntry e WHERE e.workspaceId = :workspaceId")
+})
+public class ConversionCacheEntry implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    private String workspaceId;
+
+    @Column(length = 64)
+    private String contentHash;
+
+    /**
+     * Part iteration holding the geometry and material files
+     */
+    private String partNumber;
+
+    private String partVersion;
+
+    private int iteration;
+
+    @Lob
+    private double[] box;
+
+    @Lob
+    private HashMap<String, List<ConversionResult.Position>> componentPositionMap;
+
+    @Lob
+    private ArrayList<String> materialNames;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationDate;
+
+    @javax.persistence.Version
+    private int lockVersion;
+
+    public ConversionCacheEntry() {
+    }
+
+    public ConversionCacheEntry(String contentHash, PartIterationKey partIterationKey) {
+        this.workspaceId = partIterationKey.getWorkspaceId();
+        this.contentHash = contentHash;
+        setPartIterationKey(partIterationKey);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public PartIterationKey getPartIterationKey() {
+        return new PartIterationKey(workspaceId, partNumber, partVersion, iteration);
+    }
+
+    public void setPartIterationKey(PartIterationKey partIterationKey) {
+        this.partNumber = partIterationKey.getPartMasterNumber();
+        this.partVersion = partIterationKey.getPartRevisionVersion();
+        this.iteration = partIterationKey.getIteration();
+        this.creationDate = new Date();
+    }
+
+    public double[] getBox() {
+        return box;
+    }
+
+    public void setBox(double[] box) {
+        this.box = box;
+    }
+
+    public Map<String, List<ConversionResult.Position>> getComponentPositionMap() {
+        return componentPositionMap;
+    }
+
+    public void setComponentPositionMap(Map<String, List<ConversionResult.Position>> componentPositionMap) {
+        this.componentPositionMap = componentPositionMap != null ? new HashMap<>(componentPositionMap) : null;
+    }
+
+    public List<String> getMaterialNames() {
+        return materialNames != null ? materialNames : Collections.emptyList();
+    }
+
+    public void setMaterialNames(List<String> materialNames) {
+        this.materialNames = materialNames != null ? new ArrayList<>(materialNames) : null;
+    }
+
+    public Date getCreationDate() {
+        return creationDate;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.product;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Order to convert the native CAD file of a part iteration, waiting in or taken from the in-process
+ * conversion queue.
+ * <p>
+ * There is at most one task per part iteration, a repeated order for the same iteration is merged into
+ * the waiting one. A task gets a lease when it is claimed, the conversion is failed if the lease ends before
+ * the task completes. Queued tasks hold no lease, they are failed once queued for longer than the queue timeout,
+ * which also gets rid of the tasks left by a node that went down.
+ *
+ * @since V2.6
+ */
+@Table(name = "CONVERSIONTASK", uniqueConstraints = @UniqueConstraint(columnNames = {"WORKSPACEID", "PARTNUMBER", "PARTVERSION", "ITERATION"}))
+@Entity
+@NamedQueries({
+        @NamedQuery(name = "ConversionTask.findByPartIteration", query = "SELECT t FROM ConversionTask t WHERE t.workspaceId = :workspaceId AND t.partNumber = :partNumber AND t.partVersion = :partVersion AND t.iteration = :iteration"),
+        @NamedQuery(name = "ConversionTask.findQueued", query = "SELECT t FROM ConversionTask t WHERE t.status = com.docdoku.plm.server.core.product.ConversionTask.Status.QUEUED AND t.node = :node ORDER BY t.priority DESC, t.id"),
+        @NamedQuery(name = "ConversionTask.countRunningByWorkspace", query = "SELECT t.workspaceId, COUNT(t) FROM ConversionTask t WHERE t.status = com.docdoku.plm.server.core.product.ConversionTask.Status.RUNNING GROUP BY t.workspaceId"),
+        @NamedQuery(name = "ConversionTask.countRunningOnNode", query = "SELECT COUNT(t) FROM ConversionTask t WHERE t.status = com.docdoku.plm.server.core.product.ConversionTask.Status.RUNNING AND t.node = :node"),
+        @NamedQuery(name = "ConversionTask.findExpired", query = "SELECT t FROM ConversionTask t WHERE t.status = com.docdoku.plm.server.core.product.ConversionTask.Status.RUNNING AND t.leaseExpiry <= :date"),
+        @NamedQuery(name = "ConversionTask.findQueuedBefore", query = "SELECT t FROM ConversionTask t WHERE t.status = com.docdoku.plm.server.core.product.ConversionTask.Status.QUEUED AND t.creationDate <= :date"),
+        @NamedQuery(name = "ConversionTask.removeByWorkspace", query = "DELETE FROM ConversionTask t WHERE t.workspaceId = :workspaceId")
+})
+public class ConversionTask implements Serializable {
+
+    public enum Status {
+        QUEUED, RUNNING
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    /**
+     * Identifies the task among the ones submitted on its node
+     */
+    @Column(unique = true, nullable = false)
+    private String ticket;
+
+    /**
+     * Node holding the context of the user who ordered the conversion, the only one able to run it
+     */
+    private String node;
+
+    private String workspaceId;
+
+    private String partNumber;
+
+    private String partVersion;
+
+    private int iteration;
+
+    @Column(length = 1024)
+    private String fileFullName;
+
+    private int priority;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationDate;
+
+    /**
+     * End of the time given to the running task to complete, null while the task is queued
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date leaseExpiry;
+
+    @javax.persistence.Version
+    private int lockVersion;
+
+    public ConversionTask() {
+    }
+
+    public ConversionTask(String ticket, String node, PartIterationKey partIterationKey, String fileFullName, int priority) {
+        this.ticket = ticket;
+        this.node = node;
+        this.workspaceId = partIterationKey.getWorkspaceId();
+        this.partNumber = partIterationKey.getPartMasterNumber();
+        this.partVersion = partIterationKey.getPartRevisionVersion();
+        this.iteration = partIterationKey.getIteration();
+        this.fileFullName = fileFullName;
+        this.priority = priority;
+        this.status = Status.QUEUED;
+        this.creationDate = new Date();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public PartIterationKey getPartIterationKey() {
+        return new PartIterationKey(workspaceId, partNumber, partVersion, iteration);
+    }
+
+    public String getFileFullName() {
+        return fileFullName;
+    }
+
+    public void setFileFullName(String fileFullName) {
+        this.fileFullName = fileFullName;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Date getCreationDate() {
+        return creationDate;
+    }
+
+    public Date getLeaseExpiry() {
+        return leaseExpiry;
+    }
+
+    public void setLeaseExpiry(Date leaseExpiry) {
+        this.leaseExpiry = leaseExpiry;
+    }
+}
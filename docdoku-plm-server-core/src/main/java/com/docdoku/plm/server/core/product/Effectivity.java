@@ -39,7 +39,8 @@ import java.io.Serializable;
 @NamedQueries({
         @NamedQuery(name = "Effectivity.removeEffectivitiesFromConfigurationItem", query = "DELETE FROM Effectivity e WHERE e.configurationItem.id = :configurationItemId AND e.configurationItem.workspace.id = :workspaceId"),
         @NamedQuery(name = "Effectivity.findPartRevisionHolder", query = "SELECT p FROM PartRevision p, Effectivity e WHERE e member of p.effectivities AND e.id = :effectivityId"),
-        @NamedQuery(name = "Effectivity.getEffectivitiesInWorkspace", query = "SELECT e FROM PartRevision p, Effectivity e WHERE e member of p.effectivities AND p.partMaster.workspace.id = :workspaceId")
+        @NamedQuery(name = "Effectivity.getEffectivitiesInWorkspace", query = "SELECT e FROM PartRevision p, Effectivity e WHERE e member of p.effectivities AND p.partMaster.workspace.id = :workspaceId"),
+        @NamedQuery(name = "Effectivity.findConfigurationItemEffectivities", query = "SELECT p.partMasterNumber, p.version, e FROM PartRevision p JOIN p.effectivities e LEFT JOIN e.configurationItem ci WHERE p.partMasterWorkspaceId = :workspaceId AND (ci.id = :configurationItemId OR ci IS NULL)")
 })
 
 public abstract class Effectivity implements Serializable {
@@ -66,7 +66,7 @@ public class PartIteration implements Serializable, FileHolder, Comparable<PartI
     @Id
     private int iteration;
 
-    @OneToMany(orphanRemoval=true, cascade = {CascadeType.REMOVE, CascadeType.REFRESH}, fetch = FetchType.EAGER)
+    @OneToMany(orphanRemoval=true, cascade = {CascadeType.REMOVE, CascadeType.REFRESH}, fetch = FetchType.LAZY)
     @JoinTable(name="PARTITERATION_GEOMETRY", inverseJoinColumns = {
         @JoinColumn(name = "GEOMETRY_FULLNAME", referencedColumnName = "FULLNAME")
     },
@@ -81,7 +81,7 @@ public class PartIteration implements Serializable, FileHolder, Comparable<PartI
     @OneToOne(orphanRemoval=true, cascade=CascadeType.ALL, fetch=FetchType.EAGER)
     private BinaryResource nativeCADFile;
 
-    @OneToMany(orphanRemoval = true, cascade=CascadeType.ALL, fetch=FetchType.EAGER)
+    @OneToMany(orphanRemoval = true, cascade=CascadeType.ALL, fetch=FetchType.LAZY)
     @JoinTable(name="PARTITERATION_DOCUMENTLINK",
     inverseJoinColumns={
         @JoinColumn(name="DOCUMENTLINK_ID", referencedColumnName="ID")
@@ -95,7 +95,7 @@ public class PartIteration implements Serializable, FileHolder, Comparable<PartI
     private Set<DocumentLink> linkedDocuments=new HashSet<>();
 
 
-    @OneToMany(orphanRemoval=true, cascade = {CascadeType.REMOVE, CascadeType.REFRESH}, fetch = FetchType.EAGER)
+    @OneToMany(orphanRemoval=true, cascade = {CascadeType.REMOVE, CascadeType.REFRESH}, fetch = FetchType.LAZY)
     @JoinTable(name="PARTITERATION_BINRES",
         indexes = {@Index(name = "INDEX_PART_FULLNAME", columnList = "ATTACHEDFILE_FULLNAME")},
         inverseJoinColumns = {
@@ -127,7 +127,7 @@ public class PartIteration implements Serializable, FileHolder, Comparable<PartI
     @Temporal(TemporalType.TIMESTAMP)
     private Date checkInDate;
 
-    @OneToMany(orphanRemoval=true, cascade=CascadeType.ALL, fetch=FetchType.EAGER)
+    @OneToMany(orphanRemoval=true, cascade=CascadeType.ALL, fetch=FetchType.LAZY)
     @OrderColumn(name="ATTRIBUTE_ORDER")
     @JoinTable(name="PARTITERATION_ATTRIBUTE",
     inverseJoinColumns={
@@ -141,7 +141,7 @@ public class PartIteration implements Serializable, FileHolder, Comparable<PartI
     })
     private List<InstanceAttribute> instanceAttributes=new ArrayList<>();
 
-    @OneToMany(orphanRemoval=true, cascade=CascadeType.ALL, fetch=FetchType.EAGER)
+    @OneToMany(orphanRemoval=true, cascade=CascadeType.ALL, fetch=FetchType.LAZY)
     @OrderColumn(name="ATTRIBUTE_ORDER")
     @JoinTable(name="PARTITERATION_PATHDATA_ATTR",
             inverseJoinColumns={
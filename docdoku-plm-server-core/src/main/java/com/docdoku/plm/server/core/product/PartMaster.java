@@ -43,12 +43,43 @@ import java.util.List;
 @Table(name = "PARTMASTER", indexes = {@Index(name = "INDEX_PART_WKS", columnList = "WORKSPACE_ID")})
 @IdClass(PartMasterKey.class)
 @Entity
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = PartMaster.GRAPH_STRUCTURE, attributeNodes = {
+                @NamedAttributeNode(value = "partRevisions", subgraph = "revisions")
+        }, subgraphs = {
+                @NamedSubgraph(name = "revisions", attributeNodes = @NamedAttributeNode(value = "partIterations", subgraph = "iterations")),
+                @NamedSubgraph(name = "iterations", attributeNodes = @NamedAttributeNode("components"))
+        }),
+        @NamedEntityGraph(name = PartMaster.GRAPH_INDEXING, attributeNodes = {
+                @NamedAttributeNode("author"),
+                @NamedAttributeNode(value = "partRevisions", subgraph = "revisions")
+        }, subgraphs = {
+                @NamedSubgraph(name = "revisions", attributeNodes = {
+                        @NamedAttributeNode("tags"),
+                        @NamedAttributeNode(value = "partIterations", subgraph = "iterations")
+                }),
+                @NamedSubgraph(name = "iterations", attributeNodes = {
+                        @NamedAttributeNode("instanceAttributes"),
+                        @NamedAttributeNode("attachedFiles"),
+                        @NamedAttributeNode("linkedDocuments"),
+                        @NamedAttributeNode("nativeCADFile")
+                })
+        })
+})
 @NamedQueries({
-        @NamedQuery(name = "PartMaster.findByNameOrNumber", query = "SELECT pm FROM PartMaster pm WHERE (pm.name LIKE :partName OR pm.number LIKE :partNumber) AND pm.workspace.id = :workspaceId"),
+        @NamedQuery(name = "PartMaster.findNumbersAndNames", query = "SELECT pm.number, pm.name FROM PartMaster pm WHERE pm.workspace.id = :workspaceId ORDER BY pm.number"),
+        @NamedQuery(name = "PartMaster.findNumbersAndNamesContaining", query = "SELECT pm.number, pm.name FROM PartMaster pm WHERE pm.workspace.id = :workspaceId AND (LOWER(pm.number) LIKE :pattern ESCAPE '!' OR LOWER(pm.name) LIKE :pattern ESCAPE '!') ORDER BY pm.number"),
         @NamedQuery(name = "PartMaster.findByWorkspace", query = "SELECT pm FROM PartMaster pm WHERE pm.workspace.id = :workspaceId ORDER BY pm.creationDate DESC")
 })
 public class PartMaster implements Serializable {
 
+    /**
+     * Fetch plans usable through the <code>javax.persistence.loadgraph</code> hint.
+     * Revisions are lazy by default, each caller states what it is going to walk.
+     */
+    public static final String GRAPH_STRUCTURE = "PartMaster.structure";
+    public static final String GRAPH_INDEXING = "PartMaster.indexing";
+
     @Column(name = "PARTNUMBER", length = 100)
     @Id
     private String number = "";
@@ -82,7 +113,7 @@ public class PartMaster implements Serializable {
     private String type;
 
 
-    @OneToMany(mappedBy = "partMaster", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "partMaster", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @OrderBy("version ASC")
     private List<PartRevision> partRevisions = new ArrayList<>();
 
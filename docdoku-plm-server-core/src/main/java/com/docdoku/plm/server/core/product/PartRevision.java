@@ -43,16 +43,60 @@ import java.util.*;
 @Table(name="PARTREVISION", indexes = {@Index(name = "INDEX_PART_WKS_PARTNUMBER", columnList = "WORKSPACE_ID, PARTMASTER_PARTNUMBER")})
 @IdClass(PartRevisionKey.class)
 @Entity
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = PartRevision.GRAPH_LISTING, attributeNodes = {
+                @NamedAttributeNode("partMaster"),
+                @NamedAttributeNode("author"),
+                @NamedAttributeNode("checkOutUser"),
+                @NamedAttributeNode("acl"),
+                @NamedAttributeNode("tags"),
+                @NamedAttributeNode(value = "partIterations", subgraph = "iterations")
+        }, subgraphs = {
+                @NamedSubgraph(name = "iterations", attributeNodes = @NamedAttributeNode("author"))
+        }),
+        @NamedEntityGraph(name = PartRevision.GRAPH_DETAIL, attributeNodes = {
+                @NamedAttributeNode("partMaster"),
+                @NamedAttributeNode("author"),
+                @NamedAttributeNode("checkOutUser"),
+                @NamedAttributeNode("acl"),
+                @NamedAttributeNode("workflow"),
+                @NamedAttributeNode("abortedWorkflows"),
+                @NamedAttributeNode("effectivities"),
+                @NamedAttributeNode("tags"),
+                @NamedAttributeNode(value = "partIterations", subgraph = "iterations")
+        }, subgraphs = {
+                @NamedSubgraph(name = "iterations", attributeNodes = {
+                        @NamedAttributeNode("author"),
+                        @NamedAttributeNode("nativeCADFile"),
+                        @NamedAttributeNode("attachedFiles"),
+                        @NamedAttributeNode("geometries"),
+                        @NamedAttributeNode("linkedDocuments"),
+                        @NamedAttributeNode("instanceAttributes"),
+                        @NamedAttributeNode("instanceAttributeTemplates"),
+                        @NamedAttributeNode("components")
+                })
+        })
+})
 @NamedQueries({
         @NamedQuery(name="PartRevision.findByWorkspace", query="SELECT pr FROM PartRevision pr WHERE pr.partMaster.workspace.id = :workspaceId ORDER BY pr.partMaster.number ASC"),
+        @NamedQuery(name="PartRevision.findByWorkspaceAndNumbers", query="SELECT pr FROM PartRevision pr WHERE pr.partMasterWorkspaceId = :workspaceId AND pr.partMasterNumber IN :partNumbers"),
+        @NamedQuery(name="PartRevision.findAccess", query="SELECT a.id, u.login, pr.publicShared, MAX(i.iteration) FROM PartRevision pr LEFT JOIN pr.acl a LEFT JOIN pr.checkOutUser u LEFT JOIN pr.partIterations i WHERE pr.partMasterWorkspaceId = :workspaceId AND pr.partMasterNumber = :partNumber AND pr.version = :version GROUP BY a.id, u.login, pr.publicShared"),
         @NamedQuery(name="PartRevision.countByWorkspace", query="SELECT count(pr) FROM PartRevision pr WHERE pr.partMasterWorkspaceId = :workspaceId"),
-        @NamedQuery(name="PartRevision.findByReferenceOrName", query="SELECT pr FROM PartRevision pr WHERE (pr.partMaster.number LIKE :partNumber OR pr.partMaster.name LIKE :partName) AND pr.partMaster.workspace.id = :workspaceId"),
+        @NamedQuery(name="PartRevision.findCheckOutsByWorkspace", query="SELECT pr.partMasterNumber, pr.version, pr.checkOutUser.login, pr.checkOutDate FROM PartRevision pr WHERE pr.partMasterWorkspaceId = :workspaceId AND pr.checkOutUser IS NOT NULL"),
+        @NamedQuery(name="PartRevision.findLastIterationNumbers", query="SELECT pr.partMasterNumber, pr.version, MAX(pi.iteration) FROM PartRevision pr JOIN pr.partIterations pi WHERE pr.partMasterWorkspaceId = :workspaceId AND pr.partMasterNumber IN :numbers GROUP BY pr.partMasterNumber, pr.version ORDER BY pr.partMasterNumber, pr.version"),
         @NamedQuery(name="PartRevision.findByWorkflow", query="SELECT p FROM PartRevision p WHERE p.workflow = :workflow"),
         @NamedQuery(name="PartRevision.findWithAssignedTasksForUser", query="SELECT p FROM PartRevision p, Task t LEFT JOIN t.assignedUsers au LEFT JOIN t.assignedGroups ag LEFT JOIN ag.users agu WHERE t.activity.workflow = p.workflow AND p.workflow IS NOT NULL AND p.partMasterWorkspaceId = :workspaceId AND ((au.login = :login AND au.workspaceId = :workspaceId) OR (agu.login = :login AND agu.workspaceId = :workspaceId))"),
         @NamedQuery(name="PartRevision.findWithOpenedTasksForUser", query="SELECT p FROM PartRevision p, Task t LEFT JOIN t.assignedUsers au LEFT JOIN t.assignedGroups ag LEFT JOIN ag.users agu WHERE t.activity.workflow = p.workflow AND p.workflow IS NOT NULL AND p.partMasterWorkspaceId = :workspaceId AND ((au.login = :login AND au.workspaceId = :workspaceId) OR (agu.login = :login AND agu.workspaceId = :workspaceId)) AND t.status = com.docdoku.plm.server.core.workflow.Task.Status.IN_PROGRESS")
 })
 public class PartRevision implements Serializable, Comparable<PartRevision> {
 
+    /**
+     * Fetch plans usable through the <code>javax.persistence.loadgraph</code> hint.
+     * Collections are lazy by default, each caller states what it is going to walk.
+     */
+    public static final String GRAPH_LISTING = "PartRevision.listing";
+    public static final String GRAPH_DETAIL = "PartRevision.detail";
+
 
     @Id
     @ManyToOne(optional=false, fetch=FetchType.EAGER)
@@ -79,7 +123,7 @@ public class PartRevision implements Serializable, Comparable<PartRevision> {
     @Lob
     private String description;
     
-    @OneToMany(orphanRemoval=true, cascade= CascadeType.ALL, fetch= FetchType.EAGER)
+    @OneToMany(orphanRemoval=true, cascade= CascadeType.ALL, fetch= FetchType.LAZY)
     @JoinTable(name="PARTREVISION_EFFECTIVITY",
     inverseJoinColumns={
         @JoinColumn(name="EFFECTIVITY_ID", referencedColumnName="ID")
@@ -92,7 +136,7 @@ public class PartRevision implements Serializable, Comparable<PartRevision> {
     private Set<Effectivity> effectivities = new HashSet<>();
     
     
-    @OneToMany(mappedBy = "partRevision", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "partRevision", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @OrderBy("iteration ASC")
     private List<PartIteration> partIterations = new ArrayList<>();
    
@@ -111,7 +155,7 @@ public class PartRevision implements Serializable, Comparable<PartRevision> {
     private Workflow workflow;
 
     @OrderBy("abortedDate")
-    @OneToMany(orphanRemoval=true, cascade= CascadeType.ALL, fetch= FetchType.EAGER)
+    @OneToMany(orphanRemoval=true, cascade= CascadeType.ALL, fetch= FetchType.LAZY)
     @JoinTable(name="PART_ABORTED_WORKFLOW",
         inverseJoinColumns={
                 @JoinColumn(name="WORKFLOW_ID", referencedColumnName="ID")
@@ -132,7 +176,7 @@ public class PartRevision implements Serializable, Comparable<PartRevision> {
     @OneToOne(orphanRemoval = true, cascade=CascadeType.ALL, fetch=FetchType.EAGER)
     private ACL acl;
 
-    @ManyToMany(fetch=FetchType.EAGER)
+    @ManyToMany(fetch=FetchType.LAZY)
     @JoinTable(name="PARTREVISION_TAG",
             inverseJoinColumns={
                     @JoinColumn(name="TAG_LABEL", referencedColumnName="LABEL"),
@@ -0,0 +1,91 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.product;
+
+import java.io.Serializable;
+
+/**
+ * The fields of a part revision its read access checks depend on, fetched by a projection query
+ * instead of loading the revision with its eager associations.
+ *
+ * @since V2.6
+ */
+public class PartRevisionAccess implements Serializable {
+
+    private final PartRevisionKey key;
+    private final Integer aclId;
+    private final String checkOutUserLogin;
+    private final boolean publicShared;
+    private final int lastIterationNumber;
+
+    public PartRevisionAccess(PartRevisionKey key, Integer aclId, String checkOutUserLogin, boolean publicShared, int lastIterationNumber) {
+        this.key = key;
+        this.aclId = aclId;
+        this.checkOutUserLogin = checkOutUserLogin;
+        this.publicShared = publicShared;
+        this.lastIterationNumber = lastIterationNumber;
+    }
+
+    public PartRevisionKey getKey() {
+        return key;
+    }
+
+    /**
+     * @return null when the revision has no ACL
+     */
+    public Integer getAclId() {
+        return aclId;
+    }
+
+    /**
+     * @return null when the revision is not checked out
+     */
+    public String getCheckOutUserLogin() {
+        return checkOutUserLogin;
+    }
+
+    public boolean isCheckedOut() {
+        return checkOutUserLogin != null;
+    }
+
+    public boolean isPublicShared() {
+        return publicShared;
+    }
+
+    /**
+     * @return 0 when the revision has no iteration
+     */
+    public int getLastIterationNumber() {
+        return lastIterationNumber;
+    }
+
+    /**
+     * @return the last iteration number, minus the working copy if any; 0 when none was checked in
+     */
+    public int getLastCheckedInIterationNumber() {
+        return isCheckedOut() ? lastIterationNumber - 1 : lastIterationNumber;
+    }
+
+    @Override
+    public String toString() {
+        return key.toString();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.product;
+
+import java.io.Serializable;
+
+/**
+ * Number and name of a part master, or of the last iteration of one of its revisions, as returned by the
+ * part autocomplete lookups.
+ *
+ * @since V2.6
+ */
+public class PartSuggestion implements Serializable {
+
+    private final String workspaceId;
+    private final String number;
+    private final String name;
+    private final String version;
+    private final int iteration;
+
+    public PartSuggestion(String workspaceId, String number, String name) {
+        this(workspaceId, number, name, null, 0);
+    }
+
+    public PartSuggestion(String workspaceId, String number, String name, String version, int iteration) {
+        this.workspaceId = workspaceId;
+        this.number = number;
+        this.name = name;
+        this.version = version;
+        this.iteration = iteration;
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return null for a part master suggestion
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return 0 for a part master suggestion
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    @Override
+    public String toString() {
+        return version == null ? number : number + "-" + version + "-" + iteration;
+    }
+}
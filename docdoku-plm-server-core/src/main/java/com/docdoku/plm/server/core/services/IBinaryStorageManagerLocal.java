@@ -35,6 +35,8 @@ public interface IBinaryStorageManagerLocal {
     Date getLastModified(BinaryResource binaryResource, String generatedFileName) throws StorageException;
     InputStream getGeneratedFileInputStream(BinaryResource binaryResource, String generatedFileName) throws StorageException;
     OutputStream getGeneratedFileOutputStream(BinaryResource binaryResource, String generatedFileName) throws StorageException;
+    long getGeneratedFileLength(BinaryResource binaryResource, String generatedFileName) throws StorageException;
+    void deleteGeneratedFile(BinaryResource binaryResource, String generatedFileName) throws StorageException;
     void copyData(BinaryResource source, BinaryResource destination) throws StorageException;
     void deleteData(BinaryResource binaryResource) throws StorageException;
     void renameFile(BinaryResource binaryResource, String pNewName) throws StorageException, FileNotFoundException;
@@ -31,6 +31,20 @@ import com.docdoku.plm.server.core.product.PartRevisionKey;
  * @author Florent Garin
  */
 public interface IConverterManagerLocal {
+
+    int NORMAL_PRIORITY = 0;
+
+    /**
+     * Priority of conversions a user explicitly asked for and is waiting on
+     */
+    int HIGH_PRIORITY = 10;
+
     void convertCADFileToOBJ(PartIterationKey pPartIPK, BinaryResource cadFile);
+
+    /**
+     * Orders the conversion, higher priorities being converted first where the queue supports it
+     */
+    void convertCADFileToOBJ(PartIterationKey pPartIPK, BinaryResource cadFile, int priority);
+
     void handleConversionResultCallback(PartRevisionKey partRevisionKey, ConversionResult result) throws UserNotFoundException, WorkspaceNotFoundException, WorkspaceNotEnabledException, AccessRightException, PartRevisionNotFoundException, NotAllowedException, UserNotActiveException, PartIterationNotFoundException, EntityConstraintException, DocumentRevisionNotFoundException, ListOfValuesNotFoundException, PartUsageLinkNotFoundException, PartMasterNotFoundException;
 }
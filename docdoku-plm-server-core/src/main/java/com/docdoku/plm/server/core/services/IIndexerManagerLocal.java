@@ -36,6 +36,14 @@ public interface IIndexerManagerLocal {
 
     void deleteWorkspaceIndex(String workspaceId) throws AccountNotFoundException;
 
+    /**
+     * Delete the indices of a workspace being deleted, from a background job without any caller account.
+     * Unlike {@link #deleteWorkspaceIndex(String)} failures are reported instead of mailed.
+     *
+     * @param workspaceId workspace whose indices are deleted
+     */
+    void deleteWorkspaceIndices(String workspaceId) throws IndexerNotAvailableException, IndexerRequestException;
+
     void indexDocumentIteration(DocumentIteration documentIteration);
 
     void indexDocumentIterations(List<DocumentIteration> documentIterations);
@@ -48,6 +56,15 @@ public interface IIndexerManagerLocal {
 
     void removePartIterationFromIndex(PartIteration partIteration);
 
+    /**
+     * Remove the entries of deleted document iterations in a single request.
+     * Unlike {@link #removeDocumentIterationFromIndex(DocumentIteration)} failures are reported, so that the caller may retry.
+     *
+     * @param workspaceId          workspace of the document iterations
+     * @param documentIterationIds string forms of the document iteration keys
+     */
+    void removeDocumentIterationsFromIndex(String workspaceId, List<String> documentIterationIds) throws IndexerNotAvailableException, IndexerRequestException;
+
     List<DocumentRevision> searchDocumentRevisions(DocumentSearchQuery documentSearchQuery, int from, int size) throws AccountNotFoundException, IndexerNotAvailableException, IndexerRequestException;
 
     List<PartRevision> searchPartRevisions(PartSearchQuery partSearchQuery, int from, int size) throws AccountNotFoundException, IndexerNotAvailableException, IndexerRequestException;
@@ -21,6 +21,7 @@
 package com.docdoku.plm.server.core.services;
 
 import com.docdoku.plm.server.core.admin.WorkspaceBackOptions;
+import com.docdoku.plm.server.core.admin.WorkspaceDeletionJob;
 import com.docdoku.plm.server.core.admin.WorkspaceFrontOptions;
 import com.docdoku.plm.server.core.common.Account;
 import com.docdoku.plm.server.core.common.Workspace;
@@ -36,6 +37,8 @@ public interface IWorkspaceManagerLocal {
 
     void deleteWorkspace(String workspaceId) throws WorkspaceNotFoundException, AccountNotFoundException, AccessRightException;
 
+    WorkspaceDeletionJob getWorkspaceDeletionJob(String workspaceId) throws WorkspaceNotFoundException, AccountNotFoundException, AccessRightException;
+
     Workspace changeAdmin(String workspaceId, String login) throws WorkspaceNotFoundException, AccountNotFoundException, UserNotFoundException, UserNotActiveException, AccessRightException, WorkspaceNotEnabledException, NotAllowedException;
 
     Workspace enableWorkspace(String workspaceId, boolean enabled) throws WorkspaceNotFoundException;
@@ -20,6 +20,8 @@
 
 package com.docdoku.plm.server.core.util;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -36,6 +38,26 @@ public class HashUtils {
         return digest(pText,"SHA-256");
     }
 
+    /**
+     * Computes the SHA-256 hash of the whole stream, without closing it
+     *
+     * @param pInputStream
+     *
+     * @return hex encoded hash.
+     *
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static String sha256Sum(InputStream pInputStream) throws NoSuchAlgorithmException, IOException {
+        MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = pInputStream.read(buffer)) != -1) {
+            messageDigest.update(buffer, 0, length);
+        }
+        return toHex(messageDigest.digest());
+    }
+
     /**
      * Computes a hash function using the supplied algorithm and s
      * the result as a string representation using
@@ -50,7 +72,10 @@ public class HashUtils {
      * @throws UnsupportedEncodingException
      */
     public static String digest(String pText, String pAlgorithm) throws NoSuchAlgorithmException, UnsupportedEncodingException {
-        byte[] digest = MessageDigest.getInstance(pAlgorithm).digest(pText.getBytes("UTF-8"));
+        return toHex(MessageDigest.getInstance(pAlgorithm).digest(pText.getBytes("UTF-8")));
+    }
+
+    private static String toHex(byte[] digest) {
         StringBuilder hexString = new StringBuilder();
         for (byte aDigest : digest) {
             String hex = Integer.toHexString(0xFF & aDigest);
@@ -41,10 +41,6 @@ import java.util.Set;
 @Table(name = "TASK")
 @javax.persistence.IdClass(com.docdoku.plm.server.core.workflow.TaskKey.class)
 @Entity
-@NamedQueries ({
-    @NamedQuery(name="Task.findInProgressTasks", query="SELECT DISTINCT t FROM Task t LEFT JOIN t.assignedUsers au LEFT JOIN t.assignedGroups ag LEFT JOIN ag.users agu WHERE ((au.login = :login AND au.workspaceId = :workspaceId) OR (agu.login = :login AND agu.workspaceId = :workspaceId)) AND t.status = com.docdoku.plm.server.core.workflow.Task.Status.IN_PROGRESS"),
-    @NamedQuery(name="Task.findAssignedTasks", query="SELECT DISTINCT t FROM Task t LEFT JOIN t.assignedUsers au LEFT JOIN t.assignedGroups ag LEFT JOIN ag.users agu WHERE ((au.login = :login AND au.workspaceId = :workspaceId) OR (agu.login = :login AND agu.workspaceId = :workspaceId))")
-})
 public class Task implements Serializable, Cloneable {
     @Id
     @ManyToOne(optional = false, fetch = FetchType.EAGER)
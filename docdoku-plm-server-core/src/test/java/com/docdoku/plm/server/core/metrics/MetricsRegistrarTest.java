@@ -0,0 +1,51 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+public class MetricsRegistrarTest {
+
+    private static final String OBJECT_NAME = "com.docdoku.plm.test:type=Metrics";
+
+    @Test
+    public void registrationShouldReplacePreviousDeploymentAndBeWithdrawn() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+
+        MetricsRegistrar previousDeployment = new MetricsRegistrar(server);
+        previousDeployment.register(OBJECT_NAME, new PerformanceMetrics());
+
+        MetricsRegistrar registrar = new MetricsRegistrar(server);
+        PerformanceMetrics metrics = new PerformanceMetrics();
+        metrics.setSlowThresholdMillis(1234);
+        registrar.register(OBJECT_NAME, metrics);
+        Assert.assertEquals(1234L, server.getAttribute(name, "SlowThresholdMillis"));
+
+        registrar.unregisterAll();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class PerformanceStatsTest {
+
+    @Test
+    public void bucketsShouldHoldTheirUpperBound() {
+        Assert.assertEquals(0, PerformanceStats.bucketOf(0));
+        Assert.assertEquals(0, PerformanceStats.bucketOf(1_000));
+        Assert.assertEquals(1, PerformanceStats.bucketOf(1_001));
+        Assert.assertEquals(PerformanceStats.BUCKET_BOUNDS_MICROS.length - 1, PerformanceStats.bucketOf(TimeUnit.HOURS.toMicros(1)));
+    }
+
+    @Test
+    public void snapshotShouldReportCountersAndPercentiles() {
+        PerformanceStats stats = new PerformanceStats();
+        for (int i = 0; i < 98; i++) {
+            stats.record(TimeUnit.MILLISECONDS.toNanos(3), 2, 10, 100, false);
+        }
+        stats.record(TimeUnit.MILLISECONDS.toNanos(80), 20, 1000, 100, true);
+        stats.record(TimeUnit.SECONDS.toNanos(30), 0, 0, 0, true);
+
+        Map<String, Long> snapshot = stats.snapshot();
+        Assert.assertEquals(100L, (long) snapshot.get("count"));
+        Assert.assertEquals(2L, (long) snapshot.get("errors"));
+        Assert.assertEquals(216L, (long) snapshot.get("entityManagerCalls"));
+        Assert.assertEquals(1980L, (long) snapshot.get("rows"));
+        Assert.assertEquals(9900L, (long) snapshot.get("bytes"));
+        Assert.assertEquals(5_000L, (long) snapshot.get("p50Micros"));
+        Assert.assertEquals(100_000L, (long) snapshot.get("p99Micros"));
+        Assert.assertEquals(30_000_000L, (long) snapshot.get("maxMicros"));
+    }
+
+    @Test
+    public void slowRequestsShouldBeCounted() {
+        PerformanceMetrics metrics = PerformanceMetrics.getInstance();
+        metrics.reset();
+        metrics.setSlowThresholdMillis(100);
+
+        metrics.record("rest:Resource.fast", TimeUnit.MILLISECONDS.toNanos(5), 1, 1, 10, false);
+        metrics.requestCompleted("rest:Resource.fast", "wks", TimeUnit.MILLISECONDS.toNanos(5), 1, 1, 10, false);
+        metrics.record("rest:Resource.slow", TimeUnit.MILLISECONDS.toNanos(500), 1, 1, 10, false);
+        metrics.requestCompleted("rest:Resource.slow", "wks", TimeUnit.MILLISECONDS.toNanos(500), 1, 1, 10, false);
+
+        Assert.assertEquals(1, metrics.getSlowRequestCount());
+        Assert.assertEquals(2, metrics.getOperations().size());
+        Assert.assertEquals(2L, (long) metrics.getWorkspaces().get("wks").get("count"));
+        metrics.reset();
+    }
+}
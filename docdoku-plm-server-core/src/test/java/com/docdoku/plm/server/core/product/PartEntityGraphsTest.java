@@ -0,0 +1,88 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.core.product;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
+import javax.persistence.NamedSubgraph;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks that the named entity graphs of the part entities only reference
+ * existing attributes, the persistence provider would otherwise reject them at deploy time.
+ */
+public class PartEntityGraphsTest {
+
+    @Test
+    public void graphsAreDeclared() {
+        Assert.assertEquals(new HashSet<>(Arrays.asList(PartMaster.GRAPH_STRUCTURE, PartMaster.GRAPH_INDEXING)),
+                graphNames(PartMaster.class));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(PartRevision.GRAPH_LISTING, PartRevision.GRAPH_DETAIL)),
+                graphNames(PartRevision.class));
+    }
+
+    @Test
+    public void graphsReferenceExistingAttributes() throws Exception {
+        for (Class<?> entity : Arrays.asList(PartMaster.class, PartRevision.class)) {
+            for (NamedEntityGraph graph : entity.getAnnotation(NamedEntityGraphs.class).value()) {
+                checkNodes(entity, graph.attributeNodes(), graph.subgraphs(), graph.name());
+            }
+        }
+    }
+
+    private void checkNodes(Class<?> type, NamedAttributeNode[] nodes, NamedSubgraph[] subgraphs, String graphName) throws Exception {
+        for (NamedAttributeNode node : nodes) {
+            Field field = type.getDeclaredField(node.value());
+            if (node.subgraph().isEmpty()) {
+                continue;
+            }
+            NamedSubgraph subgraph = Arrays.stream(subgraphs)
+                    .filter(s -> s.name().equals(node.subgraph()))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("Missing subgraph " + node.subgraph() + " in " + graphName));
+            checkNodes(targetType(field), subgraph.attributeNodes(), subgraphs, graphName);
+        }
+    }
+
+    private Class<?> targetType(Field field) {
+        if (Collection.class.isAssignableFrom(field.getType())) {
+            return (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+        }
+        return field.getType();
+    }
+
+    private Set<String> graphNames(Class<?> entity) {
+        Set<String> names = new HashSet<>();
+        for (NamedEntityGraph graph : entity.getAnnotation(NamedEntityGraphs.class).value()) {
+            names.add(graph.name());
+        }
+        return names;
+    }
+}
@@ -20,7 +20,13 @@
 
 package com.docdoku.plm.server;
 
+import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.core.metrics.MetricsRegistrar;
+import com.docdoku.plm.server.core.metrics.PerformanceMetrics;
 import com.docdoku.plm.server.core.services.IOAuthManagerLocal;
+import com.docdoku.plm.server.dao.ReferenceCacheMetrics;
+import com.docdoku.plm.server.hooks.WebhookDeliveryBean;
+import com.docdoku.plm.server.hooks.WebhookMetrics;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -39,14 +45,25 @@ public class ApplicationStart {
     @Inject
     private IOAuthManagerLocal oAuthManager;
 
+    @Inject
+    private ServerConfig serverConfig;
+
+    private final MetricsRegistrar metricsRegistrar = new MetricsRegistrar();
+
     @PostConstruct
     private void start() {
         LOGGER.log(Level.INFO, "ApplicationStart");
         oAuthManager.loadProvidersFromProperties();
+        PerformanceMetrics.getInstance().setEnabled(serverConfig.isPerformanceMetricsEnabled());
+        PerformanceMetrics.getInstance().setSlowThresholdMillis(serverConfig.getSlowRequestThreshold());
+        metricsRegistrar.register(PerformanceMetrics.OBJECT_NAME, PerformanceMetrics.getInstance());
+        metricsRegistrar.register(ReferenceCacheMetrics.OBJECT_NAME, ReferenceCacheMetrics.getInstance());
+        metricsRegistrar.register(WebhookMetrics.OBJECT_NAME, WebhookDeliveryBean.getMetrics());
     }
 
     @PreDestroy
     private void stop() {
         LOGGER.log(Level.INFO, "ApplicationStop");
+        metricsRegistrar.unregisterAll();
     }
 }
@@ -93,6 +93,25 @@ public class BinaryStorageManagerBean implements IBinaryStorageManagerLocal {
         return defaultStorageProvider.getGeneratedFileOutputStream(binaryResource, generatedFileName);
     }
 
+    @Override
+    public long getGeneratedFileLength(BinaryResource binaryResource, String generatedFileName) throws StorageException {
+        try {
+            return defaultStorageProvider.getGeneratedFileLength(binaryResource, generatedFileName);
+        } catch (FileNotFoundException e) {
+            BinaryResource previous = binaryResource.getPrevious();
+            if (previous != null) {
+                return getGeneratedFileLength(previous, generatedFileName);
+            } else {
+                throw new StorageException("Can't find generated file " + generatedFileName + " of " + binaryResource.getFullName());
+            }
+        }
+    }
+
+    @Override
+    public void deleteGeneratedFile(BinaryResource binaryResource, String generatedFileName) throws StorageException {
+        defaultStorageProvider.deleteGeneratedFile(binaryResource, generatedFileName);
+    }
+
     @Override
     public boolean exists(BinaryResource binaryResource, String generatedFileName) throws StorageException {
         if (defaultStorageProvider.exists(binaryResource, generatedFileName)) {
@@ -19,9 +19,6 @@
  */
 package com.docdoku.plm.server;
 
-import org.apache.kafka.clients.producer.KafkaProducer;
-import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.serialization.StringSerializer;
 import com.docdoku.plm.server.core.common.BinaryResource;
 import com.docdoku.plm.server.core.exceptions.*;
 import com.docdoku.plm.server.core.product.*;
@@ -29,14 +26,15 @@ import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.*;
 import com.docdoku.plm.server.config.AuthConfig;
 import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.conversion.ConversionCacheBean;
+import com.docdoku.plm.server.conversion.ConversionQueue;
 import com.docdoku.plm.server.converters.ConversionOrder;
-import com.docdoku.plm.server.converters.serialization.JsonbSerializer;
 import com.docdoku.plm.server.dao.PartRevisionDAO;
 
-import javax.annotation.PostConstruct;
 import javax.annotation.security.DeclareRoles;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.Asynchronous;
+import javax.ejb.EJBException;
 import javax.ejb.Local;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
@@ -78,40 +76,37 @@ public class ConverterBean implements IConverterManagerLocal {
     private IBinaryStorageManagerLocal storageManager;
     @Inject
     private ServerConfig serverConfig;
+    @Inject
+    private ConversionQueue conversionQueue;
+    @Inject
+    private ConversionCacheBean conversionCache;
 
     private static final Logger LOGGER = Logger.getLogger(ConverterBean.class.getName());
-    private static final String PRODUCER_TOPIC = "CONVERT";
-    private KafkaProducer<String, ConversionOrder> producer;
-
-    @PostConstruct
-    public void init (){
-        Properties producerProperties = new Properties();
-        producerProperties.put("bootstrap.servers", "kafka:9092");
-        producerProperties.put("acks", "0");
-        producerProperties.put("retries", "1");
-        producerProperties.put("batch.size", "20971520");
-        producerProperties.put("linger.ms", "33");
-        producerProperties.put("max.request.size", "2097152");
-        producerProperties.put("compression.type", "gzip");
-        producerProperties.put("key.serializer", StringSerializer.class.getName());
-        producerProperties.put("value.serializer", JsonbSerializer.class.getName());
-        producerProperties.put("kafka.topic", PRODUCER_TOPIC);
-
-        producer = new KafkaProducer<>(producerProperties);
-    }
 
     @Override
     @Asynchronous
     @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
     public void convertCADFileToOBJ(PartIterationKey partIterationKey, BinaryResource cadBinaryResource) {
+        convertCADFileToOBJ(partIterationKey, cadBinaryResource, NORMAL_PRIORITY);
+    }
+
+    @Override
+    @Asynchronous
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public void convertCADFileToOBJ(PartIterationKey partIterationKey, BinaryResource cadBinaryResource, int priority) {
 
         try {
 
             Conversion existingConversion = productService.getConversion(partIterationKey);
 
-            // Don't try to convert if any conversion pending
+            // Don't try to convert if any conversion pending, a waiting order takes the new file, its hash and priority
             if (existingConversion != null && existingConversion.isPending()) {
-                LOGGER.log(Level.SEVERE, "Conversion already running for part iteration {0}", partIterationKey);
+                ConversionOrder conversionOrder = new ConversionOrder(partIterationKey, cadBinaryResource, null);
+                if (conversionQueue.merge(conversionOrder, conversionCache.hash(cadBinaryResource), priority)) {
+                    LOGGER.log(Level.FINE, "Conversion order merged for part iteration {0}", partIterationKey);
+                } else {
+                    LOGGER.log(Level.SEVERE, "Conversion already running for part iteration {0}", partIterationKey);
+                }
                 return;
             }
 
@@ -137,10 +132,29 @@ public class ConverterBean implements IConverterManagerLocal {
             return;
         }
 
-        // Send message in kafka queue
+        // Reuse the results of a previous conversion of the same file
+        String contentHash = conversionCache.hash(cadBinaryResource);
+        if (contentHash != null) {
+            conversionCache.setContentHash(partIterationKey, contentHash);
+            ConversionResult cachedResult = conversionCache.restore(partIterationKey, contentHash);
+            if (cachedResult != null) {
+                LOGGER.log(Level.FINE, "Reusing previous conversion results for part iteration {0}", partIterationKey);
+                try {
+                    handleConversionResultCallback(partIterationKey.getPartRevision(), cachedResult);
+                } catch (ApplicationException e) {
+                    LOGGER.log(Level.SEVERE, null, e);
+                    endConversionAsFailed(partIterationKey);
+                } finally {
+                    conversionCache.discard(cachedResult);
+                }
+                return;
+            }
+        }
+
+        // Queue the order
         String token = generateUserToken();
         ConversionOrder conversionOrder = new ConversionOrder(partIterationKey, cadBinaryResource, token);
-        producer.send(new ProducerRecord<>(PRODUCER_TOPIC, partIterationKey.toString(), conversionOrder));
+        conversionQueue.submit(conversionOrder, priority);
 
     }
 
@@ -216,6 +230,12 @@ public class ConverterBean implements IConverterManagerLocal {
             }
         }
 
+        try {
+            conversionCache.store(partIterationKey, conversionResult);
+        } catch (EJBException e) {
+            LOGGER.log(Level.WARNING, "Cannot keep the conversion results of " + partIterationKey, e);
+        }
+
         try {
             LOGGER.log(Level.FINE, "Conversion ended with success");
             productService.endConversion(partIterationKey, true);
@@ -224,6 +244,14 @@ public class ConverterBean implements IConverterManagerLocal {
         }
     }
 
+    private void endConversionAsFailed(PartIterationKey partIterationKey) {
+        try {
+            productService.endConversion(partIterationKey, false);
+        } catch (ApplicationException e) {
+            LOGGER.log(Level.SEVERE, null, e);
+        }
+    }
+
     private String generateUserToken() {
         String login = contextManager.getCallerPrincipalLogin();
         Key key = authConfig.getJWTKey();
@@ -151,6 +151,9 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
     @Inject
     private IBinaryStorageManagerLocal storageManager;
 
+    @Inject
+    private PurgeTaskBean purgeTaskBean;
+
     @Inject
     private Event<TagEvent> tagEvent;
 
@@ -291,6 +294,14 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
         return shortNames;
     }
 
+    @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
+    @Override
+    public long getDocumentsInFolderCount(String pCompletePath) throws WorkspaceNotFoundException, FolderNotFoundException, UserNotFoundException, UserNotActiveException, WorkspaceNotEnabledException {
+        userManager.checkWorkspaceReadAccess(Folder.parseWorkspaceId(pCompletePath));
+        Folder folder = folderDAO.loadFolder(pCompletePath);
+        return folderDAO.countDocumentRevisionsInFolder(folder);
+    }
+
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     @Override
     public DocumentRevision[] findDocumentRevisionsByFolder(String pCompletePath) throws WorkspaceNotFoundException, UserNotFoundException, UserNotActiveException, WorkspaceNotEnabledException {
@@ -792,6 +803,8 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
         docR.setCheckOutDate(now);
         newDoc.setCreationDate(now);
         documentRevisionDAO.createDocR(docR);
+        documentRevisionEvent.select(new AnnotationLiteral<Created>() {
+        }).fire(new DocumentRevisionEvent(docR));
 
         if (runningTasks != null) {
             mailer.sendApproval(docR.getWorkspaceId(), runningTasks, docR);
@@ -956,6 +969,9 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
             newDoc.setInstanceAttributes(attrs);
         }
 
+        documentRevisionEvent.select(new AnnotationLiteral<CheckedOut>() {
+        }).fire(new DocumentRevisionEvent(docR));
+
         return docR;
     }
 
@@ -1058,6 +1074,9 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
                 }
             }
 
+            documentRevisionEvent.select(new AnnotationLiteral<CheckOutUndone>() {
+            }).fire(new DocumentRevisionEvent(docR));
+
             return docR;
         } else {
             throw new NotAllowedException("NotAllowedException19");
@@ -1093,6 +1112,9 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
 
             indexerManager.indexDocumentIteration(lastIteration);
 
+            documentRevisionEvent.select(new AnnotationLiteral<CheckedIn>() {
+            }).fire(new DocumentRevisionEvent(docR));
+
             return docR;
         } else {
             throw new NotAllowedException("NotAllowedException20");
@@ -1112,7 +1134,7 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
             throw new NotAllowedException("NotAllowedException21");
 
         } else {
-            return doFolderDeletion(folder);
+            return doFolderDeletion(user, folder);
         }
     }
 
@@ -1129,22 +1151,86 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
             throw new NotAllowedException("NotAllowedException21");
         }
 
-        return doFolderDeletion(folder);
+        return doFolderDeletion(user, folder);
     }
 
-    private DocumentRevisionKey[] doFolderDeletion(Folder folder) throws EntityConstraintException, NotAllowedException, WorkspaceNotFoundException, AccessRightException, DocumentRevisionNotFoundException, UserNotActiveException, UserNotFoundException, WorkspaceNotEnabledException {
+    /**
+     * Delete the folder sub tree and its documents as a whole: rights and constraints are checked for
+     * all the documents before anything is deleted, vault files and index entries are purged once committed.
+     */
+    private DocumentRevisionKey[] doFolderDeletion(User user, Folder folder) throws EntityConstraintException, NotAllowedException, AccessRightException {
         List<DocumentRevision> allDocRevision = folderDAO.findDocumentRevisionsInFolder(folder);
         List<DocumentRevisionKey> allDocRevisionKey = new ArrayList<>();
 
         for (DocumentRevision documentRevision : allDocRevision) {
-            DocumentRevisionKey documentRevisionKey = documentRevision.getKey();
-            deleteDocumentRevision(documentRevisionKey);
-            allDocRevisionKey.add(documentRevisionKey);
+            checkDocumentRevisionDeletionRight(user, documentRevision);
+            allDocRevisionKey.add(documentRevision.getKey());
         }
+
+        if (!allDocRevision.isEmpty()) {
+            checkDocumentRevisionsInFolderRemovable(folder);
+
+            String workspaceId = folder.getWorkspaceId();
+            List<PurgeTask> purgeTasks = new ArrayList<>();
+            for (DocumentIterationKey documentIterationKey : folderDAO.findDocumentIterationKeysInFolder(folder)) {
+                purgeTasks.add(new PurgeTask(PurgeTask.Type.DOCUMENT_ITERATION_INDEX_ENTRY, workspaceId, documentIterationKey.toString()));
+            }
+            for (String fullName : folderDAO.findAttachedFileNamesInFolder(folder)) {
+                purgeTasks.add(new PurgeTask(PurgeTask.Type.BINARY_RESOURCE, workspaceId, fullName));
+            }
+
+            for (DocumentRevision documentRevision : allDocRevision) {
+                documentRevisionEvent.select(new AnnotationLiteral<Removed>() {
+                }).fire(new DocumentRevisionEvent(documentRevision));
+            }
+
+            documentRevisionDAO.removeRevisionsInFolder(folder, allDocRevision);
+            purgeTaskBean.enqueue(purgeTasks);
+        }
+
         folderDAO.removeFolder(folder);
         return allDocRevisionKey.toArray(new DocumentRevisionKey[allDocRevisionKey.size()]);
     }
 
+    /**
+     * Same rules as {@link #deleteDocumentRevision(DocumentRevisionKey)}, for a user who already has write access to the workspace
+     */
+    private void checkDocumentRevisionDeletionRight(User user, DocumentRevision documentRevision) throws NotAllowedException, AccessRightException {
+        if (user.isAdministrator()) {
+            return;
+        }
+        if (documentRevision.getACL() != null && !hasDocumentRevisionWriteAccess(user, documentRevision)) {
+            if (isInAnotherUserHomeFolder(user, documentRevision)) {
+                throw new NotAllowedException("NotAllowedException5");
+            }
+            throw new AccessRightException(user);
+        }
+        if (isInAnotherUserHomeFolder(user, documentRevision)) {
+            throw new NotAllowedException("NotAllowedException22");
+        }
+    }
+
+    private void checkDocumentRevisionsInFolderRemovable(Folder folder) throws EntityConstraintException {
+        if (documentBaselineDAO.existBaselinedDocumentsInFolder(folder)) {
+            throw new EntityConstraintException("EntityConstraintException6");
+        }
+        if (documentLinkDAO.hasInverseDocumentsLinksInFolder(folder)) {
+            throw new EntityConstraintException("EntityConstraintException17");
+        }
+        if (documentLinkDAO.hasInversePartsLinksInFolder(folder)) {
+            throw new EntityConstraintException("EntityConstraintException18");
+        }
+        if (documentLinkDAO.hasInverseProductInstanceIterationInFolder(folder)) {
+            throw new EntityConstraintException("EntityConstraintException19");
+        }
+        if (documentLinkDAO.hasInversePathDataInFolder(folder)) {
+            throw new EntityConstraintException("EntityConstraintException20");
+        }
+        if (changeItemDAO.hasChangeItemsInTree(folder)) {
+            throw new EntityConstraintException("EntityConstraintException7");
+        }
+    }
+
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     @Override
     public DocumentRevisionKey[] moveFolder(String pCompletePath, String pDestParentFolder, String pDestFolder) throws WorkspaceNotFoundException, NotAllowedException, AccessRightException, UserNotFoundException, FolderNotFoundException, CreationException, FolderAlreadyExistsException, WorkspaceNotEnabledException {
@@ -1158,27 +1244,19 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
             throw new NotAllowedException("NotAllowedException21");
         } else if (!workspace.equals(Folder.parseWorkspaceId(pDestParentFolder))) {
             throw new NotAllowedException("NotAllowedException23");
+        } else if (pDestParentFolder.equals(pCompletePath) || pDestParentFolder.startsWith(pCompletePath + "/")) {
+            throw new NotAllowedException("NotAllowedException76");
         } else {
             Folder newFolder = createFolder(pDestParentFolder, pDestFolder);
-            List<DocumentRevision> docRs = folderDAO.moveFolder(folder, newFolder);
-            DocumentRevisionKey[] pks = new DocumentRevisionKey[docRs.size()];
-            int i = 0;
-
-            List<DocumentIteration> lastCheckedInIterations = new ArrayList<>();
-
-            for (DocumentRevision docR : docRs) {
-                pks[i++] = docR.getKey();
-                DocumentIteration lastCheckedInIteration = docR.getLastCheckedInIteration();
-                if (null != lastCheckedInIteration) {
-                    lastCheckedInIterations.add(lastCheckedInIteration);
-                }
-            }
+            List<DocumentRevisionKey> docRKeys = folderDAO.moveFolder(folder, newFolder);
 
+            // the location is part of the indexed data, queue the moved documents in a single bulk request
+            List<DocumentIteration> lastCheckedInIterations = folderDAO.findLastCheckedInDocumentIterationsInFolder(newFolder);
             if (!lastCheckedInIterations.isEmpty()) {
                 indexerManager.indexDocumentIterations(lastCheckedInIterations);
             }
 
-            return pks;
+            return docRKeys.toArray(new DocumentRevisionKey[docRKeys.size()]);
         }
     }
 
@@ -1218,6 +1296,9 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
             throw new EntityConstraintException("EntityConstraintException7");
         }
 
+        documentRevisionEvent.select(new AnnotationLiteral<Removed>() {
+        }).fire(new DocumentRevisionEvent(docR));
+
         DocumentMaster documentMaster = docR.getDocumentMaster();
         boolean isLastRevision = documentMaster.getDocumentRevisions().size() == 1;
         if (isLastRevision) {
@@ -1541,6 +1622,8 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
         firstIte.setModificationDate(now);
 
         documentRevisionDAO.createDocR(docR);
+        documentRevisionEvent.select(new AnnotationLiteral<Created>() {
+        }).fire(new DocumentRevisionEvent(docR));
 
         if (runningTasks != null) {
             mailer.sendApproval(docR.getWorkspaceId(), runningTasks, docR);
@@ -1654,17 +1737,24 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
     @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
     @Override
     public boolean canUserAccess(User user, DocumentRevisionKey docRKey) throws DocumentRevisionNotFoundException {
-        DocumentRevision docRevision = documentRevisionDAO.loadDocR(docRKey);
-        return hasDocumentRevisionReadAccess(user, docRevision);
+        return hasDocumentRevisionReadAccess(user, findDocumentRevisionAccess(docRKey));
     }
 
     @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
     @Override
     public boolean canUserAccess(User user, DocumentIterationKey docIKey) throws DocumentRevisionNotFoundException {
-        DocumentRevision docRevision = documentRevisionDAO.loadDocR(docIKey.getDocumentRevision());
-        return hasDocumentRevisionReadAccess(user, docRevision) &&
-                (docRevision.getLastIteration().getIteration() > docIKey.getIteration() ||
-                        !isCheckoutByAnotherUser(user, docRevision));
+        DocumentRevisionAccess access = findDocumentRevisionAccess(docIKey.getDocumentRevision());
+        return hasDocumentRevisionReadAccess(user, access) &&
+                (access.getLastIterationNumber() > docIKey.getIteration() ||
+                        !isCheckoutByAnotherUser(user, access));
+    }
+
+    private DocumentRevisionAccess findDocumentRevisionAccess(DocumentRevisionKey docRKey) throws DocumentRevisionNotFoundException {
+        DocumentRevisionAccess access = documentRevisionDAO.findAccess(docRKey);
+        if (access == null) {
+            throw new DocumentRevisionNotFoundException(docRKey);
+        }
+        return access;
     }
 
     @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
@@ -1917,6 +2007,13 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
                 !isInAnotherUserHomeFolder(user, documentRevision);
     }
 
+    private boolean hasDocumentRevisionReadAccess(User user, DocumentRevisionAccess access) {
+        return access.isPublicShared() ||
+                user.getWorkspaceId().equals(access.getWorkspaceId()) &&
+                        (user.isAdministrator() || access.getAclId() == null || isACLGrantReadAccess(user, aclDAO.loadACL(access.getAclId()))) &&
+                        !isAnotherUserHomeFolder(user, new Folder(access.getLocationPath()));
+    }
+
     private boolean hasDocumentMasterTemplateReadAccess(DocumentMasterTemplate template, User user) {
         return isInSameWorkspace(user, template) && (user.isAdministrator() || isACLGrantReadAccess(user, template));
     }
@@ -1954,6 +2051,10 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
         return template.getAcl() == null || template.getAcl().hasReadAccess(user);
     }
 
+    private boolean isACLGrantReadAccess(User user, ACL acl) {
+        return acl == null || acl.hasReadAccess(user);
+    }
+
     private boolean isACLGrantWriteAccess(User user, DocumentRevision documentRevision) {
         return documentRevision.getACL() == null || documentRevision.getACL().hasWriteAccess(user);
     }
@@ -1974,6 +2075,11 @@ public class DocumentManagerBean implements IDocumentManagerLocal {
         return documentRevision.isCheckedOut() && !documentRevision.getCheckOutUser().equals(user);
     }
 
+    private boolean isCheckoutByAnotherUser(User user, DocumentRevisionAccess access) {
+        return access.isCheckedOut() &&
+                !(user.getLogin().equals(access.getCheckOutUserLogin()) && user.getWorkspaceId().equals(access.getWorkspaceId()));
+    }
+
 
     private void checkNameValidity(String name) throws NotAllowedException {
         if (!NamingConvention.correct(name)) {
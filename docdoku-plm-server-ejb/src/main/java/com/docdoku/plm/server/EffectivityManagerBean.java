@@ -29,11 +29,13 @@ import com.docdoku.plm.server.core.services.IUserManagerLocal;
 import com.docdoku.plm.server.dao.ConfigurationItemDAO;
 import com.docdoku.plm.server.dao.EffectivityDAO;
 import com.docdoku.plm.server.dao.PartRevisionDAO;
+import com.docdoku.plm.server.events.EffectivityEvent;
 
 import javax.annotation.security.DeclareRoles;
 import javax.annotation.security.RolesAllowed;
 import javax.ejb.Local;
 import javax.ejb.Stateless;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import java.util.Date;
 import java.util.Set;
@@ -60,6 +62,9 @@ public class EffectivityManagerBean implements IEffectivityManagerLocal {
     @Inject
     private IProductManagerLocal productManager;
 
+    @Inject
+    private Event<EffectivityEvent> effectivityEvent;
+
     @Override
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     public SerialNumberBasedEffectivity createSerialNumberBasedEffectivity(String workspaceId, String partNumber, String version, String pName, String pDescription, String pConfigurationItemId, String pStartNumber, String pEndNumber)
@@ -93,6 +98,7 @@ public class EffectivityManagerBean implements IEffectivityManagerLocal {
         effectivities.add(serialNumberBasedEffectivity);
         partRevision.setEffectivities(effectivities);
         partRevisionDAO.updateRevision(partRevision);
+        effectivityEvent.fire(new EffectivityEvent(serialNumberBasedEffectivity, partRevision));
 
         return serialNumberBasedEffectivity;
     }
@@ -132,6 +138,7 @@ public class EffectivityManagerBean implements IEffectivityManagerLocal {
         effectivities.add(dateBasedEffectivity);
         partRevision.setEffectivities(effectivities);
         partRevisionDAO.updateRevision(partRevision);
+        effectivityEvent.fire(new EffectivityEvent(dateBasedEffectivity, partRevision));
         return dateBasedEffectivity;
     }
 
@@ -166,6 +173,7 @@ public class EffectivityManagerBean implements IEffectivityManagerLocal {
         effectivities.add(lotBasedEffectivity);
         partRevision.setEffectivities(effectivities);
         partRevisionDAO.updateRevision(partRevision);
+        effectivityEvent.fire(new EffectivityEvent(lotBasedEffectivity, partRevision));
 
         return lotBasedEffectivity;
     }
@@ -204,6 +212,7 @@ public class EffectivityManagerBean implements IEffectivityManagerLocal {
         effectivity.setName(pName);
         effectivity.setDescription(pDescription);
         effectivityDAO.updateEffectivity(effectivity);
+        effectivityEvent.fire(new EffectivityEvent(effectivity, partRevision));
         return effectivity;
     }
 
@@ -233,6 +242,7 @@ public class EffectivityManagerBean implements IEffectivityManagerLocal {
         effectivity.setStartNumber(pStartNumber);
         effectivity.setEndNumber(pEndNumber);
         effectivityDAO.updateEffectivity(effectivity);
+        effectivityEvent.fire(new EffectivityEvent(effectivity, partRevision));
 
         return effectivity;
     }
@@ -262,6 +272,7 @@ public class EffectivityManagerBean implements IEffectivityManagerLocal {
         effectivity.setStartDate(pStartDate);
         effectivity.setEndDate(pEndDate);
         effectivityDAO.updateEffectivity(effectivity);
+        effectivityEvent.fire(new EffectivityEvent(effectivity, partRevision));
 
         return effectivity;
     }
@@ -292,6 +303,7 @@ public class EffectivityManagerBean implements IEffectivityManagerLocal {
         effectivity.setStartLotId(pStartLotId);
         effectivity.setEndLotId(pEndLotId);
         effectivityDAO.updateEffectivity(effectivity);
+        effectivityEvent.fire(new EffectivityEvent(effectivity, partRevision));
 
         return effectivity;
     }
@@ -314,5 +326,6 @@ public class EffectivityManagerBean implements IEffectivityManagerLocal {
         partRevisionDAO.removePartRevisionEffectivity(partRevision, effectivity);
 
         effectivityDAO.removeEffectivity(effectivity);
+        effectivityEvent.fire(new EffectivityEvent(effectivity, partRevision));
     }
 }
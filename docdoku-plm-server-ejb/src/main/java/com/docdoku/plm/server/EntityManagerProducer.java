@@ -20,15 +20,19 @@
 
 package com.docdoku.plm.server;
 
+import com.docdoku.plm.server.metrics.MeteredEntityManager;
+
 import javax.ejb.Singleton;
 import javax.enterprise.inject.Produces;
+import javax.interceptor.ExcludeDefaultInterceptors;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 /**
- * Provides EntityManager injection point
+ * Provides EntityManager injection point, metered by {@link MeteredEntityManager}
  * */
 @Singleton
+@ExcludeDefaultInterceptors
 public class EntityManagerProducer {
 
     @PersistenceContext
@@ -36,7 +40,7 @@ public class EntityManagerProducer {
 
     @Produces
     public  EntityManager create(){
-      return em;
+      return MeteredEntityManager.wrap(em);
     }
 
 }
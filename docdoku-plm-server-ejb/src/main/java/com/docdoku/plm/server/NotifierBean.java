@@ -25,8 +25,6 @@ import com.docdoku.plm.server.core.common.User;
 import com.docdoku.plm.server.core.common.Workspace;
 import com.docdoku.plm.server.core.document.DocumentRevision;
 import com.docdoku.plm.server.core.exceptions.*;
-import com.docdoku.plm.server.core.hooks.SNSWebhookApp;
-import com.docdoku.plm.server.core.hooks.SimpleWebhookApp;
 import com.docdoku.plm.server.core.hooks.Webhook;
 import com.docdoku.plm.server.core.meta.Tag;
 import com.docdoku.plm.server.core.product.PartRevision;
@@ -37,25 +35,16 @@ import com.docdoku.plm.server.core.services.IWorkspaceManagerLocal;
 import com.docdoku.plm.server.core.util.FileIO;
 import com.docdoku.plm.server.core.workflow.Task;
 import com.docdoku.plm.server.core.workflow.WorkspaceWorkflow;
-import com.docdoku.plm.server.i18n.PropertiesLoader;
 import com.docdoku.plm.server.config.ServerConfig;
-import com.docdoku.plm.server.hooks.SNSWebhookRunner;
-import com.docdoku.plm.server.hooks.SimpleWebhookRunner;
-import com.docdoku.plm.server.hooks.WebhookRunner;
+import com.docdoku.plm.server.hooks.WebhookDeliveryBean;
+import com.docdoku.plm.server.mail.MailDispatcherBean;
+import com.docdoku.plm.server.mail.NotificationTemplates;
 
-import javax.annotation.Resource;
 import javax.ejb.Asynchronous;
 import javax.ejb.Local;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
-import javax.mail.Message;
 import javax.mail.MessagingException;
-import javax.mail.Session;
-import javax.mail.Transport;
-import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeMessage;
-import java.io.UnsupportedEncodingException;
-import java.text.MessageFormat;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -69,8 +58,6 @@ import java.util.logging.Logger;
 @Stateless(name = "MailerBean")
 public class NotifierBean implements INotifierLocal {
 
-    private static final String TEMPLATE_BASE_NAME = "/com/docdoku/plm/server/templates/NotificationText";
-
     @Inject
     private ServerConfig serverConfig;
 
@@ -83,8 +70,11 @@ public class NotifierBean implements INotifierLocal {
     @Inject
     private IWebhookManagerLocal webhookManager;
 
-    @Resource(name = "mail/docdokuSMTP")
-    private Session mailSession;
+    @Inject
+    private WebhookDeliveryBean webhookDelivery;
+
+    @Inject
+    private MailDispatcherBean mailDispatcher;
 
     private static final Logger LOGGER = Logger.getLogger(NotifierBean.class.getName());
 
@@ -631,26 +621,20 @@ public class NotifierBean implements INotifierLocal {
 
     // Template utils methods
 
-    private Properties getProperties(Locale pLocale) {
-        return PropertiesLoader.loadLocalizedProperties(pLocale, TEMPLATE_BASE_NAME, getClass());
-    }
-
     private String getString(String string, Locale pLocale) {
-        return getProperties(pLocale).getProperty(string).replaceAll("'", "’");
+        return NotificationTemplates.getString(string, pLocale);
     }
 
     private String format(String string, Object[] args, Locale pLocale) {
-        return MessageFormat.format(getString(string, pLocale).replaceAll("'", "’"), args);
+        return NotificationTemplates.format(string, args, pLocale);
     }
 
     private String getHTMLBody(String content, Locale pLocale) {
-        String mailBodyTemplate = getString("MailBodyTemplate", pLocale);
-        return MessageFormat.format(mailBodyTemplate, content);
+        return NotificationTemplates.getHTMLBody(content, pLocale);
     }
 
     private String getSubject(String string, Locale pLocale) {
-        String mailSubjectTemplate = getString("MailSubjectTemplate", pLocale);
-        return mailSubjectTemplate + " " + getString(string, pLocale);
+        return NotificationTemplates.getSubject(string, pLocale);
     }
 
     // Direct account message
@@ -683,7 +667,7 @@ public class NotifierBean implements INotifierLocal {
         }
 
         if (workspaceBackOptions.isSendEmails()) {
-            sendEmail(email, name, subject, getHTMLBody(content, userLocale));
+            mailDispatcher.queue(email, name, userLocale, subject, content);
         }
 
         List<Webhook> activeWebHooks;
@@ -695,52 +679,12 @@ public class NotifierBean implements INotifierLocal {
             return;
         }
 
-        for (Webhook webhook : activeWebHooks) {
-            runHook(webhook, login, email, name, subject, content);
-        }
+        webhookDelivery.enqueue(activeWebHooks, login, email, name, subject, content);
 
     }
 
     private void sendEmail(String email, String name, String subject, String content) throws MessagingException {
-
-        if (email == null || email.isEmpty()) {
-            LOGGER.log(Level.WARNING, "Cannot send mail, email is empty");
-            return;
-        }
-
-        try {
-            InternetAddress emailAddress = new InternetAddress(email, name);
-            Message message = new MimeMessage(mailSession);
-            message.addRecipient(Message.RecipientType.TO, emailAddress);
-            message.setSubject(subject);
-            message.setSentDate(new Date());
-            message.setContent(content, "text/html; charset=utf-8");
-            message.setFrom();
-            Transport.send(message);
-        } catch (UnsupportedEncodingException e) {
-            String logMessage = "Unsupported encoding: " + e.getMessage();
-            LOGGER.log(Level.SEVERE, logMessage, e);
-        }
-    }
-
-    private void runHook(Webhook webhook, String login, String email, String name, String subject, String content) {
-        LOGGER.log(Level.INFO, " Running hook " + webhook.getName());
-        String appName = webhook.getAppName();
-        WebhookRunner runner;
-
-        switch (appName) {
-            case SNSWebhookApp.APP_NAME:
-                runner = new SNSWebhookRunner();
-                break;
-            case SimpleWebhookApp.APP_NAME:
-                runner = new SimpleWebhookRunner();
-                break;
-            default:
-                LOGGER.log(Level.SEVERE, "Unsupported webhook " + webhook);
-                return;
-        }
-
-        runner.run(webhook, login, email, name, subject, content);
+        mailDispatcher.send(email, name, subject, content);
     }
 
 }
@@ -24,6 +24,7 @@ import com.docdoku.plm.server.core.common.User;
 import com.docdoku.plm.server.core.configuration.*;
 import com.docdoku.plm.server.core.exceptions.*;
 import com.docdoku.plm.server.core.product.ConfigurationItemKey;
+import com.docdoku.plm.server.core.product.PartIteration;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.IPSFilterManagerLocal;
 import com.docdoku.plm.server.core.services.IUserManagerLocal;
@@ -31,7 +32,9 @@ import com.docdoku.plm.server.configuration.filter.LatestCheckedInPSFilter;
 import com.docdoku.plm.server.configuration.filter.LatestReleasedPSFilter;
 import com.docdoku.plm.server.configuration.filter.ReleasedPSFilter;
 import com.docdoku.plm.server.configuration.filter.WIPPSFilter;
+import com.docdoku.plm.server.configuration.spec.ResolvedCollectionCache;
 import com.docdoku.plm.server.configuration.spec.ResolvedCollectionConfigSpec;
+import com.docdoku.plm.server.configuration.spec.ResolvedCollectionSnapshot;
 import com.docdoku.plm.server.dao.ProductBaselineDAO;
 import com.docdoku.plm.server.dao.ProductInstanceMasterDAO;
 
@@ -40,12 +43,16 @@ import javax.annotation.security.RolesAllowed;
 import javax.ejb.Local;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
 
 @DeclareRoles({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
 @Local(IPSFilterManagerLocal.class)
 @Stateless(name = "PSFilterManagerBean")
 public class PSFilterManagerBean implements IPSFilterManagerLocal {
 
+    @Inject
+    private EntityManager em;
+
     @Inject
     private ProductBaselineDAO productBaselineDAO;
 
@@ -55,12 +62,15 @@ public class PSFilterManagerBean implements IPSFilterManagerLocal {
     @Inject
     private IUserManagerLocal userManager;
 
+    @Inject
+    private ResolvedCollectionCache resolvedCollectionCache;
+
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     @Override
     public ProductStructureFilter getBaselinePSFilter(int baselineId) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, BaselineNotFoundException, WorkspaceNotEnabledException {
         ProductBaseline productBaseline = productBaselineDAO.loadBaseline(baselineId);
         userManager.checkWorkspaceReadAccess(productBaseline.getConfigurationItem().getWorkspaceId());
-        return new ResolvedCollectionConfigSpec(productBaseline);
+        return getResolvedCollectionConfigSpec(productBaseline);
     }
 
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
@@ -70,7 +80,16 @@ public class PSFilterManagerBean implements IPSFilterManagerLocal {
         ProductInstanceMasterKey productInstanceMasterKey = new ProductInstanceMasterKey(serialNumber, ciKey);
         ProductInstanceMaster productIM = productInstanceMasterDAO.loadProductInstanceMaster(productInstanceMasterKey);
         ProductInstanceIteration productII = productIM.getLastIteration();
-        return new ResolvedCollectionConfigSpec(productII);
+        return getResolvedCollectionConfigSpec(productII);
+    }
+
+    private ProductStructureFilter getResolvedCollectionConfigSpec(ResolvedCollection resolvedCollection) {
+        ResolvedCollectionSnapshot snapshot = resolvedCollectionCache.get(resolvedCollection.getPartCollection().getId(),
+                partCollectionId -> new ResolvedCollectionSnapshot(partCollectionId,
+                        productBaselineDAO.findTargetPartKeys(partCollectionId),
+                        resolvedCollection.getOptionalUsageLinks(),
+                        resolvedCollection.getSubstituteLinks()));
+        return new ResolvedCollectionConfigSpec(snapshot, partIterationKey -> em.find(PartIteration.class, partIterationKey));
     }
 
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
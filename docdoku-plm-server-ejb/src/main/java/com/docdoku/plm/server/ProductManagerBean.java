@@ -47,6 +47,7 @@ import com.docdoku.plm.server.configuration.filter.WIPPSFilter;
 import com.docdoku.plm.server.dao.*;
 import com.docdoku.plm.server.events.*;
 import com.docdoku.plm.server.factory.ACLFactory;
+import com.docdoku.plm.server.listeners.parts.PartNumberIndexes;
 import com.docdoku.plm.server.validation.AttributesConsistencyUtils;
 
 import javax.annotation.security.DeclareRoles;
@@ -128,6 +129,9 @@ public class ProductManagerBean implements IProductManagerLocal {
     @Inject
     private PartMasterTemplateDAO partMasterTemplateDAO;
 
+    @Inject
+    private PartNumberIndexes partNumberIndexes;
+
     @Inject
     private PartRevisionDAO partRevisionDAO;
 
@@ -209,6 +213,9 @@ public class ProductManagerBean implements IProductManagerLocal {
     @Inject
     private Event<PartRevisionEvent> partRevisionEvent;
 
+    @Inject
+    private Event<ConfigurationItemEvent> configurationItemEvent;
+
     @Inject
     private PSFilterVisitor psFilterVisitor;
 
@@ -243,9 +250,9 @@ public class ProductManagerBean implements IProductManagerLocal {
 
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     @Override
-    public List<PartMaster> findPartMasters(String pWorkspaceId, String pPartNumber, String pPartName, int pMaxResults) throws UserNotFoundException, AccessRightException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
+    public List<PartSuggestion> suggestPartMasters(String pWorkspaceId, String pQuery, int pMaxResults) throws UserNotFoundException, AccessRightException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
         userManager.checkWorkspaceWriteAccess(pWorkspaceId);
-        return partMasterDAO.findPartMasters(pWorkspaceId, pPartNumber, pPartName, pMaxResults);
+        return partNumberIndexes.lookup(pWorkspaceId, pQuery, pMaxResults);
     }
 
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
@@ -374,6 +381,8 @@ public class ProductManagerBean implements IProductManagerLocal {
         }
 
         partMasterDAO.createPartM(pm);
+        partRevisionEvent.select(new AnnotationLiteral<Created>() {
+        }).fire(new PartRevisionEvent(newRevision));
 
         if (runningTasks != null) {
             mailer.sendApproval(newRevision.getWorkspaceId(), runningTasks, newRevision);
@@ -437,6 +446,9 @@ public class ProductManagerBean implements IProductManagerLocal {
                 }
             }
 
+            partRevisionEvent.select(new AnnotationLiteral<CheckOutUndone>() {
+            }).fire(new PartRevisionEvent(partR));
+
             return partR;
         } else {
             throw new NotAllowedException("NotAllowedException19");
@@ -561,6 +573,9 @@ public class ProductManagerBean implements IProductManagerLocal {
 
         }
 
+        partRevisionEvent.select(new AnnotationLiteral<CheckedOut>() {
+        }).fire(new PartRevisionEvent(partR));
+
         return partR;
     }
 
@@ -951,7 +966,7 @@ public class ProductManagerBean implements IProductManagerLocal {
 
         User user = checkPartRevisionReadAccess(pPartRPK);
 
-        PartRevision partR = partRevisionDAO.loadPartR(pPartRPK);
+        PartRevision partR = partRevisionDAO.loadPartR(pPartRPK, PartRevision.GRAPH_DETAIL);
 
         if (isCheckoutByAnotherUser(user, partR)) {
             em.detach(partR);
@@ -969,6 +984,21 @@ public class ProductManagerBean implements IProductManagerLocal {
         return modificationNotificationDAO.getModificationNotifications(pPartIPK);
     }
 
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    @Override
+    public Map<PartIterationKey, List<ModificationNotification>> getModificationNotifications(String workspaceId, Set<PartIterationKey> partIterationKeys) throws UserNotFoundException, WorkspaceNotFoundException, UserNotActiveException, WorkspaceNotEnabledException {
+        User user = userManager.checkWorkspaceReadAccess(workspaceId);
+        Set<String> partNumbers = partIterationKeys.stream().map(PartIterationKey::getPartMasterNumber).collect(Collectors.toSet());
+        Map<PartIterationKey, List<ModificationNotification>> notifications = new HashMap<>();
+        for (ModificationNotification notification : modificationNotificationDAO.getModificationNotifications(workspaceId, partNumbers)) {
+            PartIteration impactedPart = notification.getImpactedPart();
+            if (partIterationKeys.contains(impactedPart.getKey()) && hasPartRevisionReadAccess(user, impactedPart.getPartRevision())) {
+                notifications.computeIfAbsent(impactedPart.getKey(), key -> new ArrayList<>()).add(notification);
+            }
+        }
+        return notifications;
+    }
+
     @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
     @Override
     public void removeModificationNotificationsOnIteration(PartIterationKey pPartIPK) {
@@ -1387,10 +1417,21 @@ public class ProductManagerBean implements IProductManagerLocal {
 
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     @Override
-    public PartRevision[] getPartRevisionsWithReferenceOrName(String pWorkspaceId, String reference, int maxResults) throws WorkspaceNotFoundException, UserNotFoundException, UserNotActiveException, WorkspaceNotEnabledException {
+    public List<PartSuggestion> suggestPartsLastIterations(String pWorkspaceId, String pQuery, int pMaxResults) throws WorkspaceNotFoundException, UserNotFoundException, UserNotActiveException, WorkspaceNotEnabledException {
         userManager.checkWorkspaceReadAccess(pWorkspaceId);
-        List<PartRevision> partRs = partRevisionDAO.findPartsRevisionsWithReferenceOrNameLike(pWorkspaceId, reference, maxResults);
-        return partRs.toArray(new PartRevision[partRs.size()]);
+        Map<String, String> names = new HashMap<>();
+        for (PartSuggestion partMaster : partNumberIndexes.lookup(pWorkspaceId, pQuery, pMaxResults)) {
+            names.put(partMaster.getNumber(), partMaster.getName());
+        }
+        List<PartSuggestion> lastIterations = new ArrayList<>();
+        for (Object[] row : partRevisionDAO.findLastIterationNumbers(pWorkspaceId, names.keySet())) {
+            if (lastIterations.size() == pMaxResults) {
+                break;
+            }
+            String number = (String) row[0];
+            lastIterations.add(new PartSuggestion(pWorkspaceId, number, names.get(number), (String) row[1], (Integer) row[2]));
+        }
+        return lastIterations;
     }
 
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
@@ -1505,7 +1546,9 @@ public class ProductManagerBean implements IProductManagerLocal {
             throw new EntityConstraintException("EntityConstraintException13");
         }
 
-        configurationItemDAO.removeConfigurationItem(configurationItemKey);
+        ConfigurationItem configurationItem = configurationItemDAO.removeConfigurationItem(configurationItemKey);
+        configurationItemEvent.select(new AnnotationLiteral<Removed>() {
+        }).fire(new ConfigurationItemEvent(configurationItem));
     }
 
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
@@ -2042,7 +2085,7 @@ public class ProductManagerBean implements IProductManagerLocal {
         }
 
         partRevisionEvent.select(new AnnotationLiteral<Removed>() {
-        }).fire(new PartRevisionEvent(partR));
+        }).fire(new PartRevisionEvent(partR, isLastRevision));
 
         if (isLastRevision) {
             partMasterDAO.removePartM(partMaster);
@@ -2073,6 +2116,20 @@ public class ProductManagerBean implements IProductManagerLocal {
         return partRevisionDAO.loadPartR(partRevisionKey).getLastIterationNumber();
     }
 
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
+    @Override
+    public Map<PartRevisionKey, Integer> getReadablePartRevisionsLastIterationNumbers(String workspaceId, Set<PartRevisionKey> partRevisionKeys) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
+        User user = userManager.checkWorkspaceReadAccess(workspaceId);
+        Set<String> partNumbers = partRevisionKeys.stream().map(PartRevisionKey::getPartMasterNumber).collect(Collectors.toSet());
+        Map<PartRevisionKey, Integer> lastIterationNumbers = new HashMap<>();
+        for (PartRevision partRevision : partRevisionDAO.findPartRevisionsByNumbers(workspaceId, partNumbers)) {
+            if (partRevisionKeys.contains(partRevision.getKey()) && hasPartRevisionReadAccess(user, partRevision)) {
+                lastIterationNumbers.put(partRevision.getKey(), partRevision.getLastIterationNumber());
+            }
+        }
+        return lastIterationNumbers;
+    }
+
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     @Override
     public PartRevision createPartRevision(PartRevisionKey revisionKey, String pDescription, String pWorkflowModelId, Map<String, String> pACLUserEntries, Map<String, String> pACLUserGroupEntries, Map<String, Collection<String>> userRoleMapping, Map<String, Collection<String>> groupRoleMapping)
@@ -2238,6 +2295,8 @@ public class ProductManagerBean implements IProductManagerLocal {
         firstPartI.setModificationDate(now);
 
         partRevisionDAO.createPartR(partR);
+        partRevisionEvent.select(new AnnotationLiteral<Created>() {
+        }).fire(new PartRevisionEvent(partR));
 
         if (runningTasks != null) {
             mailer.sendApproval(partR.getWorkspaceId(), runningTasks, partR);
@@ -2335,17 +2394,24 @@ public class ProductManagerBean implements IProductManagerLocal {
     @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
     @Override
     public boolean canUserAccess(User user, PartRevisionKey partRKey) throws PartRevisionNotFoundException {
-        PartRevision partRevision = partRevisionDAO.loadPartR(partRKey);
-        return hasPartRevisionReadAccess(user, partRevision);
+        return hasPartRevisionReadAccess(user, findPartRevisionAccess(partRKey));
     }
 
     @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
     @Override
     public boolean canUserAccess(User user, PartIterationKey partIKey) throws PartRevisionNotFoundException, PartIterationNotFoundException {
-        PartRevision partR = partRevisionDAO.loadPartR(partIKey.getPartRevision());
-        return hasPartRevisionReadAccess(user, partR) &&
-                (!partRevisionDAO.isCheckedOutIteration(partIKey) ||
-                        user.equals(partR.getCheckOutUser()));
+        PartRevisionAccess access = findPartRevisionAccess(partIKey.getPartRevision());
+        boolean checkedOutIteration = access.isCheckedOut() && partIKey.getIteration() == access.getLastIterationNumber();
+        return hasPartRevisionReadAccess(user, access) &&
+                (!checkedOutIteration || user.getLogin().equals(access.getCheckOutUserLogin()));
+    }
+
+    private PartRevisionAccess findPartRevisionAccess(PartRevisionKey partRKey) throws PartRevisionNotFoundException {
+        PartRevisionAccess access = partRevisionDAO.findAccess(partRKey);
+        if (access == null) {
+            throw new PartRevisionNotFoundException(partRKey);
+        }
+        return access;
     }
 
     @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
@@ -2708,6 +2774,40 @@ public class ProductManagerBean implements IProductManagerLocal {
 
         List<PartRevision> parts = partRevisionQueryDAO.runQuery(user.getTimeZone(), workspace, query);
 
+        return filterQueryResult(user, parts);
+    }
+
+    @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
+    @Override
+    public List<PartRevision> searchPartRevisions(String workspaceId, Query query, PartRevisionKey after, int maxResults) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
+        User user = userManager.checkWorkspaceReadAccess(workspaceId);
+
+        Workspace workspace = workspaceDAO.loadWorkspace(workspaceId);
+
+        List<PartRevision> parts = new ArrayList<>();
+        PartRevisionKey lastRead = after;
+
+        // Revisions the user cannot read are dropped, keep reading until the page is full or the result exhausted
+        while (parts.size() < maxResults) {
+            List<PartRevision> page = partRevisionQueryDAO.runQuery(user.getTimeZone(), workspace, query, lastRead, maxResults);
+            if (page.isEmpty()) {
+                break;
+            }
+            boolean lastPage = page.size() < maxResults;
+            lastRead = page.get(page.size() - 1).getKey();
+
+            List<PartRevision> readable = filterQueryResult(user, page);
+            parts.addAll(readable.subList(0, Math.min(readable.size(), maxResults - parts.size())));
+
+            if (lastPage) {
+                break;
+            }
+        }
+
+        return parts;
+    }
+
+    private List<PartRevision> filterQueryResult(User user, List<PartRevision> parts) {
         ListIterator<PartRevision> ite = parts.listIterator();
 
         while (ite.hasNext()) {
@@ -3457,6 +3557,14 @@ public class ProductManagerBean implements IProductManagerLocal {
         return user.isAdministrator() || isACLGrantReadAccess(user, partRevision);
     }
 
+    private boolean hasPartRevisionReadAccess(User user, PartRevisionAccess access) {
+        return user.isAdministrator() || access.getAclId() == null || isACLGrantReadAccess(user, aclDAO.loadACL(access.getAclId()));
+    }
+
+    private boolean isACLGrantReadAccess(User user, ACL acl) {
+        return acl == null || acl.hasReadAccess(user);
+    }
+
     private boolean hasPartTemplateReadAccess(User user, PartMasterTemplate template) {
         return user.isAdministrator() || isACLGrantReadAccess(user, template);
     }
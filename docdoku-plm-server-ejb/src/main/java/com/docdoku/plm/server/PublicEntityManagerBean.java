@@ -23,12 +23,14 @@ package com.docdoku.plm.server;
 import com.docdoku.plm.server.core.common.BinaryResource;
 import com.docdoku.plm.server.core.document.DocumentIterationKey;
 import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.document.DocumentRevisionAccess;
 import com.docdoku.plm.server.core.document.DocumentRevisionKey;
 import com.docdoku.plm.server.core.exceptions.DocumentRevisionNotFoundException;
 import com.docdoku.plm.server.core.exceptions.FileNotFoundException;
 import com.docdoku.plm.server.core.exceptions.PartRevisionNotFoundException;
 import com.docdoku.plm.server.core.product.PartIterationKey;
 import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.product.PartRevisionAccess;
 import com.docdoku.plm.server.core.product.PartRevisionKey;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.IPublicEntityManagerLocal;
@@ -134,15 +136,21 @@ public class PublicEntityManagerBean implements IPublicEntityManagerLocal {
     @Override
     @RolesAllowed({UserGroupMapping.GUEST_ROLE_ID, UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
     public boolean canAccess(PartIterationKey partIKey) throws PartRevisionNotFoundException {
-        PartRevision partRevision = partRevisionDAO$.loadPartR(partIKey.getPartRevision());
-        return partRevision.isPublicShared() && partRevision.getLastCheckedInIteration().getIteration() >= partIKey.getIteration();
+        PartRevisionAccess access = partRevisionDAO$.findAccess(partIKey.getPartRevision());
+        if (access == null) {
+            throw new PartRevisionNotFoundException(partIKey.getPartRevision());
+        }
+        return access.isPublicShared() && access.getLastCheckedInIterationNumber() >= partIKey.getIteration();
     }
 
     @Override
     @RolesAllowed({UserGroupMapping.GUEST_ROLE_ID, UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
     public boolean canAccess(DocumentIterationKey docIKey) throws DocumentRevisionNotFoundException {
-        DocumentRevision documentRevision = documentRevisionDAO.loadDocR(docIKey.getDocumentRevision());
-        return documentRevision.isPublicShared() && documentRevision.getLastCheckedInIteration().getIteration() >= docIKey.getIteration();
+        DocumentRevisionAccess access = documentRevisionDAO.findAccess(docIKey.getDocumentRevision());
+        if (access == null) {
+            throw new DocumentRevisionNotFoundException(docIKey.getDocumentRevision());
+        }
+        return access.isPublicShared() && access.getLastCheckedInIterationNumber() >= docIKey.getIteration();
     }
 
     @Override
@@ -0,0 +1,145 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server;
+
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.common.PurgeTask;
+import com.docdoku.plm.server.core.exceptions.ApplicationException;
+import com.docdoku.plm.server.core.exceptions.StorageException;
+import com.docdoku.plm.server.core.services.IBinaryStorageManagerLocal;
+import com.docdoku.plm.server.core.services.IIndexerManagerLocal;
+import com.docdoku.plm.server.dao.PurgeTaskDAO;
+import com.docdoku.plm.server.queue.RetryQueue;
+
+import javax.annotation.Resource;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queues and runs the removal of the vault files and index entries of deleted entities.
+ * <p>
+ * Tasks are persisted in the transaction which deletes the entities, then swept in the
+ * background by {@link PurgeTasksSweeper}: nothing is removed from the vault if that
+ * transaction rolls back, and failed removals are retried with an exponential backoff.
+ */
+@Stateless(name = "PurgeTaskBean")
+public class PurgeTaskBean {
+
+    static final RetryQueue RETRY_QUEUE = new RetryQueue(10, 30 * 1000, 60 * 60 * 1000, 5 * 60 * 1000);
+
+    private static final Logger LOGGER = Logger.getLogger(PurgeTaskBean.class.getName());
+
+    @Resource
+    private SessionContext ctx;
+
+    @Inject
+    private PurgeTaskDAO purgeTaskDAO;
+
+    @Inject
+    private IBinaryStorageManagerLocal storageManager;
+
+    @Inject
+    private IIndexerManagerLocal indexerManager;
+
+    public void enqueue(Collection<PurgeTask> tasks) {
+        purgeTaskDAO.createTasks(tasks);
+    }
+
+    /**
+     * Leases the due tasks so that no other node picks them up meanwhile.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<PurgeTask> claimDueTasks(int maxResults) {
+        List<PurgeTask> claimed = purgeTaskDAO.findDueTasks(new Date(), maxResults);
+        RETRY_QUEUE.lease(claimed);
+        return claimed;
+    }
+
+    /**
+     * Removes the files one by one and the index entries with one request per workspace.
+     *
+     * @return the number of tasks done
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public int purge(List<PurgeTask> tasks) {
+        PurgeTaskBean self = ctx.getBusinessObject(PurgeTaskBean.class);
+        List<Long> done = new ArrayList<>();
+        Map<String, List<PurgeTask>> indexEntries = new LinkedHashMap<>();
+
+        for (PurgeTask task : tasks) {
+            if (task.getType() == PurgeTask.Type.DOCUMENT_ITERATION_INDEX_ENTRY) {
+                indexEntries.computeIfAbsent(task.getWorkspaceId(), id -> new ArrayList<>()).add(task);
+                continue;
+            }
+            try {
+                storageManager.deleteData(new BinaryResource(task.getTarget(), 0, null));
+                done.add(task.getId());
+            } catch (StorageException e) {
+                LOGGER.log(Level.WARNING, "Cannot delete file " + task.getTarget() + ": " + e.getMessage());
+                self.recordFailure(Collections.singletonList(task.getId()), e.getMessage());
+            }
+        }
+
+        for (Map.Entry<String, List<PurgeTask>> workspaceEntries : indexEntries.entrySet()) {
+            List<Long> ids = new ArrayList<>();
+            List<String> documentIterationIds = new ArrayList<>();
+            for (PurgeTask task : workspaceEntries.getValue()) {
+                ids.add(task.getId());
+                documentIterationIds.add(task.getTarget());
+            }
+            try {
+                indexerManager.removeDocumentIterationsFromIndex(workspaceEntries.getKey(), documentIterationIds);
+                done.addAll(ids);
+            } catch (ApplicationException e) {
+                LOGGER.log(Level.WARNING, "Cannot delete " + ids.size() + " document(s) from the index of workspace " + workspaceEntries.getKey());
+                LOGGER.log(Level.FINE, null, e);
+                self.recordFailure(ids, e.getMessage());
+            }
+        }
+
+        self.recordSuccess(done);
+        return done.size();
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void recordSuccess(List<Long> taskIds) {
+        purgeTaskDAO.removeTasks(taskIds);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void recordFailure(List<Long> taskIds, String error) {
+        List<Long> abandoned = new ArrayList<>();
+        for (Long taskId : taskIds) {
+            PurgeTask task = purgeTaskDAO.findTask(taskId);
+            if (task == null) {
+                continue;
+            }
+            if (!RETRY_QUEUE.retry(task, error)) {
+                LOGGER.log(Level.SEVERE, "Giving up the purge of " + task.getTarget() + " after " + (task.getAttempts() + 1) + " attempt(s): " + error);
+                abandoned.add(taskId);
+            }
+        }
+        purgeTaskDAO.removeTasks(abandoned);
+    }
+}
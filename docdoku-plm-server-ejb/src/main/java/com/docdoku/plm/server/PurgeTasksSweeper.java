@@ -0,0 +1,71 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server;
+
+import com.docdoku.plm.server.core.common.PurgeTask;
+import com.docdoku.plm.server.queue.Sweeper;
+
+import javax.ejb.EJBException;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drains the purge task queue: vault files and index entries of deleted entities.
+ *
+ * @see PurgeTaskBean
+ */
+@ApplicationScoped
+public class PurgeTasksSweeper implements Sweeper {
+
+    private final static int MAX_CLAIMED_TASKS = 500;
+    private final static long PERIOD_MS = 15 * 1000;
+    private Logger LOGGER = Logger.getLogger(PurgeTasksSweeper.class.getName());
+
+    @Inject
+    private PurgeTaskBean purgeTaskBean;
+
+    @Override
+    public long getPeriodMillis() {
+        return PERIOD_MS;
+    }
+
+    @Override
+    public void sweep() {
+        List<PurgeTask> tasks;
+        do {
+            try {
+                tasks = purgeTaskBean.claimDueTasks(MAX_CLAIMED_TASKS);
+            } catch (EJBException e) {
+                // Most likely claimed by another node in the meantime
+                LOGGER.log(Level.FINE, "Cannot claim purge tasks", e);
+                return;
+            }
+            if (!tasks.isEmpty()) {
+                int purged = purgeTaskBean.purge(tasks);
+                LOGGER.log(Level.FINE, purged + " of " + tasks.size() + " purge task(s) done");
+            }
+        } while (tasks.size() == MAX_CLAIMED_TASKS);
+    }
+
+}
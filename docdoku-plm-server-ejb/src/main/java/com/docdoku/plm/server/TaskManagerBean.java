@@ -23,12 +23,9 @@ import com.docdoku.plm.server.core.common.User;
 import com.docdoku.plm.server.core.document.DocumentIteration;
 import com.docdoku.plm.server.core.document.DocumentRevision;
 import com.docdoku.plm.server.core.exceptions.*;
-import com.docdoku.plm.server.core.product.PartRevision;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.*;
 import com.docdoku.plm.server.core.workflow.*;
-import com.docdoku.plm.server.dao.DocumentRevisionDAO;
-import com.docdoku.plm.server.dao.PartRevisionDAO;
 import com.docdoku.plm.server.dao.TaskDAO;
 import com.docdoku.plm.server.dao.WorkflowDAO;
 
@@ -38,8 +35,7 @@ import javax.ejb.Local;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
-import java.util.Objects;
-import java.util.stream.Stream;
+import java.util.List;
 
 /**
  * @author Morgan Guimard
@@ -52,12 +48,6 @@ public class TaskManagerBean implements ITaskManagerLocal {
     @Inject
     private EntityManager em;
 
-    @Inject
-    private DocumentRevisionDAO documentRevisionDAO;
-
-    @Inject
-    private PartRevisionDAO partRevisionDAO;
-
     @Inject
     private TaskDAO taskDAO;
 
@@ -79,33 +69,40 @@ public class TaskManagerBean implements ITaskManagerLocal {
     @Override
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     public TaskWrapper[] getAssignedTasksForGivenUser(String workspaceId, String userLogin) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
-        userManager.checkWorkspaceReadAccess(workspaceId);
-
-        Task[] assignedTasks = taskDAO.findAssignedTasks(workspaceId, userLogin);
+        return getAssignedTasksForGivenUser(workspaceId, userLogin, 0, 0);
+    }
 
-        return Stream.of(assignedTasks)
-                .map(task -> wrapTask(task, workspaceId))
-                .filter(Objects::nonNull).toArray(TaskWrapper[]::new);
+    @Override
+    @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
+    public TaskWrapper[] getAssignedTasksForGivenUser(String workspaceId, String userLogin, int start, int max) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
+        userManager.checkWorkspaceReadAccess(workspaceId);
+        List<TaskWrapper> assignedTasks = taskDAO.findAssignedTasks(workspaceId, userLogin, null, start, max);
+        return assignedTasks.toArray(new TaskWrapper[0]);
     }
 
     @Override
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     public TaskWrapper[] getInProgressTasksForGivenUser(String workspaceId, String userLogin) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
         userManager.checkWorkspaceReadAccess(workspaceId);
-        Task[] inProgressTasks = taskDAO.findInProgressTasks(workspaceId, userLogin);
+        List<TaskWrapper> inProgressTasks = taskDAO.findAssignedTasks(workspaceId, userLogin, Task.Status.IN_PROGRESS, 0, 0);
+        return inProgressTasks.toArray(new TaskWrapper[0]);
+    }
 
-        return Stream.of(inProgressTasks)
-                .map(task -> wrapTask(task, workspaceId))
-                .filter(Objects::nonNull).toArray(TaskWrapper[]::new);
+    @Override
+    @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
+    public int getInProgressTasksCountForGivenUser(String workspaceId, String userLogin) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
+        userManager.checkWorkspaceReadAccess(workspaceId);
+        return taskDAO.countAssignedTasks(workspaceId, userLogin, Task.Status.IN_PROGRESS);
     }
 
     @Override
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     public TaskWrapper getTask(String workspaceId, TaskKey taskKey) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, TaskNotFoundException, AccessRightException, WorkspaceNotEnabledException {
         User user = userManager.checkWorkspaceReadAccess(workspaceId);
-        Task task = taskDAO.loadTask(taskKey);
-        TaskWrapper taskWrapper = wrapTask(task, workspaceId);
+        TaskWrapper taskWrapper = taskDAO.findTaskWithHolder(workspaceId, taskKey);
         if (taskWrapper == null) {
+            // tell a missing task apart from a task without holder in this workspace
+            taskDAO.loadTask(taskKey);
             throw new AccessRightException(user);
         }
         return taskWrapper;
@@ -133,37 +130,4 @@ public class TaskManagerBean implements ITaskManagerLocal {
         }
     }
 
-
-    private TaskWrapper wrapTask(Task task, String workspaceId) {
-        TaskWrapper taskWrapper = new TaskWrapper(task, workspaceId);
-
-        DocumentRevision documentRevision = documentRevisionDAO.getWorkflowHolder(task.getActivity().getWorkflow());
-        if (documentRevision != null) {
-            taskWrapper.setHolderType("documents");
-            taskWrapper.setHolderReference(documentRevision.getDocumentMasterId());
-            taskWrapper.setHolderVersion(documentRevision.getVersion());
-            taskWrapper.setTask(documentRevision.getWorkflow().getTasks().stream().filter(pTask -> pTask.getKey().equals(task.getKey())).findFirst().get());
-            return taskWrapper;
-        }
-
-        PartRevision partRevision = partRevisionDAO.getWorkflowHolder(task.getActivity().getWorkflow());
-        if (partRevision != null) {
-            taskWrapper.setHolderType("parts");
-            taskWrapper.setHolderReference(partRevision.getPartNumber());
-            taskWrapper.setHolderVersion(partRevision.getVersion());
-            taskWrapper.setTask(partRevision.getWorkflow().getTasks().stream().filter(pTask -> pTask.getKey().equals(task.getKey())).findFirst().get());
-            return taskWrapper;
-        }
-
-        WorkspaceWorkflow workspaceWorkflowTarget = workflowDAO.getWorkspaceWorkflowTarget(workspaceId, task.getActivity().getWorkflow());
-        if (workspaceWorkflowTarget != null) {
-            taskWrapper.setHolderType("workspace-workflows");
-            taskWrapper.setHolderReference(workspaceWorkflowTarget.getId());
-            taskWrapper.setTask(workspaceWorkflowTarget.getWorkflow().getTasks().stream().filter(pTask -> pTask.getKey().equals(task.getKey())).findFirst().get());
-            return taskWrapper;
-        }
-
-        return null;
-    }
-
 }
@@ -0,0 +1,294 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server;
+
+import com.docdoku.plm.server.core.admin.WorkspaceDeletionJob;
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.exceptions.*;
+import com.docdoku.plm.server.core.services.IBinaryStorageManagerLocal;
+import com.docdoku.plm.server.core.services.IIndexerManagerLocal;
+import com.docdoku.plm.server.core.services.INotifierLocal;
+import com.docdoku.plm.server.dao.AccountDAO;
+import com.docdoku.plm.server.dao.WorkspaceDAO;
+import com.docdoku.plm.server.dao.WorkspaceDeletionJobDAO;
+import com.docdoku.plm.server.events.Removed;
+import com.docdoku.plm.server.events.WorkspaceEvent;
+
+import javax.annotation.Resource;
+import javax.ejb.*;
+import javax.enterprise.event.Event;
+import javax.enterprise.util.AnnotationLiteral;
+import javax.inject.Inject;
+import javax.persistence.OptimisticLockException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs workspace deletions in the background.
+ * <p>
+ * Every chunk of a deletion is committed in its own transaction together with the
+ * job progress, so an interrupted deletion resumes from the last committed chunk.
+ * The job row is versioned: when two nodes race on the same job, the loser's chunk is
+ * rolled back and it stops.
+ *
+ * @see WorkspaceDeletionJobsResumer
+ */
+@Stateless(name = "WorkspaceDeletionJobBean")
+public class WorkspaceDeletionJobBean {
+
+    static final int CHUNK_SIZE = 500;
+
+    static final String VAULT_STEP = "VAULT";
+    static final String INDEX_STEP = "INDEX";
+
+    static final List<String> STEPS;
+
+    /**
+     * Purge steps deleting rows kept in application caches: effectivity constraints, configuration items and parts
+     */
+    static final Set<WorkspaceDAO.PurgeStep> REMOVAL_NOTIFYING_STEPS = EnumSet.of(WorkspaceDAO.PurgeStep.CONFIGURATIONS,
+            WorkspaceDAO.PurgeStep.CONFIGURATION_ITEMS_AND_CHANGES, WorkspaceDAO.PurgeStep.PARTS);
+
+    static {
+        List<String> steps = new ArrayList<>();
+        for (WorkspaceDAO.PurgeStep step : WorkspaceDAO.PurgeStep.values()) {
+            if (step == WorkspaceDAO.PurgeStep.WORKSPACE) {
+                // Files and indices go before the workspace row so that its id cannot be reused meanwhile
+                steps.add(VAULT_STEP);
+                steps.add(INDEX_STEP);
+            }
+            steps.add(step.name());
+        }
+        STEPS = Collections.unmodifiableList(steps);
+    }
+
+    @Resource
+    private SessionContext ctx;
+
+    @Inject
+    private AccountDAO accountDAO;
+
+    @Inject
+    private WorkspaceDAO workspaceDAO;
+
+    @Inject
+    private WorkspaceDeletionJobDAO workspaceDeletionJobDAO;
+
+    @Inject
+    private IBinaryStorageManagerLocal storageManager;
+
+    @Inject
+    private IIndexerManagerLocal indexerManager;
+
+    @Inject
+    private INotifierLocal mailerManager;
+
+    @Inject
+    private Event<WorkspaceEvent> workspaceEvent;
+
+    private static final Logger LOGGER = Logger.getLogger(WorkspaceDeletionJobBean.class.getName());
+
+    /**
+     * Disables the workspace and registers its deletion, or resumes a failed one.
+     *
+     * @return false if a deletion of this workspace is already running
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public boolean start(String workspaceId) throws WorkspaceNotFoundException {
+        Workspace workspace = workspaceDAO.loadWorkspace(workspaceId);
+        workspace.setEnabled(false);
+
+        Date now = new Date();
+        WorkspaceDeletionJob job = workspaceDeletionJobDAO.findJob(workspaceId);
+        if (job == null) {
+            job = new WorkspaceDeletionJob(workspaceId, workspace.getAdmin().getLogin());
+            job.setCreationDate(now);
+            job.setStep(STEPS.get(0), 0);
+            workspaceDeletionJobDAO.createJob(job);
+        } else if (job.isRunning()) {
+            return false;
+        } else if (job.getStatus() == WorkspaceDeletionJob.Status.DONE) {
+            // A workspace with the same id has been created since the previous deletion
+            job.setAdminLogin(workspace.getAdmin().getLogin());
+            job.setCreationDate(now);
+            job.setPurgedEntities(0);
+            job.setStep(STEPS.get(0), 0);
+        }
+
+        job.setStepCount(STEPS.size());
+        job.setStatus(WorkspaceDeletionJob.Status.RUNNING);
+        job.setLastUpdate(now);
+        return true;
+    }
+
+    /**
+     * Takes over a running job whose last progress is older than the given date.
+     *
+     * @return true if the job now belongs to the caller
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public boolean claim(String workspaceId, Date lastUpdateBefore) {
+        WorkspaceDeletionJob job = workspaceDeletionJobDAO.findJob(workspaceId);
+        if (job == null || !job.isRunning() || !job.getLastUpdate().before(lastUpdateBefore)) {
+            return false;
+        }
+        job.setLastUpdate(new Date());
+        workspaceDeletionJobDAO.updateJob(job);
+        return true;
+    }
+
+    /**
+     * Processes one chunk of the current step of the job and saves the progress.
+     *
+     * @return true if there is more work to do
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public boolean processNextChunk(String workspaceId) throws StorageException {
+        WorkspaceDeletionJob job = workspaceDeletionJobDAO.findJob(workspaceId);
+        if (job == null || !job.isRunning()) {
+            return false;
+        }
+
+        int stepIndex = job.getStepIndex();
+        String step = STEPS.get(stepIndex);
+        boolean stepDone = true;
+
+        if (VAULT_STEP.equals(step)) {
+            storageManager.deleteWorkspaceFolder(workspaceId);
+        } else if (INDEX_STEP.equals(step)) {
+            try {
+                indexerManager.deleteWorkspaceIndices(workspaceId);
+            } catch (IndexerNotAvailableException | IndexerRequestException e) {
+                LOGGER.log(Level.WARNING, "Cannot delete index for workspace [" + workspaceId + "]. Consider deleting it manually.");
+                LOGGER.log(Level.FINE, null, e);
+            }
+        } else {
+            WorkspaceDAO.PurgeStep purgeStep = WorkspaceDAO.PurgeStep.valueOf(step);
+            int processed = workspaceDAO.purgeWorkspace(workspaceId, purgeStep, job.getStepOffset(), CHUNK_SIZE);
+            stepDone = !purgeStep.isChunked() || processed < CHUNK_SIZE;
+            if (REMOVAL_NOTIFYING_STEPS.contains(purgeStep)) {
+                // bulk deletes fire no entity event, the caches of the workspace are told to drop it
+                workspaceEvent.select(new AnnotationLiteral<Removed>() {
+                }).fire(new WorkspaceEvent(new Workspace(workspaceId)));
+            }
+            if (purgeStep.isOffsetPaged()) {
+                job.setStepOffset(job.getStepOffset() + processed);
+            } else {
+                job.setPurgedEntities(job.getPurgedEntities() + processed);
+            }
+        }
+
+        if (stepDone) {
+            if (stepIndex + 1 < STEPS.size()) {
+                job.setStep(STEPS.get(stepIndex + 1), stepIndex + 1);
+            } else {
+                job.setStatus(WorkspaceDeletionJob.Status.DONE);
+            }
+        }
+        job.setLastUpdate(new Date());
+        // Purge steps clear the persistence context, the job has to be merged back
+        workspaceDeletionJobDAO.updateJob(job);
+        return job.isRunning();
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void markFailed(String workspaceId) {
+        WorkspaceDeletionJob job = workspaceDeletionJobDAO.findJob(workspaceId);
+        if (job != null && job.isRunning()) {
+            job.setStatus(WorkspaceDeletionJob.Status.FAILED);
+            job.setLastUpdate(new Date());
+        }
+    }
+
+    /**
+     * Processes the job chunk after chunk until it completes, then notifies the workspace administrator.
+     */
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void run(String workspaceId) {
+        WorkspaceDeletionJobBean self = ctx.getBusinessObject(WorkspaceDeletionJobBean.class);
+        WorkspaceDeletionJob job = workspaceDeletionJobDAO.findJob(workspaceId);
+        if (job == null) {
+            return;
+        }
+        String adminLogin = job.getAdminLogin();
+
+        try {
+            boolean pending = true;
+            while (pending) {
+                pending = self.processNextChunk(workspaceId);
+            }
+        } catch (EJBException e) {
+            if (isOptimisticLockFailure(e)) {
+                LOGGER.log(Level.INFO, "Deletion of workspace " + workspaceId + " has been taken over by another node");
+                return;
+            }
+            LOGGER.log(Level.SEVERE, "Unhandled Exception deleting workspace " + workspaceId, e);
+            fail(self, workspaceId, adminLogin);
+            return;
+        } catch (StorageException e) {
+            LOGGER.log(Level.SEVERE, "Unhandled Exception deleting workspace " + workspaceId, e);
+            fail(self, workspaceId, adminLogin);
+            return;
+        }
+
+        WorkspaceDeletionJob done = workspaceDeletionJobDAO.findJob(workspaceId);
+        if (done != null && done.getStatus() == WorkspaceDeletionJob.Status.DONE) {
+            Account admin = findAccount(adminLogin);
+            if (admin != null) {
+                mailerManager.sendWorkspaceDeletionNotification(admin, workspaceId);
+            }
+        }
+    }
+
+    private void fail(WorkspaceDeletionJobBean self, String workspaceId, String adminLogin) {
+        self.markFailed(workspaceId);
+        Account admin = findAccount(adminLogin);
+        if (admin != null) {
+            mailerManager.sendWorkspaceDeletionErrorNotification(admin, workspaceId);
+        }
+    }
+
+    private Account findAccount(String login) {
+        try {
+            return accountDAO.loadAccount(login);
+        } catch (AccountNotFoundException e) {
+            LOGGER.log(Level.WARNING, "Cannot notify workspace administrator " + login, e);
+            return null;
+        }
+    }
+
+    private static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
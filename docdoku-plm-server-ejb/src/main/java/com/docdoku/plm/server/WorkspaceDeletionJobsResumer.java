@@ -0,0 +1,72 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server;
+
+import com.docdoku.plm.server.core.admin.WorkspaceDeletionJob;
+import com.docdoku.plm.server.dao.WorkspaceDeletionJobDAO;
+import com.docdoku.plm.server.queue.Sweeper;
+
+import javax.ejb.EJBException;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resumes the workspace deletions left behind by a stopped or crashed server.
+ */
+@ApplicationScoped
+public class WorkspaceDeletionJobsResumer implements Sweeper {
+
+    private final static long LEASE_TIME_MS = 15 * 60 * 1000;
+    private final static long PERIOD_MS = 5 * 60 * 1000;
+    private Logger LOGGER = Logger.getLogger(WorkspaceDeletionJobsResumer.class.getName());
+
+    @Inject
+    private WorkspaceDeletionJobDAO workspaceDeletionJobDAO;
+
+    @Inject
+    private WorkspaceDeletionJobBean workspaceDeletionJobBean;
+
+    @Override
+    public long getPeriodMillis() {
+        return PERIOD_MS;
+    }
+
+    @Override
+    public void sweep() {
+        Date stalledBefore = new Date(System.currentTimeMillis() - LEASE_TIME_MS);
+        for (WorkspaceDeletionJob job : workspaceDeletionJobDAO.findStalledJobs(stalledBefore)) {
+            String workspaceId = job.getWorkspaceId();
+            try {
+                if (workspaceDeletionJobBean.claim(workspaceId, stalledBefore)) {
+                    LOGGER.info("Resuming deletion of workspace " + workspaceId + " at step " + job.getStep());
+                    workspaceDeletionJobBean.run(workspaceId);
+                }
+            } catch (EJBException e) {
+                // Most likely claimed by another node in the meantime
+                LOGGER.log(Level.FINE, "Cannot resume deletion of workspace " + workspaceId, e);
+            }
+        }
+    }
+
+}
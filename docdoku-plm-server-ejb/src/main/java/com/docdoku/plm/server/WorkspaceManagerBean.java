@@ -22,6 +22,7 @@ package com.docdoku.plm.server;
 
 import com.docdoku.plm.server.core.admin.OperationSecurityStrategy;
 import com.docdoku.plm.server.core.admin.WorkspaceBackOptions;
+import com.docdoku.plm.server.core.admin.WorkspaceDeletionJob;
 import com.docdoku.plm.server.core.admin.WorkspaceFrontOptions;
 import com.docdoku.plm.server.core.common.Account;
 import com.docdoku.plm.server.core.common.User;
@@ -33,17 +34,15 @@ import com.docdoku.plm.server.core.util.NamingConvention;
 import com.docdoku.plm.server.dao.AccountDAO;
 import com.docdoku.plm.server.dao.UserDAO;
 import com.docdoku.plm.server.dao.WorkspaceDAO;
+import com.docdoku.plm.server.dao.WorkspaceDeletionJobDAO;
 
 import javax.annotation.security.DeclareRoles;
 import javax.annotation.security.RolesAllowed;
-import javax.ejb.Asynchronous;
 import javax.ejb.Local;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import java.util.Arrays;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 @DeclareRoles({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
 @Local(IWorkspaceManagerLocal.class)
@@ -68,9 +67,6 @@ public class WorkspaceManagerBean implements IWorkspaceManagerLocal {
     @Inject
     private IContextManagerLocal contextManager;
 
-    @Inject
-    private INotifierLocal mailerManager;
-
     @Inject
     private IIndexerManagerLocal indexerManager;
 
@@ -78,9 +74,10 @@ public class WorkspaceManagerBean implements IWorkspaceManagerLocal {
     private IPlatformOptionsManagerLocal platformOptionsManager;
 
     @Inject
-    private IBinaryStorageManagerLocal storageManager;
+    private WorkspaceDeletionJobDAO workspaceDeletionJobDAO;
 
-    private static final Logger LOGGER = Logger.getLogger(WorkspaceManagerBean.class.getName());
+    @Inject
+    private WorkspaceDeletionJobBean workspaceDeletionJob;
 
     @RolesAllowed(UserGroupMapping.ADMIN_ROLE_ID)
     @Override
@@ -96,30 +93,25 @@ public class WorkspaceManagerBean implements IWorkspaceManagerLocal {
         if (!contextManager.isCallerInRole(UserGroupMapping.ADMIN_ROLE_ID)) {
             userManager.checkAdmin(workspaceId);
         }
-        Workspace workspace = workspaceDAO.loadWorkspace(workspaceId);
-        doDeleteWorkspace(workspace);
+        if (workspaceDeletionJob.start(workspaceId)) {
+            workspaceDeletionJob.run(workspaceId);
+        }
     }
 
-    @Asynchronous
-    private void doDeleteWorkspace(Workspace workspace) {
-        String workspaceId = workspace.getId();
-        Exception exceptionThrown = null;
-        Account admin = workspace.getAdmin();
-        try {
-            workspaceDAO.removeWorkspace(workspace);
-            storageManager.deleteWorkspaceFolder(workspaceId);
-            indexerManager.deleteWorkspaceIndex(workspaceId);
-            mailerManager.sendWorkspaceDeletionNotification(admin, workspaceId);
-        } catch (ApplicationException e) {
-            LOGGER.log(Level.SEVERE, "Application Exception deleting workspace " + workspaceId, e);
-            exceptionThrown = e;
-        } catch (StorageException e) {
-            LOGGER.log(Level.SEVERE, "Unhandled Exception deleting workspace " + workspaceId, e);
-            exceptionThrown = e;
+    @Override
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
+    public WorkspaceDeletionJob getWorkspaceDeletionJob(String workspaceId)
+            throws WorkspaceNotFoundException, AccountNotFoundException, AccessRightException {
+        WorkspaceDeletionJob job = workspaceDeletionJobDAO.findJob(workspaceId);
+        if (job == null) {
+            throw new WorkspaceNotFoundException(workspaceId);
         }
-        if (null != exceptionThrown) {
-            mailerManager.sendWorkspaceDeletionErrorNotification(admin, workspaceId);
+        // The workspace may already be gone, its administrator at deletion time keeps access to the job
+        if (!contextManager.isCallerInRole(UserGroupMapping.ADMIN_ROLE_ID)
+                && !job.getAdminLogin().equals(contextManager.getCallerPrincipalLogin())) {
+            userManager.checkAdmin(workspaceId);
         }
+        return job;
     }
 
     @Override
@@ -0,0 +1,101 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.docdoku.plm.server;
+
+import com.docdoku.plm.server.core.admin.WorkspaceStatistics;
+import com.docdoku.plm.server.core.exceptions.*;
+import com.docdoku.plm.server.core.security.UserGroupMapping;
+import com.docdoku.plm.server.core.services.IContextManagerLocal;
+import com.docdoku.plm.server.core.services.IUserManagerLocal;
+import com.docdoku.plm.server.core.services.IWorkspaceStatisticsManagerLocal;
+import com.docdoku.plm.server.dao.AccountDAO;
+import com.docdoku.plm.server.dao.ConfigurationItemDAO;
+import com.docdoku.plm.server.dao.UserDAO;
+import com.docdoku.plm.server.dao.UserGroupDAO;
+import com.docdoku.plm.server.listeners.statistics.WorkspaceStatisticsCache;
+
+import javax.annotation.security.DeclareRoles;
+import javax.annotation.security.RolesAllowed;
+import javax.ejb.Local;
+import javax.ejb.Stateless;
+import javax.inject.Inject;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+@DeclareRoles({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
+@Local(IWorkspaceStatisticsManagerLocal.class)
+@Stateless(name = "WorkspaceStatisticsManagerBean")
+public class WorkspaceStatisticsManagerBean implements IWorkspaceStatisticsManagerLocal {
+
+    @Inject
+    private AccountDAO accountDAO;
+
+    @Inject
+    private UserDAO userDAO;
+
+    @Inject
+    private UserGroupDAO userGroupDAO;
+
+    @Inject
+    private ConfigurationItemDAO configurationItemDAO;
+
+    @Inject
+    private IContextManagerLocal contextManager;
+
+    @Inject
+    private IUserManagerLocal userManager;
+
+    @Inject
+    private WorkspaceStatisticsCache workspaceStatisticsCache;
+
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
+    @Override
+    public WorkspaceStatistics getWorkspaceStatistics(String workspaceId) throws WorkspaceNotFoundException, UserNotFoundException, UserNotActiveException, AccountNotFoundException, WorkspaceNotEnabledException {
+        if (contextManager.isCallerInRole(UserGroupMapping.ADMIN_ROLE_ID)) {
+            accountDAO.loadAccount(contextManager.getCallerPrincipalLogin());
+        } else {
+            userManager.checkWorkspaceReadAccess(workspaceId);
+        }
+
+        return new WorkspaceStatistics(
+                workspaceStatisticsCache.getDocumentsCount(workspaceId),
+                workspaceStatisticsCache.getPartsCount(workspaceId),
+                configurationItemDAO.countConfigurationItems(workspaceId),
+                userDAO.countUsers(workspaceId),
+                userDAO.countWorkspaceUserMemberships(workspaceId),
+                userGroupDAO.countUserGroups(workspaceId),
+                userGroupDAO.countWorkspaceUserGroupMemberships(workspaceId));
+    }
+
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
+    @Override
+    public Map<String, List<Date>> getCheckedOutDocumentsStats(String workspaceId) throws WorkspaceNotFoundException, AccessRightException, AccountNotFoundException {
+        userManager.checkAdmin(workspaceId);
+        return workspaceStatisticsCache.getCheckedOutDocuments(workspaceId);
+    }
+
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
+    @Override
+    public Map<String, List<Date>> getCheckedOutPartsStats(String workspaceId) throws WorkspaceNotFoundException, AccessRightException, AccountNotFoundException {
+        userManager.checkAdmin(workspaceId);
+        return workspaceStatisticsCache.getCheckedOutParts(workspaceId);
+    }
+}
@@ -211,7 +211,7 @@ public class PSFilterVisitor {
 
 
     private PartMaster loadPartMaster(String partNumber) throws PartMasterNotFoundException {
-        return partMasterDAO.loadPartM(new PartMasterKey(workspaceId, partNumber));
+        return partMasterDAO.loadPartM(new PartMasterKey(workspaceId, partNumber), PartMaster.GRAPH_STRUCTURE);
     }
 
     private PartLink createVirtualRootLink(PartMaster pNodeFrom) {
@@ -25,8 +25,10 @@ import com.docdoku.plm.server.core.configuration.ProductConfiguration;
 import com.docdoku.plm.server.core.product.ConfigurationItem;
 import com.docdoku.plm.server.core.product.DateBasedEffectivity;
 import com.docdoku.plm.server.core.product.Effectivity;
+import com.docdoku.plm.server.core.product.PartRevisionKey;
 
 import java.util.Date;
+import java.util.Set;
 /**
  * A kind of {@link EffectivityConfigSpec} expressed by date and time.
  * 
@@ -47,6 +49,12 @@ public class DateBasedEffectivityConfigSpec extends EffectivityConfigSpec {
         super(configurationItem);
         this.date=date;
     }
+
+    public DateBasedEffectivityConfigSpec(Date date, ConfigurationItem configurationItem, EffectivityIndex index) {
+        super(configurationItem, index);
+        this.date=date;
+    }
+
     public DateBasedEffectivityConfigSpec(Date date, ProductConfiguration configuration) {
         super(configuration);
         this.date=date;
@@ -75,11 +83,17 @@ public class DateBasedEffectivityConfigSpec extends EffectivityConfigSpec {
         return true;
     }
 
+    @Override
+    protected Set<PartRevisionKey> findEffectiveRevisions(EffectivityIndex index) {
+        return index.findEffectiveRevisionsByDate(date);
+    }
+
     public Date getDate() {
         return date;
     }
 
     public void setDate(Date date) {
         this.date = date;
+        resetEffectiveRevisions();
     }
 }
@@ -41,10 +41,22 @@ public abstract class EffectivityConfigSpec extends ProductConfigSpec {
     protected ConfigurationItem configurationItem;
     protected ProductConfiguration configuration;
 
+    private EffectivityIndex index;
+    private Set<PartRevisionKey> effectiveRevisions;
+
     public EffectivityConfigSpec(ConfigurationItem configurationItem) {
         this.configurationItem=configurationItem;
     }
 
+    /**
+     * Resolves the effective part revisions from the compiled effectivities of the configuration item
+     * instead of evaluating the effectivities of each part revision.
+     */
+    public EffectivityConfigSpec(ConfigurationItem configurationItem, EffectivityIndex index) {
+        this.configurationItem=configurationItem;
+        this.index=index;
+    }
+
     public EffectivityConfigSpec(ProductConfiguration configuration) {
         this.configurationItem=configuration.getConfigurationItem();
         this.configuration=configuration;
@@ -120,6 +132,13 @@ public abstract class EffectivityConfigSpec extends ProductConfigSpec {
     }
 
     protected boolean isEffective(PartRevision pr) {
+        if(index != null){
+            if(effectiveRevisions == null) {
+                effectiveRevisions = findEffectiveRevisions(index);
+            }
+            return effectiveRevisions.contains(pr.getKey());
+        }
+
         Set<Effectivity> effectivities = pr.getEffectivities();
         for(Effectivity eff:effectivities){
             if(isEffective(eff))
@@ -129,4 +148,16 @@ public abstract class EffectivityConfigSpec extends ProductConfigSpec {
     }
     protected abstract boolean isEffective(Effectivity eff);
 
+    /**
+     * @return the part revisions the index makes effective in the context of this config spec
+     */
+    protected abstract Set<PartRevisionKey> findEffectiveRevisions(EffectivityIndex index);
+
+    /**
+     * To be called when the context changes, the effective part revisions are then resolved again.
+     */
+    protected void resetEffectiveRevisions() {
+        effectiveRevisions = null;
+    }
+
 }
@@ -0,0 +1,108 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.configuration.spec;
+
+import com.docdoku.plm.server.core.product.*;
+import com.docdoku.plm.server.core.util.AlphanumericComparator;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The effectivities of a configuration item compiled into one {@link IntervalIndex} per effectivity type.
+ *
+ * An {@link EffectivityConfigSpec} built on it resolves its effective part revisions with a single stabbing query,
+ * instead of evaluating every effectivity of every part revision met during the structure traversal.
+ * The rules are the ones of the config specs: serial number and lot effectivities must be bound to the
+ * configuration item, date effectivities may be bound to none.
+ */
+public final class EffectivityIndex {
+
+    private static final Comparator<CharSequence> STRING_COMPARATOR = new AlphanumericComparator();
+
+    private final ConfigurationItemKey configurationItemKey;
+    private final IntervalIndex<String> serialNumbers;
+    private final IntervalIndex<Long> dates;
+    private final IntervalIndex<String> lots;
+
+    public EffectivityIndex(ConfigurationItemKey configurationItemKey, Map<PartRevisionKey, ? extends Collection<Effectivity>> effectivities) {
+        this.configurationItemKey = configurationItemKey;
+
+        IntervalIndex.Builder<String> serialNumbersBuilder = new IntervalIndex.Builder<>(STRING_COMPARATOR);
+        IntervalIndex.Builder<Long> datesBuilder = new IntervalIndex.Builder<>(Comparator.<Long>naturalOrder());
+        IntervalIndex.Builder<String> lotsBuilder = new IntervalIndex.Builder<>(STRING_COMPARATOR);
+
+        effectivities.forEach((partRevisionKey, partRevisionEffectivities) -> {
+            for (Effectivity effectivity : partRevisionEffectivities) {
+                ConfigurationItem ci = effectivity.getConfigurationItem();
+                boolean boundToItem = ci != null && configurationItemKey.equals(ci.getKey());
+
+                if (effectivity instanceof SerialNumberBasedEffectivity) {
+                    SerialNumberBasedEffectivity serialEff = (SerialNumberBasedEffectivity) effectivity;
+                    if (boundToItem && serialEff.getStartNumber() != null) {
+                        serialNumbersBuilder.add(serialEff.getStartNumber(), serialEff.getEndNumber(), partRevisionKey);
+                    }
+                } else if (effectivity instanceof DateBasedEffectivity) {
+                    DateBasedEffectivity dateEff = (DateBasedEffectivity) effectivity;
+                    if ((ci == null || boundToItem) && dateEff.getStartDate() != null) {
+                        datesBuilder.add(dateEff.getStartDate().getTime(), toTime(dateEff.getEndDate()), partRevisionKey);
+                    }
+                } else if (effectivity instanceof LotBasedEffectivity) {
+                    LotBasedEffectivity lotEff = (LotBasedEffectivity) effectivity;
+                    if (boundToItem && lotEff.getStartLotId() != null) {
+                        lotsBuilder.add(lotEff.getStartLotId(), lotEff.getEndLotId(), partRevisionKey);
+                    }
+                }
+            }
+        });
+
+        serialNumbers = serialNumbersBuilder.build();
+        dates = datesBuilder.build();
+        lots = lotsBuilder.build();
+    }
+
+    public ConfigurationItemKey getConfigurationItemKey() {
+        return configurationItemKey;
+    }
+
+    public Set<PartRevisionKey> findEffectiveRevisionsBySerialNumber(String number) {
+        return serialNumbers.stab(number);
+    }
+
+    public Set<PartRevisionKey> findEffectiveRevisionsByDate(Date date) {
+        return dates.stab(date.getTime());
+    }
+
+    public Set<PartRevisionKey> findEffectiveRevisionsByLot(String lotId) {
+        return lots.stab(lotId);
+    }
+
+    public int size() {
+        return serialNumbers.size() + dates.size() + lots.size();
+    }
+
+    private static Long toTime(Date date) {
+        return date == null ? null : date.getTime();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.configuration.spec;
+
+import com.docdoku.plm.server.core.product.ConfigurationItem;
+import com.docdoku.plm.server.core.product.ConfigurationItemKey;
+import com.docdoku.plm.server.events.ConfigurationItemEvent;
+import com.docdoku.plm.server.events.EffectivityEvent;
+import com.docdoku.plm.server.events.PartRevisionEvent;
+import com.docdoku.plm.server.events.Removed;
+import com.docdoku.plm.server.events.WorkspaceEvent;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, least recently used cache of {@link EffectivityIndex}, keyed by configuration item.
+ *
+ * Indexes are invalidated once a change made through the effectivity manager, the removal of a configuration item
+ * or the purge of a workspace is committed. A date effectivity bound to no configuration item invalidates all the
+ * indexes of its workspace. Changes made on another node are
+ * only seen when the index expires, after TTL_MS.
+ */
+@ApplicationScoped
+public class EffectivityIndexCache {
+
+    static final int MAX_ENTRIES = 64;
+
+    static final long TTL_MS = 60 * 1000L;
+
+    private final Map<ConfigurationItemKey, Entry> indexes = new LinkedHashMap<ConfigurationItemKey, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ConfigurationItemKey, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Incremented on each invalidation, an index compiled meanwhile may miss the change and is not cached.
+     */
+    private long generation;
+
+    private final LongSupplier clock;
+
+    public EffectivityIndexCache() {
+        this.clock = System::currentTimeMillis;
+    }
+
+    EffectivityIndexCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return the index of this configuration item, compiled by the loader if not cached or expired
+     */
+    public EffectivityIndex get(ConfigurationItemKey ciKey, Function<ConfigurationItemKey, EffectivityIndex> loader) {
+        long startGeneration;
+        synchronized (indexes) {
+            Entry entry = indexes.get(ciKey);
+            if (entry != null && clock.getAsLong() - entry.compiledAt < TTL_MS) {
+                return entry.index;
+            }
+            startGeneration = generation;
+        }
+        // compiled outside the lock, concurrent misses on the same configuration item compile it more than once
+        long compiledAt = clock.getAsLong();
+        EffectivityIndex index = loader.apply(ciKey);
+        synchronized (indexes) {
+            if (generation == startGeneration) {
+                indexes.put(ciKey, new Entry(index, compiledAt));
+            }
+        }
+        return index;
+    }
+
+    public void invalidate(ConfigurationItemKey ciKey) {
+        synchronized (indexes) {
+            generation++;
+            indexes.remove(ciKey);
+        }
+    }
+
+    public void invalidateWorkspace(String workspaceId) {
+        synchronized (indexes) {
+            generation++;
+            indexes.keySet().removeIf(ciKey -> ciKey.getWorkspace().equals(workspaceId));
+        }
+    }
+
+    public int size() {
+        synchronized (indexes) {
+            return indexes.size();
+        }
+    }
+
+    void onEffectivityChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) EffectivityEvent event) {
+        ConfigurationItem configurationItem = event.getObservedEffectivity().getConfigurationItem();
+        if (configurationItem != null) {
+            invalidate(configurationItem.getKey());
+        } else {
+            invalidateWorkspace(event.getEffectivePart().getWorkspaceId());
+        }
+    }
+
+    void onPartRemoved(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Removed PartRevisionEvent event) {
+        // a part revision created again under the same key must not inherit the effectivities of the removed one
+        invalidateWorkspace(event.getObservedPart().getWorkspaceId());
+    }
+
+    void onConfigurationItemRemoved(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Removed ConfigurationItemEvent event) {
+        invalidate(event.getObservedConfigurationItem().getKey());
+    }
+
+    void onWorkspacePurged(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Removed WorkspaceEvent event) {
+        invalidateWorkspace(event.getObservedWorkspace().getId());
+    }
+
+    private static final class Entry {
+
+        private final EffectivityIndex index;
+        private final long compiledAt;
+
+        private Entry(EffectivityIndex index, long compiledAt) {
+            this.index = index;
+            this.compiledAt = compiledAt;
+        }
+    }
+}
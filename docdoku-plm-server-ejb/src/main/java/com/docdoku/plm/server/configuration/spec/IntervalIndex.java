@@ -0,0 +1,189 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.configuration.spec;
+
+import com.docdoku.plm.server.core.product.PartRevisionKey;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of closed intervals, each one making a part revision effective, which answers stabbing queries.
+ *
+ * Bounds are compared once, when the index is built, and replaced by their rank among the distinct bounds.
+ * The ranks split the axis into slots, a bound or the gap below it, and the intervals are stored in a segment
+ * tree over these slots. A query binary searches the slot of the point, then collects the intervals of the
+ * O(log n) nodes above it. A null upper bound stands for an open ended interval.
+ */
+final class IntervalIndex<T> {
+
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Distinct bounds, sorted, and their rank: bounds equal for the comparator share a rank
+     */
+    private final List<T> bounds;
+    private final int[] boundRanks;
+
+    private final int slots;
+
+    /**
+     * Intervals stored in node i of the tree are intervals[nodeOffsets[i]] to intervals[nodeOffsets[i + 1] - 1]
+     */
+    private final int[] nodeOffsets;
+    private final int[] intervals;
+
+    private final PartRevisionKey[] partRevisionKeys;
+
+    private IntervalIndex(Comparator<? super T> comparator, List<Interval<T>> entries) {
+        this.comparator = comparator;
+
+        Set<T> distinctBounds = new HashSet<>();
+        for (Interval<T> entry : entries) {
+            distinctBounds.add(entry.start);
+            if (entry.end != null) {
+                distinctBounds.add(entry.end);
+            }
+        }
+        bounds = new ArrayList<>(distinctBounds);
+        bounds.sort(comparator);
+
+        boundRanks = new int[bounds.size()];
+        Map<T, Integer> ranks = new HashMap<>();
+        int rank = -1;
+        for (int i = 0; i < bounds.size(); i++) {
+            if (i == 0 || comparator.compare(bounds.get(i - 1), bounds.get(i)) != 0) {
+                rank++;
+            }
+            boundRanks[i] = rank;
+            ranks.put(bounds.get(i), rank);
+        }
+
+        // slot 2r is the gap below the bound of rank r, slot 2r + 1 the bound itself
+        slots = 2 * (rank + 1) + 1;
+        int size = entries.size();
+        int[] firstSlots = new int[size];
+        int[] lastSlots = new int[size];
+        partRevisionKeys = new PartRevisionKey[size];
+        for (int i = 0; i < size; i++) {
+            Interval<T> entry = entries.get(i);
+            firstSlots[i] = 2 * ranks.get(entry.start) + 1;
+            lastSlots[i] = entry.end == null ? slots - 1 : 2 * ranks.get(entry.end) + 1;
+            partRevisionKeys[i] = entry.partRevisionKey;
+        }
+
+        // node sizes are counted first, then nodes are filled
+        nodeOffsets = new int[2 * slots + 1];
+        for (int i = 0; i < size; i++) {
+            forEachNode(firstSlots[i], lastSlots[i], node -> nodeOffsets[node + 1]++);
+        }
+        for (int node = 0; node < 2 * slots; node++) {
+            nodeOffsets[node + 1] += nodeOffsets[node];
+        }
+        intervals = new int[nodeOffsets[2 * slots]];
+        int[] filled = Arrays.copyOf(nodeOffsets, 2 * slots);
+        for (int i = 0; i < size; i++) {
+            int interval = i;
+            forEachNode(firstSlots[i], lastSlots[i], node -> intervals[filled[node]++] = interval);
+        }
+    }
+
+    /**
+     * @return the part revisions made effective by an interval containing this point
+     */
+    Set<PartRevisionKey> stab(T point) {
+        Set<PartRevisionKey> effective = new HashSet<>();
+        for (int node = slotOf(point) + slots; node > 0; node >>= 1) {
+            for (int i = nodeOffsets[node]; i < nodeOffsets[node + 1]; i++) {
+                effective.add(partRevisionKeys[intervals[i]]);
+            }
+        }
+        return effective;
+    }
+
+    int size() {
+        return partRevisionKeys.length;
+    }
+
+    private int slotOf(T point) {
+        int low = 0;
+        int high = bounds.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = comparator.compare(bounds.get(middle), point);
+            if (comparison == 0) {
+                return 2 * boundRanks[middle] + 1;
+            } else if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        // low is the index of the first bound above the point
+        return low == 0 ? 0 : 2 * (boundRanks[low - 1] + 1);
+    }
+
+    /**
+     * Visits the nodes covering the slots from first to last.
+     */
+    private void forEachNode(int first, int last, IntConsumer action) {
+        for (int l = first + slots, r = last + slots + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                action.accept(l++);
+            }
+            if ((r & 1) == 1) {
+                action.accept(--r);
+            }
+        }
+    }
+
+    static final class Builder<T> {
+
+        private final Comparator<? super T> comparator;
+        private final List<Interval<T>> entries = new ArrayList<>();
+
+        Builder(Comparator<? super T> comparator) {
+            this.comparator = comparator;
+        }
+
+        Builder<T> add(T start, T end, PartRevisionKey partRevisionKey) {
+            entries.add(new Interval<>(start, end, partRevisionKey));
+            return this;
+        }
+
+        IntervalIndex<T> build() {
+            return new IntervalIndex<>(comparator, entries);
+        }
+    }
+
+    private static final class Interval<T> {
+
+        private final T start;
+        private final T end;
+        private final PartRevisionKey partRevisionKey;
+
+        private Interval(T start, T end, PartRevisionKey partRevisionKey) {
+            this.start = start;
+            this.end = end;
+            this.partRevisionKey = partRevisionKey;
+        }
+    }
+}
@@ -25,9 +25,11 @@ import com.docdoku.plm.server.core.configuration.ProductConfiguration;
 import com.docdoku.plm.server.core.product.ConfigurationItem;
 import com.docdoku.plm.server.core.product.Effectivity;
 import com.docdoku.plm.server.core.product.LotBasedEffectivity;
+import com.docdoku.plm.server.core.product.PartRevisionKey;
 import com.docdoku.plm.server.core.util.AlphanumericComparator;
 
 import java.util.Comparator;
+import java.util.Set;
 
 /**
  * A kind of {@link EffectivityConfigSpec} based on a specific lot.
@@ -50,6 +52,11 @@ public class LotBasedEffectivityConfigSpec extends EffectivityConfigSpec {
         this.lotId=lotId;
     }
 
+    public LotBasedEffectivityConfigSpec(String lotId, ConfigurationItem configurationItem, EffectivityIndex index) {
+        super(configurationItem, index);
+        this.lotId=lotId;
+    }
+
     public LotBasedEffectivityConfigSpec(String lotId, ProductConfiguration configuration) {
         super(configuration);
         this.lotId=lotId;
@@ -78,12 +85,18 @@ public class LotBasedEffectivityConfigSpec extends EffectivityConfigSpec {
     }
 
 
+    @Override
+    protected Set<PartRevisionKey> findEffectiveRevisions(EffectivityIndex index) {
+        return index.findEffectiveRevisionsByLot(lotId);
+    }
+
     public String getLotId() {
         return lotId;
     }
 
     public void setLotId(String lotId) {
         this.lotId = lotId;
+        resetEffectiveRevisions();
     }
     
 }
@@ -0,0 +1,76 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.configuration.spec;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded, least recently used cache of {@link ResolvedCollectionSnapshot}, keyed by part collection id.
+ *
+ * The part collections of baselines and product instance iterations never change once created, and their ids
+ * are never reused: an entry cannot go stale, on this node or another one. Entries of deleted collections are
+ * invalidated locally, elsewhere they are no longer reachable and leave the cache as it rolls over.
+ */
+@ApplicationScoped
+public class ResolvedCollectionCache {
+
+    static final int MAX_ENTRIES = 64;
+
+    private final Map<Integer, ResolvedCollectionSnapshot> snapshots = new LinkedHashMap<Integer, ResolvedCollectionSnapshot>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ResolvedCollectionSnapshot> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * @return the snapshot of this part collection, built by the loader if not cached yet
+     */
+    public ResolvedCollectionSnapshot get(int partCollectionId, IntFunction<ResolvedCollectionSnapshot> loader) {
+        synchronized (snapshots) {
+            ResolvedCollectionSnapshot snapshot = snapshots.get(partCollectionId);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        // built outside the lock, concurrent misses on the same collection resolve it more than once
+        ResolvedCollectionSnapshot snapshot = loader.apply(partCollectionId);
+        synchronized (snapshots) {
+            ResolvedCollectionSnapshot cached = snapshots.putIfAbsent(partCollectionId, snapshot);
+            return cached != null ? cached : snapshot;
+        }
+    }
+
+    public void invalidate(int partCollectionId) {
+        synchronized (snapshots) {
+            snapshots.remove(partCollectionId);
+        }
+    }
+
+    public int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+}
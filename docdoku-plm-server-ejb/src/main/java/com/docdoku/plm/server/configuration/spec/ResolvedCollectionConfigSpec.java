@@ -22,6 +22,7 @@ package com.docdoku.plm.server.configuration.spec;
 
 import com.docdoku.plm.server.core.configuration.*;
 import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartIterationKey;
 import com.docdoku.plm.server.core.product.PartLink;
 import com.docdoku.plm.server.core.product.PartMaster;
 import com.docdoku.plm.server.core.product.PartSubstituteLink;
@@ -31,6 +32,7 @@ import javax.validation.constraints.NotNull;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  *
@@ -39,6 +41,8 @@ import java.util.Set;
 public class ResolvedCollectionConfigSpec extends ProductConfigSpec {
 
     private PartCollection partCollection;
+    private ResolvedCollectionSnapshot snapshot;
+    private transient Function<PartIterationKey, PartIteration> partIterationLoader;
     private Set<String> optionalUsageLinks;
     private Set<String> substitutesUsageLinks;
 
@@ -48,8 +52,23 @@ public class ResolvedCollectionConfigSpec extends ProductConfigSpec {
         this.substitutesUsageLinks = resolvedCollection.getSubstituteLinks();
     }
 
+    /**
+     * Config spec backed by a shared snapshot, the retained iterations are loaded one by one as the
+     * structure is walked.
+     */
+    public ResolvedCollectionConfigSpec(@NotNull ResolvedCollectionSnapshot snapshot, @NotNull Function<PartIterationKey, PartIteration> partIterationLoader) {
+        this.snapshot = snapshot;
+        this.partIterationLoader = partIterationLoader;
+        this.optionalUsageLinks = snapshot.getOptionalUsageLinks();
+        this.substitutesUsageLinks = snapshot.getSubstitutesUsageLinks();
+    }
+
     @Override
     public PartIteration filterPartIteration(PartMaster part) {
+        if (snapshot != null) {
+            PartIterationKey targetPart = snapshot.getTargetPart(part.getKey());
+            return targetPart != null ? partIterationLoader.apply(targetPart) : null;
+        }
         if(partCollection != null) {
             BaselinedPartKey baselinedRootPartKey = new BaselinedPartKey(partCollection.getId(), part.getWorkspaceId(), part.getNumber());
             BaselinedPart baselinedRootPart = partCollection.getBaselinedPart(baselinedRootPartKey);
@@ -0,0 +1,80 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.configuration.spec;
+
+import com.docdoku.plm.server.core.product.PartIterationKey;
+import com.docdoku.plm.server.core.product.PartMasterKey;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of a resolved collection keeping only the keys of the retained part iterations, along with
+ * the retained optional and substitute usage links.
+ *
+ * Snapshots hold no entity, they can be shared between requests and read concurrently.
+ */
+public class ResolvedCollectionSnapshot implements Serializable {
+
+    private final int partCollectionId;
+    private final Map<PartMasterKey, PartIterationKey> targetParts;
+    private final Set<String> optionalUsageLinks;
+    private final Set<String> substitutesUsageLinks;
+
+    public ResolvedCollectionSnapshot(int partCollectionId, Collection<PartIterationKey> targetParts, Set<String> optionalUsageLinks, Set<String> substitutesUsageLinks) {
+        this.partCollectionId = partCollectionId;
+        Map<PartMasterKey, PartIterationKey> targets = new HashMap<>(targetParts.size() * 4 / 3 + 1);
+        for (PartIterationKey targetPart : targetParts) {
+            targets.put(new PartMasterKey(targetPart.getWorkspaceId(), targetPart.getPartMasterNumber()), targetPart);
+        }
+        this.targetParts = Collections.unmodifiableMap(targets);
+        this.optionalUsageLinks = Collections.unmodifiableSet(new HashSet<>(optionalUsageLinks));
+        this.substitutesUsageLinks = Collections.unmodifiableSet(new HashSet<>(substitutesUsageLinks));
+    }
+
+    public int getPartCollectionId() {
+        return partCollectionId;
+    }
+
+    /**
+     * @return the key of the iteration retained for this part, null if the part is not in the collection
+     */
+    public PartIterationKey getTargetPart(PartMasterKey partMasterKey) {
+        return targetParts.get(partMasterKey);
+    }
+
+    public int size() {
+        return targetParts.size();
+    }
+
+    public Set<String> getOptionalUsageLinks() {
+        return optionalUsageLinks;
+    }
+
+    public Set<String> getSubstitutesUsageLinks() {
+        return substitutesUsageLinks;
+    }
+}
@@ -24,10 +24,12 @@ package com.docdoku.plm.server.configuration.spec;
 import com.docdoku.plm.server.core.configuration.ProductConfiguration;
 import com.docdoku.plm.server.core.product.ConfigurationItem;
 import com.docdoku.plm.server.core.product.Effectivity;
+import com.docdoku.plm.server.core.product.PartRevisionKey;
 import com.docdoku.plm.server.core.product.SerialNumberBasedEffectivity;
 import com.docdoku.plm.server.core.util.AlphanumericComparator;
 
 import java.util.Comparator;
+import java.util.Set;
 
 /**
  * A kind of {@link EffectivityConfigSpec} based on serial number.
@@ -50,6 +52,12 @@ public class SerialNumberBasedEffectivityConfigSpec extends EffectivityConfigSpe
         super(configurationItem);
         this.number=number;
     }
+
+    public SerialNumberBasedEffectivityConfigSpec(String number, ConfigurationItem configurationItem, EffectivityIndex index) {
+        super(configurationItem, index);
+        this.number=number;
+    }
+
     public SerialNumberBasedEffectivityConfigSpec(String number, ProductConfiguration configuration) {
         super(configuration);
         this.number=number;
@@ -78,8 +86,14 @@ public class SerialNumberBasedEffectivityConfigSpec extends EffectivityConfigSpe
         return true;
     }
 
+    @Override
+    protected Set<PartRevisionKey> findEffectiveRevisions(EffectivityIndex index) {
+        return index.findEffectiveRevisionsBySerialNumber(number);
+    }
+
     public void setNumber(String number) {
         this.number = number;
+        resetEffectiveRevisions();
     }
 
     public String getNumber() {
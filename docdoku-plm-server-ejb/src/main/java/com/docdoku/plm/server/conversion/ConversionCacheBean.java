@@ -0,0 +1,221 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.exceptions.PartIterationNotFoundException;
+import com.docdoku.plm.server.core.exceptions.StorageException;
+import com.docdoku.plm.server.core.product.*;
+import com.docdoku.plm.server.core.services.IBinaryStorageManagerLocal;
+import com.docdoku.plm.server.core.util.HashUtils;
+import com.docdoku.plm.server.dao.ConversionCacheDAO;
+import com.docdoku.plm.server.dao.ConversionDAO;
+import com.docdoku.plm.server.dao.PartIterationDAO;
+import org.apache.commons.io.FileUtils;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the results of successful conversions under the content hash of the native file, so that a file
+ * already converted in the workspace, for another iteration or another part, is not converted again.
+ */
+@Stateless(name = "ConversionCacheBean")
+public class ConversionCacheBean {
+
+    private static final Logger LOGGER = Logger.getLogger(ConversionCacheBean.class.getName());
+
+    @Inject
+    private ConversionCacheDAO conversionCacheDAO;
+
+    @Inject
+    private ConversionDAO conversionDAO;
+
+    @Inject
+    private PartIterationDAO partIterationDAO;
+
+    @Inject
+    private IBinaryStorageManagerLocal storageManager;
+
+    @Inject
+    private ServerConfig serverConfig;
+
+    /**
+     * Hashes the content of the native file
+     *
+     * @return null if the file cannot be read
+     */
+    public String hash(BinaryResource cadFile) {
+        try (InputStream inputStream = storageManager.getBinaryResourceInputStream(cadFile)) {
+            return HashUtils.sha256Sum(inputStream);
+        } catch (StorageException | IOException | NoSuchAlgorithmException e) {
+            LOGGER.log(Level.WARNING, "Cannot hash " + cadFile.getFullName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Records the content hash on the pending conversion of the iteration, committed at once so that the
+     * results can be kept even if they come back before the order is sent
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void setContentHash(PartIterationKey partIterationKey, String contentHash) {
+        Conversion conversion = conversionDAO.findConversion(partIterationKey);
+        if (conversion != null) {
+            conversion.setContentHash(contentHash);
+        }
+    }
+
+    /**
+     * Lays out the results kept for that content in a temporary directory of the conversions path, the way
+     * a converter leaves them. The directory is removed by {@link #discard(ConversionResult)}.
+     *
+     * @return null if no usable results are kept for another iteration
+     */
+    public ConversionResult restore(PartIterationKey partIterationKey, String contentHash) {
+        ConversionCacheEntry entry = conversionCacheDAO.findEntry(partIterationKey.getWorkspaceId(), contentHash);
+        if (entry == null || entry.getPartIterationKey().equals(partIterationKey)) {
+            return null;
+        }
+
+        PartIteration source = findPartIteration(entry.getPartIterationKey());
+        List<BinaryResource> materials = source != null ? findMaterials(source, entry.getMaterialNames()) : null;
+        if (materials == null || source.getGeometries().isEmpty() && entry.getComponentPositionMap() == null) {
+            LOGGER.log(Level.FINE, "Conversion results of {0} are gone", entry.getPartIterationKey());
+            conversionCacheDAO.removeEntry(entry);
+            return null;
+        }
+
+        Path conversionsPath = Paths.get(serverConfig.getConversionsPath());
+        Path tempDir = null;
+        try {
+            tempDir = Files.createTempDirectory(Files.createDirectories(conversionsPath), "cache-");
+
+            Map<Integer, Path> convertedFileLODs = new HashMap<>();
+            for (Geometry geometry : source.getGeometries()) {
+                convertedFileLODs.put(geometry.getQuality(), copy(geometry, tempDir));
+            }
+            List<Path> materialFiles = new ArrayList<>();
+            for (BinaryResource material : materials) {
+                materialFiles.add(copy(material, tempDir));
+            }
+
+            ConversionResult result = new ConversionResult(entry.getComponentPositionMap());
+            result.setConvertedFileLODs(convertedFileLODs.isEmpty() ? null : convertedFileLODs);
+            result.setMaterials(materialFiles);
+            result.setBox(entry.getBox());
+            result.setTempDir(conversionsPath.relativize(tempDir));
+            return result;
+
+        } catch (IOException | StorageException e) {
+            LOGGER.log(Level.WARNING, "Cannot restore the conversion results of " + entry.getPartIterationKey(), e);
+            if (tempDir != null) {
+                FileUtils.deleteQuietly(tempDir.toFile());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Removes the temporary directory of restored results
+     */
+    public void discard(ConversionResult result) {
+        FileUtils.deleteQuietly(Paths.get(serverConfig.getConversionsPath()).resolve(result.getTempDir()).toFile());
+    }
+
+    /**
+     * Keeps the results of the successful conversion of the iteration under the content hash of its native
+     * file. The entry of a content converted again is pointed to the latest iteration.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void store(PartIterationKey partIterationKey, ConversionResult result) {
+        Conversion conversion = conversionDAO.findConversion(partIterationKey);
+        if (conversion == null || conversion.getContentHash() == null) {
+            return;
+        }
+
+        List<String> materialNames = new ArrayList<>();
+        if (result.getMaterials() != null) {
+            for (Path material : result.getMaterials()) {
+                materialNames.add(material.getFileName().toString());
+            }
+        }
+
+        ConversionCacheEntry entry = conversionCacheDAO.findEntry(partIterationKey.getWorkspaceId(), conversion.getContentHash());
+        boolean newEntry = entry == null;
+        if (newEntry) {
+            entry = new ConversionCacheEntry(conversion.getContentHash(), partIterationKey);
+        } else {
+            entry.setPartIterationKey(partIterationKey);
+        }
+        entry.setBox(result.getBox());
+        entry.setComponentPositionMap(result.getComponentPositionMap());
+        entry.setMaterialNames(materialNames);
+        if (newEntry) {
+            conversionCacheDAO.createEntry(entry);
+        }
+    }
+
+    private PartIteration findPartIteration(PartIterationKey partIterationKey) {
+        try {
+            return partIterationDAO.loadPartI(partIterationKey);
+        } catch (PartIterationNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return null if any of the materials is no longer attached to the iteration
+     */
+    private List<BinaryResource> findMaterials(PartIteration partIteration, List<String> materialNames) {
+        List<BinaryResource> materials = new ArrayList<>();
+        for (String materialName : materialNames) {
+            Optional<BinaryResource> material = partIteration.getAttachedFiles().stream()
+                    .filter(attachedFile -> attachedFile.getName().equals(materialName))
+                    .findFirst();
+            if (!material.isPresent()) {
+                return null;
+            }
+            materials.add(material.get());
+        }
+        return materials;
+    }
+
+    private Path copy(BinaryResource binaryResource, Path dir) throws StorageException, IOException {
+        Path file = dir.resolve(binaryResource.getName());
+        try (InputStream inputStream = storageManager.getBinaryResourceInputStream(binaryResource)) {
+            Files.copy(inputStream, file);
+        }
+        return file;
+    }
+}
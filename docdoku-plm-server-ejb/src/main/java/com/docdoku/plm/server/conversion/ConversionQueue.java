@@ -0,0 +1,49 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.converters.ConversionOrder;
+
+/**
+ * Carries conversion orders to the CAD converters, the queue in use being chosen by {@link ConversionQueueSelector}.
+ * <p>
+ * The conversion result comes back through
+ * {@link com.docdoku.plm.server.core.services.IConverterManagerLocal#handleConversionResultCallback}.
+ */
+public interface ConversionQueue {
+
+    /**
+     * Queues the order, the pending conversion of its part iteration being already created
+     *
+     * @param priority higher priorities are converted first, if the queue supports it
+     */
+    void submit(ConversionOrder order, int priority);
+
+    /**
+     * Folds a repeated order into the one still waiting for the same part iteration
+     *
+     * @param contentHash content hash of the file of the order, recorded on the pending conversion if the order
+     *                    is merged so that its results are not cached under the content of the replaced file.
+     *                    Null if the file could not be hashed.
+     * @return false if no order is waiting for that iteration, or if the queue cannot tell
+     */
+    boolean merge(ConversionOrder order, String contentHash, int priority);
+}
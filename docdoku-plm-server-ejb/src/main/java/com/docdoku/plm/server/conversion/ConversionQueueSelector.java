@@ -0,0 +1,46 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.config.ServerConfig;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Default;
+import javax.enterprise.inject.Produces;
+import javax.inject.Inject;
+
+/**
+ * Produces the configured conversion queue: the Kafka cluster, or the in-process queue when the
+ * <code>conversionQueue</code> property of the server config is <code>local</code>
+ */
+@ApplicationScoped
+public class ConversionQueueSelector {
+
+    @Inject
+    private ServerConfig config;
+
+    @Produces
+    @Default
+    public ConversionQueue produce(@ConversionQueueBackend(ConversionQueueBackend.Type.KAFKA) ConversionQueue kafka,
+                                   @ConversionQueueBackend(ConversionQueueBackend.Type.LOCAL) ConversionQueue local) {
+        return config.isLocalConversionQueue() ? local : kafka;
+    }
+}
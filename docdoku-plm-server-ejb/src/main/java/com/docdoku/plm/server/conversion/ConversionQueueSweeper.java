@@ -0,0 +1,74 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.queue.Sweeper;
+
+import javax.ejb.EJBException;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fails the conversions whose lease is over and starts the local tasks left waiting.
+ * <p>
+ * Conversions sent to Kafka have no lease: they fail once pending longer than the lease duration.
+ */
+@ApplicationScoped
+public class ConversionQueueSweeper implements Sweeper {
+
+    private final static long PERIOD_MS = 10 * 1000;
+    private Logger LOGGER = Logger.getLogger(ConversionQueueSweeper.class.getName());
+
+    @Inject
+    private ServerConfig serverConfig;
+
+    @Inject
+    private ConversionTaskBean conversionTaskBean;
+
+    @Inject
+    @ConversionQueueBackend(ConversionQueueBackend.Type.LOCAL)
+    private LocalConversionQueue localConversionQueue;
+
+    @Override
+    public long getPeriodMillis() {
+        return PERIOD_MS;
+    }
+
+    @Override
+    public void sweep() {
+        try {
+            if (serverConfig.isLocalConversionQueue()) {
+                localConversionQueue.expire();
+                localConversionQueue.dispatch();
+            }
+            int conversionsSetAsFailed = conversionTaskBean.expireUnleased(serverConfig.getConversionLease() * 1000L);
+            if (conversionsSetAsFailed > 0) {
+                LOGGER.log(Level.WARNING, conversionsSetAsFailed + " conversion(s) set as failed");
+            }
+        } catch (EJBException e) {
+            LOGGER.log(Level.FINE, "Cannot sweep conversion tasks", e);
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.core.product.Conversion;
+import com.docdoku.plm.server.core.product.ConversionTask;
+import com.docdoku.plm.server.core.product.PartIterationKey;
+import com.docdoku.plm.server.dao.ConversionDAO;
+import com.docdoku.plm.server.dao.ConversionTaskDAO;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.*;
+
+/**
+ * Persistence side of the in-process conversion queue, each operation committing on its own so that
+ * the queue state is visible to every node at once.
+ */
+@Stateless(name = "ConversionTaskBean")
+public class ConversionTaskBean {
+
+    /**
+     * Number of queued tasks looked at by a claim
+     */
+    static final int MAX_CANDIDATES = 500;
+
+    @Inject
+    private ConversionTaskDAO conversionTaskDAO;
+
+    @Inject
+    private ConversionDAO conversionDAO;
+
+    /**
+     * Picks the tasks to start, in the given order, without exceeding the free workers of the node nor the
+     * concurrency allowed per workspace
+     */
+    static List<ConversionTask> selectClaimable(List<ConversionTask> queued, Map<String, Long> runningByWorkspace, int freeWorkers, int workspaceConcurrency) {
+        Map<String, Long> running = new HashMap<>(runningByWorkspace);
+        List<ConversionTask> selected = new ArrayList<>();
+        for (ConversionTask task : queued) {
+            if (selected.size() >= freeWorkers) {
+                break;
+            }
+            long workspaceRunning = running.getOrDefault(task.getWorkspaceId(), 0L);
+            if (workspaceRunning < workspaceConcurrency) {
+                selected.add(task);
+                running.put(task.getWorkspaceId(), workspaceRunning + 1);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Queues the task, replacing the one left by an ended conversion of the same part iteration not yet completed
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void enqueue(ConversionTask task) {
+        ConversionTask previousTask = conversionTaskDAO.findTask(task.getPartIterationKey());
+        if (previousTask != null) {
+            conversionTaskDAO.removeTask(previousTask);
+        }
+        conversionTaskDAO.createTask(task);
+    }
+
+    /**
+     * Points the task still queued on the node for this part iteration to the given file, raising its priority if needed.
+     * The content hash of that file replaces the one of the pending conversion in the same transaction, so that the
+     * task cannot be claimed with the new file while the results are still to be cached under the former content.
+     *
+     * @return false if no task is queued on the node for the iteration
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public boolean merge(String node, PartIterationKey partIterationKey, String fileFullName, String contentHash, int priority) {
+        ConversionTask task = conversionTaskDAO.findTask(partIterationKey);
+        if (task == null || task.getStatus() != ConversionTask.Status.QUEUED || !node.equals(task.getNode())) {
+            return false;
+        }
+        task.setFileFullName(fileFullName);
+        task.setPriority(Math.max(task.getPriority(), priority));
+        Conversion conversion = conversionDAO.findConversion(partIterationKey);
+        if (conversion != null) {
+            conversion.setContentHash(contentHash);
+        }
+        return true;
+    }
+
+    /**
+     * Marks the next tasks of the node as running and gives them a lease
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<ConversionTask> claim(String node, int workers, int workspaceConcurrency, long leaseMillis) {
+        int freeWorkers = workers - (int) conversionTaskDAO.countRunningTasks(node);
+        if (freeWorkers <= 0) {
+            return Collections.emptyList();
+        }
+        List<ConversionTask> claimed = selectClaimable(conversionTaskDAO.findQueuedTasks(node, MAX_CANDIDATES),
+                conversionTaskDAO.countRunningTasksByWorkspace(), freeWorkers, workspaceConcurrency);
+        Date leaseExpiry = new Date(System.currentTimeMillis() + leaseMillis);
+        for (ConversionTask task : claimed) {
+            task.setStatus(ConversionTask.Status.RUNNING);
+            task.setLeaseExpiry(leaseExpiry);
+        }
+        return claimed;
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void complete(long taskId) {
+        ConversionTask task = conversionTaskDAO.findTask(taskId);
+        if (task != null) {
+            conversionTaskDAO.removeTask(task);
+        }
+    }
+
+    /**
+     * Fails the conversion of a task which cannot be run
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void abandon(long taskId) {
+        ConversionTask task = conversionTaskDAO.findTask(taskId);
+        if (task != null) {
+            conversionDAO.failPendingConversion(task.getPartIterationKey());
+            conversionTaskDAO.removeTask(task);
+        }
+    }
+
+    /**
+     * Fails the conversions whose running task did not complete before the end of its lease, and the ones
+     * whose task is queued for longer than the queue timeout, on any node
+     *
+     * @return the tickets of the expired tasks
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<String> expire(long queueTimeoutMillis) {
+        Date now = new Date();
+        List<ConversionTask> expired = new ArrayList<>(conversionTaskDAO.findExpiredTasks(now));
+        expired.addAll(conversionTaskDAO.findQueuedTasksBefore(new Date(now.getTime() - queueTimeoutMillis)));
+        List<String> tickets = new ArrayList<>();
+        for (ConversionTask task : expired) {
+            conversionDAO.failPendingConversion(task.getPartIterationKey());
+            conversionTaskDAO.removeTask(task);
+            tickets.add(task.getTicket());
+        }
+        return tickets;
+    }
+
+    /**
+     * Fails the conversions sent to a queue which gives no lease and not ended after the given time
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int expireUnleased(long timeoutMillis) {
+        return conversionDAO.setPendingConversionsAsFailedIfOver((int) timeoutMillis);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.converters.ConversionOrder;
+import com.docdoku.plm.server.converters.serialization.JsonbSerializer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.Properties;
+
+/**
+ * Sends conversion orders to the converters consuming the {@value #PRODUCER_TOPIC} Kafka topic.
+ * <p>
+ * Orders are consumed in sending order, priorities are not supported. The producer is shared by all the
+ * requests and only connects on the first order.
+ */
+@ApplicationScoped
+@ConversionQueueBackend(ConversionQueueBackend.Type.KAFKA)
+public class KafkaConversionQueue implements ConversionQueue {
+
+    static final String PRODUCER_TOPIC = "CONVERT";
+
+    @Inject
+    private ServerConfig serverConfig;
+
+    private volatile KafkaProducer<String, ConversionOrder> producer;
+
+    @Override
+    public void submit(ConversionOrder order, int priority) {
+        getProducer().send(new ProducerRecord<>(PRODUCER_TOPIC, order.getPartIterationKey().toString(), order));
+    }
+
+    @Override
+    public boolean merge(ConversionOrder order, String contentHash, int priority) {
+        return false;
+    }
+
+    @PreDestroy
+    private void close() {
+        if (producer != null) {
+            producer.close();
+        }
+    }
+
+    private KafkaProducer<String, ConversionOrder> getProducer() {
+        if (producer == null) {
+            synchronized (this) {
+                if (producer == null) {
+                    Properties producerProperties = new Properties();
+                    producerProperties.put("bootstrap.servers", serverConfig.getConversionKafkaServers());
+                    producerProperties.put("acks", "0");
+                    producerProperties.put("retries", "1");
+                    producerProperties.put("batch.size", "20971520");
+                    producerProperties.put("linger.ms", "33");
+                    producerProperties.put("max.request.size", "2097152");
+                    producerProperties.put("compression.type", "gzip");
+                    producerProperties.put("key.serializer", StringSerializer.class.getName());
+                    producerProperties.put("value.serializer", JsonbSerializer.class.getName());
+                    producerProperties.put("kafka.topic", PRODUCER_TOPIC);
+                    producer = new KafkaProducer<>(producerProperties);
+                }
+            }
+        }
+        return producer;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.converters.ConversionOrder;
+import com.docdoku.plm.server.core.product.ConversionTask;
+
+import javax.annotation.Resource;
+import javax.ejb.EJBException;
+import javax.enterprise.concurrent.ContextService;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process conversion queue: orders are persisted as {@link ConversionTask}s and converted by
+ * {@link LocalConversionWorker} on the managed executor of the node which received them.
+ * <p>
+ * Tasks are started by priority then in submission order, within the worker count of the node and the
+ * concurrency allowed per workspace. Each conversion runs with the security context of the user who ordered
+ * it, captured at submission: only that node can run it. A new order for an iteration whose task was queued
+ * on a node that went down replaces that task instead of being merged into it, and the tasks nobody orders again
+ * are failed at the end of the queue timeout.
+ */
+@ApplicationScoped
+@ConversionQueueBackend(ConversionQueueBackend.Type.LOCAL)
+public class LocalConversionQueue implements ConversionQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(LocalConversionQueue.class.getName());
+
+    /**
+     * Conversion of a claimed task, run in the context of the user who ordered it
+     */
+    public interface ConversionJob {
+        void run(long taskId);
+    }
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final Map<String, ConversionJob> jobs = new ConcurrentHashMap<>();
+
+    @Resource
+    private ContextService contextService;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Inject
+    private ServerConfig serverConfig;
+
+    @Inject
+    private ConversionTaskBean conversionTaskBean;
+
+    @Inject
+    private LocalConversionWorker worker;
+
+    @Override
+    public void submit(ConversionOrder order, int priority) {
+        String ticket = UUID.randomUUID().toString();
+        jobs.put(ticket, contextService.createContextualProxy(worker::convert, ConversionJob.class));
+        try {
+            conversionTaskBean.enqueue(new ConversionTask(ticket, node, order.getPartIterationKey(),
+                    order.getBinaryResource().getFullName(), priority));
+        } catch (EJBException e) {
+            jobs.remove(ticket);
+            throw e;
+        }
+        dispatch();
+    }
+
+    @Override
+    public boolean merge(ConversionOrder order, String contentHash, int priority) {
+        return conversionTaskBean.merge(node, order.getPartIterationKey(), order.getBinaryResource().getFullName(), contentHash, priority);
+    }
+
+    /**
+     * Starts the next tasks of this node, as many as the free workers and the workspace limits allow
+     */
+    public synchronized void dispatch() {
+        List<ConversionTask> claimed;
+        try {
+            claimed = conversionTaskBean.claim(node, serverConfig.getConversionWorkers(),
+                    serverConfig.getConversionWorkspaceConcurrency(), getLeaseMillis());
+        } catch (EJBException e) {
+            LOGGER.log(Level.FINE, "Cannot claim conversion tasks", e);
+            return;
+        }
+        for (ConversionTask task : claimed) {
+            ConversionJob job = jobs.remove(task.getTicket());
+            if (job == null) {
+                LOGGER.log(Level.WARNING, "No context left to convert {0}", task.getPartIterationKey());
+                conversionTaskBean.abandon(task.getId());
+                continue;
+            }
+            executor.execute(() -> run(task.getId(), job));
+        }
+    }
+
+    /**
+     * Fails the conversions whose lease is over or which waited in the queue for too long
+     */
+    public void expire() {
+        List<String> tickets = conversionTaskBean.expire(serverConfig.getConversionQueueTimeout() * 1000L);
+        if (!tickets.isEmpty()) {
+            LOGGER.log(Level.WARNING, "{0} conversion(s) set as failed at the end of their lease or queue timeout", tickets.size());
+            jobs.keySet().removeAll(tickets);
+        }
+    }
+
+    private void run(long taskId, ConversionJob job) {
+        try {
+            job.run(taskId);
+            conversionTaskBean.complete(taskId);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Conversion task " + taskId + " failed", e);
+            conversionTaskBean.abandon(taskId);
+        } finally {
+            dispatch();
+        }
+    }
+
+    private long getLeaseMillis() {
+        return serverConfig.getConversionLease() * 1000L;
+    }
+}
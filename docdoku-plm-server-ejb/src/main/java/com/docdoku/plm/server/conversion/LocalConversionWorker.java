@@ -0,0 +1,144 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.BeanLocator;
+import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.converters.CADConverter;
+import com.docdoku.plm.server.converters.ConversionResultProxy;
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.exceptions.ApplicationException;
+import com.docdoku.plm.server.core.exceptions.StorageException;
+import com.docdoku.plm.server.core.product.ConversionTask;
+import com.docdoku.plm.server.core.product.PartIterationKey;
+import com.docdoku.plm.server.core.services.IBinaryStorageManagerLocal;
+import com.docdoku.plm.server.core.services.IConverterManagerLocal;
+import com.docdoku.plm.server.core.services.IProductManagerLocal;
+import com.docdoku.plm.server.core.util.FileIO;
+import com.docdoku.plm.server.dao.BinaryResourceDAO;
+import com.docdoku.plm.server.dao.ConversionTaskDAO;
+import org.apache.commons.io.FileUtils;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Converts the native CAD file of a task of the in-process queue, then hands the result over to
+ * {@link IConverterManagerLocal#handleConversionResultCallback} the same way the remote converters do.
+ * <p>
+ * Runs in the context of the user who ordered the conversion, outside of any transaction as conversions
+ * may take long.
+ */
+@Stateless(name = "LocalConversionWorker")
+public class LocalConversionWorker {
+
+    private static final Logger LOGGER = Logger.getLogger(LocalConversionWorker.class.getName());
+
+    @Inject
+    private ConversionTaskDAO conversionTaskDAO;
+
+    @Inject
+    private BinaryResourceDAO binaryResourceDAO;
+
+    @Inject
+    private IBinaryStorageManagerLocal storageManager;
+
+    @Inject
+    private IConverterManagerLocal converterService;
+
+    @Inject
+    private IProductManagerLocal productService;
+
+    @Inject
+    private ServerConfig serverConfig;
+
+    @Inject
+    private BeanLocator beanLocator;
+
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void convert(long taskId) {
+        ConversionTask task = conversionTaskDAO.findTask(taskId);
+        if (task == null) {
+            return;
+        }
+        PartIterationKey partIterationKey = task.getPartIterationKey();
+        Path conversionsPath = Paths.get(serverConfig.getConversionsPath());
+        Path tempDir = null;
+        try {
+            BinaryResource cadFile = binaryResourceDAO.loadBinaryResource(task.getFileFullName());
+            CADConverter converter = selectConverter(FileIO.getExtension(cadFile.getName()));
+            if (converter == null) {
+                throw new CADConverter.ConversionException("No converter available for " + cadFile.getName());
+            }
+
+            tempDir = Files.createTempDirectory(Files.createDirectories(conversionsPath), "conversion-");
+            Path nativeFile = tempDir.resolve(cadFile.getName());
+            try (InputStream inputStream = storageManager.getBinaryResourceInputStream(cadFile)) {
+                Files.copy(inputStream, nativeFile);
+            }
+
+            ConversionResultProxy result = converter.convert(nativeFile.toUri(), tempDir.toUri());
+            if (result.getConvertedFileLODs() == null && result.getConvertedFile() != null) {
+                result.setConvertedFileLODs(Collections.singletonMap(0, result.getConvertedFile()));
+            }
+            result.setTempDir(conversionsPath.relativize(tempDir));
+            converterService.handleConversionResultCallback(partIterationKey.getPartRevision(), result);
+
+        } catch (ApplicationException | StorageException | CADConverter.ConversionException | IOException e) {
+            LOGGER.log(Level.SEVERE, "Cannot convert " + partIterationKey, e);
+            endConversionAsFailed(partIterationKey);
+        } finally {
+            if (tempDir != null) {
+                FileUtils.deleteQuietly(tempDir.toFile());
+            }
+        }
+    }
+
+    private CADConverter selectConverter(String extension) {
+        if (serverConfig.isConversionStub()) {
+            return new StubCADConverter();
+        }
+        for (CADConverter converter : beanLocator.search(CADConverter.class)) {
+            if (converter.canConvertToOBJ(extension)) {
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    private void endConversionAsFailed(PartIterationKey partIterationKey) {
+        try {
+            productService.endConversion(partIterationKey, false);
+        } catch (ApplicationException e) {
+            LOGGER.log(Level.SEVERE, null, e);
+        }
+    }
+}
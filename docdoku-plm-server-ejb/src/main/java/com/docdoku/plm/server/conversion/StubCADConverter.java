@@ -0,0 +1,66 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.converters.CADConverter;
+import com.docdoku.plm.server.converters.ConversionResultProxy;
+import com.docdoku.plm.server.core.util.FileIO;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converter accepting any file and turning it into a unit cube, for load tests of the conversion pipeline
+ * without any CAD converter installed.
+ * <p>
+ * The native file is read once, so the cost of a conversion still grows with the file size.
+ */
+public class StubCADConverter implements CADConverter {
+
+    static final String CUBE = "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nv 0 0 1\nv 1 0 1\nv 1 1 1\nv 0 1 1\n"
+            + "f 1 4 3 2\nf 5 6 7 8\nf 1 2 6 5\nf 2 3 7 6\nf 3 4 8 7\nf 4 1 5 8\n";
+
+    static final double[] BOX = {0, 0, 0, 1, 1, 1};
+
+    @Override
+    public ConversionResultProxy convert(URI cadFileName, URI tempDir) throws ConversionException {
+        Path cadFile = Paths.get(cadFileName);
+        Path convertedFile = Paths.get(tempDir).resolve(FileIO.getFileNameWithoutExtension(cadFile.getFileName().toString()) + ".obj");
+        try {
+            Files.readAllBytes(cadFile);
+            Files.write(convertedFile, CUBE.getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            throw new ConversionException(e);
+        }
+        ConversionResultProxy result = new ConversionResultProxy(convertedFile);
+        result.setBox(BOX.clone());
+        return result;
+    }
+
+    @Override
+    public boolean canConvertToOBJ(String cadFileExtension) {
+        return true;
+    }
+}
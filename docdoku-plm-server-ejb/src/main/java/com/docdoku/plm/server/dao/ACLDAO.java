@@ -54,6 +54,13 @@ public class ACLDAO {
         acl.setUserEntries(userEntries);
     }
 
+    /**
+     * Looks up an ACL by id, from its shared cache region when cached, rather than through the entity holding it
+     */
+    public ACL loadACL(int pId) {
+        return em.find(ACL.class, pId);
+    }
+
     public void removeACLEntries(ACL acl){
         em.createNamedQuery("ACL.removeUserEntries").setParameter("aclId",acl.getId()).executeUpdate();
         em.createNamedQuery("ACL.removeUserGroupEntries").setParameter("aclId",acl.getId()).executeUpdate();
@@ -67,7 +67,7 @@ public class AccountDAO {
     }
 
     public Account loadAccount(String pLogin) throws AccountNotFoundException {
-        Account account = em.find(Account.class, pLogin);
+        Account account = ReferenceCacheMetrics.find(em, Account.class, pLogin);
         if (account == null) {
             throw new AccountNotFoundException(pLogin);
         } else {
@@ -202,6 +202,21 @@ public class ChangeItemDAO {
         return !findChangeItemByFolder(pFolder).isEmpty();
     }
 
+    /**
+     * Whether a change item affects a document of the folder or of its whole sub tree
+     */
+    public boolean hasChangeItemsInTree(Folder pFolder) {
+        String inTree = FolderDAO.documentRevisionInTree("i.documentRevision");
+        for (String changeItem : new String[]{"ChangeIssue", "ChangeRequest", "ChangeOrder"}) {
+            long count = FolderDAO.setTreeParameters(em.createQuery("SELECT COUNT(c) FROM " + changeItem + " c JOIN c.affectedDocuments i WHERE " + inTree, Long.class), pFolder)
+                    .getSingleResult();
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean hasChangeRequestsLinked(ChangeIssue changeIssue) {
         return !findAllChangeRequestsByChangeIssue(changeIssue).isEmpty();
     }
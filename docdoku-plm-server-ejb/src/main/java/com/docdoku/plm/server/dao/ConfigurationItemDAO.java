@@ -75,9 +75,15 @@ public class ConfigurationItemDAO {
         return query.getResultList();
     }
 
+    public int countConfigurationItems(String pWorkspaceId) {
+        return ((Number) em.createQuery("SELECT COUNT(ci) FROM ConfigurationItem ci WHERE ci.workspace.id = :workspaceId")
+                .setParameter(WORKSPACE_ID, pWorkspaceId)
+                .getSingleResult()).intValue();
+    }
+
     public ConfigurationItem loadConfigurationItem(ConfigurationItemKey pKey)
             throws ConfigurationItemNotFoundException {
-        ConfigurationItem ci = em.find(ConfigurationItem.class, pKey);
+        ConfigurationItem ci = ReferenceCacheMetrics.find(em, ConfigurationItem.class, pKey);
         if (ci == null) {
             throw new ConfigurationItemNotFoundException(pKey.getId());
         } else {
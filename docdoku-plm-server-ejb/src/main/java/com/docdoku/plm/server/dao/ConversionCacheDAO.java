@@ -0,0 +1,57 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.dao;
+
+import com.docdoku.plm.server.core.product.ConversionCacheEntry;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.util.List;
+
+
+@RequestScoped
+public class ConversionCacheDAO {
+
+    @Inject
+    private EntityManager em;
+
+    public ConversionCacheDAO() {
+    }
+
+    public void createEntry(ConversionCacheEntry entry) {
+        em.persist(entry);
+        em.flush();
+    }
+
+    public ConversionCacheEntry findEntry(String workspaceId, String contentHash) {
+        List<ConversionCacheEntry> entries = em.createNamedQuery("ConversionCacheEntry.findByContentHash", ConversionCacheEntry.class)
+                .setParameter("workspaceId", workspaceId)
+                .setParameter("contentHash", contentHash)
+                .getResultList();
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    public void removeEntry(ConversionCacheEntry entry) {
+        em.remove(entry);
+        em.flush();
+    }
+}
@@ -23,6 +23,7 @@ package com.docdoku.plm.server.dao;
 import com.docdoku.plm.server.core.exceptions.CreationException;
 import com.docdoku.plm.server.core.product.Conversion;
 import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartIterationKey;
 import com.docdoku.plm.server.core.product.PartRevision;
 
 import javax.enterprise.context.RequestScoped;
@@ -68,6 +69,11 @@ public class ConversionDAO {
         }
     }
 
+    public Conversion findConversion(PartIterationKey partIterationKey) {
+        PartIteration partIteration = em.find(PartIteration.class, partIterationKey);
+        return partIteration != null ? findConversion(partIteration) : null;
+    }
+
     public void deleteConversion(Conversion conversion) {
         em.remove(conversion);
         em.flush();
@@ -85,12 +91,31 @@ public class ConversionDAO {
                 .executeUpdate();
     }
 
+    /**
+     * Fails the pending conversion of the part iteration, if any
+     */
+    public void failPendingConversion(PartIterationKey partIterationKey) {
+        Conversion conversion = findConversion(partIterationKey);
+        if (conversion != null && conversion.isPending()) {
+            conversion.setPending(false);
+            conversion.setEndDate(new Date());
+            conversion.setSucceed(false);
+        }
+    }
+
+    /**
+     * Fails the conversions pending for longer than the retention time, except the ones held by the
+     * in-process queue which are bound to the lease or the queue timeout of their task
+     */
     public Integer setPendingConversionsAsFailedIfOver(Integer retentionTimeMs) {
         Calendar calendar = Calendar.getInstance();
         calendar.add(Calendar.MILLISECOND, -retentionTimeMs);
 
         TypedQuery<Conversion> query =
-                em.createQuery("SELECT DISTINCT c FROM Conversion c WHERE c.pending = true AND c.startDate <= :date", Conversion.class)
+                em.createQuery("SELECT DISTINCT c FROM Conversion c WHERE c.pending = true AND c.startDate <= :date"
+                        + " AND NOT EXISTS (SELECT t FROM ConversionTask t WHERE t.workspaceId = c.partIteration.partRevision.partMasterWorkspaceId"
+                        + " AND t.partNumber = c.partIteration.partRevision.partMasterNumber AND t.partVersion = c.partIteration.partRevision.version"
+                        + " AND t.iteration = c.partIteration.iteration)", Conversion.class)
                         .setParameter("date", calendar.getTime());
 
         List<Conversion> conversions = query.getResultList();
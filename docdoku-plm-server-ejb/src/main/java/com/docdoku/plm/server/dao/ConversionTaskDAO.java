@@ -0,0 +1,111 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.dao;
+
+import com.docdoku.plm.server.core.product.ConversionTask;
+import com.docdoku.plm.server.core.product.PartIterationKey;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@RequestScoped
+public class ConversionTaskDAO {
+
+    @Inject
+    private EntityManager em;
+
+    public ConversionTaskDAO() {
+    }
+
+    public void createTask(ConversionTask task) {
+        em.persist(task);
+        em.flush();
+    }
+
+    public ConversionTask findTask(long id) {
+        return em.find(ConversionTask.class, id);
+    }
+
+    public ConversionTask findTask(PartIterationKey partIterationKey) {
+        List<ConversionTask> tasks = em.createNamedQuery("ConversionTask.findByPartIteration", ConversionTask.class)
+                .setParameter("workspaceId", partIterationKey.getWorkspaceId())
+                .setParameter("partNumber", partIterationKey.getPartMasterNumber())
+                .setParameter("partVersion", partIterationKey.getPartRevisionVersion())
+                .setParameter("iteration", partIterationKey.getIteration())
+                .getResultList();
+        return tasks.isEmpty() ? null : tasks.get(0);
+    }
+
+    /**
+     * Queued tasks of the node, highest priorities first then in submission order
+     */
+    public List<ConversionTask> findQueuedTasks(String node, int maxResults) {
+        return em.createNamedQuery("ConversionTask.findQueued", ConversionTask.class)
+                .setParameter("node", node)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    /**
+     * Running tasks per workspace, all nodes together
+     */
+    public Map<String, Long> countRunningTasksByWorkspace() {
+        Map<String, Long> counts = new HashMap<>();
+        List<Object[]> rows = em.createNamedQuery("ConversionTask.countRunningByWorkspace", Object[].class)
+                .getResultList();
+        for (Object[] row : rows) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    public long countRunningTasks(String node) {
+        return em.createNamedQuery("ConversionTask.countRunningOnNode", Long.class)
+                .setParameter("node", node)
+                .getSingleResult();
+    }
+
+    public List<ConversionTask> findExpiredTasks(Date date) {
+        return em.createNamedQuery("ConversionTask.findExpired", ConversionTask.class)
+                .setParameter("date", date)
+                .getResultList();
+    }
+
+    /**
+     * Queued tasks of all nodes submitted before the given date
+     */
+    public List<ConversionTask> findQueuedTasksBefore(Date date) {
+        return em.createNamedQuery("ConversionTask.findQueuedBefore", ConversionTask.class)
+                .setParameter("date", date)
+                .getResultList();
+    }
+
+    public void removeTask(ConversionTask task) {
+        em.remove(task);
+        em.flush();
+    }
+}
@@ -22,6 +22,7 @@ package com.docdoku.plm.server.dao;
 
 import com.docdoku.plm.server.core.configuration.DocumentBaseline;
 import com.docdoku.plm.server.core.exceptions.BaselineNotFoundException;
+import com.docdoku.plm.server.core.meta.Folder;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
@@ -76,4 +77,10 @@ public class DocumentBaselineDAO {
                 .setParameter("workspaceId", workspaceId)
                 .getSingleResult() > 0;
     }
+
+    public boolean existBaselinedDocumentsInFolder(Folder folder) {
+        return FolderDAO.setTreeParameters(em.createQuery("SELECT COUNT(bd) FROM BaselinedDocument bd WHERE "
+                + FolderDAO.documentRevisionInTree("bd.targetDocument.documentRevision"), Long.class), folder)
+                .getSingleResult() > 0;
+    }
 }
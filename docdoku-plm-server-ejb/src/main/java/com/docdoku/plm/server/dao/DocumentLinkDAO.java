@@ -25,6 +25,7 @@ import com.docdoku.plm.server.core.configuration.ProductInstanceIteration;
 import com.docdoku.plm.server.core.document.DocumentIteration;
 import com.docdoku.plm.server.core.document.DocumentLink;
 import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.meta.Folder;
 import com.docdoku.plm.server.core.product.PartIteration;
 
 import javax.enterprise.context.RequestScoped;
@@ -38,6 +39,12 @@ public class DocumentLinkDAO {
 
     public static final String DOCUMENT_REVISION = "documentRevision";
 
+    /**
+     * The link targets any revision of a document which has a revision in the folder sub tree
+     */
+    private static final String TARGET_IN_TREE = "EXISTS (SELECT r FROM DocumentRevision r WHERE r.documentMaster = dl.targetDocument.documentMaster AND "
+            + FolderDAO.documentRevisionInTree("r") + ")";
+
     @Inject
     private EntityManager em;
 
@@ -73,5 +80,30 @@ public class DocumentLinkDAO {
                 .getResultList();
     }
 
+    /**
+     * Whether a document outside of the folder sub tree links to any revision of the documents of the sub tree
+     */
+    public boolean hasInverseDocumentsLinksInFolder(Folder folder){
+        return hasInverseLinksInFolder("SELECT COUNT(d) FROM DocumentIteration d JOIN d.linkedDocuments dl WHERE "
+                + TARGET_IN_TREE + " AND NOT " + FolderDAO.documentRevisionInTree("d.documentRevision"), folder);
+    }
+
+    public boolean hasInversePartsLinksInFolder(Folder folder){
+        return hasInverseLinksInFolder("SELECT COUNT(p) FROM PartIteration p JOIN p.linkedDocuments dl WHERE " + TARGET_IN_TREE, folder);
+    }
+
+    public boolean hasInverseProductInstanceIterationInFolder(Folder folder){
+        return hasInverseLinksInFolder("SELECT COUNT(p) FROM ProductInstanceIteration p JOIN p.linkedDocuments dl WHERE " + TARGET_IN_TREE, folder);
+    }
+
+    public boolean hasInversePathDataInFolder(Folder folder){
+        return hasInverseLinksInFolder("SELECT COUNT(p) FROM PathDataIteration p JOIN p.linkedDocuments dl WHERE " + TARGET_IN_TREE, folder);
+    }
+
+    private boolean hasInverseLinksInFolder(String countQuery, Folder folder){
+        return FolderDAO.setTreeParameters(em.createQuery(countQuery, Long.class), folder)
+                .getSingleResult() > 0;
+    }
+
 
 }
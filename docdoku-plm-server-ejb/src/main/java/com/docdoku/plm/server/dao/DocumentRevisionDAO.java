@@ -26,13 +26,16 @@ import com.docdoku.plm.server.core.exceptions.CreationException;
 import com.docdoku.plm.server.core.exceptions.DocumentIterationNotFoundException;
 import com.docdoku.plm.server.core.exceptions.DocumentRevisionAlreadyExistsException;
 import com.docdoku.plm.server.core.exceptions.DocumentRevisionNotFoundException;
+import com.docdoku.plm.server.core.meta.Folder;
 import com.docdoku.plm.server.core.meta.Tag;
 import com.docdoku.plm.server.core.workflow.Workflow;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.persistence.*;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -109,6 +112,24 @@ public class DocumentRevisionDAO {
         }
     }
 
+    /**
+     * @return the fields the access checks of the revision depend on, without loading it; null if it does not exist
+     */
+    public DocumentRevisionAccess findAccess(DocumentRevisionKey pKey) {
+        List<Object[]> rows = em.createNamedQuery("DocumentRevision.findAccess", Object[].class)
+                .setParameter(WORKSPACE_ID, pKey.getWorkspaceId())
+                .setParameter("documentMasterId", pKey.getDocumentMasterId())
+                .setParameter("version", pKey.getVersion())
+                .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        Number lastIteration = (Number) row[4];
+        return new DocumentRevisionAccess(pKey, (Integer) row[0], (String) row[1], (Boolean) row[2], (String) row[3],
+                lastIteration == null ? 0 : lastIteration.intValue());
+    }
+
     public DocumentIteration loadDocI(DocumentIterationKey pKey) throws DocumentIterationNotFoundException {
         DocumentIteration docI = em.find(DocumentIteration.class, pKey);
         if (docI == null) {
@@ -170,6 +191,39 @@ public class DocumentRevisionDAO {
         em.flush();
     }
 
+    /**
+     * Remove the document revisions of the folder sub tree at once. Subscriptions and shares are deleted with
+     * one statement for the whole tree, the entities go in a single flush and the masters left without any
+     * revision are removed along.
+     *
+     * @param pDocRs the document revisions of the folder and of its whole sub tree
+     */
+    public void removeRevisionsInFolder(Folder pFolder, List<DocumentRevision> pDocRs) {
+        subscriptionDAO.removeAllSubscriptions(pFolder);
+        sharedEntityDAO.deleteSharesForDocumentsInFolder(pFolder);
+        for (DocumentRevision docR : pDocRs) {
+            workflowDAO.removeWorkflowConstraints(docR);
+        }
+        em.flush();
+
+        Set<DocumentMaster> docMs = new LinkedHashSet<>();
+        for (DocumentRevision docR : pDocRs) {
+            for (DocumentIteration doc : docR.getDocumentIterations()) {
+                documentDAO.removeDoc(doc);
+            }
+            DocumentMaster docM = docR.getDocumentMaster();
+            docM.removeRevision(docR);
+            docMs.add(docM);
+            em.remove(docR);
+        }
+        for (DocumentMaster docM : docMs) {
+            if (docM.getDocumentRevisions().isEmpty()) {
+                em.remove(docM);
+            }
+        }
+        em.flush();
+    }
+
     public List<DocumentRevision> findDocsWithAssignedTasksForGivenUser(String pWorkspaceId, String assignedUserLogin) {
         return em.createNamedQuery("DocumentRevision.findWithAssignedTasksForUser", DocumentRevision.class)
                 .setParameter(WORKSPACE_ID, pWorkspaceId)
@@ -222,6 +276,16 @@ public class DocumentRevisionDAO {
         return query.getResultList();
     }
 
+    /**
+     * Projection of the checked out revisions of a workspace: each row holds the
+     * document master id, the version, the check out user login and the check out date.
+     */
+    public List<Object[]> findCheckOutsByWorkspace(String pWorkspaceId) {
+        return em.createNamedQuery("DocumentRevision.findCheckOutsByWorkspace", Object[].class)
+                .setParameter(WORKSPACE_ID, pWorkspaceId)
+                .getResultList();
+    }
+
     public DocumentIteration findDocumentIterationByBinaryResource(BinaryResource pBinaryResource) {
         TypedQuery<DocumentIteration> query = em.createNamedQuery("DocumentIteration.findByBinaryResource", DocumentIteration.class);
         query.setParameter("binaryResource", pBinaryResource);
@@ -23,13 +23,18 @@ package com.docdoku.plm.server.dao;
 import com.docdoku.plm.server.core.exceptions.CreationException;
 import com.docdoku.plm.server.core.exceptions.EffectivityAlreadyExistsException;
 import com.docdoku.plm.server.core.exceptions.EffectivityNotFoundException;
+import com.docdoku.plm.server.core.product.ConfigurationItemKey;
 import com.docdoku.plm.server.core.product.Effectivity;
 import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.product.PartRevisionKey;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 @RequestScoped
@@ -88,6 +93,24 @@ public class EffectivityDAO {
         }
     }
 
+    /**
+     * @return the effectivities which may apply to this configuration item, the ones bound to it and the ones
+     * bound to none, grouped by holding part revision
+     */
+    public Map<PartRevisionKey, List<Effectivity>> findConfigurationItemEffectivities(ConfigurationItemKey ciKey) {
+        List<Object[]> rows = em.createNamedQuery("Effectivity.findConfigurationItemEffectivities", Object[].class)
+                .setParameter("workspaceId", ciKey.getWorkspace())
+                .setParameter("configurationItemId", ciKey.getId())
+                .getResultList();
+
+        Map<PartRevisionKey, List<Effectivity>> effectivities = new HashMap<>();
+        for (Object[] row : rows) {
+            PartRevisionKey partRevisionKey = new PartRevisionKey(ciKey.getWorkspace(), (String) row[0], (String) row[1]);
+            effectivities.computeIfAbsent(partRevisionKey, k -> new ArrayList<>()).add((Effectivity) row[2]);
+        }
+        return effectivities;
+    }
+
     public void removeEffectivityConstraints(String workspaceId) {
         TypedQuery<Effectivity> query = em.createNamedQuery("Effectivity.getEffectivitiesInWorkspace", Effectivity.class);
         query.setParameter("workspaceId", workspaceId);
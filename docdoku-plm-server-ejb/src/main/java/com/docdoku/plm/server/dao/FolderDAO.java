@@ -20,7 +20,10 @@
 
 package com.docdoku.plm.server.dao;
 
+import com.docdoku.plm.server.core.document.DocumentIteration;
+import com.docdoku.plm.server.core.document.DocumentIterationKey;
 import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.document.DocumentRevisionKey;
 import com.docdoku.plm.server.core.exceptions.CreationException;
 import com.docdoku.plm.server.core.exceptions.EntityConstraintException;
 import com.docdoku.plm.server.core.exceptions.FolderAlreadyExistsException;
@@ -32,9 +35,11 @@ import javax.inject.Inject;
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceException;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -44,10 +49,15 @@ public class FolderDAO {
     @Inject
     private EntityManager em;
 
-    @Inject
-    private DocumentRevisionDAO documentRevisionDAO;
-
     private static final Logger LOGGER = Logger.getLogger(FolderDAO.class.getName());
+
+    /**
+     * Folders are indexed by their complete path, the sub tree of a folder is the set of paths it prefixes.
+     * <code>!</code> escapes the wildcards of the folder names in the <code>LIKE</code> patterns.
+     */
+    private static final String LIKE_ESCAPE = "!";
+    private static final String COMPLETE_PATH = "completePath";
+    private static final String DESCENDANTS = "descendants";
     
     public FolderDAO() {
 
@@ -105,52 +115,164 @@ public class FolderDAO {
         removeFolder(folder);
     }
 
+    /**
+     * Remove the folder and its whole sub tree, documents must have been removed beforehand.
+     */
     public void removeFolder(Folder pFolder) throws EntityConstraintException {
-        Folder[] subFolders = getSubFolders(pFolder);
-        for(Folder subFolder:subFolders) {
-            removeFolder(subFolder);
-        }
-        
+        String descendants = descendantsPattern(pFolder.getCompletePath());
+
+        // detach the sub tree from its parents first so that the delete order does not matter
+        em.createQuery("UPDATE Folder f SET f.parentFolder = NULL WHERE f.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "'")
+                .setParameter(DESCENDANTS, descendants)
+                .executeUpdate();
+        em.createQuery("DELETE FROM Folder f WHERE f.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "'")
+                .setParameter(DESCENDANTS, descendants)
+                .executeUpdate();
+
         em.remove(pFolder);
-        //flush to insure the right delete order to avoid integrity constraint
-        //violation on folder.
         em.flush();
     }
 
-    public List<DocumentRevision> moveFolder(Folder pFolder, Folder pNewFolder) throws FolderAlreadyExistsException, CreationException{
-        List<DocumentRevision> allDocRs = new LinkedList<>();
-        List<DocumentRevision> docRs = documentRevisionDAO.findDocRsByFolder(pFolder.getCompletePath());
-        allDocRs.addAll(docRs);
-
-        for(DocumentRevision docR:allDocRs){
-            docR.setLocation(pNewFolder);
-        }
+    /**
+     * Move the folder and its whole sub tree under <code>pNewFolder</code>, which must already exist.
+     *
+     * The folder paths are the primary keys: the sub tree is created again with its new paths and written in a
+     * single flush, folders being few. The documents of the whole tree are then relocated by one JPQL bulk update,
+     * each one to the folder whose path is its former folder path with the new prefix, and the former sub tree is
+     * removed. The statements run on documents do not depend on their number nor on the number of folders. Bulk
+     * updates stay portable and leave the shared cache to the persistence provider.
+     *
+     * @return the keys of the moved document revisions
+     */
+    public List<DocumentRevisionKey> moveFolder(Folder pFolder, Folder pNewFolder) {
+        String path = pFolder.getCompletePath();
+        String newPath = pNewFolder.getCompletePath();
+        String descendants = descendantsPattern(path);
 
-        Folder[] subFolders = getSubFolders(pFolder);
-        for(Folder subFolder:subFolders){
-            Folder newSubFolder = new Folder(pNewFolder.getCompletePath(),subFolder.getShortName());
-            createFolder(newSubFolder);
-            allDocRs.addAll(moveFolder(subFolder, newSubFolder));
+        // parents come first in path order, each new folder is attached to its managed new parent
+        Map<String, Folder> newFolders = new HashMap<>();
+        newFolders.put(path, pNewFolder);
+        for (Folder subFolder : findFoldersInTree(pFolder)) {
+            Folder newSubFolder = newFolders.get(subFolder.getParentFolder().getCompletePath()).createSubFolder(subFolder.getShortName());
+            em.persist(newSubFolder);
+            newFolders.put(subFolder.getCompletePath(), newSubFolder);
         }
-        em.remove(pFolder);
-        //flush to insure the right delete order to avoid integrity constraint
-        //violation on folder.
         em.flush();
 
-        return allDocRs;
+        em.createQuery("UPDATE DocumentRevision d SET d.location = (SELECT f FROM Folder f WHERE f.completePath = CONCAT(:newPath, SUBSTRING(d.location.completePath, :suffixStart)))"
+                + " WHERE d.location.completePath = :completePath OR d.location.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "'")
+                .setParameter("newPath", newPath)
+                .setParameter("suffixStart", path.length() + 1)
+                .setParameter(COMPLETE_PATH, path)
+                .setParameter(DESCENDANTS, descendants)
+                .executeUpdate();
+
+        em.createQuery("UPDATE Folder f SET f.parentFolder = NULL WHERE f.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "'")
+                .setParameter(DESCENDANTS, descendants)
+                .executeUpdate();
+        em.createQuery("DELETE FROM Folder f WHERE f.completePath = :completePath OR f.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "'")
+                .setParameter(COMPLETE_PATH, path)
+                .setParameter(DESCENDANTS, descendants)
+                .executeUpdate();
+        em.detach(pFolder);
+
+        return findDocumentRevisionKeysInFolder(pNewFolder);
     }
 
+    /**
+     * All the folders below the given one, at any depth, in path order (parents before their children)
+     */
+    public List<Folder> findFoldersInTree(Folder pFolder) {
+        return em.createQuery("SELECT f FROM Folder f WHERE f.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "' ORDER BY f.completePath", Folder.class)
+                .setParameter(DESCENDANTS, descendantsPattern(pFolder.getCompletePath()))
+                .getResultList();
+    }
+
+    /**
+     * The document revisions of the folder and of its whole sub tree
+     */
     public List<DocumentRevision> findDocumentRevisionsInFolder(Folder pFolder) {
-        List<DocumentRevision> allDocRs = new LinkedList<>();
-        List<DocumentRevision> docRs = documentRevisionDAO.findDocRsByFolder(pFolder.getCompletePath());
-        allDocRs.addAll(docRs);
+        return em.createQuery("SELECT d FROM DocumentRevision d WHERE d.location.completePath = :completePath OR d.location.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "'", DocumentRevision.class)
+                .setParameter(COMPLETE_PATH, pFolder.getCompletePath())
+                .setParameter(DESCENDANTS, descendantsPattern(pFolder.getCompletePath()))
+                .getResultList();
+    }
 
-        Folder[] subFolders = getSubFolders(pFolder);
-        for (Folder subFolder : subFolders) {
-            allDocRs.addAll(findDocumentRevisionsInFolder(subFolder));
-        }
+    public List<DocumentRevisionKey> findDocumentRevisionKeysInFolder(Folder pFolder) {
+        return em.createQuery("SELECT NEW com.docdoku.plm.server.core.document.DocumentRevisionKey(d.documentMasterWorkspaceId, d.documentMasterId, d.version)"
+                + " FROM DocumentRevision d WHERE d.location.completePath = :completePath OR d.location.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "'", DocumentRevisionKey.class)
+                .setParameter(COMPLETE_PATH, pFolder.getCompletePath())
+                .setParameter(DESCENDANTS, descendantsPattern(pFolder.getCompletePath()))
+                .getResultList();
+    }
+
+    public long countDocumentRevisionsInFolder(Folder pFolder) {
+        return em.createQuery("SELECT COUNT(d) FROM DocumentRevision d WHERE d.location.completePath = :completePath OR d.location.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "'", Long.class)
+                .setParameter(COMPLETE_PATH, pFolder.getCompletePath())
+                .setParameter(DESCENDANTS, descendantsPattern(pFolder.getCompletePath()))
+                .getSingleResult();
+    }
+
+    /**
+     * The last checked in iterations of the document revisions of the folder and of its whole sub tree,
+     * the ones to index again when the folder moves
+     */
+    public List<DocumentIteration> findLastCheckedInDocumentIterationsInFolder(Folder pFolder) {
+        return em.createQuery("SELECT i FROM DocumentIteration i WHERE (i.documentRevision.location.completePath = :completePath OR i.documentRevision.location.completePath LIKE :descendants ESCAPE '" + LIKE_ESCAPE + "')"
+                + " AND i.checkInDate IS NOT NULL"
+                + " AND i.iteration = (SELECT MAX(i2.iteration) FROM DocumentIteration i2 WHERE i2.documentRevision = i.documentRevision AND i2.checkInDate IS NOT NULL)", DocumentIteration.class)
+                .setParameter(COMPLETE_PATH, pFolder.getCompletePath())
+                .setParameter(DESCENDANTS, descendantsPattern(pFolder.getCompletePath()))
+                .getResultList();
+    }
+
+    /**
+     * The keys of all the iterations of the document revisions of the folder and of its whole sub tree
+     */
+    public List<DocumentIterationKey> findDocumentIterationKeysInFolder(Folder pFolder) {
+        return setTreeParameters(em.createQuery("SELECT NEW com.docdoku.plm.server.core.document.DocumentIterationKey(i.documentRevision.documentMasterWorkspaceId, i.documentRevision.documentMasterId, i.documentRevision.version, i.iteration)"
+                + " FROM DocumentIteration i WHERE " + documentRevisionInTree("i.documentRevision"), DocumentIterationKey.class), pFolder)
+                .getResultList();
+    }
+
+    /**
+     * The full names of the files attached to the document iterations of the folder and of its whole sub tree
+     */
+    public List<String> findAttachedFileNamesInFolder(Folder pFolder) {
+        return setTreeParameters(em.createQuery("SELECT f.fullName FROM DocumentIteration i JOIN i.attachedFiles f WHERE " + documentRevisionInTree("i.documentRevision"), String.class), pFolder)
+                .getResultList();
+    }
+
+    /**
+     * JPQL condition selecting the document revisions of the folder and of its whole sub tree,
+     * its parameters are set by {@link #setTreeParameters(TypedQuery, Folder)}.
+     *
+     * @param pDocumentRevision path of the document revision in the query
+     */
+    static String documentRevisionInTree(String pDocumentRevision) {
+        return "(" + pDocumentRevision + ".location.completePath = :" + COMPLETE_PATH
+                + " OR " + pDocumentRevision + ".location.completePath LIKE :" + DESCENDANTS + " ESCAPE '" + LIKE_ESCAPE + "')";
+    }
+
+    static <T> TypedQuery<T> setTreeParameters(TypedQuery<T> pQuery, Folder pFolder) {
+        return pQuery.setParameter(COMPLETE_PATH, pFolder.getCompletePath())
+                .setParameter(DESCENDANTS, descendantsPattern(pFolder.getCompletePath()));
+    }
+
+    static Query setTreeParameters(Query pQuery, Folder pFolder) {
+        return pQuery.setParameter(COMPLETE_PATH, pFolder.getCompletePath())
+                .setParameter(DESCENDANTS, descendantsPattern(pFolder.getCompletePath()));
+    }
 
-        return allDocRs;
+    /**
+     * <code>LIKE</code> pattern matching the paths below the given one, the path itself is escaped
+     */
+    static String descendantsPattern(String pCompletePath) {
+        String escaped = pCompletePath
+                .replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+        return escaped + "/%";
     }
 
 }
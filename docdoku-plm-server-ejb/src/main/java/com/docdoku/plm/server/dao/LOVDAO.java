@@ -44,7 +44,7 @@ public class LOVDAO {
     }
 
     public ListOfValues loadLOV(ListOfValuesKey pLovKey) throws ListOfValuesNotFoundException {
-        ListOfValues lov = em.find(ListOfValues.class, pLovKey);
+        ListOfValues lov = ReferenceCacheMetrics.find(em, ListOfValues.class, pLovKey);
         if (lov == null) {
             throw new ListOfValuesNotFoundException(pLovKey.getName());
         } else {
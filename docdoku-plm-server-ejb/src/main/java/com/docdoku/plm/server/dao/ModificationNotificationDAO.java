@@ -26,6 +26,8 @@ import com.docdoku.plm.server.core.product.PartRevisionKey;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @RequestScoped
@@ -34,6 +36,7 @@ public class ModificationNotificationDAO {
     public static final String WORKSPACE_ID = "workspaceId";
     public static final String PART_NUMBER = "partNumber";
     public static final String VERSION = "version";
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
 
     @Inject
     private EntityManager em;
@@ -69,6 +72,21 @@ public class ModificationNotificationDAO {
                 .setParameter("iteration", pPartIPK.getIteration()).getResultList();
     }
 
+    /**
+     * Get the notifications of all the iterations of the given part numbers, with one query per chunk of numbers
+     */
+    public List<ModificationNotification> getModificationNotifications(String pWorkspaceId, Collection<String> pPartNumbers) {
+        List<String> partNumbers = new ArrayList<>(pPartNumbers);
+        List<ModificationNotification> notifications = new ArrayList<>();
+        for (int i = 0; i < partNumbers.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+            notifications.addAll(em.createNamedQuery("ModificationNotification.findByImpactedPartNumbers", ModificationNotification.class)
+                    .setParameter(WORKSPACE_ID, pWorkspaceId)
+                    .setParameter("partNumbers", partNumbers.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, partNumbers.size())))
+                    .getResultList());
+        }
+        return notifications;
+    }
+
     public boolean hasModificationNotifications(PartIterationKey pPartIPK){
         return !getModificationNotifications(pPartIPK).isEmpty();
     }
@@ -33,7 +33,9 @@ import javax.persistence.*;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,6 +43,15 @@ import java.util.logging.Logger;
 public class PartMasterDAO {
 
     public static final String WORKSPACE_ID = "workspaceId";
+    /**
+     * Standard JPA hint applying a named entity graph as a load graph
+     */
+    static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
+    /**
+     * <code>!</code> escapes the wildcards of the searched text in the <code>LIKE</code> patterns.
+     */
+    private static final String LIKE_ESCAPE = "!";
 
     @Inject
     private EntityManager em;
@@ -65,6 +76,19 @@ public class PartMasterDAO {
         }
     }
 
+    /**
+     * Load the part master along with the associations of the given named entity graph
+     * (see the <code>GRAPH_*</code> constants of {@link PartMaster})
+     */
+    public PartMaster loadPartM(PartMasterKey pKey, String pGraphName) throws PartMasterNotFoundException {
+        PartMaster partM = em.find(PartMaster.class, pKey, Collections.singletonMap(LOAD_GRAPH, em.getEntityGraph(pGraphName)));
+        if (partM == null) {
+            throw new PartMasterNotFoundException(pKey.getNumber());
+        } else {
+            return partM;
+        }
+    }
+
     public PartMaster getPartMRef(PartMasterKey pKey) throws PartMasterNotFoundException {
         try {
             return em.getReference(PartMaster.class, pKey);
@@ -102,29 +126,46 @@ public class PartMasterDAO {
         em.remove(pPartM);
     }
 
-    public List<PartMaster> findPartMasters(String workspaceId, String partNumber, String partName, int maxResults){
-        return em.createNamedQuery("PartMaster.findByNameOrNumber", PartMaster.class)
-            .setParameter("partNumber", partNumber)
-            .setParameter("partName", partName)
-            .setParameter(WORKSPACE_ID, workspaceId)
-            .setMaxResults(maxResults)
-            .getResultList();
+    /**
+     * Number and name of every part master of the workspace, ordered by number
+     */
+    public List<Object[]> findNumbersAndNames(String workspaceId) {
+        return em.createNamedQuery("PartMaster.findNumbersAndNames", Object[].class)
+                .setParameter(WORKSPACE_ID, workspaceId)
+                .getResultList();
+    }
+
+    /**
+     * Number and name of the part masters whose number or name contains the given text, ignoring case
+     */
+    public List<Object[]> findNumbersAndNamesContaining(String workspaceId, String text, int maxResults) {
+        String escaped = text.toLowerCase(Locale.ROOT)
+                .replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+        return em.createNamedQuery("PartMaster.findNumbersAndNamesContaining", Object[].class)
+                .setParameter(WORKSPACE_ID, workspaceId)
+                .setParameter("pattern", "%" + escaped + "%")
+                .setMaxResults(maxResults)
+                .getResultList();
     }
 
+    /**
+     * @throws NoResultException if the workspace has no part master of that type
+     */
     public String findLatestPartMId(String pWorkspaceId, String pType) {
-        String partMId;
-        TypedQuery<String> query = em.createQuery("SELECT m.number FROM PartMaster m "
+        List<String> partMIds = em.createQuery("SELECT m.number FROM PartMaster m "
                 + "WHERE m.workspace.id = :workspaceId "
                 + "AND m.type = :type "
-                + "AND m.creationDate = ("
-                + "SELECT MAX(m2.creationDate) FROM PartMaster m2 "
-                + "WHERE m2.workspace.id = :workspaceId "
-                + "AND m2.type = :type "
-                + ")", String.class);
-        query.setParameter(WORKSPACE_ID, pWorkspaceId);
-        query.setParameter("type", pType);
-        partMId = query.getSingleResult();
-        return partMId;
+                + "ORDER BY m.creationDate DESC", String.class)
+                .setParameter(WORKSPACE_ID, pWorkspaceId)
+                .setParameter("type", pType)
+                .setMaxResults(1)
+                .getResultList();
+        if (partMIds.isEmpty()) {
+            throw new NoResultException();
+        }
+        return partMIds.get(0);
     }
 
     public List<PartMaster> getPartMasters(String pWorkspaceId, int pStart, int pMaxResults) {
@@ -153,6 +194,7 @@ public class PartMasterDAO {
 
     public List<PartMaster> getPaginatedByWorkspace(String workspaceId, int limit, int offset) {
         return em.createNamedQuery("PartMaster.findByWorkspace",PartMaster.class)
+                .setHint(LOAD_GRAPH, em.getEntityGraph(PartMaster.GRAPH_INDEXING))
                 .setParameter(WORKSPACE_ID,workspaceId)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
@@ -30,6 +30,9 @@ import com.docdoku.plm.server.core.workflow.Workflow;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 
@@ -37,6 +40,8 @@ import java.util.List;
 public class PartRevisionDAO {
 
     public static final String WORKSPACE_ID = "workspaceId";
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
     @Inject
     private EntityManager em;
 
@@ -59,6 +64,32 @@ public class PartRevisionDAO {
         return em.find(PartRevision.class, pKey);
     }
 
+    /**
+     * Load the revision along with the associations of the given named entity graph
+     * (see the <code>GRAPH_*</code> constants of {@link PartRevision})
+     */
+    public PartRevision loadPartR(PartRevisionKey pKey, String pGraphName) {
+        return em.find(PartRevision.class, pKey, Collections.singletonMap(PartMasterDAO.LOAD_GRAPH, em.getEntityGraph(pGraphName)));
+    }
+
+    /**
+     * @return the fields the access checks of the revision depend on, without loading it; null if it does not exist
+     */
+    public PartRevisionAccess findAccess(PartRevisionKey pKey) {
+        List<Object[]> rows = em.createNamedQuery("PartRevision.findAccess", Object[].class)
+                .setParameter(WORKSPACE_ID, pKey.getWorkspaceId())
+                .setParameter("partNumber", pKey.getPartMasterNumber())
+                .setParameter("version", pKey.getVersion())
+                .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        Number lastIteration = (Number) row[3];
+        return new PartRevisionAccess(pKey, (Integer) row[0], (String) row[1], (Boolean) row[2],
+                lastIteration == null ? 0 : lastIteration.intValue());
+    }
+
     public void updateRevision(PartRevision pPartR) {
         em.merge(pPartR);
     }
@@ -82,6 +113,16 @@ public class PartRevisionDAO {
         return query.getResultList();
     }
 
+    /**
+     * Projection of the checked out revisions of a workspace: each row holds the
+     * part number, the version, the check out user login and the check out date.
+     */
+    public List<Object[]> findCheckOutsByWorkspace(String pWorkspaceId) {
+        return em.createNamedQuery("PartRevision.findCheckOutsByWorkspace", Object[].class)
+                .setParameter(WORKSPACE_ID, pWorkspaceId)
+                .getResultList();
+    }
+
     public List<PartRevision> findCheckedOutPartRevisionsForUser(String pWorkspaceId, String pUserLogin) {
         TypedQuery<PartRevision> query = em.createQuery("SELECT DISTINCT p FROM PartRevision p WHERE p.checkOutUser is not null and p.partMaster.workspace.id = :workspaceId and p.checkOutUser.login = :userLogin", PartRevision.class);
         query.setParameter(WORKSPACE_ID, pWorkspaceId);
@@ -91,6 +132,7 @@ public class PartRevisionDAO {
 
     public List<PartRevision> getPartRevisions(String pWorkspaceId, int pStart, int pMaxResults) {
         return em.createNamedQuery("PartRevision.findByWorkspace", PartRevision.class)
+                .setHint(PartMasterDAO.LOAD_GRAPH, em.getEntityGraph(PartRevision.GRAPH_LISTING))
                 .setParameter(WORKSPACE_ID, pWorkspaceId)
                 .setFirstResult(pStart)
                 .setMaxResults(pMaxResults)
@@ -99,10 +141,26 @@ public class PartRevisionDAO {
 
     public List<PartRevision> getAllPartRevisions(String pWorkspaceId) {
         return em.createNamedQuery("PartRevision.findByWorkspace", PartRevision.class)
+                .setHint(PartMasterDAO.LOAD_GRAPH, em.getEntityGraph(PartRevision.GRAPH_LISTING))
                 .setParameter(WORKSPACE_ID, pWorkspaceId)
                 .getResultList();
     }
 
+    /**
+     * Load all the revisions of the given part numbers, with one query per chunk of numbers
+     */
+    public List<PartRevision> findPartRevisionsByNumbers(String pWorkspaceId, Collection<String> pPartNumbers) {
+        List<String> partNumbers = new ArrayList<>(pPartNumbers);
+        List<PartRevision> partRevisions = new ArrayList<>();
+        for (int i = 0; i < partNumbers.size(); i += IN_CLAUSE_CHUNK_SIZE) {
+            partRevisions.addAll(em.createNamedQuery("PartRevision.findByWorkspaceAndNumbers", PartRevision.class)
+                    .setParameter(WORKSPACE_ID, pWorkspaceId)
+                    .setParameter("partNumbers", partNumbers.subList(i, Math.min(i + IN_CLAUSE_CHUNK_SIZE, partNumbers.size())))
+                    .getResultList());
+        }
+        return partRevisions;
+    }
+
     public int getTotalNumberOfParts(String pWorkspaceId) {
         return ((Number) em.createNamedQuery("PartRevision.countByWorkspace")
                 .setParameter(WORKSPACE_ID, pWorkspaceId)
@@ -133,18 +191,26 @@ public class PartRevisionDAO {
         }
     }
 
-    public List<PartRevision> findPartsRevisionsWithReferenceOrNameLike(String pWorkspaceId, String reference, int maxResults) {
-        return em.createNamedQuery("PartRevision.findByReferenceOrName", PartRevision.class)
+    /**
+     * Part number, version and last iteration number of the revisions of the given part masters having
+     * at least one iteration
+     */
+    public List<Object[]> findLastIterationNumbers(String pWorkspaceId, Collection<String> partNumbers) {
+        if (partNumbers.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return em.createNamedQuery("PartRevision.findLastIterationNumbers", Object[].class)
                 .setParameter(WORKSPACE_ID, pWorkspaceId)
-                .setParameter("partNumber", "%" + reference + "%")
-                .setParameter("partName", "%" + reference + "%")
-                .setMaxResults(maxResults)
+                .setParameter("numbers", partNumbers)
                 .getResultList();
     }
 
     public boolean isCheckedOutIteration(PartIterationKey partIKey) throws PartRevisionNotFoundException {
-        PartRevision partR = loadPartR(partIKey.getPartRevision());
-        return partR.isCheckedOut() && (partIKey.getIteration() == partR.getLastIterationNumber());
+        PartRevisionAccess access = findAccess(partIKey.getPartRevision());
+        if (access == null) {
+            throw new PartRevisionNotFoundException(partIKey.getPartRevision());
+        }
+        return access.isCheckedOut() && (partIKey.getIteration() == access.getLastIterationNumber());
     }
 
     public List<PartRevision> findPartByTag(Tag tag) {
@@ -25,24 +25,26 @@ import com.docdoku.plm.server.core.meta.*;
 import com.docdoku.plm.server.core.product.InstancePartNumberAttribute;
 import com.docdoku.plm.server.core.product.PartIteration;
 import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.product.PartRevisionKey;
 import com.docdoku.plm.server.core.query.Query;
 import com.docdoku.plm.server.core.query.QueryRule;
 
-import javax.annotation.PostConstruct;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
-import java.util.ArrayList;
+import javax.persistence.criteria.*;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
+ * Runs the part queries built with the query builder.
+ *
+ * The query has a single {@link PartRevision} root, each rule on the iterations, their instance attributes
+ * or the tags is a correlated <code>EXISTS</code> sub query, so the database never produces more than one row
+ * per revision. Revisions are ordered by part number and version, which allows to read the result by pages
+ * with a keyset (the key of the last revision read) instead of an offset.
+ *
  * @author Morgan Guimard on 09/04/15.
  */
 
@@ -52,66 +54,82 @@ public class PartRevisionQueryDAO {
     public static final String STRING = "string";
     public static final String INSTANCE_ATTRIBUTES = "instanceAttributes";
 
+    private static final String PART_ITERATIONS = "partIterations";
+    private static final String PART_MASTER_NUMBER = "partMasterNumber";
+    private static final String VERSION = "version";
+    private static final String NAME = "name";
+
     @Inject
     private EntityManager em;
 
     private CriteriaBuilder cb;
     private CriteriaQuery<PartRevision> cq;
-
     private Root<PartRevision> pr;
-    private Root<PartIteration> pi;
-    private Root<Tag> tag;
-    private Root<InstanceURLAttribute> iua;
-    private Root<InstanceBooleanAttribute> iba;
-    private Root<InstanceNumberAttribute> ina;
-    private Root<InstanceListOfValuesAttribute> ila;
-    private Root<InstanceDateAttribute> ida;
-    private Root<InstanceTextAttribute> ita;
-    private Root<InstanceLongTextAttribute> ilta;
-    private Root<InstancePartNumberAttribute> ipna;
-
-    @PostConstruct
-    private void setup() {
-        cb = em.getCriteriaBuilder();
 
-        cq = cb.createQuery(PartRevision.class);
-        pr = cq.from(PartRevision.class);
-        pi = cq.from(PartIteration.class);
-        tag = cq.from(Tag.class);
-
-        iua = cq.from(InstanceURLAttribute.class);
-        iba = cq.from(InstanceBooleanAttribute.class);
-        ina = cq.from(InstanceNumberAttribute.class);
-        ila = cq.from(InstanceListOfValuesAttribute.class);
-        ida = cq.from(InstanceDateAttribute.class);
-        ilta = cq.from(InstanceLongTextAttribute.class);
-        ipna = cq.from(InstancePartNumberAttribute.class);
-        ita = cq.from(InstanceTextAttribute.class);
+    /**
+     * Run the whole query, the revisions are returned in part number and version order.
+     */
+    public List<PartRevision> runQuery(String pTimeZone, Workspace workspace, Query query) {
+        return createQuery(pTimeZone, workspace, query, null).getResultList();
     }
 
-    public List<PartRevision> runQuery(String pTimeZone, Workspace workspace, Query query) {
+    /**
+     * Read a page of the query result.
+     *
+     * @param after      the key of the last revision of the previous page, null for the first page
+     * @param maxResults the size of the page
+     * @return at most <code>maxResults</code> revisions following <code>after</code>, in part number and version order
+     */
+    public List<PartRevision> runQuery(String pTimeZone, Workspace workspace, Query query, PartRevisionKey after, int maxResults) {
+        return createQuery(pTimeZone, workspace, query, after)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
 
-        cq.select(pr);
+    private TypedQuery<PartRevision> createQuery(String pTimeZone, Workspace workspace, Query query, PartRevisionKey after) {
 
-        Predicate prJoinPredicate = cb.and(
-                cb.equal(pi.get("partRevision"), pr),
-                cb.equal(pr.get("partMaster").get("workspace"), workspace)
-        );
+        cb = em.getCriteriaBuilder();
+        cq = cb.createQuery(PartRevision.class);
+        pr = cq.from(PartRevision.class);
+
+        cq.select(pr);
 
+        Predicate workspacePredicate = cb.equal(pr.get("partMasterWorkspaceId"), workspace.getId());
         Predicate rulesPredicate = getPredicate(pTimeZone, query.getQueryRule());
 
         cq.where(cb.and(
-                prJoinPredicate,
+                workspacePredicate,
+                getCheckedInPredicate(),
+                getKeysetPredicate(after),
                 rulesPredicate
         ));
 
-        TypedQuery<PartRevision> tp = em.createQuery(cq);
+        cq.orderBy(cb.asc(pr.get(PART_MASTER_NUMBER)), cb.asc(pr.get(VERSION)));
 
-        Set<PartRevision> revisions = tp.getResultList().stream()
-                .filter(part -> part.getLastCheckedInIteration() != null)
-                .collect(Collectors.toSet());
+        return em.createQuery(cq);
+    }
 
-        return new ArrayList<>(revisions);
+    /**
+     * Revisions without any checked in iteration are not part of the result
+     * (see {@link PartRevision#getLastCheckedInIteration()})
+     */
+    private Predicate getCheckedInPredicate() {
+        Expression<Integer> iterations = cb.size(pr.get(PART_ITERATIONS));
+        return cb.or(
+                cb.and(cb.isNull(pr.get("checkOutUser")), cb.greaterThan(iterations, 0)),
+                cb.greaterThan(iterations, 1)
+        );
+    }
+
+    private Predicate getKeysetPredicate(PartRevisionKey after) {
+        if (after == null) {
+            return cb.and();
+        }
+        String number = after.getPartMaster().getNumber();
+        return cb.or(
+                cb.greaterThan(pr.get(PART_MASTER_NUMBER), number),
+                cb.and(cb.equal(pr.get(PART_MASTER_NUMBER), number), cb.greaterThan(pr.get(VERSION), after.getVersion()))
+        );
     }
 
     private Predicate getPredicate(String pTimeZone, QueryRule queryRule) {
@@ -210,13 +228,8 @@ public class PartRevisionQueryDAO {
     }
 
     private Predicate getPartRevisionPredicate(String pTimeZone, String field, String operator, List<String> values, String type) {
-        if ("checkInDate".equals(field)) {
-            Predicate lastIterationPredicate = cb.equal(cb.size(pr.get("partIterations")), pi.get("iteration"));
-            return cb.and(lastIterationPredicate, QueryPredicateBuilder.getExpressionPredicate(cb, pi.get("checkInDate"), operator, values, type, pTimeZone));
-        }
-        else if ("modificationDate".equals(field)) {
-            Predicate lastIterationPredicate = cb.equal(cb.size(pr.get("partIterations")), pi.get("iteration"));
-            return cb.and(lastIterationPredicate, QueryPredicateBuilder.getExpressionPredicate(cb, pi.get("modificationDate"), operator, values, type, pTimeZone));
+        if ("checkInDate".equals(field) || "modificationDate".equals(field)) {
+            return getLastIterationPredicate(pTimeZone, field, operator, values, type);
         } else if ("status".equals(field)) {
             if (values.size() == 1) {
                 return QueryPredicateBuilder.getExpressionPredicate(cb, pr.get(field), operator, values, "status", pTimeZone);
@@ -230,10 +243,23 @@ public class PartRevisionQueryDAO {
         return QueryPredicateBuilder.getExpressionPredicate(cb, pr.get(field), operator, values, type, pTimeZone);
     }
 
+    private Predicate getLastIterationPredicate(String pTimeZone, String field, String operator, List<String> values, String type) {
+        Subquery<PartIteration> sq = cq.subquery(PartIteration.class);
+        Root<PartRevision> spr = sq.correlate(pr);
+        Join<PartRevision, PartIteration> spi = spr.join(PART_ITERATIONS);
+        sq.select(spi).where(
+                cb.equal(spi.get("iteration"), cb.size(pr.get(PART_ITERATIONS))),
+                QueryPredicateBuilder.getExpressionPredicate(cb, spi.get(field), operator, values, type, pTimeZone)
+        );
+        return cb.exists(sq);
+    }
+
     private Predicate getTagsPredicate(List<String> values) {
-        Predicate prPredicate = tag.in(pr.get("tags"));
-        Predicate valuesPredicate = cb.equal(tag.get("label"), values);
-        return cb.and(prPredicate, valuesPredicate);
+        Subquery<Tag> sq = cq.subquery(Tag.class);
+        Root<PartRevision> spr = sq.correlate(pr);
+        Join<PartRevision, Tag> tag = spr.join("tags");
+        sq.select(tag).where(tag.get("label").in(values));
+        return cb.exists(sq);
     }
 
     private Predicate getPartMasterPredicate(String pTimeZone, String field, String operator, List<String> values, String type) {
@@ -241,22 +267,35 @@ public class PartRevisionQueryDAO {
     }
 
     // Instances Attributes
-    private Predicate getInstanceURLAttributePredicate(String pTimeZone, String field, String operator, List<String> values) {
 
-        Predicate valuesPredicate = QueryPredicateBuilder.getExpressionPredicate(cb, iua.get("urlValue"), operator, values, STRING, pTimeZone);
-        Predicate memberPredicate = iua.in(pi.get(INSTANCE_ATTRIBUTES));
-        return cb.and(cb.equal(iua.get("name"), field), valuesPredicate, memberPredicate);
+    /**
+     * <code>EXISTS</code> an attribute of the given type and name on one of the revision iterations
+     * whose value matches the predicate
+     */
+    private <T extends InstanceAttribute> Predicate getInstanceAttributePredicate(Class<T> attributeType, String field, Function<Path<T>, Predicate> valuesPredicate) {
+        Subquery<PartIteration> sq = cq.subquery(PartIteration.class);
+        Root<PartRevision> spr = sq.correlate(pr);
+        Join<PartRevision, PartIteration> spi = spr.join(PART_ITERATIONS);
+        Join<PartIteration, T> attribute = cb.treat(spi.<PartIteration, InstanceAttribute>join(INSTANCE_ATTRIBUTES), attributeType);
+        sq.select(spi).where(cb.equal(attribute.get(NAME), field), valuesPredicate.apply(attribute));
+        return cb.exists(sq);
+    }
+
+    private Predicate getInstanceURLAttributePredicate(String pTimeZone, String field, String operator, List<String> values) {
+        return getInstanceAttributePredicate(InstanceURLAttribute.class, field,
+                iua -> QueryPredicateBuilder.getExpressionPredicate(cb, iua.get("urlValue"), operator, values, STRING, pTimeZone));
     }
 
     private Predicate getInstanceBooleanAttributePredicate(String field, String operator, List<String> values) {
         if (values.size() == 1) {
-            Predicate valuesPredicate = cb.equal(iba.get("booleanValue"), Boolean.parseBoolean(values.get(0)));
-            Predicate memberPredicate = iba.in(pi.get(INSTANCE_ATTRIBUTES));
+            boolean value = Boolean.parseBoolean(values.get(0));
             switch (operator) {
                 case "equal":
-                    return cb.and(cb.equal(iba.get("name"), field), valuesPredicate, memberPredicate);
+                    return getInstanceAttributePredicate(InstanceBooleanAttribute.class, field,
+                            iba -> cb.equal(iba.get("booleanValue"), value));
                 case "not_equal":
-                    return cb.and(cb.equal(iba.get("name"), field), valuesPredicate.not(), memberPredicate);
+                    return getInstanceAttributePredicate(InstanceBooleanAttribute.class, field,
+                            iba -> cb.equal(iba.get("booleanValue"), value).not());
                 default:
                     break;
             }
@@ -266,20 +305,20 @@ public class PartRevisionQueryDAO {
     }
 
     private Predicate getInstanceNumberAttributePredicate(String pTimeZone, String field, String operator, List<String> values) {
-        Predicate valuesPredicate = QueryPredicateBuilder.getExpressionPredicate(cb, ina.get("numberValue"), operator, values, "double", pTimeZone);
-        Predicate memberPredicate = ina.in(pi.get(INSTANCE_ATTRIBUTES));
-        return cb.and(cb.equal(ina.get("name"), field), valuesPredicate, memberPredicate);
+        return getInstanceAttributePredicate(InstanceNumberAttribute.class, field,
+                ina -> QueryPredicateBuilder.getExpressionPredicate(cb, ina.get("numberValue"), operator, values, "double", pTimeZone));
     }
 
     private Predicate getInstanceLovAttributePredicate(String field, String operator, List<String> values) {
         if (values.size() == 1) {
-            Predicate valuesPredicate = cb.equal(ila.get("indexValue"), Integer.parseInt(values.get(0)));
-            Predicate memberPredicate = ila.in(pi.get(INSTANCE_ATTRIBUTES));
+            int value = Integer.parseInt(values.get(0));
             switch (operator) {
                 case "equal":
-                    return cb.and(cb.equal(ila.get("name"), field), valuesPredicate, memberPredicate);
+                    return getInstanceAttributePredicate(InstanceListOfValuesAttribute.class, field,
+                            ila -> cb.equal(ila.get("indexValue"), value));
                 case "not_equal":
-                    return cb.and(cb.equal(ila.get("name"), field), valuesPredicate.not(), memberPredicate);
+                    return getInstanceAttributePredicate(InstanceListOfValuesAttribute.class, field,
+                            ila -> cb.equal(ila.get("indexValue"), value).not());
                 default:
                     break;
             }
@@ -289,28 +328,22 @@ public class PartRevisionQueryDAO {
     }
 
     private Predicate getInstanceDateAttributePredicate(String pTimeZone, String field, String operator, List<String> values) {
-        Predicate valuesPredicate = QueryPredicateBuilder.getExpressionPredicate(cb, ida.get("dateValue"), operator, values, "date", pTimeZone);
-        Predicate memberPredicate = ida.in(pi.get(INSTANCE_ATTRIBUTES));
-        return cb.and(cb.equal(ida.get("name"), field), valuesPredicate, memberPredicate);
+        return getInstanceAttributePredicate(InstanceDateAttribute.class, field,
+                ida -> QueryPredicateBuilder.getExpressionPredicate(cb, ida.get("dateValue"), operator, values, "date", pTimeZone));
     }
 
     private Predicate getInstanceLongTextAttributePredicate(String pTimeZone, String field, String operator, List<String> values) {
-        Predicate valuesPredicate = QueryPredicateBuilder.getExpressionPredicate(cb, ilta.get("longTextValue"), operator, values, STRING, pTimeZone);
-        Predicate memberPredicate = ilta.in(pi.get(INSTANCE_ATTRIBUTES));
-        return cb.and(cb.equal(ita.get("name"), field), valuesPredicate, memberPredicate);
+        return getInstanceAttributePredicate(InstanceLongTextAttribute.class, field,
+                ilta -> QueryPredicateBuilder.getExpressionPredicate(cb, ilta.get("longTextValue"), operator, values, STRING, pTimeZone));
     }
 
     private Predicate getInstancePartNumberAttributePredicate(String pTimeZone, String field, String operator, List<String> values) {
-        Predicate valuesPredicate = QueryPredicateBuilder.getExpressionPredicate(cb, ipna.get("partMasterValue").get("number"), operator, values, STRING, pTimeZone);
-        Predicate memberPredicate = ipna.in(pi.get(INSTANCE_ATTRIBUTES));
-        return cb.and(cb.equal(ita.get("name"), field), valuesPredicate, memberPredicate);
+        return getInstanceAttributePredicate(InstancePartNumberAttribute.class, field,
+                ipna -> QueryPredicateBuilder.getExpressionPredicate(cb, ipna.get("partMasterValue").get("number"), operator, values, STRING, pTimeZone));
     }
 
     private Predicate getInstanceTextAttributePredicate(String pTimeZone, String field, String operator, List<String> values) {
-        Predicate valuesPredicate = QueryPredicateBuilder.getExpressionPredicate(cb, ita.get("textValue"), operator, values, STRING, pTimeZone);
-        Predicate memberPredicate = ita.in(pi.get(INSTANCE_ATTRIBUTES));
-        return cb.and(cb.equal(ita.get("name"), field), valuesPredicate, memberPredicate);
+        return getInstanceAttributePredicate(InstanceTextAttribute.class, field,
+                ita -> QueryPredicateBuilder.getExpressionPredicate(cb, ita.get("textValue"), operator, values, STRING, pTimeZone));
     }
 }
-
-
@@ -29,6 +29,7 @@ import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -43,6 +44,12 @@ public class PathDataMasterDAO {
     public PathDataMasterDAO() {
     }
 
+    public List<String> findPathsWithIterations(ProductInstanceIteration pProductInstanceIteration) {
+        return em.createNamedQuery("PathDataMaster.findPathsWithIterationsByProductInstanceIteration", String.class)
+                .setParameter("productInstanceIteration", pProductInstanceIteration)
+                .getResultList();
+    }
+
     public void createPathData(PathDataMaster pathDataMaster) {
         try {
             em.persist(pathDataMaster);
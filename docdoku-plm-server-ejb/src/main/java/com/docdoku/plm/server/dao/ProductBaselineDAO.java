@@ -25,6 +25,7 @@ import com.docdoku.plm.server.core.exceptions.BaselineNotFoundException;
 import com.docdoku.plm.server.core.exceptions.CreationException;
 import com.docdoku.plm.server.core.exceptions.ProductInstanceMasterNotFoundException;
 import com.docdoku.plm.server.core.product.ConfigurationItemKey;
+import com.docdoku.plm.server.core.product.PartIterationKey;
 import com.docdoku.plm.server.core.product.PartRevision;
 
 import javax.enterprise.context.RequestScoped;
@@ -96,6 +97,15 @@ public class ProductBaselineDAO {
                 .getSingleResult() > 0;
     }
 
+    /**
+     * Keys of the part iterations retained by a part collection, without loading the baselined parts
+     */
+    public List<PartIterationKey> findTargetPartKeys(int partCollectionId) {
+        return em.createNamedQuery("BaselinedPart.findTargetPartKeys", PartIterationKey.class)
+                .setParameter("partCollection", partCollectionId)
+                .getResultList();
+    }
+
     public void flushBaselinedParts(ProductBaseline productBaseline) {
         productBaseline.removeAllBaselinedParts();
         em.flush();
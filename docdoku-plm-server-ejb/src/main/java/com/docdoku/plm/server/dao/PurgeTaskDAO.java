@@ -0,0 +1,67 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.dao;
+
+import com.docdoku.plm.server.core.common.PurgeTask;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+
+@RequestScoped
+public class PurgeTaskDAO {
+
+    @Inject
+    private EntityManager em;
+
+    public PurgeTaskDAO() {
+    }
+
+    public void createTasks(Collection<PurgeTask> tasks) {
+        for (PurgeTask task : tasks) {
+            em.persist(task);
+        }
+    }
+
+    public PurgeTask findTask(long id) {
+        return em.find(PurgeTask.class, id);
+    }
+
+    public List<PurgeTask> findDueTasks(Date date, int maxResults) {
+        return em.createNamedQuery("PurgeTask.findDue", PurgeTask.class)
+                .setParameter("date", date)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    public int removeTasks(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return em.createNamedQuery("PurgeTask.removeByIds")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.dao;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit and miss counters of the cache regions declared in <code>eclipselink-orm.xml</code>,
+ * fed by the DAOs looking up reference entities by id
+ */
+public class ReferenceCacheMetrics implements ReferenceCacheMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.docdoku.plm:type=ReferenceCache";
+
+    private static final ReferenceCacheMetrics INSTANCE = new ReferenceCacheMetrics();
+
+    private final ConcurrentMap<String, LongAdder> hits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> misses = new ConcurrentHashMap<>();
+
+    public static ReferenceCacheMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Find an entity by primary key, counting whether the shared cache already held it
+     */
+    public static <T> T find(EntityManager em, Class<T> entityClass, Object primaryKey) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        if (cache != null) {
+            INSTANCE.record(entityClass.getSimpleName(), cache.contains(entityClass, primaryKey));
+        }
+        return em.find(entityClass, primaryKey);
+    }
+
+    public void record(String region, boolean hit) {
+        (hit ? hits : misses).computeIfAbsent(region, r -> new LongAdder()).increment();
+    }
+
+    @Override
+    public Map<String, Long> getHits() {
+        return sums(hits);
+    }
+
+    @Override
+    public Map<String, Long> getMisses() {
+        return sums(misses);
+    }
+
+    @Override
+    public Map<String, Double> getHitRatios() {
+        Map<String, Long> hitSums = getHits();
+        Map<String, Long> missSums = getMisses();
+        Map<String, Double> ratios = new TreeMap<>();
+        for (String region : union(hitSums, missSums)) {
+            long hit = hitSums.getOrDefault(region, 0L);
+            long total = hit + missSums.getOrDefault(region, 0L);
+            ratios.put(region, total == 0 ? 0d : (double) hit / total);
+        }
+        return ratios;
+    }
+
+    @Override
+    public void reset() {
+        hits.clear();
+        misses.clear();
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((region, counter) -> sums.put(region, counter.sum()));
+        return sums;
+    }
+
+    private static Iterable<String> union(Map<String, Long> a, Map<String, Long> b) {
+        Map<String, Long> all = new TreeMap<>(a);
+        all.putAll(b);
+        return all.keySet();
+    }
+}
@@ -22,6 +22,7 @@ package com.docdoku.plm.server.dao;
 
 import com.docdoku.plm.server.core.document.DocumentRevision;
 import com.docdoku.plm.server.core.exceptions.SharedEntityNotFoundException;
+import com.docdoku.plm.server.core.meta.Folder;
 import com.docdoku.plm.server.core.product.PartRevision;
 import com.docdoku.plm.server.core.sharing.SharedDocument;
 import com.docdoku.plm.server.core.sharing.SharedEntity;
@@ -48,11 +49,15 @@ public class SharedEntityDAO {
     }
 
     public boolean isSharedDocument(String pUuid){
-        return em.find(SharedDocument.class, pUuid) != null;
+        return em.createQuery("SELECT COUNT(s) FROM SharedDocument s WHERE s.uuid = :uuid", Long.class)
+                .setParameter("uuid", pUuid)
+                .getSingleResult() > 0;
     }
 
     public boolean isSharedPart(String pUuid){
-        return em.find(SharedPart.class, pUuid) != null;
+        return em.createQuery("SELECT COUNT(s) FROM SharedPart s WHERE s.uuid = :uuid", Long.class)
+                .setParameter("uuid", pUuid)
+                .getSingleResult() > 0;
     }
 
     public SharedDocument loadSharedDocument(String pUuid) throws SharedEntityNotFoundException {
@@ -101,6 +106,15 @@ public class SharedEntityDAO {
         query.setParameter("pDocR", pDocR).executeUpdate();
     }
 
+    /**
+     * Remove the shares of the documents of the folder and of its whole sub tree
+     */
+    public void deleteSharesForDocumentsInFolder(Folder pFolder) {
+        FolderDAO.setTreeParameters(em.createQuery("DELETE FROM SharedDocument sd WHERE EXISTS (SELECT d FROM DocumentRevision d WHERE d = sd.documentRevision AND "
+                + FolderDAO.documentRevisionInTree("d") + ")"), pFolder)
+                .executeUpdate();
+    }
+
     public void deleteSharesForPart(PartRevision pPartR) {
         TypedQuery<SharedPart> query = em.createNamedQuery("SharedPart.deleteSharesForGivenPart", SharedPart.class);
         query.setParameter("pPartR", pPartR).executeUpdate();
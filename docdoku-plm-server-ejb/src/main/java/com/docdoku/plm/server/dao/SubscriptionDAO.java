@@ -23,6 +23,7 @@ import com.docdoku.plm.server.core.common.User;
 import com.docdoku.plm.server.core.common.UserGroup;
 import com.docdoku.plm.server.core.document.*;
 import com.docdoku.plm.server.core.gcm.GCMAccount;
+import com.docdoku.plm.server.core.meta.Folder;
 import com.docdoku.plm.server.core.meta.Tag;
 import com.docdoku.plm.server.core.notification.TagUserGroupSubscription;
 import com.docdoku.plm.server.core.notification.TagUserGroupSubscriptionKey;
@@ -176,6 +177,18 @@ public class SubscriptionDAO {
         query2.executeUpdate();
     }
 
+    /**
+     * Remove the subscriptions to the documents of the folder and of its whole sub tree
+     */
+    public void removeAllSubscriptions(Folder pFolder) {
+        String observedInTree = " s WHERE EXISTS (SELECT d FROM DocumentRevision d WHERE d = s.observedDocumentRevision AND "
+                + FolderDAO.documentRevisionInTree("d") + ")";
+        FolderDAO.setTreeParameters(em.createQuery("DELETE FROM StateChangeSubscription" + observedInTree), pFolder)
+                .executeUpdate();
+        FolderDAO.setTreeParameters(em.createQuery("DELETE FROM IterationChangeSubscription" + observedInTree), pFolder)
+                .executeUpdate();
+    }
+
     public void removeAllSubscriptions(User pUser) {
         Query query = em.createQuery("DELETE FROM StateChangeSubscription s WHERE s.subscriber = :user");
         query.setParameter("user", pUser);
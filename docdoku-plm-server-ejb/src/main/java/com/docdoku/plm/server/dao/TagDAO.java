@@ -56,7 +56,7 @@ public class TagDAO {
     }
 
     public void removeTag(TagKey pTagKey) throws TagNotFoundException {
-        Tag tag = em.find(Tag.class, pTagKey);
+        Tag tag = ReferenceCacheMetrics.find(em, Tag.class, pTagKey);
         if (tag == null) {
             throw new TagNotFoundException(pTagKey);
         } else {
@@ -66,7 +66,7 @@ public class TagDAO {
 
 
     public Tag loadTag(TagKey pTagKey) throws TagNotFoundException {
-        Tag tag = em.find(Tag.class,pTagKey);
+        Tag tag = ReferenceCacheMetrics.find(em, Tag.class, pTagKey);
         if (tag == null) {
             throw new TagNotFoundException(pTagKey);
         } else {
@@ -24,11 +24,13 @@ import com.docdoku.plm.server.core.common.User;
 import com.docdoku.plm.server.core.exceptions.TaskNotFoundException;
 import com.docdoku.plm.server.core.workflow.Task;
 import com.docdoku.plm.server.core.workflow.TaskKey;
+import com.docdoku.plm.server.core.workflow.TaskWrapper;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -36,6 +38,24 @@ import java.util.List;
 @RequestScoped
 public class TaskDAO {
 
+    private static final String WORKSPACE_ID = "workspaceId";
+
+    /**
+     * A workflow is held by at most one document revision, part revision or workspace workflow,
+     * the holder is resolved in the same query as the tasks.
+     */
+    private static final String TASKS_WITH_HOLDERS = " FROM Task t JOIN t.activity a JOIN a.workflow wf"
+            + " LEFT JOIN DocumentRevision d ON d.workflow = wf"
+            + " LEFT JOIN PartRevision p ON p.workflow = wf"
+            + " LEFT JOIN WorkspaceWorkflow ww ON ww.workflow = wf AND ww.workspace.id = :workspaceId"
+            + " WHERE (d.documentMasterId IS NOT NULL OR p.partMasterNumber IS NOT NULL OR ww.id IS NOT NULL)";
+
+    /**
+     * Membership checks run as sub queries, the tasks are not multiplied by the assigned users and groups
+     */
+    private static final String ASSIGNED_TO_USER = "(EXISTS (SELECT au FROM t.assignedUsers au WHERE au.login = :login AND au.workspaceId = :workspaceId)"
+            + " OR EXISTS (SELECT agu FROM t.assignedGroups ag JOIN ag.users agu WHERE agu.login = :login AND agu.workspaceId = :workspaceId))";
+
     @Inject
     private EntityManager em;
 
@@ -64,32 +84,72 @@ public class TaskDAO {
         return tasks;
     }
 
-    public Task[] findAssignedTasks(String workspaceId, String userLogin){
-        Task[] tasks;
-        TypedQuery<Task> query = em.createNamedQuery("Task.findAssignedTasks", Task.class);
-        query.setParameter("login", userLogin);
-        query.setParameter("workspaceId",workspaceId);
-        List<Task> listTasks = query.getResultList();
-        tasks = new Task[listTasks.size()];
-        for(int i=0;i<listTasks.size();i++) {
-            tasks[i] = listTasks.get(i);
+    /**
+     * Tasks assigned to the user, directly or through one of the user's groups, along with the document, part or
+     * workspace workflow holding them. Tasks of aborted workflows have no holder and are left out.
+     *
+     * @param status only the tasks in this status, all of them if null
+     * @param start  first result
+     * @param max    maximum number of results, all of them if not positive
+     */
+    public List<TaskWrapper> findAssignedTasks(String workspaceId, String userLogin, Task.Status status, int start, int max) {
+        TypedQuery<Object[]> query = em.createQuery("SELECT t, d.documentMasterId, d.version, p.partMasterNumber, p.version, ww.id"
+                + TASKS_WITH_HOLDERS + " AND " + ASSIGNED_TO_USER + (status != null ? " AND t.status = :status" : "")
+                + " ORDER BY wf.id, a.step, t.num", Object[].class);
+        setAssignmentParameters(query, workspaceId, userLogin, status);
+        query.setFirstResult(start);
+        if (max > 0) {
+            query.setMaxResults(max);
         }
+        return wrapTasks(query.getResultList(), workspaceId);
+    }
 
-        return tasks;
+    /**
+     * Number of tasks {@link #findAssignedTasks(String, String, Task.Status, int, int)} returns, without loading them
+     */
+    public int countAssignedTasks(String workspaceId, String userLogin, Task.Status status) {
+        TypedQuery<Long> query = em.createQuery("SELECT COUNT(t)"
+                + TASKS_WITH_HOLDERS + " AND " + ASSIGNED_TO_USER + (status != null ? " AND t.status = :status" : ""), Long.class);
+        setAssignmentParameters(query, workspaceId, userLogin, status);
+        return query.getSingleResult().intValue();
     }
 
-    public Task[] findInProgressTasks(String workspaceId, String userLogin){
-        Task[] tasks;
-        TypedQuery<Task> query = em.createNamedQuery("Task.findInProgressTasks", Task.class);
+    /**
+     * The task along with its holder, null if the task has none in this workspace
+     */
+    public TaskWrapper findTaskWithHolder(String workspaceId, TaskKey pTaskKey) {
+        List<Object[]> rows = em.createQuery("SELECT t, d.documentMasterId, d.version, p.partMasterNumber, p.version, ww.id"
+                + TASKS_WITH_HOLDERS + " AND wf.id = :workflowId AND a.step = :step AND t.num = :num", Object[].class)
+                .setParameter(WORKSPACE_ID, workspaceId)
+                .setParameter("workflowId", pTaskKey.getActivity().getWorkflowId())
+                .setParameter("step", pTaskKey.getActivity().getStep())
+                .setParameter("num", pTaskKey.getNum())
+                .getResultList();
+        List<TaskWrapper> taskWrappers = wrapTasks(rows, workspaceId);
+        return taskWrappers.isEmpty() ? null : taskWrappers.get(0);
+    }
+
+    private void setAssignmentParameters(TypedQuery<?> query, String workspaceId, String userLogin, Task.Status status) {
+        query.setParameter(WORKSPACE_ID, workspaceId);
         query.setParameter("login", userLogin);
-        query.setParameter("workspaceId",workspaceId);
-        List<Task> listTasks = query.getResultList();
-        tasks = new Task[listTasks.size()];
-        for(int i=0;i<listTasks.size();i++) {
-            tasks[i] = listTasks.get(i);
+        if (status != null) {
+            query.setParameter("status", status);
         }
+    }
 
-        return tasks;
+    private List<TaskWrapper> wrapTasks(List<Object[]> rows, String workspaceId) {
+        List<TaskWrapper> taskWrappers = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Task task = (Task) row[0];
+            if (row[1] != null) {
+                taskWrappers.add(new TaskWrapper(task, workspaceId, "documents", (String) row[1], (String) row[2]));
+            } else if (row[3] != null) {
+                taskWrappers.add(new TaskWrapper(task, workspaceId, "parts", (String) row[3], (String) row[4]));
+            } else {
+                taskWrappers.add(new TaskWrapper(task, workspaceId, "workspace-workflows", (String) row[5], null));
+            }
+        }
+        return taskWrappers;
     }
 
 }
@@ -56,7 +56,7 @@ public class UserDAO {
     }
 
     public User loadUser(UserKey pUserKey) throws UserNotFoundException {
-        User user = em.find(User.class, pUserKey);
+        User user = ReferenceCacheMetrics.find(em, User.class, pUserKey);
         if (user == null) {
             throw new UserNotFoundException(pUserKey.getAccount());
         } else {
@@ -65,7 +65,7 @@ public class UserDAO {
     }
 
     public WorkspaceUserMembership loadUserMembership(WorkspaceUserMembershipKey pKey) {
-        return em.find(WorkspaceUserMembership.class, pKey);
+        return ReferenceCacheMetrics.find(em, WorkspaceUserMembership.class, pKey);
     }
 
     public void addUserMembership(Workspace pWorkspace, User pMember) {
@@ -77,7 +77,7 @@ public class UserDAO {
     }
 
     public void removeUserMembership(WorkspaceUserMembershipKey pKey) {
-        WorkspaceUserMembership ms = em.find(WorkspaceUserMembership.class, pKey);
+        WorkspaceUserMembership ms = ReferenceCacheMetrics.find(em, WorkspaceUserMembership.class, pKey);
         if (ms != null) {
             em.remove(ms);
         }
@@ -94,6 +94,18 @@ public class UserDAO {
         return users;
     }
 
+    public int countUsers(String pWorkspaceId) {
+        return ((Number) em.createQuery("SELECT COUNT(u) FROM User u WHERE u.workspaceId = :workspaceId")
+                .setParameter("workspaceId", pWorkspaceId)
+                .getSingleResult()).intValue();
+    }
+
+    public int countWorkspaceUserMemberships(String pWorkspaceId) {
+        return ((Number) em.createQuery("SELECT COUNT(m) FROM WorkspaceUserMembership m WHERE m.workspaceId = :workspaceId")
+                .setParameter("workspaceId", pWorkspaceId)
+                .getSingleResult()).intValue();
+    }
+
     public WorkspaceUserMembership[] findAllWorkspaceUserMemberships(String pWorkspaceId) {
         WorkspaceUserMembership[] memberships;
         Query query = em.createQuery("SELECT DISTINCT m FROM WorkspaceUserMembership m WHERE m.workspaceId = :workspaceId");
@@ -48,7 +48,7 @@ public class UserGroupDAO {
     }
 
     public UserGroup loadUserGroup(UserGroupKey pKey) throws UserGroupNotFoundException {
-        UserGroup group = em.find(UserGroup.class, pKey);
+        UserGroup group = ReferenceCacheMetrics.find(em, UserGroup.class, pKey);
         if (group == null) {
             throw new UserGroupNotFoundException(pKey);
         } else {
@@ -81,7 +81,7 @@ public class UserGroupDAO {
     }
 
     public WorkspaceUserGroupMembership loadUserGroupMembership(WorkspaceUserGroupMembershipKey pKey) throws UserGroupNotFoundException {
-        WorkspaceUserGroupMembership workspaceUserGroupMembership = em.find(WorkspaceUserGroupMembership.class, pKey);
+        WorkspaceUserGroupMembership workspaceUserGroupMembership = ReferenceCacheMetrics.find(em, WorkspaceUserGroupMembership.class, pKey);
         if (workspaceUserGroupMembership == null) {
             throw new UserGroupNotFoundException(new UserGroupKey(pKey.getWorkspaceId(), pKey.getMemberId()));
         } else {
@@ -112,6 +112,18 @@ public class UserGroupDAO {
         }
     }
 
+    public int countUserGroups(String pWorkspaceId) {
+        return ((Number) em.createQuery("SELECT COUNT(g) FROM UserGroup g WHERE g.workspaceId = :workspaceId")
+                .setParameter(WORKSPACE_ID, pWorkspaceId)
+                .getSingleResult()).intValue();
+    }
+
+    public int countWorkspaceUserGroupMemberships(String pWorkspaceId) {
+        return ((Number) em.createQuery("SELECT COUNT(m) FROM WorkspaceUserGroupMembership m WHERE m.workspaceId = :workspaceId")
+                .setParameter(WORKSPACE_ID, pWorkspaceId)
+                .getSingleResult()).intValue();
+    }
+
     public WorkspaceUserGroupMembership[] findAllWorkspaceUserGroupMemberships(String pWorkspaceId) {
         WorkspaceUserGroupMembership[] memberships;
         TypedQuery<WorkspaceUserGroupMembership> query = em.createQuery("SELECT DISTINCT m FROM WorkspaceUserGroupMembership m WHERE m.workspaceId = :workspaceId", WorkspaceUserGroupMembership.class);
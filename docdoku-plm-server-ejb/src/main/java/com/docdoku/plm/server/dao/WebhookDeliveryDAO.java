@@ -0,0 +1,71 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.dao;
+
+import com.docdoku.plm.server.core.hooks.WebhookDelivery;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+
+@RequestScoped
+public class WebhookDeliveryDAO {
+
+    @Inject
+    private EntityManager em;
+
+    public WebhookDeliveryDAO() {
+    }
+
+    public void createDelivery(WebhookDelivery delivery) {
+        em.persist(delivery);
+    }
+
+    public WebhookDelivery findDelivery(long id) {
+        return em.find(WebhookDelivery.class, id);
+    }
+
+    /**
+     * Due deliveries, oldest first, leaving aside the ones of the given webhooks
+     */
+    public List<WebhookDelivery> findDueDeliveries(Date date, int maxResults, Collection<Integer> excludedWebhooks) {
+        TypedQuery<WebhookDelivery> query;
+        if (excludedWebhooks.isEmpty()) {
+            query = em.createNamedQuery("WebhookDelivery.findDue", WebhookDelivery.class);
+        } else {
+            query = em.createNamedQuery("WebhookDelivery.findDueExcept", WebhookDelivery.class)
+                    .setParameter("busy", excludedWebhooks);
+        }
+        return query.setParameter("date", date)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    public void removeDelivery(WebhookDelivery delivery) {
+        em.remove(delivery);
+        em.flush();
+    }
+}
@@ -102,7 +102,7 @@ public class WorkspaceDAO {
     }
 
     public Workspace loadWorkspace(String pID) throws WorkspaceNotFoundException {
-        Workspace workspace = em.find(Workspace.class, pID);
+        Workspace workspace = ReferenceCacheMetrics.find(em, Workspace.class, pID);
         if (workspace == null) {
             throw new WorkspaceNotFoundException(pID);
         } else {
@@ -124,93 +124,186 @@ public class WorkspaceDAO {
                 .getResultList();
     }
 
-    public void removeWorkspace(Workspace workspace) throws StorageException {
+    /**
+     * Ordered steps of a workspace purge. Chunked steps must be run repeatedly until
+     * they process less than the requested chunk size, each call in its own transaction.
+     */
+    public enum PurgeStep {
+        SHARES_AND_SUBSCRIPTIONS(false, false),
+        PRODUCT_INSTANCE_LINKS(true, true),
+        CONFIGURATIONS(false, false),
+        CONFIGURATION_ITEMS_AND_CHANGES(false, false),
+        DOCUMENT_LINKS(true, true),
+        PART_LINKS(true, true),
+        PART_STRUCTURES(false, false),
+        DOCUMENTS(true, false),
+        PARTS(true, false),
+        FOLDERS(false, false),
+        WORKFLOWS(false, false),
+        TAGS_ROLES_AND_LISTS(false, false),
+        USERS_AND_OPTIONS(false, false),
+        WORKSPACE(false, false);
+
+        private final boolean chunked;
+        private final boolean offsetPaged;
+
+        PurgeStep(boolean chunked, boolean offsetPaged) {
+            this.chunked = chunked;
+            this.offsetPaged = offsetPaged;
+        }
 
-        String workspaceId = workspace.getId();
+        public boolean isChunked() {
+            return chunked;
+        }
+
+        /**
+         * Whether the chunks of this step leave their rows in place, so that the
+         * next chunk has to start after them.
+         */
+        public boolean isOffsetPaged() {
+            return offsetPaged;
+        }
+    }
+
+    /**
+     * Runs one unit of work of a workspace purge.
+     *
+     * @param workspaceId the workspace being deleted
+     * @param step        the step to run
+     * @param offset      rows already processed by previous chunks of an offset paged step
+     * @param chunkSize   maximum number of entities loaded by a chunked step
+     * @return the number of purged or processed entities
+     */
+    public int purgeWorkspace(String workspaceId, PurgeStep step, int offset, int chunkSize) {
+        Workspace workspace = ReferenceCacheMetrics.find(em, Workspace.class, workspaceId);
+        if (workspace == null) {
+            return 0;
+        }
         String pathToMatch = workspaceId.replace("_", "\\_").replace("%", "\\%") + "/%";
-        final int batchSize = 1000;
-        int i;
+
+        switch (step) {
+            case SHARES_AND_SUBSCRIPTIONS:
+                return purgeSharesAndSubscriptions(workspace);
+            case PRODUCT_INSTANCE_LINKS:
+                return unlinkProductInstances(workspace, offset, chunkSize);
+            case CONFIGURATIONS:
+                return purgeConfigurations(workspace);
+            case CONFIGURATION_ITEMS_AND_CHANGES:
+                return purgeConfigurationItemsAndChanges(workspace);
+            case DOCUMENT_LINKS:
+                return unlinkDocumentIterations(workspace, offset, chunkSize);
+            case PART_LINKS:
+                return unlinkPartIterations(workspace, offset, chunkSize);
+            case PART_STRUCTURES:
+                return purgePartStructures(workspace);
+            case DOCUMENTS:
+                return removeDocumentMasters(workspace, chunkSize);
+            case PARTS:
+                return removePartMasters(workspace, chunkSize);
+            case FOLDERS:
+                return purgeFolders(workspaceId, pathToMatch);
+            case WORKFLOWS:
+                return purgeWorkflows(workspace);
+            case TAGS_ROLES_AND_LISTS:
+                return purgeTagsRolesAndLists(workspace);
+            case USERS_AND_OPTIONS:
+                return purgeUsersAndOptions(workspace);
+            case WORKSPACE:
+                em.remove(workspace);
+                em.flush();
+                return 1;
+            default:
+                throw new IllegalArgumentException(step.name());
+        }
+    }
+
+    private int purgeSharesAndSubscriptions(Workspace workspace) {
+        String workspaceId = workspace.getId();
+        int purged = 0;
 
         // SharedEntities
-        em.createQuery("DELETE FROM SharedEntity s where s.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM SharedEntity s where s.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Subscriptions
-        em.createQuery("DELETE FROM IterationChangeSubscription s where s.observedDocumentRevisionWorkspaceId = :workspaceId")
+        purged += em.createQuery("DELETE FROM IterationChangeSubscription s where s.observedDocumentRevisionWorkspaceId = :workspaceId")
                 .setParameter(WORKSPACE_ID, workspaceId).executeUpdate();
 
-        em.createQuery("DELETE FROM StateChangeSubscription s where s.observedDocumentRevisionWorkspaceId = :workspaceId")
+        purged += em.createQuery("DELETE FROM StateChangeSubscription s where s.observedDocumentRevisionWorkspaceId = :workspaceId")
                 .setParameter(WORKSPACE_ID, workspaceId).executeUpdate();
 
         // BaselinedPart
-        em.createQuery("DELETE FROM BaselinedPart bp where bp.targetPart.partRevision.partMasterWorkspaceId = :workspaceId")
+        purged += em.createQuery("DELETE FROM BaselinedPart bp where bp.targetPart.partRevision.partMasterWorkspaceId = :workspaceId")
                 .setParameter(WORKSPACE_ID, workspaceId).executeUpdate();
 
         // BaselinedDocument
-        em.createQuery("DELETE FROM BaselinedDocument bd where bd.targetDocument.documentRevision.documentMasterWorkspaceId = :workspaceId")
+        purged += em.createQuery("DELETE FROM BaselinedDocument bd where bd.targetDocument.documentRevision.documentMasterWorkspaceId = :workspaceId")
                 .setParameter(WORKSPACE_ID, workspaceId).executeUpdate();
 
-        i = 0;
-        while (true) {
+        return purged;
+    }
+
+    private int unlinkProductInstances(Workspace workspace, int offset, int chunkSize) {
         List<ProductInstanceIteration> productInstanceIterations =
-                em.createQuery("SELECT pii FROM ProductInstanceIteration pii WHERE pii.productInstanceMaster.instanceOf.workspace = :workspace", ProductInstanceIteration.class)
-                    .setParameter(WORKSPACE, workspace)
-                    .setFirstResult(i)
-                    .setMaxResults(batchSize)
-                    .getResultList();
-            if (productInstanceIterations == null || productInstanceIterations.isEmpty()) {
-                break;
+                em.createQuery("SELECT pii FROM ProductInstanceIteration pii WHERE pii.productInstanceMaster.instanceOf.workspace = :workspace ORDER BY pii.productInstanceMaster.serialNumber, pii.iteration", ProductInstanceIteration.class)
+                        .setParameter(WORKSPACE, workspace)
+                        .setFirstResult(offset)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+        for (ProductInstanceIteration p : productInstanceIterations) {
+            for (DocumentLink documentLink : p.getLinkedDocuments()) {
+                documentLink.removeTargetDocument();
             }
-            for (ProductInstanceIteration p : productInstanceIterations) {
-                for (DocumentLink documentLink : p.getLinkedDocuments()) {
-                    documentLink.removeTargetDocument();
-                }
-                p.setLinkedDocuments(new HashSet<>());
-                for (PathDataMaster pathDataMaster : p.getPathDataMasterList()) {
-                    for (PathDataIteration p2 : pathDataMaster.getPathDataIterations()) {
-                        for (DocumentLink documentLink : p2.getLinkedDocuments()) {
-                            documentLink.removeTargetDocument();
-                        }
-                        p2.setLinkedDocuments(new HashSet<>());
+            p.setLinkedDocuments(new HashSet<>());
+            for (PathDataMaster pathDataMaster : p.getPathDataMasterList()) {
+                for (PathDataIteration p2 : pathDataMaster.getPathDataIterations()) {
+                    for (DocumentLink documentLink : p2.getLinkedDocuments()) {
+                        documentLink.removeTargetDocument();
                     }
+                    p2.setLinkedDocuments(new HashSet<>());
                 }
             }
-            em.flush();
-            em.clear();
-            i += batchSize;
         }
+        em.flush();
+        em.clear();
+        return productInstanceIterations.size();
+    }
+
+    private int purgeConfigurations(Workspace workspace) {
+        String workspaceId = workspace.getId();
+        int purged = 0;
 
         // ProductInstances
-        em.createQuery("DELETE FROM ProductInstanceIteration pii where pii.productInstanceMaster.instanceOf.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ProductInstanceIteration pii where pii.productInstanceMaster.instanceOf.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
-        em.createQuery("DELETE FROM ProductInstanceMaster pim where pim.instanceOf.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ProductInstanceMaster pim where pim.instanceOf.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // ProductBaselines
-        em.createQuery("DELETE FROM ProductBaseline b where b.configurationItem.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ProductBaseline b where b.configurationItem.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // ProductConfigurations
-        em.createQuery("DELETE FROM ProductConfiguration c where c.configurationItem.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ProductConfiguration c where c.configurationItem.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // DocumentBaselines
-        em.createQuery("DELETE FROM DocumentBaseline b where b.author.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM DocumentBaseline b where b.author.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // PartCollection
-        em.createQuery("DELETE FROM PartCollection pc where pc.author.workspaceId = :workspaceId")
+        purged += em.createQuery("DELETE FROM PartCollection pc where pc.author.workspaceId = :workspaceId")
                 .setParameter(WORKSPACE_ID, workspaceId).executeUpdate();
 
         // DocumentCollection
-        em.createQuery("DELETE FROM DocumentCollection dc where dc.author.workspaceId = :workspaceId")
+        purged += em.createQuery("DELETE FROM DocumentCollection dc where dc.author.workspaceId = :workspaceId")
                 .setParameter(WORKSPACE_ID, workspaceId).executeUpdate();
 
         // Layers
-        em.createQuery("DELETE FROM Layer l where l.configurationItem.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM Layer l where l.configurationItem.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
         // Markers
-        em.createQuery("DELETE FROM Marker m where m.author.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM Marker m where m.author.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Reset effectivities constraints on configuration items
@@ -218,151 +311,156 @@ public class WorkspaceDAO {
         em.flush();
         em.clear();
 
+        return purged;
+    }
+
+    private int purgeConfigurationItemsAndChanges(Workspace workspace) {
+        int purged = 0;
+
         // ConfigurationItem
-        em.createQuery("DELETE FROM ConfigurationItem c where c.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ConfigurationItem c where c.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // DocumentMasterTemplate
-        em.createQuery("DELETE FROM DocumentMasterTemplate d where d.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM DocumentMasterTemplate d where d.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // PartMasterTemplate
-        em.createQuery("DELETE FROM PartMasterTemplate p where p.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM PartMasterTemplate p where p.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Conversions
-        em.createQuery("DELETE FROM Conversion c where c.partIteration.partRevision.partMaster.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM Conversion c where c.partIteration.partRevision.partMaster.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
+        purged += em.createNamedQuery("ConversionTask.removeByWorkspace")
+                .setParameter(WORKSPACE_ID, workspace.getId()).executeUpdate();
+        purged += em.createNamedQuery("ConversionCacheEntry.removeByWorkspace")
+                .setParameter(WORKSPACE_ID, workspace.getId()).executeUpdate();
 
         // Notifications
-        em.createQuery("DELETE FROM ModificationNotification m where m.impactedPart.partRevision.partMaster.workspace = :workspace or m.modifiedPart.partRevision.partMaster.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ModificationNotification m where m.impactedPart.partRevision.partMaster.workspace = :workspace or m.modifiedPart.partRevision.partMaster.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Change order
-        em.createQuery("DELETE FROM ChangeOrder c where c.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ChangeOrder c where c.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Change requests
-        em.createQuery("DELETE FROM ChangeRequest c where c.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ChangeRequest c where c.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Change issues
-        em.createQuery("DELETE FROM ChangeIssue c where c.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ChangeIssue c where c.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Change issues / requests
-        em.createQuery("DELETE FROM Milestone m where m.workspace = :workspace")
-                .setParameter(WORKSPACE, workspace).executeUpdate();
-
-        i = 0;
-        while (true) {
-            List<DocumentIteration> documentIterations =
-                    em.createQuery("SELECT d FROM DocumentIteration d WHERE d.documentRevision.documentMaster.workspace = :workspace", DocumentIteration.class)
-                            .setParameter(WORKSPACE, workspace)
-                            .setFirstResult(i)
-                            .setMaxResults(batchSize)
-                            .getResultList();
-            if (documentIterations == null || documentIterations.isEmpty()) {
-                break;
-            }
-            for (DocumentIteration d : documentIterations) {
-                for (DocumentLink documentLink : d.getLinkedDocuments()) {
-                    documentLink.removeTargetDocument();
-                }
-                d.setLinkedDocuments(new HashSet<>());
+        purged += em.createQuery("DELETE FROM Milestone m where m.workspace = :workspace")
+                .setParameter(WORKSPACE, workspace).executeUpdate();
+
+        return purged;
+    }
+
+    private int unlinkDocumentIterations(Workspace workspace, int offset, int chunkSize) {
+        List<DocumentIteration> documentIterations =
+                em.createQuery("SELECT d FROM DocumentIteration d WHERE d.documentRevision.documentMaster.workspace = :workspace ORDER BY d.documentRevision.documentMaster.id, d.documentRevision.version, d.iteration", DocumentIteration.class)
+                        .setParameter(WORKSPACE, workspace)
+                        .setFirstResult(offset)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+        for (DocumentIteration d : documentIterations) {
+            for (DocumentLink documentLink : d.getLinkedDocuments()) {
+                documentLink.removeTargetDocument();
             }
-            em.flush();
-            em.clear();
-            i += batchSize;
+            d.setLinkedDocuments(new HashSet<>());
         }
+        em.flush();
+        em.clear();
+        return documentIterations.size();
+    }
 
-        i = 0;
-        while (true) {
-            List<PartIteration> partIterations =
-                    em.createQuery("SELECT p FROM PartIteration p WHERE p.partRevision.partMaster.workspace = :workspace", PartIteration.class)
+    private int unlinkPartIterations(Workspace workspace, int offset, int chunkSize) {
+        List<PartIteration> partIterations =
+                em.createQuery("SELECT p FROM PartIteration p WHERE p.partRevision.partMaster.workspace = :workspace ORDER BY p.partRevision.partMaster.number, p.partRevision.version, p.iteration", PartIteration.class)
                         .setParameter(WORKSPACE, workspace)
-                        .setFirstResult(i)
-                        .setMaxResults(batchSize)
+                        .setFirstResult(offset)
+                        .setMaxResults(chunkSize)
                         .getResultList();
-            if (partIterations == null || partIterations.isEmpty()) {
-                break;
+        for (PartIteration p : partIterations) {
+            for (DocumentLink documentLink : p.getLinkedDocuments()) {
+                documentLink.removeTargetDocument();
             }
-            for (PartIteration p : partIterations) {
-                for (DocumentLink documentLink : p.getLinkedDocuments()) {
-                      documentLink.removeTargetDocument();
-                }
-                p.setLinkedDocuments(new HashSet<>());
-                for (PartUsageLink pul : p.getComponents()) {
-                    pul.setSubstitutes(new LinkedList<>());
-                }
-                p.setComponents(new LinkedList<>());
+            p.setLinkedDocuments(new HashSet<>());
+            for (PartUsageLink pul : p.getComponents()) {
+                pul.setSubstitutes(new LinkedList<>());
             }
-            em.flush();
-            em.clear();
-            i += batchSize;
+            p.setComponents(new LinkedList<>());
         }
+        em.flush();
+        em.clear();
+        return partIterations.size();
+    }
+
+    private int purgePartStructures(Workspace workspace) {
+        int purged = 0;
 
         // Clear all part substitute links
-        em.createQuery("DELETE FROM PartSubstituteLink psl WHERE psl.substitute.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM PartSubstituteLink psl WHERE psl.substitute.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Clear all part usage links
-        em.createQuery("DELETE FROM PartUsageLink pul WHERE pul.component.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM PartUsageLink pul WHERE pul.component.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         workflowDAO.removeWorkflowConstraints(workspace);
         em.flush();
 
-        // remove documents
-        while (true) {
-            List<DocumentMaster> documentMasters =
-                    em.createQuery("SELECT d FROM DocumentMaster d WHERE d.workspace = :workspace", DocumentMaster.class)
-                            .setParameter(WORKSPACE, workspace)
-                            .setFirstResult(0)
-                            .setMaxResults(batchSize)
-                            .getResultList();
-            if (documentMasters == null || documentMasters.isEmpty()) {
-                break;
-            }
-            for (DocumentMaster documentMaster : documentMasters) {
-                em.remove(documentMaster);
-            }
-            em.flush();
-            em.clear();
+        return purged;
+    }
+
+    private int removeDocumentMasters(Workspace workspace, int chunkSize) {
+        List<DocumentMaster> documentMasters =
+                em.createQuery("SELECT d FROM DocumentMaster d WHERE d.workspace = :workspace", DocumentMaster.class)
+                        .setParameter(WORKSPACE, workspace)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+        for (DocumentMaster documentMaster : documentMasters) {
+            em.remove(documentMaster);
         }
+        em.flush();
+        em.clear();
+        return documentMasters.size();
+    }
 
-        // remove parts
-        while (true) {
-            List<PartMaster> partMasters =
+    private int removePartMasters(Workspace workspace, int chunkSize) {
+        List<PartMaster> partMasters =
                 em.createQuery("SELECT p FROM PartMaster p WHERE p.workspace = :workspace", PartMaster.class)
                         .setParameter(WORKSPACE, workspace)
-                        .setFirstResult(0)
-                        .setMaxResults(batchSize)
+                        .setMaxResults(chunkSize)
                         .getResultList();
-            if (partMasters == null || partMasters.isEmpty()) {
-                break;
-            }
-            for (PartMaster partMaster : partMasters) {
-                em.remove(partMaster);
-            }
-            em.flush();
-            em.clear();
+        for (PartMaster partMaster : partMasters) {
+            em.remove(partMaster);
         }
+        em.flush();
+        em.clear();
+        return partMasters.size();
+    }
 
-
-        // Delete folders
+    private int purgeFolders(String workspaceId, String pathToMatch) {
         em.createQuery("UPDATE Folder f SET f.parentFolder = NULL WHERE f.parentFolder.completePath = :workspaceId OR f.parentFolder.completePath LIKE :pathToMatch")
                 .setParameter(WORKSPACE_ID, workspaceId)
                 .setParameter("pathToMatch", pathToMatch)
                 .executeUpdate();
 
-        em.createQuery("DELETE FROM Folder f where f.completePath = :workspaceId OR f.completePath LIKE :pathToMatch")
+        int purged = em.createQuery("DELETE FROM Folder f where f.completePath = :workspaceId OR f.completePath LIKE :pathToMatch")
                 .setParameter(WORKSPACE_ID, workspaceId)
                 .setParameter("pathToMatch", pathToMatch)
                 .executeUpdate();
 
         em.flush();
+        return purged;
+    }
 
+    private int purgeWorkflows(Workspace workspace) {
         List<WorkflowModel> workflowModels =
                 em.createQuery("SELECT w FROM WorkflowModel w WHERE w.workspace = :workspace", WorkflowModel.class)
                         .setParameter(WORKSPACE, workspace).getResultList();
@@ -383,46 +481,59 @@ public class WorkspaceDAO {
         em.flush();
         em.clear();
 
+        return workflowModels.size() + workspaceWorkflowList.size();
+    }
+
+    private int purgeTagsRolesAndLists(Workspace workspace) {
+        String workspaceId = workspace.getId();
+        int purged = 0;
+
         // Tags subscriptions
-        em.createQuery("DELETE FROM TagUserSubscription t where t.tag.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM TagUserSubscription t where t.tag.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
-        em.createQuery("DELETE FROM TagUserGroupSubscription t where t.tag.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM TagUserGroupSubscription t where t.tag.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Tags
-        em.createQuery("DELETE FROM Tag t where t.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM Tag t where t.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
         // Roles
-        em.createQuery("DELETE FROM Role r where r.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM Role r where r.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // LOV
-        em.createQuery("DELETE FROM ListOfValuesAttributeTemplate lovat where lovat.lov.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ListOfValuesAttributeTemplate lovat where lovat.lov.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
-        em.createQuery("DELETE FROM ListOfValues lov where lov.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ListOfValues lov where lov.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Query
-        em.createQuery("DELETE FROM QueryContext qc where qc.workspaceId = :workspaceId")
+        purged += em.createQuery("DELETE FROM QueryContext qc where qc.workspaceId = :workspaceId")
                 .setParameter(WORKSPACE_ID, workspaceId).executeUpdate();
-        em.createQuery("DELETE FROM Query q where q.author.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM Query q where q.author.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
+        return purged;
+    }
+
+    private int purgeUsersAndOptions(Workspace workspace) {
+        int purged = 0;
+
         // WorkspaceUserGroupMembership
-        em.createQuery("DELETE FROM WorkspaceUserGroupMembership w where w.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM WorkspaceUserGroupMembership w where w.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // WorkspaceUserMembership
-        em.createQuery("DELETE FROM WorkspaceUserMembership w where w.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM WorkspaceUserMembership w where w.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // ACL User groups
-        em.createQuery("DELETE FROM ACLUserGroupEntry acl where acl.principal.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ACLUserGroupEntry acl where acl.principal.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // User groups
-        em.createQuery("DELETE FROM UserGroup u where u.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM UserGroup u where u.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         List<UserGroup> userGroups =
@@ -438,40 +549,40 @@ public class WorkspaceDAO {
         em.clear();
 
         // Imports
-        em.createQuery("DELETE FROM Import i where i.user.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM Import i where i.user.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // ACL Users
-        em.createQuery("DELETE FROM ACLUserEntry acl where acl.principal.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM ACLUserEntry acl where acl.principal.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // Users
-        em.createQuery("DELETE FROM User u where u.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM User u where u.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         em.flush();
 
+        // Pending webhook deliveries
+        purged += em.createNamedQuery("WebhookDelivery.removeByWorkspace")
+                .setParameter(WORKSPACE_ID, workspace.getId()).executeUpdate();
+
+        // Pending purge tasks, the vault and the indices of the workspace go as a whole
+        purged += em.createNamedQuery("PurgeTask.removeByWorkspace")
+                .setParameter(WORKSPACE_ID, workspace.getId()).executeUpdate();
+
         // Webhooks
-        em.createQuery("DELETE FROM Webhook w where w.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM Webhook w where w.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // WorkspaceBackOptions
-        em.createQuery("DELETE FROM WorkspaceBackOptions n where n.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM WorkspaceBackOptions n where n.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
         // WorkspaceFrontOptions
-        em.createQuery("DELETE FROM WorkspaceFrontOptions wo where wo.workspace = :workspace")
+        purged += em.createQuery("DELETE FROM WorkspaceFrontOptions wo where wo.workspace = :workspace")
                 .setParameter(WORKSPACE, workspace).executeUpdate();
 
-        //If em has been cleared workspace is not attached anymore and thus remove will fail
-        if (!em.contains(workspace)) {
-            workspace = em.merge(workspace);
-        }
-        // Finally delete the workspace
-        em.remove(workspace);
-
-        em.flush();
-        em.clear();
+        return purged + userGroups.size();
     }
 
     public List<Workspace> getAll() {
@@ -28,10 +28,20 @@ public class PartRevisionEvent {
 
     private PartRevision observedPart;
 
+    /**
+     * Set on removal events when the revision was the last one of its part master, removed along with it
+     */
+    private boolean partMasterRemoved;
+
     public PartRevisionEvent(PartRevision observedPart) {
         this.observedPart = observedPart;
     }
 
+    public PartRevisionEvent(PartRevision observedPart, boolean partMasterRemoved) {
+        this.observedPart = observedPart;
+        this.partMasterRemoved = partMasterRemoved;
+    }
+
     public PartRevision getObservedPart() {
         return observedPart;
     }
@@ -39,4 +49,12 @@ public class PartRevisionEvent {
     public void setObservedPart(PartRevision observedPart) {
         this.observedPart = observedPart;
     }
+
+    public boolean isPartMasterRemoved() {
+        return partMasterRemoved;
+    }
+
+    public void setPartMasterRemoved(boolean partMasterRemoved) {
+        this.partMasterRemoved = partMasterRemoved;
+    }
 }
@@ -20,55 +20,43 @@
 package com.docdoku.plm.server.hooks;
 
 
-import com.amazonaws.auth.AWSStaticCredentialsProvider;
-import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.regions.Regions;
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.sns.AmazonSNS;
-import com.amazonaws.services.sns.AmazonSNSClient;
 import com.amazonaws.services.sns.model.PublishRequest;
 import com.docdoku.plm.server.core.hooks.SNSWebhookApp;
 import com.docdoku.plm.server.core.hooks.Webhook;
 
 import javax.json.Json;
 import javax.json.JsonObjectBuilder;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.function.Function;
 
 public class SNSWebhookRunner implements WebhookRunner {
 
-    private static final Logger LOGGER = Logger.getLogger(SNSWebhookRunner.class.getName());
+    private final Function<SNSWebhookApp, AmazonSNS> snsClients;
 
-    public SNSWebhookRunner() {
+    /**
+     * @param snsClients gives the shared client matching the region and credentials of a webhook
+     */
+    public SNSWebhookRunner(Function<SNSWebhookApp, AmazonSNS> snsClients) {
+        this.snsClients = snsClients;
     }
 
     @Override
-    public void run(Webhook webhook, String login, String email, String name, String subject, String content) {
+    public void run(Webhook webhook, String login, String email, String name, String subject, String content) throws WebhookDeliveryException {
 
         SNSWebhookApp webhookApp = (SNSWebhookApp) webhook.getWebhookApp();
         String topicArn = webhookApp.getTopicArn();
-        String awsAccount = webhookApp.getAwsAccount();
-        String awsSecret = webhookApp.getAwsSecret();
-        String region = webhookApp.getRegion();
-        //AmazonSNSClient snsClient = new AmazonSNSClient(new BasicAWSCredentials(awsAccount, awsSecret));
-        //snsClient.setRegion(Region.getRegion(Regions.fromName(region)));
-
-
-        AmazonSNS snsClient = AmazonSNSClient.builder()
-                .withRegion(Regions.fromName(region))
-                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(awsAccount, awsSecret)))
-                .build();
-
 
         try {
+            AmazonSNS snsClient = snsClients.apply(webhookApp);
             PublishRequest publishReq = new PublishRequest()
                     .withTopicArn(topicArn)
                     .withMessage(getMessage(login, email, name, subject, content));
             snsClient.publish(publishReq);
-
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Cannot send notification to SNS service", e);
-        } finally {
-            LOGGER.log(Level.INFO, "Webhook runner terminated");
+        } catch (AmazonClientException e) {
+            throw new WebhookDeliveryException("Cannot send notification to SNS service", e, e.isRetryable());
+        } catch (IllegalArgumentException e) {
+            throw new WebhookDeliveryException("Invalid SNS webhook configuration", e, false);
         }
     }
 
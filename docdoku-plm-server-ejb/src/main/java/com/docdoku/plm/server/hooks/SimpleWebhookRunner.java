@@ -28,14 +28,13 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
 import com.docdoku.plm.server.core.hooks.SimpleWebhookApp;
 import com.docdoku.plm.server.core.hooks.Webhook;
-import com.docdoku.plm.server.converters.ConverterUtils;
 
 import javax.json.Json;
 import javax.json.JsonObjectBuilder;
-import java.io.InputStream;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -44,18 +43,23 @@ public class SimpleWebhookRunner implements WebhookRunner {
 
     private static final Logger LOGGER = Logger.getLogger(SimpleWebhookRunner.class.getName());
 
-    public SimpleWebhookRunner() {
+    private final HttpClient httpClient;
+
+    /**
+     * @param httpClient shared client, its connections are kept alive between deliveries
+     */
+    public SimpleWebhookRunner(HttpClient httpClient) {
+        this.httpClient = httpClient;
     }
 
     @Override
-    public void run(Webhook webhook, String login, String email, String name, String subject, String content) {
+    public void run(Webhook webhook, String login, String email, String name, String subject, String content) throws WebhookDeliveryException {
 
         SimpleWebhookApp webhookApp = (SimpleWebhookApp) webhook.getWebhookApp();
         String method = webhookApp.getMethod();
         String uri = webhookApp.getUri();
         String authorization = webhookApp.getAuthorization();
 
-        HttpClient httpClient = HttpClientBuilder.create().build();
         HttpUriRequest request;
 
         try {
@@ -74,21 +78,25 @@ public class SimpleWebhookRunner implements WebhookRunner {
                     request = addGetParams(requestBuilder, login, email, name, subject, content);
                     break;
                 default:
-                    LOGGER.log(Level.SEVERE, "Unsupported method " + method);
-                    return;
+                    throw new WebhookDeliveryException("Unsupported method " + method, false);
             }
 
             request.addHeader("authorization", authorization);
             HttpResponse response = httpClient.execute(request);
-            try (InputStream is = response.getEntity().getContent()) {
-                String s = ConverterUtils.inputStreamToString(is);
-                LOGGER.log(Level.INFO, "Webhook response status " + response.getStatusLine() + " \n\t " + s);
+            int status = response.getStatusLine().getStatusCode();
+            // Reading the whole response gives the connection back to the pool
+            String body = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : "";
+            LOGGER.log(Level.FINE, "Webhook response status " + response.getStatusLine() + " \n\t " + body);
+
+            if (status >= 300) {
+                boolean retryable = status >= 500 || status == 429 || status == 408;
+                throw new WebhookDeliveryException("Webhook " + webhook.getName() + " responded " + response.getStatusLine(), retryable);
             }
 
-        } catch (Exception ex) {
-            LOGGER.log(Level.SEVERE, null, ex);
-        } finally {
-            LOGGER.log(Level.SEVERE, "Webhook runner terminated");
+        } catch (IllegalArgumentException ex) {
+            throw new WebhookDeliveryException("Invalid webhook uri " + uri, ex, false);
+        } catch (IOException ex) {
+            throw new WebhookDeliveryException("Cannot reach webhook " + webhook.getName(), ex, true);
         }
 
     }
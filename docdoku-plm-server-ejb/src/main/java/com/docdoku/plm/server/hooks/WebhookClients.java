@@ -0,0 +1,119 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.hooks;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sns.AmazonSNSClient;
+import com.docdoku.plm.server.core.hooks.SNSWebhookApp;
+import com.docdoku.plm.server.core.hooks.SimpleWebhookApp;
+import com.docdoku.plm.server.core.hooks.Webhook;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Clients shared by all webhook deliveries: a pooled HTTP client and one SNS client
+ * per region and credentials.
+ * <p>
+ * The pool caps the connections opened to a single receiver, which bounds the
+ * concurrency per endpoint.
+ */
+@ApplicationScoped
+public class WebhookClients {
+
+    static final int MAX_CONNECTIONS = 64;
+    static final int MAX_CONNECTIONS_PER_ENDPOINT = 4;
+
+    private static final int CONNECT_TIMEOUT_MS = 5_000;
+    private static final int SOCKET_TIMEOUT_MS = 15_000;
+
+    private static final Logger LOGGER = Logger.getLogger(WebhookClients.class.getName());
+
+    private final Map<String, AmazonSNS> snsClients = new ConcurrentHashMap<>();
+
+    private CloseableHttpClient httpClient;
+
+    @PostConstruct
+    private void init() {
+        httpClient = createHttpClient();
+    }
+
+    @PreDestroy
+    private void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, null, e);
+        }
+        snsClients.values().forEach(AmazonSNS::shutdown);
+        snsClients.clear();
+    }
+
+    static CloseableHttpClient createHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ENDPOINT);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT_MS)
+                .setConnectionRequestTimeout(SOCKET_TIMEOUT_MS)
+                .setSocketTimeout(SOCKET_TIMEOUT_MS)
+                .build();
+        return HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+    }
+
+    /**
+     * @return the runner for the given webhook, or null if its application is not supported
+     */
+    public WebhookRunner getRunner(Webhook webhook) {
+        switch (webhook.getAppName()) {
+            case SNSWebhookApp.APP_NAME:
+                return new SNSWebhookRunner(this::getSNSClient);
+            case SimpleWebhookApp.APP_NAME:
+                return new SimpleWebhookRunner(httpClient);
+            default:
+                return null;
+        }
+    }
+
+    private AmazonSNS getSNSClient(SNSWebhookApp webhookApp) {
+        String key = webhookApp.getRegion() + '|' + webhookApp.getAwsAccount() + '|' + webhookApp.getAwsSecret();
+        return snsClients.computeIfAbsent(key, k -> AmazonSNSClient.builder()
+                .withRegion(Regions.fromName(webhookApp.getRegion()))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(webhookApp.getAwsAccount(), webhookApp.getAwsSecret())))
+                .build());
+    }
+}
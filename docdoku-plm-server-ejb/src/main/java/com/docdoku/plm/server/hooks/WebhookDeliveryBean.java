@@ -0,0 +1,189 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.hooks;
+
+import com.docdoku.plm.server.core.exceptions.WebhookNotFoundException;
+import com.docdoku.plm.server.core.hooks.Webhook;
+import com.docdoku.plm.server.core.hooks.WebhookDelivery;
+import com.docdoku.plm.server.dao.WebhookDAO;
+import com.docdoku.plm.server.dao.WebhookDeliveryDAO;
+import com.docdoku.plm.server.queue.RetryQueue;
+
+import javax.annotation.Resource;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queues webhook notifications and delivers them.
+ * <p>
+ * Notifications are persisted in the caller's transaction, then sent in batches per
+ * webhook by {@link WebhookDeliveryScheduler}. Every delivery outcome is committed on
+ * its own so that a crash at worst sends a notification twice.
+ */
+@Stateless(name = "WebhookDeliveryBean")
+public class WebhookDeliveryBean {
+
+    /**
+     * A batch renews the lease of its remaining deliveries once half of it has elapsed
+     */
+    static final RetryQueue RETRY_QUEUE = new RetryQueue(8, 30 * 1000, 60 * 60 * 1000, 5 * 60 * 1000);
+
+    private static final WebhookMetrics METRICS = new WebhookMetrics();
+
+    private static final Logger LOGGER = Logger.getLogger(WebhookDeliveryBean.class.getName());
+
+    @Resource
+    private SessionContext ctx;
+
+    @Inject
+    private WebhookDAO webhookDAO;
+
+    @Inject
+    private WebhookDeliveryDAO webhookDeliveryDAO;
+
+    @Inject
+    private WebhookClients webhookClients;
+
+    public static WebhookMetrics getMetrics() {
+        return METRICS;
+    }
+
+    public void enqueue(List<Webhook> webhooks, String login, String email, String name, String subject, String content) {
+        for (Webhook webhook : webhooks) {
+            webhookDeliveryDAO.createDelivery(new WebhookDelivery(webhook, login, email, name, subject, content));
+        }
+    }
+
+    /**
+     * Leases the due deliveries so that no other node picks them up meanwhile.
+     *
+     * @param busyWebhooks webhooks whose previous batch is still being sent, left aside
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<WebhookDelivery> claimDueDeliveries(int maxResults, Set<Integer> busyWebhooks) {
+        List<WebhookDelivery> claimed = webhookDeliveryDAO.findDueDeliveries(new Date(), maxResults, busyWebhooks);
+        RETRY_QUEUE.lease(claimed);
+        return claimed;
+    }
+
+    /**
+     * Extends the lease of deliveries still to be sent by a running batch
+     *
+     * @return the end of the new lease
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public Date renewLease(List<WebhookDelivery> deliveries) {
+        List<WebhookDelivery> managed = new ArrayList<>();
+        for (WebhookDelivery delivery : deliveries) {
+            WebhookDelivery remaining = webhookDeliveryDAO.findDelivery(delivery.getId());
+            if (remaining != null) {
+                managed.add(remaining);
+            }
+        }
+        return RETRY_QUEUE.lease(managed);
+    }
+
+    /**
+     * Sends the batch in order, over the shared connection pool. The batch stops at the first
+     * failure which may be retried, the remaining deliveries are sent again once their lease ends.
+     */
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public Future<Integer> deliver(int webhookId, List<WebhookDelivery> batch) {
+        WebhookDeliveryBean self = ctx.getBusinessObject(WebhookDeliveryBean.class);
+        METRICS.batchStarted();
+        int delivered = 0;
+        try {
+            Webhook webhook;
+            try {
+                webhook = webhookDAO.loadWebhook(webhookId);
+            } catch (WebhookNotFoundException e) {
+                webhook = null;
+            }
+            WebhookRunner runner = webhook != null && webhook.isActive() ? webhookClients.getRunner(webhook) : null;
+
+            if (runner == null) {
+                LOGGER.log(Level.WARNING, "Dropping " + batch.size() + " notification(s) of removed, inactive or unsupported webhook " + webhookId);
+                for (WebhookDelivery delivery : batch) {
+                    self.recordFailure(delivery.getId(), "Webhook unavailable", false);
+                }
+                return new AsyncResult<>(0);
+            }
+
+            Date leaseEnd = batch.get(0).getNextAttempt();
+            for (int i = 0; i < batch.size(); i++) {
+                WebhookDelivery delivery = batch.get(i);
+                if (System.currentTimeMillis() > leaseEnd.getTime() - RETRY_QUEUE.getLeaseMillis() / 2) {
+                    leaseEnd = self.renewLease(batch.subList(i, batch.size()));
+                }
+                long start = System.nanoTime();
+                try {
+                    runner.run(webhook, delivery.getLogin(), delivery.getEmail(), delivery.getName(), delivery.getSubject(), delivery.getContent());
+                    METRICS.attempted(System.nanoTime() - start);
+                    self.recordSuccess(delivery.getId());
+                    delivered++;
+                } catch (WebhookDeliveryException e) {
+                    METRICS.attempted(System.nanoTime() - start);
+                    LOGGER.log(Level.WARNING, e.getMessage());
+                    LOGGER.log(Level.FINE, null, e);
+                    self.recordFailure(delivery.getId(), e.getMessage(), e.isRetryable());
+                    if (e.isRetryable()) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            METRICS.batchEnded();
+        }
+        return new AsyncResult<>(delivered);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void recordSuccess(long deliveryId) {
+        WebhookDelivery delivery = webhookDeliveryDAO.findDelivery(deliveryId);
+        if (delivery != null) {
+            METRICS.delivered(System.currentTimeMillis() - delivery.getCreationDate().getTime());
+            webhookDeliveryDAO.removeDelivery(delivery);
+        }
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void recordFailure(long deliveryId, String error, boolean retryable) {
+        WebhookDelivery delivery = webhookDeliveryDAO.findDelivery(deliveryId);
+        if (delivery == null) {
+            return;
+        }
+        if (retryable && RETRY_QUEUE.retry(delivery, error)) {
+            METRICS.retried();
+        } else {
+            LOGGER.log(Level.SEVERE, "Giving up webhook notification " + deliveryId + " after " + (delivery.getAttempts() + 1) + " attempt(s): " + error);
+            METRICS.abandoned();
+            webhookDeliveryDAO.removeDelivery(delivery);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.hooks;
+
+import com.docdoku.plm.server.core.hooks.WebhookDelivery;
+import com.docdoku.plm.server.queue.Sweeper;
+
+import javax.ejb.EJBException;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drains the webhook delivery queue: due deliveries are grouped per webhook and each
+ * group is sent as one batch, never more than one batch at a time for a given webhook.
+ */
+@ApplicationScoped
+public class WebhookDeliveryScheduler implements Sweeper {
+
+    private final static int MAX_CLAIMED_DELIVERIES = 500;
+    private final static long PERIOD_MS = 5 * 1000;
+    private Logger LOGGER = Logger.getLogger(WebhookDeliveryScheduler.class.getName());
+
+    private final Map<Integer, Future<Integer>> batchesInFlight = new HashMap<>();
+
+    @Inject
+    private WebhookDeliveryBean webhookDeliveryBean;
+
+    @Override
+    public long getPeriodMillis() {
+        return PERIOD_MS;
+    }
+
+    @Override
+    public void sweep() {
+        batchesInFlight.values().removeIf(Future::isDone);
+
+        List<WebhookDelivery> deliveries;
+        try {
+            deliveries = webhookDeliveryBean.claimDueDeliveries(MAX_CLAIMED_DELIVERIES, new HashSet<>(batchesInFlight.keySet()));
+        } catch (EJBException e) {
+            // Most likely claimed by another node in the meantime
+            LOGGER.log(Level.FINE, "Cannot claim webhook deliveries", e);
+            return;
+        }
+
+        Map<Integer, List<WebhookDelivery>> batches = new LinkedHashMap<>();
+        for (WebhookDelivery delivery : deliveries) {
+            batches.computeIfAbsent(delivery.getWebhookId(), id -> new ArrayList<>()).add(delivery);
+        }
+        for (Map.Entry<Integer, List<WebhookDelivery>> batch : batches.entrySet()) {
+            batchesInFlight.put(batch.getKey(), webhookDeliveryBean.deliver(batch.getKey(), batch.getValue()));
+        }
+    }
+
+}
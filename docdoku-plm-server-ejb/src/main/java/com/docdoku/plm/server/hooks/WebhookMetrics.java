@@ -0,0 +1,104 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.hooks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the webhook delivery engine
+ */
+public class WebhookMetrics implements WebhookMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.docdoku.plm:type=Webhooks";
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder deliveryNanos = new LongAdder();
+    private final LongAccumulator maxDeliveryNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder queueLatencyMillis = new LongAdder();
+    private final AtomicInteger batchesInFlight = new AtomicInteger();
+
+    public void attempted(long nanos) {
+        deliveryNanos.add(nanos);
+        maxDeliveryNanos.accumulate(nanos);
+    }
+
+    public void delivered(long queuedMillis) {
+        delivered.increment();
+        queueLatencyMillis.add(queuedMillis);
+    }
+
+    public void retried() {
+        retried.increment();
+    }
+
+    public void abandoned() {
+        abandoned.increment();
+    }
+
+    public void batchStarted() {
+        batchesInFlight.incrementAndGet();
+    }
+
+    public void batchEnded() {
+        batchesInFlight.decrementAndGet();
+    }
+
+    @Override
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    @Override
+    public long getRetriedCount() {
+        return retried.sum();
+    }
+
+    @Override
+    public long getAbandonedCount() {
+        return abandoned.sum();
+    }
+
+    @Override
+    public long getMeanDeliveryMillis() {
+        long attempts = delivered.sum() + retried.sum() + abandoned.sum();
+        return attempts == 0 ? 0 : deliveryNanos.sum() / attempts / 1_000_000;
+    }
+
+    @Override
+    public long getMaxDeliveryMillis() {
+        return maxDeliveryNanos.get() / 1_000_000;
+    }
+
+    @Override
+    public long getMeanQueueLatencyMillis() {
+        long count = delivered.sum();
+        return count == 0 ? 0 : queueLatencyMillis.sum() / count;
+    }
+
+    @Override
+    public int getBatchesInFlight() {
+        return batchesInFlight.get();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.hooks;
+
+/**
+ * Webhook delivery statistics, published on JMX as {@value WebhookMetrics#OBJECT_NAME}
+ */
+public interface WebhookMetricsMXBean {
+
+    long getDeliveredCount();
+
+    long getRetriedCount();
+
+    long getAbandonedCount();
+
+    /**
+     * @return the mean time spent sending a notification to its receiver, in milliseconds
+     */
+    long getMeanDeliveryMillis();
+
+    /**
+     * @return the longest time spent sending a notification to its receiver, in milliseconds
+     */
+    long getMaxDeliveryMillis();
+
+    /**
+     * @return the mean time between queuing and successful delivery of a notification, in milliseconds
+     */
+    long getMeanQueueLatencyMillis();
+
+    int getBatchesInFlight();
+}
@@ -22,5 +22,5 @@ package com.docdoku.plm.server.hooks;
 import com.docdoku.plm.server.core.hooks.Webhook;
 
 public interface WebhookRunner {
-    void run(Webhook webhook, String login, String email, String name, String subject, String content);
+    void run(Webhook webhook, String login, String email, String name, String subject, String content) throws WebhookDeliveryException;
 }
@@ -0,0 +1,372 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.indexer;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.document.DocumentIteration;
+import com.docdoku.plm.server.core.document.DocumentIterationKey;
+import com.docdoku.plm.server.core.document.DocumentMaster;
+import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.exceptions.*;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartIterationKey;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.query.DocumentSearchQuery;
+import com.docdoku.plm.server.core.query.PartSearchQuery;
+import com.docdoku.plm.server.core.security.UserGroupMapping;
+import com.docdoku.plm.server.core.services.*;
+import com.docdoku.plm.server.dao.DocumentMasterDAO;
+import com.docdoku.plm.server.dao.PartMasterDAO;
+import com.docdoku.plm.server.dao.WorkspaceDAO;
+import com.docdoku.plm.server.i18n.PropertiesLoader;
+import com.docdoku.plm.server.indexer.embedded.LuceneDocumentMapper;
+import com.docdoku.plm.server.indexer.embedded.LuceneIndexStore;
+import com.docdoku.plm.server.indexer.embedded.LuceneQueryBuilder;
+import com.docdoku.plm.server.indexer.util.IndexerMapping;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.search.Query;
+
+import javax.annotation.security.DeclareRoles;
+import javax.annotation.security.RolesAllowed;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Indexer services backed by the embedded Lucene indexes of {@link LuceneIndexStore},
+ * for deployments without an Elasticsearch cluster
+ */
+@Stateless(name = "EmbeddedIndexerManagerBean")
+@Local(IIndexerManagerLocal.class)
+@IndexerBackend(IndexerBackend.Type.EMBEDDED)
+@DeclareRoles({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
+public class EmbeddedIndexerManagerBean implements IIndexerManagerLocal {
+
+    @Inject
+    private LuceneIndexStore indexStore;
+
+    @Inject
+    private IndexerTextExtractor textExtractor;
+
+    @Inject
+    private IndexerResultsMapper indexerResultsMapper;
+
+    @Inject
+    private DocumentMasterDAO documentMasterDAO;
+
+    @Inject
+    private PartMasterDAO partMasterDAO;
+
+    @Inject
+    private WorkspaceDAO workspaceDAO;
+
+    @Inject
+    private IAccountManagerLocal accountManager;
+
+    @Inject
+    private INotifierLocal mailer;
+
+    @Inject
+    private IContextManagerLocal contextManager;
+
+    @Inject
+    private IUserManagerLocal userManager;
+
+    private static final String I18N_CONF = "/com/docdoku/plm/server/core/i18n/LocalStrings";
+    private static final Logger LOGGER = Logger.getLogger(EmbeddedIndexerManagerBean.class.getName());
+    private static final int BULK_SIZE = 50;
+
+    @Override
+    public boolean ping() {
+        return true;
+    }
+
+    @Override
+    @RolesAllowed({UserGroupMapping.ADMIN_ROLE_ID, UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public void createWorkspaceIndex(String workspaceId) throws WorkspaceAlreadyExistsException {
+        if (indexStore.exists(workspaceId)) {
+            throw new WorkspaceAlreadyExistsException(workspaceId);
+        }
+        try {
+            indexStore.create(workspaceId);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot create index for workspace [" + workspaceId + "]", e);
+        }
+    }
+
+    @Override
+    @RolesAllowed({UserGroupMapping.ADMIN_ROLE_ID, UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public void deleteWorkspaceIndex(String workspaceId) throws AccountNotFoundException {
+        Account account = accountManager.getMyAccount();
+        try {
+            indexStore.drop(workspaceId);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot delete index for workspace [" + workspaceId + "]. Consider deleting it manually.", e);
+            mailer.sendWorkspaceIndexationFailure(account, workspaceId, getString("IndexerNotAvailableException", account.getLocale()));
+        }
+    }
+
+    @Override
+    public void deleteWorkspaceIndices(String workspaceId) throws IndexerNotAvailableException {
+        try {
+            indexStore.drop(workspaceId);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot delete the embedded index of workspace [" + workspaceId + "]", e);
+            throw new IndexerNotAvailableException();
+        }
+    }
+
+    @Override
+    @Asynchronous
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public void indexDocumentIteration(DocumentIteration documentIteration) {
+        try {
+            index(documentIteration);
+            LOGGER.log(Level.INFO, "Document iteration [" + documentIteration.getKey() + "] indexed");
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "The document " + documentIteration.getKey() + " cannot be indexed.", e);
+        }
+    }
+
+    @Override
+    @Asynchronous
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public void indexDocumentIterations(List<DocumentIteration> documentIterations) {
+        for (DocumentIteration documentIteration : documentIterations) {
+            if (documentIteration.getCheckInDate() != null) {
+                indexDocumentIteration(documentIteration);
+            }
+        }
+    }
+
+    @Override
+    @Asynchronous
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public void indexPartIteration(PartIteration partIteration) {
+        try {
+            index(partIteration);
+            LOGGER.log(Level.INFO, "Part iteration [" + partIteration.getKey() + "] indexed");
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "The part " + partIteration.getKey() + " cannot be indexed.", e);
+        }
+    }
+
+    @Override
+    @Asynchronous
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public void indexPartIterations(List<PartIteration> partIterations) {
+        for (PartIteration partIteration : partIterations) {
+            if (partIteration.getCheckInDate() != null) {
+                indexPartIteration(partIteration);
+            }
+        }
+    }
+
+    @Override
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public void removeDocumentIterationFromIndex(DocumentIteration documentIteration) {
+        try {
+            indexStore.delete(documentIteration.getWorkspaceId(), IndexerMapping.INDEX_DOCUMENTS, documentIteration.getKey().toString());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot delete document " + documentIteration + " from the embedded index", e);
+        }
+    }
+
+    @Override
+    public void removeDocumentIterationsFromIndex(String workspaceId, List<String> documentIterationIds) throws IndexerNotAvailableException {
+        try {
+            for (String documentIterationId : documentIterationIds) {
+                indexStore.delete(workspaceId, IndexerMapping.INDEX_DOCUMENTS, documentIterationId);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot delete documents from the embedded index", e);
+            throw new IndexerNotAvailableException();
+        }
+    }
+
+    @Override
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public void removePartIterationFromIndex(PartIteration partIteration) {
+        try {
+            indexStore.delete(partIteration.getWorkspaceId(), IndexerMapping.INDEX_PARTS, partIteration.getKey().toString());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot delete part iteration " + partIteration + " from the embedded index", e);
+        }
+    }
+
+    @Override
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public List<DocumentRevision> searchDocumentRevisions(DocumentSearchQuery documentSearchQuery, int from, int size)
+            throws IndexerRequestException, IndexerNotAvailableException {
+        LuceneQueryBuilder queryBuilder = new LuceneQueryBuilder(indexStore.getAnalyzer());
+        Set<DocumentIterationKey> keys = new HashSet<>();
+        for (Document doc : search(documentSearchQuery.getWorkspaceId(), IndexerMapping.INDEX_DOCUMENTS, queryBuilder.getSearchQuery(documentSearchQuery), from, size)) {
+            keys.add(new DocumentIterationKey(
+                    doc.get(IndexerMapping.WORKSPACE_ID_KEY),
+                    doc.get(IndexerMapping.DOCUMENT_ID_KEY),
+                    doc.get(IndexerMapping.VERSION_KEY),
+                    doc.getField(IndexerMapping.ITERATION_KEY).numericValue().intValue()));
+        }
+        return indexerResultsMapper.processSearchResult(keys, documentSearchQuery);
+    }
+
+    @Override
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    public List<PartRevision> searchPartRevisions(PartSearchQuery partSearchQuery, int from, int size)
+            throws IndexerRequestException, IndexerNotAvailableException {
+        LuceneQueryBuilder queryBuilder = new LuceneQueryBuilder(indexStore.getAnalyzer());
+        Set<PartIterationKey> keys = new HashSet<>();
+        for (Document doc : search(partSearchQuery.getWorkspaceId(), IndexerMapping.INDEX_PARTS, queryBuilder.getSearchQuery(partSearchQuery), from, size)) {
+            keys.add(new PartIterationKey(
+                    doc.get(IndexerMapping.WORKSPACE_ID_KEY),
+                    doc.get(IndexerMapping.PART_NUMBER_KEY),
+                    doc.get(IndexerMapping.VERSION_KEY),
+                    doc.getField(IndexerMapping.ITERATION_KEY).numericValue().intValue()));
+        }
+        return indexerResultsMapper.processSearchResult(keys, partSearchQuery);
+    }
+
+    @Override
+    @RolesAllowed({UserGroupMapping.ADMIN_ROLE_ID})
+    @Asynchronous
+    public void indexAllWorkspacesData() {
+        List<Workspace> workspaces = workspaceDAO.getAll();
+        workspaces.forEach(workspace -> doIndexWorkspaceData(workspace.getId()));
+    }
+
+    @Override
+    @RolesAllowed({UserGroupMapping.ADMIN_ROLE_ID, UserGroupMapping.REGULAR_USER_ROLE_ID})
+    @Asynchronous
+    public void indexWorkspaceData(String workspaceId) {
+        doIndexWorkspaceData(workspaceId);
+    }
+
+    private void doIndexWorkspaceData(String workspaceId) {
+        Account account;
+
+        try {
+            account = accountManager.getMyAccount();
+        } catch (AccountNotFoundException e) {
+            LOGGER.severe("Account not found");
+            return;
+        }
+
+        if (contextManager.isCallerInRole(UserGroupMapping.REGULAR_USER_ROLE_ID)) {
+            try {
+                userManager.checkAdmin(workspaceId);
+            } catch (AccessRightException | AccountNotFoundException | WorkspaceNotFoundException e) {
+                LOGGER.severe("Not an admin");
+                return;
+            }
+        }
+
+        List<String> errors = new ArrayList<>();
+        try {
+            // force recreate
+            indexStore.drop(workspaceId);
+            indexStore.create(workspaceId);
+
+            long documentCount = documentMasterDAO.getCountByWorkspace(workspaceId);
+            for (int offset = 0; offset < documentCount; offset += BULK_SIZE) {
+                for (DocumentMaster documentMaster : documentMasterDAO.getPaginatedByWorkspace(workspaceId, BULK_SIZE, offset)) {
+                    for (DocumentRevision documentRevision : documentMaster.getDocumentRevisions()) {
+                        for (DocumentIteration documentIteration : documentRevision.getDocumentIterations()) {
+                            indexInBulk(documentIteration.getKey(), () -> index(documentIteration), errors);
+                        }
+                    }
+                }
+            }
+
+            long partCount = partMasterDAO.getCountByWorkspace(workspaceId);
+            for (int offset = 0; offset < partCount; offset += BULK_SIZE) {
+                for (PartMaster partMaster : partMasterDAO.getPaginatedByWorkspace(workspaceId, BULK_SIZE, offset)) {
+                    for (PartRevision partRevision : partMaster.getPartRevisions()) {
+                        for (PartIteration partIteration : partRevision.getPartIterations()) {
+                            indexInBulk(partIteration.getKey(), () -> index(partIteration), errors);
+                        }
+                    }
+                }
+            }
+
+            indexStore.commit();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "The workspace " + workspaceId + " cannot be indexed.", e);
+            errors.add(e.getMessage());
+        }
+
+        if (errors.isEmpty()) {
+            mailer.sendBulkIndexationSuccess(account);
+        } else {
+            String failureMessage = String.join(", ", errors);
+            LOGGER.log(Level.WARNING, "Failures while bulk indexing workspace [" + workspaceId + "]: \n" + failureMessage);
+            mailer.sendBulkIndexationFailure(account, failureMessage);
+        }
+    }
+
+    private void indexInBulk(Object key, IndexAction action, List<String> errors) {
+        try {
+            action.run();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.FINE, null, e);
+            errors.add(key + ": " + e.getMessage());
+        }
+    }
+
+    private void index(DocumentIteration documentIteration) throws IOException {
+        Map<String, String> contentInputs = textExtractor.getContentInputs(documentIteration.getAttachedFiles());
+        String id = documentIteration.getKey().toString();
+        indexStore.update(documentIteration.getWorkspaceId(), IndexerMapping.INDEX_DOCUMENTS, id,
+                LuceneDocumentMapper.toDocument(id, documentIteration, contentInputs));
+    }
+
+    private void index(PartIteration partIteration) throws IOException {
+        Map<String, String> contentInputs = textExtractor.getContentInputs(partIteration.getAttachedFiles());
+        String id = partIteration.getKey().toString();
+        indexStore.update(partIteration.getWorkspaceId(), IndexerMapping.INDEX_PARTS, id,
+                LuceneDocumentMapper.toDocument(id, partIteration, contentInputs));
+    }
+
+    private List<Document> search(String workspaceId, String type, Query query, int from, int size)
+            throws IndexerNotAvailableException {
+        try {
+            LOGGER.log(Level.FINE, "Embedded search query:\n" + query);
+            return indexStore.search(workspaceId, type, query, from, size);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Search request failed: " + e.getMessage());
+            throw new IndexerNotAvailableException();
+        }
+    }
+
+    private String getString(String key, Locale locale) {
+        Properties properties = PropertiesLoader.loadLocalizedProperties(locale, I18N_CONF, getClass());
+        return properties.getProperty(key);
+    }
+
+    @FunctionalInterface
+    private interface IndexAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.indexer;
+
+import com.docdoku.plm.server.config.IndexerConfig;
+import com.docdoku.plm.server.core.services.IIndexerManagerLocal;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Default;
+import javax.enterprise.inject.Produces;
+import javax.inject.Inject;
+
+/**
+ * Produces the indexer services of the configured backend: the Elasticsearch cluster,
+ * or the embedded Lucene indexes when the <code>backend</code> property of the indexer config is <code>embedded</code>
+ */
+@ApplicationScoped
+public class IndexerBackendSelector {
+
+    @Inject
+    private IndexerConfig config;
+
+    @Produces
+    @Default
+    public IIndexerManagerLocal produce(@IndexerBackend(IndexerBackend.Type.ELASTICSEARCH) IIndexerManagerLocal elasticsearch,
+                                        @IndexerBackend(IndexerBackend.Type.EMBEDDED) IIndexerManagerLocal embedded) {
+        return config.isEmbedded() ? embedded : elasticsearch;
+    }
+}
@@ -56,10 +56,13 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
+ * Indexer services backed by an Elasticsearch cluster
+ *
  * @author Morgan Guimard
  */
 @Stateless(name = "IndexerManagerBean")
 @Local(IIndexerManagerLocal.class)
+@IndexerBackend(IndexerBackend.Type.ELASTICSEARCH)
 @DeclareRoles({UserGroupMapping.REGULAR_USER_ROLE_ID, UserGroupMapping.ADMIN_ROLE_ID})
 public class IndexerManagerBean implements IIndexerManagerLocal {
 
@@ -157,6 +160,18 @@ public class IndexerManagerBean implements IIndexerManagerLocal {
         }
     }
 
+    /**
+     * Delete the indices of a workspace being deleted
+     *
+     * @param workspaceId workspace id
+     * @throws IndexerNotAvailableException
+     * @throws IndexerRequestException
+     */
+    @Override
+    public void deleteWorkspaceIndices(String workspaceId) throws IndexerNotAvailableException, IndexerRequestException {
+        indexManager.deleteIndices(workspaceId);
+    }
+
     /**
      * Index the given document iteration
      *
@@ -285,6 +300,32 @@ public class IndexerManagerBean implements IIndexerManagerLocal {
         }
     }
 
+    /**
+     * Delete document iterations from index in a single bulk request. Not restricted to a role,
+     * it runs in the background once the documents are deleted.
+     *
+     * @param workspaceId          workspace of the document iterations
+     * @param documentIterationIds keys of the document iterations to remove
+     * @throws IndexerNotAvailableException
+     * @throws IndexerRequestException
+     */
+    @Override
+    public void removeDocumentIterationsFromIndex(String workspaceId, List<String> documentIterationIds) throws IndexerNotAvailableException, IndexerRequestException {
+        String indexName = indicesUtils.getIndexName(workspaceId, IndexerMapping.INDEX_DOCUMENTS);
+        Bulk.Builder bulk = new Bulk.Builder();
+        for (String documentIterationId : documentIterationIds) {
+            bulk.addAction(new Delete.Builder(indicesUtils.formatDocId(documentIterationId))
+                    .index(indexName)
+                    .type(IndexerMapping.TYPE)
+                    .build());
+        }
+        BulkResult result = indexManager.sendBulk(bulk);
+        // entries already missing are not reported as errors
+        if (!result.isSucceeded()) {
+            throw new IndexerRequestException(result.getErrorMessage());
+        }
+    }
+
     /**
      * Run search on document revisions
      *
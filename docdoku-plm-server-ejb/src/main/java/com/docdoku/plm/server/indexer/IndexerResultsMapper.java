@@ -104,6 +104,30 @@ public class IndexerResultsMapper {
         return partIterationKeysToPartRevisions(partSearchQuery.isFetchHeadOnly(), partIterationKeys);
     }
 
+    /**
+     * Map document iterations found by the embedded indexes to document revisions
+     *
+     * @param documentIterationKeys
+     * @param documentSearchQuery
+     * @return
+     */
+    public List<DocumentRevision> processSearchResult(Set<DocumentIterationKey> documentIterationKeys, DocumentSearchQuery documentSearchQuery) {
+        LOGGER.log(Level.INFO, "Results: " + documentIterationKeys.size());
+        return documentIterationKeysToDocumentRevisions(documentSearchQuery.isFetchHeadOnly(), documentIterationKeys);
+    }
+
+    /**
+     * Map part iterations found by the embedded indexes to part revisions
+     *
+     * @param partIterationKeys
+     * @param partSearchQuery
+     * @return
+     */
+    public List<PartRevision> processSearchResult(Set<PartIterationKey> partIterationKeys, PartSearchQuery partSearchQuery) {
+        LOGGER.log(Level.INFO, "Results: " + partIterationKeys.size());
+        return partIterationKeysToPartRevisions(partSearchQuery.isFetchHeadOnly(), partIterationKeys);
+    }
+
     private List<DocumentRevision> documentIterationKeysToDocumentRevisions(boolean fetchHeadOnly, Set<DocumentIterationKey> documentIterationKeys) {
         Set<DocumentRevision> documentRevisions = new HashSet<>();
 
@@ -0,0 +1,188 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.indexer.embedded;
+
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.document.DocumentIteration;
+import com.docdoku.plm.server.core.document.DocumentMaster;
+import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.meta.InstanceAttribute;
+import com.docdoku.plm.server.core.meta.InstanceListOfValuesAttribute;
+import com.docdoku.plm.server.core.meta.Tag;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.workflow.Workflow;
+import com.docdoku.plm.server.indexer.util.IndexerMapping;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.util.CharTokenizer;
+import org.apache.lucene.document.*;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Util class for documents and parts to Lucene documents mapping, with the fields of the Elasticsearch templates.
+ * Nested attributes and files are flattened: attribute values are indexed under <code>attributes.&lt;name&gt;</code>.
+ */
+public class LuceneDocumentMapper {
+
+    public static final String ID_FIELD = "_id";
+    public static final String ALL_FIELD = "_all";
+
+    private LuceneDocumentMapper() {
+    }
+
+    /**
+     * Text analysis matching the Elasticsearch templates: identifiers are split on whitespaces,
+     * dashes and underscores, other texts use the standard analyzer
+     */
+    public static Analyzer createAnalyzer() {
+        Analyzer idAnalyzer = new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = CharTokenizer.fromSeparatorCharPredicate(c -> Character.isWhitespace(c) || c == '-' || c == '_');
+                return new TokenStreamComponents(tokenizer, new LowerCaseFilter(tokenizer));
+            }
+
+            @Override
+            protected TokenStream normalize(String fieldName, TokenStream in) {
+                return new LowerCaseFilter(in);
+            }
+        };
+        Map<String, Analyzer> analyzers = new HashMap<>();
+        analyzers.put(IndexerMapping.DOCUMENT_ID_KEY, idAnalyzer);
+        analyzers.put(IndexerMapping.PART_NUMBER_KEY, idAnalyzer);
+        return new PerFieldAnalyzerWrapper(new StandardAnalyzer(), analyzers);
+    }
+
+    public static Document toDocument(String id, DocumentIteration documentIteration, Map<String, String> contentInputs) {
+        DocumentRevision documentRevision = documentIteration.getDocumentRevision();
+        DocumentMaster documentMaster = documentRevision.getDocumentMaster();
+
+        Document doc = new Document();
+        doc.add(new StringField(ID_FIELD, id, Field.Store.YES));
+        addKeyword(doc, IndexerMapping.WORKSPACE_ID_KEY, documentIteration.getWorkspaceId(), Field.Store.YES);
+        addText(doc, IndexerMapping.DOCUMENT_ID_KEY, documentRevision.getDocumentMasterId(), Field.Store.YES);
+        addText(doc, IndexerMapping.TITLE_KEY, documentIteration.getTitle(), Field.Store.NO);
+        addKeyword(doc, IndexerMapping.VERSION_KEY, documentIteration.getVersion(), Field.Store.YES);
+        doc.add(new StoredField(IndexerMapping.ITERATION_KEY, documentIteration.getIteration()));
+        addKeyword(doc, IndexerMapping.TYPE_KEY, documentMaster.getType(), Field.Store.NO);
+        addText(doc, IndexerMapping.DESCRIPTION_KEY, documentRevision.getDescription(), Field.Store.NO);
+        addDate(doc, IndexerMapping.CREATION_DATE_KEY, documentRevision.getCreationDate());
+        addDate(doc, IndexerMapping.MODIFICATION_DATE_KEY, documentIteration.getModificationDate());
+        addText(doc, IndexerMapping.REVISION_NOTE_KEY, documentIteration.getRevisionNote(), Field.Store.NO);
+        addKeyword(doc, IndexerMapping.FOLDER_KEY, documentRevision.getLocation().getShortName(), Field.Store.NO);
+
+        addCommonFields(doc, documentMaster.getAuthor(), documentRevision.getTags(), documentIteration.getInstanceAttributes(),
+                contentInputs, documentRevision.getWorkflow());
+        return doc;
+    }
+
+    public static Document toDocument(String id, PartIteration partIteration, Map<String, String> contentInputs) {
+        PartRevision partRevision = partIteration.getPartRevision();
+        PartMaster partMaster = partRevision.getPartMaster();
+
+        Document doc = new Document();
+        doc.add(new StringField(ID_FIELD, id, Field.Store.YES));
+        addKeyword(doc, IndexerMapping.WORKSPACE_ID_KEY, partIteration.getWorkspaceId(), Field.Store.YES);
+        addText(doc, IndexerMapping.PART_NUMBER_KEY, partIteration.getPartNumber(), Field.Store.YES);
+        addText(doc, IndexerMapping.PART_NAME_KEY, partMaster.getName(), Field.Store.NO);
+        addKeyword(doc, IndexerMapping.TYPE_KEY, partMaster.getType(), Field.Store.NO);
+        addKeyword(doc, IndexerMapping.VERSION_KEY, partIteration.getPartVersion(), Field.Store.YES);
+        addText(doc, IndexerMapping.DESCRIPTION_KEY, partRevision.getDescription(), Field.Store.NO);
+        doc.add(new StoredField(IndexerMapping.ITERATION_KEY, partIteration.getIteration()));
+        addKeyword(doc, IndexerMapping.STANDARD_PART_KEY, String.valueOf(partMaster.isStandardPart()), Field.Store.NO);
+        addDate(doc, IndexerMapping.CREATION_DATE_KEY, partIteration.getCreationDate());
+        addDate(doc, IndexerMapping.MODIFICATION_DATE_KEY, partIteration.getModificationDate());
+        addText(doc, IndexerMapping.REVISION_NOTE_KEY, partIteration.getIterationNote(), Field.Store.NO);
+
+        addCommonFields(doc, partMaster.getAuthor(), partRevision.getTags(), partIteration.getInstanceAttributes(),
+                contentInputs, partRevision.getWorkflow());
+        return doc;
+    }
+
+    private static void addCommonFields(Document doc, User author, Set<Tag> tags, List<InstanceAttribute> instanceAttributes,
+                                        Map<String, String> contentInputs, Workflow workflow) {
+        addKeyword(doc, IndexerMapping.AUTHOR_LOGIN_KEY, author.getLogin(), Field.Store.NO);
+        addKeyword(doc, IndexerMapping.AUTHOR_NAME_KEY, author.getName(), Field.Store.NO);
+
+        for (Tag tag : tags) {
+            addKeyword(doc, IndexerMapping.TAGS_KEY, tag.getLabel(), Field.Store.NO);
+        }
+
+        for (InstanceAttribute attr : instanceAttributes) {
+            String name = attr.getNameWithoutWhiteSpace();
+            addKeyword(doc, IndexerMapping.ATTRIBUTES_KEY + "." + IndexerMapping.ATTRIBUTE_NAME, name, Field.Store.NO);
+            addText(doc, attributeValueField(name), attributeValue(attr), Field.Store.NO);
+        }
+
+        for (Map.Entry<String, String> contentInput : contentInputs.entrySet()) {
+            addKeyword(doc, IndexerMapping.FILES_KEY + "." + IndexerMapping.FILE_NAME_KEY, contentInput.getKey(), Field.Store.NO);
+            addText(doc, IndexerMapping.FILES_KEY + "." + IndexerMapping.CONTENT_KEY, contentInput.getValue(), Field.Store.NO);
+        }
+
+        if (workflow != null) {
+            addKeyword(doc, IndexerMapping.WORKFLOW_KEY, workflow.getFinalLifeCycleState(), Field.Store.NO);
+        }
+    }
+
+    public static String attributeValueField(String attributeName) {
+        return IndexerMapping.ATTRIBUTES_KEY + "." + attributeName;
+    }
+
+    private static String attributeValue(InstanceAttribute attr) {
+        if (attr instanceof InstanceListOfValuesAttribute) {
+            InstanceListOfValuesAttribute lov = (InstanceListOfValuesAttribute) attr;
+            return !lov.getItems().isEmpty() ? lov.getItems().get(lov.getIndexValue()).getName() : "";
+        }
+        return "" + attr.getValue();
+    }
+
+    private static void addKeyword(Document doc, String field, String value, Field.Store store) {
+        if (value != null) {
+            doc.add(new StringField(field, value, store));
+            doc.add(new TextField(ALL_FIELD, value, Field.Store.NO));
+        }
+    }
+
+    private static void addText(Document doc, String field, String value, Field.Store store) {
+        if (value != null) {
+            doc.add(new TextField(field, value, store));
+            doc.add(new TextField(ALL_FIELD, value, Field.Store.NO));
+        }
+    }
+
+    private static void addDate(Document doc, String field, Date value) {
+        if (value != null) {
+            doc.add(new LongPoint(field, value.getTime()));
+        }
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.indexer.embedded;
+
+import com.docdoku.plm.server.config.IndexerConfig;
+import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.indexer.util.IndexerMapping;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene indexes, one directory per workspace holding a documents and a parts index.
+ * <p>
+ * Searches use near-real-time readers refreshed from the index writers, so that changes are
+ * visible before being committed. Commits are batched on a timer
+ * ({@link IndexerConfig#getEmbeddedCommitInterval()}) and when the application stops.
+ */
+@Singleton(name = "LuceneIndexStore")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class LuceneIndexStore {
+
+    private static final Logger LOGGER = Logger.getLogger(LuceneIndexStore.class.getName());
+
+    private static final String DEFAULT_DIRECTORY = ".indexes";
+
+    @Inject
+    private IndexerConfig config;
+
+    @Inject
+    private ServerConfig serverConfig;
+
+    @Resource
+    private TimerService timerService;
+
+    private final Analyzer analyzer = LuceneDocumentMapper.createAnalyzer();
+
+    private final ConcurrentMap<Path, LuceneIndex> indexes = new ConcurrentHashMap<>();
+
+    private Path root;
+
+    @PostConstruct
+    private void init() {
+        String path = config.getEmbeddedIndexPath();
+        open(path != null ? Paths.get(path) : Paths.get(serverConfig.getVaultPath(), DEFAULT_DIRECTORY));
+        long intervalMs = config.getEmbeddedCommitInterval() * 1000L;
+        timerService.createIntervalTimer(intervalMs, intervalMs, new TimerConfig(null, false));
+    }
+
+    /**
+     * Keep the indexes under the given directory
+     */
+    public void open(Path root) {
+        this.root = root;
+        LOGGER.log(Level.INFO, "Embedded indexes stored in " + root);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Path path : new ArrayList<>(indexes.keySet())) {
+            closeIndex(path);
+        }
+    }
+
+    @Timeout
+    public void commit() {
+        for (LuceneIndex index : indexes.values()) {
+            try {
+                index.commit();
+            } catch (IOException | AlreadyClosedException e) {
+                LOGGER.log(Level.WARNING, "Cannot commit embedded index", e);
+            }
+        }
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    public boolean exists(String workspaceId) {
+        return Files.isDirectory(workspacePath(workspaceId));
+    }
+
+    public void create(String workspaceId) throws IOException {
+        getIndex(workspaceId, IndexerMapping.INDEX_DOCUMENTS);
+        getIndex(workspaceId, IndexerMapping.INDEX_PARTS);
+    }
+
+    /**
+     * Close and delete the indexes of the workspace
+     */
+    public void drop(String workspaceId) throws IOException {
+        Path workspacePath = workspacePath(workspaceId);
+        closeIndex(workspacePath.resolve(IndexerMapping.INDEX_DOCUMENTS));
+        closeIndex(workspacePath.resolve(IndexerMapping.INDEX_PARTS));
+        if (Files.exists(workspacePath)) {
+            try (Stream<Path> files = Files.walk(workspacePath)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add or replace the entry of given id
+     */
+    public void update(String workspaceId, String type, String id, Document document) throws IOException {
+        getIndex(workspaceId, type).update(id, document);
+    }
+
+    public void delete(String workspaceId, String type, String id) throws IOException {
+        getIndex(workspaceId, type).delete(id);
+    }
+
+    public List<Document> search(String workspaceId, String type, Query query, int from, int size) throws IOException {
+        if (from + size <= 0 || !exists(workspaceId)) {
+            return new ArrayList<>();
+        }
+        return getIndex(workspaceId, type).search(query, from, size);
+    }
+
+    private LuceneIndex getIndex(String workspaceId, String type) throws IOException {
+        try {
+            return indexes.computeIfAbsent(workspacePath(workspaceId).resolve(type), this::openIndex);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private LuceneIndex openIndex(Path path) {
+        try {
+            Files.createDirectories(path);
+            return new LuceneIndex(path, analyzer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeIndex(Path path) {
+        LuceneIndex index = indexes.remove(path);
+        if (index != null) {
+            try {
+                index.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Cannot close embedded index " + path, e);
+            }
+        }
+    }
+
+    private Path workspacePath(String workspaceId) {
+        try {
+            return root.resolve(URLEncoder.encode(workspaceId, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class LuceneIndex {
+
+        private final Directory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searcherManager;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        LuceneIndex(Path path, Analyzer analyzer) throws IOException {
+            directory = FSDirectory.open(path);
+            writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            searcherManager = new SearcherManager(writer, null);
+        }
+
+        void update(String id, Document document) throws IOException {
+            writer.updateDocument(new Term(LuceneDocumentMapper.ID_FIELD, id), document);
+            dirty.set(true);
+        }
+
+        void delete(String id) throws IOException {
+            writer.deleteDocuments(new Term(LuceneDocumentMapper.ID_FIELD, id));
+            dirty.set(true);
+        }
+
+        List<Document> search(Query query, int from, int size) throws IOException {
+            searcherManager.maybeRefresh();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc[] hits = searcher.search(query, from + size).scoreDocs;
+                List<Document> documents = new ArrayList<>();
+                for (int i = from; i < hits.length; i++) {
+                    documents.add(searcher.doc(hits[i].doc));
+                }
+                return documents;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        }
+
+        void commit() throws IOException {
+            if (dirty.getAndSet(false)) {
+                writer.commit();
+            }
+        }
+
+        void close() throws IOException {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.indexer.embedded;
+
+import com.docdoku.plm.server.core.exceptions.IndexerRequestException;
+import com.docdoku.plm.server.core.query.DocumentSearchQuery;
+import com.docdoku.plm.server.core.query.PartSearchQuery;
+import com.docdoku.plm.server.core.query.SearchQuery;
+import com.docdoku.plm.server.indexer.util.IndexerMapping;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds Lucene queries from document and part search queries, with the semantics of {@link com.docdoku.plm.server.indexer.IndexerQueryBuilder}
+ */
+public class LuceneQueryBuilder {
+
+    private final Analyzer analyzer;
+
+    public LuceneQueryBuilder(Analyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    public Query getSearchQuery(DocumentSearchQuery documentSearchQuery) throws IndexerRequestException {
+        List<Query> queries = new ArrayList<>();
+
+        String docMId = documentSearchQuery.getDocMId();
+        String title = documentSearchQuery.getTitle();
+        String folder = documentSearchQuery.getFolder();
+
+        if (docMId != null && !docMId.isEmpty()) {
+            queries.add(match(IndexerMapping.DOCUMENT_ID_KEY, docMId, false));
+        }
+        if (title != null && !title.isEmpty()) {
+            queries.add(match(IndexerMapping.TITLE_KEY, title, true));
+        }
+        if (folder != null && !folder.isEmpty()) {
+            queries.add(keyword(IndexerMapping.FOLDER_KEY, folder, true));
+        }
+
+        queries.addAll(createCommonQueries(documentSearchQuery));
+        return all(queries);
+    }
+
+    public Query getSearchQuery(PartSearchQuery partSearchQuery) throws IndexerRequestException {
+        List<Query> queries = new ArrayList<>();
+
+        String partNumber = partSearchQuery.getPartNumber();
+        String partName = partSearchQuery.getName();
+
+        if (partNumber != null && !partNumber.isEmpty()) {
+            queries.add(match(IndexerMapping.PART_NUMBER_KEY, partNumber, false));
+        }
+        if (partName != null && !partName.isEmpty()) {
+            queries.add(match(IndexerMapping.PART_NAME_KEY, partName, true));
+        }
+
+        queries.addAll(createCommonQueries(partSearchQuery));
+        return all(queries);
+    }
+
+    private List<Query> createCommonQueries(SearchQuery searchQuery) throws IndexerRequestException {
+        List<Query> queries = new ArrayList<>();
+
+        if (searchQuery.getVersion() != null) {
+            queries.add(new TermQuery(new Term(IndexerMapping.VERSION_KEY, searchQuery.getVersion())));
+        }
+        if (searchQuery.getAuthor() != null) {
+            queries.add(new BooleanQuery.Builder()
+                    .add(keyword(IndexerMapping.AUTHOR_NAME_KEY, searchQuery.getAuthor(), true), BooleanClause.Occur.SHOULD)
+                    .add(keyword(IndexerMapping.AUTHOR_LOGIN_KEY, searchQuery.getAuthor(), true), BooleanClause.Occur.SHOULD)
+                    .build());
+        }
+        if (searchQuery.getType() != null) {
+            queries.add(keyword(IndexerMapping.TYPE_KEY, searchQuery.getType(), true));
+        }
+        if (searchQuery.getCreationDateFrom() != null || searchQuery.getCreationDateTo() != null) {
+            queries.add(dateRange(IndexerMapping.CREATION_DATE_KEY, searchQuery.getCreationDateFrom(), searchQuery.getCreationDateTo()));
+        }
+        if (searchQuery.getModificationDateFrom() != null || searchQuery.getModificationDateTo() != null) {
+            queries.add(dateRange(IndexerMapping.MODIFICATION_DATE_KEY, searchQuery.getModificationDateFrom(), searchQuery.getModificationDateTo()));
+        }
+        if (searchQuery.getContent() != null) {
+            queries.add(match(IndexerMapping.FILES_KEY + "." + IndexerMapping.CONTENT_KEY, searchQuery.getContent(), false));
+        }
+
+        String[] tags = searchQuery.getTags();
+        if (tags != null && tags.length > 0) {
+            queries.add(new TermInSetQuery(IndexerMapping.TAGS_KEY, Stream.of(tags).map(BytesRef::new).collect(Collectors.toList())));
+        }
+
+        SearchQuery.AbstractAttributeQuery[] attributes = searchQuery.getAttributes();
+        if (attributes != null) {
+            Stream.of(attributes)
+                    .collect(Collectors.groupingBy(SearchQuery.AbstractAttributeQuery::getNameWithoutWhiteSpace))
+                    .forEach((attributeName, attributeList) -> queries.add(attributeQuery(attributeName, attributeList)));
+        }
+
+        String queryString = searchQuery.getQueryString();
+        if (queryString != null && !queryString.isEmpty()) {
+            try {
+                queries.add(new QueryParser(LuceneDocumentMapper.ALL_FIELD, analyzer).parse(queryString));
+            } catch (ParseException e) {
+                throw new IndexerRequestException(e.getMessage());
+            }
+        }
+
+        return queries;
+    }
+
+    private Query attributeQuery(String attributeName, List<SearchQuery.AbstractAttributeQuery> attributeList) {
+        BooleanQuery.Builder boolQuery = new BooleanQuery.Builder();
+        boolQuery.add(new TermQuery(new Term(IndexerMapping.ATTRIBUTES_KEY + "." + IndexerMapping.ATTRIBUTE_NAME, attributeName)), BooleanClause.Occur.MUST);
+
+        // Use 'should' on same attribute name, and 'must' for different attribute names
+        BooleanQuery.Builder valuesQuery = new BooleanQuery.Builder();
+        boolean hasValues = false;
+        for (SearchQuery.AbstractAttributeQuery attr : attributeList) {
+            String attributeValue = attr.toString();
+            if (attributeValue != null && !attributeValue.isEmpty()) {
+                valuesQuery.add(phrase(LuceneDocumentMapper.attributeValueField(attributeName), attributeValue), BooleanClause.Occur.SHOULD);
+                hasValues = true;
+            }
+        }
+        if (hasValues) {
+            boolQuery.add(valuesQuery.build(), BooleanClause.Occur.MUST);
+        }
+        return boolQuery.build();
+    }
+
+    /**
+     * Any of the analyzed terms of the text, as an Elasticsearch match query
+     */
+    private Query match(String field, String text, boolean fuzzy) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : analyze(field, text)) {
+            query.add(fuzzy ? fuzzy(new Term(field, term)) : new TermQuery(new Term(field, term)), BooleanClause.Occur.SHOULD);
+        }
+        return query.build();
+    }
+
+    /**
+     * All of the analyzed terms of the text, in order
+     */
+    private Query phrase(String field, String text) {
+        List<String> terms = analyze(field, text);
+        return terms.size() == 1 ? new TermQuery(new Term(field, terms.get(0))) : new PhraseQuery(field, terms.toArray(new String[0]));
+    }
+
+    private Query keyword(String field, String value, boolean fuzzy) {
+        Term term = new Term(field, value);
+        return fuzzy ? fuzzy(term) : new TermQuery(term);
+    }
+
+    /**
+     * Fuzzy query with the edit distance Elasticsearch picks for the AUTO fuzziness
+     */
+    private Query fuzzy(Term term) {
+        int length = term.text().length();
+        if (length <= 2) {
+            return new TermQuery(term);
+        }
+        return new FuzzyQuery(term, length <= 5 ? 1 : 2);
+    }
+
+    private Query dateRange(String field, Date from, Date to) {
+        return LongPoint.newRangeQuery(field,
+                from != null ? from.getTime() : Long.MIN_VALUE,
+                to != null ? to.getTime() : Long.MAX_VALUE);
+    }
+
+    private List<String> analyze(String field, String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokenStream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                terms.add(termAttribute.toString());
+            }
+            tokenStream.end();
+        } catch (IOException e) {
+            // Analyzing an in-memory string
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private Query all(List<Query> queries) {
+        if (queries.isEmpty()) {
+            return new MatchAllDocsQuery();
+        }
+        BooleanQuery.Builder boolQuery = new BooleanQuery.Builder();
+        queries.forEach(query -> boolQuery.add(query, BooleanClause.Occur.MUST));
+        return boolQuery.build();
+    }
+}
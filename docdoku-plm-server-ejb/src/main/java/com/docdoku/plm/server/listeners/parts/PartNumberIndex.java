@@ -0,0 +1,202 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.listeners.parts;
+
+import com.docdoku.plm.server.core.product.PartSuggestion;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case insensitive substring index of the part numbers and names of a workspace.
+ * <p>
+ * Each part is filed under the trigrams of its lower cased number and name. A lookup walks the shortest
+ * posting list among the trigrams of the query and checks each candidate, stopping as soon as enough parts
+ * match. Queries shorter than a trigram walk the parts in insertion order instead, which ends quickly for
+ * the one or two characters typed first.
+ * <p>
+ * Removed parts are only flagged, their slots are reclaimed when the index is rebuilt.
+ *
+ * @since V2.6
+ */
+public class PartNumberIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final String workspaceId;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    private final BitSet removed = new BitSet();
+
+    private String[] numbers = new String[16];
+    private String[] names = new String[16];
+    private String[] lowerNumbers = new String[16];
+    private String[] lowerNames = new String[16];
+    private int size;
+
+    public PartNumberIndex(String workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    /**
+     * Indexes the part, replacing the name of a number already indexed
+     */
+    public void add(String number, String name) {
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.get(number);
+            if (id != null) {
+                if (Objects.equals(names[id], name)) {
+                    return;
+                }
+                removed.set(id);
+            }
+            insert(number, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String number) {
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.remove(number);
+            if (id != null) {
+                removed.set(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the parts whose number or name contains the query, ignoring case, in insertion order
+     */
+    public List<PartSuggestion> lookup(String query, int maxResults) {
+        String lowerQuery = query == null ? "" : query.toLowerCase(Locale.ROOT);
+        List<PartSuggestion> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (lowerQuery.length() < GRAM_LENGTH) {
+                for (int id = 0; id < size && suggestions.size() < maxResults; id++) {
+                    collect(id, lowerQuery, suggestions);
+                }
+            } else {
+                Postings candidates = shortestPostings(lowerQuery);
+                for (int i = 0; candidates != null && i < candidates.size && suggestions.size() < maxResults; i++) {
+                    collect(candidates.ids[i], lowerQuery, suggestions);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    private void collect(int id, String lowerQuery, List<PartSuggestion> suggestions) {
+        if (!removed.get(id) && (lowerNumbers[id].contains(lowerQuery) || lowerNames[id].contains(lowerQuery))) {
+            suggestions.add(new PartSuggestion(workspaceId, numbers[id], names[id]));
+        }
+    }
+
+    /**
+     * @return null if some trigram of the query is found in no part
+     */
+    private Postings shortestPostings(String lowerQuery) {
+        Postings shortest = null;
+        for (int i = 0; i + GRAM_LENGTH <= lowerQuery.length(); i++) {
+            Postings gramPostings = postings.get(gram(lowerQuery, i));
+            if (gramPostings == null) {
+                return null;
+            }
+            if (shortest == null || gramPostings.size < shortest.size) {
+                shortest = gramPostings;
+            }
+        }
+        return shortest;
+    }
+
+    private void insert(String number, String name) {
+        if (size == numbers.length) {
+            int capacity = size * 2;
+            numbers = Arrays.copyOf(numbers, capacity);
+            names = Arrays.copyOf(names, capacity);
+            lowerNumbers = Arrays.copyOf(lowerNumbers, capacity);
+            lowerNames = Arrays.copyOf(lowerNames, capacity);
+        }
+        int id = size++;
+        numbers[id] = number;
+        names[id] = name;
+        lowerNumbers[id] = number.toLowerCase(Locale.ROOT);
+        lowerNames[id] = name == null ? "" : name.toLowerCase(Locale.ROOT);
+        ids.put(number, id);
+        fileGrams(lowerNumbers[id], id);
+        fileGrams(lowerNames[id], id);
+    }
+
+    private void fileGrams(String text, int id) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            postings.computeIfAbsent(gram(text, i), gram -> new Postings()).add(id);
+        }
+    }
+
+    private static long gram(String text, int offset) {
+        return (long) text.charAt(offset) << 32 | (long) text.charAt(offset + 1) << 16 | text.charAt(offset + 2);
+    }
+
+    /**
+     * Ids of the parts holding a trigram, increasing as parts are only appended
+     */
+    private static class Postings {
+
+        private int[] ids = new int[2];
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
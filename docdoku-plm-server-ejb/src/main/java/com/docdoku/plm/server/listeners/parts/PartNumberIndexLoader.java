@@ -0,0 +1,59 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.listeners.parts;
+
+import com.docdoku.plm.server.core.product.PartSuggestion;
+import com.docdoku.plm.server.dao.PartMasterDAO;
+
+import javax.ejb.Stateless;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the part number index of a workspace from a projection of its part masters, inside an EJB call
+ * so that it can run from the managed executor.
+ */
+@Stateless(name = "PartNumberIndexLoader")
+public class PartNumberIndexLoader {
+
+    @Inject
+    private PartMasterDAO partMasterDAO;
+
+    public PartNumberIndex load(String workspaceId) {
+        PartNumberIndex index = new PartNumberIndex(workspaceId);
+        for (Object[] row : partMasterDAO.findNumbersAndNames(workspaceId)) {
+            index.add((String) row[0], (String) row[1]);
+        }
+        return index;
+    }
+
+    /**
+     * Looks the parts up in the database, for the lookups made while the index of the workspace is being built
+     */
+    public List<PartSuggestion> search(String workspaceId, String query, int maxResults) {
+        List<PartSuggestion> suggestions = new ArrayList<>();
+        for (Object[] row : partMasterDAO.findNumbersAndNamesContaining(workspaceId, query, maxResults)) {
+            suggestions.add(new PartSuggestion(workspaceId, (String) row[0], (String) row[1]));
+        }
+        return suggestions;
+    }
+}
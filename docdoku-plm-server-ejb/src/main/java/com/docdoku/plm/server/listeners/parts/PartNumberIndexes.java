@@ -0,0 +1,225 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.listeners.parts;
+
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartSuggestion;
+import com.docdoku.plm.server.events.Created;
+import com.docdoku.plm.server.events.PartRevisionEvent;
+import com.docdoku.plm.server.events.Removed;
+import com.docdoku.plm.server.events.WorkspaceEvent;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-workspace {@link PartNumberIndex}es backing the part number and name autocomplete.
+ * <p>
+ * The index of a workspace is built on the managed executor on its first lookup, lookups being answered by a
+ * database query until it is ready. It is then kept up to date by observing part creation and deletion events
+ * once their transaction has committed, including the ones observed during the build, and dropped when the
+ * workspace is purged. It is rebuilt in the background every
+ * {@link #REFRESH_MS} so that changes made outside of the observed operations (imports, other cluster
+ * nodes) are eventually picked up, the previous index serving lookups meanwhile. Indexes not looked up for
+ * {@link #IDLE_MS} are dropped.
+ *
+ * @since V2.6
+ */
+@ApplicationScoped
+public class PartNumberIndexes {
+
+    static final long REFRESH_MS = 10 * 60 * 1000;
+    static final long IDLE_MS = 60 * 60 * 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(PartNumberIndexes.class.getName());
+
+    @Inject
+    private PartNumberIndexLoader loader;
+
+    @Resource
+    private ManagedExecutorService managedExecutor;
+
+    private final ConcurrentMap<String, Holder> indexes = new ConcurrentHashMap<>();
+
+    private final LongSupplier clock;
+
+    private final Executor executor;
+
+    public PartNumberIndexes() {
+        this.clock = System::currentTimeMillis;
+        this.executor = command -> managedExecutor.execute(command);
+    }
+
+    PartNumberIndexes(PartNumberIndexLoader loader, Executor executor, LongSupplier clock) {
+        this.loader = loader;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the parts of the workspace whose number or name contains the query, ignoring case
+     */
+    public List<PartSuggestion> lookup(String workspaceId, String query, int maxResults) {
+        PartNumberIndex index = getHolder(workspaceId).index;
+        if (index == null) {
+            return loader.search(workspaceId, query, maxResults);
+        }
+        return index.lookup(query, maxResults);
+    }
+
+    public void evict(String workspaceId) {
+        indexes.remove(workspaceId);
+    }
+
+    void onPartCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Created PartRevisionEvent event) {
+        PartMaster partMaster = event.getObservedPart().getPartMaster();
+        String number = partMaster.getNumber();
+        String name = partMaster.getName();
+        apply(partMaster.getWorkspaceId(), index -> index.add(number, name));
+    }
+
+    void onPartRemoved(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Removed PartRevisionEvent event) {
+        if (event.isPartMasterRemoved()) {
+            PartMaster partMaster = event.getObservedPart().getPartMaster();
+            String number = partMaster.getNumber();
+            apply(partMaster.getWorkspaceId(), index -> index.remove(number));
+        }
+    }
+
+    void onWorkspacePurged(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Removed WorkspaceEvent event) {
+        // parts are bulk deleted, a build still running is not put back by refresh()
+        evict(event.getObservedWorkspace().getId());
+    }
+
+    private void apply(String workspaceId, Consumer<PartNumberIndex> change) {
+        Holder holder = indexes.get(workspaceId);
+        if (holder != null) {
+            holder.apply(change);
+        }
+    }
+
+    private Holder getHolder(String workspaceId) {
+        long now = clock.getAsLong();
+        Holder holder = indexes.get(workspaceId);
+        if (holder == null) {
+            dropIdle(now);
+            Holder building = new Holder(null, now);
+            building.startRefresh();
+            holder = indexes.putIfAbsent(workspaceId, building);
+            if (holder == null) {
+                holder = building;
+                executor.execute(() -> refresh(workspaceId, building));
+            }
+        } else if (now - holder.builtAt > REFRESH_MS && holder.startRefresh()) {
+            Holder refreshed = holder;
+            executor.execute(() -> refresh(workspaceId, refreshed));
+        }
+        holder.lastUsed = now;
+        return holder;
+    }
+
+    private void refresh(String workspaceId, Holder holder) {
+        try {
+            PartNumberIndex index = loader.load(workspaceId);
+            indexes.replace(workspaceId, holder, holder.endRefresh(index, clock.getAsLong()));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Cannot build the part number index of " + workspaceId, e);
+            holder.endRefresh(null, 0);
+            if (holder.index == null) {
+                // Next lookup starts a new build
+                indexes.remove(workspaceId, holder);
+            }
+        }
+    }
+
+    private void dropIdle(long now) {
+        indexes.values().removeIf(holder -> now - holder.lastUsed > IDLE_MS);
+    }
+
+    /**
+     * Index of a workspace and the changes observed while a new one is being built, no index yet during the
+     * first build
+     */
+    private static class Holder {
+
+        private final PartNumberIndex index;
+        private final long builtAt;
+        private volatile long lastUsed;
+        private List<Consumer<PartNumberIndex>> pendingChanges;
+        private Holder successor;
+
+        private Holder(PartNumberIndex index, long builtAt) {
+            this.index = index;
+            this.builtAt = builtAt;
+            this.lastUsed = builtAt;
+        }
+
+        private synchronized boolean startRefresh() {
+            if (pendingChanges != null) {
+                return false;
+            }
+            pendingChanges = new ArrayList<>();
+            return true;
+        }
+
+        private synchronized void apply(Consumer<PartNumberIndex> change) {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            } else if (successor != null) {
+                successor.apply(change);
+            }
+        }
+
+        /**
+         * Replays the changes observed during the build on the new index, later changes reaching this
+         * holder being forwarded to the new one
+         *
+         * @return the holder of the new index, or this one if the build failed
+         */
+        private synchronized Holder endRefresh(PartNumberIndex newIndex, long now) {
+            List<Consumer<PartNumberIndex>> changes = pendingChanges;
+            pendingChanges = null;
+            if (newIndex == null) {
+                return this;
+            }
+            changes.forEach(change -> change.accept(newIndex));
+            successor = new Holder(newIndex, now);
+            successor.lastUsed = lastUsed;
+            return successor;
+        }
+    }
+}
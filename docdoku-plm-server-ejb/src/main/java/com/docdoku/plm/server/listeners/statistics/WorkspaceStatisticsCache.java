@@ -0,0 +1,176 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.docdoku.plm.server.listeners.statistics;
+
+import com.docdoku.plm.server.dao.DocumentRevisionDAO;
+import com.docdoku.plm.server.dao.PartRevisionDAO;
+import com.docdoku.plm.server.events.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-workspace document and part statistics backing the administration dashboards.
+ * <p>
+ * Statistics of a workspace are read from aggregate queries and cached for {@link #CACHE_TTL_MS}, so that
+ * the dashboards do not run them on every refresh. The cached entry is dropped once a creation, check in,
+ * check out or deletion observed on this node has committed; changes made elsewhere (imports, bulk
+ * operations, other cluster nodes) show up when the entry expires.
+ *
+ * @since V2.6
+ */
+@ApplicationScoped
+public class WorkspaceStatisticsCache {
+
+    static final long CACHE_TTL_MS = 30 * 1000;
+
+    @Inject
+    private DocumentRevisionDAO documentRevisionDAO;
+
+    @Inject
+    private PartRevisionDAO partRevisionDAO;
+
+    private final ConcurrentMap<String, WorkspaceStatistics> statistics = new ConcurrentHashMap<>();
+
+    private final LongSupplier clock;
+
+    public WorkspaceStatisticsCache() {
+        this.clock = System::currentTimeMillis;
+    }
+
+    WorkspaceStatisticsCache(DocumentRevisionDAO documentRevisionDAO, PartRevisionDAO partRevisionDAO, LongSupplier clock) {
+        this.documentRevisionDAO = documentRevisionDAO;
+        this.partRevisionDAO = partRevisionDAO;
+        this.clock = clock;
+    }
+
+    public int getDocumentsCount(String workspaceId) {
+        return getStatistics(workspaceId).documents;
+    }
+
+    public int getPartsCount(String workspaceId) {
+        return getStatistics(workspaceId).parts;
+    }
+
+    public Map<String, List<Date>> getCheckedOutDocuments(String workspaceId) {
+        return new HashMap<>(getStatistics(workspaceId).checkedOutDocuments);
+    }
+
+    public Map<String, List<Date>> getCheckedOutParts(String workspaceId) {
+        return new HashMap<>(getStatistics(workspaceId).checkedOutParts);
+    }
+
+    public void evict(String workspaceId) {
+        statistics.remove(workspaceId);
+    }
+
+    void onDocumentCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Created DocumentRevisionEvent event) {
+        evict(event.getObservedDocument().getWorkspaceId());
+    }
+
+    void onDocumentCheckedOut(@Observes(during = TransactionPhase.AFTER_SUCCESS) @CheckedOut DocumentRevisionEvent event) {
+        evict(event.getObservedDocument().getWorkspaceId());
+    }
+
+    void onDocumentCheckedIn(@Observes(during = TransactionPhase.AFTER_SUCCESS) @CheckedIn DocumentRevisionEvent event) {
+        evict(event.getObservedDocument().getWorkspaceId());
+    }
+
+    void onDocumentCheckOutUndone(@Observes(during = TransactionPhase.AFTER_SUCCESS) @CheckOutUndone DocumentRevisionEvent event) {
+        evict(event.getObservedDocument().getWorkspaceId());
+    }
+
+    void onDocumentRemoved(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Removed DocumentRevisionEvent event) {
+        evict(event.getObservedDocument().getWorkspaceId());
+    }
+
+    void onPartCreated(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Created PartRevisionEvent event) {
+        evict(event.getObservedPart().getWorkspaceId());
+    }
+
+    void onPartCheckedOut(@Observes(during = TransactionPhase.AFTER_SUCCESS) @CheckedOut PartRevisionEvent event) {
+        evict(event.getObservedPart().getWorkspaceId());
+    }
+
+    void onPartIterationCheckedIn(@Observes(during = TransactionPhase.AFTER_SUCCESS) @CheckedIn PartIterationEvent event) {
+        evict(event.getObservedPart().getWorkspaceId());
+    }
+
+    void onPartCheckOutUndone(@Observes(during = TransactionPhase.AFTER_SUCCESS) @CheckOutUndone PartRevisionEvent event) {
+        evict(event.getObservedPart().getWorkspaceId());
+    }
+
+    void onPartRemoved(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Removed PartRevisionEvent event) {
+        evict(event.getObservedPart().getWorkspaceId());
+    }
+
+    private WorkspaceStatistics getStatistics(String workspaceId) {
+        long now = clock.getAsLong();
+        WorkspaceStatistics workspaceStatistics = statistics.get(workspaceId);
+        if (workspaceStatistics == null || now - workspaceStatistics.readAt > CACHE_TTL_MS) {
+            workspaceStatistics = read(workspaceId, now);
+            statistics.put(workspaceId, workspaceStatistics);
+        }
+        return workspaceStatistics;
+    }
+
+    private WorkspaceStatistics read(String workspaceId, long now) {
+        return new WorkspaceStatistics(now,
+                documentRevisionDAO.getTotalNumberOfDocuments(workspaceId),
+                partRevisionDAO.getTotalNumberOfParts(workspaceId),
+                groupByUser(documentRevisionDAO.findCheckOutsByWorkspace(workspaceId)),
+                groupByUser(partRevisionDAO.findCheckOutsByWorkspace(workspaceId)));
+    }
+
+    /**
+     * @param checkOuts rows ending with the login of the user and the check out date
+     */
+    private static Map<String, List<Date>> groupByUser(List<Object[]> checkOuts) {
+        Map<String, List<Date>> datesByUser = new HashMap<>();
+        for (Object[] row : checkOuts) {
+            datesByUser.computeIfAbsent((String) row[2], login -> new ArrayList<>()).add((Date) row[3]);
+        }
+        return datesByUser;
+    }
+
+    private static class WorkspaceStatistics {
+
+        private final long readAt;
+        private final int documents;
+        private final int parts;
+        private final Map<String, List<Date>> checkedOutDocuments;
+        private final Map<String, List<Date>> checkedOutParts;
+
+        private WorkspaceStatistics(long readAt, int documents, int parts,
+                                    Map<String, List<Date>> checkedOutDocuments, Map<String, List<Date>> checkedOutParts) {
+            this.readAt = readAt;
+            this.documents = documents;
+            this.parts = parts;
+            this.checkedOutDocuments = checkedOutDocuments;
+            this.checkedOutParts = checkedOutParts;
+        }
+    }
+}
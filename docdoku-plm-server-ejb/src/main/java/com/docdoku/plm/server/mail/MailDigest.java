@@ -0,0 +1,97 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Notifications gathered for one recipient, sent as a single email.
+ */
+public class MailDigest {
+
+    private final String email;
+    private final String name;
+    private final Locale locale;
+    private final List<String> subjects = new ArrayList<>();
+    private final List<String> contents = new ArrayList<>();
+    private int failedAttempts;
+
+    public MailDigest(String email, String name, Locale locale) {
+        this.email = email;
+        this.name = name;
+        this.locale = locale;
+    }
+
+    public void add(String subject, String content) {
+        subjects.add(subject);
+        contents.add(content);
+    }
+
+    /**
+     * Adds the notifications of the other digest after the ones of this digest
+     */
+    public void addAll(MailDigest other) {
+        subjects.addAll(other.subjects);
+        contents.addAll(other.contents);
+    }
+
+    /**
+     * @return the number of failed attempts to send this digest, including this one
+     */
+    public int failedAttempt() {
+        return ++failedAttempts;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return contents.size();
+    }
+
+    /**
+     * A digest of a single notification keeps the subject of that notification
+     */
+    public String getSubject() {
+        if (contents.size() == 1) {
+            return subjects.get(0);
+        }
+        return NotificationTemplates.getSubject("Digest_title", locale) + " (" + contents.size() + ")";
+    }
+
+    public String getHTMLBody() {
+        if (contents.size() == 1) {
+            return NotificationTemplates.getHTMLBody(contents.get(0), locale);
+        }
+        StringBuilder body = new StringBuilder(NotificationTemplates.format("Digest_text", new Object[]{contents.size()}, locale));
+        for (int i = 0; i < contents.size(); i++) {
+            body.append("<hr><p><b>").append(subjects.get(i)).append("</b></p><p>").append(contents.get(i)).append("</p>");
+        }
+        return NotificationTemplates.getHTMLBody(body.toString(), locale);
+    }
+}
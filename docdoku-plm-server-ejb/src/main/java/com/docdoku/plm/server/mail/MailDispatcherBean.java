@@ -0,0 +1,164 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.mail;
+
+import com.docdoku.plm.server.config.ServerConfig;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.*;
+import javax.inject.Inject;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends the notification emails over pooled SMTP connections.
+ * <p>
+ * Notifications to workspace users are gathered per recipient during the configured
+ * window ({@link ServerConfig#getMailDigestWindow()}) and sent as one digest, so that
+ * a burst of events gives one email per recipient instead of one per event. A digest
+ * that cannot be sent is queued again for the next window, up to MAX_DIGEST_ATTEMPTS times.
+ */
+@Singleton(name = "MailDispatcherBean")
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class MailDispatcherBean {
+
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+
+    static final int MAX_DIGEST_ATTEMPTS = 3;
+
+    private static final Logger LOGGER = Logger.getLogger(MailDispatcherBean.class.getName());
+
+    @Resource(name = "mail/docdokuSMTP")
+    private Session mailSession;
+
+    @Resource
+    private TimerService timerService;
+
+    @Inject
+    private ServerConfig serverConfig;
+
+    private final Map<String, MailDigest> pendingDigests = new ConcurrentHashMap<>();
+
+    private MailTransportPool transportPool;
+
+    private boolean digestsEnabled;
+
+    @PostConstruct
+    private void init() {
+        transportPool = new MailTransportPool(mailSession, MAX_IDLE_CONNECTIONS);
+        long windowMs = serverConfig.getMailDigestWindow() * 1000L;
+        digestsEnabled = windowMs > 0;
+        if (digestsEnabled) {
+            timerService.createIntervalTimer(windowMs, windowMs, new TimerConfig(null, false));
+        }
+    }
+
+    @PreDestroy
+    private void close() {
+        sendDigests();
+        transportPool.close();
+    }
+
+    /**
+     * Sends the email right away.
+     */
+    public void send(String email, String name, String subject, String htmlBody) throws MessagingException {
+        if (email == null || email.isEmpty()) {
+            LOGGER.log(Level.WARNING, "Cannot send mail, email is empty");
+            return;
+        }
+
+        try {
+            InternetAddress emailAddress = new InternetAddress(email, name);
+            Message message = new MimeMessage(mailSession);
+            message.addRecipient(Message.RecipientType.TO, emailAddress);
+            message.setSubject(subject);
+            message.setSentDate(new Date());
+            message.setContent(htmlBody, "text/html; charset=utf-8");
+            message.setFrom();
+            transportPool.send(message);
+        } catch (UnsupportedEncodingException e) {
+            String logMessage = "Unsupported encoding: " + e.getMessage();
+            LOGGER.log(Level.SEVERE, logMessage, e);
+        }
+    }
+
+    /**
+     * Adds the notification to the digest of its recipient, or sends it right away
+     * if digests are disabled.
+     *
+     * @param content the notification text, without the mail body template
+     */
+    public void queue(String email, String name, Locale locale, String subject, String content) throws MessagingException {
+        if (!digestsEnabled) {
+            send(email, name, subject, NotificationTemplates.getHTMLBody(content, locale));
+            return;
+        }
+        if (email == null || email.isEmpty()) {
+            LOGGER.log(Level.WARNING, "Cannot send mail, email is empty");
+            return;
+        }
+        // compute() is atomic for a given key: a notification is never added to a digest being sent
+        pendingDigests.compute(email, (key, digest) -> {
+            MailDigest result = digest != null ? digest : new MailDigest(email, name, locale);
+            result.add(subject, content);
+            return result;
+        });
+    }
+
+    @Timeout
+    void sendDigests() {
+        for (String email : new ArrayList<>(pendingDigests.keySet())) {
+            MailDigest digest = pendingDigests.remove(email);
+            if (digest == null) {
+                continue;
+            }
+            try {
+                send(digest.getEmail(), digest.getName(), digest.getSubject(), digest.getHTMLBody());
+            } catch (MessagingException e) {
+                if (digest.failedAttempt() < MAX_DIGEST_ATTEMPTS) {
+                    LOGGER.log(Level.WARNING, "Cannot send " + digest.size() + " notification(s) to " + email + ", retrying at next window", e);
+                    // notifications queued meanwhile go after the failed ones
+                    pendingDigests.merge(email, digest, (failed, queued) -> {
+                        failed.addAll(queued);
+                        return failed;
+                    });
+                } else {
+                    LOGGER.log(Level.SEVERE, "Cannot send " + digest.size() + " notification(s) to " + email, e);
+                }
+            }
+        }
+    }
+}
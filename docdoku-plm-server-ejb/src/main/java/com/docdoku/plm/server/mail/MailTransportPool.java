@@ -0,0 +1,115 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.mail;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps SMTP connections open between messages instead of opening one per message.
+ * <p>
+ * A transport is used by one thread at a time: it is taken from the pool, used for one
+ * message and given back. Connections closed by the server meanwhile are detected and
+ * replaced.
+ */
+public class MailTransportPool {
+
+    private static final Logger LOGGER = Logger.getLogger(MailTransportPool.class.getName());
+
+    private final Session session;
+    private final BlockingDeque<Transport> idleTransports;
+
+    /**
+     * @param maxIdle number of connections kept open, additional ones are closed after use
+     */
+    public MailTransportPool(Session session, int maxIdle) {
+        this.session = session;
+        this.idleTransports = new LinkedBlockingDeque<>(maxIdle);
+    }
+
+    public void send(Message message) throws MessagingException {
+        message.saveChanges();
+        Transport transport = borrow();
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (SendFailedException e) {
+            release(transport);
+            throw e;
+        } catch (MessagingException e) {
+            // The connection may have been dropped by the server, try once more on a new one
+            LOGGER.log(Level.FINE, "Retrying on a new SMTP connection", e);
+            close(transport);
+            transport = connect();
+            try {
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException e2) {
+                close(transport);
+                throw e2;
+            }
+        }
+        release(transport);
+    }
+
+    public void close() {
+        Transport transport;
+        while ((transport = idleTransports.pollFirst()) != null) {
+            close(transport);
+        }
+    }
+
+    private Transport borrow() throws MessagingException {
+        Transport transport;
+        while ((transport = idleTransports.pollFirst()) != null) {
+            if (transport.isConnected()) {
+                return transport;
+            }
+            close(transport);
+        }
+        return connect();
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = session.getTransport();
+        transport.connect();
+        return transport;
+    }
+
+    private void release(Transport transport) {
+        if (!idleTransports.offerFirst(transport)) {
+            close(transport);
+        }
+    }
+
+    private void close(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            LOGGER.log(Level.FINE, null, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.mail;
+
+import com.docdoku.plm.server.i18n.PropertiesLoader;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Localized texts of the notification emails
+ */
+public final class NotificationTemplates {
+
+    private static final String TEMPLATE_BASE_NAME = "/com/docdoku/plm/server/templates/NotificationText";
+
+    private NotificationTemplates() {
+    }
+
+    private static Properties getProperties(Locale pLocale) {
+        return PropertiesLoader.loadLocalizedProperties(pLocale, TEMPLATE_BASE_NAME, NotificationTemplates.class);
+    }
+
+    public static String getString(String string, Locale pLocale) {
+        return getProperties(pLocale).getProperty(string).replaceAll("'", "’");
+    }
+
+    public static String format(String string, Object[] args, Locale pLocale) {
+        return MessageFormat.format(getString(string, pLocale).replaceAll("'", "’"), args);
+    }
+
+    public static String getHTMLBody(String content, Locale pLocale) {
+        String mailBodyTemplate = getString("MailBodyTemplate", pLocale);
+        return MessageFormat.format(mailBodyTemplate, content);
+    }
+
+    public static String getSubject(String string, Locale pLocale) {
+        String mailSubjectTemplate = getString("MailSubjectTemplate", pLocale);
+        return mailSubjectTemplate + " " + getString(string, pLocale);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.metrics;
+
+import com.docdoku.plm.server.core.metrics.RequestProbe;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * Wraps the injected {@link EntityManager} to count, in the {@link RequestProbe} of the current thread,
+ * the lookups by id and the queries executed along with the rows they fetched.
+ * Lazy loads triggered by navigating the returned entities go straight to the persistence provider and are not counted.
+ *
+ * Queries are wrapped as well, their fluent setters return the wrapper so that chained calls are still counted.
+ */
+public class MeteredEntityManager implements InvocationHandler {
+
+    private final Object target;
+
+    private MeteredEntityManager(Object target) {
+        this.target = target;
+    }
+
+    public static EntityManager wrap(EntityManager em) {
+        return (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class}, new MeteredEntityManager(em));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        boolean execution = isExecution(name);
+        Object result = null;
+        try {
+            result = invokeTarget(method, args);
+        } finally {
+            if (execution) {
+                RequestProbe.recordEntityManagerCall(countRows(name, result));
+            }
+        }
+
+        if (result == target) {
+            return proxy;
+        }
+        if (result instanceof Query && method.getReturnType().isInterface()) {
+            return Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+                    new Class<?>[]{method.getReturnType()}, new MeteredEntityManager(result));
+        }
+        return result;
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean isExecution(String name) {
+        if (target instanceof EntityManager) {
+            return "find".equals(name);
+        }
+        return "getResultList".equals(name) || "getSingleResult".equals(name)
+                || "getResultStream".equals(name) || "executeUpdate".equals(name) || "execute".equals(name);
+    }
+
+    private static long countRows(String name, Object result) {
+        if (result instanceof List) {
+            return ((List<?>) result).size();
+        }
+        if ("find".equals(name) || "getSingleResult".equals(name)) {
+            return result == null ? 0 : 1;
+        }
+        // Streams are not consumed here, updates do not fetch rows
+        return 0;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.metrics;
+
+import com.docdoku.plm.server.core.metrics.PerformanceMetrics;
+import com.docdoku.plm.server.core.metrics.RequestProbe;
+
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.AroundTimeout;
+import javax.interceptor.InvocationContext;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every business method of the module (declared as default interceptor in <code>ejb-jar.xml</code>)
+ * and records the entity manager calls it made.
+ *
+ * Calls made outside of a REST request (timers, asynchronous methods) are complete requests on their own
+ * and go to the slow request log.
+ */
+public class PerformanceInterceptor {
+
+    private static final PerformanceMetrics METRICS = PerformanceMetrics.getInstance();
+
+    private static final Map<Method, String> OPERATION_NAMES = new ConcurrentHashMap<>();
+
+    @AroundTimeout
+    public Object measureTimeout(InvocationContext ctx) throws Exception {
+        return measure(ctx);
+    }
+
+    @AroundInvoke
+    public Object measure(InvocationContext ctx) throws Exception {
+        if (!METRICS.isEnabled()) {
+            return ctx.proceed();
+        }
+
+        RequestProbe probe = RequestProbe.current();
+        boolean outermost = probe == null;
+        if (outermost) {
+            probe = RequestProbe.start();
+        }
+
+        long entityManagerCalls = probe.getEntityManagerCalls();
+        long rows = probe.getRows();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = ctx.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            String operation = OPERATION_NAMES.computeIfAbsent(ctx.getMethod(), PerformanceInterceptor::operationName);
+            entityManagerCalls = probe.getEntityManagerCalls() - entityManagerCalls;
+            rows = probe.getRows() - rows;
+            METRICS.record(operation, nanos, entityManagerCalls, rows, 0, failed);
+            if (outermost) {
+                RequestProbe.stop();
+                METRICS.requestCompleted(operation, null, nanos, entityManagerCalls, rows, 0, failed);
+            }
+        }
+    }
+
+    static String operationName(Method method) {
+        return PerformanceMetrics.EJB_PREFIX + method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+}
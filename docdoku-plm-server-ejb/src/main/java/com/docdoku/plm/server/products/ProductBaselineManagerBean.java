@@ -38,8 +38,11 @@ import com.docdoku.plm.server.configuration.PSFilterVisitorCallbacks;
 import com.docdoku.plm.server.configuration.filter.LatestCheckedInPSFilter;
 import com.docdoku.plm.server.configuration.filter.ReleasedPSFilter;
 import com.docdoku.plm.server.configuration.spec.DateBasedEffectivityConfigSpec;
+import com.docdoku.plm.server.configuration.spec.EffectivityIndex;
+import com.docdoku.plm.server.configuration.spec.EffectivityIndexCache;
 import com.docdoku.plm.server.configuration.spec.LotBasedEffectivityConfigSpec;
 import com.docdoku.plm.server.configuration.spec.ProductBaselineCreationConfigSpec;
+import com.docdoku.plm.server.configuration.spec.ResolvedCollectionCache;
 import com.docdoku.plm.server.configuration.spec.SerialNumberBasedEffectivityConfigSpec;
 import com.docdoku.plm.server.dao.*;
 import com.docdoku.plm.server.factory.ACLFactory;
@@ -97,6 +100,15 @@ public class ProductBaselineManagerBean implements IProductBaselineManagerLocal
     @Inject
     private PSFilterVisitor psFilterVisitor;
 
+    @Inject
+    private ResolvedCollectionCache resolvedCollectionCache;
+
+    @Inject
+    private EffectivityDAO effectivityDAO;
+
+    @Inject
+    private EffectivityIndexCache effectivityIndexCache;
+
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
     @Override
     public ProductBaseline createBaseline(ConfigurationItemKey ciKey, String name, ProductBaselineType pType,
@@ -124,15 +136,15 @@ public class ProductBaselineManagerBean implements IProductBaselineManagerLocal
         switch(pType){
 
             case EFFECTIVE_DATE:
-                filter = new DateBasedEffectivityConfigSpec(effectiveDate, configurationItem);
+                filter = new DateBasedEffectivityConfigSpec(effectiveDate, configurationItem, getEffectivityIndex(configurationItem));
             break;
 
             case EFFECTIVE_SERIAL_NUMBER:
-                filter = new SerialNumberBasedEffectivityConfigSpec(effectiveSerialNumber, configurationItem);
+                filter = new SerialNumberBasedEffectivityConfigSpec(effectiveSerialNumber, configurationItem, getEffectivityIndex(configurationItem));
             break;
 
             case EFFECTIVE_LOT_ID:
-                filter = new LotBasedEffectivityConfigSpec(effectiveLotId, configurationItem);
+                filter = new LotBasedEffectivityConfigSpec(effectiveLotId, configurationItem, getEffectivityIndex(configurationItem));
             break;
 
             case LATEST:
@@ -249,6 +261,7 @@ public class ProductBaselineManagerBean implements IProductBaselineManagerLocal
             throw new EntityConstraintException("EntityConstraintException16");
         }
 
+        resolvedCollectionCache.invalidate(productBaseline.getPartCollection().getId());
         productBaselineDAO.deleteBaseline(productBaseline);
 
     }
@@ -573,4 +586,8 @@ public class ProductBaselineManagerBean implements IProductBaselineManagerLocal
         }
     }
 
+    private EffectivityIndex getEffectivityIndex(ConfigurationItem configurationItem) {
+        return effectivityIndexCache.get(configurationItem.getKey(),
+                ciKey -> new EffectivityIndex(ciKey, effectivityDAO.findConfigurationItemEffectivities(ciKey)));
+    }
 }
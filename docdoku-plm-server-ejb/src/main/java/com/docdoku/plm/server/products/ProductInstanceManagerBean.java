@@ -114,6 +114,15 @@ public class ProductInstanceManagerBean implements IProductInstanceManagerLocal
     @Inject
     private PSFilterVisitor psFilterVisitor;
 
+    @Inject
+    private ResolvedCollectionCache resolvedCollectionCache;
+
+    @Inject
+    private EffectivityDAO effectivityDAO;
+
+    @Inject
+    private EffectivityIndexCache effectivityIndexCache;
+
     private static final Logger LOGGER = Logger.getLogger(ProductInstanceManagerBean.class.getName());
 
     @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
@@ -221,15 +230,15 @@ public class ProductInstanceManagerBean implements IProductInstanceManagerLocal
             ProductConfigSpec filter;
             switch(pType){
                 case EFFECTIVE_DATE:
-                    filter = new DateBasedEffectivityConfigSpec(effectiveDate, configurationItem);
+                    filter = new DateBasedEffectivityConfigSpec(effectiveDate, configurationItem, getEffectivityIndex(configurationItem));
                     break;
 
                 case EFFECTIVE_SERIAL_NUMBER:
-                    filter = new SerialNumberBasedEffectivityConfigSpec(effectiveSerialNumber, configurationItem);
+                    filter = new SerialNumberBasedEffectivityConfigSpec(effectiveSerialNumber, configurationItem, getEffectivityIndex(configurationItem));
                     break;
 
                 case EFFECTIVE_LOT_ID:
-                    filter = new LotBasedEffectivityConfigSpec(effectiveLotId, configurationItem);
+                    filter = new LotBasedEffectivityConfigSpec(effectiveLotId, configurationItem, getEffectivityIndex(configurationItem));
                     break;
                 default:
                     throw new CreationException();
@@ -638,6 +647,7 @@ public class ProductInstanceManagerBean implements IProductInstanceManagerLocal
         productInstanceMasterDAO.deleteProductInstanceMaster(prodInstM);
 
         for (ProductInstanceIteration pii : prodInstM.getProductInstanceIterations()) {
+            resolvedCollectionCache.invalidate(pii.getPartCollection().getId());
             for (BinaryResource file : pii.getAttachedFiles()) {
                 try {
                     storageManager.deleteData(file);
@@ -904,6 +914,19 @@ public class ProductInstanceManagerBean implements IProductInstanceManagerLocal
         return pathDataMaster;
     }
 
+    @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
+    @Override
+    public Set<String> getPathsWithPathData(String workspaceId, String configurationItemId, String serialNumber) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, AccessRightException, ProductInstanceMasterNotFoundException, WorkspaceNotEnabledException {
+        User user = userManager.checkWorkspaceReadAccess(workspaceId);
+
+        ProductInstanceMaster prodInstM = productInstanceMasterDAO.loadProductInstanceMaster(new ProductInstanceMasterKey(serialNumber, workspaceId, configurationItemId));
+
+        // Check the access to the product instance
+        checkProductInstanceReadAccess(workspaceId, prodInstM, user);
+
+        return new HashSet<>(pathDataMasterDAO.findPathsWithIterations(prodInstM.getLastIteration()));
+    }
+
     @RolesAllowed({UserGroupMapping.REGULAR_USER_ROLE_ID})
     @Override
     public boolean canWrite(String workspaceId, String configurationItemId, String serialNumber) {
@@ -1283,4 +1306,9 @@ public class ProductInstanceManagerBean implements IProductInstanceManagerLocal
         }
         return pathDataIteration;
     }
+
+    private EffectivityIndex getEffectivityIndex(ConfigurationItem configurationItem) {
+        return effectivityIndexCache.get(configurationItem.getKey(),
+                ciKey -> new EffectivityIndex(ciKey, effectivityDAO.findConfigurationItemEffectivities(ciKey)));
+    }
 }
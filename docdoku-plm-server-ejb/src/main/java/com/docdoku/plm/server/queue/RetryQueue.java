@@ -0,0 +1,101 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.queue;
+
+import com.docdoku.plm.server.core.common.RetryableTask;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Lease and backoff rules of a task queue persisted in the database.
+ * <p>
+ * Claimed tasks are leased: they are hidden from the claims of other nodes until the lease ends, and picked up
+ * again then should the node die meanwhile. A failed task is attempted again after an exponential backoff,
+ * until its attempts run out.
+ */
+public final class RetryQueue {
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long leaseMillis;
+
+    public RetryQueue(int maxAttempts, long baseBackoffMillis, long maxBackoffMillis, long leaseMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseBackoffMillis() {
+        return baseBackoffMillis;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public long getLeaseMillis() {
+        return leaseMillis;
+    }
+
+    /**
+     * Delay before the next attempt of a task that already failed the given number of times
+     */
+    public long backoffMillis(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(baseBackoffMillis << shift, maxBackoffMillis);
+    }
+
+    /**
+     * Hides the claimed tasks from the other claims until the end of a new lease
+     *
+     * @return the end of the lease
+     */
+    public Date lease(Collection<? extends RetryableTask> tasks) {
+        Date leaseEnd = new Date(System.currentTimeMillis() + leaseMillis);
+        for (RetryableTask task : tasks) {
+            task.setNextAttempt(leaseEnd);
+        }
+        return leaseEnd;
+    }
+
+    /**
+     * Counts a failed attempt of the task and schedules the next one
+     *
+     * @return false, leaving the task unchanged, if it has no attempt left and is to be given up
+     */
+    public boolean retry(RetryableTask task, String error) {
+        int attempts = task.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            return false;
+        }
+        task.setAttempts(attempts);
+        task.setLastError(error);
+        task.setNextAttempt(new Date(System.currentTimeMillis() + backoffMillis(attempts)));
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.queue;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.*;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs every {@link Sweeper} of the application on its own non persistent timer.
+ * <p>
+ * A run still going when the next one is due is not doubled, the next one is skipped.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class SweeperScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(SweeperScheduler.class.getName());
+
+    @Resource
+    private TimerService timerService;
+
+    @Inject
+    @Any
+    private Instance<Sweeper> sweeperInstances;
+
+    private final List<Sweeper> sweepers = new ArrayList<>();
+
+    private final List<AtomicBoolean> running = new ArrayList<>();
+
+    @PostConstruct
+    private void start() {
+        for (Sweeper sweeper : sweeperInstances) {
+            int index = sweepers.size();
+            sweepers.add(sweeper);
+            running.add(new AtomicBoolean());
+            long period = sweeper.getPeriodMillis();
+            timerService.createIntervalTimer(period, period, new TimerConfig(index, false));
+        }
+        LOGGER.info(sweepers.size() + " sweeper(s) registered");
+    }
+
+    @Timeout
+    public void run(Timer timer) {
+        int index = (Integer) timer.getInfo();
+        AtomicBoolean sweeping = running.get(index);
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sweepers.get(index).sweep();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Sweep failed, it will run again at the next period", e);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -44,4 +44,6 @@ public interface StorageProvider {
     Date getLastModified(BinaryResource binaryResource, String generatedFileName) throws FileNotFoundException;
     InputStream getGeneratedFileInputStream(BinaryResource pBinaryResource, String generatedFileName) throws StorageException, FileNotFoundException;
     OutputStream getGeneratedFileOutputStream(BinaryResource binaryResource, String generatedFileName) throws StorageException;
+    long getGeneratedFileLength(BinaryResource binaryResource, String generatedFileName) throws FileNotFoundException;
+    void deleteGeneratedFile(BinaryResource binaryResource, String generatedFileName) throws StorageException;
 }
@@ -29,7 +29,10 @@ import com.docdoku.plm.server.core.util.Tools;
 import com.docdoku.plm.server.storage.StorageProvider;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Date;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
@@ -120,12 +123,32 @@ public class FileStorageProvider implements StorageProvider {
         File generatedFile = new File(getGeneratedFilesFolder(binaryResource), Tools.unAccent(generatedFileName));
         generatedFile.getParentFile().mkdirs();
         try {
-            return new BufferedOutputStream(new FileOutputStream(generatedFile));
-        } catch (java.io.FileNotFoundException e) {
+            // Write to a temporary file first so concurrent readers never see a partially written file
+            File tempFile = File.createTempFile("." + generatedFile.getName(), ".part", generatedFile.getParentFile());
+            return new GeneratedFileOutputStream(tempFile, generatedFile);
+        } catch (IOException e) {
             throw new StorageException(e.getMessage(), e);
         }
     }
 
+    @Override
+    public long getGeneratedFileLength(BinaryResource binaryResource, String generatedFileName) throws FileNotFoundException {
+        File generatedFile = new File(getGeneratedFilesFolder(binaryResource), Tools.unAccent(generatedFileName));
+        if (generatedFile.exists()) {
+            return generatedFile.length();
+        } else {
+            throw new FileNotFoundException("Can't find generated file " + generatedFileName + " of " + binaryResource.getFullName());
+        }
+    }
+
+    @Override
+    public void deleteGeneratedFile(BinaryResource binaryResource, String generatedFileName) {
+        File generatedFile = new File(getGeneratedFilesFolder(binaryResource), Tools.unAccent(generatedFileName));
+        if (generatedFile.exists() && !generatedFile.delete()) {
+            LOGGER.log(Level.WARNING, "Cannot delete generated file " + generatedFile.getAbsolutePath());
+        }
+    }
+
     @Override
     public File copyFile(File source, BinaryResource pTargetBinaryResource) throws StorageException, FileNotFoundException {
         if (source.exists()) {
@@ -215,4 +238,39 @@ public class FileStorageProvider implements StorageProvider {
             FileIO.rmDir(genFolder);
         }
     }
+
+    /**
+     * Output stream writing to a temporary file which is moved to its final location when closed.
+     */
+    private static class GeneratedFileOutputStream extends FilterOutputStream {
+
+        private final File tempFile;
+        private final File targetFile;
+        private boolean closed;
+
+        GeneratedFileOutputStream(File tempFile, File targetFile) throws java.io.FileNotFoundException {
+            super(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            this.tempFile = tempFile;
+            this.targetFile = targetFile;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+                Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+    }
 }
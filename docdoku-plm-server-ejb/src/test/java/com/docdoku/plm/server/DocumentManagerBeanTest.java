@@ -24,14 +24,18 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import com.docdoku.plm.server.core.common.Account;
 import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.common.PurgeTask;
 import com.docdoku.plm.server.core.common.User;
 import com.docdoku.plm.server.core.common.Workspace;
 import com.docdoku.plm.server.core.document.*;
+import com.docdoku.plm.server.core.exceptions.AccessRightException;
 import com.docdoku.plm.server.core.exceptions.NotAllowedException;
 import com.docdoku.plm.server.core.meta.Folder;
 import com.docdoku.plm.server.core.meta.InstanceAttribute;
@@ -42,15 +46,18 @@ import com.docdoku.plm.server.core.security.ACLPermission;
 import com.docdoku.plm.server.core.services.IUserManagerLocal;
 import com.docdoku.plm.server.dao.ACLDAO;
 import com.docdoku.plm.server.dao.BinaryResourceDAO;
+import com.docdoku.plm.server.dao.ChangeItemDAO;
+import com.docdoku.plm.server.dao.DocumentBaselineDAO;
+import com.docdoku.plm.server.dao.DocumentLinkDAO;
 import com.docdoku.plm.server.dao.DocumentMasterTemplateDAO;
 import com.docdoku.plm.server.dao.DocumentRevisionDAO;
+import com.docdoku.plm.server.dao.FolderDAO;
+import com.docdoku.plm.server.events.DocumentRevisionEvent;
 import com.docdoku.plm.server.util.DocumentUtil;
 
+import javax.enterprise.event.Event;
 import javax.persistence.TypedQuery;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
-import java.util.List;
+import java.util.*;
 
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -74,6 +81,20 @@ public class DocumentManagerBeanTest {
     private DocumentRevisionDAO documentRevisionDAO;
     @Mock
     private ACLDAO aclDAO;
+    @Mock
+    private FolderDAO folderDAO;
+    @Mock
+    private DocumentBaselineDAO documentBaselineDAO;
+    @Mock
+    private DocumentLinkDAO documentLinkDAO;
+    @Mock
+    private ChangeItemDAO changeItemDAO;
+    @Mock
+    private PurgeTaskBean purgeTaskBean;
+    @Mock
+    private Event<DocumentRevisionEvent> documentRevisionEvent;
+    @Captor
+    private ArgumentCaptor<Collection<PurgeTask>> purgeTasks;
 
     private Workspace workspace;
     private User user;
@@ -364,4 +385,104 @@ public class DocumentManagerBeanTest {
         Assert.assertNull(documentRevision.getACL());
     }
 
+    @Test
+    public void moveFolderIntoItsSubTree() throws Exception {
+        String completePath = DocumentUtil.WORKSPACE_ID + "/" + DocumentUtil.FOLDER;
+        Mockito.when(userManager.checkWorkspaceWriteAccess(DocumentUtil.WORKSPACE_ID)).thenReturn(user);
+        Mockito.when(folderDAO.loadFolder(completePath)).thenReturn(new Folder(completePath));
+
+        try {
+            documentManagerBean.moveFolder(completePath, completePath + "/sub", "moved");
+            Assert.fail("moveFolder should have raised an exception because the destination is below the moved folder");
+        } catch (NotAllowedException notAllowedException) {
+            Mockito.verify(folderDAO, Mockito.never()).moveFolder(ArgumentMatchers.any(), ArgumentMatchers.any());
+        }
+    }
+
+    @Test
+    public void deleteFolderChecksEveryDocumentBeforeDeleting() throws Exception {
+        String completePath = DocumentUtil.WORKSPACE_ID + "/" + DocumentUtil.FOLDER;
+        Folder folder = new Folder(completePath);
+        DocumentMaster documentMaster = new DocumentMaster(workspace, DocumentUtil.DOCUMENT_ID, user);
+        DocumentRevision writable = new DocumentRevision(documentMaster, DocumentUtil.VERSION, user);
+        writable.setLocation(folder);
+        DocumentRevision readOnly = new DocumentRevision(documentMaster, "B", user);
+        readOnly.setLocation(folder);
+        readOnly.setACL(acl);
+
+        Mockito.when(userManager.checkWorkspaceWriteAccess(DocumentUtil.WORKSPACE_ID)).thenReturn(user);
+        Mockito.when(folderDAO.loadFolder(completePath)).thenReturn(folder);
+        Mockito.when(folderDAO.findDocumentRevisionsInFolder(folder)).thenReturn(Arrays.asList(writable, readOnly));
+
+        try {
+            documentManagerBean.deleteFolder(completePath);
+            Assert.fail("deleteFolder should have raised an exception because a document is read only");
+        } catch (AccessRightException accessRightException) {
+            Mockito.verify(documentRevisionDAO, Mockito.never()).removeRevisionsInFolder(ArgumentMatchers.any(), ArgumentMatchers.any());
+            Mockito.verify(folderDAO, Mockito.never()).removeFolder(ArgumentMatchers.any(Folder.class));
+            Mockito.verify(purgeTaskBean, Mockito.never()).enqueue(ArgumentMatchers.any());
+        }
+    }
+
+    @Test
+    public void deleteFolderQueuesVaultAndIndexPurge() throws Exception {
+        String completePath = DocumentUtil.WORKSPACE_ID + "/" + DocumentUtil.FOLDER;
+        Folder folder = new Folder(completePath);
+        DocumentMaster documentMaster = new DocumentMaster(workspace, DocumentUtil.DOCUMENT_ID, user);
+        DocumentRevision revision = new DocumentRevision(documentMaster, DocumentUtil.VERSION, user);
+        revision.setLocation(folder);
+        List<DocumentRevision> revisions = Collections.singletonList(revision);
+        DocumentIterationKey iterationKey = new DocumentIterationKey(revision.getKey(), 1);
+
+        Mockito.when(userManager.checkWorkspaceWriteAccess(DocumentUtil.WORKSPACE_ID)).thenReturn(user);
+        Mockito.when(folderDAO.loadFolder(completePath)).thenReturn(folder);
+        Mockito.when(folderDAO.findDocumentRevisionsInFolder(folder)).thenReturn(revisions);
+        Mockito.when(folderDAO.findDocumentIterationKeysInFolder(folder)).thenReturn(Collections.singletonList(iterationKey));
+        Mockito.when(folderDAO.findAttachedFileNamesInFolder(folder)).thenReturn(Collections.singletonList(DocumentUtil.FULL_NAME));
+        Mockito.when(documentRevisionEvent.select(ArgumentMatchers.any())).thenReturn(documentRevisionEvent);
+
+        DocumentRevisionKey[] deleted = documentManagerBean.deleteFolder(completePath);
+
+        Assert.assertArrayEquals(new DocumentRevisionKey[]{revision.getKey()}, deleted);
+        Mockito.verify(documentRevisionDAO).removeRevisionsInFolder(folder, revisions);
+        Mockito.verify(folderDAO).removeFolder(folder);
+        Mockito.verify(purgeTaskBean).enqueue(purgeTasks.capture());
+        List<String> targets = new ArrayList<>();
+        for (PurgeTask task : purgeTasks.getValue()) {
+            targets.add(task.getType() + " " + task.getTarget());
+        }
+        Assert.assertEquals(Arrays.asList(PurgeTask.Type.DOCUMENT_ITERATION_INDEX_ENTRY + " " + iterationKey,
+                PurgeTask.Type.BINARY_RESOURCE + " " + DocumentUtil.FULL_NAME), targets);
+    }
+
+    @Test
+    public void canUserAccessChecksTheAccessProjection() throws Exception {
+        DocumentRevisionKey key = new DocumentRevisionKey(DocumentUtil.WORKSPACE_ID, DocumentUtil.DOCUMENT_ID, DocumentUtil.VERSION);
+        Mockito.when(documentRevisionDAO.findAccess(key))
+                .thenReturn(new DocumentRevisionAccess(key, 42, null, false, DocumentUtil.WORKSPACE_ID + "/folders", 1));
+        Mockito.when(aclDAO.loadACL(42)).thenReturn(acl);
+
+        Assert.assertTrue(documentManagerBean.canUserAccess(user, key));
+        Mockito.verify(documentRevisionDAO, Mockito.never()).loadDocR(key);
+    }
+
+    @Test
+    public void canUserAccessDeniedInAnotherUserHomeFolder() throws Exception {
+        DocumentRevisionKey key = new DocumentRevisionKey(DocumentUtil.WORKSPACE_ID, DocumentUtil.DOCUMENT_ID, DocumentUtil.VERSION);
+        Mockito.when(documentRevisionDAO.findAccess(key))
+                .thenReturn(new DocumentRevisionAccess(key, null, null, false, DocumentUtil.WORKSPACE_ID + "/~" + DocumentUtil.USER_2_LOGIN, 1));
+
+        Assert.assertFalse(documentManagerBean.canUserAccess(user, key));
+    }
+
+    @Test
+    public void canUserAccessCheckedOutIterationOnlyForCheckOutUser() throws Exception {
+        DocumentRevisionKey key = new DocumentRevisionKey(DocumentUtil.WORKSPACE_ID, DocumentUtil.DOCUMENT_ID, DocumentUtil.VERSION);
+        Mockito.when(documentRevisionDAO.findAccess(key))
+                .thenReturn(new DocumentRevisionAccess(key, null, DocumentUtil.USER_2_LOGIN, false, DocumentUtil.WORKSPACE_ID + "/folders", 2));
+
+        Assert.assertTrue(documentManagerBean.canUserAccess(user, new DocumentIterationKey(key, 1)));
+        Assert.assertFalse(documentManagerBean.canUserAccess(user, new DocumentIterationKey(key, 2)));
+    }
+
 }
@@ -37,6 +37,9 @@ import com.docdoku.plm.server.core.document.DocumentRevisionKey;
 import com.docdoku.plm.server.core.exceptions.*;
 import com.docdoku.plm.server.core.meta.*;
 import com.docdoku.plm.server.core.product.*;
+import com.docdoku.plm.server.core.query.Query;
+import com.docdoku.plm.server.core.security.ACL;
+import com.docdoku.plm.server.core.security.ACLPermission;
 import com.docdoku.plm.server.core.services.IIndexerManagerLocal;
 import com.docdoku.plm.server.core.services.IUserManagerLocal;
 import com.docdoku.plm.server.configuration.PSFilterVisitor;
@@ -67,9 +70,15 @@ public class ProductManagerBeanTest {
     @Mock
     private PartRevisionDAO partRevisionDAO;
     @Mock
+    private ACLDAO aclDAO;
+    @Mock
     private PartUsageLinkDAO partUsageLinkDAO;
     @Mock
     private TagDAO tagDAO;
+    @Mock
+    private PartRevisionQueryDAO partRevisionQueryDAO;
+    @Mock
+    private WorkspaceDAO workspaceDAO;
 
     @Mock
     private IUserManagerLocal userManager;
@@ -248,7 +257,9 @@ public class ProductManagerBeanTest {
         Mockito.when(userManager.checkWorkspaceReadAccess(ProductUtil.WORKSPACE_ID)).thenReturn(user);
         Mockito.when(userManager.checkWorkspaceWriteAccess(ProductUtil.WORKSPACE_ID)).thenReturn(user);
         Mockito.when(partRevisionDAO.loadPartR(partRevision.getKey())).thenReturn((partRevision));
-        Mockito.when(partRevisionDAO.loadPartR(partRevision.getKey())).thenReturn((partRevision));
+        Mockito.when(partRevisionDAO.loadPartR(partRevision.getKey(), PartRevision.GRAPH_DETAIL)).thenReturn((partRevision));
+        Mockito.when(partRevisionDAO.findAccess(partRevision.getKey()))
+                .thenReturn(new PartRevisionAccess(partRevision.getKey(), null, user.getLogin(), false, ProductUtil.ITERATION));
 
         PartRevision partRevisionResult = productManagerBean.removeTag(partRevision.getKey(), "Important");
         Mockito.verify(indexerManager, Mockito.times(1)).indexPartIteration(partRevisionResult.getLastIteration());
@@ -291,6 +302,8 @@ public class ProductManagerBeanTest {
     public void getPartIterationCheckedOutByOther() throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, PartRevisionNotFoundException, AccessRightException, PartIterationNotFoundException, NotAllowedException, WorkspaceNotEnabledException {
         Mockito.when(userManager.checkWorkspaceReadAccess(partRevision.getKey().getPartMaster().getWorkspace())).thenReturn(user2);
         Mockito.when(partIterationDAO.loadPartI(partIteration.getKey())).thenReturn(partIteration);
+        Mockito.when(partRevisionDAO.findAccess(partRevision.getKey()))
+                .thenReturn(new PartRevisionAccess(partRevision.getKey(), null, user.getLogin(), false, ProductUtil.ITERATION));
 
         productManagerBean.getPartIteration(partIteration.getKey());
     }
@@ -303,4 +316,76 @@ public class ProductManagerBeanTest {
         productManagerBean.updatePartIteration(partIteration.getKey(), null, null, null, null, null, null, null, null);
     }
 
+    @Test
+    public void getReadablePartRevisionsLastIterationNumbers() throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
+        PartRevision forbiddenRevision = new PartRevision(new PartMaster(workspace, "forbidden", user2), ProductUtil.VERSION, user2);
+        ACL acl = new ACL();
+        acl.addEntry(user, ACLPermission.FORBIDDEN);
+        forbiddenRevision.setACL(acl);
+        PartRevision otherRevision = new PartRevision(partMaster, "B", user);
+
+        Set<PartRevisionKey> keys = new HashSet<>(Arrays.asList(partRevision.getKey(), forbiddenRevision.getKey()));
+        Mockito.when(userManager.checkWorkspaceReadAccess(workspace.getId())).thenReturn(user);
+        Mockito.when(partRevisionDAO.findPartRevisionsByNumbers(Mockito.eq(workspace.getId()), any()))
+                .thenReturn(Arrays.asList(partRevision, forbiddenRevision, otherRevision));
+
+        Map<PartRevisionKey, Integer> lastIterationNumbers = productManagerBean.getReadablePartRevisionsLastIterationNumbers(workspace.getId(), keys);
+
+        Assert.assertEquals(1, lastIterationNumbers.size());
+        Assert.assertEquals(Integer.valueOf(ProductUtil.ITERATION), lastIterationNumbers.get(partRevision.getKey()));
+    }
+
+    @Test
+    public void searchPartRevisionsPageSkipsForbiddenRevisions() throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, WorkspaceNotEnabledException {
+        PartRevision forbiddenRevision = new PartRevision(new PartMaster(workspace, "forbidden", user2), ProductUtil.VERSION, user2);
+        forbiddenRevision.createNextIteration(user2);
+        ACL acl = new ACL();
+        acl.addEntry(user, ACLPermission.FORBIDDEN);
+        forbiddenRevision.setACL(acl);
+        PartRevision otherRevision = new PartRevision(new PartMaster(workspace, "other", user), ProductUtil.VERSION, user);
+        otherRevision.createNextIteration(user);
+
+        Query query = new Query();
+        Mockito.when(userManager.checkWorkspaceReadAccess(workspace.getId())).thenReturn(user);
+        Mockito.when(workspaceDAO.loadWorkspace(workspace.getId())).thenReturn(workspace);
+        Mockito.when(partRevisionQueryDAO.runQuery(any(), Mockito.eq(workspace), Mockito.eq(query), ArgumentMatchers.isNull(), Mockito.eq(2)))
+                .thenReturn(new ArrayList<>(Arrays.asList(partRevision, forbiddenRevision)));
+        Mockito.when(partRevisionQueryDAO.runQuery(any(), Mockito.eq(workspace), Mockito.eq(query), Mockito.eq(forbiddenRevision.getKey()), Mockito.eq(2)))
+                .thenReturn(new ArrayList<>(Collections.singletonList(otherRevision)));
+
+        List<PartRevision> page = productManagerBean.searchPartRevisions(workspace.getId(), query, null, 2);
+
+        Assert.assertEquals(Arrays.asList(partRevision, otherRevision), page);
+    }
+
+    @Test
+    public void canAccessChecksTheAccessProjection() throws Exception {
+        ACL acl = new ACL();
+        acl.addEntry(user, ACLPermission.FORBIDDEN);
+        Mockito.when(userManager.checkWorkspaceReadAccess(workspace.getId())).thenReturn(user);
+        Mockito.when(partRevisionDAO.findAccess(partRevision.getKey()))
+                .thenReturn(new PartRevisionAccess(partRevision.getKey(), 42, null, false, ProductUtil.ITERATION));
+        Mockito.when(aclDAO.loadACL(42)).thenReturn(acl);
+
+        Assert.assertFalse(productManagerBean.canAccess(partRevision.getKey()));
+        Mockito.verify(partRevisionDAO, Mockito.never()).loadPartR(any());
+    }
+
+    @Test
+    public void canAccessCheckedOutIterationOnlyForCheckOutUser() throws Exception {
+        PartIterationKey iterationKey = new PartIterationKey(partRevision.getKey(), ProductUtil.ITERATION);
+        Mockito.when(partRevisionDAO.findAccess(partRevision.getKey()))
+                .thenReturn(new PartRevisionAccess(partRevision.getKey(), null, user.getLogin(), false, ProductUtil.ITERATION));
+
+        Assert.assertTrue(productManagerBean.canUserAccess(user, iterationKey));
+        Assert.assertFalse(productManagerBean.canUserAccess(user2, iterationKey));
+        Mockito.verify(partRevisionDAO, Mockito.never()).loadPartR(any());
+    }
+
+    @Test(expected = PartRevisionNotFoundException.class)
+    public void canAccessMissingPartRevision() throws Exception {
+        Mockito.when(userManager.checkWorkspaceReadAccess(workspace.getId())).thenReturn(user);
+        productManagerBean.canAccess(partRevision.getKey());
+    }
+
 }
@@ -0,0 +1,123 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server;
+
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.common.PurgeTask;
+import com.docdoku.plm.server.core.exceptions.IndexerNotAvailableException;
+import com.docdoku.plm.server.core.services.IBinaryStorageManagerLocal;
+import com.docdoku.plm.server.core.services.IIndexerManagerLocal;
+import com.docdoku.plm.server.dao.PurgeTaskDAO;
+import com.docdoku.plm.server.queue.RetryQueue;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+
+import javax.ejb.SessionContext;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class PurgeTaskBeanTest {
+
+    private static final String WORKSPACE_A = "WorkspaceA";
+    private static final String WORKSPACE_B = "WorkspaceB";
+
+    @InjectMocks
+    private PurgeTaskBean purgeTaskBean;
+
+    @Mock
+    private SessionContext ctx;
+
+    @Mock
+    private PurgeTaskDAO purgeTaskDAO;
+
+    @Mock
+    private IBinaryStorageManagerLocal storageManager;
+
+    @Mock
+    private IIndexerManagerLocal indexerManager;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        Mockito.when(ctx.getBusinessObject(PurgeTaskBean.class)).thenReturn(purgeTaskBean);
+    }
+
+    @Test
+    public void backoff() {
+        RetryQueue queue = PurgeTaskBean.RETRY_QUEUE;
+        Assert.assertEquals(queue.getBaseBackoffMillis(), queue.backoffMillis(1));
+        Assert.assertEquals(4 * queue.getBaseBackoffMillis(), queue.backoffMillis(3));
+        Assert.assertEquals(queue.getMaxBackoffMillis(), queue.backoffMillis(queue.getMaxAttempts()));
+    }
+
+    @Test
+    public void purgeSendsOneIndexRequestPerWorkspace() throws Exception {
+        PurgeTask file = new PurgeTask(PurgeTask.Type.BINARY_RESOURCE, WORKSPACE_A, WORKSPACE_A + "/documents/D1/A/1/file.txt");
+        List<PurgeTask> tasks = Arrays.asList(
+                new PurgeTask(PurgeTask.Type.DOCUMENT_ITERATION_INDEX_ENTRY, WORKSPACE_A, "WorkspaceA-D1-A-1"),
+                file,
+                new PurgeTask(PurgeTask.Type.DOCUMENT_ITERATION_INDEX_ENTRY, WORKSPACE_B, "WorkspaceB-D2-A-1"),
+                new PurgeTask(PurgeTask.Type.DOCUMENT_ITERATION_INDEX_ENTRY, WORKSPACE_A, "WorkspaceA-D1-A-2"));
+
+        Assert.assertEquals(4, purgeTaskBean.purge(tasks));
+
+        Mockito.verify(indexerManager).removeDocumentIterationsFromIndex(WORKSPACE_A, Arrays.asList("WorkspaceA-D1-A-1", "WorkspaceA-D1-A-2"));
+        Mockito.verify(indexerManager).removeDocumentIterationsFromIndex(WORKSPACE_B, Collections.singletonList("WorkspaceB-D2-A-1"));
+        ArgumentCaptor<BinaryResource> deleted = ArgumentCaptor.forClass(BinaryResource.class);
+        Mockito.verify(storageManager).deleteData(deleted.capture());
+        Assert.assertEquals(file.getTarget(), deleted.getValue().getFullName());
+    }
+
+    @Test
+    public void unavailableIndexIsRetriedLater() throws Exception {
+        PurgeTask task = new PurgeTask(PurgeTask.Type.DOCUMENT_ITERATION_INDEX_ENTRY, WORKSPACE_A, "WorkspaceA-D1-A-1");
+        Mockito.doThrow(new IndexerNotAvailableException()).when(indexerManager)
+                .removeDocumentIterationsFromIndex(ArgumentMatchers.anyString(), ArgumentMatchers.anyList());
+        Mockito.when(purgeTaskDAO.findTask(task.getId())).thenReturn(task);
+
+        long before = System.currentTimeMillis();
+        Assert.assertEquals(0, purgeTaskBean.purge(Collections.singletonList(task)));
+
+        Assert.assertEquals(1, task.getAttempts());
+        Assert.assertTrue(task.getNextAttempt().getTime() >= before + PurgeTaskBean.RETRY_QUEUE.getBaseBackoffMillis());
+        Mockito.verify(purgeTaskDAO, Mockito.never()).removeTasks(Collections.singletonList(task.getId()));
+    }
+
+    @Test
+    public void taskIsAbandonedAfterMaxAttempts() {
+        PurgeTask task = new PurgeTask(PurgeTask.Type.BINARY_RESOURCE, WORKSPACE_A, WORKSPACE_A + "/documents/D1/A/1/file.txt");
+        task.setAttempts(PurgeTaskBean.RETRY_QUEUE.getMaxAttempts() - 1);
+        Mockito.when(purgeTaskDAO.findTask(task.getId())).thenReturn(task);
+
+        purgeTaskBean.recordFailure(Collections.singletonList(task.getId()), "error");
+
+        Mockito.verify(purgeTaskDAO).removeTasks(Collections.singletonList(task.getId()));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.exceptions.AccessRightException;
+import com.docdoku.plm.server.core.exceptions.TaskNotFoundException;
+import com.docdoku.plm.server.core.services.IUserManagerLocal;
+import com.docdoku.plm.server.core.workflow.ActivityKey;
+import com.docdoku.plm.server.core.workflow.Task;
+import com.docdoku.plm.server.core.workflow.TaskKey;
+import com.docdoku.plm.server.core.workflow.TaskWrapper;
+import com.docdoku.plm.server.dao.TaskDAO;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class TaskManagerBeanTest {
+
+    private static final String WORKSPACE_ID = "TestWorkspace";
+    private static final String USER_LOGIN = "User1";
+
+    @InjectMocks
+    private TaskManagerBean taskManager;
+
+    @Mock
+    private TaskDAO taskDAO;
+
+    @Mock
+    private IUserManagerLocal userManager;
+
+    private User user;
+
+    @Before
+    public void setup() throws Exception {
+        initMocks(this);
+        Account account = new Account(USER_LOGIN, USER_LOGIN, "user1@docdoku.com", "en", new Date(), null);
+        Workspace workspace = new Workspace(WORKSPACE_ID, account, "pDescription", false);
+        user = new User(workspace, account);
+        Mockito.when(userManager.checkWorkspaceReadAccess(WORKSPACE_ID)).thenReturn(user);
+    }
+
+    @Test
+    public void assignedTasksArePagedInOneQuery() throws Exception {
+        TaskWrapper taskWrapper = new TaskWrapper(new Task(), WORKSPACE_ID, "documents", "DOC-001", "A");
+        Mockito.when(taskDAO.findAssignedTasks(WORKSPACE_ID, USER_LOGIN, null, 20, 10))
+                .thenReturn(Collections.singletonList(taskWrapper));
+
+        TaskWrapper[] tasks = taskManager.getAssignedTasksForGivenUser(WORKSPACE_ID, USER_LOGIN, 20, 10);
+
+        Assert.assertArrayEquals(new TaskWrapper[]{taskWrapper}, tasks);
+        Mockito.verify(taskDAO, Mockito.never()).loadTask(Mockito.any());
+    }
+
+    @Test
+    public void inProgressTasksAreCountedWithoutLoadingThem() throws Exception {
+        Mockito.when(taskDAO.countAssignedTasks(WORKSPACE_ID, USER_LOGIN, Task.Status.IN_PROGRESS)).thenReturn(3);
+
+        Assert.assertEquals(3, taskManager.getInProgressTasksCountForGivenUser(WORKSPACE_ID, USER_LOGIN));
+        Mockito.verify(taskDAO, Mockito.never()).findAssignedTasks(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test(expected = AccessRightException.class)
+    public void taskWithoutHolderIsNotReadable() throws Exception {
+        TaskKey taskKey = new TaskKey(new ActivityKey(1, 0), 0);
+        Mockito.when(taskDAO.findTaskWithHolder(WORKSPACE_ID, taskKey)).thenReturn(null);
+        Mockito.when(taskDAO.loadTask(taskKey)).thenReturn(new Task());
+
+        taskManager.getTask(WORKSPACE_ID, taskKey);
+    }
+
+    @Test(expected = TaskNotFoundException.class)
+    public void missingTaskIsNotFound() throws Exception {
+        TaskKey taskKey = new TaskKey(new ActivityKey(1, 0), 0);
+        Mockito.when(taskDAO.findTaskWithHolder(WORKSPACE_ID, taskKey)).thenReturn(null);
+        Mockito.when(taskDAO.loadTask(taskKey)).thenThrow(new TaskNotFoundException(taskKey));
+
+        taskManager.getTask(WORKSPACE_ID, taskKey);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server;
+
+import com.docdoku.plm.server.core.admin.WorkspaceDeletionJob;
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.services.IBinaryStorageManagerLocal;
+import com.docdoku.plm.server.core.services.IIndexerManagerLocal;
+import com.docdoku.plm.server.dao.WorkspaceDAO;
+import com.docdoku.plm.server.dao.WorkspaceDeletionJobDAO;
+import com.docdoku.plm.server.events.WorkspaceEvent;
+import com.docdoku.plm.server.indexer.EmbeddedIndexerManagerBean;
+import com.docdoku.plm.server.indexer.embedded.LuceneIndexStore;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import javax.enterprise.event.Event;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class WorkspaceDeletionJobBeanTest {
+
+    private static final String WORKSPACE_ID = "TestWorkspace";
+    private static final String ADMIN_LOGIN = "admin";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @InjectMocks
+    private WorkspaceDeletionJobBean workspaceDeletionJobBean;
+
+    @Mock
+    private WorkspaceDAO workspaceDAO;
+
+    @Mock
+    private WorkspaceDeletionJobDAO workspaceDeletionJobDAO;
+
+    @Mock
+    private IBinaryStorageManagerLocal storageManager;
+
+    @Mock
+    private IIndexerManagerLocal indexerManager;
+
+    @Mock
+    private Event<WorkspaceEvent> workspaceEvent;
+
+    private Workspace workspace;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        Mockito.when(workspaceEvent.select(any())).thenReturn(workspaceEvent);
+        Account admin = new Account(ADMIN_LOGIN, "Admin", "admin@mail.com", "en", new Date(), null);
+        workspace = new Workspace(WORKSPACE_ID, admin, "description", false);
+        workspace.setEnabled(true);
+    }
+
+    private WorkspaceDeletionJob runningJobAt(String step) {
+        WorkspaceDeletionJob job = new WorkspaceDeletionJob(WORKSPACE_ID, ADMIN_LOGIN);
+        job.setStep(step, WorkspaceDeletionJobBean.STEPS.indexOf(step));
+        job.setStepCount(WorkspaceDeletionJobBean.STEPS.size());
+        job.setStatus(WorkspaceDeletionJob.Status.RUNNING);
+        Mockito.when(workspaceDeletionJobDAO.findJob(WORKSPACE_ID)).thenReturn(job);
+        return job;
+    }
+
+    @Test
+    public void startDisablesWorkspaceAndCreatesJob() throws Exception {
+        Mockito.when(workspaceDAO.loadWorkspace(WORKSPACE_ID)).thenReturn(workspace);
+
+        Assert.assertTrue(workspaceDeletionJobBean.start(WORKSPACE_ID));
+
+        ArgumentCaptor<WorkspaceDeletionJob> captor = ArgumentCaptor.forClass(WorkspaceDeletionJob.class);
+        Mockito.verify(workspaceDeletionJobDAO).createJob(captor.capture());
+        WorkspaceDeletionJob job = captor.getValue();
+        Assert.assertFalse(workspace.isEnabled());
+        Assert.assertTrue(job.isRunning());
+        Assert.assertEquals(ADMIN_LOGIN, job.getAdminLogin());
+        Assert.assertEquals(WorkspaceDeletionJobBean.STEPS.get(0), job.getStep());
+    }
+
+    @Test
+    public void startDoesNotRunTwice() throws Exception {
+        Mockito.when(workspaceDAO.loadWorkspace(WORKSPACE_ID)).thenReturn(workspace);
+        runningJobAt(WorkspaceDAO.PurgeStep.DOCUMENTS.name());
+
+        Assert.assertFalse(workspaceDeletionJobBean.start(WORKSPACE_ID));
+    }
+
+    @Test
+    public void fullChunkKeepsStep() throws Exception {
+        WorkspaceDeletionJob job = runningJobAt(WorkspaceDAO.PurgeStep.DOCUMENTS.name());
+        Mockito.when(workspaceDAO.purgeWorkspace(WORKSPACE_ID, WorkspaceDAO.PurgeStep.DOCUMENTS, 0, WorkspaceDeletionJobBean.CHUNK_SIZE))
+                .thenReturn(WorkspaceDeletionJobBean.CHUNK_SIZE);
+
+        Assert.assertTrue(workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID));
+        Assert.assertEquals(WorkspaceDAO.PurgeStep.DOCUMENTS.name(), job.getStep());
+        Assert.assertEquals(WorkspaceDeletionJobBean.CHUNK_SIZE, job.getPurgedEntities());
+        Mockito.verify(workspaceDeletionJobDAO).updateJob(job);
+    }
+
+    @Test
+    public void offsetPagedStepAdvancesOffset() throws Exception {
+        WorkspaceDeletionJob job = runningJobAt(WorkspaceDAO.PurgeStep.DOCUMENT_LINKS.name());
+        Mockito.when(workspaceDAO.purgeWorkspace(WORKSPACE_ID, WorkspaceDAO.PurgeStep.DOCUMENT_LINKS, 0, WorkspaceDeletionJobBean.CHUNK_SIZE))
+                .thenReturn(WorkspaceDeletionJobBean.CHUNK_SIZE);
+
+        workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID);
+        Assert.assertEquals(WorkspaceDeletionJobBean.CHUNK_SIZE, job.getStepOffset());
+        Assert.assertEquals(0, job.getPurgedEntities());
+    }
+
+    @Test
+    public void partialChunkMovesToNextStep() throws Exception {
+        WorkspaceDeletionJob job = runningJobAt(WorkspaceDAO.PurgeStep.USERS_AND_OPTIONS.name());
+
+        workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID);
+        Assert.assertEquals(WorkspaceDeletionJobBean.VAULT_STEP, job.getStep());
+
+        workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID);
+        Mockito.verify(storageManager).deleteWorkspaceFolder(WORKSPACE_ID);
+        Assert.assertEquals(WorkspaceDeletionJobBean.INDEX_STEP, job.getStep());
+
+        workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID);
+        Mockito.verify(indexerManager).deleteWorkspaceIndices(WORKSPACE_ID);
+        Assert.assertEquals(WorkspaceDAO.PurgeStep.WORKSPACE.name(), job.getStep());
+    }
+
+    @Test
+    public void indexStepRemovesEmbeddedIndexDirectory() throws Exception {
+        LuceneIndexStore indexStore = new LuceneIndexStore();
+        indexStore.open(folder.getRoot().toPath());
+        indexStore.create(WORKSPACE_ID);
+        Path indexDirectory = folder.getRoot().toPath().resolve(WORKSPACE_ID);
+        Assert.assertTrue(Files.isDirectory(indexDirectory));
+
+        EmbeddedIndexerManagerBean embeddedIndexerManager = new EmbeddedIndexerManagerBean();
+        Whitebox.setInternalState(embeddedIndexerManager, "indexStore", indexStore);
+        Whitebox.setInternalState(workspaceDeletionJobBean, "indexerManager", embeddedIndexerManager);
+        WorkspaceDeletionJob job = runningJobAt(WorkspaceDeletionJobBean.INDEX_STEP);
+
+        try {
+            workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID);
+        } finally {
+            indexStore.close();
+        }
+        Assert.assertFalse(Files.exists(indexDirectory));
+        Assert.assertEquals(WorkspaceDAO.PurgeStep.WORKSPACE.name(), job.getStep());
+    }
+
+    @Test
+    public void configurationStepsInvalidateWorkspaceCaches() throws Exception {
+        runningJobAt(WorkspaceDAO.PurgeStep.CONFIGURATIONS.name());
+
+        workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID);
+        workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID);
+
+        ArgumentCaptor<WorkspaceEvent> captor = ArgumentCaptor.forClass(WorkspaceEvent.class);
+        Mockito.verify(workspaceEvent, Mockito.times(2)).fire(captor.capture());
+        Assert.assertEquals(WORKSPACE_ID, captor.getValue().getObservedWorkspace().getId());
+    }
+
+    @Test
+    public void partsChunksInvalidateWorkspaceCaches() throws Exception {
+        WorkspaceDeletionJob job = runningJobAt(WorkspaceDAO.PurgeStep.PARTS.name());
+        Mockito.when(workspaceDAO.purgeWorkspace(WORKSPACE_ID, WorkspaceDAO.PurgeStep.PARTS, 0, WorkspaceDeletionJobBean.CHUNK_SIZE))
+                .thenReturn(WorkspaceDeletionJobBean.CHUNK_SIZE, 1);
+
+        workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID);
+        workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID);
+
+        Assert.assertEquals(WorkspaceDAO.PurgeStep.FOLDERS.name(), job.getStep());
+        Mockito.verify(workspaceEvent, Mockito.times(2)).fire(Mockito.any(WorkspaceEvent.class));
+    }
+
+    @Test
+    public void lastStepCompletesJob() throws Exception {
+        WorkspaceDeletionJob job = runningJobAt(WorkspaceDAO.PurgeStep.WORKSPACE.name());
+        Mockito.when(workspaceDAO.purgeWorkspace(WORKSPACE_ID, WorkspaceDAO.PurgeStep.WORKSPACE, 0, WorkspaceDeletionJobBean.CHUNK_SIZE))
+                .thenReturn(1);
+
+        Assert.assertFalse(workspaceDeletionJobBean.processNextChunk(WORKSPACE_ID));
+        Assert.assertEquals(WorkspaceDeletionJob.Status.DONE, job.getStatus());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.configuration.spec;
+
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.product.ConfigurationItem;
+import com.docdoku.plm.server.core.product.ConfigurationItemKey;
+import com.docdoku.plm.server.events.ConfigurationItemEvent;
+import com.docdoku.plm.server.events.WorkspaceEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class EffectivityIndexCacheTest {
+
+    private static final ConfigurationItemKey PRODUCT_1 = new ConfigurationItemKey("workspace01", "PRODUCT-1");
+    private static final ConfigurationItemKey PRODUCT_2 = new ConfigurationItemKey("workspace01", "PRODUCT-2");
+    private static final ConfigurationItemKey OTHER_PRODUCT = new ConfigurationItemKey("workspace02", "PRODUCT-1");
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicLong now = new AtomicLong();
+
+    private final Function<ConfigurationItemKey, EffectivityIndex> loader = ciKey -> {
+        loads.incrementAndGet();
+        return new EffectivityIndex(ciKey, Collections.emptyMap());
+    };
+
+    @Test
+    public void indexIsCompiledOnce() {
+        EffectivityIndexCache cache = new EffectivityIndexCache(now::get);
+
+        EffectivityIndex first = cache.get(PRODUCT_1, loader);
+        EffectivityIndex second = cache.get(PRODUCT_1, loader);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void expiredIndexIsCompiledAgain() {
+        EffectivityIndexCache cache = new EffectivityIndexCache(now::get);
+        cache.get(PRODUCT_1, loader);
+
+        now.addAndGet(EffectivityIndexCache.TTL_MS);
+        cache.get(PRODUCT_1, loader);
+
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidationIsScopedToTheConfigurationItem() {
+        EffectivityIndexCache cache = new EffectivityIndexCache(now::get);
+        cache.get(PRODUCT_1, loader);
+        cache.get(PRODUCT_2, loader);
+
+        cache.invalidate(PRODUCT_1);
+        cache.get(PRODUCT_1, loader);
+        cache.get(PRODUCT_2, loader);
+
+        Assert.assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void workspaceInvalidationSparesOtherWorkspaces() {
+        EffectivityIndexCache cache = new EffectivityIndexCache(now::get);
+        cache.get(PRODUCT_1, loader);
+        cache.get(PRODUCT_2, loader);
+        cache.get(OTHER_PRODUCT, loader);
+
+        cache.invalidateWorkspace("workspace01");
+
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void indexCompiledDuringAnInvalidationIsNotCached() {
+        EffectivityIndexCache cache = new EffectivityIndexCache(now::get);
+
+        cache.get(PRODUCT_1, ciKey -> {
+            cache.invalidate(PRODUCT_1);
+            return loader.apply(ciKey);
+        });
+
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void configurationItemRemovalInvalidatesItsIndex() {
+        EffectivityIndexCache cache = new EffectivityIndexCache(now::get);
+        cache.get(PRODUCT_1, loader);
+        cache.get(PRODUCT_2, loader);
+
+        ConfigurationItem removed = new ConfigurationItem(null, new Workspace("workspace01"), "PRODUCT-1", null);
+        cache.onConfigurationItemRemoved(new ConfigurationItemEvent(removed));
+
+        Assert.assertEquals(1, cache.size());
+        cache.get(PRODUCT_2, loader);
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void workspacePurgeInvalidatesItsIndexes() {
+        EffectivityIndexCache cache = new EffectivityIndexCache(now::get);
+        cache.get(PRODUCT_1, loader);
+        cache.get(OTHER_PRODUCT, loader);
+
+        cache.onWorkspacePurged(new WorkspaceEvent(new Workspace("workspace01")));
+
+        Assert.assertEquals(1, cache.size());
+        cache.get(OTHER_PRODUCT, loader);
+        Assert.assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.configuration.spec;
+
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.product.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class EffectivityIndexTest {
+
+    private static final String WORKSPACE_ID = "workspace01";
+
+    private final Workspace workspace = new Workspace(WORKSPACE_ID);
+    private final ConfigurationItem configurationItem = new ConfigurationItem(null, workspace, "PRODUCT-1", "");
+    private final ConfigurationItem otherConfigurationItem = new ConfigurationItem(null, workspace, "PRODUCT-2", "");
+
+    private final Map<PartRevisionKey, List<Effectivity>> effectivities = new HashMap<>();
+
+    @Test
+    public void serialNumberIntervalsAreStabbed() {
+        add("PART-A", new SerialNumberBasedEffectivity("a", configurationItem, "1", "10"));
+        add("PART-B", new SerialNumberBasedEffectivity("b", configurationItem, "5", null));
+        add("PART-C", new SerialNumberBasedEffectivity("c", configurationItem, "11", "20"));
+        add("PART-D", new SerialNumberBasedEffectivity("d", otherConfigurationItem, "1", null));
+
+        EffectivityIndex index = new EffectivityIndex(configurationItem.getKey(), effectivities);
+
+        Assert.assertEquals(keys("PART-A", "PART-B"), index.findEffectiveRevisionsBySerialNumber("7"));
+        Assert.assertEquals(keys("PART-B", "PART-C"), index.findEffectiveRevisionsBySerialNumber("20"));
+        Assert.assertEquals(keys("PART-B"), index.findEffectiveRevisionsBySerialNumber("21"));
+        Assert.assertEquals(keys(), index.findEffectiveRevisionsBySerialNumber("0"));
+    }
+
+    @Test
+    public void serialNumbersAreComparedAlphanumerically() {
+        add("PART-A", new SerialNumberBasedEffectivity("a", configurationItem, "SN-2", "SN-10"));
+
+        EffectivityIndex index = new EffectivityIndex(configurationItem.getKey(), effectivities);
+
+        Assert.assertEquals(keys("PART-A"), index.findEffectiveRevisionsBySerialNumber("SN-9"));
+        Assert.assertEquals(keys(), index.findEffectiveRevisionsBySerialNumber("SN-11"));
+    }
+
+    @Test
+    public void dateEffectivitiesWithoutConfigurationItemApply() {
+        add("PART-A", new DateBasedEffectivity("a", null, new Date(1000), new Date(2000)));
+        add("PART-B", new DateBasedEffectivity("b", configurationItem, new Date(1500), null));
+        add("PART-C", new DateBasedEffectivity("c", otherConfigurationItem, new Date(0), null));
+
+        EffectivityIndex index = new EffectivityIndex(configurationItem.getKey(), effectivities);
+
+        Assert.assertEquals(keys("PART-A"), index.findEffectiveRevisionsByDate(new Date(1000)));
+        Assert.assertEquals(keys("PART-A", "PART-B"), index.findEffectiveRevisionsByDate(new Date(2000)));
+        Assert.assertEquals(keys("PART-B"), index.findEffectiveRevisionsByDate(new Date(2001)));
+    }
+
+    @Test
+    public void effectivitiesAreIndexedByType() {
+        add("PART-A", new LotBasedEffectivity("a", configurationItem, "L1", "L3"));
+        add("PART-B", new SerialNumberBasedEffectivity("b", configurationItem, "L1", "L3"));
+
+        EffectivityIndex index = new EffectivityIndex(configurationItem.getKey(), effectivities);
+
+        Assert.assertEquals(keys("PART-A"), index.findEffectiveRevisionsByLot("L2"));
+        Assert.assertEquals(keys("PART-B"), index.findEffectiveRevisionsBySerialNumber("L2"));
+        Assert.assertEquals(2, index.size());
+    }
+
+    @Test
+    public void indexedSpecsRetainTheSameRevisionsAsEvaluatedOnes() {
+        Random random = new Random(42);
+        List<PartRevision> partRevisions = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            PartRevision partRevision = new PartRevision(new PartMaster(workspace, "PART-" + i), "A", null);
+            for (int j = random.nextInt(3); j >= 0; j--) {
+                ConfigurationItem ci = random.nextInt(10) == 0 ? otherConfigurationItem : configurationItem;
+                int start = random.nextInt(1000);
+                String end = random.nextBoolean() ? null : String.valueOf(start + random.nextInt(200));
+                partRevision.getEffectivities().add(new SerialNumberBasedEffectivity("s", ci, String.valueOf(start), end));
+                partRevision.getEffectivities().add(new LotBasedEffectivity("l", ci, "LOT-" + start, end == null ? null : "LOT-" + end));
+                Date endDate = end == null ? null : new Date(Long.parseLong(end));
+                partRevision.getEffectivities().add(new DateBasedEffectivity("d", random.nextBoolean() ? null : ci, new Date(start), endDate));
+            }
+            partRevision.getEffectivities().forEach(effectivity -> add(partRevision.getKey(), effectivity));
+            partRevisions.add(partRevision);
+        }
+        EffectivityIndex index = new EffectivityIndex(configurationItem.getKey(), effectivities);
+
+        for (int point = 0; point < 1300; point += 7) {
+            assertSameRetained(partRevisions,
+                    new SerialNumberBasedEffectivityConfigSpec(String.valueOf(point), configurationItem),
+                    new SerialNumberBasedEffectivityConfigSpec(String.valueOf(point), configurationItem, index));
+            assertSameRetained(partRevisions,
+                    new LotBasedEffectivityConfigSpec("LOT-" + point, configurationItem),
+                    new LotBasedEffectivityConfigSpec("LOT-" + point, configurationItem, index));
+            assertSameRetained(partRevisions,
+                    new DateBasedEffectivityConfigSpec(new Date(point), configurationItem),
+                    new DateBasedEffectivityConfigSpec(new Date(point), configurationItem, index));
+        }
+    }
+
+    @Test
+    public void effectiveRevisionsAreResolvedAgainWhenTheContextChanges() {
+        PartRevision partRevision = new PartRevision(new PartMaster(workspace, "PART-A"), "A", null);
+        add(partRevision.getKey(), new SerialNumberBasedEffectivity("a", configurationItem, "1", "10"));
+        EffectivityIndex index = new EffectivityIndex(configurationItem.getKey(), effectivities);
+
+        SerialNumberBasedEffectivityConfigSpec spec = new SerialNumberBasedEffectivityConfigSpec("5", configurationItem, index);
+        Assert.assertTrue(spec.isEffective(partRevision));
+
+        spec.setNumber("11");
+        Assert.assertFalse(spec.isEffective(partRevision));
+    }
+
+    private void assertSameRetained(List<PartRevision> partRevisions, EffectivityConfigSpec evaluated, EffectivityConfigSpec indexed) {
+        for (PartRevision partRevision : partRevisions) {
+            Assert.assertEquals(partRevision.getKey().toString(), evaluated.isEffective(partRevision), indexed.isEffective(partRevision));
+        }
+    }
+
+    private void add(String partNumber, Effectivity effectivity) {
+        add(new PartRevisionKey(WORKSPACE_ID, partNumber, "A"), effectivity);
+    }
+
+    private void add(PartRevisionKey partRevisionKey, Effectivity effectivity) {
+        effectivities.computeIfAbsent(partRevisionKey, k -> new ArrayList<>()).add(effectivity);
+    }
+
+    private Set<PartRevisionKey> keys(String... partNumbers) {
+        Set<PartRevisionKey> keys = new HashSet<>();
+        for (String partNumber : partNumbers) {
+            keys.add(new PartRevisionKey(WORKSPACE_ID, partNumber, "A"));
+        }
+        return keys;
+    }
+}
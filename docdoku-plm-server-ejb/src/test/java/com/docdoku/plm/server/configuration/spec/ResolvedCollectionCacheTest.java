@@ -0,0 +1,75 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.configuration.spec;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+public class ResolvedCollectionCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final IntFunction<ResolvedCollectionSnapshot> loader = partCollectionId -> {
+        loads.incrementAndGet();
+        return new ResolvedCollectionSnapshot(partCollectionId, Collections.emptyList(), Collections.emptySet(), Collections.emptySet());
+    };
+
+    @Test
+    public void snapshotIsResolvedOnce() {
+        ResolvedCollectionCache cache = new ResolvedCollectionCache();
+
+        ResolvedCollectionSnapshot first = cache.get(1, loader);
+        ResolvedCollectionSnapshot second = cache.get(1, loader);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidatedSnapshotIsResolvedAgain() {
+        ResolvedCollectionCache cache = new ResolvedCollectionCache();
+        cache.get(1, loader);
+
+        cache.invalidate(1);
+        cache.get(1, loader);
+
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void leastRecentlyUsedSnapshotsAreEvicted() {
+        ResolvedCollectionCache cache = new ResolvedCollectionCache();
+        for (int i = 0; i <= ResolvedCollectionCache.MAX_ENTRIES; i++) {
+            cache.get(i, loader);
+            cache.get(0, loader);
+        }
+
+        Assert.assertEquals(ResolvedCollectionCache.MAX_ENTRIES, cache.size());
+        cache.get(0, loader);
+        Assert.assertEquals(ResolvedCollectionCache.MAX_ENTRIES + 1, loads.get());
+        cache.get(1, loader);
+        Assert.assertEquals(ResolvedCollectionCache.MAX_ENTRIES + 2, loads.get());
+    }
+}
@@ -30,6 +30,7 @@ import com.docdoku.plm.server.core.configuration.ProductBaselineType;
 import com.docdoku.plm.server.core.product.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -120,4 +121,18 @@ public class ResolvedCollectionConfigSpecTest {
         assertNotNull(result);
         assertEquals("PART-018-Substitute", result.getReferenceDescription());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void filterPartIterationFromSnapshotTest(){
+
+        PartMaster partMaster = getPartMasterWith("PART-001");
+        PartIteration partIteration = partMaster.getLastRevision().getLastIteration();
+        ResolvedCollectionSnapshot snapshot = new ResolvedCollectionSnapshot(1,
+                Collections.singletonList(partIteration.getKey()), productBaseline.getOptionalUsageLinks(), productBaseline.getSubstituteLinks());
+
+        r2CS = new ResolvedCollectionConfigSpec(snapshot, key -> key.equals(partIteration.getKey()) ? partIteration : null);
+
+        assertEquals(partIteration, r2CS.filterPartIteration(partMaster));
+        assertNull(r2CS.filterPartIteration(getPartMasterWith("PART-006")));
+    }
+}
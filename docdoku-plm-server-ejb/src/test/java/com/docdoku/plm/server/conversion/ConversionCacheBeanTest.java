@@ -0,0 +1,165 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.exceptions.PartIterationNotFoundException;
+import com.docdoku.plm.server.core.product.*;
+import com.docdoku.plm.server.core.services.IBinaryStorageManagerLocal;
+import com.docdoku.plm.server.dao.ConversionCacheDAO;
+import com.docdoku.plm.server.dao.ConversionDAO;
+import com.docdoku.plm.server.dao.PartIterationDAO;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ConversionCacheBeanTest {
+
+    private static final String WORKSPACE_ID = "ws";
+    private static final String CONTENT_HASH = "0123456789abcdef";
+
+    private final PartIterationKey sourceKey = new PartIterationKey(WORKSPACE_ID, "PART-1", "A", 1);
+    private final PartIterationKey targetKey = new PartIterationKey(WORKSPACE_ID, "PART-2", "A", 1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @InjectMocks
+    private ConversionCacheBean conversionCacheBean;
+
+    @Mock
+    private ConversionCacheDAO conversionCacheDAO;
+
+    @Mock
+    private ConversionDAO conversionDAO;
+
+    @Mock
+    private PartIterationDAO partIterationDAO;
+
+    @Mock
+    private IBinaryStorageManagerLocal storageManager;
+
+    @Mock
+    private ServerConfig serverConfig;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        Mockito.when(serverConfig.getConversionsPath()).thenReturn(folder.getRoot().getAbsolutePath());
+    }
+
+    @Test
+    public void hashDependsOnContentOnly() throws Exception {
+        BinaryResource first = new BinaryResource(WORKSPACE_ID + "/parts/PART-1/A/1/nativecad/a.stp", 3, new Date());
+        BinaryResource second = new BinaryResource(WORKSPACE_ID + "/parts/PART-2/A/1/nativecad/b.stp", 3, new Date());
+        Mockito.when(storageManager.getBinaryResourceInputStream(Mockito.any(BinaryResource.class)))
+                .thenAnswer(invocation -> new ByteArrayInputStream("cad".getBytes(StandardCharsets.UTF_8)));
+
+        String hash = conversionCacheBean.hash(first);
+
+        Assert.assertEquals(64, hash.length());
+        Assert.assertEquals(hash, conversionCacheBean.hash(second));
+    }
+
+    @Test
+    public void storeCreatesEntryUnderContentHash() {
+        Conversion conversion = new Conversion();
+        conversion.setContentHash(CONTENT_HASH);
+        Mockito.when(conversionDAO.findConversion(sourceKey)).thenReturn(conversion);
+        ConversionResult result = new ConversionResult(Collections.emptyMap());
+        result.setBox(new double[]{0, 0, 0, 1, 1, 1});
+        result.setMaterials(Collections.singletonList(Paths.get("part.mtl")));
+
+        conversionCacheBean.store(sourceKey, result);
+
+        ArgumentCaptor<ConversionCacheEntry> entry = ArgumentCaptor.forClass(ConversionCacheEntry.class);
+        Mockito.verify(conversionCacheDAO).createEntry(entry.capture());
+        Assert.assertEquals(CONTENT_HASH, entry.getValue().getContentHash());
+        Assert.assertEquals(sourceKey, entry.getValue().getPartIterationKey());
+        Assert.assertEquals(Collections.singletonList("part.mtl"), entry.getValue().getMaterialNames());
+    }
+
+    @Test
+    public void storeSkipsConversionWithoutHash() {
+        Mockito.when(conversionDAO.findConversion(sourceKey)).thenReturn(new Conversion());
+
+        conversionCacheBean.store(sourceKey, new ConversionResult());
+
+        Mockito.verifyNoInteractions(conversionCacheDAO);
+    }
+
+    @Test
+    public void restoreCopiesGeometriesOfSourceIteration() throws Exception {
+        ConversionCacheEntry entry = new ConversionCacheEntry(CONTENT_HASH, sourceKey);
+        entry.setBox(new double[]{0, 0, 0, 1, 1, 1});
+        Mockito.when(conversionCacheDAO.findEntry(WORKSPACE_ID, CONTENT_HASH)).thenReturn(entry);
+        PartIteration source = new PartIteration();
+        source.addGeometry(new Geometry(0, WORKSPACE_ID + "/parts/PART-1/A/1/part.obj", 4, new Date()));
+        Mockito.when(partIterationDAO.loadPartI(sourceKey)).thenReturn(source);
+        Mockito.when(storageManager.getBinaryResourceInputStream(Mockito.any(BinaryResource.class)))
+                .thenAnswer(invocation -> new ByteArrayInputStream("v 0 0 0".getBytes(StandardCharsets.UTF_8)));
+
+        ConversionResult result = conversionCacheBean.restore(targetKey, CONTENT_HASH);
+
+        Assert.assertNotNull(result);
+        Path tempDir = folder.getRoot().toPath().resolve(result.getTempDir());
+        Assert.assertTrue(Files.exists(tempDir.resolve("part.obj")));
+        Assert.assertEquals(Collections.singleton(0), result.getConvertedFileLODs().keySet());
+        Assert.assertArrayEquals(entry.getBox(), result.getBox(), 0);
+
+        conversionCacheBean.discard(result);
+        Assert.assertFalse(Files.exists(tempDir));
+    }
+
+    @Test
+    public void restoreIgnoresEntryOfSameIteration() {
+        Mockito.when(conversionCacheDAO.findEntry(WORKSPACE_ID, CONTENT_HASH)).thenReturn(new ConversionCacheEntry(CONTENT_HASH, targetKey));
+
+        Assert.assertNull(conversionCacheBean.restore(targetKey, CONTENT_HASH));
+        Mockito.verify(conversionCacheDAO, Mockito.never()).removeEntry(Mockito.any());
+    }
+
+    @Test
+    public void restoreEvictsEntryOfRemovedIteration() throws Exception {
+        ConversionCacheEntry entry = new ConversionCacheEntry(CONTENT_HASH, sourceKey);
+        Mockito.when(conversionCacheDAO.findEntry(WORKSPACE_ID, CONTENT_HASH)).thenReturn(entry);
+        Mockito.when(partIterationDAO.loadPartI(sourceKey)).thenThrow(new PartIterationNotFoundException(sourceKey));
+
+        Assert.assertNull(conversionCacheBean.restore(targetKey, CONTENT_HASH));
+        Mockito.verify(conversionCacheDAO).removeEntry(entry);
+    }
+}
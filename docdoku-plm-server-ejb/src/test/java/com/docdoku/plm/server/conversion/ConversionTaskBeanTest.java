@@ -0,0 +1,183 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.core.product.Conversion;
+import com.docdoku.plm.server.core.product.ConversionTask;
+import com.docdoku.plm.server.core.product.PartIterationKey;
+import com.docdoku.plm.server.core.services.IConverterManagerLocal;
+import com.docdoku.plm.server.dao.ConversionDAO;
+import com.docdoku.plm.server.dao.ConversionTaskDAO;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ConversionTaskBeanTest {
+
+    private static final String NODE = "node";
+
+    @InjectMocks
+    private ConversionTaskBean conversionTaskBean;
+
+    @Mock
+    private ConversionTaskDAO conversionTaskDAO;
+
+    @Mock
+    private ConversionDAO conversionDAO;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+    }
+
+    private static ConversionTask task(String workspaceId, int iteration, int priority) {
+        return new ConversionTask(UUID.randomUUID().toString(), NODE, new PartIterationKey(workspaceId, "PART", "A", iteration),
+                workspaceId + "/parts/PART/A/" + iteration + "/nativecad/part.stp", priority);
+    }
+
+    @Test
+    public void selectClaimableKeepsOrderWithinFreeWorkers() {
+        List<ConversionTask> queued = Arrays.asList(task("ws1", 1, 10), task("ws2", 1, 0), task("ws3", 1, 0));
+
+        List<ConversionTask> selected = ConversionTaskBean.selectClaimable(queued, Collections.emptyMap(), 2, 1);
+
+        Assert.assertEquals(queued.subList(0, 2), selected);
+    }
+
+    @Test
+    public void selectClaimableEnforcesWorkspaceConcurrency() {
+        ConversionTask ws1First = task("ws1", 1, 0);
+        ConversionTask ws1Second = task("ws1", 2, 0);
+        ConversionTask ws2 = task("ws2", 1, 0);
+        ConversionTask ws3 = task("ws3", 1, 0);
+        Map<String, Long> running = Collections.singletonMap("ws2", 1L);
+
+        List<ConversionTask> selected = ConversionTaskBean.selectClaimable(
+                Arrays.asList(ws1First, ws1Second, ws2, ws3), running, 4, 1);
+
+        Assert.assertEquals(Arrays.asList(ws1First, ws3), selected);
+    }
+
+    @Test
+    public void claimMarksTasksAsRunning() {
+        ConversionTask queued = task("ws1", 1, 0);
+        Mockito.when(conversionTaskDAO.countRunningTasks(NODE)).thenReturn(1L);
+        Mockito.when(conversionTaskDAO.findQueuedTasks(NODE, ConversionTaskBean.MAX_CANDIDATES))
+                .thenReturn(Collections.singletonList(queued));
+        Mockito.when(conversionTaskDAO.countRunningTasksByWorkspace()).thenReturn(Collections.emptyMap());
+
+        Assert.assertNull(queued.getLeaseExpiry());
+
+        List<ConversionTask> claimed = conversionTaskBean.claim(NODE, 2, 1, 60000);
+
+        Assert.assertEquals(Collections.singletonList(queued), claimed);
+        Assert.assertEquals(ConversionTask.Status.RUNNING, queued.getStatus());
+        Assert.assertTrue(queued.getLeaseExpiry().after(new Date()));
+    }
+
+    @Test
+    public void claimWithoutFreeWorkerDoesNothing() {
+        Mockito.when(conversionTaskDAO.countRunningTasks(NODE)).thenReturn(2L);
+
+        Assert.assertTrue(conversionTaskBean.claim(NODE, 2, 1, 60000).isEmpty());
+        Mockito.verify(conversionTaskDAO, Mockito.never()).findQueuedTasks(Mockito.anyString(), Mockito.anyInt());
+    }
+
+    @Test
+    public void mergeRaisesPriorityOfQueuedTask() {
+        ConversionTask queued = task("ws1", 1, IConverterManagerLocal.NORMAL_PRIORITY);
+        Mockito.when(conversionTaskDAO.findTask(queued.getPartIterationKey())).thenReturn(queued);
+
+        Assert.assertTrue(conversionTaskBean.merge(NODE, queued.getPartIterationKey(), "ws1/new.stp", "new-hash", IConverterManagerLocal.HIGH_PRIORITY));
+        Assert.assertEquals(IConverterManagerLocal.HIGH_PRIORITY, queued.getPriority());
+        Assert.assertEquals("ws1/new.stp", queued.getFileFullName());
+    }
+
+    @Test
+    public void mergeRecordsTheContentHashOfTheMergedFile() {
+        ConversionTask queued = task("ws1", 1, 0);
+        Conversion conversion = new Conversion();
+        conversion.setContentHash("first-hash");
+        Mockito.when(conversionTaskDAO.findTask(queued.getPartIterationKey())).thenReturn(queued);
+        Mockito.when(conversionDAO.findConversion(queued.getPartIterationKey())).thenReturn(conversion);
+
+        Assert.assertTrue(conversionTaskBean.merge(NODE, queued.getPartIterationKey(), "ws1/new.stp", "new-hash", 0));
+        Assert.assertEquals("new-hash", conversion.getContentHash());
+    }
+
+    @Test
+    public void mergeOfAnUnreadableFileKeepsNoContentHash() {
+        ConversionTask queued = task("ws1", 1, 0);
+        Conversion conversion = new Conversion();
+        conversion.setContentHash("first-hash");
+        Mockito.when(conversionTaskDAO.findTask(queued.getPartIterationKey())).thenReturn(queued);
+        Mockito.when(conversionDAO.findConversion(queued.getPartIterationKey())).thenReturn(conversion);
+
+        Assert.assertTrue(conversionTaskBean.merge(NODE, queued.getPartIterationKey(), "ws1/new.stp", null, 0));
+        Assert.assertNull(conversion.getContentHash());
+    }
+
+    @Test
+    public void mergeSkipsRunningTask() {
+        ConversionTask running = task("ws1", 1, 0);
+        running.setStatus(ConversionTask.Status.RUNNING);
+        Mockito.when(conversionTaskDAO.findTask(running.getPartIterationKey())).thenReturn(running);
+
+        Assert.assertFalse(conversionTaskBean.merge(NODE, running.getPartIterationKey(), "ws1/new.stp", "new-hash", 0));
+    }
+
+    @Test
+    public void mergeSkipsTaskQueuedOnAnotherNode() {
+        ConversionTask queued = task("ws1", 1, 0);
+        Mockito.when(conversionTaskDAO.findTask(queued.getPartIterationKey())).thenReturn(queued);
+
+        Assert.assertFalse(conversionTaskBean.merge("other-node", queued.getPartIterationKey(), "ws1/new.stp", "new-hash", 0));
+        Assert.assertNotEquals("ws1/new.stp", queued.getFileFullName());
+        Mockito.verifyNoInteractions(conversionDAO);
+    }
+
+    @Test
+    public void expireFailsConversionAndRemovesTask() {
+        ConversionTask expired = task("ws1", 1, 0);
+        Mockito.when(conversionTaskDAO.findExpiredTasks(Mockito.any(Date.class))).thenReturn(Collections.singletonList(expired));
+
+        Assert.assertEquals(Collections.singletonList(expired.getTicket()), conversionTaskBean.expire(60000));
+        Mockito.verify(conversionDAO).failPendingConversion(expired.getPartIterationKey());
+        Mockito.verify(conversionTaskDAO).removeTask(expired);
+    }
+
+    @Test
+    public void expireFailsTaskQueuedForTooLong() {
+        ConversionTask queued = task("ws1", 1, 0);
+        Mockito.when(conversionTaskDAO.findQueuedTasksBefore(Mockito.any(Date.class))).thenReturn(Collections.singletonList(queued));
+
+        Assert.assertEquals(Collections.singletonList(queued.getTicket()), conversionTaskBean.expire(60000));
+        Mockito.verify(conversionDAO).failPendingConversion(queued.getPartIterationKey());
+        Mockito.verify(conversionTaskDAO).removeTask(queued);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.conversion;
+
+import com.docdoku.plm.server.config.ServerConfig;
+import com.docdoku.plm.server.converters.ConversionOrder;
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.product.ConversionTask;
+import com.docdoku.plm.server.core.product.PartIterationKey;
+import com.docdoku.plm.server.dao.ConversionDAO;
+import com.docdoku.plm.server.dao.ConversionTaskDAO;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import javax.enterprise.concurrent.ContextService;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class LocalConversionQueueTest {
+
+    @InjectMocks
+    private LocalConversionQueue localConversionQueue;
+
+    @Mock
+    private ContextService contextService;
+
+    @Mock
+    private ManagedExecutorService executor;
+
+    @Mock
+    private ServerConfig serverConfig;
+
+    @Mock
+    private ConversionTaskBean conversionTaskBean;
+
+    @Mock
+    private LocalConversionWorker worker;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        Mockito.when(serverConfig.getConversionLease()).thenReturn(0);
+        Mockito.when(serverConfig.getConversionWorkers()).thenReturn(1);
+        Mockito.when(serverConfig.getConversionWorkspaceConcurrency()).thenReturn(1);
+        Mockito.when(contextService.createContextualProxy(Mockito.any(), Mockito.eq(LocalConversionQueue.ConversionJob.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(Mockito.any(Runnable.class));
+    }
+
+    @Test
+    public void queuedTaskOutlivingTheLeaseIsStillConverted() {
+        PartIterationKey partIterationKey = new PartIterationKey("ws1", "PART", "A", 1);
+        ConversionOrder order = new ConversionOrder(partIterationKey,
+                new BinaryResource("ws1/parts/PART/A/1/nativecad/part.stp", 0, new Date()), "token");
+        ArgumentCaptor<ConversionTask> enqueued = ArgumentCaptor.forClass(ConversionTask.class);
+
+        // The only worker is busy: the task waits longer than its zero lease
+        Mockito.when(conversionTaskBean.claim(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.anyLong()))
+                .thenReturn(Collections.emptyList());
+        localConversionQueue.submit(order, 0);
+        Mockito.verify(conversionTaskBean).enqueue(enqueued.capture());
+        ConversionTask task = enqueued.getValue();
+        Assert.assertNull(task.getLeaseExpiry());
+
+        Mockito.when(conversionTaskBean.expire(Mockito.anyLong())).thenReturn(Collections.emptyList());
+        localConversionQueue.expire();
+
+        Mockito.when(conversionTaskBean.claim(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.anyLong()))
+                .thenReturn(Collections.singletonList(task), Collections.emptyList());
+        localConversionQueue.dispatch();
+
+        Mockito.verify(worker).convert(task.getId());
+        Mockito.verify(conversionTaskBean).complete(task.getId());
+        Mockito.verify(conversionTaskBean, Mockito.never()).abandon(Mockito.anyLong());
+    }
+
+    @Test
+    public void taskQueuedByANodeThatWentAwayIsFailedAtTheQueueTimeout() {
+        ConversionTaskDAO conversionTaskDAO = Mockito.mock(ConversionTaskDAO.class);
+        ConversionDAO conversionDAO = Mockito.mock(ConversionDAO.class);
+        ConversionTaskBean realConversionTaskBean = new ConversionTaskBean();
+        Whitebox.setInternalState(realConversionTaskBean, "conversionTaskDAO", conversionTaskDAO);
+        Whitebox.setInternalState(realConversionTaskBean, "conversionDAO", conversionDAO);
+        Whitebox.setInternalState(localConversionQueue, "conversionTaskBean", realConversionTaskBean);
+        Mockito.when(serverConfig.getConversionQueueTimeout()).thenReturn(3600);
+
+        // Queued before a restart, the node id it was queued with is gone and no node will ever claim it
+        ConversionTask orphan = new ConversionTask("ticket", "node-gone", new PartIterationKey("ws1", "PART", "A", 1),
+                "ws1/parts/PART/A/1/nativecad/part.stp", 0);
+        ArgumentCaptor<Date> queuedBefore = ArgumentCaptor.forClass(Date.class);
+        Mockito.when(conversionTaskDAO.findQueuedTasksBefore(queuedBefore.capture())).thenReturn(Collections.singletonList(orphan));
+
+        long start = System.currentTimeMillis();
+        localConversionQueue.expire();
+
+        Assert.assertTrue(queuedBefore.getValue().getTime() <= start - 3600 * 1000L + 1000);
+        Assert.assertTrue(queuedBefore.getValue().getTime() >= start - 3600 * 1000L);
+        Mockito.verify(conversionDAO).failPendingConversion(orphan.getPartIterationKey());
+        Mockito.verify(conversionTaskDAO).removeTask(orphan);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.dao;
+
+import com.docdoku.plm.server.core.common.Account;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ReferenceCacheMetricsTest {
+
+    @Mock
+    private EntityManager em;
+
+    @Mock
+    private EntityManagerFactory emf;
+
+    @Mock
+    private Cache cache;
+
+    private final ReferenceCacheMetrics metrics = ReferenceCacheMetrics.getInstance();
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        Mockito.when(em.getEntityManagerFactory()).thenReturn(emf);
+        Mockito.when(emf.getCache()).thenReturn(cache);
+        metrics.reset();
+    }
+
+    @Test
+    public void countsHitsAndMissesPerRegion() {
+        Account account = new Account();
+        Mockito.when(em.find(Account.class, "user1")).thenReturn(account);
+        Mockito.when(cache.contains(Account.class, "user1")).thenReturn(false, true, true, true);
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertSame(account, ReferenceCacheMetrics.find(em, Account.class, "user1"));
+        }
+
+        Assert.assertEquals(Long.valueOf(3), metrics.getHits().get("Account"));
+        Assert.assertEquals(Long.valueOf(1), metrics.getMisses().get("Account"));
+        Assert.assertEquals(0.75, metrics.getHitRatios().get("Account"), 0.0001);
+    }
+
+    @Test
+    public void regionWithoutHitsHasZeroRatio() {
+        Mockito.when(cache.contains(Account.class, "user1")).thenReturn(false);
+
+        ReferenceCacheMetrics.find(em, Account.class, "user1");
+
+        Assert.assertNull(metrics.getHits().get("Account"));
+        Assert.assertEquals(0d, metrics.getHitRatios().get("Account"), 0);
+    }
+}
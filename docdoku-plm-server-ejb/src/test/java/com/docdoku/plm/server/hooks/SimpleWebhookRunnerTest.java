@@ -0,0 +1,140 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.hooks;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.hooks.SimpleWebhookApp;
+import com.docdoku.plm.server.core.hooks.Webhook;
+import com.docdoku.plm.server.queue.RetryQueue;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SimpleWebhookRunnerTest {
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<InetSocketAddress> clientConnections = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", exchange -> {
+            try (InputStream is = exchange.getRequestBody()) {
+                while (is.read() != -1) {
+                    // drain the request body
+                }
+            }
+            requests.incrementAndGet();
+            clientConnections.add(exchange.getRemoteAddress());
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        httpClient = WebhookClients.createHttpClient();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    // GET webhooks: the JSON bodies of POST and PUT need a JSON-P implementation, provided by the server only
+    private Webhook webhook(String method) {
+        Account admin = new Account("admin", "Admin", "admin@mail.com", "en", new Date(), null);
+        Workspace workspace = new Workspace("TestWorkspace", admin, "description", false);
+        String uri = "http://127.0.0.1:" + server.getAddress().getPort() + "/hook";
+        return new Webhook(new SimpleWebhookApp(method, "token", uri), "hook", true, workspace);
+    }
+
+    private void run(Webhook webhook) throws WebhookDeliveryException {
+        new SimpleWebhookRunner(httpClient).run(webhook, "user", "user@mail.com", "User", "subject", "content");
+    }
+
+    @Test
+    public void deliveriesReuseConnections() throws Exception {
+        Webhook webhook = webhook("GET");
+        for (int i = 0; i < 50; i++) {
+            run(webhook);
+        }
+        Assert.assertEquals(50, requests.get());
+        Assert.assertEquals(1, clientConnections.size());
+    }
+
+    @Test
+    public void serverErrorIsRetryable() {
+        status.set(503);
+        try {
+            run(webhook("GET"));
+            Assert.fail("Delivery should have failed");
+        } catch (WebhookDeliveryException e) {
+            Assert.assertTrue(e.isRetryable());
+        }
+    }
+
+    @Test
+    public void clientErrorIsNotRetryable() {
+        status.set(404);
+        try {
+            run(webhook("GET"));
+            Assert.fail("Delivery should have failed");
+        } catch (WebhookDeliveryException e) {
+            Assert.assertFalse(e.isRetryable());
+        }
+    }
+
+    @Test
+    public void unreachableReceiverIsRetryable() {
+        Webhook webhook = webhook("GET");
+        server.stop(0);
+        try {
+            run(webhook);
+            Assert.fail("Delivery should have failed");
+        } catch (WebhookDeliveryException e) {
+            Assert.assertTrue(e.isRetryable());
+        }
+    }
+
+    @Test
+    public void backoffGrowsExponentiallyUpToTheCap() {
+        RetryQueue queue = WebhookDeliveryBean.RETRY_QUEUE;
+        Assert.assertEquals(queue.getBaseBackoffMillis(), queue.backoffMillis(1));
+        Assert.assertEquals(2 * queue.getBaseBackoffMillis(), queue.backoffMillis(2));
+        Assert.assertEquals(8 * queue.getBaseBackoffMillis(), queue.backoffMillis(4));
+        Assert.assertEquals(queue.getMaxBackoffMillis(), queue.backoffMillis(queue.getMaxAttempts() + 10));
+    }
+}
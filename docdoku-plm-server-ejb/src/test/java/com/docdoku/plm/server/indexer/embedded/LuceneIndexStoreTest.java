@@ -0,0 +1,152 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.indexer.embedded;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.meta.InstanceAttribute;
+import com.docdoku.plm.server.core.meta.InstanceTextAttribute;
+import com.docdoku.plm.server.core.meta.Tag;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.query.PartSearchQuery;
+import com.docdoku.plm.server.core.query.SearchQuery;
+import com.docdoku.plm.server.indexer.util.IndexerMapping;
+import org.apache.lucene.document.Document;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Runs part searches on embedded indexes, without any search service
+ */
+public class LuceneIndexStoreTest {
+
+    private static final String WORKSPACE_ID = "wks";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LuceneIndexStore store;
+    private LuceneQueryBuilder queryBuilder;
+    private User user;
+
+    @Before
+    public void setup() throws Exception {
+        store = new LuceneIndexStore();
+        store.open(folder.getRoot().toPath());
+        queryBuilder = new LuceneQueryBuilder(store.getAnalyzer());
+
+        Account account = new Account("jdoe", "John Doe", "jdoe@docdoku.com", "en", new Date(), null);
+        Workspace workspace = new Workspace(WORKSPACE_ID, account, "", false);
+        user = new User(workspace, account);
+
+        store.create(WORKSPACE_ID);
+        index(part(workspace, "ENG-100", "Engine block", "Cast iron"), "important");
+        index(part(workspace, "ENG-200", "Engine cover", "Aluminium"));
+        index(part(workspace, "WHL-100", "Front wheel", "Aluminium"), "important");
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void searchByPartNumberToken() throws Exception {
+        Assert.assertEquals(Arrays.asList("ENG-100", "WHL-100"), search(query(q -> q.setPartNumber("100"))));
+    }
+
+    @Test
+    public void searchByNameIsFuzzy() throws Exception {
+        Assert.assertEquals(Arrays.asList("ENG-100", "ENG-200"), search(query(q -> q.setName("engin"))));
+    }
+
+    @Test
+    public void searchByTagsAndAttributes() throws Exception {
+        PartSearchQuery query = query(q -> {
+            q.setTags(new String[]{"important"});
+            q.setAttributes(new SearchQuery.AbstractAttributeQuery[]{new SearchQuery.TextAttributeQuery("material", "aluminium")});
+        });
+        Assert.assertEquals(Collections.singletonList("WHL-100"), search(query));
+    }
+
+    @Test
+    public void searchWithQueryString() throws Exception {
+        Assert.assertEquals(Arrays.asList("ENG-200", "WHL-100"), search(query(q -> q.setQueryString("aluminium"))));
+    }
+
+    @Test
+    public void removedPartIsNotFound() throws Exception {
+        store.delete(WORKSPACE_ID, IndexerMapping.INDEX_PARTS, "wks-ENG-100-A-1");
+        store.commit();
+        Assert.assertEquals(Collections.singletonList("WHL-100"), search(query(q -> q.setPartNumber("100"))));
+    }
+
+    @Test
+    public void droppedWorkspaceHasNoResults() throws Exception {
+        store.drop(WORKSPACE_ID);
+        Assert.assertFalse(store.exists(WORKSPACE_ID));
+        Assert.assertTrue(search(query(q -> q.setPartNumber("100"))).isEmpty());
+    }
+
+    private PartIteration part(Workspace workspace, String number, String name, String material) {
+        PartMaster partMaster = new PartMaster(workspace, number, user);
+        partMaster.setName(name);
+        PartRevision partRevision = partMaster.createNextRevision(user);
+        PartIteration partIteration = partRevision.createNextIteration(user);
+        List<InstanceAttribute> attributes = new ArrayList<>();
+        attributes.add(new InstanceTextAttribute("material", material, false));
+        partIteration.setInstanceAttributes(attributes);
+        return partIteration;
+    }
+
+    private void index(PartIteration partIteration, String... tags) throws Exception {
+        Set<Tag> tagSet = new HashSet<>();
+        for (String tag : tags) {
+            tagSet.add(new Tag(partIteration.getPartRevision().getPartMaster().getWorkspace(), tag));
+        }
+        partIteration.getPartRevision().setTags(tagSet);
+        String id = partIteration.getKey().toString();
+        store.update(WORKSPACE_ID, IndexerMapping.INDEX_PARTS, id, LuceneDocumentMapper.toDocument(id, partIteration, new HashMap<>()));
+    }
+
+    private PartSearchQuery query(Consumer<PartSearchQuery> setup) {
+        PartSearchQuery query = new PartSearchQuery();
+        query.setWorkspaceId(WORKSPACE_ID);
+        setup.accept(query);
+        return query;
+    }
+
+    private List<String> search(PartSearchQuery query) throws Exception {
+        List<Document> documents = store.search(WORKSPACE_ID, IndexerMapping.INDEX_PARTS, queryBuilder.getSearchQuery(query), 0, 10);
+        return documents.stream().map(doc -> doc.get(IndexerMapping.PART_NUMBER_KEY)).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.listeners.parts;
+
+import com.docdoku.plm.server.core.product.PartSuggestion;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class PartNumberIndexTest {
+
+    private PartNumberIndex index;
+
+    @Before
+    public void setup() {
+        index = new PartNumberIndex("workspace01");
+        index.add("PRT-001", "Front Wheel");
+        index.add("PRT-002", "Rear Wheel");
+        index.add("BOLT-M8", "Wheel bolt");
+        index.add("FRAME", null);
+    }
+
+    private List<String> numbers(String query, int maxResults) {
+        return index.lookup(query, maxResults).stream().map(PartSuggestion::getNumber).collect(Collectors.toList());
+    }
+
+    @Test
+    public void lookupMatchesNumberOrNameIgnoringCase() {
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002"), numbers("prt-", 10));
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002", "BOLT-M8"), numbers("WHEEL", 10));
+        Assert.assertEquals(Collections.singletonList("BOLT-M8"), numbers("T-M", 10));
+        Assert.assertEquals("Rear Wheel", index.lookup("002", 1).get(0).getName());
+    }
+
+    @Test
+    public void lookupOfShortQueryWalksParts() {
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002", "BOLT-M8", "FRAME"), numbers("", 10));
+        Assert.assertEquals(Arrays.asList("BOLT-M8", "FRAME"), numbers("m", 10));
+    }
+
+    @Test
+    public void lookupStopsAtMaxResults() {
+        Assert.assertEquals(Collections.singletonList("PRT-001"), numbers("wheel", 1));
+    }
+
+    @Test
+    public void lookupWithoutMatch() {
+        Assert.assertTrue(numbers("gear", 10).isEmpty());
+        // every trigram is indexed but no part holds them all in a row
+        Assert.assertTrue(numbers("prt-m8", 10).isEmpty());
+    }
+
+    @Test
+    public void removedAndRenamedParts() {
+        index.remove("PRT-001");
+        index.add("PRT-002", "Rear Gear");
+
+        Assert.assertEquals(Collections.singletonList("BOLT-M8"), numbers("wheel", 10));
+        Assert.assertEquals(Collections.singletonList("PRT-002"), numbers("gear", 10));
+        Assert.assertEquals(3, index.size());
+    }
+}
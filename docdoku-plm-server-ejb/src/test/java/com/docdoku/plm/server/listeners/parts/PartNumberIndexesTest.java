@@ -0,0 +1,196 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.listeners.parts;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.product.PartSuggestion;
+import com.docdoku.plm.server.events.PartRevisionEvent;
+import com.docdoku.plm.server.events.WorkspaceEvent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartNumberIndexesTest {
+
+    private static final String WORKSPACE_ID = "workspace01";
+
+    @Mock
+    private PartNumberIndexLoader loader;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+    private PartNumberIndexes indexes;
+
+    private Workspace workspace;
+    private User user;
+
+    @Before
+    public void setup() {
+        indexes = new PartNumberIndexes(loader, backgroundTasks::add, now::get);
+        Account account = new Account("user1", "User 1", "user1@docdoku.com", "en", new Date(), null);
+        workspace = new Workspace(WORKSPACE_ID, account, "", false);
+        user = new User(workspace, account);
+
+        Mockito.when(loader.load(WORKSPACE_ID)).thenAnswer(invocation -> index("PRT-001", "PRT-002"));
+    }
+
+    private static PartNumberIndex index(String... numbers) {
+        PartNumberIndex index = new PartNumberIndex(WORKSPACE_ID);
+        for (String number : numbers) {
+            index.add(number, "Wheel");
+        }
+        return index;
+    }
+
+    private List<String> lookup(String query) {
+        return indexes.lookup(WORKSPACE_ID, query, 10).stream().map(PartSuggestion::getNumber).collect(Collectors.toList());
+    }
+
+    private void buildIndex() {
+        lookup("prt");
+        backgroundTasks.remove(0).run();
+    }
+
+    private PartRevision newPart(String number) {
+        PartMaster partMaster = new PartMaster(workspace, number, user);
+        partMaster.setName("Wheel");
+        return partMaster.createNextRevision(user);
+    }
+
+    @Test
+    public void indexIsBuiltInTheBackgroundOnFirstLookup() {
+        Mockito.when(loader.search(WORKSPACE_ID, "prt", 10)).thenReturn(Collections.singletonList(new PartSuggestion(WORKSPACE_ID, "PRT-001", "Wheel")));
+
+        // The database answers until the index is built
+        Assert.assertEquals(Collections.singletonList("PRT-001"), lookup("prt"));
+        Mockito.verify(loader, Mockito.never()).load(WORKSPACE_ID);
+        Assert.assertEquals(1, backgroundTasks.size());
+
+        backgroundTasks.remove(0).run();
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002"), lookup("prt"));
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002"), lookup("wheel"));
+        Mockito.verify(loader, Mockito.times(1)).load(WORKSPACE_ID);
+        Mockito.verify(loader, Mockito.times(1)).search(WORKSPACE_ID, "prt", 10);
+        Assert.assertTrue(backgroundTasks.isEmpty());
+    }
+
+    @Test
+    public void changesObservedDuringFirstBuildAreKept() {
+        lookup("prt");
+        indexes.onPartCreated(new PartRevisionEvent(newPart("PRT-003")));
+        backgroundTasks.remove(0).run();
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002", "PRT-003"), lookup("prt"));
+    }
+
+    @Test
+    public void failedBuildIsRetriedOnNextLookup() {
+        Mockito.when(loader.load(WORKSPACE_ID)).thenThrow(new IllegalStateException("database down"))
+                .thenAnswer(invocation -> index("PRT-001", "PRT-002"));
+        buildIndex();
+        Assert.assertTrue(lookup("prt").isEmpty());
+        backgroundTasks.remove(0).run();
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002"), lookup("prt"));
+    }
+
+    @Test
+    public void createdAndRemovedParts() {
+        buildIndex();
+        PartRevision created = newPart("PRT-003");
+        indexes.onPartCreated(new PartRevisionEvent(created));
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002", "PRT-003"), lookup("prt"));
+
+        // Removing one of several revisions keeps the part master
+        PartRevision nextRevision = created.getPartMaster().createNextRevision(user);
+        indexes.onPartRemoved(new PartRevisionEvent(nextRevision, false));
+        Assert.assertEquals(3, lookup("prt").size());
+
+        indexes.onPartRemoved(new PartRevisionEvent(created, true));
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002"), lookup("prt"));
+    }
+
+    @Test
+    public void eventsOfUnindexedWorkspaceAreIgnored() {
+        indexes.onPartCreated(new PartRevisionEvent(newPart("PRT-003")));
+        buildIndex();
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002"), lookup("prt"));
+    }
+
+    @Test
+    public void refreshKeepsChangesObservedDuringRebuild() {
+        buildIndex();
+        now.addAndGet(PartNumberIndexes.REFRESH_MS + 1);
+        Mockito.when(loader.load(WORKSPACE_ID)).thenAnswer(invocation -> index("PRT-001", "PRT-004"));
+
+        // The stale index keeps serving while the new one is built
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-002"), lookup("prt"));
+        Assert.assertEquals(1, backgroundTasks.size());
+        indexes.onPartCreated(new PartRevisionEvent(newPart("PRT-005")));
+
+        backgroundTasks.remove(0).run();
+        Assert.assertEquals(Arrays.asList("PRT-001", "PRT-004", "PRT-005"), lookup("prt"));
+        Assert.assertTrue(backgroundTasks.isEmpty());
+    }
+
+    @Test
+    public void idleIndexesAreDropped() {
+        buildIndex();
+        now.addAndGet(PartNumberIndexes.IDLE_MS + 1);
+        Mockito.when(loader.load("workspace02")).thenReturn(new PartNumberIndex("workspace02"));
+        indexes.lookup("workspace02", "prt", 10);
+        lookup("prt");
+        backgroundTasks.forEach(Runnable::run);
+        Mockito.verify(loader, Mockito.times(2)).load(WORKSPACE_ID);
+    }
+
+    @Test
+    public void purgedWorkspaceIsNotServedAnyMore() {
+        buildIndex();
+        Mockito.when(loader.load(WORKSPACE_ID)).thenAnswer(invocation -> index());
+
+        indexes.onWorkspacePurged(new WorkspaceEvent(new Workspace(WORKSPACE_ID)));
+        buildIndex();
+        Assert.assertTrue(lookup("prt").isEmpty());
+    }
+
+    @Test
+    public void buildRunningDuringPurgeIsDiscarded() {
+        lookup("prt");
+        indexes.onWorkspacePurged(new WorkspaceEvent(new Workspace(WORKSPACE_ID)));
+        backgroundTasks.remove(0).run();
+
+        // The next lookup starts a build of the purged workspace instead of using the discarded index
+        lookup("prt");
+        Assert.assertEquals(1, backgroundTasks.size());
+    }
+}
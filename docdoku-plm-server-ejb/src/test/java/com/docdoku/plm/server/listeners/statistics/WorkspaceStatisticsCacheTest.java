@@ -0,0 +1,149 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.docdoku.plm.server.listeners.statistics;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.document.DocumentMaster;
+import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.product.PartIteration;
+import com.docdoku.plm.server.core.product.PartMaster;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.dao.DocumentRevisionDAO;
+import com.docdoku.plm.server.dao.PartRevisionDAO;
+import com.docdoku.plm.server.events.DocumentRevisionEvent;
+import com.docdoku.plm.server.events.PartIterationEvent;
+import com.docdoku.plm.server.events.PartRevisionEvent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WorkspaceStatisticsCacheTest {
+
+    private static final String WORKSPACE_ID = "workspace01";
+
+    @Mock
+    private DocumentRevisionDAO documentRevisionDAO;
+
+    @Mock
+    private PartRevisionDAO partRevisionDAO;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private WorkspaceStatisticsCache cache;
+
+    private Workspace workspace;
+    private User user;
+
+    @Before
+    public void setup() {
+        cache = new WorkspaceStatisticsCache(documentRevisionDAO, partRevisionDAO, now::get);
+        Account account = new Account("user1", "User 1", "user1@docdoku.com", "en", new Date(), null);
+        workspace = new Workspace(WORKSPACE_ID, account, "", false);
+        user = new User(workspace, account);
+
+        Mockito.when(documentRevisionDAO.getTotalNumberOfDocuments(WORKSPACE_ID)).thenReturn(10);
+        Mockito.when(partRevisionDAO.getTotalNumberOfParts(WORKSPACE_ID)).thenReturn(20);
+        Mockito.when(documentRevisionDAO.findCheckOutsByWorkspace(WORKSPACE_ID)).thenReturn(Arrays.asList(
+                new Object[]{"doc1", "A", "user1", new Date(1)},
+                new Object[]{"doc2", "A", "user1", new Date(2)},
+                new Object[]{"doc3", "B", "user2", new Date(3)}));
+        Mockito.when(partRevisionDAO.findCheckOutsByWorkspace(WORKSPACE_ID)).thenReturn(new ArrayList<>());
+    }
+
+    @Test
+    public void readFromAggregateQueriesTest() {
+        Assert.assertEquals(10, cache.getDocumentsCount(WORKSPACE_ID));
+        Assert.assertEquals(20, cache.getPartsCount(WORKSPACE_ID));
+
+        Map<String, List<Date>> checkedOutDocuments = cache.getCheckedOutDocuments(WORKSPACE_ID);
+        Assert.assertEquals(2, checkedOutDocuments.get("user1").size());
+        Assert.assertEquals(Collections.singletonList(new Date(3)), checkedOutDocuments.get("user2"));
+        Assert.assertTrue(cache.getCheckedOutParts(WORKSPACE_ID).isEmpty());
+
+        Mockito.verify(documentRevisionDAO, Mockito.times(1)).getTotalNumberOfDocuments(WORKSPACE_ID);
+    }
+
+    @Test
+    public void documentEventsDropTheCacheTest() {
+        Assert.assertEquals(10, cache.getDocumentsCount(WORKSPACE_ID));
+
+        DocumentRevision documentRevision = new DocumentMaster(workspace, "doc4", user).createNextRevision(user);
+        Mockito.when(documentRevisionDAO.getTotalNumberOfDocuments(WORKSPACE_ID)).thenReturn(11);
+        cache.onDocumentCreated(new DocumentRevisionEvent(documentRevision));
+        Assert.assertEquals(11, cache.getDocumentsCount(WORKSPACE_ID));
+
+        Mockito.when(documentRevisionDAO.findCheckOutsByWorkspace(WORKSPACE_ID)).thenReturn(new ArrayList<>());
+        cache.onDocumentCheckedIn(new DocumentRevisionEvent(documentRevision));
+        Assert.assertTrue(cache.getCheckedOutDocuments(WORKSPACE_ID).isEmpty());
+
+        Mockito.when(documentRevisionDAO.getTotalNumberOfDocuments(WORKSPACE_ID)).thenReturn(10);
+        cache.onDocumentRemoved(new DocumentRevisionEvent(documentRevision));
+        Assert.assertEquals(10, cache.getDocumentsCount(WORKSPACE_ID));
+
+        Mockito.verify(documentRevisionDAO, Mockito.times(4)).getTotalNumberOfDocuments(WORKSPACE_ID);
+    }
+
+    @Test
+    public void partEventsDropTheCacheTest() {
+        Assert.assertEquals(20, cache.getPartsCount(WORKSPACE_ID));
+
+        PartRevision partRevision = new PartMaster(workspace, "part1", user).createNextRevision(user);
+        PartIteration partIteration = partRevision.createNextIteration(user);
+        Mockito.when(partRevisionDAO.getTotalNumberOfParts(WORKSPACE_ID)).thenReturn(21);
+        Mockito.when(partRevisionDAO.findCheckOutsByWorkspace(WORKSPACE_ID)).thenReturn(Collections.singletonList(
+                new Object[]{"part1", "A", "user1", new Date(5)}));
+        cache.onPartCreated(new PartRevisionEvent(partRevision));
+        Assert.assertEquals(21, cache.getPartsCount(WORKSPACE_ID));
+        Assert.assertEquals(Collections.singletonList(new Date(5)), cache.getCheckedOutParts(WORKSPACE_ID).get("user1"));
+
+        Mockito.when(partRevisionDAO.findCheckOutsByWorkspace(WORKSPACE_ID)).thenReturn(new ArrayList<>());
+        cache.onPartIterationCheckedIn(new PartIterationEvent(partIteration));
+        Assert.assertTrue(cache.getCheckedOutParts(WORKSPACE_ID).isEmpty());
+
+        Mockito.when(partRevisionDAO.getTotalNumberOfParts(WORKSPACE_ID)).thenReturn(20);
+        cache.onPartRemoved(new PartRevisionEvent(partRevision, true));
+        Assert.assertEquals(20, cache.getPartsCount(WORKSPACE_ID));
+    }
+
+    @Test
+    public void cacheExpiryTest() {
+        Assert.assertEquals(10, cache.getDocumentsCount(WORKSPACE_ID));
+
+        // Changes made elsewhere are not observed
+        Mockito.when(documentRevisionDAO.getTotalNumberOfDocuments(WORKSPACE_ID)).thenReturn(12);
+        Assert.assertEquals(10, cache.getDocumentsCount(WORKSPACE_ID));
+
+        now.addAndGet(WorkspaceStatisticsCache.CACHE_TTL_MS + 1);
+        Assert.assertEquals(12, cache.getDocumentsCount(WORKSPACE_ID));
+
+        cache.evict(WORKSPACE_ID);
+        Mockito.when(documentRevisionDAO.getTotalNumberOfDocuments(WORKSPACE_ID)).thenReturn(13);
+        Assert.assertEquals(13, cache.getDocumentsCount(WORKSPACE_ID));
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.mail;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Locale;
+
+public class MailDigestTest {
+
+    @Test
+    public void singleNotificationIsSentAsIs() {
+        MailDigest digest = new MailDigest("user@docdoku.com", "User", Locale.ENGLISH);
+        digest.add("DocDokuPLM: iteration notification", "First content");
+
+        Assert.assertEquals("DocDokuPLM: iteration notification", digest.getSubject());
+        Assert.assertEquals(NotificationTemplates.getHTMLBody("First content", Locale.ENGLISH), digest.getHTMLBody());
+    }
+
+    @Test
+    public void notificationsAreGathered() {
+        MailDigest digest = new MailDigest("user@docdoku.com", "User", Locale.ENGLISH);
+        digest.add("DocDokuPLM: iteration notification", "First content");
+        digest.add("DocDokuPLM: state notification", "Second content");
+
+        Assert.assertEquals(2, digest.size());
+        Assert.assertTrue(digest.getSubject().endsWith("(2)"));
+        String body = digest.getHTMLBody();
+        Assert.assertTrue(body.contains("First content"));
+        Assert.assertTrue(body.contains("Second content"));
+        Assert.assertTrue(body.contains("DocDokuPLM: state notification"));
+    }
+}
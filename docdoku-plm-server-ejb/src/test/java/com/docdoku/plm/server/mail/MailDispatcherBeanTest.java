@@ -0,0 +1,91 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.mail;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.mockito.ArgumentMatchers.any;
+
+public class MailDispatcherBeanTest {
+
+    private static final String EMAIL = "user@docdoku.com";
+
+    private MailDispatcherBean mailDispatcher;
+
+    private MailTransportPool transportPool;
+
+    @Before
+    public void setup() {
+        mailDispatcher = new MailDispatcherBean();
+        transportPool = Mockito.mock(MailTransportPool.class);
+        Properties properties = new Properties();
+        properties.setProperty("mail.from", "plm@docdoku.com");
+        Whitebox.setInternalState(mailDispatcher, "mailSession", Session.getInstance(properties));
+        Whitebox.setInternalState(mailDispatcher, "transportPool", transportPool);
+        Whitebox.setInternalState(mailDispatcher, "digestsEnabled", true);
+    }
+
+    private Map<String, MailDigest> pendingDigests() {
+        return Whitebox.getInternalState(mailDispatcher, "pendingDigests");
+    }
+
+    @Test
+    public void failedDigestIsSentAtNextWindow() throws Exception {
+        Mockito.doThrow(new MessagingException("SMTP down")).doNothing().when(transportPool).send(any());
+        mailDispatcher.queue(EMAIL, "User", Locale.ENGLISH, "First subject", "First content");
+
+        mailDispatcher.sendDigests();
+        Assert.assertEquals(1, pendingDigests().get(EMAIL).size());
+
+        mailDispatcher.queue(EMAIL, "User", Locale.ENGLISH, "Second subject", "Second content");
+        mailDispatcher.sendDigests();
+
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        Mockito.verify(transportPool, Mockito.times(2)).send(captor.capture());
+        Assert.assertTrue(captor.getValue().getSubject().endsWith("(2)"));
+        Assert.assertTrue(pendingDigests().isEmpty());
+    }
+
+    @Test
+    public void digestIsDroppedAfterMaxAttempts() throws Exception {
+        Mockito.doThrow(new MessagingException("SMTP down")).when(transportPool).send(any());
+        mailDispatcher.queue(EMAIL, "User", Locale.ENGLISH, "Subject", "Content");
+
+        for (int i = 0; i < MailDispatcherBean.MAX_DIGEST_ATTEMPTS; i++) {
+            mailDispatcher.sendDigests();
+        }
+
+        Mockito.verify(transportPool, Mockito.times(MailDispatcherBean.MAX_DIGEST_ATTEMPTS)).send(any());
+        Assert.assertTrue(pendingDigests().isEmpty());
+    }
+}
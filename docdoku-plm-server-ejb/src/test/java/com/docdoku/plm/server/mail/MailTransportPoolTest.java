@@ -0,0 +1,168 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.mail;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.mail.Message;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MailTransportPoolTest {
+
+    private SmtpStandIn smtp;
+    private Session session;
+
+    @Before
+    public void setup() throws IOException {
+        smtp = new SmtpStandIn();
+        Properties properties = new Properties();
+        properties.setProperty("mail.transport.protocol", "smtp");
+        properties.setProperty("mail.smtp.host", "127.0.0.1");
+        properties.setProperty("mail.smtp.port", String.valueOf(smtp.getPort()));
+        properties.setProperty("mail.from", "plm@docdoku.com");
+        session = Session.getInstance(properties);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        smtp.close();
+    }
+
+    private Message message(int i) throws Exception {
+        Message message = new MimeMessage(session);
+        message.addRecipient(Message.RecipientType.TO, new InternetAddress("user" + i + "@docdoku.com"));
+        message.setSubject("Notification " + i);
+        message.setContent("<p>content</p>", "text/html; charset=utf-8");
+        message.setFrom();
+        return message;
+    }
+
+    @Test
+    public void messagesReuseOneConnection() throws Exception {
+        MailTransportPool pool = new MailTransportPool(session, 2);
+        for (int i = 0; i < 20; i++) {
+            pool.send(message(i));
+        }
+        pool.close();
+        Assert.assertEquals(20, smtp.messages.get());
+        Assert.assertEquals(1, smtp.connections.get());
+    }
+
+    @Test
+    public void droppedConnectionIsReplaced() throws Exception {
+        MailTransportPool pool = new MailTransportPool(session, 2);
+        smtp.dropAfterMessage = true;
+        pool.send(message(1));
+        pool.send(message(2));
+        pool.close();
+        Assert.assertEquals(2, smtp.messages.get());
+        Assert.assertEquals(2, smtp.connections.get());
+    }
+
+    /**
+     * Minimal SMTP server accepting any message
+     */
+    private static class SmtpStandIn implements Closeable {
+
+        private final ServerSocket serverSocket;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+        private volatile boolean dropAfterMessage;
+
+        SmtpStandIn() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::accept, "smtp-stand-in");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread handler = new Thread(() -> handle(socket));
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (Socket s = socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+                 Writer out = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !".".equals(line)) {
+                            // message content is ignored
+                        }
+                        messages.incrementAndGet();
+                        reply(out, "250 OK");
+                        if (dropAfterMessage) {
+                            return;
+                        }
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                        reply(out, "250 localhost");
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // connection closed by the client
+            }
+        }
+
+        private void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.metrics;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.metrics.RequestProbe;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.TypedQuery;
+import java.util.Arrays;
+
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class MeteredEntityManagerTest {
+
+    @Mock
+    private EntityManager em;
+
+    @Mock
+    private TypedQuery<Account> query;
+
+    private EntityManager meteredEntityManager;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        meteredEntityManager = MeteredEntityManager.wrap(em);
+        Mockito.when(em.createNamedQuery("Account.findAll", Account.class)).thenReturn(query);
+        Mockito.when(query.setParameter(Mockito.anyString(), Mockito.any())).thenReturn(query);
+        RequestProbe.start();
+    }
+
+    @After
+    public void tearDown() {
+        RequestProbe.stop();
+    }
+
+    @Test
+    public void chainedQueriesShouldBeCounted() {
+        Mockito.when(query.getResultList()).thenReturn(Arrays.asList(new Account("a"), new Account("b")));
+
+        Assert.assertEquals(2, meteredEntityManager.createNamedQuery("Account.findAll", Account.class)
+                .setParameter("enabled", true)
+                .getResultList().size());
+
+        Assert.assertEquals(1, RequestProbe.current().getEntityManagerCalls());
+        Assert.assertEquals(2, RequestProbe.current().getRows());
+    }
+
+    @Test
+    public void failedQueriesAndLookupsShouldBeCounted() {
+        Mockito.when(query.getSingleResult()).thenThrow(new NoResultException());
+        Mockito.when(em.find(Account.class, "a")).thenReturn(new Account("a"));
+
+        try {
+            meteredEntityManager.createNamedQuery("Account.findAll", Account.class).getSingleResult();
+            Assert.fail();
+        } catch (NoResultException e) {
+            // Expected, the exception is not wrapped
+        }
+        meteredEntityManager.find(Account.class, "a");
+        meteredEntityManager.find(Account.class, "b");
+
+        Assert.assertEquals(3, RequestProbe.current().getEntityManagerCalls());
+        Assert.assertEquals(1, RequestProbe.current().getRows());
+    }
+
+    @Test
+    public void queriesOutsideRequestsShouldBeIgnored() {
+        RequestProbe.stop();
+        meteredEntityManager.find(Account.class, "a");
+        Assert.assertNull(RequestProbe.current());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.auth;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters of the authentication modules
+ */
+public class AuthMetrics implements AuthMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.docdoku.plm:type=Authentication";
+
+    private final LongAdder jwtCacheHits = new LongAdder();
+    private final LongAdder jwtCacheMisses = new LongAdder();
+    private final LongAdder basicCacheHits = new LongAdder();
+    private final LongAdder basicCacheMisses = new LongAdder();
+    private final LongAdder authenticationCount = new LongAdder();
+    private final LongAdder authenticationNanos = new LongAdder();
+    private final LongAccumulator maxAuthenticationNanos = new LongAccumulator(Math::max, 0);
+
+    private final IntSupplier jwtCacheSize;
+    private final IntSupplier basicCacheSize;
+
+    public AuthMetrics(IntSupplier jwtCacheSize, IntSupplier basicCacheSize) {
+        this.jwtCacheSize = jwtCacheSize;
+        this.basicCacheSize = basicCacheSize;
+    }
+
+    public void jwtLookup(boolean hit) {
+        (hit ? jwtCacheHits : jwtCacheMisses).increment();
+    }
+
+    public void basicLookup(boolean hit) {
+        (hit ? basicCacheHits : basicCacheMisses).increment();
+    }
+
+    public void authenticated(long nanos) {
+        authenticationCount.increment();
+        authenticationNanos.add(nanos);
+        maxAuthenticationNanos.accumulate(nanos);
+    }
+
+    @Override
+    public long getJwtCacheHits() {
+        return jwtCacheHits.sum();
+    }
+
+    @Override
+    public long getJwtCacheMisses() {
+        return jwtCacheMisses.sum();
+    }
+
+    @Override
+    public long getBasicCacheHits() {
+        return basicCacheHits.sum();
+    }
+
+    @Override
+    public long getBasicCacheMisses() {
+        return basicCacheMisses.sum();
+    }
+
+    @Override
+    public long getAuthenticationCount() {
+        return authenticationCount.sum();
+    }
+
+    @Override
+    public long getMeanAuthenticationMicros() {
+        long count = authenticationCount.sum();
+        return count == 0 ? 0 : authenticationNanos.sum() / count / 1000;
+    }
+
+    @Override
+    public long getMaxAuthenticationMicros() {
+        return maxAuthenticationNanos.get() / 1000;
+    }
+
+    @Override
+    public int getJwtCacheSize() {
+        return jwtCacheSize.getAsInt();
+    }
+
+    @Override
+    public int getBasicCacheSize() {
+        return basicCacheSize.getAsInt();
+    }
+}
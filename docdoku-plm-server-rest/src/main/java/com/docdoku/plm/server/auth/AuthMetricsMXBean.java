@@ -0,0 +1,51 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.auth;
+
+/**
+ * Authentication statistics, published on JMX as {@value AuthMetrics#OBJECT_NAME}
+ */
+public interface AuthMetricsMXBean {
+
+    long getJwtCacheHits();
+
+    long getJwtCacheMisses();
+
+    long getBasicCacheHits();
+
+    long getBasicCacheMisses();
+
+    long getAuthenticationCount();
+
+    /**
+     * @return the mean time spent authenticating a request, in microseconds
+     */
+    long getMeanAuthenticationMicros();
+
+    /**
+     * @return the longest time spent authenticating a request, in microseconds
+     */
+    long getMaxAuthenticationMicros();
+
+    int getJwtCacheSize();
+
+    int getBasicCacheSize();
+}
@@ -21,14 +21,24 @@
 package com.docdoku.plm.server.auth;
 
 import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.JWTokenUserGroupMapping;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.IAccountManagerLocal;
+import com.docdoku.plm.server.core.services.ITokenManagerLocal;
 import com.docdoku.plm.server.rest.Tools;
+import org.jose4j.jwt.MalformedClaimException;
+import org.jose4j.jwt.NumericDate;
 
 import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -36,8 +46,9 @@ import java.util.regex.Pattern;
 /**
  * This class is an helper class for authentication modules.
  * <p>
- * Allows to access AccountManagerBean from a class not managed by the container
+ * Allows to access AccountManagerBean and JWTokenManager from a class not managed by the container
  * Provides web.xml config values
+ * Caches verified tokens and credentials, entries of a login are dropped when its account changes
  *
  * @author Morgan Guimard
  */
@@ -45,9 +56,19 @@ public class AuthServices {
 
     private static final Logger LOGGER = Logger.getLogger(AuthServices.class.getName());
     private static final String ACCOUNT_MANAGER = "java:app/docdoku-plm-server-ejb/AccountManagerBean!com.docdoku.plm.server.core.services.IAccountManagerLocal";
+    private static final String TOKEN_MANAGER = "java:app/docdoku-plm-server-ejb/JWTokenManager!com.docdoku.plm.server.core.services.ITokenManagerLocal";
     private static final String JAVA_COMP_ENV = "java:comp/env";
 
+    private static final int JWT_CACHE_SIZE = 10000;
+    private static final int BASIC_CACHE_SIZE = 1000;
+    private static final long BASIC_CACHE_TTL = TimeUnit.MINUTES.toMillis(1);
+
+    private static final AuthenticationCache<JWTokenUserGroupMapping> JWT_CACHE = new AuthenticationCache<>(JWT_CACHE_SIZE);
+    private static final AuthenticationCache<UserGroupMapping> BASIC_CACHE = new AuthenticationCache<>(BASIC_CACHE_SIZE);
+    private static final AuthMetrics METRICS = new AuthMetrics(JWT_CACHE::size, BASIC_CACHE::size);
+
     private static IAccountManagerLocal accountManager;
+    private static volatile ITokenManagerLocal tokenManager;
     private static String[] publicPaths;
 
     static {
@@ -88,6 +109,91 @@ public class AuthServices {
         return accountManager.getUserGroupMapping(login);
     }
 
+    /**
+     * @return the token manager, looked up once it is available
+     */
+    public static ITokenManagerLocal getTokenManager() {
+        ITokenManagerLocal result = tokenManager;
+        if (result == null) {
+            try {
+                result = (ITokenManagerLocal) new InitialContext().lookup(TOKEN_MANAGER);
+                tokenManager = result;
+            } catch (NamingException e) {
+                LOGGER.log(Level.SEVERE, null, e);
+            }
+        }
+        return result;
+    }
+
+    public static AuthMetrics getMetrics() {
+        return METRICS;
+    }
+
+    /**
+     * Validate a jwt, the signature of a token is verified once until it expires
+     */
+    public static JWTokenUserGroupMapping validateAuthToken(Key key, String jwt) {
+        JWTokenUserGroupMapping jwTokenUserGroupMapping = JWT_CACHE.get(jwt);
+        METRICS.jwtLookup(jwTokenUserGroupMapping != null);
+        if (jwTokenUserGroupMapping == null) {
+            jwTokenUserGroupMapping = getTokenManager().validateAuthToken(key, jwt);
+            if (jwTokenUserGroupMapping != null) {
+                try {
+                    NumericDate expirationTime = jwTokenUserGroupMapping.getClaims().getExpirationTime();
+                    if (expirationTime != null) {
+                        JWT_CACHE.put(jwt, jwTokenUserGroupMapping, expirationTime.getValueInMillis());
+                    }
+                } catch (MalformedClaimException e) {
+                    LOGGER.log(Level.FINE, "Cannot get expiration time from claims", e);
+                }
+            }
+        }
+        return jwTokenUserGroupMapping;
+    }
+
+    /**
+     * Authenticate basic credentials, successful authentications are kept for a minute
+     *
+     * @return the user group mapping of the account, null if authentication failed
+     */
+    public static UserGroupMapping authenticateCredentials(String login, String password) {
+        String cacheKey = hash(login + ':' + password);
+        UserGroupMapping userGroupMapping = BASIC_CACHE.get(cacheKey);
+        METRICS.basicLookup(userGroupMapping != null);
+        if (userGroupMapping == null) {
+            Account account = authenticateAccount(login, password);
+            if (account != null) {
+                userGroupMapping = getUserGroupMapping(login);
+                BASIC_CACHE.put(cacheKey, userGroupMapping, System.currentTimeMillis() + BASIC_CACHE_TTL);
+            }
+        }
+        return userGroupMapping;
+    }
+
+    /**
+     * Forget authentications of the given login, to be called when its account is changed or disabled
+     */
+    public static void invalidate(String login) {
+        JWT_CACHE.invalidateIf(mapping -> login.equals(mapping.getUserGroupMapping().getLogin()));
+        BASIC_CACHE.invalidateIf(mapping -> login.equals(mapping.getLogin()));
+    }
+
+    /**
+     * Forget every basic authentication, to be called when the login of a changed account is unknown
+     */
+    public static void invalidateCredentials() {
+        BASIC_CACHE.clear();
+    }
+
+    private static String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public static boolean isPublicRequestURI(String contextPath, String requestURI) {
         if (requestURI != null && publicPaths != null) {
             contextPath = Tools.stripTrailingSlash(contextPath);
@@ -0,0 +1,108 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.auth;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache of authentication results, each entry having its own expiration date
+ *
+ * When full, expired entries are purged first, then arbitrary ones.
+ *
+ * @param <V> the cached authentication result
+ */
+public class AuthenticationCache<V> {
+
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public AuthenticationCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    AuthenticationCache(int maxSize, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the value cached for this key, null if absent or expired
+     */
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(String key, V value, long expiresAt) {
+        if (expiresAt <= clock.getAsLong()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    public void invalidateIf(Predicate<V> predicate) {
+        entries.values().removeIf(entry -> predicate.test(entry.value));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        Iterator<Map.Entry<String, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (entries.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
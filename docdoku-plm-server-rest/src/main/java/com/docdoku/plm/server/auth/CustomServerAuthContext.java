@@ -66,7 +66,12 @@ public class CustomServerAuthContext implements ServerAuthContext {
         CustomSAM module = getModule(messageInfo);
 
         if (module != null) {
-            return module.validateRequest(messageInfo, clientSubject, serviceSubject);
+            long start = System.nanoTime();
+            try {
+                return module.validateRequest(messageInfo, clientSubject, serviceSubject);
+            } finally {
+                AuthServices.getMetrics().authenticated(System.nanoTime() - start);
+            }
         }
 
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -21,6 +21,8 @@
 package com.docdoku.plm.server.auth;
 
 import com.docdoku.plm.server.config.AuthConfig;
+import com.docdoku.plm.server.core.metrics.MetricsRegistrar;
+import com.docdoku.plm.server.rest.interceptors.CompressionMetrics;
 
 import javax.inject.Inject;
 import javax.security.auth.message.config.AuthConfigFactory;
@@ -32,7 +34,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Servlet context listener, register custom auth provider to application
+ * Servlet context listener, register custom auth provider to application, and the metrics of the web layer
  *
  * @author Morgan Guimard
  */
@@ -44,6 +46,8 @@ public class CustomServletContextListener implements ServletContextListener {
 
     private AuthConfig authConfig;
 
+    private final MetricsRegistrar metricsRegistrar = new MetricsRegistrar();
+
     @Inject
     public CustomServletContextListener(AuthConfig authConfig) {
         this.authConfig = authConfig;
@@ -58,11 +62,14 @@ public class CustomServletContextListener implements ServletContextListener {
                 .registerConfigProvider(new CustomAuthConfigProvider(authConfig), "HttpServlet",
                         getAppContextID(sce.getServletContext()), "Custom authentication modules registration on HttpServlet layer");
 
+        metricsRegistrar.register(AuthMetrics.OBJECT_NAME, AuthServices.getMetrics());
+        metricsRegistrar.register(CompressionMetrics.OBJECT_NAME, new CompressionMetrics());
     }
 
     @Override
     public void contextDestroyed(ServletContextEvent servletContextEvent) {
         LOGGER.log(Level.INFO, "Context destroyed");
+        metricsRegistrar.unregisterAll();
     }
 
     public static String getAppContextID(ServletContext context) {
@@ -20,7 +20,6 @@
 
 package com.docdoku.plm.server.auth.modules;
 
-import com.docdoku.plm.server.core.common.Account;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.auth.AuthServices;
 
@@ -79,10 +78,9 @@ public class BasicHeaderSAM extends CustomSAM {
         String login = splitCredentials[0];
         String password = splitCredentials[1];
 
-        Account account = AuthServices.authenticateAccount(login, password);
-        UserGroupMapping userGroupMapping = AuthServices.getUserGroupMapping(login);
+        UserGroupMapping userGroupMapping = AuthServices.authenticateCredentials(login, password);
 
-        if (account != null) {
+        if (userGroupMapping != null) {
             CallerPrincipalCallback callerPrincipalCallback = new CallerPrincipalCallback(clientSubject, login);
             GroupPrincipalCallback groupPrincipalCallback = new GroupPrincipalCallback(clientSubject, new String[]{userGroupMapping.getGroupName()});
             Callback[] callbacks = new Callback[]{callerPrincipalCallback, groupPrincipalCallback};
@@ -20,12 +20,11 @@
 
 package com.docdoku.plm.server.auth.modules;
 
+import com.docdoku.plm.server.auth.AuthServices;
 import com.docdoku.plm.server.core.common.JWTokenUserGroupMapping;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.ITokenManagerLocal;
 
-import javax.naming.InitialContext;
-import javax.naming.NamingException;
 import javax.security.auth.Subject;
 import javax.security.auth.callback.Callback;
 import javax.security.auth.callback.UnsupportedCallbackException;
@@ -66,18 +65,14 @@ public class JWTSAM extends CustomSAM {
         String authorization = request.getHeader("Authorization");
         String[] splitAuthorization = authorization.split(" ");
         String jwt = splitAuthorization[1];
-        ITokenManagerLocal tokenManager;
-
-        try {
-            final String beanName = "java:app/docdoku-plm-server-ejb/JWTokenManager!com.docdoku.plm.server.core.services.ITokenManagerLocal";;
-            InitialContext context = new InitialContext();
-            tokenManager = (ITokenManagerLocal) context.lookup(beanName);
-        } catch (NamingException e) {
-            LOGGER.log(Level.SEVERE,null,e);
+        ITokenManagerLocal tokenManager = AuthServices.getTokenManager();
+
+        if (tokenManager == null) {
+            LOGGER.log(Level.SEVERE, "Token manager is not available");
             return AuthStatus.FAILURE;
         }
 
-        JWTokenUserGroupMapping jwTokenUserGroupMapping = tokenManager.validateAuthToken(key, jwt);
+        JWTokenUserGroupMapping jwTokenUserGroupMapping = AuthServices.validateAuthToken(key, jwt);
 
         if (jwTokenUserGroupMapping != null) {
 
@@ -82,11 +82,12 @@ public class ExcelGenerator {
 
             List<String> selects = queryResult.getQuery().getSelects();
             int i = 1;
-            for (QueryResultRow row : queryResult.getRows()) {
+            for (QueryResultRow row : queryResult.iterateRows()) {
                 i++;
                 data.put(i, createXLSRow(selects, row, baseURL));
                 commentsData.put(i, createXLSRowComments(selects, row));
             }
+            int rowCount = i - 1;
 
             //Iterate over data and write to sheet
             Set<Integer> keySet = data.keySet();
@@ -149,7 +150,7 @@ public class ExcelGenerator {
                     String comment = cell.getCellComment().getString().toString();
 
                     if (comment.equals(QueryField.CTX_PRODUCT_ID) || comment.equals(QueryField.CTX_SERIAL_NUMBER) || comment.equals(QueryField.PART_MASTER_NUMBER)) {
-                        for (int k = 0; k < queryResult.getRows().size(); k++) {
+                        for (int k = 0; k < rowCount; k++) {
                             Cell grayCell = sheet.getRow(k + 1).getCell(j) != null ? sheet.getRow(k + 1).getCell(j) : sheet.getRow(k + 1).createCell(j);
                             grayCell.setCellStyle(headerStyle);
                         }
@@ -23,6 +23,7 @@ package com.docdoku.plm.server.rest;
 import io.swagger.annotations.*;
 import org.dozer.DozerBeanMapperSingletonWrapper;
 import org.dozer.Mapper;
+import com.docdoku.plm.server.auth.AuthServices;
 import com.docdoku.plm.server.core.common.Account;
 import com.docdoku.plm.server.core.common.Workspace;
 import com.docdoku.plm.server.core.exceptions.CreationException;
@@ -137,6 +138,7 @@ public class AccountResource {
         }
 
         Account account = accountManager.updateAccount(accountDTO.getName(), accountDTO.getEmail(), accountDTO.getLanguage(), accountDTO.getNewPassword(), accountDTO.getTimeZone());
+        AuthServices.invalidate(account.getLogin());
         AccountDTO accountDTOResult =  mapper.map(account, AccountDTO.class);
         accountDTOResult.setAdmin(contextManager.isCallerInRole(UserGroupMapping.ADMIN_ROLE_ID));
         return Response.ok().entity(accountDTOResult).build();
@@ -23,17 +23,20 @@ package com.docdoku.plm.server.rest;
 import io.swagger.annotations.*;
 import org.dozer.DozerBeanMapperSingletonWrapper;
 import org.dozer.Mapper;
+import com.docdoku.plm.server.auth.AuthServices;
 import com.docdoku.plm.server.core.common.Account;
 import com.docdoku.plm.server.core.common.OAuthProvider;
 import com.docdoku.plm.server.core.common.Workspace;
 import com.docdoku.plm.server.core.exceptions.*;
 import com.docdoku.plm.server.core.exceptions.NotAllowedException;
+import com.docdoku.plm.server.core.metrics.PerformanceMetrics;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.*;
 import com.docdoku.plm.server.rest.dto.AccountDTO;
 import com.docdoku.plm.server.rest.dto.OAuthProviderDTO;
 import com.docdoku.plm.server.rest.dto.PlatformOptionsDTO;
 import com.docdoku.plm.server.rest.dto.WorkspaceDTO;
+import com.docdoku.plm.server.rest.interceptors.CompressionStatistics;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.security.DeclareRoles;
@@ -50,6 +53,7 @@ import javax.ws.rs.core.Response;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -127,6 +131,49 @@ public class AdminResource implements Serializable {
     }
 
 
+    @GET
+    @Path("compression-stats")
+    @ApiOperation(value = "Get file download compression stats",
+            response = String.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful retrieval of compression statistics"),
+            @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 403, message = "Forbidden"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @Produces(MediaType.APPLICATION_JSON)
+    public JsonObject getCompressionStats() {
+        return Json.createObjectBuilder()
+                .add("precompressedHits", CompressionStatistics.getPrecompressedHits())
+                .add("precompressedMisses", CompressionStatistics.getPrecompressedMisses())
+                .add("onTheFlyCompressions", CompressionStatistics.getOnTheFlyCompressions())
+                .add("skippedIncompressible", CompressionStatistics.getSkipped())
+                .add("estimatedSavedCpuMillis", CompressionStatistics.getEstimatedSavedCpuMillis())
+                .build();
+    }
+
+    @GET
+    @Path("performance-stats")
+    @ApiOperation(value = "Get latency, query and payload stats of the resource and business methods",
+            response = String.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful retrieval of performance statistics"),
+            @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 403, message = "Forbidden"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @Produces(MediaType.APPLICATION_JSON)
+    public JsonObject getPerformanceStats() {
+        PerformanceMetrics metrics = PerformanceMetrics.getInstance();
+        return Json.createObjectBuilder()
+                .add("enabled", metrics.isEnabled())
+                .add("slowThresholdMillis", metrics.getSlowThresholdMillis())
+                .add("slowRequests", metrics.getSlowRequestCount())
+                .add("operations", toJson(metrics.getOperations()))
+                .add("workspaces", toJson(metrics.getWorkspaces()))
+                .build();
+    }
+
     @GET
     @Path("users-stats")
     @ApiOperation(value = "Get users stats",
@@ -337,6 +384,7 @@ public class AdminResource implements Serializable {
             @ApiParam(value = "Enabled", required = true) @QueryParam("enabled") boolean enabled)
             throws EntityNotFoundException, NotAllowedException {
         Account account = accountManager.enableAccount(login, enabled);
+        AuthServices.invalidate(login);
         return mapper.map(account, AccountDTO.class);
     }
 
@@ -385,6 +433,7 @@ public class AdminResource implements Serializable {
                 accountDTO.getLanguage(),
                 accountDTO.getNewPassword(),
                 accountDTO.getTimeZone());
+        AuthServices.invalidate(accountDTO.getLogin());
         AccountDTO accountDToResult = mapper.map(account, AccountDTO.class);
         accountDToResult.setAdmin(UserGroupMapping.ADMIN_ROLE_ID
                 .equals(accountManager.getUserGroupMapping(accountDTO.getLogin()).getGroupName()));
@@ -496,4 +545,13 @@ public class AdminResource implements Serializable {
         return Response.noContent().build();
     }
 
+    private static JsonObject toJson(Map<String, Map<String, Long>> stats) {
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        stats.forEach((key, counters) -> {
+            JsonObjectBuilder countersBuilder = Json.createObjectBuilder();
+            counters.forEach((name, value) -> countersBuilder.add(name, value.longValue()));
+            builder.add(key, countersBuilder);
+        });
+        return builder.build();
+    }
 }
@@ -193,6 +193,7 @@ public class AuthResource {
             @ApiParam(required = true, value = "Password recovery process") PasswordRecoverDTO passwordRecoverDTO)
                     throws EntityNotFoundException {
         userManager.recoverPassword(passwordRecoverDTO.getUuid(), passwordRecoverDTO.getNewPassword());
+        AuthServices.invalidateCredentials();
         return Response.noContent().build();
     }
 
@@ -208,6 +209,10 @@ public class AuthResource {
             request.getSession().invalidate();
         }
 
+        if (request.getRemoteUser() != null) {
+            AuthServices.invalidate(request.getRemoteUser());
+        }
+
         try {
             request.logout();
         } catch (ServletException e) {
@@ -43,6 +43,7 @@ import com.docdoku.plm.server.core.sharing.SharedDocument;
 import com.docdoku.plm.server.core.workflow.Workflow;
 import com.docdoku.plm.server.rest.dto.*;
 import com.docdoku.plm.server.rest.dto.product.ProductInstanceMasterDTO;
+import com.docdoku.plm.server.rest.mappers.DocumentDTOMapper;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.security.DeclareRoles;
@@ -390,10 +391,9 @@ public class DocumentResource {
         DocumentRevisionDTO[] documentRevisionDTOs = new DocumentRevisionDTO[docR.length];
 
         for (int i = 0; i < docR.length; i++) {
-            documentRevisionDTOs[i] = mapper.map(docR[i], DocumentRevisionDTO.class);
+            documentRevisionDTOs[i] = DocumentDTOMapper.toLightDocumentRevisionDTO(docR[i]);
             documentRevisionDTOs[i].setPath(docR[i].getLocation().getCompletePath());
             documentRevisionDTOs[i].setLifeCycleState(docR[i].getLifeCycleState());
-            documentRevisionDTOs[i] = Tools.createLightDocumentRevisionDTO(documentRevisionDTOs[i]);
             documentRevisionDTOs[i].setIterationSubscription(documentService.isUserIterationChangeEventSubscribedForGivenDocument(workspaceId, docR[i]));
             documentRevisionDTOs[i].setStateSubscription(documentService.isUserStateChangeEventSubscribedForGivenDocument(workspaceId, docR[i]));
         }
@@ -32,6 +32,7 @@ import com.docdoku.plm.server.core.services.IDocumentManagerLocal;
 import com.docdoku.plm.server.core.services.IDocumentWorkflowManagerLocal;
 import com.docdoku.plm.server.rest.dto.CountDTO;
 import com.docdoku.plm.server.rest.dto.DocumentRevisionDTO;
+import com.docdoku.plm.server.rest.mappers.DocumentDTOMapper;
 import com.docdoku.plm.server.rest.util.SearchQueryParser;
 
 import javax.annotation.PostConstruct;
@@ -237,8 +238,7 @@ public class DocumentsResource {
         List<DocumentRevisionDTO> documentRevisionDTOs = new ArrayList<>();
 
         for (DocumentRevision doc : docRs) {
-            DocumentRevisionDTO dto = mapper.map(doc, DocumentRevisionDTO.class);
-            dto = Tools.createLightDocumentRevisionDTO(dto);
+            DocumentRevisionDTO dto = DocumentDTOMapper.toLightDocumentRevisionDTO(doc);
             dto.setPath(doc.getLocation().getCompletePath());
             dto.setIterationSubscription(documentService.isUserIterationChangeEventSubscribedForGivenDocument(doc.getWorkspaceId(), doc));
             dto.setStateSubscription(documentService.isUserStateChangeEventSubscribedForGivenDocument(doc.getWorkspaceId(), doc));
@@ -45,6 +45,7 @@ import com.docdoku.plm.server.rest.collections.VirtualInstanceCollection;
 import com.docdoku.plm.server.rest.dto.*;
 import com.docdoku.plm.server.rest.dto.baseline.ProductBaselineDTO;
 import com.docdoku.plm.server.rest.dto.product.ProductInstanceMasterDTO;
+import com.docdoku.plm.server.rest.mappers.PartDTOMapper;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.security.DeclareRoles;
@@ -339,7 +340,7 @@ public class PartResource {
         PartIteration partIteration = productService.getPartIteration(partIPK);
         BinaryResource nativeCADFile = partIteration.getNativeCADFile();
         if (nativeCADFile != null) {
-            converterService.convertCADFileToOBJ(partIPK, nativeCADFile);
+            converterService.convertCADFileToOBJ(partIPK, nativeCADFile, IConverterManagerLocal.HIGH_PRIORITY);
             return Response.noContent().build();
         }
         return Response.status(Response.Status.BAD_REQUEST).build();
@@ -989,12 +990,7 @@ public class PartResource {
             if (!productService.canAccess(partRevision.getKey())) {
                 continue;
             }
-            PartRevisionDTO partRevisionDTO = mapper.map(partRevision, PartRevisionDTO.class);
-            partRevisionDTO.setNumber(partRevision.getPartNumber());
-            partRevisionDTO.setPartKey(partRevision.getPartNumber() + "-" + partRevision.getVersion());
-            partRevisionDTO.setName(partRevision.getPartMaster().getName());
-            partRevisionDTO.setStandardPart(partRevision.getPartMaster().isStandardPart());
-            partRevisionDTOs.add(partRevisionDTO);
+            partRevisionDTOs.add(PartDTOMapper.toPartRevisionDTO(partRevision));
         }
         return partRevisionDTOs;
     }
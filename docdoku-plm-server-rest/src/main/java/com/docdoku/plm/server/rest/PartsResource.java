@@ -39,6 +39,7 @@ import com.docdoku.plm.server.core.services.IProductManagerLocal;
 import com.docdoku.plm.server.core.services.IUserManagerLocal;
 import com.docdoku.plm.server.core.util.FileIO;
 import com.docdoku.plm.server.export.ExcelGenerator;
+import com.docdoku.plm.server.rest.collections.PagedQueryRows;
 import com.docdoku.plm.server.rest.collections.QueryResult;
 import com.docdoku.plm.server.rest.dto.*;
 import com.docdoku.plm.server.rest.file.util.BinaryResourceUpload;
@@ -68,6 +69,8 @@ import java.util.*;
 @RolesAllowed(UserGroupMapping.REGULAR_USER_ROLE_ID)
 public class PartsResource {
 
+    private static final int QUERY_PAGE_SIZE = 500;
+
     @Inject
     private IProductManagerLocal productService;
 
@@ -287,12 +290,20 @@ public class PartsResource {
             @ApiParam(required = true, value = "Workspace id") @PathParam("workspaceId") String workspaceId,
             @ApiParam(required = false, value = "Save the query flag", defaultValue = "false") @QueryParam("save") boolean save,
             @ApiParam(required = false, value = "Choose export type", defaultValue = "JSON") @QueryParam("export") String exportType,
+            @ApiParam(required = false, value = "Page size, the whole result is returned if not set") @QueryParam("limit") int limit,
+            @ApiParam(required = false, value = "Part key (number-version) of the last part of the previous page") @QueryParam("after") String after,
+            @ApiParam(required = false, value = "Stream the result page by page", defaultValue = "false") @QueryParam("stream") boolean stream,
             @ApiParam(required = true, value = "Query to run") QueryDTO queryDTO)
             throws EntityNotFoundException, UserNotActiveException, AccessRightException, CreationException,
             EntityAlreadyExistsException, EntityConstraintException, NotAllowedException, WorkspaceNotEnabledException {
 
         Query query = mapper.map(queryDTO, Query.class);
-        QueryResult queryResult = getQueryResult(workspaceId, query, exportType);
+        QueryResult queryResult;
+        if (limit > 0) {
+            queryResult = getQueryResultPage(workspaceId, query, exportType, parsePartKey(workspaceId, after), limit);
+        } else {
+            queryResult = getQueryResult(workspaceId, query, exportType, stream);
+        }
 
         if (save) {
             productService.createQuery(workspaceId, query);
@@ -375,13 +386,14 @@ public class PartsResource {
             @Context HttpServletRequest request,
             @ApiParam(required = true, value = "Workspace id") @PathParam("workspaceId") String workspaceId,
             @ApiParam(required = false, value = "Choose export type", defaultValue = "JSON") @QueryParam("export") String exportType,
+            @ApiParam(required = false, value = "Read the result page by page while exporting", defaultValue = "false") @QueryParam("stream") boolean stream,
             @ApiParam(required = true, value = "Query to export") QueryDTO queryDTO)
             throws EntityNotFoundException, EntityConstraintException, NotAllowedException,
             UserNotActiveException, WorkspaceNotEnabledException {
 
         Query query = mapper.map(queryDTO, Query.class);
         User user = userManager.whoAmI(workspaceId);
-        return export(workspaceId, query, request, exportType, user.getLocale());
+        return export(workspaceId, query, request, exportType, stream, user.getLocale());
     }
 
     @GET
@@ -406,7 +418,7 @@ public class PartsResource {
 
         User user = userManager.checkWorkspaceReadAccess(workspaceId);
         Query query = productService.loadQuery(workspaceId, queryId);
-        return export(workspaceId, query, request, exportType, user.getLocale());
+        return export(workspaceId, query, request, exportType, false, user.getLocale());
     }
 
     @DELETE
@@ -496,10 +508,9 @@ public class PartsResource {
             @ApiParam(required = true, value = "Query") @QueryParam("q") String q)
             throws EntityNotFoundException, AccessRightException, WorkspaceNotEnabledException {
 
-        String search = "%" + q + "%";
-        List<PartMaster> partMasters = productService.findPartMasters(Tools.stripTrailingSlash(workspaceId), search, search, 8);
+        List<PartSuggestion> partMasters = productService.suggestPartMasters(Tools.stripTrailingSlash(workspaceId), q, 8);
         List<LightPartMasterDTO> partsMastersDTO = new ArrayList<>();
-        for (PartMaster p : partMasters) {
+        for (PartSuggestion p : partMasters) {
             LightPartMasterDTO lightPartMasterDTO = new LightPartMasterDTO(p.getNumber(), p.getName());
             partsMastersDTO.add(lightPartMasterDTO);
         }
@@ -563,14 +574,11 @@ public class PartsResource {
             throws EntityNotFoundException, UserNotActiveException, WorkspaceNotEnabledException {
 
         int maxResults = limit == 0 ? 15 : limit;
-        PartRevision[] partRs = productService.getPartRevisionsWithReferenceOrName(workspaceId, q, maxResults);
+        List<PartSuggestion> lastIterations = productService.suggestPartsLastIterations(workspaceId, q, maxResults);
 
         List<PartIterationDTO> partsLastIter = new ArrayList<>();
-        for (PartRevision partR : partRs) {
-            PartIteration partLastIter = partR.getLastIteration();
-            if (partLastIter != null) {
-                partsLastIter.add(new PartIterationDTO(partLastIter.getWorkspaceId(), partLastIter.getPartName(), partLastIter.getPartNumber(), partLastIter.getPartVersion(), partLastIter.getIteration()));
-            }
+        for (PartSuggestion partLastIter : lastIterations) {
+            partsLastIter.add(new PartIterationDTO(partLastIter.getWorkspaceId(), partLastIter.getName(), partLastIter.getNumber(), partLastIter.getVersion(), partLastIter.getIteration()));
         }
 
         return partsLastIter.toArray(new PartIterationDTO[partsLastIter.size()]);
@@ -746,26 +754,61 @@ public class PartsResource {
     }
 
 
-    private Response export(String workspaceId, Query query, HttpServletRequest request, String exportType, Locale locale)
+    private Response export(String workspaceId, Query query, HttpServletRequest request, String exportType, boolean stream, Locale locale)
             throws BaselineNotFoundException, ProductInstanceMasterNotFoundException, EntityConstraintException, WorkspaceNotFoundException, UserNotFoundException, NotAllowedException, PartMasterNotFoundException, ConfigurationItemNotFoundException, UserNotActiveException, WorkspaceNotEnabledException {
-        QueryResult queryResult = getQueryResult(workspaceId, query, exportType);
+        QueryResult queryResult = getQueryResult(workspaceId, query, exportType, stream);
         String url = request.getRequestURL().toString();
         String baseURL = url.substring(0, url.length() - request.getRequestURI().length()) + request.getContextPath();
         return makeQueryResponse(queryResult, locale, baseURL);
     }
 
-    private QueryResult getQueryResult(String workspaceId, Query query, String pExportType) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, EntityConstraintException, BaselineNotFoundException, ProductInstanceMasterNotFoundException, NotAllowedException, ConfigurationItemNotFoundException, PartMasterNotFoundException, WorkspaceNotEnabledException {
+    private QueryResult getQueryResult(String workspaceId, Query query, String pExportType, boolean stream) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, EntityConstraintException, BaselineNotFoundException, ProductInstanceMasterNotFoundException, NotAllowedException, ConfigurationItemNotFoundException, PartMasterNotFoundException, WorkspaceNotEnabledException {
+        if (stream && !query.hasContext()) {
+            // Context rows are merged with the whole result, only plain queries can be streamed
+            List<PartRevision> firstPage = productService.searchPartRevisions(workspaceId, query, null, QUERY_PAGE_SIZE);
+            PagedQueryRows rows = new PagedQueryRows((after, pageSize) -> productService.searchPartRevisions(workspaceId, query, after, pageSize), QUERY_PAGE_SIZE, firstPage);
+            QueryResult queryResult = new QueryResult(query, rows);
+            queryResult.setExportType(getExportType(pExportType));
+            return queryResult;
+        }
         List<PartRevision> partRevisions = productService.searchPartRevisions(workspaceId, query);
+        return createQueryResult(workspaceId, query, partRevisions, pExportType);
+    }
+
+    private QueryResult getQueryResultPage(String workspaceId, Query query, String pExportType, PartRevisionKey after, int limit) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, EntityConstraintException, BaselineNotFoundException, ProductInstanceMasterNotFoundException, NotAllowedException, ConfigurationItemNotFoundException, PartMasterNotFoundException, WorkspaceNotEnabledException {
+        List<PartRevision> partRevisions = productService.searchPartRevisions(workspaceId, query, after, limit);
+        return createQueryResult(workspaceId, query, partRevisions, pExportType);
+    }
+
+    private QueryResult createQueryResult(String workspaceId, Query query, List<PartRevision> partRevisions, String pExportType) throws UserNotFoundException, UserNotActiveException, WorkspaceNotFoundException, EntityConstraintException, BaselineNotFoundException, ProductInstanceMasterNotFoundException, NotAllowedException, ConfigurationItemNotFoundException, PartMasterNotFoundException, WorkspaceNotEnabledException {
         QueryResult queryResult = new QueryResult(partRevisions, query);
         if (query.hasContext()) {
             List<QueryResultRow> rows = productService.filterProductBreakdownStructure(workspaceId, query);
             queryResult.mergeRows(rows);
         }
-        String exportType = pExportType != null ? pExportType : "JSON";
-        queryResult.setExportType(QueryResult.ExportType.valueOf(exportType));
+        queryResult.setExportType(getExportType(pExportType));
         return queryResult;
     }
 
+    private QueryResult.ExportType getExportType(String pExportType) {
+        String exportType = pExportType != null ? pExportType : "JSON";
+        return QueryResult.ExportType.valueOf(exportType);
+    }
+
+    /**
+     * Parse a part key as written in the query results (<code>number-version</code>), versions never hold a dash
+     */
+    private PartRevisionKey parsePartKey(String workspaceId, String partKey) {
+        if (partKey == null || partKey.isEmpty()) {
+            return null;
+        }
+        int separator = partKey.lastIndexOf('-');
+        if (separator <= 0 || separator == partKey.length() - 1) {
+            throw new BadRequestException();
+        }
+        return new PartRevisionKey(workspaceId, partKey.substring(0, separator), partKey.substring(separator + 1));
+    }
+
     private Response makeQueryResponse(QueryResult queryResult, Locale locale, String baseURL) {
         ExcelGenerator excelGenerator = new ExcelGenerator();
         String contentType = "application/vnd.ms-excel";
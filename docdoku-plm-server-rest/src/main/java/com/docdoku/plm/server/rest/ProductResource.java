@@ -36,12 +36,14 @@ import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.ICascadeActionManagerLocal;
 import com.docdoku.plm.server.core.services.IPSFilterManagerLocal;
 import com.docdoku.plm.server.core.services.IProductBaselineManagerLocal;
+import com.docdoku.plm.server.core.services.IProductInstanceManagerLocal;
 import com.docdoku.plm.server.core.services.IProductManagerLocal;
 import com.docdoku.plm.server.rest.collections.InstanceCollection;
 import com.docdoku.plm.server.rest.dto.*;
 import com.docdoku.plm.server.rest.dto.baseline.BaselinedPartDTO;
 import com.docdoku.plm.server.rest.dto.baseline.PathChoiceDTO;
 import com.docdoku.plm.server.rest.interceptors.Compress;
+import com.docdoku.plm.server.rest.mappers.PartDTOMapper;
 import com.docdoku.plm.server.rest.util.FileDownloadTools;
 import com.docdoku.plm.server.rest.util.ProductFileExport;
 
@@ -84,7 +86,7 @@ public class ProductResource {
     @Inject
     private ProductBaselinesResource productBaselinesResource;
     @Inject
-    private ProductInstancesResource productInstancesResource;
+    private IProductInstanceManagerLocal productInstanceService;
     private Mapper mapper;
 
     public ProductResource() {
@@ -202,26 +204,27 @@ public class ProductResource {
         List<Component> components = rootComponent.getComponents();
         List<PartRevisionDTO> partsRevisions = new ArrayList<>();
 
-
+        Map<Component, PartRevision> partRevisions = new LinkedHashMap<>();
         for (Component component : components) {
             PartIteration retainedIteration = component.getRetainedIteration();
             //If no iteration has been retained, then take the last revision (the first one).
-            PartRevision partRevision = retainedIteration == null ? component.getPartMaster().getLastRevision() : retainedIteration.getPartRevision();
-            if (!productService.canAccess(partRevision.getKey())) {
+            partRevisions.put(component, retainedIteration == null ? component.getPartMaster().getLastRevision() : retainedIteration.getPartRevision());
+        }
+        ProductStructureEnrichment enrichment = ProductStructureEnrichment.fetch(productService, productInstanceService, ciKey, null, partRevisions.values());
+
+        for (Component component : components) {
+            PartIteration retainedIteration = component.getRetainedIteration();
+            PartRevision partRevision = partRevisions.get(component);
+            if (!enrichment.canAccess(partRevision)) {
                 continue;
             }
-            PartRevisionDTO dto = mapper.map(partRevision, PartRevisionDTO.class);
-            dto.getPartIterations().clear();
+            PartRevisionDTO dto = PartDTOMapper.toLightPartRevisionDTO(partRevision);
             //specify the iteration only if an iteration has been retained.
             if (retainedIteration != null) {
-                dto.getPartIterations().add(mapper.map(retainedIteration, PartIterationDTO.class));
+                dto.getPartIterations().add(PartDTOMapper.toPartIterationDTO(retainedIteration));
             }
-            dto.setNumber(partRevision.getPartNumber());
-            dto.setPartKey(partRevision.getPartNumber() + "-" + partRevision.getVersion());
-            dto.setName(partRevision.getPartMaster().getName());
-            dto.setStandardPart(partRevision.getPartMaster().isStandardPart());
 
-            List<ModificationNotificationDTO> notificationDTOs = getModificationNotificationDTOs(partRevision);
+            List<ModificationNotificationDTO> notificationDTOs = Tools.mapModificationNotificationsToModificationNotificationDTO(enrichment.getModificationNotifications(partRevision));
             dto.setNotifications(notificationDTOs);
             partsRevisions.add(dto);
         }
@@ -271,7 +274,8 @@ public class ProductResource {
             serialNumber = configSpecType.substring(3);
         }
 
-        return createComponentDTO(component, workspaceId, ciId, serialNumber);
+        ProductStructureEnrichment enrichment = ProductStructureEnrichment.fetch(productService, productInstanceService, ciKey, serialNumber, component);
+        return createComponentDTO(component, enrichment, serialNumber);
     }
 
     @GET
@@ -949,8 +953,7 @@ public class ProductResource {
         return request.evaluatePreconditions(cal.getTime());
     }
 
-    private ComponentDTO createComponentDTO(Component component, String workspaceId, String configurationItemId, String serialNumber)
-            throws EntityNotFoundException, UserNotActiveException, AccessRightException, WorkspaceNotEnabledException {
+    private ComponentDTO createComponentDTO(Component component, ProductStructureEnrichment enrichment, String serialNumber) {
 
         PartMaster pm = component.getPartMaster();
         PartIteration retainedIteration = component.getRetainedIteration();
@@ -962,7 +965,7 @@ public class ProductResource {
         PartRevision partR = retainedIteration.getPartRevision();
 
         // Filter ACL on partR
-        if (!component.isVirtual() && !productService.canAccess(partR.getKey())) {
+        if (!component.isVirtual() && !enrichment.canAccess(partR)) {
             return null;
         }
 
@@ -1009,15 +1012,9 @@ public class ProductResource {
         }
 
         if (!component.isVirtual()) {
-            try {
-                productService.checkPartRevisionReadAccess(partR.getKey());
-                dto.setAccessDeny(false);
-                dto.setLastIterationNumber(productService.getNumberOfIteration(partR.getKey()));
-            } catch (Exception e) {
-                LOGGER.log(Level.FINEST, null, e);
-                dto.setLastIterationNumber(-1);
-                dto.setAccessDeny(true);
-            }
+            int lastIterationNumber = enrichment.getLastIterationNumber(partR);
+            dto.setLastIterationNumber(lastIterationNumber);
+            dto.setAccessDeny(lastIterationNumber == -1);
         } else {
             dto.setAccessDeny(false);
         }
@@ -1027,12 +1024,11 @@ public class ProductResource {
         }
 
         if (!component.isVirtual() && serialNumber != null) {
-            PathDataMasterDTO pathData = productInstancesResource.getPathData(workspaceId, configurationItemId, serialNumber, com.docdoku.plm.server.core.util.Tools.getPathAsString(path));
-            dto.setHasPathData(!pathData.getPathDataIterations().isEmpty());
+            dto.setHasPathData(enrichment.hasPathData(dto.getPath()));
         }
 
         for (Component subComponent : component.getComponents()) {
-            ComponentDTO componentDTO = createComponentDTO(subComponent, workspaceId, configurationItemId, serialNumber);
+            ComponentDTO componentDTO = createComponentDTO(subComponent, enrichment, serialNumber);
             if (componentDTO != null) {
                 components.add(componentDTO);
             }
@@ -1042,7 +1038,7 @@ public class ProductResource {
         dto.setAttributes(lstAttributes);
 
         if (!component.isVirtual()) {
-            dto.setNotifications(getModificationNotificationDTOs(partR));
+            dto.setNotifications(Tools.mapModificationNotificationsToModificationNotificationDTO(enrichment.getModificationNotifications(partR)));
         }
 
         dto.setComponents(components);
@@ -1050,23 +1046,6 @@ public class ProductResource {
         return dto;
     }
 
-    /**
-     * Return a list of ModificationNotificationDTO matching with a given PartRevision
-     *
-     * @param partRevision The specified PartRevision
-     * @return A list of ModificationNotificationDTO
-     * @throws EntityNotFoundException If an entity doesn't exist
-     * @throws AccessRightException    If the user can not get the modification notifications
-     * @throws UserNotActiveException  If the user is disabled
-     */
-    private List<ModificationNotificationDTO> getModificationNotificationDTOs(PartRevision partRevision)
-            throws EntityNotFoundException, AccessRightException, UserNotActiveException, WorkspaceNotEnabledException {
-
-        PartIterationKey iterationKey = new PartIterationKey(partRevision.getKey(), partRevision.getLastIterationNumber());
-        List<ModificationNotification> notifications = productService.getModificationNotifications(iterationKey);
-        return Tools.mapModificationNotificationsToModificationNotificationDTO(notifications);
-    }
-
     private List<PathToPathLinkDTO> getPathToPathLinksForGivenConfigurationItem(ConfigurationItem configurationItem) throws UserNotFoundException, WorkspaceNotFoundException, UserNotActiveException, ConfigurationItemNotFoundException, PartUsageLinkNotFoundException, WorkspaceNotEnabledException {
         List<PathToPathLink> pathToPathLinkTypes = configurationItem.getPathToPathLinks();
         List<PathToPathLinkDTO> pathToPathLinkDTOs = new ArrayList<>();
@@ -0,0 +1,126 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest;
+
+import com.docdoku.plm.server.core.change.ModificationNotification;
+import com.docdoku.plm.server.core.configuration.PathDataMaster;
+import com.docdoku.plm.server.core.exceptions.*;
+import com.docdoku.plm.server.core.product.*;
+import com.docdoku.plm.server.core.services.IProductInstanceManagerLocal;
+import com.docdoku.plm.server.core.services.IProductManagerLocal;
+
+import java.util.*;
+
+/**
+ * Data needed to build the DTOs of a filtered product structure, fetched for all its nodes at once
+ * rather than with several service calls per node.
+ * <p>
+ * Holds the read access and last iteration number of each part revision, their modification notifications
+ * and, for product instances, the paths having {@link PathDataMaster} iterations.
+ */
+class ProductStructureEnrichment {
+
+    private final Map<PartRevisionKey, Integer> lastIterationNumbers;
+    private final Map<PartIterationKey, List<ModificationNotification>> notifications;
+    private final Set<String> pathsWithPathData;
+
+    private ProductStructureEnrichment(Map<PartRevisionKey, Integer> lastIterationNumbers,
+                                       Map<PartIterationKey, List<ModificationNotification>> notifications,
+                                       Set<String> pathsWithPathData) {
+        this.lastIterationNumbers = lastIterationNumbers;
+        this.notifications = notifications;
+        this.pathsWithPathData = pathsWithPathData;
+    }
+
+    /**
+     * Fetch the data of the given part revisions
+     *
+     * @param serialNumber the product instance serial number, null when not filtering a product instance
+     */
+    static ProductStructureEnrichment fetch(IProductManagerLocal productService, IProductInstanceManagerLocal productInstanceService,
+                                            ConfigurationItemKey ciKey, String serialNumber, Collection<PartRevision> partRevisions)
+            throws EntityNotFoundException, UserNotActiveException, AccessRightException, WorkspaceNotEnabledException {
+
+        String workspaceId = ciKey.getWorkspace();
+        Set<PartRevisionKey> partRevisionKeys = new HashSet<>();
+        Set<PartIterationKey> partIterationKeys = new HashSet<>();
+        for (PartRevision partRevision : partRevisions) {
+            partRevisionKeys.add(partRevision.getKey());
+            partIterationKeys.add(getLastIterationKey(partRevision));
+        }
+
+        Map<PartRevisionKey, Integer> lastIterationNumbers = partRevisionKeys.isEmpty() ? Collections.emptyMap()
+                : productService.getReadablePartRevisionsLastIterationNumbers(workspaceId, partRevisionKeys);
+        Map<PartIterationKey, List<ModificationNotification>> notifications = partIterationKeys.isEmpty() ? Collections.emptyMap()
+                : productService.getModificationNotifications(workspaceId, partIterationKeys);
+        Set<String> pathsWithPathData = serialNumber == null ? Collections.emptySet()
+                : productInstanceService.getPathsWithPathData(workspaceId, ciKey.getId(), serialNumber);
+
+        return new ProductStructureEnrichment(lastIterationNumbers, notifications, pathsWithPathData);
+    }
+
+    /**
+     * Fetch the data of the part revisions of all the non virtual components of a tree
+     */
+    static ProductStructureEnrichment fetch(IProductManagerLocal productService, IProductInstanceManagerLocal productInstanceService,
+                                            ConfigurationItemKey ciKey, String serialNumber, Component root)
+            throws EntityNotFoundException, UserNotActiveException, AccessRightException, WorkspaceNotEnabledException {
+        List<PartRevision> partRevisions = new ArrayList<>();
+        collectPartRevisions(root, partRevisions);
+        return fetch(productService, productInstanceService, ciKey, serialNumber, partRevisions);
+    }
+
+    private static void collectPartRevisions(Component component, List<PartRevision> partRevisions) {
+        PartIteration retainedIteration = component.getRetainedIteration();
+        if (retainedIteration == null) {
+            return;
+        }
+        if (!component.isVirtual()) {
+            partRevisions.add(retainedIteration.getPartRevision());
+        }
+        for (Component subComponent : component.getComponents()) {
+            collectPartRevisions(subComponent, partRevisions);
+        }
+    }
+
+    private static PartIterationKey getLastIterationKey(PartRevision partRevision) {
+        return new PartIterationKey(partRevision.getKey(), partRevision.getLastIterationNumber());
+    }
+
+    boolean canAccess(PartRevision partRevision) {
+        return lastIterationNumbers.containsKey(partRevision.getKey());
+    }
+
+    int getLastIterationNumber(PartRevision partRevision) {
+        return lastIterationNumbers.getOrDefault(partRevision.getKey(), -1);
+    }
+
+    /**
+     * @return the notifications of the last iteration of the part revision
+     */
+    List<ModificationNotification> getModificationNotifications(PartRevision partRevision) {
+        return notifications.getOrDefault(getLastIterationKey(partRevision), Collections.emptyList());
+    }
+
+    boolean hasPathData(String path) {
+        return pathsWithPathData.contains(path);
+    }
+}
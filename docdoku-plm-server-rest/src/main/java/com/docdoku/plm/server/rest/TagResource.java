@@ -29,6 +29,7 @@ import com.docdoku.plm.server.core.meta.TagKey;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.IDocumentManagerLocal;
 import com.docdoku.plm.server.rest.dto.*;
+import com.docdoku.plm.server.rest.mappers.DocumentDTOMapper;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.security.DeclareRoles;
@@ -174,9 +175,8 @@ public class TagResource {
         DocumentRevisionDTO[] docRsDTOs = new DocumentRevisionDTO[docRs.length];
 
         for (int i = 0; i < docRs.length; i++) {
-            docRsDTOs[i] = mapper.map(docRs[i], DocumentRevisionDTO.class);
+            docRsDTOs[i] = DocumentDTOMapper.toLightDocumentRevisionDTO(docRs[i]);
             docRsDTOs[i].setPath(docRs[i].getLocation().getCompletePath());
-            docRsDTOs[i] = Tools.createLightDocumentRevisionDTO(docRsDTOs[i]);
             docRsDTOs[i].setLifeCycleState(docRs[i].getLifeCycleState());
             docRsDTOs[i].setIterationSubscription(documentService.isUserIterationChangeEventSubscribedForGivenDocument(workspaceId, docRs[i]));
             docRsDTOs[i].setStateSubscription(documentService.isUserStateChangeEventSubscribedForGivenDocument(workspaceId, docRs[i]));
@@ -36,6 +36,7 @@ import com.docdoku.plm.server.core.workflow.ActivityKey;
 import com.docdoku.plm.server.core.workflow.TaskKey;
 import com.docdoku.plm.server.core.workflow.TaskWrapper;
 import com.docdoku.plm.server.rest.dto.*;
+import com.docdoku.plm.server.rest.mappers.DocumentDTOMapper;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.security.DeclareRoles;
@@ -103,10 +104,12 @@ public class TaskResource {
     @Produces(MediaType.APPLICATION_JSON)
     public TaskDTO[] getAssignedTasksForGivenUser(
             @ApiParam(required = true, value = "Workspace id") @PathParam("workspaceId") String workspaceId,
-            @ApiParam(required = true, value = "Assigned user login") @PathParam("assignedUserLogin") String assignedUserLogin)
+            @ApiParam(required = true, value = "Assigned user login") @PathParam("assignedUserLogin") String assignedUserLogin,
+            @ApiParam(required = false, value = "Start offset", defaultValue = "0") @QueryParam("start") int start,
+            @ApiParam(required = false, value = "Max results, all of them if not set", defaultValue = "0") @QueryParam("max") int max)
             throws EntityNotFoundException, UserNotActiveException, WorkspaceNotEnabledException {
 
-        TaskWrapper[] runningTasksForGivenUser = taskManager.getAssignedTasksForGivenUser(workspaceId, assignedUserLogin);
+        TaskWrapper[] runningTasksForGivenUser = taskManager.getAssignedTasksForGivenUser(workspaceId, assignedUserLogin, start, max);
         List<TaskDTO> taskDTOs = new ArrayList<>();
         for (TaskWrapper taskWrapper : runningTasksForGivenUser) {
             TaskDTO taskDTO = mapper.map(taskWrapper.getTask(), TaskDTO.class);
@@ -119,6 +122,25 @@ public class TaskResource {
         return taskDTOs.toArray(new TaskDTO[taskDTOs.size()]);
     }
 
+    @GET
+    @ApiOperation(value = "Count tasks in progress for given user",
+            response = CountDTO.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful retrieval of tasks count"),
+            @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 403, message = "Forbidden"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @Path("{assignedUserLogin}/count")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CountDTO getInProgressTasksCountForGivenUser(
+            @ApiParam(required = true, value = "Workspace id") @PathParam("workspaceId") String workspaceId,
+            @ApiParam(required = true, value = "Assigned user login") @PathParam("assignedUserLogin") String assignedUserLogin)
+            throws EntityNotFoundException, UserNotActiveException, WorkspaceNotEnabledException {
+
+        return new CountDTO(taskManager.getInProgressTasksCountForGivenUser(workspaceId, assignedUserLogin));
+    }
+
     @GET
     @ApiOperation(value = "Get task by id",
             response = TaskDTO.class)
@@ -183,9 +205,8 @@ public class TaskResource {
 
         for (DocumentRevision docR : docRs) {
 
-            DocumentRevisionDTO docDTO = mapper.map(docR, DocumentRevisionDTO.class);
+            DocumentRevisionDTO docDTO = DocumentDTOMapper.toLightDocumentRevisionDTO(docR);
             docDTO.setPath(docR.getLocation().getCompletePath());
-            docDTO = Tools.createLightDocumentRevisionDTO(docDTO);
             docDTO.setIterationSubscription(documentService.isUserIterationChangeEventSubscribedForGivenDocument(workspaceId, docR));
             docDTO.setStateSubscription(documentService.isUserStateChangeEventSubscribedForGivenDocument(workspaceId, docR));
             docRsDTOs.add(docDTO);
@@ -24,15 +24,14 @@ import org.dozer.DozerBeanMapperSingletonWrapper;
 import org.dozer.Mapper;
 import com.docdoku.plm.server.core.change.ModificationNotification;
 import com.docdoku.plm.server.core.common.User;
-import com.docdoku.plm.server.core.common.UserGroup;
 import com.docdoku.plm.server.core.configuration.*;
 import com.docdoku.plm.server.core.document.DocumentIteration;
 import com.docdoku.plm.server.core.product.*;
 import com.docdoku.plm.server.core.security.ACL;
-import com.docdoku.plm.server.core.security.ACLUserEntry;
-import com.docdoku.plm.server.core.security.ACLUserGroupEntry;
 import com.docdoku.plm.server.rest.dto.*;
 import com.docdoku.plm.server.rest.dto.baseline.*;
+import com.docdoku.plm.server.rest.mappers.CommonDTOMapper;
+import com.docdoku.plm.server.rest.mappers.PartDTOMapper;
 
 import javax.ws.rs.core.Response;
 import java.io.UnsupportedEncodingException;
@@ -90,21 +89,7 @@ public class Tools {
 
 
     public static ACLDTO mapACLtoACLDTO(ACL acl) {
-
-        ACLDTO aclDTO = new ACLDTO();
-
-        for (Map.Entry<User, ACLUserEntry> entry : acl.getUserEntries().entrySet()) {
-            ACLUserEntry aclEntry = entry.getValue();
-            aclDTO.addUserEntry(aclEntry.getPrincipalLogin(), aclEntry.getPermission());
-        }
-
-        for (Map.Entry<UserGroup, ACLUserGroupEntry> entry : acl.getGroupEntries().entrySet()) {
-            ACLUserGroupEntry aclEntry = entry.getValue();
-            aclDTO.addGroupEntry(aclEntry.getPrincipalId(), aclEntry.getPermission());
-        }
-
-        return aclDTO;
-
+        return CommonDTOMapper.toACLDTO(acl);
     }
 
     public static List<ModificationNotificationDTO> mapModificationNotificationsToModificationNotificationDTO(Collection<ModificationNotification> pNotifications) {
@@ -144,92 +129,11 @@ public class Tools {
     }
 
     public static PartRevisionDTO mapPartRevisionToPartDTO(PartRevision partRevision) {
-
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-
-        PartRevisionDTO partRevisionDTO = mapper.map(partRevision, PartRevisionDTO.class);
-
-        partRevisionDTO.setNumber(partRevision.getPartNumber());
-        partRevisionDTO.setPartKey(partRevision.getPartNumber() + "-" + partRevision.getVersion());
-        partRevisionDTO.setName(partRevision.getPartMaster().getName());
-        partRevisionDTO.setStandardPart(partRevision.getPartMaster().isStandardPart());
-        partRevisionDTO.setType(partRevision.getPartMaster().getType());
-
-        if (partRevision.isObsolete()) {
-            partRevisionDTO.setObsoleteDate(partRevision.getObsoleteDate());
-            UserDTO obsoleteUserDTO = mapper.map(partRevision.getObsoleteAuthor(), UserDTO.class);
-            partRevisionDTO.setObsoleteAuthor(obsoleteUserDTO);
-        }
-
-        if (partRevision.getReleaseAuthor() != null) {
-            partRevisionDTO.setReleaseDate(partRevision.getReleaseDate());
-            UserDTO releaseUserDTO = mapper.map(partRevision.getReleaseAuthor(), UserDTO.class);
-            partRevisionDTO.setReleaseAuthor(releaseUserDTO);
-        }
-
-        List<PartIterationDTO> partIterationDTOs = new ArrayList<>();
-        for (PartIteration partIteration : partRevision.getPartIterations()) {
-            partIterationDTOs.add(mapPartIterationToPartIterationDTO(partIteration));
-        }
-        partRevisionDTO.setPartIterations(partIterationDTOs);
-
-        if (partRevision.isCheckedOut()) {
-            partRevisionDTO.setCheckOutDate(partRevision.getCheckOutDate());
-            UserDTO checkoutUserDTO = mapper.map(partRevision.getCheckOutUser(), UserDTO.class);
-            partRevisionDTO.setCheckOutUser(checkoutUserDTO);
-        }
-
-        if (partRevision.hasWorkflow()) {
-            partRevisionDTO.setLifeCycleState(partRevision.getWorkflow().getLifeCycleState());
-            partRevisionDTO.setWorkflow(mapper.map(partRevision.getWorkflow(), WorkflowDTO.class));
-        }
-
-        ACL acl = partRevision.getACL();
-        if (acl != null) {
-            partRevisionDTO.setAcl(Tools.mapACLtoACLDTO(acl));
-        } else {
-            partRevisionDTO.setAcl(null);
-        }
-
-
-        return partRevisionDTO;
+        return PartDTOMapper.toPartRevisionDTO(partRevision);
     }
 
     public static PartIterationDTO mapPartIterationToPartIterationDTO(PartIteration partIteration) {
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-
-        List<PartUsageLinkDTO> usageLinksDTO = new ArrayList<>();
-        PartIterationDTO partIterationDTO = mapper.map(partIteration, PartIterationDTO.class);
-
-        for (PartUsageLink partUsageLink : partIteration.getComponents()) {
-            PartUsageLinkDTO partUsageLinkDTO = mapper.map(partUsageLink, PartUsageLinkDTO.class);
-            List<CADInstanceDTO> cadInstancesDTO = new ArrayList<>();
-            for (CADInstance cadInstance : partUsageLink.getCadInstances()) {
-                CADInstanceDTO cadInstanceDTO = mapper.map(cadInstance, CADInstanceDTO.class);
-                if(RotationType.MATRIX.equals(cadInstance.getRotationType())) {
-                    cadInstanceDTO.setMatrix(cadInstance.getRotationMatrix().getValues());
-                }
-                cadInstancesDTO.add(cadInstanceDTO);
-            }
-            List<PartSubstituteLinkDTO> substituteLinkDTOs = new ArrayList<>();
-            for (PartSubstituteLink partSubstituteLink : partUsageLink.getSubstitutes()) {
-                PartSubstituteLinkDTO substituteLinkDTO = mapper.map(partSubstituteLink, PartSubstituteLinkDTO.class);
-                substituteLinkDTOs.add(substituteLinkDTO);
-
-            }
-            partUsageLinkDTO.setCadInstances(cadInstancesDTO);
-            partUsageLinkDTO.setSubstitutes(substituteLinkDTOs);
-            usageLinksDTO.add(partUsageLinkDTO);
-        }
-        partIterationDTO.setComponents(usageLinksDTO);
-        partIterationDTO.setNumber(partIteration.getPartRevision().getPartNumber());
-        partIterationDTO.setVersion(partIteration.getPartRevision().getVersion());
-
-        if (!partIteration.getGeometries().isEmpty()) {
-            partIterationDTO.setGeometryFileURI("/api/files/" + partIteration.getSortedGeometries().get(0).getFullName());
-        }
-
-        return partIterationDTO;
+        return PartDTOMapper.toPartIterationDTO(partIteration);
     }
 
     public static List<BaselinedDocumentDTO> mapBaselinedDocumentsToBaselinedDocumentDTOs(DocumentCollection documentCollection) {
@@ -23,12 +23,12 @@ import io.swagger.annotations.*;
 import org.dozer.DozerBeanMapperSingletonWrapper;
 import org.dozer.Mapper;
 import com.docdoku.plm.server.core.admin.WorkspaceBackOptions;
+import com.docdoku.plm.server.core.admin.WorkspaceDeletionJob;
 import com.docdoku.plm.server.core.admin.WorkspaceFrontOptions;
+import com.docdoku.plm.server.core.admin.WorkspaceStatistics;
 import com.docdoku.plm.server.core.common.*;
-import com.docdoku.plm.server.core.document.DocumentRevision;
 import com.docdoku.plm.server.core.exceptions.*;
 import com.docdoku.plm.server.core.exceptions.NotAllowedException;
-import com.docdoku.plm.server.core.product.PartRevision;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.security.WorkspaceUserGroupMembership;
 import com.docdoku.plm.server.core.security.WorkspaceUserMembership;
@@ -42,6 +42,7 @@ import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import javax.ws.rs.*;
 import javax.ws.rs.core.GenericEntity;
@@ -155,6 +156,9 @@ public class WorkspaceResource {
     @Inject
     private IIndexerManagerLocal indexerManager;
 
+    @Inject
+    private IWorkspaceStatisticsManagerLocal workspaceStatisticsManager;
+
     public WorkspaceResource() {
     }
 
@@ -296,6 +300,25 @@ public class WorkspaceResource {
         return Response.accepted().build();
     }
 
+    @GET
+    @ApiOperation(value = "Get the progress of a workspace deletion",
+            response = WorkspaceDeletionJobDTO.class,
+            authorizations = {@Authorization(value = "authorization")})
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful retrieval of WorkspaceDeletionJobDTO"),
+            @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 403, message = "Forbidden"),
+            @ApiResponse(code = 404, message = "No deletion for this workspace"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @Path("/{workspaceId}/deletion")
+    @Produces(MediaType.APPLICATION_JSON)
+    public WorkspaceDeletionJobDTO getWorkspaceDeletion(@ApiParam(required = true, value = "Workspace id") @PathParam("workspaceId") String workspaceId)
+            throws EntityNotFoundException, AccessRightException {
+        WorkspaceDeletionJob job = workspaceManager.getWorkspaceDeletionJob(workspaceId);
+        return mapper.map(job, WorkspaceDeletionJobDTO.class);
+    }
+
     @GET
     @ApiOperation(value = "Get user groups in given workspace",
             response = UserGroupDTO.class,
@@ -630,13 +653,14 @@ public class WorkspaceResource {
             @ApiParam(value = "Workspace id", required = true) @PathParam("workspaceId") String workspaceId)
             throws EntityNotFoundException, AccessRightException, UserNotActiveException, WorkspaceNotEnabledException {
 
+        WorkspaceStatistics statistics = workspaceStatisticsManager.getWorkspaceStatistics(workspaceId);
         StatsOverviewDTO statsOverviewDTO = new StatsOverviewDTO();
 
-        statsOverviewDTO.setDocuments(documentService.getDocumentsInWorkspaceCount(workspaceId));
-        statsOverviewDTO.setParts(productService.getPartsInWorkspaceCount(workspaceId));
+        statsOverviewDTO.setDocuments(statistics.getDocuments());
+        statsOverviewDTO.setParts(statistics.getParts());
 
-        statsOverviewDTO.setUsers(userManager.getUsers(workspaceId).length);
-        statsOverviewDTO.setProducts(productService.getConfigurationItems(workspaceId).size());
+        statsOverviewDTO.setUsers(statistics.getUsers());
+        statsOverviewDTO.setProducts(statistics.getProducts());
 
         return statsOverviewDTO;
     }
@@ -681,26 +705,8 @@ public class WorkspaceResource {
             @ApiParam(value = "Workspace id", required = true) @PathParam("workspaceId") String workspaceId)
             throws EntityNotFoundException, AccessRightException {
 
-        DocumentRevision[] checkedOutDocumentRevisions = documentService.getAllCheckedOutDocumentRevisions(workspaceId);
-        JsonObjectBuilder statsByUserBuilder = Json.createObjectBuilder();
-
-        Map<String, JsonArrayBuilder> userArrays = new HashMap<>();
-        for (DocumentRevision documentRevision : checkedOutDocumentRevisions) {
-
-            String userLogin = documentRevision.getCheckOutUser().getLogin();
-            JsonArrayBuilder userArray = userArrays.get(userLogin);
-            if (userArray == null) {
-                userArray = Json.createArrayBuilder();
-                userArrays.put(userLogin, userArray);
-            }
-            userArray.add(Json.createObjectBuilder().add("date", documentRevision.getCheckOutDate().getTime()).build());
-        }
-
-        for (Map.Entry<String, JsonArrayBuilder> entry : userArrays.entrySet()) {
-            statsByUserBuilder.add(entry.getKey(), entry.getValue().build());
-        }
-
-        return Response.ok().entity(statsByUserBuilder.build()).build();
+        Map<String, List<Date>> checkOutDatesByUser = workspaceStatisticsManager.getCheckedOutDocumentsStats(workspaceId);
+        return Response.ok().entity(checkedOutStatsToJson(checkOutDatesByUser)).build();
 
     }
 
@@ -719,26 +725,20 @@ public class WorkspaceResource {
             @ApiParam(value = "Workspace id", required = true) @PathParam("workspaceId") String workspaceId)
             throws EntityNotFoundException, AccessRightException {
 
-        PartRevision[] checkedOutPartRevisions = productService.getAllCheckedOutPartRevisions(workspaceId);
-        JsonObjectBuilder statsByUserBuilder = Json.createObjectBuilder();
-
-        Map<String, JsonArrayBuilder> userArrays = new HashMap<>();
-        for (PartRevision partRevision : checkedOutPartRevisions) {
+        Map<String, List<Date>> checkOutDatesByUser = workspaceStatisticsManager.getCheckedOutPartsStats(workspaceId);
+        return Response.ok().entity(checkedOutStatsToJson(checkOutDatesByUser)).build();
+    }
 
-            String userLogin = partRevision.getCheckOutUser().getLogin();
-            JsonArrayBuilder userArray = userArrays.get(userLogin);
-            if (userArray == null) {
-                userArray = Json.createArrayBuilder();
-                userArrays.put(userLogin, userArray);
+    private JsonObject checkedOutStatsToJson(Map<String, List<Date>> checkOutDatesByUser) {
+        JsonObjectBuilder statsByUserBuilder = Json.createObjectBuilder();
+        for (Map.Entry<String, List<Date>> entry : checkOutDatesByUser.entrySet()) {
+            JsonArrayBuilder userArray = Json.createArrayBuilder();
+            for (Date checkOutDate : entry.getValue()) {
+                userArray.add(Json.createObjectBuilder().add("date", checkOutDate.getTime()).build());
             }
-            userArray.add(Json.createObjectBuilder().add("date", partRevision.getCheckOutDate().getTime()).build());
-        }
-
-        for (Map.Entry<String, JsonArrayBuilder> entry : userArrays.entrySet()) {
-            statsByUserBuilder.add(entry.getKey(), entry.getValue().build());
+            statsByUserBuilder.add(entry.getKey(), userArray.build());
         }
-
-        return Response.ok().entity(statsByUserBuilder.build()).build();
+        return statsByUserBuilder.build();
     }
 
     @GET
@@ -757,26 +757,17 @@ public class WorkspaceResource {
             @ApiParam(value = "Workspace id", required = true) @PathParam("workspaceId") String workspaceId)
             throws EntityNotFoundException, UserNotActiveException, AccessRightException, WorkspaceNotEnabledException {
 
-        WorkspaceUserMembership[] workspaceUserMemberships = userManager.getWorkspaceUserMemberships(workspaceId);
-        WorkspaceUserGroupMembership[] workspaceUserGroupMemberships = userManager.getWorkspaceUserGroupMemberships(workspaceId);
-
-        int usersCount = userManager.getUsers(workspaceId).length;
-        int activeUsersCount = workspaceUserMemberships.length;
-        int inactiveUsersCount = usersCount - activeUsersCount;
-
-        int groupsCount = userManager.getUserGroups(workspaceId).length;
-        int activeGroupsCount = workspaceUserGroupMemberships.length;
-        int inactiveGroupsCount = groupsCount - activeGroupsCount;
+        WorkspaceStatistics statistics = workspaceStatisticsManager.getWorkspaceStatistics(workspaceId);
 
         UserStatsDTO userStatsDTO = new UserStatsDTO();
 
-        userStatsDTO.setUsers(usersCount);
-        userStatsDTO.setActiveusers(activeUsersCount);
-        userStatsDTO.setInactiveusers(inactiveUsersCount);
+        userStatsDTO.setUsers(statistics.getUsers());
+        userStatsDTO.setActiveusers(statistics.getActiveUsers());
+        userStatsDTO.setInactiveusers(statistics.getInactiveUsers());
 
-        userStatsDTO.setGroups(groupsCount);
-        userStatsDTO.setActivegroups(activeGroupsCount);
-        userStatsDTO.setInactivegroups(inactiveGroupsCount);
+        userStatsDTO.setGroups(statistics.getUserGroups());
+        userStatsDTO.setActivegroups(statistics.getActiveUserGroups());
+        userStatsDTO.setInactivegroups(statistics.getInactiveUserGroups());
 
         return userStatsDTO;
     }
@@ -0,0 +1,94 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.collections;
+
+import com.docdoku.plm.server.core.exceptions.ApplicationException;
+import com.docdoku.plm.server.core.product.PartRevision;
+import com.docdoku.plm.server.core.product.PartRevisionKey;
+import com.docdoku.plm.server.core.query.QueryResultRow;
+
+import javax.ws.rs.WebApplicationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Rows of a query result read page by page, with the key of the last revision of a page as the start of the
+ * next one. Only one page of revisions is held at a time, the result can be iterated once.
+ *
+ * The first page is given to the constructor so that access errors are raised by the resource method,
+ * later pages are read while the response is written.
+ */
+public class PagedQueryRows implements Iterable<QueryResultRow> {
+
+    @FunctionalInterface
+    public interface PageReader {
+        List<PartRevision> read(PartRevisionKey after, int pageSize) throws ApplicationException;
+    }
+
+    private final PageReader pageReader;
+    private final int pageSize;
+    private final List<PartRevision> firstPage;
+
+    public PagedQueryRows(PageReader pageReader, int pageSize, List<PartRevision> firstPage) {
+        this.pageReader = pageReader;
+        this.pageSize = pageSize;
+        this.firstPage = firstPage;
+    }
+
+    @Override
+    public Iterator<QueryResultRow> iterator() {
+        return new Iterator<QueryResultRow>() {
+
+            private List<PartRevision> page = firstPage;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                if (index < page.size()) {
+                    return true;
+                }
+                if (page.size() < pageSize) {
+                    return false;
+                }
+                page = readPage(page.get(page.size() - 1).getKey());
+                index = 0;
+                return !page.isEmpty();
+            }
+
+            @Override
+            public QueryResultRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new QueryResultRow(page.get(index++));
+            }
+        };
+    }
+
+    private List<PartRevision> readPage(PartRevisionKey after) {
+        try {
+            return pageReader.read(after, pageSize);
+        } catch (ApplicationException e) {
+            throw new WebApplicationException(e);
+        }
+    }
+}
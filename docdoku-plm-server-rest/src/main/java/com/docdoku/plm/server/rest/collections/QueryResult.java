@@ -36,6 +36,11 @@ public class QueryResult {
     private Query query;
     private List<QueryResultRow> rows = new ArrayList<>();
 
+    /**
+     * Rows read page by page while the result is written, instead of {@link #rows}
+     */
+    private Iterable<QueryResultRow> streamedRows;
+
     private ExportType exportType = ExportType.JSON;
 
     public QueryResult() {
@@ -53,6 +58,11 @@ public class QueryResult {
         }
     }
 
+    public QueryResult(Query query, Iterable<QueryResultRow> streamedRows) {
+        this.query = query;
+        this.streamedRows = streamedRows;
+    }
+
     public ExportType getExportType() {
         return exportType;
     }
@@ -77,6 +87,17 @@ public class QueryResult {
         this.rows = rows;
     }
 
+    public boolean isStreamed() {
+        return streamedRows != null;
+    }
+
+    /**
+     * The rows to write, either the streamed ones or the loaded ones
+     */
+    public Iterable<QueryResultRow> iterateRows() {
+        return streamedRows != null ? streamedRows : rows;
+    }
+
     public void mergeRows(List<QueryResultRow> rows) {
         List<QueryResultRow> mergedRows = new ArrayList<>();
         if (rows != null && !rows.isEmpty()) {
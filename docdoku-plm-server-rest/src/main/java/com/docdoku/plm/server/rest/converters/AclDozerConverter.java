@@ -21,14 +21,9 @@
 package com.docdoku.plm.server.rest.converters;
 
 import org.dozer.DozerConverter;
-import com.docdoku.plm.server.core.common.User;
-import com.docdoku.plm.server.core.common.UserGroup;
 import com.docdoku.plm.server.core.security.ACL;
-import com.docdoku.plm.server.core.security.ACLUserEntry;
-import com.docdoku.plm.server.core.security.ACLUserGroupEntry;
 import com.docdoku.plm.server.rest.dto.ACLDTO;
-
-import java.util.Map;
+import com.docdoku.plm.server.rest.mappers.CommonDTOMapper;
 
 
 public class AclDozerConverter extends DozerConverter<ACL, ACLDTO> {
@@ -40,24 +35,7 @@ public class AclDozerConverter extends DozerConverter<ACL, ACLDTO> {
 
     @Override
     public ACLDTO convertTo(ACL acl, ACLDTO pAclDTO) {
-
-        ACLDTO aclDTO = new ACLDTO();
-
-        if (acl != null) {
-
-            for (Map.Entry<User, ACLUserEntry> entry : acl.getUserEntries().entrySet()) {
-                ACLUserEntry aclEntry = entry.getValue();
-                aclDTO.addUserEntry(aclEntry.getPrincipalLogin(), aclEntry.getPermission());
-            }
-
-            for (Map.Entry<UserGroup, ACLUserGroupEntry> entry : acl.getGroupEntries().entrySet()) {
-                ACLUserGroupEntry aclEntry = entry.getValue();
-                aclDTO.addGroupEntry(aclEntry.getPrincipalId(), aclEntry.getPermission());
-            }
-            return aclDTO;
-        }
-
-        return null;
+        return CommonDTOMapper.toACLDTO(acl);
     }
 
     @Override
@@ -26,13 +26,11 @@ import org.dozer.Mapper;
 import com.docdoku.plm.server.core.meta.*;
 import com.docdoku.plm.server.core.product.InstancePartNumberAttribute;
 import com.docdoku.plm.server.core.product.PartMasterKey;
-import com.docdoku.plm.server.core.util.DateUtils;
 import com.docdoku.plm.server.rest.dto.InstanceAttributeDTO;
-import com.docdoku.plm.server.rest.dto.InstanceAttributeType;
 import com.docdoku.plm.server.rest.dto.NameValuePairDTO;
+import com.docdoku.plm.server.rest.mappers.CommonDTOMapper;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -50,57 +48,7 @@ public class InstanceAttributeDozerConverter extends DozerConverter<InstanceAttr
 
     @Override
     public InstanceAttributeDTO convertTo(InstanceAttribute source, InstanceAttributeDTO dto) {
-        if (dto == null)
-            dto = new InstanceAttributeDTO();
-
-        InstanceAttributeType type;
-        String value = "";
-
-        if (source instanceof InstanceBooleanAttribute) {
-            type = InstanceAttributeType.BOOLEAN;
-            value = source.getValue() + "";
-        } else if (source instanceof InstanceTextAttribute) {
-            type = InstanceAttributeType.TEXT;
-            value = source.getValue() + "";
-        } else if (source instanceof InstanceNumberAttribute) {
-            type = InstanceAttributeType.NUMBER;
-            value = source.getValue() + "";
-        } else if (source instanceof InstanceDateAttribute) {
-            type = InstanceAttributeType.DATE;
-            Date date = ((InstanceDateAttribute) source).getDateValue();
-            if (date != null) {
-                value = DateUtils.format(date);
-            }
-        } else if (source instanceof InstanceURLAttribute) {
-            type = InstanceAttributeType.URL;
-            value = source.getValue() + "";
-        } else if (source instanceof InstanceListOfValuesAttribute) {
-            type = InstanceAttributeType.LOV;
-            value = ((InstanceListOfValuesAttribute) source).getIndexValue() + "";
-
-            List<NameValuePair> items = ((InstanceListOfValuesAttribute) source).getItems();
-            List<NameValuePairDTO> itemsDTO = new ArrayList<>();
-            for (NameValuePair item : items) {
-                itemsDTO.add(mapper.map(item, NameValuePairDTO.class));
-            }
-            dto.setItems(itemsDTO);
-        } else if (source instanceof InstanceLongTextAttribute) {
-            type = InstanceAttributeType.LONG_TEXT;
-            value = source.getValue() + "";
-        } else if (source instanceof InstancePartNumberAttribute) {
-            type = InstanceAttributeType.PART_NUMBER;
-            InstancePartNumberAttribute attribute = (InstancePartNumberAttribute) source;
-            value = attribute.getPartMasterValue() == null ? "" : attribute.getPartMasterValue().getNumber();
-        } else {
-            throw new IllegalArgumentException("Instance attribute not supported");
-        }
-        dto.setName(source.getName());
-        dto.setMandatory(source.isMandatory());
-        dto.setLocked(source.isLocked());
-        dto.setType(type);
-        dto.setValue(value);
-
-        return dto;
+        return CommonDTOMapper.toInstanceAttributeDTO(source, dto);
     }
 
     @Override
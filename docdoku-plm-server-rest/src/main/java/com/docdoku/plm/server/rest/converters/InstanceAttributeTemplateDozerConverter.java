@@ -27,6 +27,7 @@ import com.docdoku.plm.server.core.meta.ListOfValuesAttributeTemplate;
 import com.docdoku.plm.server.core.product.PartNumberAttributeTemplate;
 import com.docdoku.plm.server.rest.dto.InstanceAttributeTemplateDTO;
 import com.docdoku.plm.server.rest.dto.InstanceAttributeType;
+import com.docdoku.plm.server.rest.mappers.CommonDTOMapper;
 
 /**
  * @author Florent Garin
@@ -40,24 +41,7 @@ public class InstanceAttributeTemplateDozerConverter extends DozerConverter<Inst
 
     @Override
     public InstanceAttributeTemplateDTO convertTo(InstanceAttributeTemplate instanceAttributeTemplate, InstanceAttributeTemplateDTO dto) {
-        if(dto==null)
-            dto=new InstanceAttributeTemplateDTO();
-
-        dto.setLocked(instanceAttributeTemplate.isLocked());
-        dto.setName(instanceAttributeTemplate.getName());
-        dto.setMandatory(instanceAttributeTemplate.isMandatory());
-        if(instanceAttributeTemplate instanceof DefaultAttributeTemplate){
-            DefaultAttributeTemplate defaultIA = (DefaultAttributeTemplate)instanceAttributeTemplate;
-            dto.setAttributeType(InstanceAttributeType.valueOf(defaultIA.getAttributeType().name()));
-
-        }else if(instanceAttributeTemplate instanceof ListOfValuesAttributeTemplate){
-            ListOfValuesAttributeTemplate lovIA=(ListOfValuesAttributeTemplate)instanceAttributeTemplate;
-            dto.setLovName(lovIA.getLovName());
-            dto.setAttributeType(InstanceAttributeType.LOV);
-        }else if(instanceAttributeTemplate instanceof PartNumberAttributeTemplate){
-            dto.setAttributeType(InstanceAttributeType.PART_NUMBER);
-        }
-        return dto;
+        return CommonDTOMapper.toInstanceAttributeTemplateDTO(instanceAttributeTemplate, dto);
     }
 
     @Override
@@ -0,0 +1,122 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.io.Serializable;
+import java.util.Date;
+
+@ApiModel(value = "WorkspaceDeletionJobDTO", description = "This class is a representation of the progress of a workspace deletion")
+public class WorkspaceDeletionJobDTO implements Serializable {
+
+    @ApiModelProperty(value = "Workspace id")
+    private String workspaceId;
+
+    @ApiModelProperty(value = "Deletion status: RUNNING, FAILED or DONE")
+    private String status;
+
+    @ApiModelProperty(value = "Current step")
+    private String step;
+
+    @ApiModelProperty(value = "Current step index")
+    private int stepIndex;
+
+    @ApiModelProperty(value = "Steps count")
+    private int stepCount;
+
+    @ApiModelProperty(value = "Purged entities count")
+    private long purgedEntities;
+
+    @ApiModelProperty(value = "Deletion start date")
+    private Date creationDate;
+
+    @ApiModelProperty(value = "Last progress date")
+    private Date lastUpdate;
+
+    public WorkspaceDeletionJobDTO() {
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public void setWorkspaceId(String workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStep() {
+        return step;
+    }
+
+    public void setStep(String step) {
+        this.step = step;
+    }
+
+    public int getStepIndex() {
+        return stepIndex;
+    }
+
+    public void setStepIndex(int stepIndex) {
+        this.stepIndex = stepIndex;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public void setStepCount(int stepCount) {
+        this.stepCount = stepCount;
+    }
+
+    public long getPurgedEntities() {
+        return purgedEntities;
+    }
+
+    public void setPurgedEntities(long purgedEntities) {
+        this.purgedEntities = purgedEntities;
+    }
+
+    public Date getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(Date creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    public Date getLastUpdate() {
+        return lastUpdate;
+    }
+
+    public void setLastUpdate(Date lastUpdate) {
+        this.lastUpdate = lastUpdate;
+    }
+}
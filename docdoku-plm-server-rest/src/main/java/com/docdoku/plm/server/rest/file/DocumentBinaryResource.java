@@ -37,6 +37,7 @@ import com.docdoku.plm.server.helpers.Streams;
 import com.docdoku.plm.server.rest.exceptions.FileConversionException;
 import com.docdoku.plm.server.rest.exceptions.PreconditionFailedException;
 import com.docdoku.plm.server.rest.exceptions.RequestedRangeNotSatisfiableException;
+import com.docdoku.plm.server.rest.file.util.BinaryResourceCompression;
 import com.docdoku.plm.server.rest.file.util.BinaryResourceDownloadMeta;
 import com.docdoku.plm.server.rest.file.util.BinaryResourceDownloadResponseBuilder;
 import com.docdoku.plm.server.rest.file.util.BinaryResourceUpload;
@@ -51,6 +52,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.Part;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
@@ -158,6 +160,7 @@ public class DocumentBinaryResource {
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
     public Response downloadDocumentFile(
             @Context Request request,
+            @Context HttpHeaders httpHeaders,
             @ApiParam(required = true, value = "Workspace id") @PathParam("workspaceId") final String workspaceId,
             @ApiParam(required = true, value = "Document master id") @PathParam("documentId") final String documentId,
             @ApiParam(required = true, value = "Workspace version") @PathParam("version") final String version,
@@ -258,11 +261,10 @@ public class DocumentBinaryResource {
                 if (range == null || range.isEmpty()) {
                     binaryResourceDownloadMeta.setLength(0);
                 }
-            } else {
-                binaryContentInputStream = storageManager.getBinaryResourceInputStream(binaryResource);
+                return BinaryResourceDownloadResponseBuilder.prepareResponse(binaryContentInputStream, binaryResourceDownloadMeta, range, isToBeCached);
             }
 
-            return BinaryResourceDownloadResponseBuilder.prepareResponse(binaryContentInputStream, binaryResourceDownloadMeta, range, isToBeCached);
+            return BinaryResourceCompression.prepareResponse(storageManager, binaryResource, binaryResourceDownloadMeta, httpHeaders, range, isToBeCached);
 
         } catch (StorageException | FileConversionException e) {
             Streams.close(binaryContentInputStream);
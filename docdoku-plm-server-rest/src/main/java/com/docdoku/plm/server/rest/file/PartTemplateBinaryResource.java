@@ -27,9 +27,9 @@ import com.docdoku.plm.server.core.product.PartMasterTemplateKey;
 import com.docdoku.plm.server.core.security.UserGroupMapping;
 import com.docdoku.plm.server.core.services.IBinaryStorageManagerLocal;
 import com.docdoku.plm.server.core.services.IProductManagerLocal;
-import com.docdoku.plm.server.helpers.Streams;
 import com.docdoku.plm.server.rest.exceptions.PreconditionFailedException;
 import com.docdoku.plm.server.rest.exceptions.RequestedRangeNotSatisfiableException;
+import com.docdoku.plm.server.rest.file.util.BinaryResourceCompression;
 import com.docdoku.plm.server.rest.file.util.BinaryResourceDownloadMeta;
 import com.docdoku.plm.server.rest.file.util.BinaryResourceDownloadResponseBuilder;
 import com.docdoku.plm.server.rest.file.util.BinaryResourceUpload;
@@ -44,12 +44,12 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.Part;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.text.Normalizer;
@@ -135,6 +135,7 @@ public class PartTemplateBinaryResource {
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
     public Response downloadPartTemplateFile(
             @Context Request request,
+            @Context HttpHeaders httpHeaders,
             @ApiParam(required = false, value = "Range") @HeaderParam("Range") String range,
             @ApiParam(required = true, value = "Workspace id") @PathParam("workspaceId") final String workspaceId,
             @ApiParam(required = true, value = "Template id") @PathParam("templateId") final String templateId,
@@ -153,16 +154,12 @@ public class PartTemplateBinaryResource {
             return rb.build();
         }
 
-        InputStream binaryContentInputStream = null;
-
         // set to false because templates are never historized.
         boolean isToBeCached = false;
 
         try {
-            binaryContentInputStream = storageManager.getBinaryResourceInputStream(binaryResource);
-            return BinaryResourceDownloadResponseBuilder.prepareResponse(binaryContentInputStream, binaryResourceDownloadMeta, range, isToBeCached);
+            return BinaryResourceCompression.prepareResponse(storageManager, binaryResource, binaryResourceDownloadMeta, httpHeaders, range, isToBeCached);
         } catch (StorageException e) {
-            Streams.close(binaryContentInputStream);
             return BinaryResourceDownloadResponseBuilder.downloadError(e, fullName);
         }
 
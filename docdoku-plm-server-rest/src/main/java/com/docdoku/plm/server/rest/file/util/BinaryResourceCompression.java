@@ -0,0 +1,152 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.file.util;
+
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.exceptions.StorageException;
+import com.docdoku.plm.server.core.services.IBinaryStorageManagerLocal;
+import com.docdoku.plm.server.helpers.Streams;
+import com.docdoku.plm.server.rest.exceptions.RequestedRangeNotSatisfiableException;
+import com.docdoku.plm.server.rest.interceptors.CompressionCodec;
+import com.docdoku.plm.server.rest.interceptors.CompressionPolicy;
+import com.docdoku.plm.server.rest.interceptors.CompressionStatistics;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serve binary resources from precompressed variants stored in their generated files.
+ * <p>
+ * The variant is built on first download and reused until the binary resource is modified.
+ * Files which are not worth compressing are served as is.
+ */
+public class BinaryResourceCompression {
+
+    private static final Logger LOGGER = Logger.getLogger(BinaryResourceCompression.class.getName());
+
+    private BinaryResourceCompression() {
+        super();
+    }
+
+    /**
+     * Build the download response of a binary resource, using a precompressed variant when possible.
+     *
+     * @param storageManager             The storage manager.
+     * @param binaryResource             The binary resource to download.
+     * @param binaryResourceDownloadMeta The header parameters for the binary content download.
+     * @param headers                    The request headers, used for codec negotiation. May be null.
+     * @param range                      The string of the queried range. Null if no range are specified
+     * @param isToBeCached               Boolean to set whether we should define maxage of cache control
+     * @return The download response
+     * @throws StorageException                      If the binary resource cannot be read.
+     * @throws RequestedRangeNotSatisfiableException If the range is not satisfiable.
+     */
+    public static Response prepareResponse(IBinaryStorageManagerLocal storageManager, BinaryResource binaryResource,
+                                           BinaryResourceDownloadMeta binaryResourceDownloadMeta, HttpHeaders headers,
+                                           String range, boolean isToBeCached)
+            throws StorageException, RequestedRangeNotSatisfiableException {
+
+        CompressionCodec codec = getVariantCodec(binaryResource, binaryResourceDownloadMeta, headers);
+
+        if (codec != null) {
+            String variantName = codec.getVariantName(binaryResource.getName());
+            if (ensureVariant(storageManager, binaryResource, codec, variantName)) {
+                InputStream encodedInputStream = null;
+                try {
+                    long encodedLength = storageManager.getGeneratedFileLength(binaryResource, variantName);
+                    encodedInputStream = storageManager.getGeneratedFileInputStream(binaryResource, variantName);
+                    return BinaryResourceDownloadResponseBuilder.prepareEncodedResponse(encodedInputStream, binaryResourceDownloadMeta, codec.getEncoding(), encodedLength, range, isToBeCached);
+                } catch (StorageException e) {
+                    Streams.close(encodedInputStream);
+                    LOGGER.log(Level.WARNING, "Cannot read compressed variant of " + binaryResource.getFullName(), e);
+                }
+            }
+        }
+
+        InputStream binaryContentInputStream = storageManager.getBinaryResourceInputStream(binaryResource);
+        return BinaryResourceDownloadResponseBuilder.prepareResponse(binaryContentInputStream, binaryResourceDownloadMeta, range, isToBeCached);
+    }
+
+    private static CompressionCodec getVariantCodec(BinaryResource binaryResource, BinaryResourceDownloadMeta binaryResourceDownloadMeta, HttpHeaders headers) {
+        if (headers == null || binaryResourceDownloadMeta.isConverted()
+                || binaryResource.getContentLength() < CompressionPolicy.MIN_COMPRESSIBLE_LENGTH
+                || !CompressionPolicy.isCompressible(binaryResourceDownloadMeta.getContentType())) {
+            return null;
+        }
+        return CompressionPolicy.negotiate(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING), headers.getHeaderString("x-accept-encoding"));
+    }
+
+    private static boolean ensureVariant(IBinaryStorageManagerLocal storageManager, BinaryResource binaryResource, CompressionCodec codec, String variantName) {
+        try {
+            if (isVariantUpToDate(storageManager, binaryResource, variantName)) {
+                CompressionStatistics.recordHit(binaryResource.getContentLength());
+                return true;
+            }
+
+            long start = System.nanoTime();
+            writeVariant(storageManager, binaryResource, codec, variantName);
+            CompressionStatistics.recordMiss(binaryResource.getContentLength(), System.nanoTime() - start);
+            return true;
+
+        } catch (StorageException | IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot build compressed variant of " + binaryResource.getFullName(), e);
+            try {
+                storageManager.deleteGeneratedFile(binaryResource, variantName);
+            } catch (StorageException ex) {
+                LOGGER.log(Level.FINE, null, ex);
+            }
+            return false;
+        }
+    }
+
+    private static boolean isVariantUpToDate(IBinaryStorageManagerLocal storageManager, BinaryResource binaryResource, String variantName) throws StorageException {
+        if (!storageManager.exists(binaryResource, variantName)) {
+            return false;
+        }
+        Date variantLastModified = storageManager.getLastModified(binaryResource, variantName);
+        Date lastModified = binaryResource.getLastModified();
+        return variantLastModified != null && (lastModified == null || !variantLastModified.before(lastModified));
+    }
+
+    private static void writeVariant(IBinaryStorageManagerLocal storageManager, BinaryResource binaryResource, CompressionCodec codec, String variantName)
+            throws StorageException, IOException {
+        try (InputStream inputStream = storageManager.getBinaryResourceInputStream(binaryResource);
+             OutputStream generatedOutputStream = storageManager.getGeneratedFileOutputStream(binaryResource, variantName)) {
+            if (inputStream == null || generatedOutputStream == null) {
+                throw new StorageException("Cannot open streams for " + binaryResource.getFullName());
+            }
+            OutputStream compressedOutputStream = codec.wrap(generatedOutputStream, CompressionCodec.PRECOMPRESSED_LEVEL);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                compressedOutputStream.write(buffer, 0, read);
+            }
+            compressedOutputStream.close();
+        }
+    }
+
+}
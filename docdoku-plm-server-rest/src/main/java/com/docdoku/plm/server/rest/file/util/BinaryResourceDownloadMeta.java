@@ -74,6 +74,13 @@ public class BinaryResourceDownloadMeta {
         fileTypeMap.addMimeTypes("application/x-rar-compressed rar");
         fileTypeMap.addMimeTypes("application/x-textedit bat cmd");
         fileTypeMap.addMimeTypes("application/zip zip");
+        fileTypeMap.addMimeTypes("application/gzip gz tgz");
+        fileTypeMap.addMimeTypes("application/x-7z-compressed 7z");
+        fileTypeMap.addMimeTypes("application/vnd.oasis.opendocument.text odt");
+        fileTypeMap.addMimeTypes("application/vnd.oasis.opendocument.spreadsheet ods");
+        fileTypeMap.addMimeTypes("application/vnd.oasis.opendocument.presentation odp");
+        fileTypeMap.addMimeTypes("model/gltf-binary glb");
+        fileTypeMap.addMimeTypes("model/gltf+json gltf");
         fileTypeMap.addMimeTypes("audio/mpeg mp3");
         fileTypeMap.addMimeTypes("image/bmp bmp");
         fileTypeMap.addMimeTypes("image/gif gif");
@@ -81,8 +81,47 @@ public class BinaryResourceDownloadResponseBuilder {
         return responseBuilder.build();
     }
 
+    /**
+     * Set the header of the downloading response for an already encoded content (precompressed variant).
+     * Lengths and ranges apply to the encoded bytes.
+     *
+     * @param encodedContentInputStream  The stream of the encoded content to download.
+     * @param binaryResourceDownloadMeta The header parameters for the binary content download.
+     * @param contentEncoding            The content coding of the stream.
+     * @param encodedLength              The length of the encoded content.
+     * @param range                      The string of the queried range. Null if no range are specified
+     * @param isToBeCached               Boolean to set whether we should define maxage of cache control
+     * @return A response builder with the header & the content.
+     * @throws RequestedRangeNotSatisfiableException If the range is not satisfiable.
+     */
+    public static Response prepareEncodedResponse(InputStream encodedContentInputStream, BinaryResourceDownloadMeta binaryResourceDownloadMeta, String contentEncoding, long encodedLength, String range, boolean isToBeCached)
+            throws RequestedRangeNotSatisfiableException {
+
+        Response.ResponseBuilder responseBuilder;
+
+        if (range == null || range.isEmpty()) {
+            responseBuilder = Response.ok()
+                    .header("Content-Disposition", binaryResourceDownloadMeta.getContentDisposition())
+                    .header("Content-Type", binaryResourceDownloadMeta.getContentType())
+                    .header("Content-Length", encodedLength)
+                    .header("Accept-Ranges", "bytes")
+                    .entity(new BinaryResourceBinaryStreamingOutput(encodedContentInputStream, 0, encodedLength - 1, encodedLength));
+        } else {
+            responseBuilder = prepareStreamingDownloadResponse(binaryResourceDownloadMeta, encodedContentInputStream, range, encodedLength);
+        }
+
+        responseBuilder.header("Content-Encoding", contentEncoding)
+                .header("Vary", "Accept-Encoding");
+
+        responseBuilder = applyCachePolicyToResponse(responseBuilder, binaryResourceDownloadMeta.getETag(), binaryResourceDownloadMeta.getLastModified(), isToBeCached);
+        return responseBuilder.build();
+    }
+
     private static Response.ResponseBuilder prepareStreamingDownloadResponse(BinaryResourceDownloadMeta binaryResourceDownloadMeta, InputStream binaryContentInputStream, String range) throws RequestedRangeNotSatisfiableException {
-        long length = binaryResourceDownloadMeta.getLength();
+        return prepareStreamingDownloadResponse(binaryResourceDownloadMeta, binaryContentInputStream, range, binaryResourceDownloadMeta.getLength());
+    }
+
+    private static Response.ResponseBuilder prepareStreamingDownloadResponse(BinaryResourceDownloadMeta binaryResourceDownloadMeta, InputStream binaryContentInputStream, String range, long length) throws RequestedRangeNotSatisfiableException {
 
         // Range header should match format "bytes=n-n,n-n,n-n...". If not, then return 416.
         if (!range.matches("^bytes=\\d*-\\d*(,\\d*-\\d*)*$")) {
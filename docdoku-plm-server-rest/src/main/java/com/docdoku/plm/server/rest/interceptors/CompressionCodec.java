@@ -0,0 +1,114 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.interceptors;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content codings supported by the {@link Compress} endpoints.
+ * <p>
+ * Only codecs available in the JDK are listed: zstd and brotli require native libraries
+ * which are not shipped with the server. New codecs only need to be added here to be
+ * negotiated and precompressed.
+ */
+public enum CompressionCodec {
+
+    GZIP("gzip", ".gz") {
+        @Override
+        public OutputStream wrap(OutputStream outputStream, int level) throws IOException {
+            return new GZIPOutputStream(outputStream, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    },
+
+    DEFLATE("deflate", ".zz") {
+        @Override
+        public OutputStream wrap(OutputStream outputStream, int level) throws IOException {
+            return new DeflaterOutputStream(outputStream, new Deflater(level), BUFFER_SIZE);
+        }
+    };
+
+    /**
+     * Level used when compressing on the fly, favour throughput.
+     */
+    public static final int ON_THE_FLY_LEVEL = Deflater.BEST_SPEED;
+
+    /**
+     * Level used for stored variants, the cost is paid once.
+     */
+    public static final int PRECOMPRESSED_LEVEL = Deflater.BEST_COMPRESSION;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String encoding;
+    private final String fileExtension;
+
+    CompressionCodec(String encoding, String fileExtension) {
+        this.encoding = encoding;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Get the content coding token as used in Accept-Encoding and Content-Encoding headers
+     *
+     * @return the content coding token
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Get the name of the precompressed variant stored in the generated files of a binary resource
+     *
+     * @param fileName the binary resource name
+     * @return the generated file name
+     */
+    public String getVariantName(String fileName) {
+        return fileName + fileExtension;
+    }
+
+    /**
+     * Wrap an output stream with this codec compressor.
+     * The returned stream must be closed (or finished) to flush the trailer.
+     *
+     * @param outputStream the stream receiving compressed bytes
+     * @param level        the deflater level
+     * @return the compressing stream
+     * @throws IOException if the stream cannot be wrapped
+     */
+    public abstract OutputStream wrap(OutputStream outputStream, int level) throws IOException;
+
+    public static CompressionCodec fromEncoding(String encoding) {
+        for (CompressionCodec codec : values()) {
+            if (codec.encoding.equalsIgnoreCase(encoding)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
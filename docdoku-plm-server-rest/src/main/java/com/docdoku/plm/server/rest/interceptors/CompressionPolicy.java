@@ -0,0 +1,160 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.interceptors;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Decide whether a response is worth compressing and which codec to use.
+ */
+public class CompressionPolicy {
+
+    /**
+     * Files smaller than this are served as is, the coding overhead is not worth it.
+     */
+    public static final long MIN_COMPRESSIBLE_LENGTH = 1024;
+
+    private static final Set<String> INCOMPRESSIBLE_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "application/zip",
+            "application/gzip",
+            "application/x-gzip",
+            "application/x-bzip2",
+            "application/x-xz",
+            "application/x-7z-compressed",
+            "application/x-rar-compressed",
+            "application/pdf",
+            "application/download",
+            "application/x-vnd.openxmlformat",
+            "model/gltf-binary"
+    )));
+
+    private static final String[] INCOMPRESSIBLE_PREFIXES = {
+            "audio/",
+            "video/",
+            "application/vnd.openxmlformats-",
+            "application/vnd.oasis.opendocument."
+    };
+
+    private static final Set<String> COMPRESSIBLE_IMAGES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "image/bmp",
+            "image/svg+xml",
+            "image/tiff"
+    )));
+
+    private CompressionPolicy() {
+        super();
+    }
+
+    /**
+     * Tell if the given content type is worth compressing
+     *
+     * @param contentType the response content type, parameters are ignored
+     * @return false for already compressed formats
+     */
+    public static boolean isCompressible(String contentType) {
+        if (contentType == null || contentType.isEmpty()) {
+            return true;
+        }
+
+        String mimeType = contentType.split(";")[0].trim().toLowerCase(Locale.ENGLISH);
+
+        if (INCOMPRESSIBLE_TYPES.contains(mimeType)) {
+            return false;
+        }
+
+        if (mimeType.startsWith("image/")) {
+            return COMPRESSIBLE_IMAGES.contains(mimeType);
+        }
+
+        for (String prefix : INCOMPRESSIBLE_PREFIXES) {
+            if (mimeType.startsWith(prefix)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Pick the preferred codec for the request.
+     *
+     * @param acceptEncoding       the standard Accept-Encoding header value
+     * @param customAcceptEncoding the x-accept-encoding header value, used by browser clients to opt out
+     * @return the codec to use, or null if the response must not be encoded
+     */
+    public static CompressionCodec negotiate(String acceptEncoding, String customAcceptEncoding) {
+        if ("identity".equals(customAcceptEncoding)) {
+            return null;
+        }
+
+        // Keep previous behaviour for clients not sending any preference
+        if (acceptEncoding == null || acceptEncoding.trim().isEmpty()) {
+            return CompressionCodec.GZIP;
+        }
+
+        CompressionCodec selected = null;
+        float selectedQuality = 0;
+        float wildcardQuality = -1;
+
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim();
+            float quality = parseQuality(parts);
+
+            if ("*".equals(coding)) {
+                wildcardQuality = quality;
+                continue;
+            }
+
+            CompressionCodec codec = CompressionCodec.fromEncoding(coding);
+            // Prefer higher quality, then declaration order of the enum on ties
+            if (codec != null && quality > 0 && (quality > selectedQuality || quality == selectedQuality && codec.ordinal() < selected.ordinal())) {
+                selected = codec;
+                selectedQuality = quality;
+            }
+        }
+
+        if (selected == null && wildcardQuality > 0) {
+            selected = CompressionCodec.GZIP;
+        }
+
+        return selected;
+    }
+
+    private static float parseQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+}
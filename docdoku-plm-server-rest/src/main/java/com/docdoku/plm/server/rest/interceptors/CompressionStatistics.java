@@ -0,0 +1,96 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.interceptors;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for the {@link Compress} endpoints, exposed through the admin resource and {@link CompressionMetrics}.
+ */
+public class CompressionStatistics {
+
+    private static final AtomicLong PRECOMPRESSED_HITS = new AtomicLong();
+    private static final AtomicLong PRECOMPRESSED_MISSES = new AtomicLong();
+    private static final AtomicLong ON_THE_FLY = new AtomicLong();
+    private static final AtomicLong SKIPPED = new AtomicLong();
+
+    // Bytes (uncompressed) served from precompressed variants
+    private static final AtomicLong HIT_BYTES = new AtomicLong();
+
+    // Cost of building variants, used to estimate the CPU time saved by hits
+    private static final AtomicLong PRECOMPRESSION_BYTES = new AtomicLong();
+    private static final AtomicLong PRECOMPRESSION_NANOS = new AtomicLong();
+
+    private CompressionStatistics() {
+        super();
+    }
+
+    public static void recordHit(long originalLength) {
+        PRECOMPRESSED_HITS.incrementAndGet();
+        HIT_BYTES.addAndGet(originalLength);
+    }
+
+    public static void recordMiss(long originalLength, long elapsedNanos) {
+        PRECOMPRESSED_MISSES.incrementAndGet();
+        PRECOMPRESSION_BYTES.addAndGet(originalLength);
+        PRECOMPRESSION_NANOS.addAndGet(elapsedNanos);
+    }
+
+    public static void recordOnTheFly() {
+        ON_THE_FLY.incrementAndGet();
+    }
+
+    public static void recordSkipped() {
+        SKIPPED.incrementAndGet();
+    }
+
+    public static long getPrecompressedHits() {
+        return PRECOMPRESSED_HITS.get();
+    }
+
+    public static long getPrecompressedMisses() {
+        return PRECOMPRESSED_MISSES.get();
+    }
+
+    public static long getOnTheFlyCompressions() {
+        return ON_THE_FLY.get();
+    }
+
+    public static long getSkipped() {
+        return SKIPPED.get();
+    }
+
+    /**
+     * Estimate the compression time avoided by serving stored variants, based on the
+     * average throughput observed when building them.
+     *
+     * @return the estimated saved CPU time, in milliseconds
+     */
+    public static long getEstimatedSavedCpuMillis() {
+        long bytes = PRECOMPRESSION_BYTES.get();
+        if (bytes == 0) {
+            return 0;
+        }
+        double nanosPerByte = (double) PRECOMPRESSION_NANOS.get() / bytes;
+        return (long) (HIT_BYTES.get() * nanosPerByte / 1_000_000);
+    }
+
+}
@@ -22,17 +22,24 @@ package com.docdoku.plm.server.rest.interceptors;
 
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.Provider;
 import javax.ws.rs.ext.WriterInterceptor;
 import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.util.zip.GZIPOutputStream;
+import java.io.OutputStream;
 
+/**
+ * Compress {@link Compress} endpoints responses on the fly.
+ * <p>
+ * Responses already encoded (precompressed variants), partial contents and
+ * incompressible content types are left untouched.
+ */
 @Provider
 @Compress
 public class GZIPWriterInterceptor implements WriterInterceptor {
-    private static final int DEFAULT_BUFFER_SIZE = 4096;
 
     @Context
     private HttpHeaders requestHeaders;
@@ -43,31 +50,73 @@ public class GZIPWriterInterceptor implements WriterInterceptor {
 
         MultivaluedMap<String, Object> responseHeaders = context.getHeaders();
         Object rangeHeader = responseHeaders.getFirst("Content-Range");
+        Object contentEncoding = responseHeaders.getFirst("Content-Encoding");
 
         // Use a custom header here
         // Some clients needs to know the content length in response headers in order to display a loading state
         // Browsers don't let programmers to change the default "Accept-Encoding" header, then we use a custom one.
-        String acceptEncoding = requestHeaders.getHeaderString("x-accept-encoding");
+        String customAcceptEncoding = requestHeaders.getHeaderString("x-accept-encoding");
+        String acceptEncoding = requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+
+        OutputStream compressedOutputStream = null;
+
+        if (contentEncoding != null) {
+            // Already encoded, served from a precompressed variant
+            context.proceed();
+            return;
+        }
 
-        GZIPOutputStream gzipOutputStream = null;
+        CompressionCodec codec = CompressionPolicy.negotiate(acceptEncoding, customAcceptEncoding);
 
-        if (acceptEncoding != null && acceptEncoding.equals("identity")) {
+        if (codec == null) {
             responseHeaders.add("Content-Encoding", "identity");
         } else if (rangeHeader == null) {
-            responseHeaders.add("Content-Encoding", "gzip");
-            responseHeaders.remove("Content-Length");
-            gzipOutputStream = new GZIPOutputStream(context.getOutputStream(), DEFAULT_BUFFER_SIZE);
-            context.setOutputStream(gzipOutputStream);
+            if (CompressionPolicy.isCompressible(getContentType(context, responseHeaders))) {
+                responseHeaders.add("Content-Encoding", codec.getEncoding());
+                responseHeaders.add("Vary", HttpHeaders.ACCEPT_ENCODING);
+                responseHeaders.remove("Content-Length");
+                compressedOutputStream = codec.wrap(new UnclosableOutputStream(context.getOutputStream()), CompressionCodec.ON_THE_FLY_LEVEL);
+                context.setOutputStream(compressedOutputStream);
+                CompressionStatistics.recordOnTheFly();
+            } else {
+                CompressionStatistics.recordSkipped();
+            }
         }
 
         try {
             context.proceed();
         } finally {
-            if (gzipOutputStream != null) {
-                gzipOutputStream.finish();
+            if (compressedOutputStream != null) {
+                // Writes the codec trailer, the container owns the underlying stream
+                compressedOutputStream.close();
             }
         }
     }
 
+    private String getContentType(WriterInterceptorContext context, MultivaluedMap<String, Object> responseHeaders) {
+        Object contentType = responseHeaders.getFirst("Content-Type");
+        if (contentType != null) {
+            return contentType.toString();
+        }
+        MediaType mediaType = context.getMediaType();
+        return mediaType != null ? mediaType.toString() : null;
+    }
+
+    private static class UnclosableOutputStream extends FilterOutputStream {
+
+        UnclosableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
 
 }
@@ -0,0 +1,147 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.interceptors;
+
+import com.docdoku.plm.server.core.metrics.PerformanceMetrics;
+import com.docdoku.plm.server.core.metrics.RequestProbe;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every resource method, from the request filters to the end of the entity serialization,
+ * and records the entity manager calls it made and the bytes it sent, see {@link PerformanceMetrics}.
+ * <p>
+ * Runs before the entity coders so that compressed responses are counted as sent.
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class PerformanceFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final PerformanceMetrics METRICS = PerformanceMetrics.getInstance();
+
+    private static final String START_PROPERTY = PerformanceFilter.class.getName() + ".start";
+    private static final String OPERATION_PROPERTY = PerformanceFilter.class.getName() + ".operation";
+    private static final String WORKSPACE_PROPERTY = PerformanceFilter.class.getName() + ".workspace";
+    private static final String FAILED_PROPERTY = PerformanceFilter.class.getName() + ".failed";
+
+    private static final Map<Method, String> OPERATION_NAMES = new ConcurrentHashMap<>();
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        Method method = resourceInfo.getResourceMethod();
+        if (!METRICS.isEnabled() || method == null) {
+            return;
+        }
+        RequestProbe.start();
+        requestContext.setProperty(OPERATION_PROPERTY, OPERATION_NAMES.computeIfAbsent(method, PerformanceFilter::operationName));
+        requestContext.setProperty(WORKSPACE_PROPERTY, requestContext.getUriInfo().getPathParameters().getFirst("workspaceId"));
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Long start = (Long) requestContext.getProperty(START_PROPERTY);
+        if (start == null) {
+            return;
+        }
+        boolean failed = responseContext.getStatus() >= 400;
+        if (responseContext.hasEntity()) {
+            // Completed once the entity is written
+            requestContext.setProperty(FAILED_PROPERTY, failed);
+        } else {
+            complete(start, (String) requestContext.getProperty(OPERATION_PROPERTY),
+                    (String) requestContext.getProperty(WORKSPACE_PROPERTY), 0, failed);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Long start = (Long) context.getProperty(START_PROPERTY);
+        if (start == null) {
+            context.proceed();
+            return;
+        }
+        CountingOutputStream countingOutputStream = new CountingOutputStream(context.getOutputStream());
+        context.setOutputStream(countingOutputStream);
+        boolean failed = true;
+        try {
+            context.proceed();
+            failed = Boolean.TRUE.equals(context.getProperty(FAILED_PROPERTY));
+        } finally {
+            complete(start, (String) context.getProperty(OPERATION_PROPERTY),
+                    (String) context.getProperty(WORKSPACE_PROPERTY), countingOutputStream.count, failed);
+        }
+    }
+
+    private static void complete(long start, String operation, String workspaceId, long bytes, boolean failed) {
+        long nanos = System.nanoTime() - start;
+        RequestProbe probe = RequestProbe.current();
+        long entityManagerCalls = probe == null ? 0 : probe.getEntityManagerCalls();
+        long rows = probe == null ? 0 : probe.getRows();
+        RequestProbe.stop();
+        METRICS.record(operation, nanos, entityManagerCalls, rows, bytes, failed);
+        METRICS.requestCompleted(operation, workspaceId, nanos, entityManagerCalls, rows, bytes, failed);
+    }
+
+    static String operationName(Method method) {
+        return PerformanceMetrics.REST_PREFIX + method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
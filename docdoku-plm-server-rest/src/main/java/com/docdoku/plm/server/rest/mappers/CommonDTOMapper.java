@@ -0,0 +1,215 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.mappers;
+
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.UserGroup;
+import com.docdoku.plm.server.core.meta.*;
+import com.docdoku.plm.server.core.product.InstancePartNumberAttribute;
+import com.docdoku.plm.server.core.product.PartNumberAttributeTemplate;
+import com.docdoku.plm.server.core.security.ACL;
+import com.docdoku.plm.server.core.security.ACLUserEntry;
+import com.docdoku.plm.server.core.security.ACLUserGroupEntry;
+import com.docdoku.plm.server.core.util.DateUtils;
+import com.docdoku.plm.server.rest.dto.*;
+
+import java.util.*;
+
+/**
+ * Reflection-free mapping of the small value objects shared by the document and part DTOs.
+ *
+ * Each method produces exactly what the Dozer configuration of this module produces for the
+ * same source, so both can be used interchangeably.
+ */
+public final class CommonDTOMapper {
+
+    private CommonDTOMapper() {
+    }
+
+    public static UserDTO toUserDTO(User user) {
+        if (user == null) {
+            return null;
+        }
+        UserDTO dto = new UserDTO();
+        dto.setWorkspaceId(user.getWorkspaceId());
+        dto.setLogin(user.getLogin());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setLanguage(user.getLanguage());
+        return dto;
+    }
+
+    public static BinaryResourceDTO toBinaryResourceDTO(BinaryResource binaryResource) {
+        if (binaryResource == null) {
+            return null;
+        }
+        BinaryResourceDTO dto = new BinaryResourceDTO();
+        dto.setFullName(binaryResource.getFullName());
+        dto.setName(binaryResource.getName());
+        dto.setContentLength(binaryResource.getContentLength());
+        dto.setLastModified(binaryResource.getLastModified());
+        return dto;
+    }
+
+    public static List<BinaryResourceDTO> toBinaryResourceDTOs(Collection<BinaryResource> binaryResources) {
+        if (binaryResources == null) {
+            return null;
+        }
+        List<BinaryResourceDTO> dtos = new ArrayList<>(binaryResources.size());
+        for (BinaryResource binaryResource : binaryResources) {
+            dtos.add(toBinaryResourceDTO(binaryResource));
+        }
+        return dtos;
+    }
+
+    public static InstanceAttributeDTO toInstanceAttributeDTO(InstanceAttribute source, InstanceAttributeDTO dto) {
+        if (dto == null)
+            dto = new InstanceAttributeDTO();
+
+        InstanceAttributeType type;
+        String value = "";
+
+        if (source instanceof InstanceBooleanAttribute) {
+            type = InstanceAttributeType.BOOLEAN;
+            value = source.getValue() + "";
+        } else if (source instanceof InstanceTextAttribute) {
+            type = InstanceAttributeType.TEXT;
+            value = source.getValue() + "";
+        } else if (source instanceof InstanceNumberAttribute) {
+            type = InstanceAttributeType.NUMBER;
+            value = source.getValue() + "";
+        } else if (source instanceof InstanceDateAttribute) {
+            type = InstanceAttributeType.DATE;
+            Date date = ((InstanceDateAttribute) source).getDateValue();
+            if (date != null) {
+                value = DateUtils.format(date);
+            }
+        } else if (source instanceof InstanceURLAttribute) {
+            type = InstanceAttributeType.URL;
+            value = source.getValue() + "";
+        } else if (source instanceof InstanceListOfValuesAttribute) {
+            type = InstanceAttributeType.LOV;
+            value = ((InstanceListOfValuesAttribute) source).getIndexValue() + "";
+
+            List<NameValuePair> items = ((InstanceListOfValuesAttribute) source).getItems();
+            List<NameValuePairDTO> itemsDTO = new ArrayList<>();
+            for (NameValuePair item : items) {
+                NameValuePairDTO itemDTO = new NameValuePairDTO();
+                itemDTO.setName(item.getName());
+                itemDTO.setValue(item.getValue());
+                itemsDTO.add(itemDTO);
+            }
+            dto.setItems(itemsDTO);
+        } else if (source instanceof InstanceLongTextAttribute) {
+            type = InstanceAttributeType.LONG_TEXT;
+            value = source.getValue() + "";
+        } else if (source instanceof InstancePartNumberAttribute) {
+            type = InstanceAttributeType.PART_NUMBER;
+            InstancePartNumberAttribute attribute = (InstancePartNumberAttribute) source;
+            value = attribute.getPartMasterValue() == null ? "" : attribute.getPartMasterValue().getNumber();
+        } else {
+            throw new IllegalArgumentException("Instance attribute not supported");
+        }
+        dto.setName(source.getName());
+        dto.setMandatory(source.isMandatory());
+        dto.setLocked(source.isLocked());
+        dto.setType(type);
+        dto.setValue(value);
+
+        return dto;
+    }
+
+    public static List<InstanceAttributeDTO> toInstanceAttributeDTOs(List<InstanceAttribute> attributes) {
+        if (attributes == null) {
+            return null;
+        }
+        List<InstanceAttributeDTO> dtos = new ArrayList<>(attributes.size());
+        for (InstanceAttribute attribute : attributes) {
+            dtos.add(toInstanceAttributeDTO(attribute, null));
+        }
+        return dtos;
+    }
+
+    public static InstanceAttributeTemplateDTO toInstanceAttributeTemplateDTO(InstanceAttributeTemplate instanceAttributeTemplate, InstanceAttributeTemplateDTO dto) {
+        if (dto == null)
+            dto = new InstanceAttributeTemplateDTO();
+
+        dto.setLocked(instanceAttributeTemplate.isLocked());
+        dto.setName(instanceAttributeTemplate.getName());
+        dto.setMandatory(instanceAttributeTemplate.isMandatory());
+        if (instanceAttributeTemplate instanceof DefaultAttributeTemplate) {
+            DefaultAttributeTemplate defaultIA = (DefaultAttributeTemplate) instanceAttributeTemplate;
+            dto.setAttributeType(InstanceAttributeType.valueOf(defaultIA.getAttributeType().name()));
+
+        } else if (instanceAttributeTemplate instanceof ListOfValuesAttributeTemplate) {
+            ListOfValuesAttributeTemplate lovIA = (ListOfValuesAttributeTemplate) instanceAttributeTemplate;
+            dto.setLovName(lovIA.getLovName());
+            dto.setAttributeType(InstanceAttributeType.LOV);
+        } else if (instanceAttributeTemplate instanceof PartNumberAttributeTemplate) {
+            dto.setAttributeType(InstanceAttributeType.PART_NUMBER);
+        }
+        return dto;
+    }
+
+    public static List<InstanceAttributeTemplateDTO> toInstanceAttributeTemplateDTOs(List<InstanceAttributeTemplate> templates) {
+        if (templates == null) {
+            return null;
+        }
+        List<InstanceAttributeTemplateDTO> dtos = new ArrayList<>(templates.size());
+        for (InstanceAttributeTemplate template : templates) {
+            dtos.add(toInstanceAttributeTemplateDTO(template, null));
+        }
+        return dtos;
+    }
+
+    public static String[] toTagLabels(Set<Tag> tags) {
+        if (tags == null) {
+            return null;
+        }
+        String[] labels = new String[tags.size()];
+        int i = 0;
+        for (Tag tag : tags) {
+            labels[i++] = tag.getLabel();
+        }
+        return labels;
+    }
+
+    public static ACLDTO toACLDTO(ACL acl) {
+        if (acl == null) {
+            return null;
+        }
+
+        ACLDTO aclDTO = new ACLDTO();
+
+        for (Map.Entry<User, ACLUserEntry> entry : acl.getUserEntries().entrySet()) {
+            ACLUserEntry aclEntry = entry.getValue();
+            aclDTO.addUserEntry(aclEntry.getPrincipalLogin(), aclEntry.getPermission());
+        }
+
+        for (Map.Entry<UserGroup, ACLUserGroupEntry> entry : acl.getGroupEntries().entrySet()) {
+            ACLUserGroupEntry aclEntry = entry.getValue();
+            aclDTO.addGroupEntry(aclEntry.getPrincipalId(), aclEntry.getPermission());
+        }
+
+        return aclDTO;
+    }
+}
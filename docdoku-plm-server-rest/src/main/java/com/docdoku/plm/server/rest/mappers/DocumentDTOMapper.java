@@ -0,0 +1,162 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.mappers;
+
+import com.docdoku.plm.server.core.document.DocumentIteration;
+import com.docdoku.plm.server.core.document.DocumentLink;
+import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.workflow.Workflow;
+import com.docdoku.plm.server.rest.dto.DocumentIterationDTO;
+import com.docdoku.plm.server.rest.dto.DocumentRevisionDTO;
+import com.docdoku.plm.server.rest.dto.WorkflowDTO;
+import org.dozer.DozerBeanMapperSingletonWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reflection-free mapping of documents to their DTOs.
+ *
+ * The full variant is field for field what Dozer produces for a {@link DocumentRevision}. The light variant
+ * is meant for lists: it only maps the last iteration and leaves out the tags and the workflow, the same
+ * projection as {@link com.docdoku.plm.server.rest.Tools#createLightDocumentRevisionDTO}, but without building
+ * the parts that would be thrown away.
+ *
+ * Workflows are rare and deep graphs, they are still handed over to Dozer.
+ */
+public final class DocumentDTOMapper {
+
+    private DocumentDTOMapper() {
+    }
+
+    public static DocumentRevisionDTO toDocumentRevisionDTO(DocumentRevision documentRevision) {
+        if (documentRevision == null) {
+            return null;
+        }
+        DocumentRevisionDTO dto = mapRevisionFields(documentRevision);
+        dto.setTags(CommonDTOMapper.toTagLabels(documentRevision.getTags()));
+        dto.setWorkflow(toWorkflowDTO(documentRevision.getWorkflow()));
+
+        List<DocumentIteration> iterations = documentRevision.getDocumentIterations();
+        if (iterations != null) {
+            List<DocumentIterationDTO> iterationDTOs = new ArrayList<>(iterations.size());
+            for (DocumentIteration iteration : iterations) {
+                iterationDTOs.add(toDocumentIterationDTO(iteration));
+            }
+            dto.setDocumentIterations(iterationDTOs);
+        }
+        return dto;
+    }
+
+    public static DocumentRevisionDTO toLightDocumentRevisionDTO(DocumentRevision documentRevision) {
+        if (documentRevision == null) {
+            return null;
+        }
+        DocumentRevisionDTO dto = mapRevisionFields(documentRevision);
+
+        List<DocumentIteration> iterations = documentRevision.getDocumentIterations();
+        if (iterations != null) {
+            DocumentIteration lastIteration = documentRevision.getLastIteration();
+            dto.setDocumentIterations(lastIteration == null ? new ArrayList<>() :
+                    new ArrayList<>(Collections.singletonList(toDocumentIterationDTO(lastIteration))));
+        }
+        return dto;
+    }
+
+    public static DocumentIterationDTO toDocumentIterationDTO(DocumentIteration documentIteration) {
+        if (documentIteration == null) {
+            return null;
+        }
+        DocumentIterationDTO dto = new DocumentIterationDTO();
+        dto.setWorkspaceId(documentIteration.getWorkspaceId());
+        dto.setId(documentIteration.getId());
+        dto.setDocumentMasterId(documentIteration.getDocumentMasterId());
+        dto.setVersion(documentIteration.getVersion());
+        dto.setIteration(documentIteration.getIteration());
+        dto.setCreationDate(documentIteration.getCreationDate());
+        dto.setModificationDate(documentIteration.getModificationDate());
+        dto.setCheckInDate(documentIteration.getCheckInDate());
+        dto.setTitle(documentIteration.getTitle());
+        dto.setAuthor(CommonDTOMapper.toUserDTO(documentIteration.getAuthor()));
+        dto.setRevisionNote(documentIteration.getRevisionNote());
+        dto.setAttachedFiles(CommonDTOMapper.toBinaryResourceDTOs(documentIteration.getAttachedFiles()));
+        dto.setInstanceAttributes(CommonDTOMapper.toInstanceAttributeDTOs(documentIteration.getInstanceAttributes()));
+        dto.setLinkedDocuments(toLinkedDocumentDTOs(documentIteration.getLinkedDocuments()));
+        return dto;
+    }
+
+    public static DocumentRevisionDTO toLinkedDocumentDTO(DocumentLink documentLink) {
+        if (documentLink == null) {
+            return null;
+        }
+        DocumentRevisionDTO dto = new DocumentRevisionDTO();
+        dto.setId(String.valueOf(documentLink.getId()));
+        dto.setWorkspaceId(documentLink.getTargetDocumentWorkspaceId());
+        dto.setDocumentMasterId(documentLink.getTargetDocumentMasterId());
+        dto.setVersion(documentLink.getTargetDocumentVersion());
+        dto.setCommentLink(documentLink.getComment());
+        dto.setTitle(documentLink.getDocumentTitle());
+        return dto;
+    }
+
+    public static List<DocumentRevisionDTO> toLinkedDocumentDTOs(Collection<DocumentLink> documentLinks) {
+        if (documentLinks == null) {
+            return null;
+        }
+        List<DocumentRevisionDTO> dtos = new ArrayList<>(documentLinks.size());
+        for (DocumentLink documentLink : documentLinks) {
+            dtos.add(toLinkedDocumentDTO(documentLink));
+        }
+        return dtos;
+    }
+
+    static WorkflowDTO toWorkflowDTO(Workflow workflow) {
+        return workflow == null ? null : DozerBeanMapperSingletonWrapper.getInstance().map(workflow, WorkflowDTO.class);
+    }
+
+    private static DocumentRevisionDTO mapRevisionFields(DocumentRevision documentRevision) {
+        DocumentRevisionDTO dto = new DocumentRevisionDTO();
+        dto.setWorkspaceId(documentRevision.getWorkspaceId());
+        dto.setId(documentRevision.getId());
+        dto.setDocumentMasterId(documentRevision.getDocumentMasterId());
+        dto.setVersion(documentRevision.getVersion());
+        dto.setType(documentRevision.getType());
+        dto.setTitle(documentRevision.getTitle());
+        dto.setDescription(documentRevision.getDescription());
+        dto.setAuthor(CommonDTOMapper.toUserDTO(documentRevision.getAuthor()));
+        dto.setCreationDate(documentRevision.getCreationDate());
+        dto.setCheckOutUser(CommonDTOMapper.toUserDTO(documentRevision.getCheckOutUser()));
+        dto.setCheckOutDate(documentRevision.getCheckOutDate());
+        dto.setWorkflowId(documentRevision.getWorkflowId());
+        dto.setLifeCycleState(documentRevision.getLifeCycleState());
+        dto.setPublicShared(documentRevision.isPublicShared());
+        dto.setAttributesLocked(documentRevision.isAttributesLocked());
+        dto.setStatus(documentRevision.getStatus());
+        dto.setObsoleteDate(documentRevision.getObsoleteDate());
+        dto.setObsoleteAuthor(CommonDTOMapper.toUserDTO(documentRevision.getObsoleteAuthor()));
+        dto.setReleaseDate(documentRevision.getReleaseDate());
+        dto.setReleaseAuthor(CommonDTOMapper.toUserDTO(documentRevision.getReleaseAuthor()));
+        dto.setAcl(CommonDTOMapper.toACLDTO(documentRevision.getACL()));
+        return dto;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.mappers;
+
+import com.docdoku.plm.server.core.product.*;
+import com.docdoku.plm.server.rest.dto.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reflection-free mapping of parts to their DTOs.
+ *
+ * The full variant is what {@link com.docdoku.plm.server.rest.Tools#mapPartRevisionToPartDTO} used to build
+ * with Dozer. The light variant keeps every revision level field but does not traverse the iterations at all,
+ * callers add the one iteration they are interested in, if any.
+ */
+public final class PartDTOMapper {
+
+    private PartDTOMapper() {
+    }
+
+    public static PartRevisionDTO toPartRevisionDTO(PartRevision partRevision) {
+        if (partRevision == null) {
+            return null;
+        }
+        PartRevisionDTO dto = toLightPartRevisionDTO(partRevision);
+        for (PartIteration partIteration : partRevision.getPartIterations()) {
+            dto.getPartIterations().add(toPartIterationDTO(partIteration));
+        }
+        return dto;
+    }
+
+    public static PartRevisionDTO toLightPartRevisionDTO(PartRevision partRevision) {
+        if (partRevision == null) {
+            return null;
+        }
+        PartMaster partMaster = partRevision.getPartMaster();
+
+        PartRevisionDTO dto = new PartRevisionDTO();
+        dto.setWorkspaceId(partRevision.getWorkspaceId());
+        dto.setNumber(partRevision.getPartNumber());
+        dto.setVersion(partRevision.getVersion());
+        dto.setPartKey(partRevision.getPartNumber() + "-" + partRevision.getVersion());
+        dto.setName(partMaster.getName());
+        dto.setStandardPart(partMaster.isStandardPart());
+        dto.setType(partMaster.getType());
+        dto.setDescription(partRevision.getDescription());
+        dto.setAuthor(CommonDTOMapper.toUserDTO(partRevision.getAuthor()));
+        dto.setCreationDate(partRevision.getCreationDate());
+        dto.setCheckOutUser(CommonDTOMapper.toUserDTO(partRevision.getCheckOutUser()));
+        dto.setCheckOutDate(partRevision.getCheckOutDate());
+        dto.setWorkflow(DocumentDTOMapper.toWorkflowDTO(partRevision.getWorkflow()));
+        dto.setLifeCycleState(partRevision.getLifeCycleState());
+        dto.setPublicShared(partRevision.isPublicShared());
+        dto.setAttributesLocked(partRevision.isAttributesLocked());
+        dto.setStatus(partRevision.getStatus());
+        dto.setLastIterationNumber(partRevision.getLastIterationNumber());
+        dto.setTags(CommonDTOMapper.toTagLabels(partRevision.getTags()));
+        dto.setObsoleteDate(partRevision.getObsoleteDate());
+        dto.setObsoleteAuthor(CommonDTOMapper.toUserDTO(partRevision.getObsoleteAuthor()));
+        dto.setReleaseDate(partRevision.getReleaseDate());
+        dto.setReleaseAuthor(CommonDTOMapper.toUserDTO(partRevision.getReleaseAuthor()));
+        dto.setAcl(CommonDTOMapper.toACLDTO(partRevision.getACL()));
+        dto.setPartIterations(new ArrayList<>());
+        return dto;
+    }
+
+    public static PartIterationDTO toPartIterationDTO(PartIteration partIteration) {
+        if (partIteration == null) {
+            return null;
+        }
+        PartIterationDTO dto = new PartIterationDTO();
+        dto.setWorkspaceId(partIteration.getWorkspaceId());
+        dto.setNumber(partIteration.getPartRevision().getPartNumber());
+        dto.setVersion(partIteration.getPartRevision().getVersion());
+        dto.setName(partIteration.getName());
+        dto.setIteration(partIteration.getIteration());
+        dto.setIterationNote(partIteration.getIterationNote());
+        dto.setAuthor(CommonDTOMapper.toUserDTO(partIteration.getAuthor()));
+        dto.setCreationDate(partIteration.getCreationDate());
+        dto.setModificationDate(partIteration.getModificationDate());
+        dto.setCheckInDate(partIteration.getCheckInDate());
+        dto.setNativeCADFile(CommonDTOMapper.toBinaryResourceDTO(partIteration.getNativeCADFile()));
+        dto.setAttachedFiles(CommonDTOMapper.toBinaryResourceDTOs(partIteration.getAttachedFiles()));
+        dto.setInstanceAttributes(CommonDTOMapper.toInstanceAttributeDTOs(partIteration.getInstanceAttributes()));
+        dto.setInstanceAttributeTemplates(CommonDTOMapper.toInstanceAttributeTemplateDTOs(partIteration.getInstanceAttributeTemplates()));
+        dto.setLinkedDocuments(DocumentDTOMapper.toLinkedDocumentDTOs(partIteration.getLinkedDocuments()));
+
+        List<PartUsageLinkDTO> usageLinkDTOs = new ArrayList<>();
+        for (PartUsageLink partUsageLink : partIteration.getComponents()) {
+            usageLinkDTOs.add(toPartUsageLinkDTO(partUsageLink));
+        }
+        dto.setComponents(usageLinkDTOs);
+
+        if (!partIteration.getGeometries().isEmpty()) {
+            dto.setGeometryFileURI("/api/files/" + partIteration.getSortedGeometries().get(0).getFullName());
+        }
+        return dto;
+    }
+
+    public static PartUsageLinkDTO toPartUsageLinkDTO(PartUsageLink partUsageLink) {
+        PartUsageLinkDTO dto = new PartUsageLinkDTO();
+        dto.setId(partUsageLink.getId());
+        dto.setFullId(partUsageLink.getFullId());
+        dto.setAmount(partUsageLink.getAmount());
+        dto.setUnit(partUsageLink.getUnit());
+        dto.setComment(partUsageLink.getComment());
+        dto.setReferenceDescription(partUsageLink.getReferenceDescription());
+        dto.setOptional(partUsageLink.isOptional());
+        dto.setComponent(toComponentDTO(partUsageLink.getComponent()));
+
+        List<CADInstanceDTO> cadInstanceDTOs = new ArrayList<>();
+        for (CADInstance cadInstance : partUsageLink.getCadInstances()) {
+            CADInstanceDTO cadInstanceDTO = toCADInstanceDTO(cadInstance);
+            if (RotationType.MATRIX.equals(cadInstance.getRotationType())) {
+                cadInstanceDTO.setMatrix(cadInstance.getRotationMatrix().getValues());
+            }
+            cadInstanceDTOs.add(cadInstanceDTO);
+        }
+        dto.setCadInstances(cadInstanceDTOs);
+
+        List<PartSubstituteLinkDTO> substituteLinkDTOs = new ArrayList<>();
+        for (PartSubstituteLink partSubstituteLink : partUsageLink.getSubstitutes()) {
+            substituteLinkDTOs.add(toPartSubstituteLinkDTO(partSubstituteLink));
+        }
+        dto.setSubstitutes(substituteLinkDTOs);
+        return dto;
+    }
+
+    public static PartSubstituteLinkDTO toPartSubstituteLinkDTO(PartSubstituteLink partSubstituteLink) {
+        PartSubstituteLinkDTO dto = new PartSubstituteLinkDTO();
+        dto.setId(partSubstituteLink.getId());
+        dto.setFullId(partSubstituteLink.getFullId());
+        dto.setAmount(partSubstituteLink.getAmount());
+        dto.setUnit(partSubstituteLink.getUnit());
+        dto.setComment(partSubstituteLink.getComment());
+        dto.setReferenceDescription(partSubstituteLink.getReferenceDescription());
+        dto.setSubstitute(toComponentDTO(partSubstituteLink.getSubstitute()));
+
+        List<CADInstanceDTO> cadInstanceDTOs = new ArrayList<>();
+        for (CADInstance cadInstance : partSubstituteLink.getCadInstances()) {
+            cadInstanceDTOs.add(toCADInstanceDTO(cadInstance));
+        }
+        dto.setCadInstances(cadInstanceDTOs);
+        return dto;
+    }
+
+    public static CADInstanceDTO toCADInstanceDTO(CADInstance cadInstance) {
+        CADInstanceDTO dto = new CADInstanceDTO();
+        dto.setRx(cadInstance.getRx());
+        dto.setRy(cadInstance.getRy());
+        dto.setRz(cadInstance.getRz());
+        dto.setTx(cadInstance.getTx());
+        dto.setTy(cadInstance.getTy());
+        dto.setTz(cadInstance.getTz());
+        dto.setRotationType(cadInstance.getRotationType());
+        return dto;
+    }
+
+    public static ComponentDTO toComponentDTO(PartMaster partMaster) {
+        if (partMaster == null) {
+            return null;
+        }
+        ComponentDTO dto = new ComponentDTO();
+        dto.setNumber(partMaster.getNumber());
+        dto.setName(partMaster.getName());
+        dto.setStandardPart(partMaster.isStandardPart());
+        dto.setAuthor(partMaster.getAuthor() == null ? null : partMaster.getAuthor().toString());
+        return dto;
+    }
+}
@@ -120,7 +120,7 @@ public class QueryResultMessageBodyWriter implements MessageBodyWriter<QueryResu
         List<String> partIterationSelectedAttributes = getPartIterationSelectedAttributes(selects);
         List<String> pathDataSelectedAttributes = getPathDataSelectedAttributes(selects);
 
-        for (QueryResultRow row : queryResult.getRows()) {
+        for (QueryResultRow row : queryResult.iterateRows()) {
 
             QueryContext queryContext = row.getContext();
 
@@ -0,0 +1,72 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws;
+
+import javax.websocket.SendHandler;
+import javax.websocket.Session;
+import java.util.Map;
+
+/**
+ * A web socket opened on this node, one instance is attached to each {@link Session} when it opens.
+ */
+public class LocalWebSocketSession implements WebSocketSession {
+
+    private static final String KEY = LocalWebSocketSession.class.getName();
+
+    private final Session session;
+
+    private LocalWebSocketSession(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * @return the instance attached to the session, created on first call
+     */
+    public static LocalWebSocketSession of(Session session) {
+        return (LocalWebSocketSession) session.getUserProperties()
+                .computeIfAbsent(KEY, key -> new LocalWebSocketSession(session));
+    }
+
+    @Override
+    public String getId() {
+        return session.getId();
+    }
+
+    @Override
+    public Map<String, Object> getUserProperties() {
+        return session.getUserProperties();
+    }
+
+    @Override
+    public void sendObject(WebSocketMessage webSocketMessage) {
+        session.getAsyncRemote().sendObject(webSocketMessage);
+    }
+
+    @Override
+    public void sendObject(WebSocketMessage webSocketMessage, SendHandler handler) {
+        session.getAsyncRemote().sendObject(webSocketMessage, handler);
+    }
+
+    @Override
+    public String toString() {
+        return session.getId();
+    }
+}
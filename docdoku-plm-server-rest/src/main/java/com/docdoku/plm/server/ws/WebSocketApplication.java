@@ -109,7 +109,7 @@ public class WebSocketApplication {
         WebSocketModule selectedModule = selectModule(message);
 
         if (null != selectedModule) {
-            selectedModule.process(session, message);
+            selectedModule.process(LocalWebSocketSession.of(session), message);
         } else {
             LOGGER.log(Level.WARNING, "No modules for type " + message.getType());
         }
@@ -131,7 +131,7 @@ public class WebSocketApplication {
                 if (login != null) {
                     session.getUserProperties().put(AUTH, jwt);
                     session.getUserProperties().put(LOGIN, login);
-                    webSocketSessionsManager.addSession(login, session);
+                    webSocketSessionsManager.addSession(login, LocalWebSocketSession.of(session));
                     return;
                 }
             }
@@ -162,7 +162,7 @@ public class WebSocketApplication {
 
     private void unTrackSession(Session session) {
         if (null != session.getUserProperties().get(AUTH)) {
-            webSocketSessionsManager.removeSession(session);
+            webSocketSessionsManager.removeSession(LocalWebSocketSession.of(session));
         }
     }
 
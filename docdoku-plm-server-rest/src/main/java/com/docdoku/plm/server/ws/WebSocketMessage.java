@@ -33,6 +33,8 @@ public class WebSocketMessage implements Serializable {
 
     protected JsonObject object;
 
+    private transient String json;
+
     private static final String DISCRIMINATOR_FIELD = "type";
 
     public WebSocketMessage(JsonObject object) {
@@ -45,6 +47,19 @@ public class WebSocketMessage implements Serializable {
 
     public void setObject(JsonObject object) {
         this.object = object;
+        this.json = null;
+    }
+
+    /**
+     * Serialize the message, only once whatever the number of recipients
+     */
+    public String toJson() {
+        String result = json;
+        if (result == null) {
+            result = object.toString();
+            json = result;
+        }
+        return result;
     }
 
     public String getType(){
@@ -37,7 +37,7 @@ public class WebSocketMessageEncoder implements Encoder.Text<WebSocketMessage> {
 
     @Override
     public String encode(WebSocketMessage WebSocketMessage) throws EncodeException {
-        return WebSocketMessage.getObject().toString();
+        return WebSocketMessage.toJson();
     }
 
     @Override
@@ -20,7 +20,6 @@
 
 package com.docdoku.plm.server.ws;
 
-import javax.websocket.Session;
 
 /**
  * This interface is an extension point for creating web socket modules
@@ -29,5 +28,5 @@ import javax.websocket.Session;
  */
 public interface WebSocketModule {
     boolean canDecode(WebSocketMessage webSocketMessage);
-    void process(Session session, WebSocketMessage webSocketMessage);
+    void process(WebSocketSession session, WebSocketMessage webSocketMessage);
 }
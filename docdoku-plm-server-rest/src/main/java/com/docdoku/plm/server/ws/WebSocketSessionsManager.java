@@ -22,53 +22,111 @@ package com.docdoku.plm.server.ws;
 
 import com.docdoku.plm.server.core.services.IUserManagerLocal;
 import com.docdoku.plm.server.ws.chat.Room;
+import com.docdoku.plm.server.ws.cluster.RemoteSession;
+import com.docdoku.plm.server.ws.cluster.WebSocketEnvelope;
+import com.docdoku.plm.server.ws.cluster.WebSocketMessageBus;
 import com.docdoku.plm.server.ws.webrtc.WebSocketUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
-import javax.websocket.Session;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * The aim of this class is to maintain active sockets
  *
+ * Sessions opened on this node are kept in concurrent maps, users connected to other nodes are reached through
+ * the {@link WebSocketMessageBus}.
+ *
  * @author Morgan Guimard
  * */
 @ApplicationScoped
 public class WebSocketSessionsManager {
 
+    private static final Logger LOGGER = Logger.getLogger(WebSocketSessionsManager.class.getName());
+
     @Inject
     private IUserManagerLocal userManager;
 
+    @Inject
+    private WebSocketMessageBus messageBus;
+
+    private Iterable<WebSocketModule> webSocketModules = Collections.emptyList();
+
+    /**
+     * Users WebSockets map, store the set of local sessions for each user
+     */
+    private final ConcurrentMap<String, Set<WebSocketSession>> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Reverse index of channels, store the user holding each local session
+     */
+    private final ConcurrentMap<WebSocketSession, String> holders = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, WebSocketSession> sessionsById = new ConcurrentHashMap<>();
+
     /**
-     * Users WebSockets map, store a list af sessions for each user
+     * Users connected to other nodes, store the set of node ids for each user
      */
-    private static final ConcurrentMap<String, List<Session>> CHANNELS = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> remotePresence = new ConcurrentHashMap<>();
+
+    public WebSocketSessionsManager() {
+    }
+
+    WebSocketSessionsManager(IUserManagerLocal userManager, WebSocketMessageBus messageBus, Iterable<WebSocketModule> webSocketModules) {
+        this.userManager = userManager;
+        this.messageBus = messageBus;
+        this.webSocketModules = webSocketModules;
+    }
+
+    @Inject
+    void setWebSocketModules(@Any Instance<WebSocketModule> webSocketModules) {
+        this.webSocketModules = webSocketModules;
+    }
+
+    @PostConstruct
+    void init() {
+        messageBus.subscribe(this::onEnvelope);
+        messageBus.publish(WebSocketEnvelope.presenceRequest(messageBus.getNodeId()));
+    }
+
+    @PreDestroy
+    void destroy() {
+        for (String login : channels.keySet()) {
+            messageBus.publish(WebSocketEnvelope.presence(messageBus.getNodeId(), login, false));
+        }
+    }
 
     public boolean hasSessions(String login) {
-        List<Session> sessions = getSessions(login);
-        return sessions != null && !sessions.isEmpty();
+        Set<String> nodes = remotePresence.get(login);
+        return channels.containsKey(login) || (nodes != null && !nodes.isEmpty());
     }
 
-    public List<Session> getSessions(String userLogin) {
-        return CHANNELS.get(userLogin);
+    /**
+     * @return a snapshot of the sessions opened on this node by the given user
+     */
+    public List<WebSocketSession> getSessions(String userLogin) {
+        Set<WebSocketSession> sessions = channels.get(userLogin);
+        return sessions == null ? new ArrayList<>() : new ArrayList<>(sessions);
     }
 
-    public String getHolder(Session session){
-        return CHANNELS.entrySet().stream().
-                filter(stringListEntry -> stringListEntry.getValue().contains(session))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
+    public String getHolder(WebSocketSession session) {
+        if (session instanceof RemoteSession) {
+            return ((RemoteSession) session).getLogin();
+        }
+        return holders.get(session);
     }
 
-    private void hangUpOngoingCalls(String sender, Session session) {
+    private void hangUpOngoingCalls(String sender, WebSocketSession session) {
         Room.getUserRooms(sender).forEach(room -> {
-            Session otherSession = room.getOtherUserSession(session);
+            WebSocketSession otherSession = room.getOtherUserSession(session);
             room.removeSession(session);
 
             WebSocketMessage message = WebSocketUtils.createMessage(WebSocketUtils.WEBRTC_HANGUP, sender, room.key(), null, null, 0, null, null, null, null, null);
@@ -76,48 +134,121 @@ public class WebSocketSessionsManager {
         });
     }
 
-    public void removeSession(Session session) {
-        String login = getHolder(session);
+    public void removeSession(WebSocketSession session) {
+        String login = holders.remove(session);
+        sessionsById.remove(session.getId(), session);
         hangUpOngoingCalls(login, session);
-        if(null != login){
-            List<Session> sessions = getSessions(login);
-            if(null != sessions){
+        if (null != login) {
+            Set<WebSocketSession> remaining = channels.computeIfPresent(login, (key, sessions) -> {
                 sessions.remove(session);
-                if(sessions.isEmpty()){
-                    CHANNELS.remove(login);
-                }
+                return sessions.isEmpty() ? null : sessions;
+            });
+            messageBus.publish(WebSocketEnvelope.sessionClosed(messageBus.getNodeId(), login, session.getId()));
+            if (null == remaining) {
+                messageBus.publish(WebSocketEnvelope.presence(messageBus.getNodeId(), login, false));
             }
         }
-
     }
 
-    public void addSession(String login, Session session) {
-        List<Session> sessions = getSessions(login);
-        if(null == sessions){
-            sessions = new ArrayList<>();
-            CHANNELS.put(login,sessions);
+    public void addSession(String login, WebSocketSession session) {
+        boolean[] first = {false};
+        holders.put(session, login);
+        sessionsById.put(session.getId(), session);
+        channels.compute(login, (key, sessions) -> {
+            if (null == sessions) {
+                sessions = ConcurrentHashMap.newKeySet();
+                first[0] = true;
+            }
+            sessions.add(session);
+            return sessions;
+        });
+        if (first[0]) {
+            messageBus.publish(WebSocketEnvelope.presence(messageBus.getNodeId(), login, true));
         }
-        sessions.add(session);
     }
 
     public boolean isAllowedToReachUser(String sender, String remoteUser){
         return userManager.hasCommonWorkspace(sender,remoteUser);
     }
 
+    /**
+     * Send a message to every session of the user, on this node and on the other nodes
+     */
     public void broadcast(String userLogin, WebSocketMessage webSocketMessage){
-        List<Session> sessions = getSessions(userLogin);
-        send(sessions,webSocketMessage);
+        send(getSessions(userLogin), webSocketMessage);
+        Set<String> nodes = remotePresence.get(userLogin);
+        if (nodes != null && !nodes.isEmpty()) {
+            messageBus.publish(WebSocketEnvelope.userMessage(messageBus.getNodeId(), userLogin, webSocketMessage));
+        }
+    }
+
+    /**
+     * Hand a message over to the other nodes, to be processed by the node holding the targeted resource (room, call...)
+     */
+    public void forward(WebSocketSession session, WebSocketMessage webSocketMessage) {
+        if (session instanceof RemoteSession) {
+            // Already forwarded once, nobody holds the resource
+            return;
+        }
+        messageBus.publish(WebSocketEnvelope.forward(messageBus.getNodeId(), getHolder(session), session.getId(), webSocketMessage));
     }
 
-    public void send(List<Session> sessions, WebSocketMessage webSocketMessage){
-        for(Session session : sessions){
+    public void send(List<WebSocketSession> sessions, WebSocketMessage webSocketMessage){
+        for(WebSocketSession session : sessions){
             send(session,webSocketMessage);
         }
     }
 
-    public void send(Session session, WebSocketMessage webSocketMessage){
+    public void send(WebSocketSession session, WebSocketMessage webSocketMessage){
         if (session != null) {
-            session.getAsyncRemote().sendObject(webSocketMessage);
+            session.sendObject(webSocketMessage);
+        }
+    }
+
+    void onEnvelope(WebSocketEnvelope envelope) {
+        String origin = envelope.getOriginNodeId();
+        String login = envelope.getLogin();
+        switch (envelope.getType()) {
+            case USER_MESSAGE:
+                send(getSessions(login), envelope.getMessage());
+                break;
+            case SESSION_MESSAGE:
+                if (messageBus.getNodeId().equals(envelope.getTargetNodeId())) {
+                    send(sessionsById.get(envelope.getSessionId()), envelope.getMessage());
+                }
+                break;
+            case FORWARD:
+                process(new RemoteSession(messageBus, origin, envelope.getSessionId(), login), envelope.getMessage());
+                break;
+            case SESSION_CLOSED:
+                hangUpOngoingCalls(login, new RemoteSession(messageBus, origin, envelope.getSessionId(), login));
+                break;
+            case USER_ONLINE:
+                remotePresence.computeIfAbsent(login, key -> ConcurrentHashMap.newKeySet()).add(origin);
+                break;
+            case USER_OFFLINE:
+                remotePresence.computeIfPresent(login, (key, nodes) -> {
+                    nodes.remove(origin);
+                    return nodes.isEmpty() ? null : nodes;
+                });
+                break;
+            case PRESENCE_REQUEST:
+                for (String local : channels.keySet()) {
+                    messageBus.publish(WebSocketEnvelope.presence(messageBus.getNodeId(), local, true));
+                }
+                break;
+            default:
+                LOGGER.log(Level.WARNING, "Unknown envelope type " + envelope.getType());
+        }
+    }
+
+    private void process(RemoteSession session, WebSocketMessage webSocketMessage) {
+        for (WebSocketModule webSocketModule : webSocketModules) {
+            if (webSocketModule.canDecode(webSocketMessage)) {
+                webSocketModule.process(session, webSocketMessage);
+                return;
+            }
         }
+        LOGGER.log(Level.WARNING, "No modules for type " + webSocketMessage.getType());
     }
 }
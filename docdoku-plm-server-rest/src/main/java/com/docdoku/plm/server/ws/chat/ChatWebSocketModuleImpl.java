@@ -23,12 +23,12 @@ package com.docdoku.plm.server.ws.chat;
 
 import com.docdoku.plm.server.ws.WebSocketMessage;
 import com.docdoku.plm.server.ws.WebSocketModule;
+import com.docdoku.plm.server.ws.WebSocketSession;
 import com.docdoku.plm.server.ws.WebSocketSessionsManager;
 
 import javax.inject.Inject;
 import javax.json.Json;
 import javax.json.JsonObjectBuilder;
-import javax.websocket.Session;
 
 /**
  * Implementation of chat module
@@ -52,7 +52,7 @@ public class ChatWebSocketModuleImpl implements WebSocketModule {
     }
 
     @Override
-    public void process(Session session, WebSocketMessage webSocketMessage) {
+    public void process(WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         String sender = webSocketSessionsManager.getHolder(session);
         String remoteUser = webSocketMessage.getString("remoteUser");
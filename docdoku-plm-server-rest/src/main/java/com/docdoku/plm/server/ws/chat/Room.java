@@ -20,7 +20,8 @@
 
 package com.docdoku.plm.server.ws.chat;
 
-import javax.websocket.Session;
+import com.docdoku.plm.server.ws.WebSocketSession;
+
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -101,7 +102,7 @@ public class Room {
     /**
      * @return the name of the other participant, null if none
      */
-    public Session getOtherUserSession(Session userSession) {
+    public WebSocketSession getOtherUserSession(WebSocketSession userSession) {
         if (isUser1Session(userSession)) {
             return userSession2 != null ? userSession2.getUserSession() : null;
         } else if (isUser2Session(userSession)) {
@@ -129,7 +130,7 @@ public class Room {
     /**
      * @return true if one the participant is named as the input parameter, false otherwise
      */
-    public Session getUserSession(String user) {
+    public WebSocketSession getUserSession(String user) {
 
         if (user != null) {
             if (userSession1 != null && user.equals(getUser1Login())) {
@@ -150,7 +151,7 @@ public class Room {
      *
      * @return if participant is found
      */
-    public boolean addUserSession(Session userSession, String login) {
+    public boolean addUserSession(WebSocketSession userSession, String login) {
         // avoid a user to be added in the room many times.
         if ((isUser1Session(userSession) || isUser2Session(userSession))) {
             return true;
@@ -170,19 +171,19 @@ public class Room {
         return false;
     }
 
-    private boolean isUser1Session(Session userSession) {
+    private boolean isUser1Session(WebSocketSession userSession) {
         return userSession != null && userSession1 != null && userSession.equals(userSession1.getUserSession());
     }
 
 
-    private boolean isUser2Session(Session userSession) {
+    private boolean isUser2Session(WebSocketSession userSession) {
         return userSession != null && userSession2 != null && userSession.equals(userSession2.getUserSession());
     }
 
     /**
      * Removed a participant form current room
      */
-    public void removeSession(Session userSession) {
+    public void removeSession(WebSocketSession userSession) {
 
         if (isUser2Session(userSession)) {
             userSession2 = null;
@@ -241,7 +242,7 @@ public class Room {
         return null;
     }
 
-    public Session getSessionForUserLogin(String userLogin) {
+    public WebSocketSession getSessionForUserLogin(String userLogin) {
         RoomSession roomSession = getRoomSessionForUserLogin(userLogin);
         if (roomSession != null) {
             return roomSession.getUserSession();
@@ -252,7 +253,7 @@ public class Room {
     public static void removeUserFromAllRoom(String callerLogin) {
         Set<Map.Entry<String, Room>> roomsEntries = new HashSet<>(DB.entrySet());
         for (Map.Entry<String, Room> entry : roomsEntries) {
-            Session session = entry.getValue().getSessionForUserLogin(callerLogin);
+            WebSocketSession session = entry.getValue().getSessionForUserLogin(callerLogin);
             if (session != null) {
                 entry.getValue().removeSession(session);
             }
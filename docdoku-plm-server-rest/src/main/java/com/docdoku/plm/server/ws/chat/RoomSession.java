@@ -20,14 +20,14 @@
 
 package com.docdoku.plm.server.ws.chat;
 
-import javax.websocket.Session;
+import com.docdoku.plm.server.ws.WebSocketSession;
 
 public class RoomSession {
 
     private String login;
-    private Session userSession;
+    private WebSocketSession userSession;
 
-    public RoomSession(String login, Session userSession) {
+    public RoomSession(String login, WebSocketSession userSession) {
         this.login = login;
         this.userSession = userSession;
     }
@@ -36,7 +36,7 @@ public class RoomSession {
         return login;
     }
 
-    public Session getUserSession() {
+    public WebSocketSession getUserSession() {
         return userSession;
     }
 }
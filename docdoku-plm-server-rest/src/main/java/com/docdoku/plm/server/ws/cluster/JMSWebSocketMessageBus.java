@@ -0,0 +1,121 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws.cluster;
+
+import javax.jms.*;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link WebSocketMessageBus} publishing envelopes on a JMS topic shared by all the nodes, the same way the
+ * JPA cache coordination of the cluster profile does.
+ *
+ * Envelopes are consumed by a single thread doing synchronous receives, message listeners are not allowed
+ * in the container.
+ */
+public class JMSWebSocketMessageBus implements WebSocketMessageBus {
+
+    private static final Logger LOGGER = Logger.getLogger(JMSWebSocketMessageBus.class.getName());
+
+    private static final long RECEIVE_TIMEOUT = 1000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConnectionFactory connectionFactory;
+    private final Topic topic;
+    private final Set<Consumer<WebSocketEnvelope>> listeners = new CopyOnWriteArraySet<>();
+    private volatile boolean running = true;
+
+    public JMSWebSocketMessageBus(ConnectionFactory connectionFactory, Topic topic, ThreadFactory threadFactory) {
+        this.connectionFactory = connectionFactory;
+        this.topic = topic;
+        Thread receiver = threadFactory.newThread(this::receive);
+        receiver.setName("websocket-bus-" + nodeId);
+        receiver.start();
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(WebSocketEnvelope envelope) {
+        try (JMSContext context = connectionFactory.createContext()) {
+            context.createProducer().send(topic, envelope);
+        } catch (JMSRuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Cannot publish websocket envelope " + envelope.getType(), e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<WebSocketEnvelope> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+    }
+
+    private void receive() {
+        while (running) {
+            try (JMSContext context = connectionFactory.createContext();
+                 JMSConsumer consumer = context.createConsumer(topic)) {
+                while (running) {
+                    Message message = consumer.receive(RECEIVE_TIMEOUT);
+                    if (message != null) {
+                        dispatch(message.getBody(WebSocketEnvelope.class));
+                    }
+                }
+            } catch (JMSRuntimeException | JMSException e) {
+                LOGGER.log(Level.SEVERE, "WebSocket bus receiver failure, reconnecting", e);
+                pause();
+            }
+        }
+    }
+
+    private void dispatch(WebSocketEnvelope envelope) {
+        if (envelope == null || nodeId.equals(envelope.getOriginNodeId())) {
+            return;
+        }
+        for (Consumer<WebSocketEnvelope> listener : listeners) {
+            try {
+                listener.accept(envelope);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Cannot process websocket envelope " + envelope.getType(), e);
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RECEIVE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws.cluster;
+
+import javax.enterprise.inject.Vetoed;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM {@link WebSocketMessageBus}.
+ *
+ * A bus created with the default constructor is a single node cluster and publishing is a no-op.
+ * Buses joined with {@link #LoopbackWebSocketMessageBus(LoopbackWebSocketMessageBus)} behave like the nodes
+ * of a cluster and deliver synchronously to each other, which is what tests need.
+ * It is vetoed as a bean, {@link WebSocketMessageBusProducer} decides which bus is used.
+ */
+@Vetoed
+public class LoopbackWebSocketMessageBus implements WebSocketMessageBus {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<LoopbackWebSocketMessageBus> nodes;
+    private final Set<Consumer<WebSocketEnvelope>> listeners = new CopyOnWriteArraySet<>();
+
+    public LoopbackWebSocketMessageBus() {
+        nodes = new CopyOnWriteArraySet<>();
+        nodes.add(this);
+    }
+
+    public LoopbackWebSocketMessageBus(LoopbackWebSocketMessageBus peer) {
+        nodes = peer.nodes;
+        nodes.add(this);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(WebSocketEnvelope envelope) {
+        for (LoopbackWebSocketMessageBus node : nodes) {
+            if (node != this) {
+                node.listeners.forEach(listener -> listener.accept(envelope));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<WebSocketEnvelope> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        nodes.remove(this);
+        listeners.clear();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws.cluster;
+
+import com.docdoku.plm.server.ws.WebSocketApplication;
+import com.docdoku.plm.server.ws.WebSocketMessage;
+import com.docdoku.plm.server.ws.WebSocketSession;
+
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Stands for a session opened on another node of the cluster.
+ *
+ * Modules can keep it in their rooms and send objects to it like to any other session, the messages are
+ * published on the {@link WebSocketMessageBus} for the node holding the real session.
+ */
+public class RemoteSession implements WebSocketSession {
+
+    private final WebSocketMessageBus messageBus;
+    private final String nodeId;
+    private final String sessionId;
+    private final String login;
+    private final Map<String, Object> userProperties = new HashMap<>();
+
+    public RemoteSession(WebSocketMessageBus messageBus, String nodeId, String sessionId, String login) {
+        this.messageBus = messageBus;
+        this.nodeId = nodeId;
+        this.sessionId = sessionId;
+        this.login = login;
+        userProperties.put(WebSocketApplication.LOGIN, login);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    @Override
+    public String getId() {
+        return nodeId + ":" + sessionId;
+    }
+
+    @Override
+    public Map<String, Object> getUserProperties() {
+        return userProperties;
+    }
+
+    @Override
+    public void sendObject(WebSocketMessage webSocketMessage) {
+        messageBus.publish(WebSocketEnvelope.sessionMessage(messageBus.getNodeId(), nodeId, sessionId, webSocketMessage));
+    }
+
+    @Override
+    public void sendObject(WebSocketMessage webSocketMessage, SendHandler handler) {
+        sendObject(webSocketMessage);
+        handler.onResult(new SendResult());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RemoteSession)) {
+            return false;
+        }
+        RemoteSession that = (RemoteSession) o;
+        return nodeId.equals(that.nodeId) && sessionId.equals(that.sessionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeId, sessionId);
+    }
+
+    @Override
+    public String toString() {
+        return login + "@" + getId();
+    }
+}
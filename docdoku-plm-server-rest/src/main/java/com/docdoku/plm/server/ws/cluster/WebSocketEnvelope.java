@@ -0,0 +1,124 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws.cluster;
+
+import com.docdoku.plm.server.ws.WebSocketMessage;
+
+import javax.json.Json;
+import javax.json.JsonReader;
+import java.io.Serializable;
+import java.io.StringReader;
+
+/**
+ * What travels on the {@link WebSocketMessageBus}: a {@link WebSocketMessage} and its recipient, or a change in
+ * the set of users connected to a node.
+ */
+public class WebSocketEnvelope implements Serializable {
+
+    public enum Type {
+        /** Message for every session of a user */
+        USER_MESSAGE,
+        /** Message for a single session of a given node */
+        SESSION_MESSAGE,
+        /** Message received by a node which does not host the room it refers to */
+        FORWARD,
+        /** A session has been closed */
+        SESSION_CLOSED,
+        /** The first session of a user has been opened on a node */
+        USER_ONLINE,
+        /** The last session of a user on a node has been closed */
+        USER_OFFLINE,
+        /** A node asks the others which users they host */
+        PRESENCE_REQUEST
+    }
+
+    private Type type;
+    private String originNodeId;
+    private String targetNodeId;
+    private String login;
+    private String sessionId;
+    private String payload;
+
+    public WebSocketEnvelope() {
+    }
+
+    private WebSocketEnvelope(Type type, String originNodeId, String targetNodeId, String login, String sessionId, WebSocketMessage message) {
+        this.type = type;
+        this.originNodeId = originNodeId;
+        this.targetNodeId = targetNodeId;
+        this.login = login;
+        this.sessionId = sessionId;
+        this.payload = message == null ? null : message.toJson();
+    }
+
+    public static WebSocketEnvelope userMessage(String originNodeId, String login, WebSocketMessage message) {
+        return new WebSocketEnvelope(Type.USER_MESSAGE, originNodeId, null, login, null, message);
+    }
+
+    public static WebSocketEnvelope sessionMessage(String originNodeId, String targetNodeId, String sessionId, WebSocketMessage message) {
+        return new WebSocketEnvelope(Type.SESSION_MESSAGE, originNodeId, targetNodeId, null, sessionId, message);
+    }
+
+    public static WebSocketEnvelope forward(String originNodeId, String login, String sessionId, WebSocketMessage message) {
+        return new WebSocketEnvelope(Type.FORWARD, originNodeId, null, login, sessionId, message);
+    }
+
+    public static WebSocketEnvelope sessionClosed(String originNodeId, String login, String sessionId) {
+        return new WebSocketEnvelope(Type.SESSION_CLOSED, originNodeId, null, login, sessionId, null);
+    }
+
+    public static WebSocketEnvelope presence(String originNodeId, String login, boolean online) {
+        return new WebSocketEnvelope(online ? Type.USER_ONLINE : Type.USER_OFFLINE, originNodeId, null, login, null, null);
+    }
+
+    public static WebSocketEnvelope presenceRequest(String originNodeId) {
+        return new WebSocketEnvelope(Type.PRESENCE_REQUEST, originNodeId, null, null, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getOriginNodeId() {
+        return originNodeId;
+    }
+
+    public String getTargetNodeId() {
+        return targetNodeId;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public WebSocketMessage getMessage() {
+        if (payload == null) {
+            return null;
+        }
+        try (JsonReader reader = Json.createReader(new StringReader(payload))) {
+            return new WebSocketMessage(reader.readObject());
+        }
+    }
+}
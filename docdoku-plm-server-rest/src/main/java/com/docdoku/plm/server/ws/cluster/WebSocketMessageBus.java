@@ -0,0 +1,50 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link WebSocketEnvelope}s between the nodes of a cluster, so that users connected to different
+ * nodes can reach each other.
+ *
+ * Envelopes published by a node are never delivered back to the same node.
+ */
+public interface WebSocketMessageBus extends AutoCloseable {
+
+    /**
+     * @return the id of the node this bus is attached to
+     */
+    String getNodeId();
+
+    /**
+     * Send an envelope to every other node
+     */
+    void publish(WebSocketEnvelope envelope);
+
+    /**
+     * Register the listener of envelopes published by the other nodes
+     */
+    void subscribe(Consumer<WebSocketEnvelope> listener);
+
+    @Override
+    void close();
+}
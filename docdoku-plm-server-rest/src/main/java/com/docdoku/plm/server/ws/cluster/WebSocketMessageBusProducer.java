@@ -0,0 +1,69 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws.cluster;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Disposes;
+import javax.enterprise.inject.Produces;
+import javax.jms.ConnectionFactory;
+import javax.jms.Topic;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Selects the {@link WebSocketMessageBus} of this node.
+ *
+ * The JMS bus is used when the {@value #TOPIC} and {@value #FACTORY} resources are defined, next to the
+ * resources of the JPA cache coordination. Otherwise the node runs alone on a loopback bus.
+ */
+@ApplicationScoped
+public class WebSocketMessageBusProducer {
+
+    private static final Logger LOGGER = Logger.getLogger(WebSocketMessageBusProducer.class.getName());
+
+    public static final String TOPIC = "jms/WebSocketTopic";
+    public static final String FACTORY = "jms/WebSocketFactory";
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    @Produces
+    @ApplicationScoped
+    public WebSocketMessageBus createMessageBus() {
+        try {
+            Topic topic = InitialContext.doLookup(TOPIC);
+            ConnectionFactory connectionFactory = InitialContext.doLookup(FACTORY);
+            LOGGER.log(Level.INFO, "WebSocket sessions are shared through " + TOPIC);
+            return new JMSWebSocketMessageBus(connectionFactory, topic, threadFactory);
+        } catch (NamingException e) {
+            LOGGER.log(Level.FINE, "No websocket topic defined, running as a single node", e);
+            return new LoopbackWebSocketMessageBus();
+        }
+    }
+
+    public void closeMessageBus(@Disposes WebSocketMessageBus messageBus) {
+        messageBus.close();
+    }
+}
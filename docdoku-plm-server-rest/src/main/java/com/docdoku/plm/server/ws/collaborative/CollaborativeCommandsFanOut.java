@@ -0,0 +1,217 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws.collaborative;
+
+import com.docdoku.plm.server.ws.WebSocketMessage;
+import com.docdoku.plm.server.ws.WebSocketSession;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fan-out stage of the commands sent by the master of a collaborative room to the slaves
+ *
+ * Camera moves received within a tick are coalesced, only the last one is sent. Each slave has an outbox
+ * allowing a single pending send: while the client is busy, commands of the same kind replace each other,
+ * so slow clients skip intermediate states instead of piling up frames. Slaves which joined with the
+ * "deltas" flag receive only the camera fields changed since their last delivered camera.
+ */
+class CollaborativeCommandsFanOut {
+
+    private static final Logger LOGGER = Logger.getLogger(CollaborativeCommandsFanOut.class.getName());
+
+    static final String CAMERA_INFOS = "cameraInfos";
+    static final String DELTAS = "deltas";
+
+    /**
+     * Commands holding the whole state of their kind, a new one supersedes the previous
+     */
+    private static final List<String> STATE_COMMANDS = Arrays.asList(
+            CAMERA_INFOS, "smartPath", "editedObjects", "colourEditedObjects", "explode", "clipping", "measures"
+    );
+
+    private final ConcurrentMap<WebSocketSession, Outbox> outboxes = new ConcurrentHashMap<>();
+
+    private WebSocketMessage pendingCamera;
+    private boolean flushScheduled;
+    private long sequence;
+
+    /**
+     * Send a command message of the master to the slaves. Camera moves are delayed until the end of the current
+     * tick when a scheduler is given, other commands are sent right away.
+     */
+    void submit(List<WebSocketSession> slaves, WebSocketMessage message, ScheduledExecutorService scheduler, long tickMillis) {
+        JsonObject command = message.getJsonObject("broadcastMessage");
+        String kind = getKind(command);
+
+        if (CAMERA_INFOS.equals(kind) && scheduler != null) {
+            synchronized (this) {
+                pendingCamera = message;
+                if (flushScheduled) {
+                    return;
+                }
+                flushScheduled = true;
+            }
+            scheduler.schedule(() -> flush(slaves), tickMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        dispatch(slaves, kind, message);
+    }
+
+    private void flush(List<WebSocketSession> slaves) {
+        WebSocketMessage camera;
+        synchronized (this) {
+            camera = pendingCamera;
+            pendingCamera = null;
+            flushScheduled = false;
+        }
+        if (camera != null) {
+            dispatch(slaves, CAMERA_INFOS, camera);
+        }
+    }
+
+    private void dispatch(List<WebSocketSession> slaves, String kind, WebSocketMessage message) {
+        List<WebSocketSession> recipients = new ArrayList<>(slaves);
+        outboxes.keySet().retainAll(recipients);
+        for (WebSocketSession slave : recipients) {
+            outboxes.computeIfAbsent(slave, Outbox::new).offer(kind, message);
+        }
+    }
+
+    private synchronized String getKind(JsonObject command) {
+        if (command != null) {
+            for (String kind : STATE_COMMANDS) {
+                if (command.containsKey(kind)) {
+                    return kind;
+                }
+            }
+        }
+        // Not a state, never coalesced
+        return "#" + sequence++;
+    }
+
+    /**
+     * Compute the camera fields which differ from the last delivered camera
+     */
+    static JsonObject cameraDelta(JsonObject previous, JsonObject current) {
+        JsonObjectBuilder delta = Json.createObjectBuilder();
+        for (Map.Entry<String, JsonValue> entry : current.entrySet()) {
+            if (previous == null || !entry.getValue().equals(previous.get(entry.getKey()))) {
+                delta.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return delta.build();
+    }
+
+    /**
+     * Commands waiting for a slave, at most one per kind
+     */
+    private static class Outbox {
+
+        private final WebSocketSession session;
+        private final LinkedHashMap<String, WebSocketMessage> pending = new LinkedHashMap<>();
+        private boolean inFlight;
+        private JsonObject deliveredCamera;
+
+        Outbox(WebSocketSession session) {
+            this.session = session;
+        }
+
+        void offer(String kind, WebSocketMessage message) {
+            synchronized (this) {
+                // Re-insert to keep the order of arrival
+                pending.remove(kind);
+                pending.put(kind, message);
+                if (inFlight) {
+                    return;
+                }
+                inFlight = true;
+            }
+            sendNext();
+        }
+
+        private void sendNext() {
+            String kind;
+            WebSocketMessage message;
+            synchronized (this) {
+                Iterator<Map.Entry<String, WebSocketMessage>> iterator = pending.entrySet().iterator();
+                if (!iterator.hasNext()) {
+                    inFlight = false;
+                    return;
+                }
+                Map.Entry<String, WebSocketMessage> next = iterator.next();
+                iterator.remove();
+                kind = next.getKey();
+                message = next.getValue();
+            }
+
+            JsonObject camera = CAMERA_INFOS.equals(kind) ? message.getJsonObject("broadcastMessage").getJsonObject(CAMERA_INFOS) : null;
+            WebSocketMessage toSend = camera != null && acceptsDeltas() ? toDelta(message, camera) : message;
+
+            try {
+                session.sendObject(toSend, result -> {
+                    if (camera != null && result.isOK()) {
+                        synchronized (this) {
+                            deliveredCamera = camera;
+                        }
+                    }
+                    sendNext();
+                });
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Cannot send collaborative command", e);
+                synchronized (this) {
+                    inFlight = false;
+                }
+            }
+        }
+
+        private boolean acceptsDeltas() {
+            return Boolean.TRUE.equals(session.getUserProperties().get(DELTAS));
+        }
+
+        private WebSocketMessage toDelta(WebSocketMessage message, JsonObject camera) {
+            JsonObject previous;
+            synchronized (this) {
+                previous = deliveredCamera;
+            }
+            if (previous == null) {
+                return message;
+            }
+            JsonObject broadcastMessage = Json.createObjectBuilder()
+                    .add(CAMERA_INFOS, cameraDelta(previous, camera))
+                    .add("delta", true)
+                    .build();
+            return new WebSocketMessage(Json.createObjectBuilder(message.getObject())
+                    .add("broadcastMessage", broadcastMessage)
+                    .build());
+        }
+    }
+}
@@ -22,10 +22,10 @@ package com.docdoku.plm.server.ws.collaborative;
 
 
 import com.docdoku.plm.server.ws.WebSocketApplication;
+import com.docdoku.plm.server.ws.WebSocketSession;
 import com.docdoku.plm.server.ws.chat.Room;
 
 import javax.json.*;
-import javax.websocket.Session;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -40,14 +40,15 @@ import java.util.concurrent.ConcurrentMap;
 public class CollaborativeRoom {
     private static final ConcurrentMap<String, CollaborativeRoom> DB = new ConcurrentHashMap<>();
     private String key;
-    private Session master;
-    private List<Session> slaves;
+    private WebSocketSession master;
+    private List<WebSocketSession> slaves;
     private List<String> pendingUsers;
     private Date creationDate;
     private JsonObjectBuilder saveJsonCommands;
     private String lastMaster;
+    private final CollaborativeCommandsFanOut commandsFanOut = new CollaborativeCommandsFanOut();
 
-    public CollaborativeRoom(Session master) {
+    public CollaborativeRoom(WebSocketSession master) {
         this.key = UUID.randomUUID().toString();
         this.master = master;
         this.pendingUsers = new LinkedList<>();
@@ -87,7 +88,7 @@ public class CollaborativeRoom {
 
     public JsonObject getContext() {
         JsonArrayBuilder contextSlaves = Json.createArrayBuilder();
-        for (Session s : this.getSlaves()) {
+        for (WebSocketSession s : this.getSlaves()) {
             contextSlaves.add(getLoginFrom(s.getUserProperties()));
         }
 
@@ -116,7 +117,7 @@ public class CollaborativeRoom {
         }
     }
 
-    public Session getMaster() {
+    public WebSocketSession getMaster() {
         return master;
     }
 
@@ -128,7 +129,7 @@ public class CollaborativeRoom {
         return (String) userProperties.get(WebSocketApplication.LOGIN);
     }
 
-    public void setMaster(Session master) {
+    public void setMaster(WebSocketSession master) {
         this.master = master;
     }
 
@@ -140,15 +141,15 @@ public class CollaborativeRoom {
         this.key = key;
     }
 
-    public List<Session> getSlaves() {
+    public List<WebSocketSession> getSlaves() {
         return slaves;
     }
 
-    public void addSlave(Session slave) {
+    public void addSlave(WebSocketSession slave) {
         this.slaves.add(slave);
     }
 
-    public boolean removeSlave(Session slave) {
+    public boolean removeSlave(WebSocketSession slave) {
         return this.slaves.remove(slave);
     }
 
@@ -168,9 +169,9 @@ public class CollaborativeRoom {
         return (creationDate!=null) ? (Date) creationDate.clone() : null;
     }
 
-    public Session findUserSession(String user){
-        Session userSession = null;
-        for (Session s : this.getSlaves()) {
+    public WebSocketSession findUserSession(String user){
+        WebSocketSession userSession = null;
+        for (WebSocketSession s : this.getSlaves()) {
             if (getLoginFrom(s.getUserProperties()).equals(user)) {
                 userSession = s;
             }
@@ -178,6 +179,10 @@ public class CollaborativeRoom {
         return userSession;
     }
 
+    CollaborativeCommandsFanOut getCommandsFanOut() {
+        return commandsFanOut;
+    }
+
     public JsonObject getCommands() {
         return saveJsonCommands.build();
     }
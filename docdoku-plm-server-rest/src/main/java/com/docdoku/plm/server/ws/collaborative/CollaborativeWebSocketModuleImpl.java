@@ -23,14 +23,16 @@ package com.docdoku.plm.server.ws.collaborative;
 
 import com.docdoku.plm.server.ws.WebSocketMessage;
 import com.docdoku.plm.server.ws.WebSocketModule;
+import com.docdoku.plm.server.ws.WebSocketSession;
 import com.docdoku.plm.server.ws.WebSocketSessionsManager;
 
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 import javax.json.Json;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
 import javax.json.JsonValue;
-import javax.websocket.Session;
 import java.util.Arrays;
 import java.util.List;
 
@@ -46,6 +48,9 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
     @Inject
     private WebSocketSessionsManager webSocketSessionsManager;
 
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
 
     public static final String COLLABORATIVE_CREATE = "COLLABORATIVE_CREATE";
     public static final String COLLABORATIVE_INVITE = "COLLABORATIVE_INVITE";
@@ -61,6 +66,11 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
     public static final String CHAT_MESSAGE = "CHAT_MESSAGE";
 
+    /**
+     * Camera moves of the master are sent to the slaves at most once per tick
+     */
+    private static final long COMMANDS_TICK_MILLIS = 40;
+
     private static final List<String> SUPPORTED_TYPES = Arrays.asList(
             COLLABORATIVE_CREATE,
             COLLABORATIVE_INVITE,
@@ -81,11 +91,17 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
     }
 
     @Override
-    public void process(Session session, WebSocketMessage webSocketMessage) {
+    public void process(WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         String sender = webSocketSessionsManager.getHolder(session);
         String type = webSocketMessage.getType();
 
+        if (!COLLABORATIVE_CREATE.equals(type) && null == CollaborativeRoom.getByKeyName(webSocketMessage.getString("key"))) {
+            // The room lives on another node
+            webSocketSessionsManager.forward(session, webSocketMessage);
+            return;
+        }
+
         switch (type) {
 
             case COLLABORATIVE_CREATE:
@@ -131,7 +147,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
     }
 
-    private void onCollaborativeWithdrawInvitationMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onCollaborativeWithdrawInvitationMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         CollaborativeRoom room = CollaborativeRoom.getByKeyName(webSocketMessage.getString("key"));
         JsonObject broadcastMessage = webSocketMessage.getJsonObject("broadcastMessage");
@@ -157,7 +173,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
     }
 
-    private void onCollaborativeKickUserMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onCollaborativeKickUserMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         CollaborativeRoom room = CollaborativeRoom.getByKeyName(webSocketMessage.getString("key"));
 
@@ -165,7 +181,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
         if (room.getMasterName().equals(sender)) {
             // the master sent the kick
-            Session userSession = room.findUserSession(kickedUser);
+            WebSocketSession userSession = room.findUserSession(kickedUser);
             if (room.removeSlave(userSession)) {
                 webSocketSessionsManager.send(userSession, webSocketMessage);
                 broadcastNewContext(room);
@@ -174,7 +190,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
     }
 
-    private void onCollaborativeGiveHandMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onCollaborativeGiveHandMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         CollaborativeRoom room = CollaborativeRoom.getByKeyName(webSocketMessage.getString("key"));
 
@@ -183,7 +199,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
         if (room.getMasterName().equals(sender)) {
             // the master sent the invitation
             room.addSlave(room.getMaster());
-            Session userSession = room.findUserSession(promotedUser);
+            WebSocketSession userSession = room.findUserSession(promotedUser);
             if (room.removeSlave(userSession)) {
                 room.setMaster(userSession);
                 broadcastNewContext(room);
@@ -192,7 +208,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
     }
 
-    private void onCollaborativeKillMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onCollaborativeKillMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         CollaborativeRoom room = CollaborativeRoom.getByKeyName(webSocketMessage.getString("key"));
 
@@ -200,7 +216,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
             // the master sent the invitation
             String roomKey = room.getKey();
 
-            for (Session slave : room.getSlaves()) {
+            for (WebSocketSession slave : room.getSlaves()) {
                 WebSocketMessage message = createMessage(COLLABORATIVE_KICK_USER, roomKey,
                         JsonValue.NULL, webSocketSessionsManager.getHolder(slave));
                 webSocketSessionsManager.send(slave, message);
@@ -210,7 +226,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
     }
 
-    private void onCollaborativeExitMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onCollaborativeExitMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         CollaborativeRoom room = CollaborativeRoom.getByKeyName(webSocketMessage.getString("key"));
 
@@ -230,7 +246,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
     }
 
-    private void onCollaborativeCommandsMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onCollaborativeCommandsMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         CollaborativeRoom room = CollaborativeRoom.getByKeyName(webSocketMessage.getString("key"));
 
@@ -241,13 +257,13 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
             room.saveCommand(command);
 
-            webSocketSessionsManager.send(room.getSlaves(), webSocketMessage);
+            room.getCommandsFanOut().submit(room.getSlaves(), webSocketMessage, scheduler, COMMANDS_TICK_MILLIS);
 
         }
 
     }
 
-    private void onCollaborativeJoinMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onCollaborativeJoinMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         CollaborativeRoom room = CollaborativeRoom.getByKeyName(webSocketMessage.getString("key"));
 
@@ -256,6 +272,11 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
             return;
         }
 
+        if (webSocketMessage.getObject().getBoolean(CollaborativeCommandsFanOut.DELTAS, false)) {
+            // the client is able to apply camera deltas
+            session.getUserProperties().put(CollaborativeCommandsFanOut.DELTAS, true);
+        }
+
         // Master
         if ("".equals(room.getMasterName()) && room.getLastMaster().equals(sender)) {
             // if the room has no master, allow the last master to take the lead
@@ -278,7 +299,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
     }
 
-    private void onCollaborativeInviteMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onCollaborativeInviteMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         String invitedUser = webSocketMessage.getString("remoteUser");
         JsonObject broadcastMessage = webSocketMessage.getJsonObject("broadcastMessage");
@@ -314,7 +335,7 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
         }
     }
 
-    private void onCollaborativeCreateMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onCollaborativeCreateMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
         CollaborativeRoom room = new CollaborativeRoom(session);
 
         WebSocketMessage message = createMessage(COLLABORATIVE_CREATE, room.getKey(),
@@ -331,14 +352,14 @@ public class CollaborativeWebSocketModuleImpl implements WebSocketModule {
 
         webSocketSessionsManager.broadcast(master, message);
 
-        for (Session slave : room.getSlaves()) {
+        for (WebSocketSession slave : room.getSlaves()) {
             WebSocketMessage slaveMessage = createMessage(COLLABORATIVE_CONTEXT, room.getKey(),
                     room.getContext(), webSocketSessionsManager.getHolder(slave));
             webSocketSessionsManager.send(slave, slaveMessage);
         }
     }
 
-    public void sendAllCommands(Session session, CollaborativeRoom room) {
+    public void sendAllCommands(WebSocketSession session, CollaborativeRoom room) {
         WebSocketMessage message = createMessage(COLLABORATIVE_JOIN, room.getKey(),
                 room.getCommands(), webSocketSessionsManager.getHolder(session));
         webSocketSessionsManager.send(session, message);
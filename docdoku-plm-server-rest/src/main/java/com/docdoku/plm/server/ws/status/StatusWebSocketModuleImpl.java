@@ -23,12 +23,12 @@ package com.docdoku.plm.server.ws.status;
 
 import com.docdoku.plm.server.ws.WebSocketMessage;
 import com.docdoku.plm.server.ws.WebSocketModule;
+import com.docdoku.plm.server.ws.WebSocketSession;
 import com.docdoku.plm.server.ws.WebSocketSessionsManager;
 
 import javax.inject.Inject;
 import javax.json.Json;
 import javax.json.JsonObjectBuilder;
-import javax.websocket.Session;
 
 /**
  * Status module plugin implementation
@@ -51,7 +51,7 @@ public class StatusWebSocketModuleImpl implements WebSocketModule {
     }
 
     @Override
-    public void process(Session session, WebSocketMessage webSocketMessage) {
+    public void process(WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         String sender = webSocketSessionsManager.getHolder(session);
         String remoteUser = webSocketMessage.getString("remoteUser");
@@ -23,11 +23,11 @@ package com.docdoku.plm.server.ws.webrtc;
 
 import com.docdoku.plm.server.ws.WebSocketMessage;
 import com.docdoku.plm.server.ws.WebSocketModule;
+import com.docdoku.plm.server.ws.WebSocketSession;
 import com.docdoku.plm.server.ws.WebSocketSessionsManager;
 import com.docdoku.plm.server.ws.chat.Room;
 
 import javax.inject.Inject;
-import javax.websocket.Session;
 import java.util.logging.Logger;
 
 import static com.docdoku.plm.server.ws.webrtc.WebSocketUtils.*;
@@ -51,10 +51,15 @@ public class WebRTCWebSocketModuleImpl implements WebSocketModule {
     }
 
     @Override
-    public void process(Session session, WebSocketMessage webSocketMessage) {
+    public void process(WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         String sender = webSocketSessionsManager.getHolder(session);
         if(sender != null) {
+            if (!WEBRTC_INVITE.equals(webSocketMessage.getType()) && null == Room.getByKeyName(webSocketMessage.getString("roomKey"))) {
+                // The room lives on another node
+                webSocketSessionsManager.forward(session, webSocketMessage);
+                return;
+            }
             switch (webSocketMessage.getType()) {
 
                 case WEBRTC_INVITE:
@@ -89,7 +94,7 @@ public class WebRTCWebSocketModuleImpl implements WebSocketModule {
     }
 
 
-    private void processP2P(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void processP2P(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
         // webRTC P2P signaling messages
         // These messages are forwarded to the remote peer(s) in the room
 
@@ -98,7 +103,7 @@ public class WebRTCWebSocketModuleImpl implements WebSocketModule {
 
         if (room != null && room.hasUser(sender)) {
             // forward the message to the other peer
-            Session otherSession = room.getOtherUserSession(session);
+            WebSocketSession otherSession = room.getOtherUserSession(session);
 
             // on bye message, remove the user from the room
             if (WEBRTC_BYE.equals(webSocketMessage.getType())) {
@@ -112,12 +117,12 @@ public class WebRTCWebSocketModuleImpl implements WebSocketModule {
 
     }
 
-    private void onWebRTCHangupMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onWebRTCHangupMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
         String roomKey = webSocketMessage.getString("roomKey");
         Room room = Room.getByKeyName(roomKey);
 
         if (room != null) {
-            Session otherSession = room.getOtherUserSession(session);
+            WebSocketSession otherSession = room.getOtherUserSession(session);
             room.removeSession(session);
 
             WebSocketMessage message = WebSocketUtils.createMessage(WEBRTC_HANGUP, sender, roomKey, null, null, 0, null, null, null, null, null);
@@ -126,7 +131,7 @@ public class WebRTCWebSocketModuleImpl implements WebSocketModule {
         }
     }
 
-    private void onWebRTCRejectMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onWebRTCRejectMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
         String roomKey = webSocketMessage.getString("roomKey");
         String reason = webSocketMessage.getString("reason");
         Room room = Room.getByKeyName(roomKey);
@@ -138,7 +143,7 @@ public class WebRTCWebSocketModuleImpl implements WebSocketModule {
             WebSocketMessage message = WebSocketUtils.createMessage(WEBRTC_ROOM_REJECT_EVENT, null, roomKey, reason, null, room.getOccupancy(), sender, null, null, null, null);
             webSocketSessionsManager.broadcast(sender, message);
 
-            Session otherSession = room.getUserSession(remoteUser);
+            WebSocketSession otherSession = room.getUserSession(remoteUser);
             if (otherSession != null) {
                 WebSocketMessage otherMessage = WebSocketUtils.createMessage(WEBRTC_REJECT, sender, roomKey, reason, null, 0, null, null, null, null, null);
                 webSocketSessionsManager.send(otherSession, otherMessage);
@@ -146,7 +151,7 @@ public class WebRTCWebSocketModuleImpl implements WebSocketModule {
         }
     }
 
-    private void onWebRTCAcceptMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onWebRTCAcceptMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
         String roomKey = webSocketMessage.getString("roomKey");
         Room room = Room.getByKeyName(roomKey);
 
@@ -158,7 +163,7 @@ public class WebRTCWebSocketModuleImpl implements WebSocketModule {
             webSocketSessionsManager.broadcast(sender, message);
 
             // send room join event to the other user in room
-            Session otherSession = room.getOtherUserSession(session);
+            WebSocketSession otherSession = room.getOtherUserSession(session);
 
             if (otherSession != null) {
                 WebSocketMessage otherMessage = WebSocketUtils.createMessage(WEBRTC_ACCEPT, sender, roomKey, null, null, 0, null, null, null, null, null);
@@ -168,7 +173,7 @@ public class WebRTCWebSocketModuleImpl implements WebSocketModule {
     }
 
 
-    private void onWebRTCInviteMessage(String sender, Session session, WebSocketMessage webSocketMessage) {
+    private void onWebRTCInviteMessage(String sender, WebSocketSession session, WebSocketMessage webSocketMessage) {
 
         String remoteUser = webSocketMessage.getString("remoteUser");
         String roomKey = sender + "-" + remoteUser;
@@ -0,0 +1,82 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.auth;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AuthenticationCacheTest {
+
+    private AtomicLong now;
+    private AuthenticationCache<String> cache;
+
+    @Before
+    public void setup() {
+        now = new AtomicLong(1000);
+        cache = new AuthenticationCache<>(3, now::get);
+    }
+
+    @Test
+    public void shouldExpireEntries() {
+        cache.put("token", "user1", 2000);
+        Assert.assertEquals("user1", cache.get("token"));
+
+        now.set(2000);
+        Assert.assertNull(cache.get("token"));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldIgnoreExpiredEntries() {
+        cache.put("token", "user1", 500);
+        Assert.assertNull(cache.get("token"));
+    }
+
+    @Test
+    public void shouldStayBounded() {
+        cache.put("expired", "user0", 1500);
+        cache.put("token1", "user1", 5000);
+        cache.put("token2", "user2", 5000);
+        now.set(1600);
+
+        cache.put("token3", "user3", 5000);
+        Assert.assertNull(cache.get("expired"));
+        Assert.assertEquals("user3", cache.get("token3"));
+
+        cache.put("token4", "user4", 5000);
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals("user4", cache.get("token4"));
+    }
+
+    @Test
+    public void shouldInvalidateEntries() {
+        cache.put("token1", "user1", 5000);
+        cache.put("token2", "user2", 5000);
+
+        cache.invalidateIf("user1"::equals);
+
+        Assert.assertNull(cache.get("token1"));
+        Assert.assertEquals("user2", cache.get("token2"));
+    }
+}
@@ -228,7 +228,7 @@ public class DocumentBinaryResourceTest {
         Mockito.when(publicEntityManager.canAccess(ArgumentMatchers.any(DocumentIterationKey.class))).thenReturn(true);
 
         //When
-        Response response = documentBinaryResource.downloadDocumentFile(request, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOCUMENT_ID, ResourceUtil.VERSION, ResourceUtil.ITERATION, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null, ResourceUtil.RANGE, null, null, null);
+        Response response = documentBinaryResource.downloadDocumentFile(request, null, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOCUMENT_ID, ResourceUtil.VERSION, ResourceUtil.ITERATION, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null, ResourceUtil.RANGE, null, null, null);
 
         //Then
         assertNotNull(response);
@@ -268,7 +268,7 @@ public class DocumentBinaryResourceTest {
         String uuid = ResourceUtil.SHARED_DOC_ENTITY_UUID.split("/")[2];
         Mockito.when(shareService.findSharedEntityForGivenUUID(uuid)).thenReturn(sharedEntity);
         //When
-        Response response = documentBinaryResource.downloadDocumentFile(request, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOCUMENT_ID, ResourceUtil.VERSION, ResourceUtil.ITERATION, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null, ResourceUtil.RANGE, uuid, "password", null);
+        Response response = documentBinaryResource.downloadDocumentFile(request, null, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOCUMENT_ID, ResourceUtil.VERSION, ResourceUtil.ITERATION, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null, ResourceUtil.RANGE, uuid, "password", null);
 
         //Then
         assertNotNull(response);
@@ -308,7 +308,7 @@ public class DocumentBinaryResourceTest {
         String uuid = ResourceUtil.SHARED_DOC_ENTITY_UUID.split("/")[2];
         Mockito.when(shareService.findSharedEntityForGivenUUID(uuid)).thenReturn(sharedEntity);
         //When
-        Response response = documentBinaryResource.downloadDocumentFile(request, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOCUMENT_ID, ResourceUtil.VERSION, ResourceUtil.ITERATION, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null, ResourceUtil.RANGE, uuid, "password", null);
+        Response response = documentBinaryResource.downloadDocumentFile(request, null, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOCUMENT_ID, ResourceUtil.VERSION, ResourceUtil.ITERATION, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null, ResourceUtil.RANGE, uuid, "password", null);
 
         //Then
         assertNotNull(response);
@@ -340,7 +340,7 @@ public class DocumentBinaryResourceTest {
 
         //When
         try {
-            Response response = documentBinaryResource.downloadDocumentFile(request, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOCUMENT_ID, ResourceUtil.VERSION, ResourceUtil.ITERATION, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null, ResourceUtil.RANGE, null, null, null);
+            Response response = documentBinaryResource.downloadDocumentFile(request, null, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOCUMENT_ID, ResourceUtil.VERSION, ResourceUtil.ITERATION, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null, ResourceUtil.RANGE, null, null, null);
             assertTrue(false);
         } catch (NotAllowedException e) {
             assertTrue(true);
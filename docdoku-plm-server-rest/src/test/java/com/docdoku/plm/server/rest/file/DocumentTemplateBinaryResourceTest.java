@@ -77,7 +77,7 @@ public class DocumentTemplateBinaryResourceTest {
         FileInputStream fileInputStream = new FileInputStream(input);
         Mockito.when(storageManager.getBinaryResourceInputStream(binaryResource)).thenReturn(fileInputStream);
         //When
-        Response response = documentTemplateBinaryResource.downloadDocumentTemplateFile(request, ResourceUtil.RANGE, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOC_TEMPLATE_ID, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null);
+        Response response = documentTemplateBinaryResource.downloadDocumentTemplateFile(request, null, ResourceUtil.RANGE, ResourceUtil.WORKSPACE_ID, ResourceUtil.DOC_TEMPLATE_ID, ResourceUtil.FILENAME1, ResourceUtil.FILE_TYPE, null);
 
         //Then
         Assert.assertNotNull(response);
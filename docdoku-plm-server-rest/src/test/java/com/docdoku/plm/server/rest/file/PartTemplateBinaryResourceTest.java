@@ -223,7 +223,7 @@ public class PartTemplateBinaryResourceTest {
         Mockito.when(productService.getTemplateBinaryResource(ResourceUtil.WORKSPACE_ID + "/part-templates/" + ResourceUtil.PART_TEMPLATE_ID + "/" + ResourceUtil.TEST_PART_FILENAME1)).thenReturn(binaryResource);
         Mockito.when(storageManager.getBinaryResourceInputStream(binaryResource)).thenReturn(fileInputStream);
         //When
-        Response response = partTemplateBinaryResource.downloadPartTemplateFile(request, ResourceUtil.RANGE, ResourceUtil.WORKSPACE_ID, ResourceUtil.PART_TEMPLATE_ID, ResourceUtil.TEST_PART_FILENAME1);
+        Response response = partTemplateBinaryResource.downloadPartTemplateFile(request, null, ResourceUtil.RANGE, ResourceUtil.WORKSPACE_ID, ResourceUtil.PART_TEMPLATE_ID, ResourceUtil.TEST_PART_FILENAME1);
         //Then
         Assert.assertNotNull(response);
         Assert.assertEquals(response.getStatusInfo(), Response.Status.PARTIAL_CONTENT);
@@ -252,7 +252,7 @@ public class PartTemplateBinaryResourceTest {
         Mockito.when(productService.getTemplateBinaryResource(ResourceUtil.WORKSPACE_ID + "/part-templates/" + ResourceUtil.PART_TEMPLATE_ID + "/" + ResourceUtil.TEST_PART_FILENAME1)).thenReturn(binaryResource);
         Mockito.when(storageManager.getBinaryResourceInputStream(binaryResource)).thenReturn(fileInputStream);
         //When
-        Response response = partTemplateBinaryResource.downloadPartTemplateFile(request, null, ResourceUtil.WORKSPACE_ID, ResourceUtil.PART_TEMPLATE_ID, ResourceUtil.TEST_PART_FILENAME1);
+        Response response = partTemplateBinaryResource.downloadPartTemplateFile(request, null, null, ResourceUtil.WORKSPACE_ID, ResourceUtil.PART_TEMPLATE_ID, ResourceUtil.TEST_PART_FILENAME1);
         //Then
         Assert.assertNotNull(response);
         Assert.assertEquals(response.getStatusInfo(), Response.Status.OK);
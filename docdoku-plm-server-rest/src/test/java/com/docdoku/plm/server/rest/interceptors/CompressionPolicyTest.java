@@ -0,0 +1,86 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.interceptors;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class CompressionPolicyTest {
+
+    @Test
+    public void shouldSkipAlreadyCompressedTypes() {
+        assertFalse(CompressionPolicy.isCompressible("application/zip"));
+        assertFalse(CompressionPolicy.isCompressible("application/pdf"));
+        assertFalse(CompressionPolicy.isCompressible("image/jpeg"));
+        assertFalse(CompressionPolicy.isCompressible("model/gltf-binary"));
+        assertFalse(CompressionPolicy.isCompressible("application/x-vnd.openxmlformat"));
+        assertFalse(CompressionPolicy.isCompressible("video/mp4"));
+    }
+
+    @Test
+    public void shouldCompressTextAndUnknownTypes() {
+        assertTrue(CompressionPolicy.isCompressible("text/plain;charset=UTF-8"));
+        assertTrue(CompressionPolicy.isCompressible("text/xml"));
+        assertTrue(CompressionPolicy.isCompressible("image/svg+xml"));
+        assertTrue(CompressionPolicy.isCompressible("application/octet-stream"));
+        assertTrue(CompressionPolicy.isCompressible(null));
+    }
+
+    @Test
+    public void shouldNegotiateCodec() {
+        assertEquals(CompressionCodec.GZIP, CompressionPolicy.negotiate(null, null));
+        assertEquals(CompressionCodec.GZIP, CompressionPolicy.negotiate("gzip, deflate, br", null));
+        assertEquals(CompressionCodec.DEFLATE, CompressionPolicy.negotiate("gzip;q=0.5, deflate", null));
+        assertEquals(CompressionCodec.GZIP, CompressionPolicy.negotiate("br, *;q=0.1", null));
+        assertNull(CompressionPolicy.negotiate("br", null));
+        assertNull(CompressionPolicy.negotiate("gzip;q=0", null));
+        assertNull(CompressionPolicy.negotiate("gzip", "identity"));
+    }
+
+    @Test
+    public void shouldWriteReadableGzipVariant() throws IOException {
+        byte[] content = "DocDokuPLM DocDokuPLM DocDokuPLM DocDokuPLM".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = CompressionCodec.GZIP.wrap(compressed, CompressionCodec.PRECOMPRESSED_LEVEL)) {
+            outputStream.write(content);
+        }
+
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            byte[] buffer = new byte[256];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                decompressed.write(buffer, 0, read);
+            }
+        }
+
+        assertArrayEquals(content, decompressed.toByteArray());
+        assertEquals("file.txt.gz", CompressionCodec.GZIP.getVariantName("file.txt"));
+    }
+}
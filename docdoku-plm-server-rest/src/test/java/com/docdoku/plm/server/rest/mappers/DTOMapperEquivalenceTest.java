@@ -0,0 +1,173 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.mappers;
+
+import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.product.*;
+import com.docdoku.plm.server.rest.Tools;
+import com.docdoku.plm.server.rest.dto.*;
+import org.dozer.DozerBeanMapperSingletonWrapper;
+import org.dozer.Mapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the reflection-free mappers serialize exactly like the Dozer based mapping they replace.
+ */
+public class DTOMapperEquivalenceTest {
+
+    private Mapper mapper;
+    private Jsonb jsonb;
+
+    @Before
+    public void setup() {
+        mapper = DozerBeanMapperSingletonWrapper.getInstance();
+        jsonb = JsonbBuilder.create();
+    }
+
+    @Test
+    public void partRevisionMappingTest() {
+        PartRevision partRevision = DTOMapperFixtures.createPartRevision(3, 4);
+        assertEquals(jsonb.toJson(mapWithDozer(partRevision)), jsonb.toJson(PartDTOMapper.toPartRevisionDTO(partRevision)));
+    }
+
+    @Test
+    public void checkedOutPartRevisionMappingTest() {
+        PartRevision partRevision = DTOMapperFixtures.createPartRevision(2, 1);
+        partRevision.setCheckOutUser(partRevision.getAuthor());
+        partRevision.setCheckOutDate(partRevision.getCreationDate());
+        partRevision.setACL(null);
+        partRevision.setWorkflow(null);
+        assertEquals(jsonb.toJson(mapWithDozer(partRevision)), jsonb.toJson(PartDTOMapper.toPartRevisionDTO(partRevision)));
+    }
+
+    @Test
+    public void lightPartRevisionMappingTest() {
+        PartRevision partRevision = DTOMapperFixtures.createPartRevision(3, 2);
+        PartRevisionDTO expected = mapWithDozer(partRevision);
+        expected.getPartIterations().clear();
+
+        PartRevisionDTO light = PartDTOMapper.toLightPartRevisionDTO(partRevision);
+        assertTrue(light.getPartIterations().isEmpty());
+        assertEquals(jsonb.toJson(expected), jsonb.toJson(light));
+    }
+
+    @Test
+    public void documentRevisionMappingTest() {
+        DocumentRevision documentRevision = DTOMapperFixtures.createDocumentRevision(3);
+        documentRevision.getLastIteration().setLinkedDocuments(DTOMapperFixtures.createPartRevision(1, 0)
+                .getLastIteration().getLinkedDocuments());
+        assertEquals(jsonb.toJson(mapper.map(documentRevision, DocumentRevisionDTO.class)),
+                jsonb.toJson(DocumentDTOMapper.toDocumentRevisionDTO(documentRevision)));
+    }
+
+    @Test
+    public void lightDocumentRevisionMappingTest() {
+        DocumentRevision documentRevision = DTOMapperFixtures.createDocumentRevision(3);
+        DocumentRevisionDTO expected = Tools.createLightDocumentRevisionDTO(mapper.map(documentRevision, DocumentRevisionDTO.class));
+
+        DocumentRevisionDTO light = DocumentDTOMapper.toLightDocumentRevisionDTO(documentRevision);
+        assertEquals(1, light.getDocumentIterations().size());
+        assertEquals(jsonb.toJson(expected), jsonb.toJson(light));
+    }
+
+    /**
+     * The Dozer based mapping previously done by {@link Tools#mapPartRevisionToPartDTO}.
+     */
+    private PartRevisionDTO mapWithDozer(PartRevision partRevision) {
+        PartRevisionDTO partRevisionDTO = mapper.map(partRevision, PartRevisionDTO.class);
+
+        partRevisionDTO.setNumber(partRevision.getPartNumber());
+        partRevisionDTO.setPartKey(partRevision.getPartNumber() + "-" + partRevision.getVersion());
+        partRevisionDTO.setName(partRevision.getPartMaster().getName());
+        partRevisionDTO.setStandardPart(partRevision.getPartMaster().isStandardPart());
+        partRevisionDTO.setType(partRevision.getPartMaster().getType());
+
+        if (partRevision.isObsolete()) {
+            partRevisionDTO.setObsoleteDate(partRevision.getObsoleteDate());
+            partRevisionDTO.setObsoleteAuthor(mapper.map(partRevision.getObsoleteAuthor(), UserDTO.class));
+        }
+
+        if (partRevision.getReleaseAuthor() != null) {
+            partRevisionDTO.setReleaseDate(partRevision.getReleaseDate());
+            partRevisionDTO.setReleaseAuthor(mapper.map(partRevision.getReleaseAuthor(), UserDTO.class));
+        }
+
+        List<PartIterationDTO> partIterationDTOs = new ArrayList<>();
+        for (PartIteration partIteration : partRevision.getPartIterations()) {
+            partIterationDTOs.add(mapWithDozer(partIteration));
+        }
+        partRevisionDTO.setPartIterations(partIterationDTOs);
+
+        if (partRevision.isCheckedOut()) {
+            partRevisionDTO.setCheckOutDate(partRevision.getCheckOutDate());
+            partRevisionDTO.setCheckOutUser(mapper.map(partRevision.getCheckOutUser(), UserDTO.class));
+        }
+
+        if (partRevision.hasWorkflow()) {
+            partRevisionDTO.setLifeCycleState(partRevision.getWorkflow().getLifeCycleState());
+            partRevisionDTO.setWorkflow(mapper.map(partRevision.getWorkflow(), WorkflowDTO.class));
+        }
+
+        partRevisionDTO.setAcl(partRevision.getACL() == null ? null : Tools.mapACLtoACLDTO(partRevision.getACL()));
+        return partRevisionDTO;
+    }
+
+    private PartIterationDTO mapWithDozer(PartIteration partIteration) {
+        PartIterationDTO partIterationDTO = mapper.map(partIteration, PartIterationDTO.class);
+
+        List<PartUsageLinkDTO> usageLinksDTO = new ArrayList<>();
+        for (PartUsageLink partUsageLink : partIteration.getComponents()) {
+            PartUsageLinkDTO partUsageLinkDTO = mapper.map(partUsageLink, PartUsageLinkDTO.class);
+            List<CADInstanceDTO> cadInstancesDTO = new ArrayList<>();
+            for (CADInstance cadInstance : partUsageLink.getCadInstances()) {
+                CADInstanceDTO cadInstanceDTO = mapper.map(cadInstance, CADInstanceDTO.class);
+                if (RotationType.MATRIX.equals(cadInstance.getRotationType())) {
+                    cadInstanceDTO.setMatrix(cadInstance.getRotationMatrix().getValues());
+                }
+                cadInstancesDTO.add(cadInstanceDTO);
+            }
+            List<PartSubstituteLinkDTO> substituteLinkDTOs = new ArrayList<>();
+            for (PartSubstituteLink partSubstituteLink : partUsageLink.getSubstitutes()) {
+                substituteLinkDTOs.add(mapper.map(partSubstituteLink, PartSubstituteLinkDTO.class));
+            }
+            partUsageLinkDTO.setCadInstances(cadInstancesDTO);
+            partUsageLinkDTO.setSubstitutes(substituteLinkDTOs);
+            usageLinksDTO.add(partUsageLinkDTO);
+        }
+        partIterationDTO.setComponents(usageLinksDTO);
+        partIterationDTO.setNumber(partIteration.getPartRevision().getPartNumber());
+        partIterationDTO.setVersion(partIteration.getPartRevision().getVersion());
+
+        if (!partIteration.getGeometries().isEmpty()) {
+            partIterationDTO.setGeometryFileURI("/api/files/" + partIteration.getSortedGeometries().get(0).getFullName());
+        }
+        return partIterationDTO;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.rest.mappers;
+
+import com.docdoku.plm.server.core.common.Account;
+import com.docdoku.plm.server.core.common.BinaryResource;
+import com.docdoku.plm.server.core.common.User;
+import com.docdoku.plm.server.core.common.UserGroup;
+import com.docdoku.plm.server.core.common.Workspace;
+import com.docdoku.plm.server.core.document.DocumentIteration;
+import com.docdoku.plm.server.core.document.DocumentLink;
+import com.docdoku.plm.server.core.document.DocumentMaster;
+import com.docdoku.plm.server.core.document.DocumentRevision;
+import com.docdoku.plm.server.core.meta.*;
+import com.docdoku.plm.server.core.product.*;
+import com.docdoku.plm.server.core.security.ACL;
+import com.docdoku.plm.server.core.security.ACLPermission;
+import com.docdoku.plm.server.core.workflow.Workflow;
+
+import java.util.*;
+
+/**
+ * Entity graphs of the mapper equivalence test.
+ */
+final class DTOMapperFixtures {
+
+    static final String WORKSPACE_ID = "wks";
+
+    private static final Date DATE = new Date(1577836800000L);
+
+    private DTOMapperFixtures() {
+    }
+
+    static PartRevision createPartRevision(int iterations, int componentsPerIteration) {
+        Workspace workspace = new Workspace(WORKSPACE_ID);
+        User user = createUser(workspace, "user1");
+
+        PartMaster partMaster = createPartMaster(workspace, user, "PART-001");
+        partMaster.setType("assembly");
+
+        PartRevision partRevision = new PartRevision(partMaster, "A", user);
+        partRevision.setDescription("Part revision description");
+        partRevision.setCreationDate(DATE);
+        partRevision.setTags(new HashSet<>(Arrays.asList(new Tag(workspace, "tag1"), new Tag(workspace, "tag2"))));
+        partRevision.setACL(createACL(workspace, user));
+        partRevision.setWorkflow(new Workflow("Approved"));
+        partRevision.release(user);
+        partRevision.getReleaseStatusChange().setStatusModificationDate(DATE);
+
+        DocumentRevision linkedDocument = createDocumentRevision(1);
+
+        for (int i = 1; i <= iterations; i++) {
+            PartIteration partIteration = partRevision.createNextIteration(user);
+            partIteration.setIterationNote("Iteration " + i);
+            partIteration.setCreationDate(DATE);
+            partIteration.setModificationDate(DATE);
+            partIteration.setCheckInDate(DATE);
+            partIteration.setNativeCADFile(new BinaryResource(WORKSPACE_ID + "/parts/PART-001/A/" + i + "/nativecad/part.step", 4096, DATE));
+            partIteration.addAttachedFile(new BinaryResource(WORKSPACE_ID + "/parts/PART-001/A/" + i + "/attachedfiles/notes.txt", 128, DATE));
+            partIteration.addGeometry(new Geometry(0, WORKSPACE_ID + "/parts/PART-001/A/" + i + "/part.obj", 2048, DATE));
+            partIteration.setInstanceAttributes(createInstanceAttributes());
+            partIteration.setInstanceAttributeTemplates(new ArrayList<>(Collections.singletonList(
+                    new DefaultAttributeTemplate("weight", DefaultAttributeTemplate.AttributeType.NUMBER))));
+            partIteration.setLinkedDocuments(new HashSet<>(Collections.singletonList(createDocumentLink(linkedDocument, i))));
+
+            List<PartUsageLink> components = new ArrayList<>();
+            for (int c = 0; c < componentsPerIteration; c++) {
+                components.add(createUsageLink(workspace, user, i * 1000 + c));
+            }
+            partIteration.setComponents(components);
+        }
+        return partRevision;
+    }
+
+    static DocumentRevision createDocumentRevision(int iterations) {
+        Workspace workspace = new Workspace(WORKSPACE_ID);
+        User user = createUser(workspace, "user2");
+
+        DocumentMaster documentMaster = new DocumentMaster(workspace, "DOC-001", user);
+        documentMaster.setType("specification");
+
+        DocumentRevision documentRevision = new DocumentRevision(documentMaster, "A", user);
+        documentRevision.setTitle("Document title");
+        documentRevision.setDescription("Document revision description");
+        documentRevision.setCreationDate(DATE);
+        documentRevision.setCheckOutUser(user);
+        documentRevision.setCheckOutDate(DATE);
+        documentRevision.setTags(new HashSet<>(Collections.singletonList(new Tag(workspace, "tag1"))));
+        documentRevision.setACL(createACL(workspace, user));
+        documentRevision.setWorkflow(new Workflow("Reviewed"));
+
+        for (int i = 1; i <= iterations; i++) {
+            DocumentIteration documentIteration = documentRevision.createNextIteration(user);
+            documentIteration.setRevisionNote("Iteration " + i);
+            documentIteration.setCreationDate(DATE);
+            documentIteration.setModificationDate(DATE);
+            documentIteration.setCheckInDate(DATE);
+            documentIteration.addFile(new BinaryResource(WORKSPACE_ID + "/documents/DOC-001/A/" + i + "/spec.pdf", 65536, DATE));
+            documentIteration.setInstanceAttributes(createInstanceAttributes());
+        }
+        return documentRevision;
+    }
+
+    private static User createUser(Workspace workspace, String login) {
+        Account account = new Account(login, login + " name", login + "@docdoku.com", "en", DATE, "CET");
+        return new User(workspace, account);
+    }
+
+    private static PartMaster createPartMaster(Workspace workspace, User user, String number) {
+        PartMaster partMaster = new PartMaster(workspace, number);
+        partMaster.setName(number + " name");
+        partMaster.setAuthor(user);
+        partMaster.setCreationDate(DATE);
+        return partMaster;
+    }
+
+    private static ACL createACL(Workspace workspace, User user) {
+        ACL acl = new ACL();
+        acl.addEntry(user, ACLPermission.FULL_ACCESS);
+        acl.addEntry(new UserGroup(workspace, "group1"), ACLPermission.READ_ONLY);
+        return acl;
+    }
+
+    private static List<InstanceAttribute> createInstanceAttributes() {
+        InstanceListOfValuesAttribute lovAttribute = new InstanceListOfValuesAttribute("material", 1, false);
+        lovAttribute.setItems(Arrays.asList(new NameValuePair("steel", "S"), new NameValuePair("aluminium", "A")));
+
+        List<InstanceAttribute> attributes = new ArrayList<>();
+        attributes.add(new InstanceTextAttribute("supplier", "DocDoku", true));
+        attributes.add(new InstanceNumberAttribute("weight", 12.5f, false));
+        attributes.add(lovAttribute);
+        return attributes;
+    }
+
+    private static DocumentLink createDocumentLink(DocumentRevision target, int id) {
+        DocumentLink documentLink = new DocumentLink(target, "link " + id);
+        documentLink.setId(id);
+        return documentLink;
+    }
+
+    private static PartUsageLink createUsageLink(Workspace workspace, User user, int id) {
+        PartUsageLink usageLink = new PartUsageLink(createPartMaster(workspace, user, "COMP-" + id), 2, "kg", false);
+        usageLink.setId(id);
+        usageLink.setComment("comment " + id);
+        usageLink.setReferenceDescription("ref " + id);
+        usageLink.setCadInstances(new ArrayList<>(Arrays.asList(
+                new CADInstance(1, 2, 3, 0.1, 0.2, 0.3),
+                new CADInstance(new RotationMatrix(new double[]{1, 0, 0, 0, 1, 0, 0, 0, 1}), 4, 5, 6))));
+
+        PartSubstituteLink substituteLink = new PartSubstituteLink();
+        substituteLink.setId(id);
+        substituteLink.setAmount(1);
+        substituteLink.setUnit("kg");
+        substituteLink.setReferenceDescription("substitute ref " + id);
+        substituteLink.setSubstitute(createPartMaster(workspace, user, "SUB-" + id));
+        substituteLink.setCadInstances(new ArrayList<>(Collections.singletonList(new CADInstance(7, 8, 9, 0, 0, 0))));
+        usageLink.setSubstitutes(new ArrayList<>(Collections.singletonList(substituteLink)));
+        return usageLink;
+    }
+}
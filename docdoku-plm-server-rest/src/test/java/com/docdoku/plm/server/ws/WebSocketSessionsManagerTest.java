@@ -0,0 +1,148 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws;
+
+import com.docdoku.plm.server.ws.cluster.LoopbackWebSocketMessageBus;
+import com.docdoku.plm.server.ws.cluster.RemoteSession;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import javax.json.Json;
+import java.util.Collections;
+
+public class WebSocketSessionsManagerTest {
+
+    private LoopbackWebSocketMessageBus busA;
+    private LoopbackWebSocketMessageBus busB;
+    private WebSocketModule moduleB;
+    private WebSocketSessionsManager nodeA;
+    private WebSocketSessionsManager nodeB;
+
+    @Before
+    public void setup() {
+        busA = new LoopbackWebSocketMessageBus();
+        busB = new LoopbackWebSocketMessageBus(busA);
+        moduleB = Mockito.mock(WebSocketModule.class);
+        nodeA = new WebSocketSessionsManager(null, busA, Collections.emptyList());
+        nodeB = new WebSocketSessionsManager(null, busB, Collections.singletonList(moduleB));
+        nodeA.init();
+        nodeB.init();
+    }
+
+    @After
+    public void tearDown() {
+        busA.close();
+        busB.close();
+    }
+
+    @Test
+    public void shouldTrackLocalSessions() {
+        WebSocketSession session1 = mockSession("1");
+        WebSocketSession session2 = mockSession("2");
+
+        nodeA.addSession("user1", session1);
+        nodeA.addSession("user1", session2);
+
+        Assert.assertEquals(2, nodeA.getSessions("user1").size());
+        Assert.assertEquals("user1", nodeA.getHolder(session2));
+        Assert.assertTrue(nodeA.getSessions("user2").isEmpty());
+
+        nodeA.removeSession(session1);
+        Assert.assertNull(nodeA.getHolder(session1));
+        Assert.assertTrue(nodeA.hasSessions("user1"));
+
+        nodeA.removeSession(session2);
+        Assert.assertFalse(nodeA.hasSessions("user1"));
+    }
+
+    @Test
+    public void shouldSeeUsersOfOtherNodes() {
+        WebSocketSession session = mockSession("1");
+
+        nodeA.addSession("user1", session);
+        Assert.assertTrue(nodeB.hasSessions("user1"));
+        Assert.assertTrue(nodeB.getSessions("user1").isEmpty());
+
+        nodeA.removeSession(session);
+        Assert.assertFalse(nodeB.hasSessions("user1"));
+    }
+
+    @Test
+    public void shouldAnswerPresenceRequestOfNewNode() {
+        nodeA.addSession("user1", mockSession("1"));
+
+        LoopbackWebSocketMessageBus busC = new LoopbackWebSocketMessageBus(busA);
+        WebSocketSessionsManager nodeC = new WebSocketSessionsManager(null, busC, Collections.emptyList());
+        nodeC.init();
+
+        Assert.assertTrue(nodeC.hasSessions("user1"));
+        busC.close();
+    }
+
+    @Test
+    public void shouldBroadcastToOtherNodes() {
+        WebSocketSession sessionA = mockSession("1");
+        WebSocketSession sessionB = mockSession("2");
+        nodeA.addSession("user1", sessionA);
+        nodeB.addSession("user1", sessionB);
+
+        nodeB.broadcast("user1", message("CHAT_MESSAGE"));
+
+        ArgumentCaptor<WebSocketMessage> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        Mockito.verify(sessionA).sendObject(captor.capture());
+        Assert.assertEquals("CHAT_MESSAGE", captor.getValue().getType());
+        Mockito.verify(sessionB).sendObject(Mockito.any());
+    }
+
+    @Test
+    public void shouldForwardToOtherNodesAndReply() {
+        WebSocketSession sessionA = mockSession("1");
+        nodeA.addSession("user1", sessionA);
+        Mockito.when(moduleB.canDecode(Mockito.any())).thenReturn(true);
+        Mockito.doAnswer(invocation -> {
+            WebSocketSession remote = invocation.getArgument(0);
+            Assert.assertTrue(remote instanceof RemoteSession);
+            Assert.assertEquals("user1", nodeB.getHolder(remote));
+            nodeB.send(remote, message("COLLABORATIVE_CONTEXT"));
+            return null;
+        }).when(moduleB).process(Mockito.any(), Mockito.any());
+
+        nodeA.forward(sessionA, message("COLLABORATIVE_JOIN"));
+
+        ArgumentCaptor<WebSocketMessage> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        Mockito.verify(sessionA).sendObject(captor.capture());
+        Assert.assertEquals("COLLABORATIVE_CONTEXT", captor.getValue().getType());
+    }
+
+    private static WebSocketSession mockSession(String id) {
+        WebSocketSession session = Mockito.mock(WebSocketSession.class);
+        Mockito.when(session.getId()).thenReturn(id);
+        return session;
+    }
+
+    private static WebSocketMessage message(String type) {
+        return new WebSocketMessage(Json.createObjectBuilder().add("type", type).build());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * DocDoku, Professional Open Source
+ * Copyright 2006 - 2020 DocDoku SARL
+ *
+ * This file is part of DocDokuPLM.
+ *
+ * DocDokuPLM is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DocDokuPLM is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with DocDokuPLM.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.docdoku.plm.server.ws.collaborative;
+
+import com.docdoku.plm.server.ws.WebSocketMessage;
+import com.docdoku.plm.server.ws.WebSocketSession;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class CollaborativeCommandsFanOutTest {
+
+    private CollaborativeCommandsFanOut fanOut;
+    private WebSocketSession slave;
+    private Map<String, Object> userProperties;
+    private List<SendHandler> handlers;
+
+    @Before
+    public void setup() {
+        fanOut = new CollaborativeCommandsFanOut();
+        slave = Mockito.mock(WebSocketSession.class);
+        userProperties = new HashMap<>();
+        handlers = new ArrayList<>();
+        Mockito.when(slave.getUserProperties()).thenReturn(userProperties);
+        Mockito.doAnswer(invocation -> handlers.add(invocation.getArgument(1)))
+                .when(slave).sendObject(Mockito.any(), Mockito.any(SendHandler.class));
+    }
+
+    @Test
+    public void shouldSerializeOnce() {
+        WebSocketMessage message = camera(1, 2);
+        Assert.assertSame(message.toJson(), message.toJson());
+    }
+
+    @Test
+    public void shouldDropIntermediateStatesOfSlowClients() {
+        List<WebSocketSession> slaves = Collections.singletonList(slave);
+        WebSocketMessage first = camera(1, 0);
+        WebSocketMessage last = camera(3, 0);
+
+        fanOut.submit(slaves, first, null, 0);
+        fanOut.submit(slaves, camera(2, 0), null, 0);
+        fanOut.submit(slaves, explode("10"), null, 0);
+        fanOut.submit(slaves, last, null, 0);
+
+        ArgumentCaptor<WebSocketMessage> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        Mockito.verify(slave, Mockito.times(1)).sendObject(captor.capture(), Mockito.any(SendHandler.class));
+        Assert.assertSame(first, captor.getValue());
+
+        handlers.get(0).onResult(new SendResult());
+        handlers.get(1).onResult(new SendResult());
+
+        Mockito.verify(slave, Mockito.times(3)).sendObject(captor.capture(), Mockito.any(SendHandler.class));
+        List<WebSocketMessage> sent = captor.getAllValues();
+        Assert.assertEquals("10", sent.get(sent.size() - 2).getJsonObject("broadcastMessage").getString("explode"));
+        Assert.assertSame(last, sent.get(sent.size() - 1));
+    }
+
+    @Test
+    public void shouldSendCameraDeltas() {
+        userProperties.put(CollaborativeCommandsFanOut.DELTAS, true);
+        List<WebSocketSession> slaves = Collections.singletonList(slave);
+
+        fanOut.submit(slaves, camera(1, 2), null, 0);
+        handlers.get(0).onResult(new SendResult());
+        fanOut.submit(slaves, camera(1, 5), null, 0);
+
+        ArgumentCaptor<WebSocketMessage> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        Mockito.verify(slave, Mockito.times(2)).sendObject(captor.capture(), Mockito.any(SendHandler.class));
+        JsonObject broadcastMessage = captor.getValue().getJsonObject("broadcastMessage");
+        Assert.assertTrue(broadcastMessage.getBoolean("delta"));
+        JsonObject delta = broadcastMessage.getJsonObject(CollaborativeCommandsFanOut.CAMERA_INFOS);
+        Assert.assertEquals(1, delta.size());
+        Assert.assertEquals(5, delta.getInt("target"));
+    }
+
+    @Test
+    public void shouldCoalesceCameraMovesWithinTick() {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        List<WebSocketSession> slaves = Collections.singletonList(slave);
+        WebSocketMessage last = camera(3, 0);
+
+        fanOut.submit(slaves, camera(1, 0), scheduler, 40);
+        fanOut.submit(slaves, camera(2, 0), scheduler, 40);
+        fanOut.submit(slaves, last, scheduler, 40);
+
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler, Mockito.times(1)).schedule(flush.capture(), Mockito.eq(40L), Mockito.eq(TimeUnit.MILLISECONDS));
+        Mockito.verify(slave, Mockito.never()).sendObject(Mockito.any(), Mockito.any(SendHandler.class));
+
+        flush.getValue().run();
+        Mockito.verify(slave, Mockito.times(1)).sendObject(Mockito.eq(last), Mockito.any(SendHandler.class));
+    }
+
+    private static WebSocketMessage camera(int position, int target) {
+        JsonObject cameraInfos = Json.createObjectBuilder()
+                .add("position", position)
+                .add("target", target)
+                .build();
+        return command(Json.createObjectBuilder().add(CollaborativeCommandsFanOut.CAMERA_INFOS, cameraInfos).build());
+    }
+
+    private static WebSocketMessage explode(String value) {
+        return command(Json.createObjectBuilder().add("explode", value).build());
+    }
+
+    private static WebSocketMessage command(JsonObject broadcastMessage) {
+        return new WebSocketMessage(Json.createObjectBuilder()
+                .add("type", CollaborativeWebSocketModuleImpl.COLLABORATIVE_COMMANDS)
+                .add("key", "room")
+                .add("broadcastMessage", broadcastMessage)
+                .build());
+    }
+}
@@ -23,6 +23,7 @@ package com.docdoku.plm.server.ws.collaborative;
 
 import com.docdoku.plm.server.ws.WebSocketApplication;
 import com.docdoku.plm.server.ws.WebSocketMessage;
+import com.docdoku.plm.server.ws.WebSocketSession;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -34,7 +35,6 @@ import org.mockito.junit.MockitoJUnitRunner;
 import javax.json.Json;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
-import javax.websocket.Session;
 import java.io.StringReader;
 import java.util.HashMap;
 
@@ -43,9 +43,9 @@ import java.util.HashMap;
  */
 @RunWith(MockitoJUnitRunner.class)
 public class CollaborativeRoomTest {
-    private static Session master = Mockito.mock(Session.class);
-    private static Session slave1 = Mockito.mock(Session.class);
-    private static Session slave2 = Mockito.mock(Session.class);
+    private static WebSocketSession master = Mockito.mock(WebSocketSession.class);
+    private static WebSocketSession slave1 = Mockito.mock(WebSocketSession.class);
+    private static WebSocketSession slave2 = Mockito.mock(WebSocketSession.class);
 
     @BeforeClass
     public static void init() {
@@ -26,9 +26,9 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
+import com.docdoku.plm.server.ws.WebSocketSession;
 import com.docdoku.plm.server.ws.chat.Room;
 
-import javax.websocket.Session;
 import java.security.Principal;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -45,14 +45,14 @@ public class RoomTest {
     @SuppressWarnings("unchecked")
     private static ConcurrentMap<String, Room> DB = Mockito.mock(ConcurrentHashMap.class);
 
-    private static Session userSession1 = Mockito.mock(Session.class);
-    private static Session userSession2 = Mockito.mock(Session.class);
+    private static WebSocketSession userSession1 = Mockito.mock(WebSocketSession.class);
+    private static WebSocketSession userSession2 = Mockito.mock(WebSocketSession.class);
     private static Principal principal1 = Mockito.mock(Principal.class);
     private static Principal principal2 = Mockito.mock(Principal.class);
     private static Principal principal3 = Mockito.mock(Principal.class);
     private static Room secondRoom = Mockito.spy(new Room("PLMRoom"));
     private static Room thirdRoom = Mockito.spy(new Room("ChatRoom"));
-    private static Session userSession3 = Mockito.mock(Session.class);
+    private static WebSocketSession userSession3 = Mockito.mock(WebSocketSession.class);
 
     @BeforeClass
     public static void setUp() {
@@ -63,7 +63,7 @@ public class RoomTest {
         Mockito.when(room.getUser1Login()).thenCallRealMethod();
         Mockito.when(room.getUser2Login()).thenCallRealMethod();
         Mockito.when(room.getUserSession(ArgumentMatchers.anyString())).thenCallRealMethod();
-        Mockito.when(room.getOtherUserSession(ArgumentMatchers.any(Session.class))).thenCallRealMethod();
+        Mockito.when(room.getOtherUserSession(ArgumentMatchers.any(WebSocketSession.class))).thenCallRealMethod();
         Mockito.when(RoomTest.DB.get(ArgumentMatchers.anyString())).thenReturn(room);
         Mockito.when(RoomTest.DB.get("plm").getSessionForUserLogin(ArgumentMatchers.anyString())).thenCallRealMethod();
         Mockito.when(RoomTest.DB.get("plm").getRoomSessionForUserLogin(ArgumentMatchers.anyString())).thenCallRealMethod();
@@ -123,7 +123,7 @@ public class RoomTest {
 
     @Test
     public void testGetOtherUserSession() {
-        Session userSession3 = Mockito.mock(Session.class);
+        WebSocketSession userSession3 = Mockito.mock(WebSocketSession.class);
         Assert.assertEquals(DB.get("plm").getOtherUserSession(userSession1), userSession2);
         Assert.assertEquals(DB.get("plm").getOtherUserSession(userSession2), userSession1);
         Assert.assertNull(DB.get("plm").getOtherUserSession(userSession3));